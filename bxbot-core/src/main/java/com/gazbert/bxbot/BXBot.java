@@ -24,7 +24,11 @@
 package com.gazbert.bxbot;
 
 import com.gazbert.bxbot.core.engine.TradingEngine;
+import com.gazbert.bxbot.core.engine.TradingEngineFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -32,17 +36,28 @@ import org.springframework.util.Assert;
 
 /**
  * BX-bot - here be the main boot app.
+ * <p>
+ * The main bot reads its config from the config/ directory. Any other bots listed in the
+ * bxbot.hosted-bots.config-dirs property are hosted in the same JVM, each running its own Trading Engine in its own
+ * thread.
  *
  * @author gazbert
  */
 @SpringBootApplication
 public class BXBot implements CommandLineRunner {
 
+    private static final Logger LOG = LogManager.getLogger();
+
     private final TradingEngine tradingEngine;
+    private final TradingEngineFactory tradingEngineFactory;
+    private final String[] hostedBotConfigDirs;
 
     @Autowired
-    public BXBot(TradingEngine tradingEngine) {
+    public BXBot(TradingEngine tradingEngine, TradingEngineFactory tradingEngineFactory,
+                 @Value("${bxbot.hosted-bots.config-dirs:}") String[] hostedBotConfigDirs) {
         this.tradingEngine = tradingEngine;
+        this.tradingEngineFactory = tradingEngineFactory;
+        this.hostedBotConfigDirs = hostedBotConfigDirs;
     }
 
     public static void main(String[] args) {
@@ -51,6 +66,25 @@ public class BXBot implements CommandLineRunner {
 
     @Override
     public void run(String... strings) throws Exception {
+        for (final String configDir : hostedBotConfigDirs) {
+            if (!configDir.trim().isEmpty()) {
+                startHostedBot(configDir.trim());
+            }
+        }
         tradingEngine.start();
     }
-}
\ No newline at end of file
+
+    /*
+     * A hosted bot failing, on startup or later, does not stop the other bots.
+     */
+    private void startHostedBot(String configDir) {
+        final Thread engineThread = new Thread(() -> {
+            try {
+                tradingEngineFactory.createTradingEngine(configDir).start();
+            } catch (Exception e) {
+                LOG.fatal("Hosted bot with config in " + configDir + " has failed", e);
+            }
+        }, "bxbot-engine-" + configDir);
+        engineThread.start();
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Performs the Emergency Stop check on its own schedule, off the Trading Engine thread.
+ * <p>
+ * The watchdog fetches the wallet balances from the exchange every check interval and records a verdict: the
+ * Emergency Stop Currency balance is above the Emergency Stop balance, it has been breached, or the check failed.
+ * The Trading Engine only reads the last verdict at the start of each trade cycle, so it no longer has to wait for a
+ * balance round-trip to the exchange before executing the Trading Strategies.
+ * <p>
+ * A breach is final: the {@link BreachListener} is called once, straight away, and no further checks are made. The
+ * Trading Engine uses the listener to halt trading without waiting for the next trade cycle.
+ * <p>
+ * If the last check failed, or the last successful check is too old, the verdict cannot be trusted and the failure is
+ * handed to the Trading Engine so it can apply its normal error handling policy.
+ *
+ * @author gazbert
+ */
+final class EmergencyStopWatchdog {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    /*
+     * A verdict older than this many check intervals is treated as a failed check.
+     */
+    private static final int MAX_VERDICT_AGE_IN_CHECK_INTERVALS = 3;
+
+    /**
+     * Notified when the Emergency Stop balance has been breached.
+     */
+    interface BreachListener {
+
+        /**
+         * Called once, on the watchdog thread, when the Emergency Stop balance has been breached.
+         *
+         * @param breachDetails details of the breach.
+         */
+        void onEmergencyStopBreached(String breachDetails);
+    }
+
+    private final TradingApi tradingApi;
+    private final String emergencyStopCurrency;
+    private final BigDecimal emergencyStopBalance;
+    private final long checkIntervalInNanos;
+    private final BreachListener breachListener;
+    private final ScheduledExecutorService scheduler;
+
+    /*
+     * The scheduled balance check. The scheduler may be shared with other Trading Engines, so we only ever cancel this.
+     */
+    private volatile ScheduledFuture<?> scheduledCheck;
+
+    /*
+     * Released when the first check has completed - we never trade without a verdict.
+     */
+    private final CountDownLatch firstVerdictLatch = new CountDownLatch(1);
+
+    /*
+     * The result of the last check. Written by the watchdog thread, read by the Trading Engine thread.
+     */
+    private volatile Verdict verdict;
+
+
+    EmergencyStopWatchdog(TradingApi tradingApi, String emergencyStopCurrency, BigDecimal emergencyStopBalance,
+                          long checkInterval, TimeUnit timeUnit, BreachListener breachListener,
+                          ScheduledExecutorService scheduler) {
+        if (checkInterval <= 0) {
+            throw new IllegalArgumentException("Emergency Stop check interval must be greater than zero: "
+                    + checkInterval);
+        }
+        this.tradingApi = tradingApi;
+        this.emergencyStopCurrency = emergencyStopCurrency;
+        this.emergencyStopBalance = emergencyStopBalance;
+        this.checkIntervalInNanos = timeUnit.toNanos(checkInterval);
+        this.breachListener = breachListener;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Starts checking the balance. The first check is made immediately.
+     */
+    void start() {
+        scheduledCheck = scheduler.scheduleWithFixedDelay(this::check, 0, checkIntervalInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops checking the balance.
+     */
+    void shutdown() {
+        cancelScheduledCheck(true);
+    }
+
+    /**
+     * Returns the last verdict. Blocks only until the first check has completed.
+     *
+     * @return true if the Emergency Stop balance has been breached, false otherwise.
+     * @throws ExchangeNetworkException if the last check failed with a network error, or the last verdict is too old.
+     * @throws TradingApiException      if the last check failed with an Exchange Adapter error.
+     * @throws InterruptedException     if interrupted waiting for the first check to complete.
+     */
+    boolean isEmergencyStopLimitBreached()
+            throws ExchangeNetworkException, TradingApiException, InterruptedException {
+
+        firstVerdictLatch.await();
+        final Verdict lastVerdict = verdict;
+
+        if (lastVerdict.isBreached) {
+            return true;
+        }
+
+        final Exception failure = lastVerdict.failure;
+        if (failure instanceof ExchangeNetworkException) {
+            throw (ExchangeNetworkException) failure;
+        } else if (failure instanceof TradingApiException) {
+            throw (TradingApiException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure != null) {
+            throw new IllegalStateException("Emergency Stop check failed", failure);
+        }
+
+        final long verdictAge = System.nanoTime() - lastVerdict.checkedAt;
+        if (verdictAge > MAX_VERDICT_AGE_IN_CHECK_INTERVALS * checkIntervalInNanos) {
+            throw new ExchangeNetworkException("Last Emergency Stop check passed "
+                    + TimeUnit.NANOSECONDS.toMillis(verdictAge) + "ms ago - the exchange has not returned a Balance"
+                    + " since then");
+        }
+        return false;
+    }
+
+    /*
+     * Runs on the watchdog thread. Must not throw, else the scheduler silently stops running it.
+     */
+    private void check() {
+
+        final Verdict lastVerdict = verdict;
+        if (lastVerdict != null && lastVerdict.isBreached) {
+            return;
+        }
+
+        final String breachDetails;
+        try {
+            breachDetails = checkBalance();
+        } catch (Exception e) {
+            LOG.error("Failed to perform Emergency Stop check - letting Trade Engine error policy decide what to do"
+                    + " next...", e);
+            verdict = Verdict.failed(e);
+            firstVerdictLatch.countDown();
+            return;
+        }
+
+        if (breachDetails == null) {
+            verdict = Verdict.passed();
+            firstVerdictLatch.countDown();
+            return;
+        }
+
+        verdict = Verdict.breached();
+        firstVerdictLatch.countDown();
+        // if the first check breaches, it may beat start() to setting scheduledCheck - the verdict still stops any
+        // further checks
+        cancelScheduledCheck(false);
+
+        LOG.fatal(breachDetails);
+        try {
+            breachListener.onEmergencyStopBreached(breachDetails);
+        } catch (Exception e) {
+            LOG.error("Emergency Stop breach listener failed - trading will still halt at next trade cycle", e);
+        }
+    }
+
+    /*
+     * Returns details of the breach if the balance on the exchange has dropped below the Emergency Stop balance,
+     * null otherwise.
+     */
+    private String checkBalance() throws ExchangeNetworkException, TradingApiException {
+
+        LOG.info(() -> "Performing Emergency Stop check...");
+
+        final BalanceInfo balanceInfo = tradingApi.getBalanceInfo();
+        final Map<String, BigDecimal> balancesAvailable = balanceInfo.getBalancesAvailable();
+        final BigDecimal currentBalance = balancesAvailable.get(emergencyStopCurrency);
+        if (currentBalance == null) {
+            final String errorMsg =
+                    "Emergency stop check: Failed to get current Emergency Stop Currency balance as '"
+                            + emergencyStopCurrency + "' key into Balances map "
+                            + "returned null. Balances returned: " + balancesAvailable;
+            throw new IllegalStateException(errorMsg);
+        }
+
+        LOG.info(() -> "Emergency Stop Currency balance available on exchange is ["
+                + new DecimalFormat("#.########").format(currentBalance) + "] "
+                + emergencyStopCurrency);
+
+        LOG.info(() -> "Balance that will stop ALL trading across ALL markets is ["
+                + new DecimalFormat("#.########").format(emergencyStopBalance) + "] " + emergencyStopCurrency);
+
+        if (currentBalance.compareTo(emergencyStopBalance) < 0) {
+            return "EMERGENCY STOP triggered! - Current Emergency Stop Currency [" + emergencyStopCurrency
+                    + "] wallet balance [" + new DecimalFormat("#.########").format(currentBalance) + "] on exchange "
+                    + "is lower than configured Emergency Stop balance ["
+                    + new DecimalFormat("#.########").format(emergencyStopBalance) + "] " + emergencyStopCurrency;
+        }
+
+        LOG.info(() -> "Emergency Stop check PASSED!");
+        return null;
+    }
+
+    private void cancelScheduledCheck(boolean mayInterruptIfRunning) {
+        final ScheduledFuture<?> check = scheduledCheck;
+        if (check != null) {
+            check.cancel(mayInterruptIfRunning);
+        }
+    }
+
+    /*
+     * The immutable result of a check.
+     */
+    private static final class Verdict {
+
+        private final boolean isBreached;
+        private final Exception failure;
+        private final long checkedAt;
+
+        private Verdict(boolean isBreached, Exception failure) {
+            this.isBreached = isBreached;
+            this.failure = failure;
+            this.checkedAt = System.nanoTime();
+        }
+
+        static Verdict passed() {
+            return new Verdict(false, null);
+        }
+
+        static Verdict breached() {
+            return new Verdict(true, null);
+        }
+
+        static Verdict failed(Exception failure) {
+            return new Verdict(false, failure);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.google.common.base.MoreObjects;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binds an Exchange Adapter to the Markets that trade on it.
+ * <p>
+ * Each Exchange has its own trade cycle snapshot, Market strategies, and strategy executor, so the Trading Engine can
+ * drive each Exchange from its own control loop and a failure on one Exchange does not stop trading on the others.
+ * <p>
+ * This class is not thread safe - it is set up by the Trading Engine thread and then only used by the Exchange's
+ * control loop thread.
+ *
+ * @author gazbert
+ */
+final class ExchangeContext {
+
+    private final String exchangeId;
+    private final String exchangeName;
+    private final ExchangeAdapter exchangeAdapter;
+
+    /*
+     * The adapter without the caching wrapper, for the Emergency Stop check - it must never read a cached balance.
+     * Same as exchangeAdapter if caching is not enabled.
+     */
+    private final ExchangeAdapter uncachedExchangeAdapter;
+    private final TradeCycleSnapshot tradeCycleSnapshot;
+    private final List<MarketStrategy> marketStrategies = new ArrayList<>();
+
+    /*
+     * Runs the strategies in PARALLEL and VIRTUAL modes. Null if strategies are executed sequentially.
+     */
+    private ParallelStrategyExecutor parallelStrategyExecutor;
+
+    /*
+     * Checks the Emergency Stop balance on this Exchange. Null if the check is disabled or the Exchange is not traded on.
+     */
+    private EmergencyStopWatchdog emergencyStopWatchdog;
+
+    /*
+     * The thread running this Exchange's control loop. Volatile as it is interrupted from other threads.
+     */
+    private volatile Thread controlLoopThread;
+
+
+    ExchangeContext(String exchangeId, String exchangeName, ExchangeAdapter exchangeAdapter,
+                    ExchangeAdapter uncachedExchangeAdapter) {
+        this.exchangeId = exchangeId;
+        this.exchangeName = exchangeName;
+        this.exchangeAdapter = exchangeAdapter;
+        this.uncachedExchangeAdapter = uncachedExchangeAdapter;
+        this.tradeCycleSnapshot = new TradeCycleSnapshot(exchangeAdapter);
+    }
+
+    String getExchangeId() {
+        return exchangeId;
+    }
+
+    String getExchangeName() {
+        return exchangeName;
+    }
+
+    ExchangeAdapter getExchangeAdapter() {
+        return exchangeAdapter;
+    }
+
+    ExchangeAdapter getUncachedExchangeAdapter() {
+        return uncachedExchangeAdapter;
+    }
+
+    TradeCycleSnapshot getTradeCycleSnapshot() {
+        return tradeCycleSnapshot;
+    }
+
+    List<MarketStrategy> getMarketStrategies() {
+        return marketStrategies;
+    }
+
+    ParallelStrategyExecutor getParallelStrategyExecutor() {
+        return parallelStrategyExecutor;
+    }
+
+    void setParallelStrategyExecutor(ParallelStrategyExecutor parallelStrategyExecutor) {
+        this.parallelStrategyExecutor = parallelStrategyExecutor;
+    }
+
+    EmergencyStopWatchdog getEmergencyStopWatchdog() {
+        return emergencyStopWatchdog;
+    }
+
+    void setEmergencyStopWatchdog(EmergencyStopWatchdog emergencyStopWatchdog) {
+        this.emergencyStopWatchdog = emergencyStopWatchdog;
+    }
+
+    Thread getControlLoopThread() {
+        return controlLoopThread;
+    }
+
+    void setControlLoopThread(Thread controlLoopThread) {
+        this.controlLoopThread = controlLoopThread;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("exchangeId", exchangeId)
+                .add("exchangeName", exchangeName)
+                .add("exchangeAdapter", exchangeAdapter.getClass().getName())
+                .add("markets", marketStrategies.size())
+                .toString();
+    }
+}
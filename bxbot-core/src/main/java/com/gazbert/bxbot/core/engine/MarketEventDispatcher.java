@@ -0,0 +1,221 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.strategy.api.MarketEventListener;
+import com.gazbert.bxbot.strategy.api.StrategyConfig;
+import com.gazbert.bxbot.strategy.api.StrategyException;
+import com.gazbert.bxbot.strategy.api.TradingStrategy;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.Market;
+import com.gazbert.bxbot.trading.api.MarketOrder;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Invokes a {@link MarketEventListener} strategy in the EVENT_DRIVEN strategy invocation mode.
+ * <p>
+ * It is executed by the Trading Engine in place of the strategy each trade cycle. It fetches the market's order book
+ * and calls {@link MarketEventListener#onOrderBookUpdate(MarketOrderBook)} only if the book has changed since the
+ * last cycle. If there are orders open on the market, it also fetches your open orders and calls
+ * {@link MarketEventListener#onOrderFilled(OpenOrder)} for each order that has disappeared (fully filled) or has less
+ * quantity remaining (partly filled). Fills are reported before the order book update.
+ * <p>
+ * Orders placed and cancelled by the strategy are tracked through the {@link TradeCycleSnapshot.OrderListener}
+ * callbacks, so a cancelled order is not mistaken for a fill, and an order filled straight away is still reported.
+ * Open orders are only fetched when there is something to track, so a strategy with no open orders costs one order
+ * book read per trade cycle.
+ * <p>
+ * The reads go through the {@link TradeCycleSnapshot}, so if the strategy reads the same data in its callbacks it
+ * does not hit the exchange again.
+ *
+ * @author gazbert
+ */
+final class MarketEventDispatcher implements TradingStrategy, TradeCycleSnapshot.OrderListener {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private final Market market;
+    private final MarketEventListener listener;
+    private final TradingApi tradingApi;
+
+    /*
+     * The order book the listener was last told about. Null until the first successful read.
+     */
+    private MarketOrderBook lastOrderBook;
+
+    /*
+     * Orders we believe are open on the market, keyed by order id. Guarded by this.
+     */
+    private final Map<String, OpenOrder> knownOpenOrders = new LinkedHashMap<>();
+
+    /*
+     * Orders open before the engine started have to be loaded once before we can spot them being filled.
+     */
+    private boolean haveLoadedOpenOrders;
+
+
+    MarketEventDispatcher(Market market, MarketEventListener listener, TradingApi tradingApi) {
+        this.market = market;
+        this.listener = listener;
+        this.tradingApi = tradingApi;
+    }
+
+    /**
+     * Does nothing - the strategy being dispatched to has already been initialised by the Trading Engine, and the
+     * dispatcher keeps the Market and Trading API it was created with.
+     *
+     * @param tradingApi ignored.
+     * @param market     ignored.
+     * @param config     ignored.
+     */
+    @Override
+    public void init(TradingApi tradingApi, Market market, StrategyConfig config) {
+        // nothing to initialise
+    }
+
+    /**
+     * Checks the market for changes and calls the listener for each one.
+     *
+     * @throws StrategyException if the listener throws it, or the Exchange Adapter fails with a TradingApiException.
+     */
+    @Override
+    public void execute() throws StrategyException {
+
+        try {
+            for (final OpenOrder filledOrder : findFilledOrders()) {
+                LOG.info(() -> market.getName() + " Order filled: " + filledOrder);
+                listener.onOrderFilled(filledOrder);
+            }
+
+            final MarketOrderBook orderBook = tradingApi.getMarketOrders(market.getId());
+            if (lastOrderBook != null && isSameOrderBook(lastOrderBook, orderBook)) {
+                LOG.debug(() -> market.getName() + " Order book has not changed - nothing to do");
+                return;
+            }
+            lastOrderBook = orderBook;
+            listener.onOrderBookUpdate(orderBook);
+
+        } catch (ExchangeNetworkException e) {
+            // Same as the polled strategies: log it and try again next trade cycle
+            LOG.error(market.getName() + " Failed to check market for changes because Exchange threw network"
+                    + " exception. Waiting until next trade cycle.", e);
+
+        } catch (TradingApiException e) {
+            final String errorMsg = market.getName() + " Failed to check market for changes because Exchange threw"
+                    + " TradingApi exception. Telling Trading Engine to shutdown bot!";
+            LOG.error(errorMsg, e);
+            throw new StrategyException(errorMsg, e);
+        }
+    }
+
+    @Override
+    public void orderPlaced(OpenOrder order) {
+        synchronized (this) {
+            knownOpenOrders.put(order.getId(), order);
+        }
+    }
+
+    @Override
+    public void orderCancelled(String orderId) {
+        synchronized (this) {
+            knownOpenOrders.remove(orderId);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MarketEventDispatcher.class.getSimpleName() + " for " + listener.getClass().getSimpleName();
+    }
+
+    /*
+     * Compares the open orders on the exchange with the ones we knew about at the end of the last cycle.
+     */
+    private List<OpenOrder> findFilledOrders() throws ExchangeNetworkException, TradingApiException {
+
+        synchronized (this) {
+            if (haveLoadedOpenOrders && knownOpenOrders.isEmpty()) {
+                return new ArrayList<>();
+            }
+        }
+
+        final List<OpenOrder> openOrders = tradingApi.getYourOpenOrders(market.getId());
+
+        final Map<String, OpenOrder> currentOpenOrders = new LinkedHashMap<>();
+        for (final OpenOrder openOrder : openOrders) {
+            currentOpenOrders.put(openOrder.getId(), openOrder);
+        }
+
+        final List<OpenOrder> filledOrders = new ArrayList<>();
+        synchronized (this) {
+            for (final OpenOrder knownOrder : knownOpenOrders.values()) {
+                final OpenOrder currentOrder = currentOpenOrders.get(knownOrder.getId());
+                if (currentOrder == null) {
+                    filledOrders.add(knownOrder);
+                } else if (currentOrder.getQuantity().compareTo(knownOrder.getQuantity()) < 0) {
+                    filledOrders.add(currentOrder);
+                }
+            }
+            knownOpenOrders.clear();
+            knownOpenOrders.putAll(currentOpenOrders);
+            haveLoadedOpenOrders = true;
+        }
+        return filledOrders;
+    }
+
+    /*
+     * Adapters build a new order book every read, so compare the prices and quantities rather than the objects.
+     */
+    private static boolean isSameOrderBook(MarketOrderBook previous, MarketOrderBook latest) {
+        return isSameOrders(previous.getBuyOrders(), latest.getBuyOrders())
+                && isSameOrders(previous.getSellOrders(), latest.getSellOrders());
+    }
+
+    private static boolean isSameOrders(List<MarketOrder> previous, List<MarketOrder> latest) {
+
+        if (previous.size() != latest.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < previous.size(); i++) {
+            final MarketOrder previousOrder = previous.get(i);
+            final MarketOrder latestOrder = latest.get(i);
+            if (previousOrder.getType() != latestOrder.getType()
+                    || previousOrder.getPrice().compareTo(latestOrder.getPrice()) != 0
+                    || previousOrder.getQuantity().compareTo(latestOrder.getQuantity()) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.core.metrics.MarketMetrics;
+import com.gazbert.bxbot.strategy.api.StrategyException;
+import com.gazbert.bxbot.strategy.api.TradingStrategy;
+import com.gazbert.bxbot.trading.api.Market;
+import com.google.common.base.MoreObjects;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binds a Trading Strategy to the Market it has been initialised to trade on, along with the Market's trade cycle
+ * schedule.
+ * <p>
+ * It is {@link Delayed} so the Trading Engine can hold the Markets in a {@link java.util.concurrent.DelayQueue} and
+ * execute each strategy independently when its next trade cycle is due.
+ *
+ * @author gazbert
+ */
+final class MarketStrategy implements Delayed {
+
+    private final Market market;
+    private final TradingStrategy tradingStrategy;
+    private final TradeCycleSchedule tradeCycleSchedule;
+    private final MarketMetrics marketMetrics;
+
+    MarketStrategy(Market market, TradingStrategy tradingStrategy, TradeCycleSchedule tradeCycleSchedule) {
+        this(market, tradingStrategy, tradeCycleSchedule, new MarketMetrics());
+    }
+
+    MarketStrategy(Market market, TradingStrategy tradingStrategy, TradeCycleSchedule tradeCycleSchedule,
+                   MarketMetrics marketMetrics) {
+        this.market = market;
+        this.tradingStrategy = tradingStrategy;
+        this.tradeCycleSchedule = tradeCycleSchedule;
+        this.marketMetrics = marketMetrics;
+    }
+
+    /*
+     * Executes the Trading Strategy and records how long it took, whether it succeeded or not.
+     */
+    void execute() throws StrategyException {
+        final long startTime = System.nanoTime();
+        try {
+            tradingStrategy.execute();
+        } finally {
+            marketMetrics.getStrategyExecutionTimes().record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    Market getMarket() {
+        return market;
+    }
+
+    TradingStrategy getTradingStrategy() {
+        return tradingStrategy;
+    }
+
+    TradeCycleSchedule getTradeCycleSchedule() {
+        return tradeCycleSchedule;
+    }
+
+    MarketMetrics getMarketMetrics() {
+        return marketMetrics;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(tradeCycleSchedule.getDelayInNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+        if (other instanceof MarketStrategy) {
+            final long diff = tradeCycleSchedule.getNextCycleStartTime()
+                    - ((MarketStrategy) other).tradeCycleSchedule.getNextCycleStartTime();
+            return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+        }
+        return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("market", market)
+                .add("tradingStrategy", tradingStrategy.getClass().getName())
+                .add("tradeCycleInterval", tradeCycleSchedule.getPeriod(TimeUnit.MILLISECONDS) + "ms")
+                .toString();
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.strategy.api.StrategyException;
+import com.gazbert.bxbot.trading.api.Market;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Executes the Trading Strategies for a trade cycle concurrently on a bounded pool of threads. The pool may be shared
+ * with other Trading Engines, so it is never shut down here.
+ * <p>
+ * The {@link #execute(List)} call acts as a barrier: it returns only when every strategy submitted for the cycle has
+ * finished or has exceeded its per-market timeout. The timeout is measured from when a strategy actually starts
+ * running, so strategies still queued behind a small pool are not penalised.
+ * <p>
+ * A strategy that times out is interrupted (best effort) and left to finish in the background. Its Market is skipped
+ * in subsequent trade cycles until it completes - the same Trading Strategy is never executed concurrently with itself.
+ * <p>
+ * If any strategy fails, the first failure is re-thrown once the barrier has been reached so the Trading Engine can
+ * apply its normal error handling policy.
+ * <p>
+ * This class is not thread safe - it is only ever called from the Trading Engine thread.
+ *
+ * @author gazbert
+ */
+final class ParallelStrategyExecutor {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    /*
+     * How often we check if a queued strategy has started running, so we can start its timeout clock.
+     */
+    private static final long QUEUED_TASK_POLL_INTERVAL_MILLIS = 50;
+
+    private final Executor executor;
+    private final long timeoutInNanos;
+
+    /*
+     * Strategies that exceeded their timeout in a previous trade cycle and are still running.
+     */
+    private final Map<Market, StrategyTask> overrunningTasks = new HashMap<>();
+
+
+    ParallelStrategyExecutor(Executor executor, long timeout, TimeUnit timeUnit) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("Strategy execution timeout must be greater than zero: " + timeout);
+        }
+        this.executor = executor;
+        this.timeoutInNanos = timeUnit.toNanos(timeout);
+    }
+
+    /**
+     * Executes the given Trading Strategies and waits for them all to finish or time out.
+     *
+     * @param marketStrategies the strategies to execute for this trade cycle.
+     * @throws StrategyException if a Trading Strategy failed; the first failure is thrown.
+     */
+    void execute(List<MarketStrategy> marketStrategies) throws StrategyException {
+
+        removeCompletedOverrunningTasks();
+
+        final List<StrategyTask> tasks = new ArrayList<>(marketStrategies.size());
+        for (final MarketStrategy marketStrategy : marketStrategies) {
+            final Market market = marketStrategy.getMarket();
+            if (overrunningTasks.containsKey(market)) {
+                LOG.warn(() -> "Skipping Trading Strategy for Market [" + market.getName()
+                        + "] - it is still running from a previous trade cycle");
+                continue;
+            }
+
+            LOG.info(() -> "Executing Trading Strategy ---> "
+                    + marketStrategy.getTradingStrategy().getClass().getSimpleName()
+                    + " for Market [" + market.getName() + "]");
+
+            final StrategyTask task = new StrategyTask(marketStrategy);
+            executor.execute(task);
+            tasks.add(task);
+        }
+
+        Throwable firstFailure = null;
+        for (final StrategyTask task : tasks) {
+            final String marketName = task.getMarket().getName();
+            try {
+                awaitCompletion(task);
+
+            } catch (TimeoutException e) {
+                LOG.error("Trading Strategy for Market [" + marketName + "] did not complete within "
+                        + TimeUnit.NANOSECONDS.toMillis(timeoutInNanos) + "ms - interrupting it. The Market will be "
+                        + "skipped until the strategy completes.");
+                task.interruptRunner();
+                overrunningTasks.put(task.getMarket(), task);
+
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (firstFailure == null) {
+                    firstFailure = cause;
+                } else {
+                    LOG.error("Trading Strategy for Market [" + marketName + "] also failed during this trade cycle",
+                            cause);
+                }
+
+            } catch (InterruptedException e) {
+                LOG.warn("Control Loop thread interrupted when waiting for Trading Strategies to complete");
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        if (firstFailure != null) {
+            rethrow(firstFailure);
+        }
+    }
+
+    /**
+     * Interrupts any strategies still running from previous trade cycles. The pool is left running.
+     */
+    void shutdown() {
+        for (final StrategyTask task : overrunningTasks.values()) {
+            task.cancel(true);
+        }
+        overrunningTasks.clear();
+    }
+
+    private void awaitCompletion(StrategyTask task)
+            throws InterruptedException, ExecutionException, TimeoutException {
+
+        while (!task.hasStarted()) {
+            try {
+                task.get(QUEUED_TASK_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                // still queued - keep waiting for a pool thread to pick it up
+            }
+        }
+
+        final long remaining = task.getStartedAt() + timeoutInNanos - System.nanoTime();
+        if (remaining <= 0 && !task.isDone()) {
+            throw new TimeoutException();
+        }
+        task.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+    }
+
+    private void removeCompletedOverrunningTasks() {
+        final Iterator<StrategyTask> iterator = overrunningTasks.values().iterator();
+        while (iterator.hasNext()) {
+            final StrategyTask task = iterator.next();
+            if (task.isDone()) {
+                LOG.info(() -> "Overrunning Trading Strategy for Market [" + task.getMarket().getName()
+                        + "] has now completed - it will be executed again from this trade cycle");
+                iterator.remove();
+            }
+        }
+    }
+
+    private static void rethrow(Throwable failure) throws StrategyException {
+        if (failure instanceof StrategyException) {
+            throw (StrategyException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        throw new StrategyException(failure);
+    }
+
+    /*
+     * Wraps a single strategy execution. Records the thread running it so it can be interrupted if it overruns, and
+     * when it started so its timeout can be measured from that point.
+     */
+    private static final class StrategyTask extends FutureTask<Void> {
+
+        private final Market market;
+        private final StartTracker startTracker;
+
+        StrategyTask(MarketStrategy marketStrategy) {
+            this(marketStrategy, new StartTracker(marketStrategy));
+        }
+
+        private StrategyTask(MarketStrategy marketStrategy, StartTracker startTracker) {
+            super(startTracker);
+            this.market = marketStrategy.getMarket();
+            this.startTracker = startTracker;
+        }
+
+        Market getMarket() {
+            return market;
+        }
+
+        boolean hasStarted() {
+            return startTracker.started;
+        }
+
+        long getStartedAt() {
+            return startTracker.startedAt;
+        }
+
+        void interruptRunner() {
+            startTracker.interruptRunner();
+        }
+    }
+
+    private static final class StartTracker implements Callable<Void> {
+
+        private final MarketStrategy marketStrategy;
+        private volatile long startedAt;
+        private volatile boolean started;
+        private Thread runner;
+
+        StartTracker(MarketStrategy marketStrategy) {
+            this.marketStrategy = marketStrategy;
+        }
+
+        @Override
+        public Void call() throws StrategyException {
+            synchronized (this) {
+                runner = Thread.currentThread();
+            }
+            startedAt = System.nanoTime();
+            started = true;
+            try {
+                marketStrategy.execute();
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                }
+                // clear any interrupt we delivered so it does not leak into the next task on this pool thread
+                Thread.interrupted();
+            }
+            return null;
+        }
+
+        synchronized void interruptRunner() {
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * The thread pools shared by all the Trading Engines hosted in the JVM.
+ * <p>
+ * Each engine used to create its own strategy execution pool and Emergency Stop check thread. When several bots are
+ * hosted in one JVM, they now share:
+ * - a strategy execution pool for the PARALLEL mode. Threads are created on demand and reused across engines; each
+ *   engine still caps how many of its strategies run at once.
+ * - a virtual thread per task executor for the VIRTUAL mode.
+ * - a small scheduled pool for the Emergency Stop checks.
+ * <p>
+ * Engines never shut these pools down - they cancel their own tasks instead.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author gazbert
+ */
+@Component
+public class SharedExecutors {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    /*
+     * Emergency Stop checks are short network calls, but a small pool stops one slow exchange from delaying the checks
+     * of every other bot.
+     */
+    private static final int EMERGENCY_STOP_CHECK_POOL_SIZE = 2;
+
+    private final ExecutorService strategyExecutor;
+    private final ScheduledExecutorService emergencyStopCheckScheduler;
+
+    /*
+     * Created on first use - it needs Java 21+. Guarded by this.
+     */
+    private ExecutorService virtualStrategyExecutor;
+
+
+    public SharedExecutors() {
+        strategyExecutor = Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setNameFormat("bxbot-strategy-%d").setDaemon(true).build());
+
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(EMERGENCY_STOP_CHECK_POOL_SIZE,
+                new ThreadFactoryBuilder().setNameFormat("bxbot-emergency-stop-%d").setDaemon(true).build());
+        scheduler.setRemoveOnCancelPolicy(true);
+        emergencyStopCheckScheduler = scheduler;
+    }
+
+    /**
+     * Returns the pool for running Trading Strategies in PARALLEL mode.
+     *
+     * @return the shared strategy execution pool.
+     */
+    ExecutorService getStrategyExecutor() {
+        return strategyExecutor;
+    }
+
+    /**
+     * Returns the executor for running Trading Strategies in VIRTUAL mode.
+     *
+     * @return the shared virtual thread per task executor.
+     * @throws IllegalStateException if virtual threads are not supported by the running JVM.
+     */
+    synchronized ExecutorService getVirtualStrategyExecutor() {
+        if (virtualStrategyExecutor == null) {
+            virtualStrategyExecutor = VirtualThreads.newVirtualThreadPerTaskExecutor("bxbot-strategy-vt-");
+        }
+        return virtualStrategyExecutor;
+    }
+
+    /**
+     * Returns the scheduler for running the Emergency Stop checks.
+     *
+     * @return the shared Emergency Stop check scheduler.
+     */
+    ScheduledExecutorService getEmergencyStopCheckScheduler() {
+        return emergencyStopCheckScheduler;
+    }
+
+    /**
+     * Stops the shared thread pools, interrupting any tasks still running.
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        LOG.info(() -> "Shutting down shared thread pools...");
+        strategyExecutor.shutdownNow();
+        emergencyStopCheckScheduler.shutdownNow();
+        if (virtualStrategyExecutor != null) {
+            virtualStrategyExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Fixed-rate schedule for the trade cycles.
+ * <p>
+ * Each cycle is scheduled a fixed period after the previous cycle's scheduled start time - not after it finished - so
+ * the time spent executing a cycle does not make the schedule drift.
+ * <p>
+ * When a cycle overruns the period, the {@link OverrunPolicy} decides when the next cycle starts.
+ * <p>
+ * This class is not thread safe - it is only ever called from the Trading Engine thread.
+ *
+ * @author gazbert
+ */
+final class TradeCycleSchedule {
+
+    /**
+     * What to do when a trade cycle takes longer than the trade cycle interval.
+     */
+    enum OverrunPolicy {
+
+        /**
+         * Drop the missed cycles and start the next cycle at its next scheduled time.
+         */
+        SKIP,
+
+        /**
+         * Collapse the missed cycles into a single cycle that starts immediately. The schedule carries on from then.
+         */
+        COALESCE,
+
+        /**
+         * Run the missed cycles back-to-back until the schedule has caught up.
+         */
+        CATCH_UP
+    }
+
+    private final long periodInNanos;
+    private final OverrunPolicy overrunPolicy;
+    private final LongSupplier nanoClock;
+
+    private long nextCycleStartTime;
+    private long overrunCount;
+
+
+    TradeCycleSchedule(long period, TimeUnit timeUnit, OverrunPolicy overrunPolicy) {
+        this(period, timeUnit, overrunPolicy, System::nanoTime);
+    }
+
+    TradeCycleSchedule(long period, TimeUnit timeUnit, OverrunPolicy overrunPolicy, LongSupplier nanoClock) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Trade cycle interval must be greater than zero: " + period);
+        }
+        this.periodInNanos = timeUnit.toNanos(period);
+        this.overrunPolicy = overrunPolicy;
+        this.nanoClock = nanoClock;
+
+        // first cycle starts straight away
+        this.nextCycleStartTime = nanoClock.getAsLong();
+    }
+
+    /**
+     * Moves the schedule on to the next trade cycle. Must be called once after each cycle has been executed.
+     */
+    void advance() {
+
+        final long now = nanoClock.getAsLong();
+        final long next = nextCycleStartTime + periodInNanos;
+
+        if (next - now >= 0) {
+            nextCycleStartTime = next;
+            return;
+        }
+
+        overrunCount++;
+        switch (overrunPolicy) {
+            case CATCH_UP:
+                nextCycleStartTime = next;
+                break;
+            case COALESCE:
+                nextCycleStartTime = now;
+                break;
+            case SKIP:
+                final long missedCycles = (now - next) / periodInNanos + 1;
+                nextCycleStartTime = next + missedCycles * periodInNanos;
+                break;
+            default:
+                throw new IllegalStateException("Unknown overrun policy: " + overrunPolicy);
+        }
+    }
+
+    /**
+     * Returns the time to wait until the next trade cycle should start.
+     *
+     * @return the delay in nanos; zero if the next cycle is due now.
+     */
+    long getDelayInNanos() {
+        return Math.max(0, nextCycleStartTime - nanoClock.getAsLong());
+    }
+
+    /**
+     * Returns the time the next trade cycle is due to start.
+     *
+     * @return the start time, in the same timescale as {@link System#nanoTime()}.
+     */
+    long getNextCycleStartTime() {
+        return nextCycleStartTime;
+    }
+
+    /**
+     * Returns the number of trade cycles that have overrun the trade cycle interval.
+     *
+     * @return the overrun count.
+     */
+    long getOverrunCount() {
+        return overrunCount;
+    }
+
+    /**
+     * Returns the trade cycle interval.
+     *
+     * @param timeUnit the unit to return the interval in.
+     * @return the interval.
+     */
+    long getPeriod(TimeUnit timeUnit) {
+        return timeUnit.convert(periodInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    OverrunPolicy getOverrunPolicy() {
+        return overrunPolicy;
+    }
+}
@@ -0,0 +1,448 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.trading.api.AsyncTradingApi;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderRequest;
+import com.gazbert.bxbot.trading.api.OrderStatus;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * A view of the Trading API that is scoped to a single trade cycle.
+ * <p>
+ * The market data reads - {@link #getMarketOrders(String)}, {@link #getLatestMarketPrice(String)} and
+ * {@link #getYourOpenOrders(String)} - are memoized per market id until the next trade cycle starts. If several
+ * strategies (or the same strategy, more than once) read the same market in a cycle, the exchange is only called once.
+ * Concurrent readers of the same market wait for the in-flight call instead of making their own. The blocking and
+ * async variants of a read share the same memoized result.
+ * <p>
+ * An order book depth can be set for a market; {@link #getMarketOrders(String)} then only fetches that many price
+ * levels. Order books fetched with an explicit depth are memoized per market and depth.
+ * <p>
+ * Placing or cancelling an order on a market discards that market's cached open orders, so strategies always see
+ * their own writes. Failed reads are not cached - the next caller will hit the exchange again. An
+ * {@link OrderListener} can be registered for a market to be told about the orders placed and cancelled on it.
+ * <p>
+ * The async calls are passed to the Exchange Adapter's {@link AsyncTradingApi}. If the adapter does not implement it,
+ * the call is made on the calling thread and an already completed future is returned.
+ * <p>
+ * All other calls are passed straight through to the Exchange Adapter.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author gazbert
+ */
+final class TradeCycleSnapshot implements AsyncTradingApi {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private final TradingApi tradingApi;
+    private final AsyncTradingApi asyncTradingApi;
+
+    private final ConcurrentMap<String, CompletableFuture<MarketOrderBook>> marketOrders = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<BigDecimal>> latestMarketPrices = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<List<OpenOrder>>> yourOpenOrders = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, OrderListener> orderListeners = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Integer> orderBookDepths = new ConcurrentHashMap<>();
+
+
+    TradeCycleSnapshot(TradingApi tradingApi) {
+        this.tradingApi = tradingApi;
+        this.asyncTradingApi = tradingApi instanceof AsyncTradingApi ? (AsyncTradingApi) tradingApi : null;
+    }
+
+    /**
+     * Discards the market data read during the previous trade cycle.
+     * Called by the Trading Engine at the start of every trade cycle.
+     */
+    void startNewTradeCycle() {
+        marketOrders.clear();
+        latestMarketPrices.clear();
+        yourOpenOrders.clear();
+    }
+
+    /**
+     * Registers a listener to be told about orders successfully placed and cancelled on the given market.
+     *
+     * @param marketId      the market id.
+     * @param orderListener the listener.
+     */
+    void addOrderListener(String marketId, OrderListener orderListener) {
+        orderListeners.put(marketId, orderListener);
+    }
+
+    /**
+     * Sets the number of price levels fetched by {@link #getMarketOrders(String)} for the given market.
+     *
+     * @param marketId the market id.
+     * @param depth    the order book depth.
+     */
+    void setOrderBookDepth(String marketId, int depth) {
+        orderBookDepths.put(marketId, depth);
+    }
+
+    @Override
+    public String getVersion() {
+        return tradingApi.getVersion();
+    }
+
+    @Override
+    public String getImplName() {
+        return tradingApi.getImplName();
+    }
+
+    @Override
+    public MarketOrderBook getMarketOrders(String marketId) throws ExchangeNetworkException, TradingApiException {
+        final Integer depth = orderBookDepths.get(marketId);
+        if (depth != null) {
+            return getMarketOrders(marketId, depth);
+        }
+        return await(marketId, memoize(marketOrders, marketId,
+                () -> callNow(() -> tradingApi.getMarketOrders(marketId))));
+    }
+
+    @Override
+    public MarketOrderBook getMarketOrders(String marketId, int depth)
+            throws ExchangeNetworkException, TradingApiException {
+        return await(marketId, memoize(marketOrders, orderBookKey(marketId, depth),
+                () -> callNow(() -> tradingApi.getMarketOrders(marketId, depth))));
+    }
+
+    @Override
+    public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId) {
+        final Integer depth = orderBookDepths.get(marketId);
+        if (depth != null) {
+            return getMarketOrdersAsync(marketId, depth);
+        }
+        return memoize(marketOrders, marketId, () -> asyncTradingApi != null
+                ? asyncTradingApi.getMarketOrdersAsync(marketId)
+                : callNow(() -> tradingApi.getMarketOrders(marketId)));
+    }
+
+    @Override
+    public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId, int depth) {
+        return memoize(marketOrders, orderBookKey(marketId, depth), () -> asyncTradingApi != null
+                ? asyncTradingApi.getMarketOrdersAsync(marketId, depth)
+                : callNow(() -> tradingApi.getMarketOrders(marketId, depth)));
+    }
+
+    @Override
+    public List<OpenOrder> getYourOpenOrders(String marketId) throws ExchangeNetworkException, TradingApiException {
+        return await(marketId, memoize(yourOpenOrders, marketId,
+                () -> callNow(() -> tradingApi.getYourOpenOrders(marketId))));
+    }
+
+    @Override
+    public CompletableFuture<List<OpenOrder>> getYourOpenOrdersAsync(String marketId) {
+        return memoize(yourOpenOrders, marketId, () -> asyncTradingApi != null
+                ? asyncTradingApi.getYourOpenOrdersAsync(marketId)
+                : callNow(() -> tradingApi.getYourOpenOrders(marketId)));
+    }
+
+    @Override
+    public OrderStatus getOrderStatus(String orderId, String marketId)
+            throws ExchangeNetworkException, TradingApiException {
+        return tradingApi.getOrderStatus(orderId, marketId);
+    }
+
+    @Override
+    public String createOrder(String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price)
+            throws ExchangeNetworkException, TradingApiException {
+        try {
+            final String orderId = tradingApi.createOrder(marketId, orderType, quantity, price);
+            orderPlaced(marketId, orderId, orderType, quantity, price);
+            return orderId;
+        } finally {
+            yourOpenOrders.remove(marketId);
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> createOrderAsync(String marketId, OrderType orderType, BigDecimal quantity,
+                                                      BigDecimal price) {
+        final CompletableFuture<String> result = asyncTradingApi != null
+                ? asyncTradingApi.createOrderAsync(marketId, orderType, quantity, price)
+                : callNow(() -> tradingApi.createOrder(marketId, orderType, quantity, price));
+        return result.whenComplete((orderId, error) -> {
+            yourOpenOrders.remove(marketId);
+            if (error == null) {
+                orderPlaced(marketId, orderId, orderType, quantity, price);
+            }
+        });
+    }
+
+    @Override
+    public boolean cancelOrder(String orderId, String marketId) throws ExchangeNetworkException, TradingApiException {
+        try {
+            final boolean cancelled = tradingApi.cancelOrder(orderId, marketId);
+            orderCancelled(marketId, orderId, cancelled);
+            return cancelled;
+        } finally {
+            yourOpenOrders.remove(marketId);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> cancelOrderAsync(String orderId, String marketId) {
+        final CompletableFuture<Boolean> result = asyncTradingApi != null
+                ? asyncTradingApi.cancelOrderAsync(orderId, marketId)
+                : callNow(() -> tradingApi.cancelOrder(orderId, marketId));
+        return result.whenComplete((cancelled, error) -> {
+            yourOpenOrders.remove(marketId);
+            if (error == null) {
+                orderCancelled(marketId, orderId, cancelled);
+            }
+        });
+    }
+
+    @Override
+    public List<String> createOrders(List<OrderRequest> orderRequests)
+            throws ExchangeNetworkException, TradingApiException {
+        try {
+            final List<String> orderIds = tradingApi.createOrders(orderRequests);
+            for (int i = 0; i < orderIds.size(); i++) {
+                final OrderRequest orderRequest = orderRequests.get(i);
+                orderPlaced(orderRequest.getMarketId(), orderIds.get(i), orderRequest.getType(),
+                        orderRequest.getQuantity(), orderRequest.getPrice());
+            }
+            return orderIds;
+        } finally {
+            for (final OrderRequest orderRequest : orderRequests) {
+                yourOpenOrders.remove(orderRequest.getMarketId());
+            }
+        }
+    }
+
+    @Override
+    public List<String> cancelOrders(List<String> orderIds, String marketId)
+            throws ExchangeNetworkException, TradingApiException {
+        try {
+            final List<String> cancelledOrderIds = tradingApi.cancelOrders(orderIds, marketId);
+            cancelledOrderIds.forEach(orderId -> orderCancelled(marketId, orderId, true));
+            return cancelledOrderIds;
+        } finally {
+            yourOpenOrders.remove(marketId);
+        }
+    }
+
+    @Override
+    public List<String> cancelAllOrders(String marketId) throws ExchangeNetworkException, TradingApiException {
+        try {
+            final List<String> cancelledOrderIds = tradingApi.cancelAllOrders(marketId);
+            cancelledOrderIds.forEach(orderId -> orderCancelled(marketId, orderId, true));
+            return cancelledOrderIds;
+        } finally {
+            yourOpenOrders.remove(marketId);
+        }
+    }
+
+    @Override
+    public String replaceOrder(String orderId, String marketId, OrderType orderType, BigDecimal newQuantity,
+                               BigDecimal newPrice) throws ExchangeNetworkException, TradingApiException {
+        try {
+            final String newOrderId = tradingApi.replaceOrder(orderId, marketId, orderType, newQuantity, newPrice);
+            if (newOrderId != null) {
+                orderCancelled(marketId, orderId, true);
+                orderPlaced(marketId, newOrderId, orderType, newQuantity, newPrice);
+            }
+            return newOrderId;
+        } finally {
+            yourOpenOrders.remove(marketId);
+        }
+    }
+
+    @Override
+    public BigDecimal getLatestMarketPrice(String marketId) throws ExchangeNetworkException, TradingApiException {
+        return await(marketId, memoize(latestMarketPrices, marketId,
+                () -> callNow(() -> tradingApi.getLatestMarketPrice(marketId))));
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getLatestMarketPriceAsync(String marketId) {
+        return memoize(latestMarketPrices, marketId, () -> asyncTradingApi != null
+                ? asyncTradingApi.getLatestMarketPriceAsync(marketId)
+                : callNow(() -> tradingApi.getLatestMarketPrice(marketId)));
+    }
+
+    @Override
+    public BalanceInfo getBalanceInfo() throws ExchangeNetworkException, TradingApiException {
+        return tradingApi.getBalanceInfo();
+    }
+
+    @Override
+    public CompletableFuture<BalanceInfo> getBalanceInfoAsync() {
+        return asyncTradingApi != null
+                ? asyncTradingApi.getBalanceInfoAsync()
+                : callNow(tradingApi::getBalanceInfo);
+    }
+
+    @Override
+    public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId)
+            throws TradingApiException, ExchangeNetworkException {
+        return tradingApi.getPercentageOfBuyOrderTakenForExchangeFee(marketId);
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getPercentageOfBuyOrderTakenForExchangeFeeAsync(String marketId) {
+        return asyncTradingApi != null
+                ? asyncTradingApi.getPercentageOfBuyOrderTakenForExchangeFeeAsync(marketId)
+                : callNow(() -> tradingApi.getPercentageOfBuyOrderTakenForExchangeFee(marketId));
+    }
+
+    @Override
+    public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId)
+            throws TradingApiException, ExchangeNetworkException {
+        return tradingApi.getPercentageOfSellOrderTakenForExchangeFee(marketId);
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getPercentageOfSellOrderTakenForExchangeFeeAsync(String marketId) {
+        return asyncTradingApi != null
+                ? asyncTradingApi.getPercentageOfSellOrderTakenForExchangeFeeAsync(marketId)
+                : callNow(() -> tradingApi.getPercentageOfSellOrderTakenForExchangeFee(marketId));
+    }
+
+    // ------------------------------------------------------------------------
+    // Util methods
+    // ------------------------------------------------------------------------
+
+    private void orderPlaced(String marketId, String orderId, OrderType orderType, BigDecimal quantity,
+                             BigDecimal price) {
+        final OrderListener orderListener = orderListeners.get(marketId);
+        if (orderListener != null) {
+            orderListener.orderPlaced(new OpenOrder(orderId, new Date(), marketId, orderType, price, quantity,
+                    quantity, price.multiply(quantity)));
+        }
+    }
+
+    private void orderCancelled(String marketId, String orderId, boolean cancelled) {
+        final OrderListener orderListener = orderListeners.get(marketId);
+        if (cancelled && orderListener != null) {
+            orderListener.orderCancelled(orderId);
+        }
+    }
+
+    private static String orderBookKey(String marketId, int depth) {
+        return marketId + "@" + depth;
+    }
+
+    private static <T> CompletableFuture<T> memoize(ConcurrentMap<String, CompletableFuture<T>> cache, String marketId,
+                                                    Supplier<CompletableFuture<T>> call) {
+
+        final CompletableFuture<T> inFlight = cache.get(marketId);
+        if (inFlight != null) {
+            LOG.debug(() -> "Using in-flight or completed Trading API call for market: " + marketId);
+            return inFlight;
+        }
+
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final CompletableFuture<T> existing = cache.putIfAbsent(marketId, result);
+        if (existing != null) {
+            LOG.debug(() -> "Using in-flight Trading API call for market: " + marketId);
+            return existing;
+        }
+
+        CompletableFuture<T> callResult;
+        try {
+            callResult = call.get();
+        } catch (RuntimeException | Error e) {
+            callResult = new CompletableFuture<>();
+            callResult.completeExceptionally(e);
+        }
+        callResult.whenComplete((value, error) -> {
+            if (error != null) {
+                // don't cache failures
+                cache.remove(marketId, result);
+                result.completeExceptionally(unwrap(error));
+            } else {
+                result.complete(value);
+            }
+        });
+        return result;
+    }
+
+    private static <T> CompletableFuture<T> callNow(TradingApiCall<T> call) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            result.complete(call.call());
+        } catch (ExchangeNetworkException | TradingApiException | RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private static <T> T await(String marketId, CompletableFuture<T> result)
+            throws ExchangeNetworkException, TradingApiException {
+        return AsyncTradingApi.await(result, "Trading API call for market: " + marketId);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * Told about the orders placed and cancelled through the snapshot on a market.
+     */
+    interface OrderListener {
+
+        /**
+         * Called after an order has been placed on the exchange.
+         *
+         * @param order the order as it was placed.
+         */
+        void orderPlaced(OpenOrder order);
+
+        /**
+         * Called after an order has been cancelled on the exchange.
+         *
+         * @param orderId the id of the cancelled order.
+         */
+        void orderCancelled(String orderId);
+    }
+
+    @FunctionalInterface
+    private interface TradingApiCall<T> {
+        T call() throws ExchangeNetworkException, TradingApiException;
+    }
+}
@@ -24,12 +24,14 @@
 package com.gazbert.bxbot.core.engine;
 
 import com.gazbert.bxbot.core.mail.EmailAlerter;
+import com.gazbert.bxbot.core.metrics.TradeCycleMetrics;
 import com.gazbert.bxbot.core.util.ConfigurableComponentFactory;
 import com.gazbert.bxbot.domain.engine.EngineConfig;
 import com.gazbert.bxbot.domain.exchange.AuthenticationConfig;
 import com.gazbert.bxbot.domain.exchange.ExchangeConfig;
 import com.gazbert.bxbot.domain.exchange.NetworkConfig;
 import com.gazbert.bxbot.domain.exchange.OptionalConfig;
+import com.gazbert.bxbot.domain.exchange.RateLimitConfig;
 import com.gazbert.bxbot.domain.market.MarketConfig;
 import com.gazbert.bxbot.domain.strategy.StrategyConfig;
 import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
@@ -37,14 +39,17 @@ import com.gazbert.bxbot.exchange.api.impl.AuthenticationConfigImpl;
 import com.gazbert.bxbot.exchange.api.impl.ExchangeConfigImpl;
 import com.gazbert.bxbot.exchange.api.impl.NetworkConfigImpl;
 import com.gazbert.bxbot.exchange.api.impl.OptionalConfigImpl;
+import com.gazbert.bxbot.exchange.api.impl.RateLimitConfigImpl;
+import com.gazbert.bxbot.exchanges.BoundedExecutor;
+import com.gazbert.bxbot.exchanges.CachingExchangeAdapter;
 import com.gazbert.bxbot.services.EngineConfigService;
 import com.gazbert.bxbot.services.ExchangeConfigService;
 import com.gazbert.bxbot.services.MarketConfigService;
 import com.gazbert.bxbot.services.StrategyConfigService;
+import com.gazbert.bxbot.strategy.api.MarketEventListener;
 import com.gazbert.bxbot.strategy.api.StrategyException;
 import com.gazbert.bxbot.strategy.api.TradingStrategy;
 import com.gazbert.bxbot.strategy.api.impl.StrategyConfigItems;
-import com.gazbert.bxbot.trading.api.BalanceInfo;
 import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
 import com.gazbert.bxbot.trading.api.Market;
 import com.gazbert.bxbot.trading.api.TradingApiException;
@@ -58,8 +63,13 @@ import org.springframework.util.Assert;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.math.BigDecimal;
-import java.text.DecimalFormat;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The main Trading Engine.
@@ -71,9 +81,22 @@ import java.util.*;
  * and retries at next trade cycle.
  * <p>
  * To keep things simple:
- * - The engine is single threaded.
- * - The engine only supports trading on 1 exchange per instance of the bot, i.e. 1 Exchange Adapter per process.
+ * - The engine runs the Trading Strategies sequentially in its own thread by default. If the PARALLEL strategy
+ *   execution mode is configured, strategies are run concurrently on a bounded thread pool, and the engine waits for
+ *   them all to complete (or time out) before starting the next trade cycle. The VIRTUAL mode does the same, but runs
+ *   each strategy on its own virtual thread (Java 21+). These thread pools, and the Emergency Stop check thread, are
+ *   shared with any other bots hosted in the same JVM - see {@link SharedExecutors}.
+ * - The engine can trade on several exchanges at once, each with its own Exchange Adapter. Each Market is bound to an
+ *   exchange, and each exchange is driven by its own control loop thread, so a slow or failing exchange does not hold
+ *   up the others. A fatal error on an exchange stops trading on that exchange only; the bot shuts down once no
+ *   exchanges are left trading. With a single exchange, the control loop runs in the engine's own thread.
  * - The engine only supports 1 Trading Strategy per Market.
+ * - Each Market runs on its own fixed-rate trade cycle schedule. Markets without their own trade cycle interval use the
+ *   engine's interval.
+ * - In the EVENT_DRIVEN strategy invocation mode, strategies that implement MarketEventListener are only called back
+ *   when their Market's order book or open orders have changed.
+ * - The Emergency Stop balance is checked on every exchange that is traded on, each by its own watchdog thread; an
+ *   exchange's trade cycles only read its watchdog's last verdict, and a breach on any exchange stops trading on all.
  *
  * @author gazbert
  */
@@ -90,10 +113,46 @@ public class TradingEngine {
     private static final String NEWLINE = System.getProperty("line.separator");
     private static final String HORIZONTAL_RULE = "--------------------------------------------------" + NEWLINE;
 
+    // Strategy execution modes
+    private static final String STRATEGY_EXECUTION_MODE_SEQUENTIAL = "SEQUENTIAL";
+    private static final String STRATEGY_EXECUTION_MODE_PARALLEL = "PARALLEL";
+    private static final String STRATEGY_EXECUTION_MODE_VIRTUAL = "VIRTUAL";
+
+    // Strategy invocation modes
+    private static final String STRATEGY_INVOCATION_MODE_POLL = "POLL";
+    private static final String STRATEGY_INVOCATION_MODE_EVENT_DRIVEN = "EVENT_DRIVEN";
+
+    /*
+     * Id of the main Exchange if it is not given one in the config. Markets without an Exchange id trade on it.
+     */
+    private static final String MAIN_EXCHANGE_ID = "main";
+
+    /*
+     * In VIRTUAL mode, virtual threads pinned to their carrier for at least this long are reported.
+     */
+    private static final Duration VIRTUAL_THREAD_PINNING_THRESHOLD = Duration.ofMillis(20);
+
+    /*
+     * The shortest default Emergency Stop check interval in secs. The check is an authenticated balance call, so a
+     * trade cycle interval in millis must not turn into a check every few millis and burn the exchange's rate limit.
+     */
+    private static final int MIN_DEFAULT_EMERGENCY_STOP_CHECK_INTERVAL_SECS = 5;
+
+    /*
+     * Trade execution interval. The time between the start of each trade cycle.
+     * This is the default for Markets that do not set their own trade cycle interval.
+     */
+    private int tradeExecutionInterval;
+
     /*
-     * Trade execution interval in secs. The time we wait/sleep in between trade cycles.
+     * Time unit of the trade execution interval: SECONDS or MILLISECONDS.
      */
-    private static int tradeExecutionInterval;
+    private TimeUnit tradeExecutionIntervalUnit;
+
+    /*
+     * What to do when a trade cycle takes longer than the trade execution interval.
+     */
+    private TradeCycleSchedule.OverrunPolicy tradeCycleOverrunPolicy;
 
     /*
      * Control flag decides if the Trading Engine lives or dies.
@@ -121,9 +180,45 @@ public class TradingEngine {
     private final Map<String, StrategyConfig> strategyDescriptions = new HashMap<>();
 
     /*
-     * List of cached Trading Strategy implementations for the Trade Engine to execute.
+     * The Exchanges to trade on, keyed by Exchange id, along with the Trading Strategies (and the Markets they trade on)
+     * for the Trading Engine to execute on each of them. The main Exchange comes first.
+     */
+    private final Map<String, ExchangeContext> exchanges = new LinkedHashMap<>();
+
+    /*
+     * The main Exchange: Markets without an Exchange id trade on it. It is always traded on, even with no Markets.
+     */
+    private ExchangeContext mainExchange;
+
+    /*
+     * Number of Exchange control loops still running.
      */
-    private final List<TradingStrategy> tradingStrategiesToExecute = new ArrayList<>();
+    private final AtomicInteger runningControlLoops = new AtomicInteger();
+
+    /*
+     * How the Trading Strategies are executed each trade cycle: SEQUENTIAL or PARALLEL.
+     */
+    private String strategyExecutionMode;
+
+    /*
+     * How the Trading Strategies are invoked each trade cycle: POLL or EVENT_DRIVEN.
+     */
+    private String strategyInvocationMode;
+
+    /*
+     * Max number of strategies to run concurrently in PARALLEL mode. Null means one thread per enabled Market.
+     */
+    private Integer strategyExecutionPoolSize;
+
+    /*
+     * Max time in secs a strategy may run for in PARALLEL mode. Null means use the trade cycle interval.
+     */
+    private Integer strategyExecutionTimeout;
+
+    /*
+     * Reports pinned virtual threads in VIRTUAL mode. Null in the other modes.
+     */
+    private VirtualThreadPinningMonitor virtualThreadPinningMonitor;
 
     /*
      * The emergency stop currency value is used to prevent a catastrophic loss on the exchange.
@@ -135,17 +230,24 @@ public class TradingEngine {
     /*
      * The Emergency Stop balance.
      * It is used to prevent a catastrophic loss on the exchange.
-     * The Trading Engine checks this value at the start of every trade cycle: if the balance on
-     * the exchange drops below this value, the Trading Engine will stop trading on all markets.
+     * Each Exchange's Emergency Stop Watchdog checks this value every check interval: if the balance on
+     * any exchange drops below this value, the Trading Engine will stop trading on all markets.
      * Manual intervention is then required to restart the bot.
      */
     private BigDecimal emergencyStopBalance;
 
+    /*
+     * How often in secs the Emergency Stop balance is checked. Null means use the trade cycle interval in secs, but no
+     * less than MIN_DEFAULT_EMERGENCY_STOP_CHECK_INTERVAL_SECS.
+     */
+    private Integer emergencyStopCheckInterval;
+
     private String botId;
     private String botName;
 
     private final EmailAlerter emailAlerter;
-    private ExchangeAdapter exchangeAdapter;
+    private final TradeCycleMetrics tradeCycleMetrics;
+    private final SharedExecutors sharedExecutors;
 
     // Services
     private final ExchangeConfigService exchangeConfigService;
@@ -157,7 +259,8 @@ public class TradingEngine {
     @Autowired
     public TradingEngine(ExchangeConfigService exchangeConfigService, EngineConfigService engineConfigService,
                          StrategyConfigService strategyConfigService, MarketConfigService marketConfigService,
-                         EmailAlerter emailAlerter) {
+                         EmailAlerter emailAlerter, TradeCycleMetrics tradeCycleMetrics,
+                         SharedExecutors sharedExecutors) {
 
         LOG.info(() -> "Initialising Trading Engine...");
 
@@ -166,6 +269,8 @@ public class TradingEngine {
         this.strategyConfigService = strategyConfigService;
         this.marketConfigService = marketConfigService;
         this.emailAlerter = emailAlerter;
+        this.tradeCycleMetrics = tradeCycleMetrics;
+        this.sharedExecutors = sharedExecutors;
     }
 
     public void start() throws IllegalStateException {
@@ -193,45 +298,154 @@ public class TradingEngine {
         LOG.info(() -> "Initialising BX-bot config...");
 
         // the sequence order of these methods is significant - don't change it.
-        loadExchangeAdapterConfig();
+        loadExchangeAdapterConfigs();
         loadEngineConfig();
         loadTradingStrategyConfig();
         loadMarketConfigAndInitialiseTradingStrategies();
+        initStrategyExecution();
+        initEmergencyStopWatchdogs();
     }
 
     /*
-     * The main control loop.
-     * We loop infinitely unless an unexpected exception occurs.
-     * The code fails hard and fast if an unexpected occurs. Network exceptions *should* recover.
+     * Starts a control loop for each Exchange and waits for them all to end.
+     * With a single Exchange, the control loop runs in the engine thread.
      */
     private void runMainControlLoop() {
 
         LOG.info(() -> "Starting Trading Engine for " + botId + " ...");
 
-        while (keepAlive) {
+        final List<ExchangeContext> tradingExchanges = new ArrayList<>();
+        for (final ExchangeContext exchange : exchanges.values()) {
+            if (exchange.getEmergencyStopWatchdog() != null) {
+                exchange.getEmergencyStopWatchdog().start();
+            }
+            if (!isTradedOn(exchange)) {
+                LOG.warn(() -> "No enabled Markets are trading on Exchange [" + exchange.getExchangeId()
+                        + "] - it will not be traded on");
+                continue;
+            }
+            tradingExchanges.add(exchange);
+        }
+        runningControlLoops.set(tradingExchanges.size());
 
-            try {
+        if (tradingExchanges.size() == 1) {
+            final ExchangeContext exchange = tradingExchanges.get(0);
+            exchange.setControlLoopThread(engineThread);
+            runControlLoop(exchange);
+        } else {
+            runControlLoopsConcurrently(tradingExchanges);
+        }
 
-                LOG.info(() -> "*** Starting next trade cycle... ***");
+        LOG.fatal("BX-bot " + botId + " is shutting down NOW!");
+        for (final ExchangeContext exchange : exchanges.values()) {
+            if (exchange.getEmergencyStopWatchdog() != null) {
+                exchange.getEmergencyStopWatchdog().shutdown();
+            }
+            if (exchange.getParallelStrategyExecutor() != null) {
+                exchange.getParallelStrategyExecutor().shutdown();
+            }
+        }
+        if (virtualThreadPinningMonitor != null) {
+            virtualThreadPinningMonitor.stop();
+        }
+        synchronized (IS_RUNNING_MONITOR) {
+            isRunning = false;
+            // clear any poke from the Emergency Stop Watchdog that arrived after the loop exited
+            Thread.interrupted();
+        }
+    }
 
-                // Emergency Stop Check MUST run at start of every trade cycle.
-                if (isEmergencyStopLimitBreached()) {
-                    break;
+    private void runControlLoopsConcurrently(List<ExchangeContext> tradingExchanges) {
+
+        for (final ExchangeContext exchange : tradingExchanges) {
+            final Thread controlLoopThread = new Thread(() -> runControlLoop(exchange),
+                    "bxbot-" + botId + "-exchange-" + exchange.getExchangeId());
+            exchange.setControlLoopThread(controlLoopThread);
+            controlLoopThread.start();
+        }
+
+        for (final ExchangeContext exchange : tradingExchanges) {
+            final Thread controlLoopThread = exchange.getControlLoopThread();
+            while (controlLoopThread.isAlive()) {
+                try {
+                    controlLoopThread.join();
+                } catch (InterruptedException e) {
+                    // shutdown poke - the control loops have been poked too, so keep waiting for them to end
+                    LOG.info(() -> "Engine thread interrupted when waiting for Exchange control loops to end");
                 }
+            }
+        }
+    }
 
-                // Execute the Trading Strategies
-                for (final TradingStrategy tradingStrategy : tradingStrategiesToExecute) {
-                    LOG.info(() -> "Executing Trading Strategy ---> " + tradingStrategy.getClass().getSimpleName());
-                    tradingStrategy.execute();
+    /*
+     * The control loop for an Exchange.
+     * We loop infinitely unless an unexpected exception occurs.
+     * The code fails hard and fast if an unexpected occurs. Network exceptions *should* recover.
+     * A fatal error only stops trading on this Exchange; the other Exchanges carry on.
+     */
+    private void runControlLoop(ExchangeContext exchange) {
+
+        LOG.info(() -> "Starting control loop for Exchange [" + exchange.getExchangeId() + "] ...");
+
+        // Each Market's strategy is queued until its next trade cycle is due
+        final DelayQueue<MarketStrategy> tradeCycleQueue = new DelayQueue<>(exchange.getMarketStrategies());
+        final ParallelStrategyExecutor parallelStrategyExecutor = exchange.getParallelStrategyExecutor();
+        boolean isTradingOnExchange = true;
+
+        while (keepAlive && isTradingOnExchange) {
+
+            final List<MarketStrategy> dueMarketStrategies = new ArrayList<>();
+            final long sleepStartTime = System.nanoTime();
+            try {
+                dueMarketStrategies.add(tradeCycleQueue.take());
+            } catch (InterruptedException e) {
+                if (!keepAlive) {
+                    // shutdown or Emergency Stop poke - the interrupt has done its job, so it is not restored
+                    LOG.info(() -> "Control Loop thread woken up to stop trading on Exchange ["
+                            + exchange.getExchangeId() + "]");
+                    break;
                 }
+                // Nothing asked us to stop, so go back to sleep. Restoring the interrupt here would make the next
+                // take() throw straight away, and the loop would spin.
+                LOG.warn("Control Loop thread interrupted when sleeping before next trade cycle - carrying on");
+                continue;
+            }
+            tradeCycleQueue.drainTo(dueMarketStrategies);
+
+            final long tradeCycleStartTime = System.nanoTime();
+            tradeCycleMetrics.getSleepTimes().record(tradeCycleStartTime - sleepStartTime, TimeUnit.NANOSECONDS);
+            for (final MarketStrategy marketStrategy : dueMarketStrategies) {
+                marketStrategy.getMarketMetrics().getStartDelays().record(
+                        tradeCycleStartTime - marketStrategy.getTradeCycleSchedule().getNextCycleStartTime(),
+                        TimeUnit.NANOSECONDS);
+            }
+
+            try {
 
-                LOG.info(() -> "*** Sleeping " + tradeExecutionInterval + "s til next trade cycle... ***");
+                LOG.info(() -> "*** Starting next trade cycle for " + dueMarketStrategies.size() + " market(s)... ***");
 
-                try {
-                    Thread.sleep(tradeExecutionInterval * 1000);
-                } catch (InterruptedException e) {
-                    LOG.warn("Control Loop thread interrupted when sleeping before next trade cycle");
-                    Thread.currentThread().interrupt();
+                // Emergency Stop verdict MUST be checked at start of every trade cycle.
+                final boolean emergencyStopLimitBreached = isEmergencyStopLimitBreached(exchange);
+                tradeCycleMetrics.getEmergencyStopCheckTimes().record(System.nanoTime() - tradeCycleStartTime,
+                        TimeUnit.NANOSECONDS);
+                if (emergencyStopLimitBreached) {
+                    break;
+                }
+
+                // Execute the Trading Strategies against a fresh snapshot of the market data
+                exchange.getTradeCycleSnapshot().startNewTradeCycle();
+                if (parallelStrategyExecutor != null) {
+                    parallelStrategyExecutor.execute(dueMarketStrategies);
+                } else {
+                    for (final MarketStrategy marketStrategy : dueMarketStrategies) {
+                        if (!keepAlive) {
+                            break; // Emergency Stop or shutdown happened mid-cycle
+                        }
+                        final TradingStrategy tradingStrategy = marketStrategy.getTradingStrategy();
+                        LOG.info(() -> "Executing Trading Strategy ---> " + tradingStrategy.getClass().getSimpleName()
+                                + " for Market [" + marketStrategy.getMarket().getName() + "]");
+                        marketStrategy.execute();
+                    }
                 }
 
             } catch (ExchangeNetworkException e) {
@@ -240,64 +454,92 @@ public class TradingEngine {
                  * We have a network connection issue reported by Exchange Adapter when called directly from
                  * Trading Engine. Current policy is to log it and sleep until next trade cycle.
                  */
-                final String WARNING_MSG = "A network error has occurred in Exchange Adapter! " +
-                        "BX-bot will attempt next trade in " + tradeExecutionInterval + "s...";
+                final String WARNING_MSG = "A network error has occurred in Exchange Adapter for Exchange ["
+                        + exchange.getExchangeId() + "]! " +
+                        "BX-bot will attempt next trade at next trade cycle...";
                 LOG.error(WARNING_MSG, e);
 
-                try {
-                    Thread.sleep(tradeExecutionInterval * 1000);
-                } catch (InterruptedException e1) {
-                    LOG.warn("Control Loop thread interrupted when sleeping before next trade cycle");
-                    Thread.currentThread().interrupt();
-                }
-
             } catch (TradingApiException e) {
 
                 /*
                  * A serious issue has occurred in the Exchange Adapter.
-                 * Current policy is to log it, send email alert if required, and shutdown bot.
+                 * Current policy is to log it, send email alert if required, and stop trading on this Exchange.
                  */
                 final String FATAL_ERROR_MSG = "A FATAL error has occurred in Exchange Adapter!";
                 LOG.fatal(FATAL_ERROR_MSG, e);
                 emailAlerter.sendMessage(CRITICAL_EMAIL_ALERT_SUBJECT,
                         buildCriticalEmailAlertMsgContent(FATAL_ERROR_MSG +
                                 DETAILS_ERROR_MSG_LABEL + e.getMessage() +
-                                CAUSE_ERROR_MSG_LABEL + e.getCause(), e));
-                keepAlive = false;
+                                CAUSE_ERROR_MSG_LABEL + e.getCause(), e, exchange));
+                isTradingOnExchange = false;
 
             } catch (StrategyException e) {
 
                 /*
                  * A serious issue has occurred in the Trading Strategy.
-                 * Current policy is to log it, send email alert if required, and shutdown bot.
+                 * Current policy is to log it, send email alert if required, and stop trading on this Exchange.
                  */
                 final String FATAL_ERROR_MSG = "A FATAL error has occurred in Trading Strategy!";
                 LOG.fatal(FATAL_ERROR_MSG, e);
                 emailAlerter.sendMessage(CRITICAL_EMAIL_ALERT_SUBJECT,
                         buildCriticalEmailAlertMsgContent(FATAL_ERROR_MSG +
                                 DETAILS_ERROR_MSG_LABEL + e.getMessage() +
-                                CAUSE_ERROR_MSG_LABEL + e.getCause(), e));
-                keepAlive = false;
+                                CAUSE_ERROR_MSG_LABEL + e.getCause(), e, exchange));
+                isTradingOnExchange = false;
 
             } catch (Exception e) {
 
                 /*
                  * A serious and *unexpected* issue has occurred in the Exchange Adapter or Trading Strategy.
-                 * Current policy is to log it, send email alert if required, and shutdown bot.
+                 * Current policy is to log it, send email alert if required, and stop trading on this Exchange.
                  */
                 final String FATAL_ERROR_MSG = "An unexpected FATAL error has occurred in Exchange Adapter or Trading Strategy!";
                 LOG.fatal(FATAL_ERROR_MSG, e);
                 emailAlerter.sendMessage(CRITICAL_EMAIL_ALERT_SUBJECT,
                         buildCriticalEmailAlertMsgContent(FATAL_ERROR_MSG +
                                 DETAILS_ERROR_MSG_LABEL + e.getMessage() +
-                                CAUSE_ERROR_MSG_LABEL + e.getCause(), e));
-                keepAlive = false;
+                                CAUSE_ERROR_MSG_LABEL + e.getCause(), e, exchange));
+                isTradingOnExchange = false;
+
+            } finally {
+                tradeCycleMetrics.getExchangeTradeCycleTimes(exchange.getExchangeId()).record(
+                        System.nanoTime() - tradeCycleStartTime, TimeUnit.NANOSECONDS);
+                scheduleNextTradeCycle(dueMarketStrategies, tradeCycleQueue);
             }
         }
 
-        LOG.fatal("BX-bot " + botId + " is shutting down NOW!");
-        synchronized (IS_RUNNING_MONITOR) {
-            isRunning = false;
+        runningControlLoops.decrementAndGet();
+        LOG.fatal("BX-bot " + botId + " has stopped trading on Exchange [" + exchange.getExchangeId() + "]");
+    }
+
+    /*
+     * Moves each Market's schedule on and puts it back on the queue until its next trade cycle is due. The trade cycles
+     * run at a fixed rate, so the time spent executing the last cycle is taken off the time until the next one.
+     */
+    private static void scheduleNextTradeCycle(List<MarketStrategy> executedMarketStrategies,
+                                               DelayQueue<MarketStrategy> tradeCycleQueue) {
+
+        for (final MarketStrategy marketStrategy : executedMarketStrategies) {
+
+            final TradeCycleSchedule tradeCycleSchedule = marketStrategy.getTradeCycleSchedule();
+            final long overrunCount = tradeCycleSchedule.getOverrunCount();
+            tradeCycleSchedule.advance();
+            marketStrategy.getMarketMetrics().setOverrunCount(tradeCycleSchedule.getOverrunCount());
+
+            if (tradeCycleSchedule.getOverrunCount() > overrunCount) {
+                LOG.warn(() -> "Trade cycle for Market [" + marketStrategy.getMarket().getName()
+                        + "] took longer than its " + tradeCycleSchedule.getPeriod(TimeUnit.MILLISECONDS)
+                        + "ms trade cycle interval - applying " + tradeCycleSchedule.getOverrunPolicy()
+                        + " overrun policy. Total overruns: " + tradeCycleSchedule.getOverrunCount());
+            }
+
+            tradeCycleQueue.add(marketStrategy);
+        }
+
+        final MarketStrategy next = tradeCycleQueue.peek();
+        if (next != null) {
+            LOG.info(() -> "*** Sleeping " + next.getDelay(TimeUnit.MILLISECONDS) + "ms til next trade cycle for Market ["
+                    + next.getMarket().getName() + "]... ***");
         }
     }
 
@@ -313,6 +555,7 @@ public class TradingEngine {
 
         keepAlive = false;
         engineThread.interrupt(); // poke it in case bot is sleeping
+        interruptControlLoops();
     }
 
     synchronized boolean isRunning() {
@@ -325,70 +568,63 @@ public class TradingEngine {
      * If the balance cannot be obtained or has dropped below the configured limit, we notify the main control loop to
      * immediately shutdown the bot.
      *
+     * The balance is fetched by the Emergency Stop Watchdog on its own schedule - we only read its last verdict here,
+     * so the trade cycle does not wait on a round-trip to the exchange.
+     *
      * This check is here to help protect runaway losses due to:
      * - 'buggy' Trading Strategies
      * - Unforeseen bugs in the Trading Engine and Exchange Adapter
      * - the exchange sending corrupt order book data and the Trading Strategy being misled... this has happened.
      */
-    private boolean isEmergencyStopLimitBreached() throws TradingApiException, ExchangeNetworkException {
-
-        boolean isEmergencyStopLimitBreached = true;
+    private boolean isEmergencyStopLimitBreached(ExchangeContext exchange)
+            throws TradingApiException, ExchangeNetworkException {
 
-        if (emergencyStopBalance.compareTo(BigDecimal.ZERO) == 0) {
+        final EmergencyStopWatchdog emergencyStopWatchdog = exchange.getEmergencyStopWatchdog();
+        if (emergencyStopWatchdog == null) {
             return false;
         }
 
-        LOG.info(() -> "Performing Emergency Stop check...");
-
-        BalanceInfo balanceInfo;
         try {
-            balanceInfo = exchangeAdapter.getBalanceInfo();
-        } catch (TradingApiException e) {
-            final String errorMsg = "Failed to get Balance info from exchange to perform Emergency Stop check - letting"
-                    + " Trade Engine error policy decide what to do next...";
-            LOG.error(errorMsg, e);
-            // re-throw to main loop - might only be connection issue and it will retry...
-            throw e;
-        }
-
-        final Map<String, BigDecimal> balancesAvailable = balanceInfo.getBalancesAvailable();
-        final BigDecimal currentBalance = balancesAvailable.get(emergencyStopCurrency);
-        if (currentBalance == null) {
-            final String errorMsg =
-                    "Emergency stop check: Failed to get current Emergency Stop Currency balance as '"
-                            + emergencyStopCurrency + "' key into Balances map "
-                            + "returned null. Balances returned: " + balancesAvailable;
-            LOG.error(errorMsg);
-            throw new IllegalStateException(errorMsg);
-        } else {
-
-            LOG.info(() -> "Emergency Stop Currency balance available on exchange is ["
-                    + new DecimalFormat("#.########").format(currentBalance) + "] "
-                    + emergencyStopCurrency);
+            return emergencyStopWatchdog.isEmergencyStopLimitBreached();
+        } catch (InterruptedException e) {
+            // no verdict yet - we never trade without one
+            LOG.warn("Control Loop thread interrupted when waiting for first Emergency Stop check");
+            Thread.currentThread().interrupt();
+            return true;
+        }
+    }
 
-            LOG.info(() -> "Balance that will stop ALL trading across ALL markets is ["
-                    + new DecimalFormat("#.########").format(emergencyStopBalance) + "] " + emergencyStopCurrency);
+    /*
+     * Called from an Exchange's Emergency Stop Watchdog thread the moment a breach is seen. A breach on any Exchange
+     * stops trading on all of them.
+     */
+    private void onEmergencyStopBreached(ExchangeContext exchange, String breachDetails) {
 
-            if (currentBalance.compareTo(emergencyStopBalance) < 0) {
-                final String balanceBlownErrorMsg =
-                        "EMERGENCY STOP triggered! - Current Emergency Stop Currency [" + emergencyStopCurrency + "] wallet balance ["
-                                + new DecimalFormat("#.########").format(currentBalance) + "] on exchange "
-                                + "is lower than configured Emergency Stop balance ["
-                                + new DecimalFormat("#.########").format(emergencyStopBalance) + "] " + emergencyStopCurrency;
+        keepAlive = false;
+        emailAlerter.sendMessage(CRITICAL_EMAIL_ALERT_SUBJECT,
+                buildCriticalEmailAlertMsgContent(breachDetails, null, exchange));
 
-                LOG.fatal(balanceBlownErrorMsg);
-                emailAlerter.sendMessage(CRITICAL_EMAIL_ALERT_SUBJECT,
-                        buildCriticalEmailAlertMsgContent(balanceBlownErrorMsg, null));
-            } else {
+        synchronized (IS_RUNNING_MONITOR) {
+            if (isRunning) {
+                interruptControlLoops(); // poke them in case bot is sleeping
+            }
+        }
+    }
 
-                isEmergencyStopLimitBreached = false;
-                LOG.info(() -> "Emergency Stop check PASSED!");
+    /*
+     * Pokes the control loop for each Exchange in case it is sleeping. Might be called from a different thread.
+     */
+    private void interruptControlLoops() {
+        for (final ExchangeContext exchange : exchanges.values()) {
+            final Thread controlLoopThread = exchange.getControlLoopThread();
+            if (controlLoopThread != null) {
+                controlLoopThread.interrupt();
             }
         }
-        return isEmergencyStopLimitBreached;
     }
 
-    private String buildCriticalEmailAlertMsgContent(String errorDetails, Throwable exception) {
+    private String buildCriticalEmailAlertMsgContent(String errorDetails, Throwable exception,
+                                                     ExchangeContext exchange) {
 
         final StringBuilder msgContent = new StringBuilder("A CRITICAL error event has occurred on BX-bot.");
         msgContent.append(NEWLINE).append(NEWLINE);
@@ -404,7 +640,9 @@ public class TradingEngine {
         msgContent.append(HORIZONTAL_RULE);
         msgContent.append("Exchange Adapter:");
         msgContent.append(NEWLINE).append(NEWLINE);
-        msgContent.append(exchangeAdapter.getClass().getName());
+        msgContent.append(exchange.getExchangeId());
+        msgContent.append(" / ");
+        msgContent.append(exchange.getExchangeAdapter().getClass().getName());
         msgContent.append(NEWLINE).append(NEWLINE);
 
         msgContent.append(HORIZONTAL_RULE);
@@ -422,7 +660,14 @@ public class TradingEngine {
         msgContent.append(HORIZONTAL_RULE);
         msgContent.append("Action Taken:");
         msgContent.append(NEWLINE).append(NEWLINE);
-        msgContent.append("The bot will shut down NOW! Check the bot logs for more information.");
+        if (keepAlive && runningControlLoops.get() > 1) {
+            msgContent.append("The bot will stop trading on Exchange ");
+            msgContent.append(exchange.getExchangeId());
+            msgContent.append(" NOW! It will carry on trading on the other Exchanges. Check the bot logs for more "
+                    + "information.");
+        } else {
+            msgContent.append("The bot will shut down NOW! Check the bot logs for more information.");
+        }
         msgContent.append(NEWLINE).append(NEWLINE);
 
         if (exception != null) {
@@ -442,12 +687,41 @@ public class TradingEngine {
     // Config loading methods
     // ------------------------------------------------------------------------
 
-    private void loadExchangeAdapterConfig() {
+    private void loadExchangeAdapterConfigs() {
 
-        final ExchangeConfig domainExchangeConfig = exchangeConfigService.getExchangeConfig();
-        LOG.info(() -> "Fetched Exchange config from repository: " + domainExchangeConfig);
+        final List<ExchangeConfig> domainExchangeConfigs = exchangeConfigService.getAllExchangeConfig();
+        LOG.info(() -> "Fetched Exchanges config from repository: " + domainExchangeConfigs);
 
-        exchangeAdapter = ConfigurableComponentFactory.createComponent(domainExchangeConfig.getExchangeAdapter());
+        for (final ExchangeConfig domainExchangeConfig : domainExchangeConfigs) {
+
+            final boolean isMainExchange = exchanges.isEmpty();
+            final String exchangeId = domainExchangeConfig.getId() != null
+                    ? domainExchangeConfig.getId() : (isMainExchange ? MAIN_EXCHANGE_ID : null);
+            if (exchangeId == null) {
+                final String errorMsg = "Additional Exchange must have an id! Exchange details: "
+                        + domainExchangeConfig;
+                LOG.fatal(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+            if (exchanges.containsKey(exchangeId)) {
+                final String errorMsg = "Found duplicate Exchange id! Exchange details: " + domainExchangeConfig;
+                LOG.fatal(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+
+            final ExchangeContext exchange = createExchangeContext(exchangeId, domainExchangeConfig);
+            exchanges.put(exchangeId, exchange);
+            if (isMainExchange) {
+                mainExchange = exchange;
+            }
+            LOG.info(() -> "Trading Engine will trade on Exchange [" + exchangeId + "]");
+        }
+    }
+
+    private ExchangeContext createExchangeContext(String exchangeId, ExchangeConfig domainExchangeConfig) {
+
+        final ExchangeAdapter exchangeAdapter =
+                ConfigurableComponentFactory.createComponent(domainExchangeConfig.getExchangeAdapter());
         LOG.info(() -> "Trading Engine will use Exchange Adapter for: " + exchangeAdapter.getImplName());
 
         final ExchangeConfigImpl adapterExchangeConfig = new ExchangeConfigImpl();
@@ -458,6 +732,9 @@ public class TradingEngine {
 
             final NetworkConfigImpl adapterNetworkConfig = new NetworkConfigImpl();
             adapterNetworkConfig.setConnectionTimeout(networkConfig.getConnectionTimeout());
+            adapterNetworkConfig.setReadTimeout(networkConfig.getReadTimeout());
+            adapterNetworkConfig.setConnectionPoolSize(networkConfig.getConnectionPoolSize());
+            adapterNetworkConfig.setConnectionIdleTimeout(networkConfig.getConnectionIdleTimeout());
 
             // Grab optional non-fatal error codes
             final List<Integer> nonFatalErrorCodes = networkConfig.getNonFatalErrorCodes();
@@ -479,6 +756,18 @@ public class TradingEngine {
                                 + exchangeAdapter.getImplName());
             }
 
+            // Grab optional client-side rate limits - the NetworkConfiguration log line below shows if none were set
+            final List<RateLimitConfig> rateLimits = networkConfig.getRateLimits();
+            if (rateLimits != null) {
+                rateLimits.forEach(rateLimit -> {
+                    final RateLimitConfigImpl adapterRateLimit = new RateLimitConfigImpl();
+                    adapterRateLimit.setEndpointClass(rateLimit.getEndpointClass());
+                    adapterRateLimit.setRequests(rateLimit.getRequests());
+                    adapterRateLimit.setPeriod(rateLimit.getPeriod());
+                    adapterNetworkConfig.getRateLimits().add(adapterRateLimit);
+                });
+            }
+
             adapterExchangeConfig.setNetworkConfig(adapterNetworkConfig);
             LOG.info(() -> "NetworkConfiguration has been set: " + adapterNetworkConfig);
 
@@ -515,7 +804,17 @@ public class TradingEngine {
             LOG.info(() -> "No Optional config has been set for Exchange Adapter: " + exchangeAdapter.getImplName());
         }
 
+        // Wrap the adapter to cache its read calls if any cache TTLs have been set
+        if (CachingExchangeAdapter.isCachingEnabled(adapterExchangeConfig)) {
+            final ExchangeAdapter cachingExchangeAdapter = new CachingExchangeAdapter(exchangeAdapter);
+            cachingExchangeAdapter.init(adapterExchangeConfig);
+            return new ExchangeContext(exchangeId, domainExchangeConfig.getExchangeName(), cachingExchangeAdapter,
+                    exchangeAdapter);
+        }
+
         exchangeAdapter.init(adapterExchangeConfig);
+        return new ExchangeContext(exchangeId, domainExchangeConfig.getExchangeName(), exchangeAdapter,
+                exchangeAdapter);
     }
 
     private void loadEngineConfig() {
@@ -527,8 +826,31 @@ public class TradingEngine {
         botName = engineConfig.getBotName();
 
         tradeExecutionInterval = engineConfig.getTradeCycleInterval();
+
+        final String tradeCycleIntervalUnit = engineConfig.getTradeCycleIntervalUnit();
+        tradeExecutionIntervalUnit = tradeCycleIntervalUnit != null
+                ? TimeUnit.valueOf(tradeCycleIntervalUnit) : TimeUnit.SECONDS;
+
+        final String overrunPolicy = engineConfig.getTradeCycleOverrunPolicy();
+        tradeCycleOverrunPolicy = overrunPolicy != null
+                ? TradeCycleSchedule.OverrunPolicy.valueOf(overrunPolicy) : TradeCycleSchedule.OverrunPolicy.COALESCE;
+
         emergencyStopCurrency = engineConfig.getEmergencyStopCurrency();
         emergencyStopBalance = engineConfig.getEmergencyStopBalance();
+
+        strategyExecutionMode = engineConfig.getStrategyExecutionMode();
+        strategyExecutionPoolSize = engineConfig.getStrategyExecutionPoolSize();
+        strategyExecutionTimeout = engineConfig.getStrategyExecutionTimeout();
+        emergencyStopCheckInterval = engineConfig.getEmergencyStopCheckInterval();
+
+        strategyInvocationMode = engineConfig.getStrategyInvocationMode() != null
+                ? engineConfig.getStrategyInvocationMode() : STRATEGY_INVOCATION_MODE_POLL;
+        if (!STRATEGY_INVOCATION_MODE_POLL.equals(strategyInvocationMode)
+                && !STRATEGY_INVOCATION_MODE_EVENT_DRIVEN.equals(strategyInvocationMode)) {
+            final String errorMsg = "Unknown Strategy invocation mode: " + strategyInvocationMode;
+            LOG.fatal(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
     }
 
     private void loadTradingStrategyConfig() {
@@ -560,6 +882,14 @@ public class TradingEngine {
             }
 
             final Market tradingMarket = new Market(marketName, market.getId(), market.getBaseCurrency(), market.getCounterCurrency());
+            final ExchangeContext exchange = market.getExchangeId() != null
+                    ? exchanges.get(market.getExchangeId()) : mainExchange;
+            if (exchange == null) {
+                final String errorMsg = "Market is bound to an unknown Exchange id: " + market.getExchangeId()
+                        + " - Market details: " + market + " - Exchange ids: " + exchanges.keySet();
+                LOG.fatal(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
             final boolean wasAdded = loadedMarkets.add(tradingMarket);
             if (!wasAdded) {
                 final String errorMsg = "Found duplicate Market! Market details: " + market;
@@ -591,12 +921,25 @@ public class TradingEngine {
                  * Trading Strategy execution list.
                  */
                 final TradingStrategy strategyImpl = ConfigurableComponentFactory.createComponent(tradingStrategyClassname);
-                strategyImpl.init(exchangeAdapter, tradingMarket, tradingStrategyConfig);
+                final Integer orderBookDepth = market.getOrderBookDepth();
+                if (orderBookDepth != null) {
+                    exchange.getTradeCycleSnapshot().setOrderBookDepth(tradingMarket.getId(), orderBookDepth);
+                    LOG.info(() -> "Market [" + marketName + "] order book depth: " + orderBookDepth);
+                }
+                strategyImpl.init(exchange.getTradeCycleSnapshot(), tradingMarket, tradingStrategyConfig);
 
                 LOG.info(() -> "Initialized trading strategy successfully. Name: [" + tradingStrategy.getName()
                         + "] Class: " + tradingStrategy.getClassName());
 
-                tradingStrategiesToExecute.add(strategyImpl);
+                final TradeCycleSchedule tradeCycleSchedule = createTradeCycleSchedule(market);
+                LOG.info(() -> "Market [" + marketName + "] trade cycle interval: "
+                        + tradeCycleSchedule.getPeriod(TimeUnit.MILLISECONDS) + "ms - trading on Exchange ["
+                        + exchange.getExchangeId() + "]");
+
+                exchange.getMarketStrategies().add(new MarketStrategy(tradingMarket,
+                        createStrategyInvoker(tradingMarket, strategyImpl, exchange.getTradeCycleSnapshot()),
+                        tradeCycleSchedule,
+                        tradeCycleMetrics.getMarketMetrics(tradingMarket.getId())));
             } else {
 
                 // Game over. Config integrity blown - we can't find strat.
@@ -610,4 +953,153 @@ public class TradingEngine {
 
         LOG.info(() -> "Loaded and set Market configuration successfully!");
     }
-}
\ No newline at end of file
+
+    /*
+     * In EVENT_DRIVEN mode, strategies that implement MarketEventListener are only called back when their Market has
+     * changed. All other strategies are executed every trade cycle.
+     */
+    private TradingStrategy createStrategyInvoker(Market market, TradingStrategy strategy,
+                                                  TradeCycleSnapshot tradeCycleSnapshot) {
+
+        if (!STRATEGY_INVOCATION_MODE_EVENT_DRIVEN.equals(strategyInvocationMode)
+                || !(strategy instanceof MarketEventListener)) {
+            return strategy;
+        }
+
+        final MarketEventDispatcher marketEventDispatcher =
+                new MarketEventDispatcher(market, (MarketEventListener) strategy, tradeCycleSnapshot);
+        tradeCycleSnapshot.addOrderListener(market.getId(), marketEventDispatcher);
+
+        LOG.info(() -> "Market [" + market.getName() + "] Trading Strategy " + strategy.getClass().getSimpleName()
+                + " will only be called when the Market changes");
+        return marketEventDispatcher;
+    }
+
+    /*
+     * Markets can set their own trade cycle interval; if they don't, the engine's interval is used.
+     */
+    private TradeCycleSchedule createTradeCycleSchedule(MarketConfig market) {
+
+        final Integer marketTradeCycleInterval = market.getTradeCycleInterval();
+        if (marketTradeCycleInterval == null) {
+            return new TradeCycleSchedule(tradeExecutionInterval, tradeExecutionIntervalUnit, tradeCycleOverrunPolicy);
+        }
+
+        final String marketTradeCycleIntervalUnit = market.getTradeCycleIntervalUnit();
+        final TimeUnit timeUnit = marketTradeCycleIntervalUnit != null
+                ? TimeUnit.valueOf(marketTradeCycleIntervalUnit) : TimeUnit.SECONDS;
+        return new TradeCycleSchedule(marketTradeCycleInterval, timeUnit, tradeCycleOverrunPolicy);
+    }
+
+    private void initStrategyExecution() {
+
+        if (strategyExecutionMode == null || STRATEGY_EXECUTION_MODE_SEQUENTIAL.equals(strategyExecutionMode)) {
+            LOG.info(() -> "Trading Strategies will be executed sequentially");
+            return;
+        }
+
+        if (STRATEGY_EXECUTION_MODE_VIRTUAL.equals(strategyExecutionMode)) {
+            initVirtualStrategyExecution();
+            return;
+        }
+
+        if (!STRATEGY_EXECUTION_MODE_PARALLEL.equals(strategyExecutionMode)) {
+            final String errorMsg = "Unknown Strategy execution mode: " + strategyExecutionMode;
+            LOG.fatal(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        int marketCount = 0;
+        for (final ExchangeContext exchange : exchanges.values()) {
+            marketCount += exchange.getMarketStrategies().size();
+        }
+        final int poolSize = strategyExecutionPoolSize != null ? strategyExecutionPoolSize : Math.max(1, marketCount);
+        final int timeout = strategyExecutionTimeout != null ? strategyExecutionTimeout : tradeExecutionInterval;
+        final TimeUnit timeoutUnit = strategyExecutionTimeout != null ? TimeUnit.SECONDS : tradeExecutionIntervalUnit;
+
+        // the pool is shared with any other bots in the JVM - the pool size caps how many of our strategies it runs
+        initParallelStrategyExecutors(new BoundedExecutor(sharedExecutors.getStrategyExecutor(), poolSize), timeout,
+                timeoutUnit);
+
+        LOG.info(() -> "Trading Strategies will be executed in parallel - pool size: " + poolSize
+                + " timeout: " + timeout + " " + timeoutUnit);
+    }
+
+    /*
+     * Each Market's strategy gets its own virtual thread every trade cycle, so any number of Markets can block on
+     * exchange I/O at the same time without a big thread pool. Strategies are timed out the same way as in PARALLEL
+     * mode.
+     */
+    private void initVirtualStrategyExecution() {
+
+        final ExecutorService executorService;
+        try {
+            executorService = sharedExecutors.getVirtualStrategyExecutor();
+        } catch (IllegalStateException e) {
+            final String errorMsg = "Cannot use " + STRATEGY_EXECUTION_MODE_VIRTUAL + " Strategy execution mode: "
+                    + e.getMessage();
+            LOG.fatal(errorMsg, e);
+            throw new IllegalArgumentException(errorMsg, e);
+        }
+
+        final int timeout = strategyExecutionTimeout != null ? strategyExecutionTimeout : tradeExecutionInterval;
+        final TimeUnit timeoutUnit = strategyExecutionTimeout != null ? TimeUnit.SECONDS : tradeExecutionIntervalUnit;
+        initParallelStrategyExecutors(executorService, timeout, timeoutUnit);
+
+        if (strategyExecutionPoolSize != null) {
+            LOG.warn(() -> "Strategy execution pool size is ignored in " + STRATEGY_EXECUTION_MODE_VIRTUAL + " mode");
+        }
+
+        virtualThreadPinningMonitor = new VirtualThreadPinningMonitor(VIRTUAL_THREAD_PINNING_THRESHOLD);
+        virtualThreadPinningMonitor.start();
+
+        LOG.info(() -> "Trading Strategies will be executed on virtual threads - timeout: " + timeout + " "
+                + timeoutUnit);
+    }
+
+    /*
+     * Each Exchange gets its own executor so it can track its own overrunning strategies, but they all share the
+     * one thread pool.
+     */
+    private void initParallelStrategyExecutors(Executor executor, int timeout, TimeUnit timeoutUnit) {
+        for (final ExchangeContext exchange : exchanges.values()) {
+            exchange.setParallelStrategyExecutor(new ParallelStrategyExecutor(executor, timeout, timeoutUnit));
+        }
+    }
+
+    /*
+     * Each Exchange that is traded on gets its own watchdog, checking the same Emergency Stop balance.
+     */
+    private void initEmergencyStopWatchdogs() {
+
+        if (emergencyStopBalance.compareTo(BigDecimal.ZERO) == 0) {
+            LOG.info(() -> "Emergency Stop balance is 0 - Emergency Stop check is disabled");
+            return;
+        }
+
+        final int checkInterval = emergencyStopCheckInterval != null
+                ? emergencyStopCheckInterval
+                : (int) Math.max(MIN_DEFAULT_EMERGENCY_STOP_CHECK_INTERVAL_SECS,
+                tradeExecutionIntervalUnit.toSeconds(tradeExecutionInterval));
+
+        for (final ExchangeContext exchange : exchanges.values()) {
+            if (!isTradedOn(exchange)) {
+                continue;
+            }
+            exchange.setEmergencyStopWatchdog(new EmergencyStopWatchdog(exchange.getUncachedExchangeAdapter(),
+                    emergencyStopCurrency, emergencyStopBalance, checkInterval, TimeUnit.SECONDS,
+                    breachDetails -> onEmergencyStopBreached(exchange, breachDetails),
+                    sharedExecutors.getEmergencyStopCheckScheduler()));
+
+            LOG.info(() -> "Emergency Stop balance will be checked on Exchange [" + exchange.getExchangeId()
+                    + "] every " + checkInterval + " " + TimeUnit.SECONDS);
+        }
+    }
+
+    /*
+     * Additional Exchanges with no enabled Markets are not traded on.
+     */
+    private boolean isTradedOn(ExchangeContext exchange) {
+        return exchange == mainExchange || !exchange.getMarketStrategies().isEmpty();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.core.mail.EmailAlerter;
+import com.gazbert.bxbot.core.metrics.TradeCycleMetrics;
+import com.gazbert.bxbot.repository.impl.EmailAlertsConfigRepositoryXmlDatastore;
+import com.gazbert.bxbot.repository.impl.EngineConfigRepositoryXmlDatastore;
+import com.gazbert.bxbot.repository.impl.ExchangeConfigRepositoryXmlDatastore;
+import com.gazbert.bxbot.repository.impl.MarketConfigRepositoryXmlDatastore;
+import com.gazbert.bxbot.repository.impl.StrategyConfigRepositoryXmlDatastore;
+import com.gazbert.bxbot.services.EmailAlertsConfigService;
+import com.gazbert.bxbot.services.impl.EmailAlertsConfigServiceImpl;
+import com.gazbert.bxbot.services.impl.EngineConfigServiceImpl;
+import com.gazbert.bxbot.services.impl.ExchangeConfigServiceImpl;
+import com.gazbert.bxbot.services.impl.MarketConfigServiceImpl;
+import com.gazbert.bxbot.services.impl.StrategyConfigServiceImpl;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the Trading Engines for bots hosted in the same JVM as the main bot.
+ * <p>
+ * Each hosted bot reads its config from its own config directory and gets its own Email Alerter and trade cycle
+ * metrics. It shares the JVM's thread pools with the other bots - see {@link SharedExecutors}.
+ *
+ * @author gazbert
+ */
+@Component
+public class TradingEngineFactory {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private final SharedExecutors sharedExecutors;
+
+
+    @Autowired
+    public TradingEngineFactory(SharedExecutors sharedExecutors) {
+        this.sharedExecutors = sharedExecutors;
+    }
+
+    /**
+     * Creates a Trading Engine for the bot config in the given config directory.
+     *
+     * @param configDir the bot's config directory, relative to project/installation root, or absolute.
+     * @return the Trading Engine - it has not been started.
+     */
+    public TradingEngine createTradingEngine(String configDir) {
+
+        LOG.info(() -> "Creating Trading Engine for bot config in: " + configDir);
+
+        final EmailAlertsConfigService emailAlertsConfigService =
+                new EmailAlertsConfigServiceImpl(new EmailAlertsConfigRepositoryXmlDatastore(configDir));
+
+        return new TradingEngine(
+                new ExchangeConfigServiceImpl(new ExchangeConfigRepositoryXmlDatastore(configDir)),
+                new EngineConfigServiceImpl(new EngineConfigRepositoryXmlDatastore(configDir)),
+                new StrategyConfigServiceImpl(new StrategyConfigRepositoryXmlDatastore(configDir)),
+                new MarketConfigServiceImpl(new MarketConfigRepositoryXmlDatastore(configDir)),
+                new EmailAlerter(emailAlertsConfigService),
+                new TradeCycleMetrics(),
+                sharedExecutors);
+    }
+}
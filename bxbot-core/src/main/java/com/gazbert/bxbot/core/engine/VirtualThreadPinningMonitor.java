@@ -0,0 +1,136 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Logs a warning, with the stack trace, whenever a virtual thread is pinned to its carrier thread.
+ * <p>
+ * A virtual thread that blocks inside a <code>synchronized</code> block or method cannot unmount from its carrier
+ * thread. If that happens on exchange I/O, it ties up one of the few carrier threads and the VIRTUAL strategy
+ * execution mode quietly degrades into a small thread pool. The stack traces point at the offending sections,
+ * e.g. in the Exchange Adapters or the config datastore, so they can be changed to use
+ * {@link java.util.concurrent.locks.ReentrantLock} instead.
+ * <p>
+ * The monitor listens for the JDK Flight Recorder <code>jdk.VirtualThreadPinned</code> event. The JFR streaming API is
+ * looked up reflectively so the bot still runs on Java 8; if it is not available, a warning is logged and the monitor
+ * does nothing.
+ *
+ * @author gazbert
+ */
+final class VirtualThreadPinningMonitor {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final Duration threshold;
+    private final AtomicLong pinnedCount = new AtomicLong();
+
+    /*
+     * The JFR RecordingStream. Null until started, or if JFR streaming is not available.
+     */
+    private AutoCloseable recordingStream;
+
+
+    /**
+     * Creates the monitor.
+     *
+     * @param threshold only pinning that lasts at least this long is reported.
+     */
+    VirtualThreadPinningMonitor(Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Starts listening for pinned virtual threads in the background.
+     *
+     * @return true if the monitor started, false if JFR streaming is not available on this JVM.
+     */
+    boolean start() {
+        try {
+            final Class<?> streamClass = Class.forName("jdk.jfr.consumer.RecordingStream");
+            final Object stream = streamClass.getConstructor().newInstance();
+
+            final Object settings = streamClass.getMethod("enable", String.class).invoke(stream, PINNED_EVENT);
+            final Class<?> settingsClass = Class.forName("jdk.jfr.EventSettings");
+            settingsClass.getMethod("withThreshold", Duration.class).invoke(settings, threshold);
+            settingsClass.getMethod("withStackTrace").invoke(settings);
+
+            final Consumer<Object> onPinned = this::onPinned;
+            streamClass.getMethod("onEvent", String.class, Consumer.class).invoke(stream, PINNED_EVENT, onPinned);
+            streamClass.getMethod("startAsync").invoke(stream);
+
+            recordingStream = (AutoCloseable) stream;
+            LOG.info(() -> "Virtual thread pinning monitor started - reporting pinning that lasts longer than "
+                    + threshold.toMillis() + "ms");
+            return true;
+
+        } catch (ClassNotFoundException | NoSuchMethodException | InstantiationException | IllegalAccessException
+                | InvocationTargetException e) {
+            LOG.warn("Virtual thread pinning monitor is not available on this JVM - pinned virtual threads will not be"
+                    + " reported. You can use -Djdk.tracePinnedThreads=short instead.", e);
+            return false;
+        }
+    }
+
+    /**
+     * Stops listening for pinned virtual threads.
+     */
+    void stop() {
+        if (recordingStream != null) {
+            try {
+                recordingStream.close();
+            } catch (Exception e) {
+                LOG.warn("Failed to stop virtual thread pinning monitor", e);
+            }
+            recordingStream = null;
+        }
+    }
+
+    /**
+     * Returns how many times a pinned virtual thread has been reported.
+     *
+     * @return the number of pinned virtual thread events seen.
+     */
+    long getPinnedCount() {
+        return pinnedCount.get();
+    }
+
+    /*
+     * The event is a jdk.jfr.consumer.RecordedEvent - its toString() includes the duration, thread and stack trace.
+     */
+    private void onPinned(Object recordedEvent) {
+        final long count = pinnedCount.incrementAndGet();
+        LOG.warn(() -> "Virtual thread was pinned to its carrier thread - check for blocking calls inside synchronized"
+                + " sections. Total pinned events: " + count + System.lineSeparator() + recordedEvent);
+    }
+}
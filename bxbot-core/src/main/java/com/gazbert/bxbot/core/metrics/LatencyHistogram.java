@@ -0,0 +1,154 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records latencies and works out their percentiles.
+ * <p>
+ * The percentiles, mean and max are taken over a sliding window of the most recent samples, so they reflect how the
+ * bot is running now rather than since it started. The count is the total number of samples ever recorded.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author gazbert
+ */
+public final class LatencyHistogram {
+
+    /*
+     * Number of recent samples the percentiles are worked out from.
+     */
+    static final int DEFAULT_WINDOW_SIZE = 1024;
+
+    private final long[] samples;
+    private long count;
+
+    public LatencyHistogram() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    LatencyHistogram(int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be greater than zero: " + windowSize);
+        }
+        samples = new long[windowSize];
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param latency  the latency.
+     * @param timeUnit the unit of the latency.
+     */
+    public void record(long latency, TimeUnit timeUnit) {
+        final long latencyInNanos = Math.max(0, timeUnit.toNanos(latency));
+        synchronized (this) {
+            samples[(int) (count % samples.length)] = latencyInNanos;
+            count++;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the recorded latencies.
+     *
+     * @return the snapshot.
+     */
+    public Snapshot getSnapshot() {
+        final long[] window;
+        final long totalCount;
+        synchronized (this) {
+            totalCount = count;
+            window = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+        }
+        Arrays.sort(window);
+        return new Snapshot(totalCount, window);
+    }
+
+    /**
+     * An immutable view of the latencies at the time it was taken. All latencies are in nanoseconds.
+     */
+    public static final class Snapshot {
+
+        private final long count;
+        private final long[] sortedWindow;
+
+        private Snapshot(long count, long[] sortedWindow) {
+            this.count = count;
+            this.sortedWindow = sortedWindow;
+        }
+
+        /**
+         * Returns the total number of latencies ever recorded.
+         *
+         * @return the count.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the latency at the given percentile of the recent samples, using the nearest-rank method.
+         *
+         * @param percentile the percentile, between 0 and 100, e.g. 99 for p99.
+         * @return the latency in nanoseconds, or 0 if nothing has been recorded.
+         */
+        public long getPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+            }
+            if (sortedWindow.length == 0) {
+                return 0;
+            }
+            final int rank = (int) Math.ceil(percentile / 100 * sortedWindow.length);
+            return sortedWindow[Math.max(0, rank - 1)];
+        }
+
+        /**
+         * Returns the mean of the recent samples.
+         *
+         * @return the mean in nanoseconds, or 0 if nothing has been recorded.
+         */
+        public double getMean() {
+            if (sortedWindow.length == 0) {
+                return 0;
+            }
+            double total = 0;
+            for (final long sample : sortedWindow) {
+                total += sample;
+            }
+            return total / sortedWindow.length;
+        }
+
+        /**
+         * Returns the largest of the recent samples.
+         *
+         * @return the max in nanoseconds, or 0 if nothing has been recorded.
+         */
+        public long getMax() {
+            return sortedWindow.length == 0 ? 0 : sortedWindow[sortedWindow.length - 1];
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The trade cycle metrics for a single Market.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author gazbert
+ */
+public final class MarketMetrics {
+
+    private final LatencyHistogram strategyExecutionTimes = new LatencyHistogram();
+    private final LatencyHistogram startDelays = new LatencyHistogram();
+    private final AtomicLong overrunCount = new AtomicLong();
+
+    /**
+     * Returns how long the Market's Trading Strategy takes to execute.
+     *
+     * @return the strategy execution times.
+     */
+    public LatencyHistogram getStrategyExecutionTimes() {
+        return strategyExecutionTimes;
+    }
+
+    /**
+     * Returns how late each trade cycle starts compared with its schedule. This grows when trade cycles overrun the
+     * trade cycle interval.
+     *
+     * @return the start delays.
+     */
+    public LatencyHistogram getStartDelays() {
+        return startDelays;
+    }
+
+    /**
+     * Returns the number of trade cycles that took longer than the Market's trade cycle interval.
+     *
+     * @return the overrun count.
+     */
+    public long getOverrunCount() {
+        return overrunCount.get();
+    }
+
+    public void setOverrunCount(long overrunCount) {
+        this.overrunCount.set(overrunCount);
+    }
+}
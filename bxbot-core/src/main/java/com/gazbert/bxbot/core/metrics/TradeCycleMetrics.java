@@ -0,0 +1,108 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Times the phases of the Trading Engine's trade cycles.
+ * <p>
+ * Engine wide, it records how long the Emergency Stop check takes at the start of each trade cycle and how long the
+ * engine sleeps between cycles. For each Exchange, it records the trade cycle times. For each Market, it records the
+ * strategy execution times, how late each cycle starts, and how many cycles have overrun - see {@link MarketMetrics}.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author gazbert
+ */
+@Component
+public class TradeCycleMetrics {
+
+    private final LatencyHistogram emergencyStopCheckTimes = new LatencyHistogram();
+    private final LatencyHistogram sleepTimes = new LatencyHistogram();
+    private final ConcurrentMap<String, LatencyHistogram> exchangeTradeCycleTimes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, MarketMetrics> marketMetrics = new ConcurrentHashMap<>();
+
+    /**
+     * Returns how long the Emergency Stop check takes at the start of each trade cycle.
+     *
+     * @return the Emergency Stop check times.
+     */
+    public LatencyHistogram getEmergencyStopCheckTimes() {
+        return emergencyStopCheckTimes;
+    }
+
+    /**
+     * Returns how long the Trading Engine sleeps waiting for the next trade cycle to be due.
+     *
+     * @return the sleep times.
+     */
+    public LatencyHistogram getSleepTimes() {
+        return sleepTimes;
+    }
+
+    /**
+     * Returns how long each trade cycle on an Exchange takes, from the start of the cycle until all the strategies due
+     * in it have finished. The histogram is created if this is the first time the Exchange has been seen.
+     *
+     * @param exchangeId the Exchange id.
+     * @return the Exchange's trade cycle times.
+     */
+    public LatencyHistogram getExchangeTradeCycleTimes(String exchangeId) {
+        return exchangeTradeCycleTimes.computeIfAbsent(exchangeId, id -> new LatencyHistogram());
+    }
+
+    /**
+     * Returns the trade cycle times for all the Exchanges seen so far, keyed by Exchange id.
+     *
+     * @return the Exchange trade cycle times.
+     */
+    public Map<String, LatencyHistogram> getAllExchangeTradeCycleTimes() {
+        return Collections.unmodifiableMap(exchangeTradeCycleTimes);
+    }
+
+    /**
+     * Returns the metrics for a Market, creating them if this is the first time the Market has been seen.
+     *
+     * @param marketId the Market id.
+     * @return the Market's metrics.
+     */
+    public MarketMetrics getMarketMetrics(String marketId) {
+        return marketMetrics.computeIfAbsent(marketId, id -> new MarketMetrics());
+    }
+
+    /**
+     * Returns the metrics for all the Markets seen so far, keyed by Market id.
+     *
+     * @return the Market metrics.
+     */
+    public Map<String, MarketMetrics> getAllMarketMetrics() {
+        return Collections.unmodifiableMap(marketMetrics);
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the Emergency Stop Watchdog checks the balance in the background and reports its verdict as expected.
+ *
+ * @author gazbert
+ */
+public class TestEmergencyStopWatchdog {
+
+    private static final String EMERGENCY_STOP_CURRENCY = "BTC";
+    private static final BigDecimal EMERGENCY_STOP_BALANCE = new BigDecimal("0.5");
+    private static final long CHECK_INTERVAL_MILLIS = 50;
+
+    private ScriptedTradingApi exchange;
+    private List<String> breaches;
+    private ScheduledExecutorService scheduler;
+    private EmergencyStopWatchdog watchdog;
+
+
+    @Before
+    public void setup() throws Exception {
+        exchange = new ScriptedTradingApi();
+        breaches = new CopyOnWriteArrayList<>();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        watchdog = new EmergencyStopWatchdog(exchange, EMERGENCY_STOP_CURRENCY, EMERGENCY_STOP_BALANCE,
+                CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS, breaches::add, scheduler);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        watchdog.shutdown();
+        scheduler.shutdownNow();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCheckIntervalMustBePositive() throws Exception {
+        new EmergencyStopWatchdog(exchange, EMERGENCY_STOP_CURRENCY, EMERGENCY_STOP_BALANCE, 0,
+                TimeUnit.SECONDS, breaches::add, Executors.newSingleThreadScheduledExecutor());
+    }
+
+    @Test
+    public void testVerdictIsNotBreachedWhenBalanceIsAboveLimit() throws Exception {
+
+        exchange.balance = new BigDecimal("0.5");
+        watchdog.start();
+
+        assertFalse(watchdog.isEmergencyStopLimitBreached());
+        assertTrue(exchange.balanceInfoCalls.get() >= 1);
+        assertTrue(breaches.isEmpty());
+
+        // keeps checking on its own schedule
+        Thread.sleep(CHECK_INTERVAL_MILLIS * 4);
+        assertTrue(exchange.balanceInfoCalls.get() > 1);
+        assertFalse(watchdog.isEmergencyStopLimitBreached());
+    }
+
+    @Test
+    public void testBreachIsReportedOnceAndChecksStop() throws Exception {
+
+        exchange.balance = new BigDecimal("0.49999999");
+        watchdog.start();
+
+        assertTrue(watchdog.isEmergencyStopLimitBreached());
+        Thread.sleep(CHECK_INTERVAL_MILLIS * 4);
+
+        assertEquals(1, exchange.balanceInfoCalls.get());
+        assertEquals(1, breaches.size());
+        assertTrue(breaches.get(0).contains("EMERGENCY STOP triggered! - Current Emergency Stop Currency [BTC] wallet"
+                + " balance [0.49999999] on exchange is lower than configured Emergency Stop balance [0.5] BTC"));
+
+        // breach is final - balance recovering does not undo it
+        exchange.balance = BigDecimal.TEN;
+        assertTrue(watchdog.isEmergencyStopLimitBreached());
+    }
+
+    @Test
+    public void testShutdownStopsChecksButLeavesSharedSchedulerRunning() throws Exception {
+
+        watchdog.start();
+        assertFalse(watchdog.isEmergencyStopLimitBreached());
+
+        watchdog.shutdown();
+        Thread.sleep(CHECK_INTERVAL_MILLIS);
+        final int callsAtShutdown = exchange.balanceInfoCalls.get();
+        Thread.sleep(CHECK_INTERVAL_MILLIS * 4);
+
+        assertEquals(callsAtShutdown, exchange.balanceInfoCalls.get());
+        assertFalse(scheduler.isShutdown());
+    }
+
+    @Test
+    public void testBreachIsSeenWhenBalanceDropsBetweenChecks() throws Exception {
+
+        exchange.balance = BigDecimal.ONE;
+        watchdog.start();
+        assertFalse(watchdog.isEmergencyStopLimitBreached());
+
+        exchange.balance = new BigDecimal("0.1");
+        Thread.sleep(CHECK_INTERVAL_MILLIS * 4);
+
+        assertTrue(watchdog.isEmergencyStopLimitBreached());
+        assertEquals(1, breaches.size());
+    }
+
+    @Test
+    public void testNetworkFailureIsReportedAndCheckIsRetried() throws Exception {
+
+        exchange.failure = new ExchangeNetworkException("Timeout");
+        watchdog.start();
+
+        try {
+            watchdog.isEmergencyStopLimitBreached();
+            fail("Expected ExchangeNetworkException to be thrown");
+        } catch (ExchangeNetworkException e) {
+            assertEquals("Timeout", e.getMessage());
+        }
+
+        exchange.failure = null;
+        exchange.balance = BigDecimal.ONE;
+        Thread.sleep(CHECK_INTERVAL_MILLIS * 4);
+
+        assertFalse(watchdog.isEmergencyStopLimitBreached());
+        assertTrue(breaches.isEmpty());
+    }
+
+    @Test(expected = TradingApiException.class)
+    public void testTradingApiFailureIsReported() throws Exception {
+        exchange.failure = new TradingApiException("Invalid API key");
+        watchdog.start();
+        watchdog.isEmergencyStopLimitBreached();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMissingEmergencyStopCurrencyBalanceIsReported() throws Exception {
+        exchange.currency = "USD";
+        watchdog.start();
+        watchdog.isEmergencyStopLimitBreached();
+    }
+
+    @Test
+    public void testStaleVerdictIsReportedAsNetworkFailure() throws Exception {
+
+        exchange.balance = BigDecimal.ONE;
+        watchdog.start();
+        assertFalse(watchdog.isEmergencyStopLimitBreached());
+
+        // the exchange stops responding
+        exchange.hangLatch = new CountDownLatch(1);
+        try {
+            Thread.sleep(CHECK_INTERVAL_MILLIS * 6);
+            watchdog.isEmergencyStopLimitBreached();
+            fail("Expected ExchangeNetworkException to be thrown");
+        } catch (ExchangeNetworkException e) {
+            assertTrue(e.getMessage().startsWith("Last Emergency Stop check passed"));
+        } finally {
+            exchange.hangLatch.countDown();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Test helpers
+    // ------------------------------------------------------------------------
+
+    private static final class ScriptedTradingApi implements TradingApi {
+
+        private final AtomicInteger balanceInfoCalls = new AtomicInteger();
+        private volatile String currency = EMERGENCY_STOP_CURRENCY;
+        private volatile BigDecimal balance = BigDecimal.ONE;
+        private volatile Exception failure;
+        private volatile CountDownLatch hangLatch;
+
+        @Override
+        public String getImplName() {
+            return "Scripted Trading API";
+        }
+
+        @Override
+        public MarketOrderBook getMarketOrders(String marketId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<OpenOrder> getYourOpenOrders(String marketId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String createOrder(String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean cancelOrder(String orderId, String marketId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BigDecimal getLatestMarketPrice(String marketId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BalanceInfo getBalanceInfo() throws ExchangeNetworkException, TradingApiException {
+            balanceInfoCalls.incrementAndGet();
+
+            final CountDownLatch latch = hangLatch;
+            if (latch != null) {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            final Exception toThrow = failure;
+            if (toThrow instanceof ExchangeNetworkException) {
+                throw (ExchangeNetworkException) toThrow;
+            } else if (toThrow instanceof TradingApiException) {
+                throw (TradingApiException) toThrow;
+            }
+            return new BalanceInfo(Collections.singletonMap(currency, balance), Collections.emptyMap());
+        }
+
+        @Override
+        public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
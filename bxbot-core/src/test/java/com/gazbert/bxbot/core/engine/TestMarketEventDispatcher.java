@@ -0,0 +1,304 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.strategy.api.MarketEventListener;
+import com.gazbert.bxbot.strategy.api.StrategyException;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.Market;
+import com.gazbert.bxbot.trading.api.MarketOrder;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the Market Event Dispatcher only calls back the strategy when the market has changed.
+ *
+ * @author gazbert
+ */
+public class TestMarketEventDispatcher {
+
+    private static final String MARKET_ID = "btc_usd";
+    private static final Market MARKET = new Market("BTC/USD", MARKET_ID, "BTC", "USD");
+    private static final BigDecimal PRICE = new BigDecimal("1000.00");
+    private static final BigDecimal QUANTITY = new BigDecimal("2.0");
+
+    private ScriptedTradingApi exchange;
+    private RecordingListener listener;
+    private TradeCycleSnapshot snapshot;
+    private MarketEventDispatcher dispatcher;
+
+
+    @Before
+    public void setup() throws Exception {
+        exchange = new ScriptedTradingApi();
+        listener = new RecordingListener();
+        snapshot = new TradeCycleSnapshot(exchange);
+        dispatcher = new MarketEventDispatcher(MARKET, listener, snapshot);
+        snapshot.addOrderListener(MARKET_ID, dispatcher);
+    }
+
+    @Test
+    public void testOrderBookUpdateIsOnlyDispatchedWhenTheBookChanges() throws Exception {
+
+        exchange.orderBook = orderBook("1000.00", "1.0");
+        runTradeCycle();
+        assertEquals(1, listener.orderBookUpdates.size());
+
+        // same prices and quantities in a new object - no change
+        exchange.orderBook = orderBook("1000.0", "1.00");
+        runTradeCycle();
+        runTradeCycle();
+        assertEquals(1, listener.orderBookUpdates.size());
+
+        exchange.orderBook = orderBook("1000.00", "1.5");
+        runTradeCycle();
+        assertEquals(2, listener.orderBookUpdates.size());
+        assertSame(exchange.orderBook, listener.orderBookUpdates.get(1));
+
+        // 1 initial open orders load, none after that as nothing to track
+        assertEquals(1, exchange.openOrdersCalls.get());
+    }
+
+    @Test
+    public void testFillOfOrderPlacedByStrategyIsDispatched() throws Exception {
+
+        runTradeCycle();
+        final String orderId = snapshot.createOrder(MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+        exchange.openOrders.add(openOrder(orderId, QUANTITY));
+
+        runTradeCycle();
+        assertTrue(listener.filledOrders.isEmpty());
+
+        // partly filled
+        exchange.openOrders.clear();
+        exchange.openOrders.add(openOrder(orderId, new BigDecimal("0.5")));
+        runTradeCycle();
+        assertEquals(1, listener.filledOrders.size());
+        assertEquals(0, new BigDecimal("0.5").compareTo(listener.filledOrders.get(0).getQuantity()));
+
+        // fully filled - last known state is reported
+        exchange.openOrders.clear();
+        runTradeCycle();
+        assertEquals(2, listener.filledOrders.size());
+        assertEquals(orderId, listener.filledOrders.get(1).getId());
+        assertEquals(0, new BigDecimal("0.5").compareTo(listener.filledOrders.get(1).getQuantity()));
+
+        // nothing left to track
+        final int openOrdersCalls = exchange.openOrdersCalls.get();
+        runTradeCycle();
+        assertEquals(openOrdersCalls, exchange.openOrdersCalls.get());
+        assertEquals(2, listener.filledOrders.size());
+    }
+
+    @Test
+    public void testOrderFilledBeforeItIsSeenOpenIsDispatched() throws Exception {
+
+        runTradeCycle();
+        final String orderId = snapshot.createOrder(MARKET_ID, OrderType.SELL, QUANTITY, PRICE);
+
+        // never shows up in open orders
+        runTradeCycle();
+        assertEquals(1, listener.filledOrders.size());
+        assertEquals(orderId, listener.filledOrders.get(0).getId());
+        assertEquals(OrderType.SELL, listener.filledOrders.get(0).getType());
+        assertEquals(0, QUANTITY.compareTo(listener.filledOrders.get(0).getOriginalQuantity()));
+    }
+
+    @Test
+    public void testCancelledOrderIsNotDispatchedAsFilled() throws Exception {
+
+        runTradeCycle();
+        final String orderId = snapshot.createOrder(MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+        exchange.openOrders.add(openOrder(orderId, QUANTITY));
+        runTradeCycle();
+
+        snapshot.cancelOrder(orderId, MARKET_ID);
+        exchange.openOrders.clear();
+        runTradeCycle();
+
+        assertTrue(listener.filledOrders.isEmpty());
+    }
+
+    @Test
+    public void testOrdersOpenAtStartupAreTracked() throws Exception {
+
+        exchange.openOrders.add(openOrder("existing-1", QUANTITY));
+        runTradeCycle();
+        assertTrue(listener.filledOrders.isEmpty());
+
+        exchange.openOrders.clear();
+        runTradeCycle();
+        assertEquals(1, listener.filledOrders.size());
+        assertEquals("existing-1", listener.filledOrders.get(0).getId());
+    }
+
+    @Test
+    public void testNetworkErrorSkipsTheTradeCycle() throws Exception {
+
+        exchange.failNextCall = new ExchangeNetworkException("Timeout");
+        runTradeCycle();
+        assertTrue(listener.orderBookUpdates.isEmpty());
+
+        runTradeCycle();
+        assertEquals(1, listener.orderBookUpdates.size());
+    }
+
+    @Test(expected = StrategyException.class)
+    public void testTradingApiErrorIsThrownAsStrategyException() throws Exception {
+        exchange.failNextCall = new TradingApiException("Bad request");
+        runTradeCycle();
+    }
+
+    @Test
+    public void testInitIsANoOp() throws Exception {
+        dispatcher.init(null, null, null);
+
+        runTradeCycle();
+        assertEquals(1, listener.orderBookUpdates.size());
+        assertSame(exchange.orderBook, listener.orderBookUpdates.get(0));
+    }
+
+    // ------------------------------------------------------------------------
+    // Test helpers
+    // ------------------------------------------------------------------------
+
+    private void runTradeCycle() throws Exception {
+        snapshot.startNewTradeCycle();
+        dispatcher.execute();
+    }
+
+    private static MarketOrderBook orderBook(String bestBidPrice, String bestBidQuantity) {
+        final List<MarketOrder> buyOrders = new ArrayList<>();
+        buyOrders.add(new MarketOrder(OrderType.BUY, new BigDecimal(bestBidPrice), new BigDecimal(bestBidQuantity),
+                BigDecimal.ONE));
+        final List<MarketOrder> sellOrders = new ArrayList<>();
+        sellOrders.add(new MarketOrder(OrderType.SELL, new BigDecimal("1001.00"), BigDecimal.ONE, BigDecimal.ONE));
+        return new MarketOrderBook(MARKET_ID, sellOrders, buyOrders);
+    }
+
+    private static OpenOrder openOrder(String orderId, BigDecimal quantity) {
+        return new OpenOrder(orderId, new Date(), MARKET_ID, OrderType.BUY, PRICE, quantity, QUANTITY,
+                PRICE.multiply(quantity));
+    }
+
+    private static final class RecordingListener implements MarketEventListener {
+
+        private final List<MarketOrderBook> orderBookUpdates = new ArrayList<>();
+        private final List<OpenOrder> filledOrders = new ArrayList<>();
+
+        @Override
+        public void onOrderBookUpdate(MarketOrderBook orderBook) {
+            orderBookUpdates.add(orderBook);
+        }
+
+        @Override
+        public void onOrderFilled(OpenOrder order) {
+            filledOrders.add(order);
+        }
+    }
+
+    private static final class ScriptedTradingApi implements TradingApi {
+
+        private final AtomicInteger openOrdersCalls = new AtomicInteger();
+        private final AtomicInteger nextOrderId = new AtomicInteger();
+        private final List<OpenOrder> openOrders = new ArrayList<>();
+        private MarketOrderBook orderBook = orderBook("1000.00", "1.0");
+        private Exception failNextCall;
+
+        @Override
+        public String getImplName() {
+            return "Scripted Trading API";
+        }
+
+        @Override
+        public MarketOrderBook getMarketOrders(String marketId) throws ExchangeNetworkException, TradingApiException {
+            failIfRequired();
+            return orderBook;
+        }
+
+        @Override
+        public List<OpenOrder> getYourOpenOrders(String marketId) throws ExchangeNetworkException, TradingApiException {
+            openOrdersCalls.incrementAndGet();
+            failIfRequired();
+            return new ArrayList<>(openOrders);
+        }
+
+        @Override
+        public String createOrder(String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price) {
+            return "order-" + nextOrderId.incrementAndGet();
+        }
+
+        @Override
+        public boolean cancelOrder(String orderId, String marketId) {
+            return true;
+        }
+
+        @Override
+        public BigDecimal getLatestMarketPrice(String marketId) {
+            return PRICE;
+        }
+
+        @Override
+        public BalanceInfo getBalanceInfo() {
+            return new BalanceInfo(Collections.emptyMap(), Collections.emptyMap());
+        }
+
+        @Override
+        public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId) {
+            return BigDecimal.ZERO;
+        }
+
+        @Override
+        public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId) {
+            return BigDecimal.ZERO;
+        }
+
+        private void failIfRequired() throws ExchangeNetworkException, TradingApiException {
+            final Exception failure = failNextCall;
+            failNextCall = null;
+            if (failure instanceof ExchangeNetworkException) {
+                throw (ExchangeNetworkException) failure;
+            } else if (failure instanceof TradingApiException) {
+                throw (TradingApiException) failure;
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.core.engine.TradeCycleSchedule.OverrunPolicy;
+import com.gazbert.bxbot.core.metrics.MarketMetrics;
+import com.gazbert.bxbot.strategy.api.StrategyException;
+import com.gazbert.bxbot.strategy.api.StrategyConfig;
+import com.gazbert.bxbot.strategy.api.TradingStrategy;
+import com.gazbert.bxbot.trading.api.Market;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests Market Strategies are scheduled independently on a delay queue as expected.
+ *
+ * @author gazbert
+ */
+public class TestMarketStrategy {
+
+    private static final Market BTC_USD_MARKET = new Market("BTC/USD", "btc_usd", "BTC", "USD");
+    private static final Market LTC_BTC_MARKET = new Market("LTC/BTC", "ltc_btc", "LTC", "BTC");
+
+    private long now = TimeUnit.SECONDS.toNanos(1000);
+
+
+    @Test
+    public void testMarketsAreDueAccordingToTheirOwnInterval() throws Exception {
+
+        final MarketStrategy fastMarket = marketStrategy(BTC_USD_MARKET, 500);
+        final MarketStrategy slowMarket = marketStrategy(LTC_BTC_MARKET, 30000);
+
+        // both due on first cycle
+        assertEquals(0, fastMarket.getDelay(TimeUnit.MILLISECONDS));
+        assertEquals(0, slowMarket.getDelay(TimeUnit.MILLISECONDS));
+
+        fastMarket.getTradeCycleSchedule().advance();
+        slowMarket.getTradeCycleSchedule().advance();
+        assertEquals(500, fastMarket.getDelay(TimeUnit.MILLISECONDS));
+        assertEquals(30000, slowMarket.getDelay(TimeUnit.MILLISECONDS));
+
+        // the fast market comes off the queue first
+        final DelayQueue<MarketStrategy> queue = new DelayQueue<>(Arrays.asList(slowMarket, fastMarket));
+        assertSame(fastMarket, queue.peek());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testOrderingUsesNextCycleStartTime() throws Exception {
+
+        final MarketStrategy fastMarket = marketStrategy(BTC_USD_MARKET, 500);
+        final MarketStrategy slowMarket = marketStrategy(LTC_BTC_MARKET, 30000);
+        fastMarket.getTradeCycleSchedule().advance();
+        slowMarket.getTradeCycleSchedule().advance();
+
+        now += TimeUnit.SECONDS.toNanos(60);
+
+        // both overdue - the one that was due first still sorts first
+        assertEquals(-1, fastMarket.compareTo(slowMarket));
+        assertEquals(1, slowMarket.compareTo(fastMarket));
+        assertEquals(0, fastMarket.compareTo(fastMarket));
+
+        final List<MarketStrategy> due = new ArrayList<>();
+        new DelayQueue<>(Arrays.asList(slowMarket, fastMarket)).drainTo(due);
+        assertEquals(Arrays.asList(fastMarket, slowMarket), due);
+    }
+
+    @Test
+    public void testStrategyExecutionIsTimedEvenWhenItFails() throws Exception {
+
+        final MarketMetrics marketMetrics = new MarketMetrics();
+        final MarketStrategy marketStrategy = new MarketStrategy(BTC_USD_MARKET, new FailingTradingStrategy(),
+                new TradeCycleSchedule(500, TimeUnit.MILLISECONDS, OverrunPolicy.COALESCE, () -> now), marketMetrics);
+
+        try {
+            marketStrategy.execute();
+            fail("Expected StrategyException");
+        } catch (StrategyException e) {
+            // expected
+        }
+        assertEquals(1, marketMetrics.getStrategyExecutionTimes().getSnapshot().getCount());
+    }
+
+    // ------------------------------------------------------------------------
+    // Test helpers
+    // ------------------------------------------------------------------------
+
+    private MarketStrategy marketStrategy(Market market, long intervalMillis) {
+        return new MarketStrategy(market, new NoOpTradingStrategy(),
+                new TradeCycleSchedule(intervalMillis, TimeUnit.MILLISECONDS, OverrunPolicy.COALESCE, () -> now));
+    }
+
+    private static final class NoOpTradingStrategy implements TradingStrategy {
+
+        @Override
+        public void init(TradingApi tradingApi, Market market, StrategyConfig config) {
+        }
+
+        @Override
+        public void execute() {
+        }
+    }
+
+    private static final class FailingTradingStrategy implements TradingStrategy {
+
+        @Override
+        public void init(TradingApi tradingApi, Market market, StrategyConfig config) {
+        }
+
+        @Override
+        public void execute() throws StrategyException {
+            throw new StrategyException("Boom!");
+        }
+    }
+}
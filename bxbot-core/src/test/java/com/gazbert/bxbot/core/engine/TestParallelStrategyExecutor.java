@@ -0,0 +1,214 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.strategy.api.StrategyConfig;
+import com.gazbert.bxbot.strategy.api.StrategyException;
+import com.gazbert.bxbot.strategy.api.TradingStrategy;
+import com.gazbert.bxbot.trading.api.Market;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the Parallel Strategy Executor behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestParallelStrategyExecutor {
+
+    private static final Market BTC_USD_MARKET = new Market("BTC/USD", "btc_usd", "BTC", "USD");
+    private static final Market LTC_BTC_MARKET = new Market("LTC/BTC", "ltc_btc", "LTC", "BTC");
+    private static final Market ETH_BTC_MARKET = new Market("ETH/BTC", "eth_btc", "ETH", "BTC");
+
+    private ExecutorService pool;
+    private ParallelStrategyExecutor executor;
+
+
+    @Before
+    public void setup() throws Exception {
+        pool = Executors.newFixedThreadPool(3);
+        executor = new ParallelStrategyExecutor(pool, 500, TimeUnit.MILLISECONDS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdown();
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testAllStrategiesExecutedConcurrentlyBeforeBarrierReturns() throws Exception {
+
+        // each strategy waits for the others to start - only completes if they really run concurrently
+        final CountDownLatch allStarted = new CountDownLatch(3);
+        final AtomicInteger executions = new AtomicInteger();
+        final TradingStrategy strategy = new StubTradingStrategy(() -> {
+            allStarted.countDown();
+            allStarted.await(5, TimeUnit.SECONDS);
+            executions.incrementAndGet();
+        });
+
+        executor.execute(Arrays.asList(
+                marketStrategy(BTC_USD_MARKET, strategy),
+                marketStrategy(LTC_BTC_MARKET, strategy),
+                marketStrategy(ETH_BTC_MARKET, strategy)));
+
+        assertEquals(3, executions.get());
+    }
+
+    @Test
+    public void testFirstStrategyExceptionIsRethrownAfterBarrier() throws Exception {
+
+        final AtomicInteger executions = new AtomicInteger();
+        final TradingStrategy failingStrategy = new StubTradingStrategy(() -> {
+            throw new StrategyException("Strategy blew up!");
+        });
+        final TradingStrategy workingStrategy = new StubTradingStrategy(executions::incrementAndGet);
+
+        try {
+            executor.execute(Arrays.asList(
+                    marketStrategy(BTC_USD_MARKET, failingStrategy),
+                    marketStrategy(LTC_BTC_MARKET, workingStrategy)));
+            fail("Expected StrategyException to be thrown");
+        } catch (StrategyException e) {
+            assertEquals("Strategy blew up!", e.getMessage());
+        }
+
+        assertEquals(1, executions.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnexpectedRuntimeExceptionIsRethrownAfterBarrier() throws Exception {
+
+        final TradingStrategy failingStrategy = new StubTradingStrategy(() -> {
+            throw new IllegalStateException("Unexpected!");
+        });
+        executor.execute(Collections.singletonList(marketStrategy(BTC_USD_MARKET, failingStrategy)));
+    }
+
+    @Test
+    public void testTimedOutStrategyIsInterruptedAndSkippedUntilItCompletes() throws Exception {
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final AtomicInteger slowExecutions = new AtomicInteger();
+        final TradingStrategy slowStrategy = new StubTradingStrategy(() -> {
+            slowExecutions.incrementAndGet();
+            // ignore the first interrupt so the strategy keeps overrunning until we release it
+            while (true) {
+                try {
+                    if (release.await(5, TimeUnit.SECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+        });
+
+        final AtomicInteger fastExecutions = new AtomicInteger();
+        final TradingStrategy fastStrategy = new StubTradingStrategy(fastExecutions::incrementAndGet);
+
+        final long start = System.nanoTime();
+        executor.execute(Arrays.asList(
+                marketStrategy(BTC_USD_MARKET, slowStrategy),
+                marketStrategy(LTC_BTC_MARKET, fastStrategy)));
+
+        // barrier returned after the timeout, not after the slow strategy finished
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+
+        // next cycle skips the overrunning market
+        executor.execute(Arrays.asList(
+                marketStrategy(BTC_USD_MARKET, slowStrategy),
+                marketStrategy(LTC_BTC_MARKET, fastStrategy)));
+        assertEquals(1, slowExecutions.get());
+        assertEquals(2, fastExecutions.get());
+
+        // let it finish, then it gets picked up again
+        release.countDown();
+        Thread.sleep(200);
+        executor.execute(Arrays.asList(
+                marketStrategy(BTC_USD_MARKET, slowStrategy),
+                marketStrategy(LTC_BTC_MARKET, fastStrategy)));
+        assertEquals(2, slowExecutions.get());
+        assertEquals(3, fastExecutions.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroTimeoutIsRejected() throws Exception {
+        new ParallelStrategyExecutor(Executors.newSingleThreadExecutor(), 0, TimeUnit.SECONDS);
+    }
+
+    // ------------------------------------------------------------------------
+    // Test helpers
+    // ------------------------------------------------------------------------
+
+    private static MarketStrategy marketStrategy(Market market, TradingStrategy tradingStrategy) {
+        return new MarketStrategy(market, tradingStrategy,
+                new TradeCycleSchedule(1, TimeUnit.SECONDS, TradeCycleSchedule.OverrunPolicy.COALESCE));
+    }
+
+    private interface StrategyBody {
+        void run() throws Exception;
+    }
+
+    private static final class StubTradingStrategy implements TradingStrategy {
+
+        private final StrategyBody body;
+
+        StubTradingStrategy(StrategyBody body) {
+            this.body = body;
+        }
+
+        @Override
+        public void init(TradingApi tradingApi, Market market, StrategyConfig config) {
+        }
+
+        @Override
+        public void execute() throws StrategyException {
+            try {
+                body.run();
+            } catch (StrategyException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new StrategyException(e);
+            }
+        }
+    }
+}
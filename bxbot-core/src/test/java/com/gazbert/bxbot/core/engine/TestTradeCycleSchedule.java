@@ -0,0 +1,139 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.core.engine.TradeCycleSchedule.OverrunPolicy;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the Trade Cycle Schedule behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestTradeCycleSchedule {
+
+    private static final long PERIOD_MILLIS = 500;
+
+    private long now;
+
+
+    @Before
+    public void setup() throws Exception {
+        now = TimeUnit.SECONDS.toNanos(1000);
+    }
+
+    @Test
+    public void testFirstCycleStartsImmediately() throws Exception {
+        final TradeCycleSchedule schedule = createSchedule(OverrunPolicy.COALESCE);
+        assertEquals(0, schedule.getDelayInNanos());
+    }
+
+    @Test
+    public void testExecutionTimeIsTakenOffTheSleepTime() throws Exception {
+
+        final TradeCycleSchedule schedule = createSchedule(OverrunPolicy.COALESCE);
+
+        // cycles take 200ms - we should only sleep the remaining 300ms and never drift
+        for (int i = 0; i < 10; i++) {
+            elapse(200);
+            schedule.advance();
+            assertEquals(millis(300), schedule.getDelayInNanos());
+            elapse(300);
+        }
+        assertEquals(0, schedule.getOverrunCount());
+    }
+
+    @Test
+    public void testSkipPolicyDropsMissedCyclesAndKeepsTheSchedule() throws Exception {
+
+        final TradeCycleSchedule schedule = createSchedule(OverrunPolicy.SKIP);
+
+        // cycle at t=0 takes 1200ms - misses the t=500 and t=1000 slots
+        elapse(1200);
+        schedule.advance();
+        assertEquals(1, schedule.getOverrunCount());
+        assertEquals(millis(300), schedule.getDelayInNanos()); // next slot at t=1500
+    }
+
+    @Test
+    public void testCoalescePolicyRunsNextCycleImmediatelyAndCarriesOnFromThen() throws Exception {
+
+        final TradeCycleSchedule schedule = createSchedule(OverrunPolicy.COALESCE);
+
+        elapse(1200);
+        schedule.advance();
+        assertEquals(1, schedule.getOverrunCount());
+        assertEquals(0, schedule.getDelayInNanos()); // runs now at t=1200
+
+        elapse(100);
+        schedule.advance();
+        assertEquals(millis(400), schedule.getDelayInNanos()); // next at t=1700
+        assertEquals(1, schedule.getOverrunCount());
+    }
+
+    @Test
+    public void testCatchUpPolicyRunsMissedCyclesBackToBack() throws Exception {
+
+        final TradeCycleSchedule schedule = createSchedule(OverrunPolicy.CATCH_UP);
+
+        elapse(1200);
+        schedule.advance();
+        assertEquals(0, schedule.getDelayInNanos()); // t=500 slot, runs now
+
+        elapse(10);
+        schedule.advance();
+        assertEquals(0, schedule.getDelayInNanos()); // t=1000 slot, runs now
+
+        elapse(10);
+        schedule.advance();
+        assertEquals(millis(280), schedule.getDelayInNanos()); // caught up - t=1500 slot
+        assertEquals(2, schedule.getOverrunCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroIntervalIsRejected() throws Exception {
+        new TradeCycleSchedule(0, TimeUnit.SECONDS, OverrunPolicy.SKIP);
+    }
+
+    // ------------------------------------------------------------------------
+    // Test helpers
+    // ------------------------------------------------------------------------
+
+    private TradeCycleSchedule createSchedule(OverrunPolicy overrunPolicy) {
+        return new TradeCycleSchedule(PERIOD_MILLIS, TimeUnit.MILLISECONDS, overrunPolicy, () -> now);
+    }
+
+    private void elapse(long millis) {
+        now += millis(millis);
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
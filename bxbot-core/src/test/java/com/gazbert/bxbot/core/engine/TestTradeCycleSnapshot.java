@@ -0,0 +1,473 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.trading.api.AsyncTradingApi;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderRequest;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the Trade Cycle Snapshot memoizes market data reads as expected.
+ *
+ * @author gazbert
+ */
+public class TestTradeCycleSnapshot {
+
+    private static final String MARKET_ID = "btc_usd";
+    private static final String OTHER_MARKET_ID = "ltc_btc";
+    private static final BigDecimal LATEST_PRICE = new BigDecimal("1234.56");
+
+    private CountingTradingApi exchange;
+    private TradeCycleSnapshot snapshot;
+
+
+    @Before
+    public void setup() throws Exception {
+        exchange = new CountingTradingApi();
+        snapshot = new TradeCycleSnapshot(exchange);
+    }
+
+    @Test
+    public void testReadsAreMemoizedPerMarketForTheTradeCycle() throws Exception {
+
+        final MarketOrderBook orderBook = snapshot.getMarketOrders(MARKET_ID);
+        assertSame(orderBook, snapshot.getMarketOrders(MARKET_ID));
+        snapshot.getLatestMarketPrice(MARKET_ID);
+        snapshot.getLatestMarketPrice(MARKET_ID);
+        snapshot.getYourOpenOrders(MARKET_ID);
+        snapshot.getYourOpenOrders(MARKET_ID);
+
+        assertEquals(1, exchange.marketOrdersCalls.get());
+        assertEquals(1, exchange.latestPriceCalls.get());
+        assertEquals(1, exchange.openOrdersCalls.get());
+
+        // different market is a different read
+        snapshot.getMarketOrders(OTHER_MARKET_ID);
+        assertEquals(2, exchange.marketOrdersCalls.get());
+    }
+
+    @Test
+    public void testMarketOrdersAreFetchedWithTheMarketsOrderBookDepth() throws Exception {
+
+        snapshot.setOrderBookDepth(MARKET_ID, 5);
+
+        final MarketOrderBook orderBook = snapshot.getMarketOrders(MARKET_ID);
+        assertEquals(Integer.valueOf(5), exchange.lastOrderBookDepth);
+        assertSame(orderBook, snapshot.getMarketOrders(MARKET_ID, 5));
+        assertSame(orderBook, snapshot.getMarketOrdersAsync(MARKET_ID).get());
+        assertEquals(1, exchange.marketOrdersCalls.get());
+
+        // market without a depth still fetches the full book
+        exchange.lastOrderBookDepth = null;
+        snapshot.getMarketOrders(OTHER_MARKET_ID);
+        assertNull(exchange.lastOrderBookDepth);
+    }
+
+    @Test
+    public void testMarketOrdersAreMemoizedPerDepth() throws Exception {
+
+        final MarketOrderBook topOfBook = snapshot.getMarketOrders(MARKET_ID, 1);
+        assertSame(topOfBook, snapshot.getMarketOrders(MARKET_ID, 1));
+        assertEquals(1, exchange.marketOrdersCalls.get());
+
+        snapshot.getMarketOrders(MARKET_ID, 10);
+        snapshot.getMarketOrders(MARKET_ID);
+        assertEquals(3, exchange.marketOrdersCalls.get());
+    }
+
+    @Test
+    public void testNewTradeCycleDiscardsMemoizedReads() throws Exception {
+
+        snapshot.getMarketOrders(MARKET_ID);
+        snapshot.getLatestMarketPrice(MARKET_ID);
+        snapshot.getYourOpenOrders(MARKET_ID);
+
+        snapshot.startNewTradeCycle();
+
+        snapshot.getMarketOrders(MARKET_ID);
+        snapshot.getLatestMarketPrice(MARKET_ID);
+        snapshot.getYourOpenOrders(MARKET_ID);
+
+        assertEquals(2, exchange.marketOrdersCalls.get());
+        assertEquals(2, exchange.latestPriceCalls.get());
+        assertEquals(2, exchange.openOrdersCalls.get());
+    }
+
+    @Test
+    public void testPlacingAndCancellingOrdersDiscardsOpenOrdersForThatMarket() throws Exception {
+
+        snapshot.getYourOpenOrders(MARKET_ID);
+        snapshot.getYourOpenOrders(OTHER_MARKET_ID);
+        snapshot.getMarketOrders(MARKET_ID);
+
+        snapshot.createOrder(MARKET_ID, OrderType.BUY, BigDecimal.ONE, LATEST_PRICE);
+        snapshot.getYourOpenOrders(MARKET_ID);
+        assertEquals(3, exchange.openOrdersCalls.get());
+
+        snapshot.cancelOrder("order-1", MARKET_ID);
+        snapshot.getYourOpenOrders(MARKET_ID);
+        assertEquals(4, exchange.openOrdersCalls.get());
+
+        // other market and market orders untouched
+        snapshot.getYourOpenOrders(OTHER_MARKET_ID);
+        snapshot.getMarketOrders(MARKET_ID);
+        assertEquals(4, exchange.openOrdersCalls.get());
+        assertEquals(1, exchange.marketOrdersCalls.get());
+    }
+
+    @Test
+    public void testBatchOrderCallsDiscardOpenOrdersAndTellTheOrderListener() throws Exception {
+
+        final List<String> placedOrderIds = new ArrayList<>();
+        final List<String> cancelledOrderIds = new ArrayList<>();
+        snapshot.addOrderListener(MARKET_ID, new TradeCycleSnapshot.OrderListener() {
+            @Override
+            public void orderPlaced(OpenOrder order) {
+                placedOrderIds.add(order.getId());
+            }
+
+            @Override
+            public void orderCancelled(String orderId) {
+                cancelledOrderIds.add(orderId);
+            }
+        });
+
+        snapshot.getYourOpenOrders(MARKET_ID);
+        snapshot.getYourOpenOrders(OTHER_MARKET_ID);
+
+        assertEquals(2, snapshot.createOrders(Arrays.asList(
+                new OrderRequest(MARKET_ID, OrderType.BUY, BigDecimal.ONE, LATEST_PRICE),
+                new OrderRequest(OTHER_MARKET_ID, OrderType.SELL, BigDecimal.ONE, LATEST_PRICE))).size());
+        snapshot.getYourOpenOrders(MARKET_ID);
+        snapshot.getYourOpenOrders(OTHER_MARKET_ID);
+        assertEquals(4, exchange.openOrdersCalls.get());
+        assertEquals(Collections.singletonList("order-1"), placedOrderIds);
+
+        assertEquals(Arrays.asList("order-1", "order-2"),
+                snapshot.cancelOrders(Arrays.asList("order-1", "order-2"), MARKET_ID));
+        snapshot.getYourOpenOrders(MARKET_ID);
+        snapshot.getYourOpenOrders(OTHER_MARKET_ID);
+        assertEquals(5, exchange.openOrdersCalls.get());
+        assertEquals(Arrays.asList("order-1", "order-2"), cancelledOrderIds);
+    }
+
+    @Test
+    public void testReplacingOrderDiscardsOpenOrdersAndTellsTheOrderListener() throws Exception {
+
+        final List<String> orderEvents = new ArrayList<>();
+        snapshot.addOrderListener(MARKET_ID, new TradeCycleSnapshot.OrderListener() {
+            @Override
+            public void orderPlaced(OpenOrder order) {
+                orderEvents.add("placed " + order.getId() + " @ " + order.getPrice());
+            }
+
+            @Override
+            public void orderCancelled(String orderId) {
+                orderEvents.add("cancelled " + orderId);
+            }
+        });
+
+        snapshot.getYourOpenOrders(MARKET_ID);
+        assertEquals("order-1", snapshot.replaceOrder("order-0", MARKET_ID, OrderType.BUY, BigDecimal.ONE,
+                LATEST_PRICE));
+        snapshot.getYourOpenOrders(MARKET_ID);
+
+        assertEquals(2, exchange.openOrdersCalls.get());
+        assertEquals(Arrays.asList("cancelled order-0", "placed order-1 @ " + LATEST_PRICE), orderEvents);
+    }
+
+    @Test
+    public void testFailedReadsAreNotMemoized() throws Exception {
+
+        exchange.failNextCall = true;
+        try {
+            snapshot.getMarketOrders(MARKET_ID);
+            fail("Expected ExchangeNetworkException to be thrown");
+        } catch (ExchangeNetworkException e) {
+            assertEquals("Timeout", e.getMessage());
+        }
+
+        snapshot.getMarketOrders(MARKET_ID);
+        assertEquals(2, exchange.marketOrdersCalls.get());
+    }
+
+    @Test
+    public void testConcurrentReadersShareTheInFlightCall() throws Exception {
+
+        exchange.marketOrdersLatch = new CountDownLatch(1);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<MarketOrderBook>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> snapshot.getMarketOrders(MARKET_ID)));
+            }
+
+            Thread.sleep(100);
+            exchange.marketOrdersLatch.countDown();
+
+            final MarketOrderBook first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (final Future<MarketOrderBook> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, exchange.marketOrdersCalls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testOtherCallsArePassedThrough() throws Exception {
+        assertEquals("Counting Trading API", snapshot.getImplName());
+        snapshot.getBalanceInfo();
+        snapshot.getBalanceInfo();
+        assertEquals(2, exchange.balanceInfoCalls.get());
+    }
+
+    @Test
+    public void testAsyncReadsFallBackToBlockingCallsIfAdapterIsNotAsync() throws Exception {
+
+        final CompletableFuture<MarketOrderBook> result = snapshot.getMarketOrdersAsync(MARKET_ID);
+        assertTrue(result.isDone());
+        assertSame(result.get(), snapshot.getMarketOrders(MARKET_ID));
+        assertEquals(1, exchange.marketOrdersCalls.get());
+    }
+
+    @Test
+    public void testAsyncAndBlockingReadsShareTheInFlightCall() throws Exception {
+
+        final CountingAsyncTradingApi asyncExchange = new CountingAsyncTradingApi();
+        snapshot = new TradeCycleSnapshot(asyncExchange);
+
+        final CompletableFuture<MarketOrderBook> first = snapshot.getMarketOrdersAsync(MARKET_ID);
+        final CompletableFuture<MarketOrderBook> second = snapshot.getMarketOrdersAsync(MARKET_ID);
+        assertFalse(first.isDone());
+        assertSame(first, second);
+        assertEquals(1, asyncExchange.asyncMarketOrdersCalls.get());
+
+        final MarketOrderBook orderBook =
+                new MarketOrderBook(MARKET_ID, Collections.emptyList(), Collections.emptyList());
+        asyncExchange.pendingMarketOrders.complete(orderBook);
+        assertSame(orderBook, first.get(5, TimeUnit.SECONDS));
+        assertSame(orderBook, snapshot.getMarketOrders(MARKET_ID));
+        assertEquals(0, asyncExchange.marketOrdersCalls.get());
+    }
+
+    @Test
+    public void testFailedAsyncReadsAreNotMemoized() throws Exception {
+
+        final CountingAsyncTradingApi asyncExchange = new CountingAsyncTradingApi();
+        snapshot = new TradeCycleSnapshot(asyncExchange);
+
+        asyncExchange.pendingMarketOrders.completeExceptionally(new ExchangeNetworkException("Timeout"));
+        try {
+            snapshot.getMarketOrdersAsync(MARKET_ID).join();
+            fail("Expected CompletionException to be thrown");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof ExchangeNetworkException);
+        }
+
+        asyncExchange.pendingMarketOrders = new CompletableFuture<>();
+        snapshot.getMarketOrdersAsync(MARKET_ID);
+        assertEquals(2, asyncExchange.asyncMarketOrdersCalls.get());
+    }
+
+    @Test
+    public void testPlacingOrderAsyncDiscardsOpenOrdersForThatMarket() throws Exception {
+
+        final CountingAsyncTradingApi asyncExchange = new CountingAsyncTradingApi();
+        snapshot = new TradeCycleSnapshot(asyncExchange);
+
+        snapshot.getYourOpenOrdersAsync(MARKET_ID).get(5, TimeUnit.SECONDS);
+        snapshot.getYourOpenOrdersAsync(MARKET_ID).get(5, TimeUnit.SECONDS);
+        assertEquals("order-1", snapshot.createOrderAsync(MARKET_ID, OrderType.BUY, BigDecimal.ONE, LATEST_PRICE)
+                .get(5, TimeUnit.SECONDS));
+        snapshot.getYourOpenOrders(MARKET_ID);
+        assertEquals(2, asyncExchange.openOrdersCalls.get());
+    }
+
+    // ------------------------------------------------------------------------
+    // Test helpers
+    // ------------------------------------------------------------------------
+
+    private static class CountingTradingApi implements TradingApi {
+
+        final AtomicInteger marketOrdersCalls = new AtomicInteger();
+        final AtomicInteger latestPriceCalls = new AtomicInteger();
+        final AtomicInteger openOrdersCalls = new AtomicInteger();
+        final AtomicInteger balanceInfoCalls = new AtomicInteger();
+        private volatile boolean failNextCall;
+        private volatile CountDownLatch marketOrdersLatch;
+        private volatile Integer lastOrderBookDepth;
+
+        @Override
+        public String getImplName() {
+            return "Counting Trading API";
+        }
+
+        @Override
+        public MarketOrderBook getMarketOrders(String marketId) throws ExchangeNetworkException {
+            marketOrdersCalls.incrementAndGet();
+            if (failNextCall) {
+                failNextCall = false;
+                throw new ExchangeNetworkException("Timeout");
+            }
+            if (marketOrdersLatch != null) {
+                try {
+                    marketOrdersLatch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new MarketOrderBook(marketId, Collections.emptyList(), Collections.emptyList());
+        }
+
+        @Override
+        public MarketOrderBook getMarketOrders(String marketId, int depth) throws ExchangeNetworkException {
+            lastOrderBookDepth = depth;
+            return getMarketOrders(marketId);
+        }
+
+        @Override
+        public List<OpenOrder> getYourOpenOrders(String marketId) {
+            openOrdersCalls.incrementAndGet();
+            return new ArrayList<>();
+        }
+
+        @Override
+        public String createOrder(String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price) {
+            return "order-1";
+        }
+
+        @Override
+        public boolean cancelOrder(String orderId, String marketId) {
+            return true;
+        }
+
+        @Override
+        public BigDecimal getLatestMarketPrice(String marketId) {
+            latestPriceCalls.incrementAndGet();
+            return LATEST_PRICE;
+        }
+
+        @Override
+        public BalanceInfo getBalanceInfo() {
+            balanceInfoCalls.incrementAndGet();
+            return new BalanceInfo(Collections.emptyMap(), Collections.emptyMap());
+        }
+
+        @Override
+        public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId) {
+            return BigDecimal.ZERO;
+        }
+
+        @Override
+        public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId) {
+            return BigDecimal.ZERO;
+        }
+    }
+
+    private static final class CountingAsyncTradingApi extends CountingTradingApi implements AsyncTradingApi {
+
+        private final AtomicInteger asyncMarketOrdersCalls = new AtomicInteger();
+        private volatile CompletableFuture<MarketOrderBook> pendingMarketOrders = new CompletableFuture<>();
+
+        @Override
+        public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId) {
+            asyncMarketOrdersCalls.incrementAndGet();
+            return pendingMarketOrders;
+        }
+
+        @Override
+        public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId, int depth) {
+            asyncMarketOrdersCalls.incrementAndGet();
+            return pendingMarketOrders;
+        }
+
+        @Override
+        public CompletableFuture<List<OpenOrder>> getYourOpenOrdersAsync(String marketId) {
+            return CompletableFuture.completedFuture(getYourOpenOrders(marketId));
+        }
+
+        @Override
+        public CompletableFuture<String> createOrderAsync(String marketId, OrderType orderType, BigDecimal quantity,
+                                                          BigDecimal price) {
+            return CompletableFuture.completedFuture(createOrder(marketId, orderType, quantity, price));
+        }
+
+        @Override
+        public CompletableFuture<Boolean> cancelOrderAsync(String orderId, String marketId) {
+            return CompletableFuture.completedFuture(cancelOrder(orderId, marketId));
+        }
+
+        @Override
+        public CompletableFuture<BigDecimal> getLatestMarketPriceAsync(String marketId) {
+            return CompletableFuture.completedFuture(getLatestMarketPrice(marketId));
+        }
+
+        @Override
+        public CompletableFuture<BalanceInfo> getBalanceInfoAsync() {
+            return CompletableFuture.completedFuture(getBalanceInfo());
+        }
+
+        @Override
+        public CompletableFuture<BigDecimal> getPercentageOfBuyOrderTakenForExchangeFeeAsync(String marketId) {
+            return CompletableFuture.completedFuture(getPercentageOfBuyOrderTakenForExchangeFee(marketId));
+        }
+
+        @Override
+        public CompletableFuture<BigDecimal> getPercentageOfSellOrderTakenForExchangeFeeAsync(String marketId) {
+            return CompletableFuture.completedFuture(getPercentageOfSellOrderTakenForExchangeFee(marketId));
+        }
+    }
+}
@@ -24,6 +24,7 @@
 package com.gazbert.bxbot.core.engine;
 
 import com.gazbert.bxbot.core.mail.EmailAlerter;
+import com.gazbert.bxbot.core.metrics.TradeCycleMetrics;
 import com.gazbert.bxbot.core.util.ConfigurableComponentFactory;
 import com.gazbert.bxbot.domain.engine.EngineConfig;
 import com.gazbert.bxbot.domain.exchange.AuthenticationConfig;
@@ -33,6 +34,7 @@ import com.gazbert.bxbot.domain.market.MarketConfig;
 import com.gazbert.bxbot.domain.strategy.StrategyConfig;
 import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
 import com.gazbert.bxbot.exchange.api.ExchangeConfig;
+import com.gazbert.bxbot.exchanges.CachingExchangeAdapter;
 import com.gazbert.bxbot.services.EngineConfigService;
 import com.gazbert.bxbot.services.ExchangeConfigService;
 import com.gazbert.bxbot.services.MarketConfigService;
@@ -42,7 +44,9 @@ import com.gazbert.bxbot.strategy.api.TradingStrategy;
 import com.gazbert.bxbot.trading.api.BalanceInfo;
 import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
 import com.gazbert.bxbot.trading.api.Market;
+import com.gazbert.bxbot.trading.api.TradingApi;
 import com.gazbert.bxbot.trading.api.TradingApiException;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -90,11 +94,15 @@ public class TestTradingEngine {
     private static final String EXCHANGE_ADAPTER_AUTHENTICATION_CONFIG_ITEM_VALUE = "myKey123";
     private static final String EXCHANGE_ADAPTER_OTHER_CONFIG_ITEM_NAME = "sell-fee";
     private static final String EXCHANGE_ADAPTER_OTHER_CONFIG_ITEM_VALUE = "0.25";
+    private static final String ADDITIONAL_EXCHANGE_ID = "kraken";
+    private static final String ADDITIONAL_EXCHANGE_ADAPTER_IMPL_CLASS = "com.my.adapters.DummyKrakenExchangeAdapter";
+    private static final String ADDITIONAL_EXCHANGE_NAME = "Kraken";
 
     // Engine config
     private static final String ENGINE_EMERGENCY_STOP_CURRENCY = "BTC";
     private static final BigDecimal ENGINE_EMERGENCY_STOP_BALANCE = new BigDecimal("0.5");
     private static final int ENGINE_TRADE_CYCLE_INTERVAL = 1; // unrealistic, but 1 second speeds up tests ;-)
+    private static final int ENGINE_EMERGENCY_STOP_CHECK_INTERVAL = 1; // below the default, for the same reason
 
     // Strategies config
     private static final String STRATEGY_ID = "MyMacdStrategy_v3";
@@ -110,6 +118,7 @@ public class TestTradingEngine {
     private static final String MARKET_BASE_CURRENCY = "BTC";
     private static final String MARKET_COUNTER_CURRENCY = "USD";
     private static final boolean MARKET_IS_ENABLED = true;
+    private static final String UNKNOWN_EXCHANGE_ID = "unknown-exchange";
 
     // Mocks used by all tests
     private ExchangeAdapter exchangeAdapter;
@@ -119,6 +128,7 @@ public class TestTradingEngine {
     private EngineConfigService engineConfigService;
     private StrategyConfigService strategyConfigService;
     private MarketConfigService marketConfigService;
+    private SharedExecutors sharedExecutors;
 
     /*
      * Mock out Config subsystem; we're not testing it here - has its own unit tests.
@@ -137,17 +147,24 @@ public class TestTradingEngine {
         engineConfigService = PowerMock.createMock(EngineConfigService.class);
         strategyConfigService = PowerMock.createMock(StrategyConfigService.class);
         marketConfigService = PowerMock.createMock(MarketConfigService.class);
+        sharedExecutors = new SharedExecutors();
 
         PowerMock.mockStatic(ConfigurableComponentFactory.class);
     }
 
+    @After
+    public void tearDownForEachTest() throws Exception {
+        sharedExecutors.shutdown();
+    }
+
     @Test
     public void testEngineInitialisesSuccessfully() throws Exception {
 
         PowerMock.replayAll();
 
         final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
-                strategyConfigService, marketConfigService, emailAlerter);
+                strategyConfigService, marketConfigService, emailAlerter, new TradeCycleMetrics(),
+                sharedExecutors);
 
         assertFalse(tradingEngine.isRunning());
 
@@ -176,7 +193,157 @@ public class TestTradingEngine {
         PowerMock.replayAll();
 
         final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
-                strategyConfigService, marketConfigService, emailAlerter);
+                strategyConfigService, marketConfigService, emailAlerter, new TradeCycleMetrics(),
+                sharedExecutors);
+        tradingEngine.start();
+
+        // sleep for bit then and check if shutdown ok
+        Thread.sleep(1000);
+        assertFalse(tradingEngine.isRunning());
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testEmergencyStopCheckDoesNotReadACachedBalance() throws Exception {
+
+        // cache the balance for far longer than the test runs
+        final com.gazbert.bxbot.domain.exchange.ExchangeConfig exchangeConfig = someExchangeConfig();
+        exchangeConfig.getOptionalConfig().getItems().put(CachingExchangeAdapter.BALANCE_INFO_TTL_PROPERTY_NAME, "60");
+        expect(exchangeConfigService.getAllExchangeConfig()).andReturn(Collections.singletonList(exchangeConfig));
+        expect(ConfigurableComponentFactory.createComponent(EXCHANGE_ADAPTER_IMPL_CLASS)).andReturn(exchangeAdapter);
+        expect(exchangeAdapter.getImplName()).andReturn(EXCHANGE_NAME).anyTimes();
+        exchangeAdapter.init(anyObject(ExchangeConfig.class));
+        setupEngineConfigExpectations();
+        setupStrategyAndMarketConfigExpectations();
+        tradingStrategy.execute();
+        expectLastCall().anyTimes();
+
+        // balance is fine on the first check, then breached on the next one
+        final Map<String, BigDecimal> balancesAvailable = new HashMap<>();
+        balancesAvailable.put(ENGINE_EMERGENCY_STOP_CURRENCY, new BigDecimal("0.5"));
+        final BalanceInfo balanceInfo = PowerMock.createMock(BalanceInfo.class);
+        final Map<String, BigDecimal> breachedBalancesAvailable = new HashMap<>();
+        breachedBalancesAvailable.put(ENGINE_EMERGENCY_STOP_CURRENCY, new BigDecimal("0.49999999"));
+        final BalanceInfo breachedBalanceInfo = PowerMock.createMock(BalanceInfo.class);
+        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo).andReturn(breachedBalanceInfo);
+        expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable);
+        expect(breachedBalanceInfo.getBalancesAvailable()).andReturn(breachedBalancesAvailable);
+
+        // expect Email Alert to be sent
+        emailAlerter.sendMessage(eq(CRITICAL_EMAIL_ALERT_SUBJECT), contains("EMERGENCY STOP triggered!"));
+
+        PowerMock.replayAll();
+
+        final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
+                strategyConfigService, marketConfigService, emailAlerter, new TradeCycleMetrics(),
+                sharedExecutors);
+        final Executor executor = Executors.newSingleThreadExecutor();
+        executor.execute(tradingEngine::start);
+
+        // 2nd check is 1 check interval after the 1st
+        Thread.sleep(ENGINE_EMERGENCY_STOP_CHECK_INTERVAL * 1000 + 1000);
+        assertFalse(tradingEngine.isRunning());
+
+        PowerMock.verifyAll();
+    }
+
+    /*
+     * Tests a trade cycle interval in millis does not make the watchdog check the balance every few millis when no
+     * Emergency Stop check interval is set.
+     */
+    @Test
+    public void testEmergencyStopCheckIntervalDefaultsToNoLessThanFiveSeconds() throws Exception {
+
+        setupExchangeAdapterConfigExpectations();
+        final EngineConfig engineConfig = someEngineConfig();
+        engineConfig.setTradeCycleInterval(100);
+        engineConfig.setTradeCycleIntervalUnit("MILLISECONDS");
+        engineConfig.setEmergencyStopCheckInterval(null);
+        expect(engineConfigService.getEngineConfig()).andReturn(engineConfig);
+        setupStrategyAndMarketConfigExpectations();
+        tradingStrategy.execute();
+        expectLastCall().atLeastOnce();
+
+        // expect only the first check to be made while the engine runs
+        final Map<String, BigDecimal> balancesAvailable = new HashMap<>();
+        balancesAvailable.put(ENGINE_EMERGENCY_STOP_CURRENCY, new BigDecimal("0.5"));
+        final BalanceInfo balanceInfo = PowerMock.createMock(BalanceInfo.class);
+        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo).once();
+        expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable).once();
+
+        PowerMock.replayAll();
+
+        final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
+                strategyConfigService, marketConfigService, emailAlerter, new TradeCycleMetrics(),
+                sharedExecutors);
+        final Executor executor = Executors.newSingleThreadExecutor();
+        executor.execute(tradingEngine::start);
+
+        // many trade cycles, but less than 5 secs
+        Thread.sleep(2000);
+        assertTrue(tradingEngine.isRunning());
+
+        tradingEngine.shutdown();
+        Thread.sleep(1000);
+        assertFalse(tradingEngine.isRunning());
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testEngineShutsDownWhenEmergencyStopBalanceIsBreachedOnAnAdditionalExchange() throws Exception {
+
+        final ExchangeAdapter additionalExchangeAdapter = PowerMock.createMock(ExchangeAdapter.class);
+        final com.gazbert.bxbot.domain.exchange.ExchangeConfig additionalExchangeConfig = someExchangeConfig();
+        additionalExchangeConfig.setId(ADDITIONAL_EXCHANGE_ID);
+        additionalExchangeConfig.setExchangeName(ADDITIONAL_EXCHANGE_NAME);
+        additionalExchangeConfig.setExchangeAdapter(ADDITIONAL_EXCHANGE_ADAPTER_IMPL_CLASS);
+
+        expect(exchangeConfigService.getAllExchangeConfig()).andReturn(
+                Arrays.asList(someExchangeConfig(), additionalExchangeConfig));
+        expect(ConfigurableComponentFactory.createComponent(EXCHANGE_ADAPTER_IMPL_CLASS)).andReturn(exchangeAdapter);
+        expect(exchangeAdapter.getImplName()).andReturn(EXCHANGE_NAME);
+        exchangeAdapter.init(anyObject(ExchangeConfig.class));
+        expect(ConfigurableComponentFactory.createComponent(ADDITIONAL_EXCHANGE_ADAPTER_IMPL_CLASS))
+                .andReturn(additionalExchangeAdapter);
+        expect(additionalExchangeAdapter.getImplName()).andReturn(ADDITIONAL_EXCHANGE_NAME);
+        additionalExchangeAdapter.init(anyObject(ExchangeConfig.class));
+        setupEngineConfigExpectations();
+
+        // the only Market trades on the additional exchange
+        final MarketConfig marketConfig = new MarketConfig(MARKET_ID, MARKET_NAME, MARKET_BASE_CURRENCY,
+                MARKET_COUNTER_CURRENCY, MARKET_IS_ENABLED, STRATEGY_ID);
+        marketConfig.setExchangeId(ADDITIONAL_EXCHANGE_ID);
+        expect(strategyConfigService.getAllStrategyConfig()).andReturn(allTheStrategiesConfig());
+        expect(marketConfigService.getAllMarketConfig()).andReturn(Collections.singletonList(marketConfig));
+        expect(ConfigurableComponentFactory.createComponent(STRATEGY_IMPL_CLASS)).andReturn(tradingStrategy);
+        tradingStrategy.init(anyObject(TradingApi.class), anyObject(Market.class),
+                anyObject(com.gazbert.bxbot.strategy.api.StrategyConfig.class));
+
+        // balance is fine on the main exchange...
+        final Map<String, BigDecimal> mainBalancesAvailable = new HashMap<>();
+        mainBalancesAvailable.put(ENGINE_EMERGENCY_STOP_CURRENCY, new BigDecimal("0.5"));
+        final BalanceInfo mainBalanceInfo = PowerMock.createMock(BalanceInfo.class);
+        expect(exchangeAdapter.getBalanceInfo()).andReturn(mainBalanceInfo).anyTimes();
+        expect(mainBalanceInfo.getBalancesAvailable()).andReturn(mainBalancesAvailable).anyTimes();
+
+        // ...but has been breached on the additional one
+        final Map<String, BigDecimal> additionalBalancesAvailable = new HashMap<>();
+        additionalBalancesAvailable.put(ENGINE_EMERGENCY_STOP_CURRENCY, new BigDecimal("0.49999999"));
+        final BalanceInfo additionalBalanceInfo = PowerMock.createMock(BalanceInfo.class);
+        expect(additionalExchangeAdapter.getBalanceInfo()).andReturn(additionalBalanceInfo);
+        expect(additionalBalanceInfo.getBalancesAvailable()).andReturn(additionalBalancesAvailable);
+
+        // expect Email Alert to be sent for the additional exchange
+        emailAlerter.sendMessage(eq(CRITICAL_EMAIL_ALERT_SUBJECT),
+                and(contains("EMERGENCY STOP triggered!"), contains(ADDITIONAL_EXCHANGE_ID)));
+
+        PowerMock.replayAll();
+
+        final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
+                strategyConfigService, marketConfigService, emailAlerter, new TradeCycleMetrics(),
+                sharedExecutors);
         tradingEngine.start();
 
         // sleep for bit then and check if shutdown ok
@@ -200,7 +367,8 @@ public class TestTradingEngine {
         PowerMock.replayAll();
 
         final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
-                strategyConfigService, marketConfigService, emailAlerter);
+                strategyConfigService, marketConfigService, emailAlerter, new TradeCycleMetrics(),
+                sharedExecutors);
 
         final Executor executor = Executors.newSingleThreadExecutor();
         executor.execute(tradingEngine::start);
@@ -233,10 +401,10 @@ public class TestTradingEngine {
         // balance limit NOT breached for BTC
         balancesAvailable.put(ENGINE_EMERGENCY_STOP_CURRENCY, new BigDecimal("0.5"));
 
-        // expect BalanceInfo to be fetched using Trading API
+        // expect BalanceInfo to be fetched using Trading API by the Emergency Stop Watchdog on its own schedule
         final BalanceInfo balanceInfo = PowerMock.createMock(BalanceInfo.class);
-        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo).times(numberOfTradeCycles);
-        expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable).times(numberOfTradeCycles);
+        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo).atLeastOnce();
+        expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable).atLeastOnce();
 
         // expect Trading Strategy to be invoked 2 times, once every 1s
         tradingStrategy.execute();
@@ -245,7 +413,8 @@ public class TestTradingEngine {
         PowerMock.replayAll();
 
         final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
-                strategyConfigService, marketConfigService, emailAlerter);
+                strategyConfigService, marketConfigService, emailAlerter, new TradeCycleMetrics(),
+                sharedExecutors);
 
         final Executor executor = Executors.newSingleThreadExecutor();
         executor.execute(tradingEngine::start);
@@ -264,6 +433,44 @@ public class TestTradingEngine {
         PowerMock.verifyAll();
     }
 
+    /*
+     * Tests an interrupt that is not a shutdown request does not stop the engine, or leave its control loop spinning
+     * instead of executing the next trade cycles.
+     */
+    @Test
+    public void testEngineCarriesOnTradingWhenControlLoopIsInterruptedWithoutShutdown() throws Exception {
+
+        setupConfigLoadingExpectationsForNoEmergencyStopCheck();
+
+        // expect Trading Strategy to be invoked before the interrupt, and again after it, once every 1s
+        tradingStrategy.execute();
+        expectLastCall().times(2, 4);
+
+        PowerMock.replayAll();
+
+        final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
+                strategyConfigService, marketConfigService, emailAlerter, new TradeCycleMetrics(),
+                sharedExecutors);
+
+        final Thread engineThread = new Thread(tradingEngine::start);
+        engineThread.start();
+
+        // interrupt the control loop while it sleeps after the first trade cycle
+        Thread.sleep(500);
+        engineThread.interrupt();
+
+        Thread.sleep(2000);
+        assertTrue(tradingEngine.isRunning());
+
+        tradingEngine.shutdown();
+
+        // sleep for 1s and check if shutdown ok
+        Thread.sleep(1000);
+        assertFalse(tradingEngine.isRunning());
+
+        PowerMock.verifyAll();
+    }
+
     /*
      * Tests the engine starts up, executes 1 trade cycle successfully, but then receives StrategyException from
      * Trading Strategy on the 2nd cycle. We expect the engine to shutdown.
@@ -279,14 +486,14 @@ public class TestTradingEngine {
         balancesAvailable.put(ENGINE_EMERGENCY_STOP_CURRENCY, new BigDecimal("0.5"));
         final BalanceInfo balanceInfo = PowerMock.createMock(BalanceInfo.class);
 
+        // expect Emergency Stop Watchdog to keep passing
+        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo).atLeastOnce();
+        expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable).atLeastOnce();
+
         // expect 1st trade cycle to be successful
-        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo);
-        expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable);
         tradingStrategy.execute();
 
         // expect StrategyException in 2nd trade cycle
-        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo);
-        expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable);
         tradingStrategy.execute();
         expectLastCall().andThrow(new StrategyException(exceptionErrorMsg));
 
@@ -297,7 +504,8 @@ public class TestTradingEngine {
         PowerMock.replayAll();
 
         final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
-                strategyConfigService, marketConfigService, emailAlerter);
+                strategyConfigService, marketConfigService, emailAlerter, new TradeCycleMetrics(),
+                sharedExecutors);
 
         tradingEngine.start();
 
@@ -323,14 +531,14 @@ public class TestTradingEngine {
         balancesAvailable.put(ENGINE_EMERGENCY_STOP_CURRENCY, new BigDecimal("0.5"));
         final BalanceInfo balanceInfo = PowerMock.createMock(BalanceInfo.class);
 
+        // expect Emergency Stop Watchdog to keep passing
+        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo).atLeastOnce();
+        expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable).atLeastOnce();
+
         // expect 1st trade cycle to be successful
-        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo);
-        expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable);
         tradingStrategy.execute();
 
         // expect unexpected Exception in 2nd trade cycle
-        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo);
-        expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable);
         tradingStrategy.execute();
         expectLastCall().andThrow(new IllegalArgumentException(exceptionErrorMsg));
 
@@ -341,7 +549,8 @@ public class TestTradingEngine {
         PowerMock.replayAll();
 
         final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
-                strategyConfigService, marketConfigService, emailAlerter);
+                strategyConfigService, marketConfigService, emailAlerter, new TradeCycleMetrics(),
+                sharedExecutors);
 
         tradingEngine.start();
 
@@ -367,13 +576,14 @@ public class TestTradingEngine {
         balancesAvailable.put(ENGINE_EMERGENCY_STOP_CURRENCY, new BigDecimal("0.5"));
         final BalanceInfo balanceInfo = PowerMock.createMock(BalanceInfo.class);
 
-        // expect 1st trade cycle to be successful
+        // expect 1st Emergency Stop check and trade cycle to be successful
         expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo);
         expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable);
         tradingStrategy.execute();
+        expectLastCall().atLeastOnce(); // the next cycle can run before the watchdog's next check
 
-        // expect unexpected Exception in 2nd trade cycle
-        expect(exchangeAdapter.getBalanceInfo()).andThrow(new IllegalStateException(exceptionErrorMsg));
+        // expect unexpected Exception in 2nd Emergency Stop check
+        expect(exchangeAdapter.getBalanceInfo()).andThrow(new IllegalStateException(exceptionErrorMsg)).anyTimes();
 
         // expect Email Alert to be sent
         emailAlerter.sendMessage(eq(CRITICAL_EMAIL_ALERT_SUBJECT), contains("An unexpected FATAL error has occurred in" +
@@ -382,7 +592,8 @@ public class TestTradingEngine {
         PowerMock.replayAll();
 
         final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
-                strategyConfigService, marketConfigService, emailAlerter);
+                strategyConfigService, marketConfigService, emailAlerter, new TradeCycleMetrics(),
+                sharedExecutors);
 
         tradingEngine.start();
 
@@ -408,13 +619,14 @@ public class TestTradingEngine {
         balancesAvailable.put(ENGINE_EMERGENCY_STOP_CURRENCY, new BigDecimal("0.5"));
         final BalanceInfo balanceInfo = PowerMock.createMock(BalanceInfo.class);
 
-        // expect 1st trade cycle to be successful
+        // expect 1st Emergency Stop check and trade cycle to be successful
         expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo);
         expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable);
         tradingStrategy.execute();
+        expectLastCall().atLeastOnce(); // the next cycle can run before the watchdog's next check
 
-        // expect TradingApiException in 2nd trade cycle
-        expect(exchangeAdapter.getBalanceInfo()).andThrow(new TradingApiException(exceptionErrorMsg));
+        // expect TradingApiException in 2nd Emergency Stop check
+        expect(exchangeAdapter.getBalanceInfo()).andThrow(new TradingApiException(exceptionErrorMsg)).anyTimes();
 
         // expect Email Alert to be sent
         emailAlerter.sendMessage(eq(CRITICAL_EMAIL_ALERT_SUBJECT), contains("A FATAL error has occurred in Exchange" +
@@ -423,7 +635,8 @@ public class TestTradingEngine {
         PowerMock.replayAll();
 
         final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
-                strategyConfigService, marketConfigService, emailAlerter);
+                strategyConfigService, marketConfigService, emailAlerter, new TradeCycleMetrics(),
+                sharedExecutors);
 
         tradingEngine.start();
 
@@ -451,23 +664,23 @@ public class TestTradingEngine {
         // balance limit NOT breached for BTC
         balancesAvailable.put(ENGINE_EMERGENCY_STOP_CURRENCY, new BigDecimal("0.5"));
 
-        // expect 1st trade cycle to be successful
-        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo);
-        expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable);
-        tradingStrategy.execute();
-
-        // expect BalanceInfo fetch to fail with ExchangeNetworkException on 2nd cycle
-        expect(exchangeAdapter.getBalanceInfo()).andThrow(new ExchangeNetworkException(exceptionErrorMsg));
+        // expect 1st Emergency Stop check to be successful, the 2nd to fail with ExchangeNetworkException, and the
+        // rest to be successful
+        expect(exchangeAdapter.getBalanceInfo())
+                .andReturn(balanceInfo)
+                .andThrow(new ExchangeNetworkException(exceptionErrorMsg))
+                .andReturn(balanceInfo).anyTimes();
+        expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable).atLeastOnce();
 
-        // expect 3rd trade cycle to be successful
-        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo);
-        expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable);
+        // expect trade cycles to carry on executing the strategy
         tradingStrategy.execute();
+        expectLastCall().atLeastOnce();
 
         PowerMock.replayAll();
 
         final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
-                strategyConfigService, marketConfigService, emailAlerter);
+                strategyConfigService, marketConfigService, emailAlerter, new TradeCycleMetrics(),
+                sharedExecutors);
         final Executor executor = Executors.newSingleThreadExecutor();
         executor.execute(tradingEngine::start);
 
@@ -509,7 +722,8 @@ public class TestTradingEngine {
         PowerMock.replayAll();
 
         final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
-                strategyConfigService, marketConfigService, emailAlerter);
+                strategyConfigService, marketConfigService, emailAlerter, new TradeCycleMetrics(),
+                sharedExecutors);
         final Executor executor = Executors.newSingleThreadExecutor();
         executor.execute(tradingEngine::start);
 
@@ -523,12 +737,34 @@ public class TestTradingEngine {
         PowerMock.verifyAll();
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void testEngineCannotBeStartedWhenMarketIsBoundToUnknownExchange() throws Exception {
+
+        setupExchangeAdapterConfigExpectations();
+        setupEngineConfigExpectations();
+
+        final MarketConfig marketConfig = new MarketConfig(MARKET_ID, MARKET_NAME, MARKET_BASE_CURRENCY,
+                MARKET_COUNTER_CURRENCY, MARKET_IS_ENABLED, STRATEGY_ID);
+        marketConfig.setExchangeId(UNKNOWN_EXCHANGE_ID);
+        expect(strategyConfigService.getAllStrategyConfig()).andReturn(allTheStrategiesConfig());
+        expect(marketConfigService.getAllMarketConfig()).andReturn(Collections.singletonList(marketConfig));
+
+        PowerMock.replayAll();
+
+        final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
+                strategyConfigService, marketConfigService, emailAlerter, new TradeCycleMetrics(),
+                sharedExecutors);
+        tradingEngine.start();
+
+        PowerMock.verifyAll();
+    }
+
     // ------------------------------------------------------------------------------------------------
     //  private utils
     // ------------------------------------------------------------------------------------------------
 
     private void setupExchangeAdapterConfigExpectations() {
-        expect(exchangeConfigService.getExchangeConfig()).andReturn(someExchangeConfig());
+        expect(exchangeConfigService.getAllExchangeConfig()).andReturn(Collections.singletonList(someExchangeConfig()));
         expect(ConfigurableComponentFactory.createComponent(EXCHANGE_ADAPTER_IMPL_CLASS)).andReturn(exchangeAdapter);
         expect(exchangeAdapter.getImplName()).andReturn(EXCHANGE_NAME);
         exchangeAdapter.init(anyObject(ExchangeConfig.class));
@@ -546,7 +782,7 @@ public class TestTradingEngine {
         expect(strategyConfigService.getAllStrategyConfig()).andReturn(allTheStrategiesConfig());
         expect(marketConfigService.getAllMarketConfig()).andReturn(allTheMarketsConfig());
         expect(ConfigurableComponentFactory.createComponent(STRATEGY_IMPL_CLASS)).andReturn(tradingStrategy);
-        tradingStrategy.init(eq(exchangeAdapter), anyObject(Market.class), anyObject(com.gazbert.bxbot.strategy.api.StrategyConfig.class));
+        tradingStrategy.init(anyObject(TradingApi.class), anyObject(Market.class), anyObject(com.gazbert.bxbot.strategy.api.StrategyConfig.class));
     }
 
     private void setupConfigLoadingExpectations() {
@@ -590,6 +826,7 @@ public class TestTradingEngine {
         engineConfig.setEmergencyStopCurrency(ENGINE_EMERGENCY_STOP_CURRENCY);
         engineConfig.setEmergencyStopBalance(ENGINE_EMERGENCY_STOP_BALANCE);
         engineConfig.setTradeCycleInterval(ENGINE_TRADE_CYCLE_INTERVAL);
+        engineConfig.setEmergencyStopCheckInterval(ENGINE_EMERGENCY_STOP_CHECK_INTERVAL);
         return engineConfig;
     }
 
@@ -0,0 +1,94 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the Virtual Thread Pinning Monitor reports virtual threads that block inside synchronized sections.
+ *
+ * @author gazbert
+ */
+public class TestVirtualThreadPinningMonitor {
+
+    private static final Object MONITOR = new Object();
+
+    private VirtualThreadPinningMonitor pinningMonitor;
+
+
+    @Before
+    public void setup() throws Exception {
+        pinningMonitor = new VirtualThreadPinningMonitor(Duration.ofMillis(20));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        pinningMonitor.stop();
+    }
+
+    @Test
+    public void testPinnedVirtualThreadIsReported() throws Exception {
+
+        if (!VirtualThreads.isSupported()) {
+            return; // nothing to pin before Java 21
+        }
+
+        assertTrue(pinningMonitor.start());
+        assertEquals(0, pinningMonitor.getPinnedCount());
+
+        final ExecutorService executor = VirtualThreads.newVirtualThreadPerTaskExecutor("bxbot-test-vt-");
+        try {
+            executor.submit(() -> {
+                synchronized (MONITOR) {
+                    Thread.sleep(100); // blocking while holding a monitor pins the virtual thread
+                }
+                return null;
+            }).get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // JFR streams events in batches - give it a few secs
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (pinningMonitor.getPinnedCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertTrue(pinningMonitor.getPinnedCount() > 0);
+    }
+
+    @Test
+    public void testStopIsSafeWhenNotStarted() throws Exception {
+        pinningMonitor.stop();
+        assertEquals(0, pinningMonitor.getPinnedCount());
+    }
+}
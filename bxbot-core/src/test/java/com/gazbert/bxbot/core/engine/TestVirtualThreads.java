@@ -0,0 +1,79 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests virtual threads are created when the JVM supports them, and that we fail fast when it does not.
+ *
+ * @author gazbert
+ */
+public class TestVirtualThreads {
+
+    private static final String THREAD_NAME_PREFIX = "bxbot-test-vt-";
+
+    @Test
+    public void testExecutorRunsEachTaskOnANewVirtualThread() throws Exception {
+
+        if (!VirtualThreads.isSupported()) {
+            try {
+                VirtualThreads.newVirtualThreadPerTaskExecutor(THREAD_NAME_PREFIX);
+                fail("Expected IllegalStateException to be thrown on Java " + System.getProperty("java.version"));
+            } catch (IllegalStateException e) {
+                assertTrue(e.getMessage().contains("Java 21 or later is required"));
+            }
+            return;
+        }
+
+        final ExecutorService executor = VirtualThreads.newVirtualThreadPerTaskExecutor(THREAD_NAME_PREFIX);
+        try {
+            final Future<Thread> first = executor.submit(Thread::currentThread);
+            final Future<Thread> second = executor.submit(Thread::currentThread);
+
+            final Thread firstThread = first.get(5, TimeUnit.SECONDS);
+            final Thread secondThread = second.get(5, TimeUnit.SECONDS);
+
+            assertTrue(VirtualThreads.isVirtual(firstThread));
+            assertTrue(VirtualThreads.isVirtual(secondThread));
+            assertTrue(firstThread != secondThread);
+            assertTrue(firstThread.getName().startsWith(THREAD_NAME_PREFIX));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPlatformThreadIsNotVirtual() throws Exception {
+        assertFalse(VirtualThreads.isVirtual(Thread.currentThread()));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the Latency Histogram behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestLatencyHistogram {
+
+    @Test
+    public void testEmptyHistogramReportsZeros() throws Exception {
+
+        final LatencyHistogram.Snapshot snapshot = new LatencyHistogram().getSnapshot();
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getPercentile(99));
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0.0, snapshot.getMean(), 0.0);
+    }
+
+    @Test
+    public void testPercentilesUseNearestRank() throws Exception {
+
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 100; i >= 1; i--) {
+            histogram.record(i, TimeUnit.MILLISECONDS);
+        }
+
+        final LatencyHistogram.Snapshot snapshot = histogram.getSnapshot();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), snapshot.getPercentile(0));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), snapshot.getPercentile(50));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(99), snapshot.getPercentile(99));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), snapshot.getPercentile(100));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), snapshot.getMax());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(50500), snapshot.getMean(), 0.0);
+    }
+
+    @Test
+    public void testPercentilesOnlyCoverTheMostRecentSamples() throws Exception {
+
+        final LatencyHistogram histogram = new LatencyHistogram(4);
+        histogram.record(1000, TimeUnit.NANOSECONDS);
+        for (int i = 0; i < 4; i++) {
+            histogram.record(10, TimeUnit.NANOSECONDS);
+        }
+
+        final LatencyHistogram.Snapshot snapshot = histogram.getSnapshot();
+        assertEquals(5, snapshot.getCount());
+        assertEquals(10, snapshot.getMax());
+        assertEquals(10, snapshot.getPercentile(99));
+    }
+
+    @Test
+    public void testNegativeLatencyIsRecordedAsZero() throws Exception {
+
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5, TimeUnit.NANOSECONDS);
+
+        assertEquals(0, histogram.getSnapshot().getMax());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPercentileOutOfRangeIsRejected() throws Exception {
+        new LatencyHistogram().getSnapshot().getPercentile(101);
+    }
+}
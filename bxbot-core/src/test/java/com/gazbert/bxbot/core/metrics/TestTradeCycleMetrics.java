@@ -0,0 +1,91 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the Trade Cycle Metrics behave as expected.
+ *
+ * @author gazbert
+ */
+public class TestTradeCycleMetrics {
+
+    private static final String BTC_USD_MARKET_ID = "btc_usd";
+    private static final String LTC_BTC_MARKET_ID = "ltc_btc";
+    private static final String GDAX_EXCHANGE_ID = "gdax";
+    private static final String GEMINI_EXCHANGE_ID = "gemini";
+
+    @Test
+    public void testMarketMetricsAreCreatedOncePerMarket() throws Exception {
+
+        final TradeCycleMetrics tradeCycleMetrics = new TradeCycleMetrics();
+        assertTrue(tradeCycleMetrics.getAllMarketMetrics().isEmpty());
+
+        final MarketMetrics btcUsdMetrics = tradeCycleMetrics.getMarketMetrics(BTC_USD_MARKET_ID);
+        assertSame(btcUsdMetrics, tradeCycleMetrics.getMarketMetrics(BTC_USD_MARKET_ID));
+        tradeCycleMetrics.getMarketMetrics(LTC_BTC_MARKET_ID);
+
+        assertEquals(2, tradeCycleMetrics.getAllMarketMetrics().size());
+        assertSame(btcUsdMetrics, tradeCycleMetrics.getAllMarketMetrics().get(BTC_USD_MARKET_ID));
+    }
+
+    @Test
+    public void testMarketMetricsAreKeptSeparate() throws Exception {
+
+        final TradeCycleMetrics tradeCycleMetrics = new TradeCycleMetrics();
+        tradeCycleMetrics.getMarketMetrics(BTC_USD_MARKET_ID).getStrategyExecutionTimes().record(5, TimeUnit.SECONDS);
+        tradeCycleMetrics.getMarketMetrics(BTC_USD_MARKET_ID).setOverrunCount(3);
+        tradeCycleMetrics.getMarketMetrics(LTC_BTC_MARKET_ID).getStrategyExecutionTimes().record(1, TimeUnit.SECONDS);
+
+        final MarketMetrics btcUsdMetrics = tradeCycleMetrics.getMarketMetrics(BTC_USD_MARKET_ID);
+        assertEquals(TimeUnit.SECONDS.toNanos(5), btcUsdMetrics.getStrategyExecutionTimes().getSnapshot().getMax());
+        assertEquals(3, btcUsdMetrics.getOverrunCount());
+
+        final MarketMetrics ltcBtcMetrics = tradeCycleMetrics.getMarketMetrics(LTC_BTC_MARKET_ID);
+        assertEquals(TimeUnit.SECONDS.toNanos(1), ltcBtcMetrics.getStrategyExecutionTimes().getSnapshot().getMax());
+        assertEquals(0, ltcBtcMetrics.getOverrunCount());
+    }
+
+    @Test
+    public void testTradeCycleTimesAreKeptPerExchange() throws Exception {
+
+        final TradeCycleMetrics tradeCycleMetrics = new TradeCycleMetrics();
+        tradeCycleMetrics.getExchangeTradeCycleTimes(GDAX_EXCHANGE_ID).record(5, TimeUnit.SECONDS);
+        tradeCycleMetrics.getExchangeTradeCycleTimes(GEMINI_EXCHANGE_ID).record(1, TimeUnit.SECONDS);
+
+        assertEquals(2, tradeCycleMetrics.getAllExchangeTradeCycleTimes().size());
+        assertEquals(TimeUnit.SECONDS.toNanos(5),
+                tradeCycleMetrics.getExchangeTradeCycleTimes(GDAX_EXCHANGE_ID).getSnapshot().getMax());
+        assertEquals(TimeUnit.SECONDS.toNanos(1),
+                tradeCycleMetrics.getExchangeTradeCycleTimes(GEMINI_EXCHANGE_ID).getSnapshot().getMax());
+        assertTrue(tradeCycleMetrics.getAllMarketMetrics().isEmpty());
+    }
+}
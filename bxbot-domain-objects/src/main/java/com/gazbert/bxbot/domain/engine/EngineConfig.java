@@ -39,6 +39,13 @@ public class EngineConfig {
     private String emergencyStopCurrency;
     private BigDecimal emergencyStopBalance;
     private int tradeCycleInterval;
+    private String tradeCycleIntervalUnit;
+    private String tradeCycleOverrunPolicy;
+    private String strategyExecutionMode;
+    private Integer strategyExecutionPoolSize;
+    private Integer strategyExecutionTimeout;
+    private Integer emergencyStopCheckInterval;
+    private String strategyInvocationMode;
 
     // required for jackson
     public EngineConfig() {
@@ -94,6 +101,62 @@ public class EngineConfig {
         this.tradeCycleInterval = tradeCycleInterval;
     }
 
+    public String getTradeCycleIntervalUnit() {
+        return tradeCycleIntervalUnit;
+    }
+
+    public void setTradeCycleIntervalUnit(String tradeCycleIntervalUnit) {
+        this.tradeCycleIntervalUnit = tradeCycleIntervalUnit;
+    }
+
+    public String getTradeCycleOverrunPolicy() {
+        return tradeCycleOverrunPolicy;
+    }
+
+    public void setTradeCycleOverrunPolicy(String tradeCycleOverrunPolicy) {
+        this.tradeCycleOverrunPolicy = tradeCycleOverrunPolicy;
+    }
+
+    public String getStrategyExecutionMode() {
+        return strategyExecutionMode;
+    }
+
+    public void setStrategyExecutionMode(String strategyExecutionMode) {
+        this.strategyExecutionMode = strategyExecutionMode;
+    }
+
+    public Integer getStrategyExecutionPoolSize() {
+        return strategyExecutionPoolSize;
+    }
+
+    public void setStrategyExecutionPoolSize(Integer strategyExecutionPoolSize) {
+        this.strategyExecutionPoolSize = strategyExecutionPoolSize;
+    }
+
+    public Integer getStrategyExecutionTimeout() {
+        return strategyExecutionTimeout;
+    }
+
+    public void setStrategyExecutionTimeout(Integer strategyExecutionTimeout) {
+        this.strategyExecutionTimeout = strategyExecutionTimeout;
+    }
+
+    public Integer getEmergencyStopCheckInterval() {
+        return emergencyStopCheckInterval;
+    }
+
+    public void setEmergencyStopCheckInterval(Integer emergencyStopCheckInterval) {
+        this.emergencyStopCheckInterval = emergencyStopCheckInterval;
+    }
+
+    public String getStrategyInvocationMode() {
+        return strategyInvocationMode;
+    }
+
+    public void setStrategyInvocationMode(String strategyInvocationMode) {
+        this.strategyInvocationMode = strategyInvocationMode;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
@@ -102,6 +165,13 @@ public class EngineConfig {
                 .add("emergencyStopCurrency", emergencyStopCurrency)
                 .add("emergencyStopBalance", emergencyStopBalance)
                 .add("tradeCycleInterval", tradeCycleInterval)
+                .add("tradeCycleIntervalUnit", tradeCycleIntervalUnit)
+                .add("tradeCycleOverrunPolicy", tradeCycleOverrunPolicy)
+                .add("strategyExecutionMode", strategyExecutionMode)
+                .add("strategyExecutionPoolSize", strategyExecutionPoolSize)
+                .add("strategyExecutionTimeout", strategyExecutionTimeout)
+                .add("emergencyStopCheckInterval", emergencyStopCheckInterval)
+                .add("strategyInvocationMode", strategyInvocationMode)
                 .toString();
     }
 }
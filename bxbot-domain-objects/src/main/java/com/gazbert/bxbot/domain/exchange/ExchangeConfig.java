@@ -32,6 +32,7 @@ import com.google.common.base.MoreObjects;
  */
 public class ExchangeConfig {
 
+    private String id;
     private String exchangeName;
     private String exchangeAdapter;
     private AuthenticationConfig authenticationConfig;
@@ -40,6 +41,14 @@ public class ExchangeConfig {
     private OptionalConfig optionalConfig;
 
 
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
     public String getExchangeName() {
         return exchangeName;
     }
@@ -83,6 +92,7 @@ public class ExchangeConfig {
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
+                .add("id", id)
                 .add("exchangeName", exchangeName)
                 .add("exchangeAdapter", exchangeAdapter)
                 // WARNING - careful showing this!
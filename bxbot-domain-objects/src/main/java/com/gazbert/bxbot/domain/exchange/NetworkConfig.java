@@ -36,13 +36,18 @@ import java.util.List;
 public class NetworkConfig {
 
     private Integer connectionTimeout;
+    private Integer readTimeout;
+    private Integer connectionPoolSize;
+    private Integer connectionIdleTimeout;
     private List<Integer> nonFatalErrorCodes;
     private List<String> nonFatalErrorMessages;
+    private List<RateLimitConfig> rateLimits;
 
 
     public NetworkConfig() {
         nonFatalErrorCodes = new ArrayList<>();
         nonFatalErrorMessages = new ArrayList<>();
+        rateLimits = new ArrayList<>();
     }
 
     public Integer getConnectionTimeout() {
@@ -53,6 +58,30 @@ public class NetworkConfig {
         this.connectionTimeout = connectionTimeout;
     }
 
+    public Integer getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(Integer readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public Integer getConnectionPoolSize() {
+        return connectionPoolSize;
+    }
+
+    public void setConnectionPoolSize(Integer connectionPoolSize) {
+        this.connectionPoolSize = connectionPoolSize;
+    }
+
+    public Integer getConnectionIdleTimeout() {
+        return connectionIdleTimeout;
+    }
+
+    public void setConnectionIdleTimeout(Integer connectionIdleTimeout) {
+        this.connectionIdleTimeout = connectionIdleTimeout;
+    }
+
     public List<Integer> getNonFatalErrorCodes() {
         return nonFatalErrorCodes;
     }
@@ -69,12 +98,24 @@ public class NetworkConfig {
         this.nonFatalErrorMessages = nonFatalErrorMessages;
     }
 
+    public List<RateLimitConfig> getRateLimits() {
+        return rateLimits;
+    }
+
+    public void setRateLimits(List<RateLimitConfig> rateLimits) {
+        this.rateLimits = rateLimits;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
                 .add("connectionTimeout", connectionTimeout)
+                .add("readTimeout", readTimeout)
+                .add("connectionPoolSize", connectionPoolSize)
+                .add("connectionIdleTimeout", connectionIdleTimeout)
                 .add("nonFatalErrorCodes", nonFatalErrorCodes)
                 .add("nonFatalErrorMessages", nonFatalErrorMessages)
+                .add("rateLimits", rateLimits)
                 .toString();
     }
 }
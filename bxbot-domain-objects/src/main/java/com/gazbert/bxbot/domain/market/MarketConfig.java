@@ -39,6 +39,10 @@ public class MarketConfig {
     private String counterCurrency;
     private boolean enabled;
     private String tradingStrategyId; // TODO might change this to ref to StrategyConfig ...
+    private Integer tradeCycleInterval;
+    private String tradeCycleIntervalUnit;
+    private String exchangeId;
+    private Integer orderBookDepth;
 
 
     // required for Jackson
@@ -52,6 +56,10 @@ public class MarketConfig {
         this.counterCurrency = other.counterCurrency;
         this.enabled = other.enabled;
         this.tradingStrategyId = other.tradingStrategyId;
+        this.tradeCycleInterval = other.tradeCycleInterval;
+        this.tradeCycleIntervalUnit = other.tradeCycleIntervalUnit;
+        this.exchangeId = other.exchangeId;
+        this.orderBookDepth = other.orderBookDepth;
     }
 
     public MarketConfig(String id, String name, String baseCurrency, String counterCurrency, boolean enabled, String tradingStrategyId) {
@@ -111,6 +119,38 @@ public class MarketConfig {
         this.tradingStrategyId = tradingStrategyId;
     }
 
+    public Integer getTradeCycleInterval() {
+        return tradeCycleInterval;
+    }
+
+    public void setTradeCycleInterval(Integer tradeCycleInterval) {
+        this.tradeCycleInterval = tradeCycleInterval;
+    }
+
+    public String getTradeCycleIntervalUnit() {
+        return tradeCycleIntervalUnit;
+    }
+
+    public void setTradeCycleIntervalUnit(String tradeCycleIntervalUnit) {
+        this.tradeCycleIntervalUnit = tradeCycleIntervalUnit;
+    }
+
+    public String getExchangeId() {
+        return exchangeId;
+    }
+
+    public void setExchangeId(String exchangeId) {
+        this.exchangeId = exchangeId;
+    }
+
+    public Integer getOrderBookDepth() {
+        return orderBookDepth;
+    }
+
+    public void setOrderBookDepth(Integer orderBookDepth) {
+        this.orderBookDepth = orderBookDepth;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -133,6 +173,10 @@ public class MarketConfig {
                 .add("counterCurrency", counterCurrency)
                 .add("enabled", enabled)
                 .add("tradingStrategyId", tradingStrategyId)
+                .add("tradeCycleInterval", tradeCycleInterval)
+                .add("tradeCycleIntervalUnit", tradeCycleIntervalUnit)
+                .add("exchangeId", exchangeId)
+                .add("orderBookDepth", orderBookDepth)
                 .toString();
     }
 }
@@ -41,6 +41,13 @@ public class TestEngineConfig {
     private static final String EMERGENCY_STOP_CURRENCY = "BTC";
     private static final BigDecimal EMERGENCY_STOP_BALANCE = new BigDecimal("1.5");
     private static final int TRADE_CYCLE_INTERVAL = 30;
+    private static final String TRADE_CYCLE_INTERVAL_UNIT = "MILLISECONDS";
+    private static final String TRADE_CYCLE_OVERRUN_POLICY = "SKIP";
+    private static final String STRATEGY_EXECUTION_MODE = "PARALLEL";
+    private static final Integer STRATEGY_EXECUTION_POOL_SIZE = 4;
+    private static final Integer STRATEGY_EXECUTION_TIMEOUT = 25;
+    private static final Integer EMERGENCY_STOP_CHECK_INTERVAL = 5;
+    private static final String STRATEGY_INVOCATION_MODE = "EVENT_DRIVEN";
 
     @Test
     public void testInitialisationWorksAsExpected() {
@@ -64,6 +71,13 @@ public class TestEngineConfig {
         assertEquals(null, engineConfig.getEmergencyStopCurrency());
         assertEquals(null, engineConfig.getEmergencyStopBalance());
         assertEquals(0, engineConfig.getTradeCycleInterval());
+        assertEquals(null, engineConfig.getTradeCycleIntervalUnit());
+        assertEquals(null, engineConfig.getTradeCycleOverrunPolicy());
+        assertEquals(null, engineConfig.getStrategyExecutionMode());
+        assertEquals(null, engineConfig.getStrategyExecutionPoolSize());
+        assertEquals(null, engineConfig.getStrategyExecutionTimeout());
+        assertEquals(null, engineConfig.getEmergencyStopCheckInterval());
+        assertEquals(null, engineConfig.getStrategyInvocationMode());
 
         engineConfig.setBotId(BOT_ID);
         assertEquals(BOT_ID, engineConfig.getBotId());
@@ -79,5 +93,26 @@ public class TestEngineConfig {
 
         engineConfig.setTradeCycleInterval(TRADE_CYCLE_INTERVAL);
         assertEquals(TRADE_CYCLE_INTERVAL, engineConfig.getTradeCycleInterval());
+
+        engineConfig.setTradeCycleIntervalUnit(TRADE_CYCLE_INTERVAL_UNIT);
+        assertEquals(TRADE_CYCLE_INTERVAL_UNIT, engineConfig.getTradeCycleIntervalUnit());
+
+        engineConfig.setTradeCycleOverrunPolicy(TRADE_CYCLE_OVERRUN_POLICY);
+        assertEquals(TRADE_CYCLE_OVERRUN_POLICY, engineConfig.getTradeCycleOverrunPolicy());
+
+        engineConfig.setStrategyExecutionMode(STRATEGY_EXECUTION_MODE);
+        assertEquals(STRATEGY_EXECUTION_MODE, engineConfig.getStrategyExecutionMode());
+
+        engineConfig.setStrategyExecutionPoolSize(STRATEGY_EXECUTION_POOL_SIZE);
+        assertEquals(STRATEGY_EXECUTION_POOL_SIZE, engineConfig.getStrategyExecutionPoolSize());
+
+        engineConfig.setStrategyExecutionTimeout(STRATEGY_EXECUTION_TIMEOUT);
+        assertEquals(STRATEGY_EXECUTION_TIMEOUT, engineConfig.getStrategyExecutionTimeout());
+
+        engineConfig.setEmergencyStopCheckInterval(EMERGENCY_STOP_CHECK_INTERVAL);
+        assertEquals(EMERGENCY_STOP_CHECK_INTERVAL, engineConfig.getEmergencyStopCheckInterval());
+
+        engineConfig.setStrategyInvocationMode(STRATEGY_INVOCATION_MODE);
+        assertEquals(STRATEGY_INVOCATION_MODE, engineConfig.getStrategyInvocationMode());
     }
 }
@@ -40,6 +40,10 @@ public class TestMarketConfig {
     private static final String COUNTER_CURRENCY = "USD";
     private static final boolean IS_ENABLED = true;
     private static final String TRADING_STRATEGY = "macd_trend_follower";
+    private static final Integer TRADE_CYCLE_INTERVAL = 500;
+    private static final String TRADE_CYCLE_INTERVAL_UNIT = "MILLISECONDS";
+    private static final String EXCHANGE_ID = "kraken";
+    private static final Integer ORDER_BOOK_DEPTH = 20;
 
 
     @Test
@@ -64,6 +68,10 @@ public class TestMarketConfig {
         assertEquals(null, marketConfig.getCounterCurrency());
         assertEquals(false, marketConfig.isEnabled());
         assertEquals(null, marketConfig.getTradingStrategyId());
+        assertEquals(null, marketConfig.getTradeCycleInterval());
+        assertEquals(null, marketConfig.getTradeCycleIntervalUnit());
+        assertEquals(null, marketConfig.getExchangeId());
+        assertEquals(null, marketConfig.getOrderBookDepth());
 
         marketConfig.setId(ID);
         assertEquals(ID, marketConfig.getId());
@@ -82,13 +90,33 @@ public class TestMarketConfig {
 
         marketConfig.setTradingStrategyId(TRADING_STRATEGY);
         assertEquals(TRADING_STRATEGY, marketConfig.getTradingStrategyId());
+
+        marketConfig.setTradeCycleInterval(TRADE_CYCLE_INTERVAL);
+        assertEquals(TRADE_CYCLE_INTERVAL, marketConfig.getTradeCycleInterval());
+
+        marketConfig.setTradeCycleIntervalUnit(TRADE_CYCLE_INTERVAL_UNIT);
+        assertEquals(TRADE_CYCLE_INTERVAL_UNIT, marketConfig.getTradeCycleIntervalUnit());
+
+        marketConfig.setExchangeId(EXCHANGE_ID);
+        assertEquals(EXCHANGE_ID, marketConfig.getExchangeId());
+
+        marketConfig.setOrderBookDepth(ORDER_BOOK_DEPTH);
+        assertEquals(ORDER_BOOK_DEPTH, marketConfig.getOrderBookDepth());
     }
 
     @Test
     public void testCloningWorksAsExpected() {
         final MarketConfig marketConfig = new MarketConfig(
                 ID, NAME, BASE_CURRENCY, COUNTER_CURRENCY, IS_ENABLED, TRADING_STRATEGY);
+        marketConfig.setTradeCycleInterval(TRADE_CYCLE_INTERVAL);
+        marketConfig.setTradeCycleIntervalUnit(TRADE_CYCLE_INTERVAL_UNIT);
+        marketConfig.setExchangeId(EXCHANGE_ID);
+        marketConfig.setOrderBookDepth(ORDER_BOOK_DEPTH);
         final MarketConfig clonedMarketConfig = new MarketConfig(marketConfig);
         assertEquals(clonedMarketConfig, marketConfig);
+        assertEquals(TRADE_CYCLE_INTERVAL, clonedMarketConfig.getTradeCycleInterval());
+        assertEquals(TRADE_CYCLE_INTERVAL_UNIT, clonedMarketConfig.getTradeCycleIntervalUnit());
+        assertEquals(EXCHANGE_ID, clonedMarketConfig.getExchangeId());
+        assertEquals(ORDER_BOOK_DEPTH, clonedMarketConfig.getOrderBookDepth());
     }
 }
@@ -31,7 +31,15 @@ import com.gazbert.bxbot.trading.api.TradingApi;
  * adapter its configuration on startup.
  * </p>
  * <p>
- * The Trading Engine will send only 1 thread through the Exchange Adapter code at a time - you do not have to code for concurrency.
+ * By default, the Trading Engine will send only 1 thread through the Exchange Adapter code at a time - you do not have
+ * to code for concurrency. If the engine is configured to use the PARALLEL or VIRTUAL strategy execution mode, multiple
+ * threads will call the adapter concurrently, and the adapter must be thread safe.
+ * </p>
+ * <p>
+ * In VIRTUAL mode the adapter is called on virtual threads. Do not block on exchange I/O while holding a monitor
+ * (synchronized block or method) - the virtual thread gets pinned to its carrier thread. Use a
+ * {@link java.util.concurrent.locks.ReentrantLock} instead. The engine logs a warning with the stack trace whenever a
+ * virtual thread is pinned.
  * </p>
  *
  * @author gazbert
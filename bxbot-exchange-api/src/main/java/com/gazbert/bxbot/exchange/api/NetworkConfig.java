@@ -53,4 +53,32 @@ public interface NetworkConfig {
      * @return the connection timeout value if present, null otherwise.
      */
     Integer getConnectionTimeout();
+
+    /**
+     * Fetches (optional) read timeout value.
+     *
+     * @return the read timeout value if present, null otherwise.
+     */
+    Integer getReadTimeout();
+
+    /**
+     * Fetches (optional) connection pool size.
+     *
+     * @return the connection pool size if present, null otherwise.
+     */
+    Integer getConnectionPoolSize();
+
+    /**
+     * Fetches (optional) connection idle timeout value.
+     *
+     * @return the connection idle timeout value if present, null otherwise.
+     */
+    Integer getConnectionIdleTimeout();
+
+    /**
+     * Fetches (optional) list of client-side rate limits.
+     *
+     * @return list of rate limits if present, an empty list otherwise.
+     */
+    List<RateLimitConfig> getRateLimits();
 }
@@ -24,6 +24,7 @@
 package com.gazbert.bxbot.exchange.api.impl;
 
 import com.gazbert.bxbot.exchange.api.NetworkConfig;
+import com.gazbert.bxbot.exchange.api.RateLimitConfig;
 import com.google.common.base.MoreObjects;
 
 import java.util.ArrayList;
@@ -37,12 +38,17 @@ import java.util.List;
 public class NetworkConfigImpl implements NetworkConfig {
 
     private Integer connectionTimeout;
+    private Integer readTimeout;
+    private Integer connectionPoolSize;
+    private Integer connectionIdleTimeout;
     private List<Integer> nonFatalErrorCodes;
     private List<String> nonFatalErrorMessages;
+    private List<RateLimitConfig> rateLimits;
 
     public NetworkConfigImpl() {
         nonFatalErrorCodes = new ArrayList<>();
         nonFatalErrorMessages = new ArrayList<>();
+        rateLimits = new ArrayList<>();
     }
 
     @Override
@@ -54,6 +60,33 @@ public class NetworkConfigImpl implements NetworkConfig {
         this.connectionTimeout = connectionTimeout;
     }
 
+    @Override
+    public Integer getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(Integer readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public Integer getConnectionPoolSize() {
+        return connectionPoolSize;
+    }
+
+    public void setConnectionPoolSize(Integer connectionPoolSize) {
+        this.connectionPoolSize = connectionPoolSize;
+    }
+
+    @Override
+    public Integer getConnectionIdleTimeout() {
+        return connectionIdleTimeout;
+    }
+
+    public void setConnectionIdleTimeout(Integer connectionIdleTimeout) {
+        this.connectionIdleTimeout = connectionIdleTimeout;
+    }
+
     @Override
     public List<Integer> getNonFatalErrorCodes() {
         return nonFatalErrorCodes;
@@ -72,12 +105,25 @@ public class NetworkConfigImpl implements NetworkConfig {
         this.nonFatalErrorMessages = nonFatalErrorMessages;
     }
 
+    @Override
+    public List<RateLimitConfig> getRateLimits() {
+        return rateLimits;
+    }
+
+    public void setRateLimits(List<RateLimitConfig> rateLimits) {
+        this.rateLimits = rateLimits;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
                 .add("connectionTimeout", connectionTimeout)
+                .add("readTimeout", readTimeout)
+                .add("connectionPoolSize", connectionPoolSize)
+                .add("connectionIdleTimeout", connectionIdleTimeout)
                 .add("nonFatalErrorCodes", nonFatalErrorCodes)
                 .add("nonFatalErrorMessages", nonFatalErrorMessages)
+                .add("rateLimits", rateLimits)
                 .toString();
     }
 }
@@ -23,10 +23,13 @@
 
 package com.gazbert.bxbot.exchange.api.imp;
 
+import com.gazbert.bxbot.exchange.api.RateLimitConfig;
 import com.gazbert.bxbot.exchange.api.impl.NetworkConfigImpl;
+import com.gazbert.bxbot.exchange.api.impl.RateLimitConfigImpl;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
@@ -40,17 +43,27 @@ import static org.junit.Assert.assertTrue;
 public class TestNetworkConfigImpl {
 
     private static final Integer CONNECTION_TIMEOUT = 30;
+    private static final Integer READ_TIMEOUT = 60;
+    private static final Integer CONNECTION_POOL_SIZE = 10;
+    private static final Integer CONNECTION_IDLE_TIMEOUT = 30;
     private static final List<Integer> NON_FATAL_ERROR_CODES = Arrays.asList(502, 503, 504);
     private static final List<String> NON_FATAL_ERROR_MESSAGES = Arrays.asList(
             "Connection refused", "Connection reset", "Remote host closed connection during handshake");
+    private static final String RATE_LIMIT_ENDPOINT_CLASS = "private";
+    private static final Integer RATE_LIMIT_REQUESTS = 15;
+    private static final Integer RATE_LIMIT_PERIOD = 45;
 
     @Test
     public void testInitialisationWorksAsExpected() {
 
         final NetworkConfigImpl networkConfig = new NetworkConfigImpl();
         assertEquals(null, networkConfig.getConnectionTimeout());
+        assertEquals(null, networkConfig.getReadTimeout());
+        assertEquals(null, networkConfig.getConnectionPoolSize());
+        assertEquals(null, networkConfig.getConnectionIdleTimeout());
         assertTrue(networkConfig.getNonFatalErrorCodes().isEmpty());
         assertTrue(networkConfig.getNonFatalErrorMessages().isEmpty());
+        assertTrue(networkConfig.getRateLimits().isEmpty());
     }
 
     @Test
@@ -61,10 +74,30 @@ public class TestNetworkConfigImpl {
         networkConfig.setConnectionTimeout(CONNECTION_TIMEOUT);
         assertEquals(CONNECTION_TIMEOUT, networkConfig.getConnectionTimeout());
 
+        networkConfig.setReadTimeout(READ_TIMEOUT);
+        assertEquals(READ_TIMEOUT, networkConfig.getReadTimeout());
+
+        networkConfig.setConnectionPoolSize(CONNECTION_POOL_SIZE);
+        assertEquals(CONNECTION_POOL_SIZE, networkConfig.getConnectionPoolSize());
+
+        networkConfig.setConnectionIdleTimeout(CONNECTION_IDLE_TIMEOUT);
+        assertEquals(CONNECTION_IDLE_TIMEOUT, networkConfig.getConnectionIdleTimeout());
+
         networkConfig.setNonFatalErrorCodes(NON_FATAL_ERROR_CODES);
         assertEquals(NON_FATAL_ERROR_CODES, networkConfig.getNonFatalErrorCodes());
 
         networkConfig.setNonFatalErrorMessages(NON_FATAL_ERROR_MESSAGES);
         assertEquals(NON_FATAL_ERROR_MESSAGES, networkConfig.getNonFatalErrorMessages());
+
+        final RateLimitConfigImpl rateLimit = new RateLimitConfigImpl();
+        rateLimit.setEndpointClass(RATE_LIMIT_ENDPOINT_CLASS);
+        rateLimit.setRequests(RATE_LIMIT_REQUESTS);
+        rateLimit.setPeriod(RATE_LIMIT_PERIOD);
+        final List<RateLimitConfig> rateLimits = Collections.singletonList(rateLimit);
+        networkConfig.setRateLimits(rateLimits);
+        assertEquals(rateLimits, networkConfig.getRateLimits());
+        assertEquals(RATE_LIMIT_ENDPOINT_CLASS, networkConfig.getRateLimits().get(0).getEndpointClass());
+        assertEquals(RATE_LIMIT_REQUESTS, networkConfig.getRateLimits().get(0).getRequests());
+        assertEquals(RATE_LIMIT_PERIOD, networkConfig.getRateLimits().get(0).getPeriod());
     }
 }
@@ -42,6 +42,7 @@ import org.powermock.modules.junit4.PowerMockRunner;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.easymock.EasyMock.expect;
@@ -86,13 +87,17 @@ public class BitfinexIT {
 
         networkConfig = PowerMock.createMock(NetworkConfig.class);
         expect(networkConfig.getConnectionTimeout()).andReturn(30);
+        expect(networkConfig.getReadTimeout()).andReturn(null);
+        expect(networkConfig.getConnectionPoolSize()).andReturn(null);
+        expect(networkConfig.getConnectionIdleTimeout()).andReturn(null);
         expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
         expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+        expect(networkConfig.getRateLimits()).andReturn(Collections.emptyList());
 
         exchangeConfig = PowerMock.createMock(ExchangeConfig.class);
         expect(exchangeConfig.getAuthenticationConfig()).andReturn(authenticationConfig);
         expect(exchangeConfig.getNetworkConfig()).andReturn(networkConfig);
-        // no optional config for this adapter
+        expect(exchangeConfig.getOptionalConfig()).andReturn(null);
     }
 
     @Test
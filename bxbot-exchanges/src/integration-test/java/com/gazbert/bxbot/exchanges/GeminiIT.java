@@ -37,6 +37,7 @@ import org.powermock.modules.junit4.PowerMockRunner;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.easymock.EasyMock.expect;
@@ -83,8 +84,12 @@ public class GeminiIT {
 
         networkConfig = PowerMock.createMock(NetworkConfig.class);
         expect(networkConfig.getConnectionTimeout()).andReturn(30);
+        expect(networkConfig.getReadTimeout()).andReturn(null);
+        expect(networkConfig.getConnectionPoolSize()).andReturn(null);
+        expect(networkConfig.getConnectionIdleTimeout()).andReturn(null);
         expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
         expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+        expect(networkConfig.getRateLimits()).andReturn(Collections.emptyList());
 
         optionalConfig = PowerMock.createMock(OptionalConfig.class);
         expect(optionalConfig.getItem("buy-fee")).andReturn("0.25");
@@ -0,0 +1,158 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.RequestSigner.HmacAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time and allocations per signed request for the Request Signer, against the way the adapters signed
+ * requests before it: a new MessageDigest per request, String.getBytes() for every part of the message, and hex built
+ * with String.format().
+ * <p>
+ * Run it with the gc profiler to see the allocations per request in the gc.alloc.rate.norm column:
+ * <pre>
+ *     ./gradlew :bxbot-exchanges:jmh
+ * </pre>
+ *
+ * @author gazbert
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+public class RequestSignerBenchmark {
+
+    private static final byte[] SECRET = "kenobi-secret-key".getBytes(StandardCharsets.UTF_8);
+    private static final String CLIENT_ID = "123456";
+    private static final String KEY = "my-api-key-my-api-key-my-api-key";
+    private static final String PATH = "/0/private/AddOrder";
+    private static final String POST_DATA =
+            "nonce=1494346874000&pair=XXBTZUSD&type=buy&ordertype=limit&price=2512.50&volume=0.25000000";
+
+    private RequestSigner sha256Signer;
+    private RequestSigner sha512Signer;
+    private Mac sha256Mac;
+    private Mac sha512Mac;
+    private long nonce;
+
+
+    @Setup
+    public void setup() throws Exception {
+        sha256Signer = new RequestSigner(HmacAlgorithm.HMAC_SHA256, SECRET);
+        sha512Signer = new RequestSigner(HmacAlgorithm.HMAC_SHA512, SECRET);
+
+        sha256Mac = Mac.getInstance("HmacSHA256");
+        sha256Mac.init(new SecretKeySpec(SECRET, "HmacSHA256"));
+        sha512Mac = Mac.getInstance("HmacSHA512");
+        sha512Mac.init(new SecretKeySpec(SECRET, "HmacSHA512"));
+
+        nonce = 1494346874000L;
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  HMAC-SHA256 as uppercase hex, e.g. Bitstamp
+    // ------------------------------------------------------------------------------------------------
+
+    @Benchmark
+    public String hmacSha256ToHex() {
+        return sha256Signer.sign().update(++nonce).update(CLIENT_ID).update(KEY).toHexUpperCase();
+    }
+
+    @Benchmark
+    public String hmacSha256ToHexBaseline() throws Exception {
+        sha256Mac.reset();
+        sha256Mac.update(String.valueOf(++nonce).getBytes("UTF-8"));
+        sha256Mac.update(CLIENT_ID.getBytes("UTF-8"));
+        sha256Mac.update(KEY.getBytes("UTF-8"));
+        return formatHex(sha256Mac.doFinal()).toUpperCase();
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  HMAC-SHA512 of path and SHA-256 message hash as Base64, e.g. Kraken
+    // ------------------------------------------------------------------------------------------------
+
+    @Benchmark
+    public String hmacSha512WithSha256ToBase64() {
+        return sha512Signer.sign().update(PATH).updateWithSha256Of(Long.toString(++nonce) + POST_DATA).toBase64();
+    }
+
+    @Benchmark
+    public String hmacSha512WithSha256ToBase64Baseline() throws Exception {
+        final byte[] pathInBytes = PATH.getBytes("UTF-8");
+        final MessageDigest md = MessageDigest.getInstance("SHA-256");
+        md.update((Long.toString(++nonce) + POST_DATA).getBytes("UTF-8"));
+        final byte[] messageHash = md.digest();
+
+        sha512Mac.reset();
+        sha512Mac.update(pathInBytes);
+        sha512Mac.update(messageHash);
+        return Base64.getEncoder().encodeToString(sha512Mac.doFinal());
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  MD5 as hex, e.g. Huobi and OkCoin
+    // ------------------------------------------------------------------------------------------------
+
+    @Benchmark
+    public String md5ToHex() {
+        return RequestSigner.md5ToHexUpperCase(POST_DATA);
+    }
+
+    @Benchmark
+    public String md5ToHexBaseline() throws Exception {
+        final MessageDigest md = MessageDigest.getInstance("MD5");
+        md.update(POST_DATA.getBytes("UTF-8"));
+        return formatHex(md.digest()).toUpperCase();
+    }
+
+    private static String formatHex(byte[] bytes) {
+        final StringBuilder hexString = new StringBuilder();
+        for (final byte aByte : bytes) {
+            hexString.append(String.format("%02x", aByte & 0xff));
+        }
+        return hexString.toString();
+    }
+}
@@ -26,23 +26,51 @@ import com.gazbert.bxbot.exchange.api.AuthenticationConfig;
 import com.gazbert.bxbot.exchange.api.ExchangeConfig;
 import com.gazbert.bxbot.exchange.api.NetworkConfig;
 import com.gazbert.bxbot.exchange.api.OptionalConfig;
+import com.gazbert.bxbot.exchange.api.RateLimitConfig;
+import com.gazbert.bxbot.exchanges.RateLimiter.EndpointClass;
+import com.gazbert.bxbot.exchanges.RateLimiter.RequestPriority;
+import com.gazbert.bxbot.trading.api.AsyncTradingApi;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
 import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderRequest;
+import com.gazbert.bxbot.trading.api.OrderType;
 import com.gazbert.bxbot.trading.api.TradingApiException;
 import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.stream.JsonReader;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.*;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 /**
  * Base class for shared Exchange Adapter functionality.
+ * <p>
+ * It implements the {@link AsyncTradingApi} on top of the adapter's blocking Trading API calls. Market data calls run
+ * in parallel on a shared thread pool, each using its own pooled connection to the exchange. Authenticated calls are
+ * run one at a time, in the order they were made, so orders reach the exchange in the order the Trading Strategy
+ * placed them.
  *
  * @author gazbert
  * @since 1.0
  */
-abstract class AbstractExchangeAdapter {
+abstract class AbstractExchangeAdapter implements AsyncTradingApi {
 
     private static final Logger LOG = LogManager.getLogger();
 
@@ -61,6 +89,31 @@ abstract class AbstractExchangeAdapter {
      */
     private static final String IO_5XX_TIMEOUT_ERROR_MSG = "Failed to connect to Exchange due to 5xx timeout.";
 
+    /**
+     * Error message for logging when the Exchange cannot be found.
+     */
+    private static final String EXCHANGE_IS_DEAD_ERROR_MSG = "Failed to connect to Exchange. It's dead Jim!";
+
+    /**
+     * HTTP status codes at or above this value are error responses from the Exchange.
+     */
+    private static final int HTTP_ERROR_STATUS_CODE_THRESHOLD = 400;
+
+    /**
+     * HTTP Bad Request status code. Some exchanges return this when asked to cancel an order they do not recognise.
+     */
+    static final int HTTP_BAD_REQUEST_STATUS_CODE = 400;
+
+    /**
+     * HTTP Not Found status code. Some exchanges return this when asked for an order they have purged.
+     */
+    static final int HTTP_NOT_FOUND_STATUS_CODE = 404;
+
+    /**
+     * HTTP Gone status code.
+     */
+    private static final int HTTP_GONE_STATUS_CODE = 410;
+
     /**
      * Fatal error message for when AuthenticationConfig is missing in the exchange.xml config file.
      */
@@ -86,6 +139,21 @@ abstract class AbstractExchangeAdapter {
      */
     private static final String CONNECTION_TIMEOUT_PROPERTY_NAME = "connection-timeout";
 
+    /**
+     * Name of read timeout property in config file.
+     */
+    private static final String READ_TIMEOUT_PROPERTY_NAME = "read-timeout";
+
+    /**
+     * Name of connection pool size property in config file.
+     */
+    private static final String CONNECTION_POOL_SIZE_PROPERTY_NAME = "connection-pool-size";
+
+    /**
+     * Name of connection idle timeout property in config file.
+     */
+    private static final String CONNECTION_IDLE_TIMEOUT_PROPERTY_NAME = "connection-idle-timeout";
+
     /**
      * Name of non-fatal-error-codes property in config file.
      */
@@ -96,16 +164,88 @@ abstract class AbstractExchangeAdapter {
      */
     private static final String NON_FATAL_ERROR_MESSAGES_PROPERTY_NAME = "non-fatal-error-messages";
 
+    /**
+     * Name of rate-limits property in config file.
+     */
+    private static final String RATE_LIMITS_PROPERTY_NAME = "rate-limits";
+
+    /**
+     * Name of the optional config item that turns on the WebSocket order book feed.
+     */
+    private static final String ORDER_BOOK_FEED_PROPERTY_NAME = "order-book-feed";
+
     /**
      * Exchange Adapter config file location.
      */
     private static final String EXCHANGE_CONFIG_FILE = "config/exchange.xml";
 
+    /**
+     * Order book depth used by {@code getMarketOrders(marketId)}: the full order book, as sent by the exchange.
+     * Adapters must not pass a depth limit to the exchange for it.
+     */
+    static final int FULL_ORDER_BOOK_DEPTH = Integer.MAX_VALUE;
+
+    /**
+     * GSON instances shared by all adapters of the same type in the JVM, keyed by adapter class. GSON is thread safe
+     * once built, so bots hosted in the same JVM do not each need to build (and cache type adapters in) their own.
+     */
+    private static final ConcurrentMap<Class<?>, Gson> SHARED_GSON = new ConcurrentHashMap<>();
+
+    /**
+     * HTTP transports shared by all adapters in the JVM, keyed by network settings. Adapters with the same settings
+     * share a connection pool, so bots hosted in the same JVM reuse each other's keep-alive connections.
+     */
+    private static final ConcurrentMap<List<Integer>, ExchangeHttpTransport> SHARED_HTTP_TRANSPORTS =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Runs the async Trading API calls of all adapters in the JVM. The threads are daemons, so they never keep the JVM
+     * running after the Trading Engines have shut down.
+     */
+    private static final ExecutorService ASYNC_CALL_EXECUTOR = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("bxbot-exchange-async-%d").setDaemon(true).build());
+
     /**
      * The connection timeout in SECONDS for terminating hung connections to the exchange.
      */
     private int connectionTimeout;
 
+    /**
+     * The read timeout in SECONDS for terminating hung reads from the exchange. Defaults to the connection timeout.
+     */
+    private Integer readTimeout;
+
+    /**
+     * The maximum number of keep-alive connections to hold open to the exchange.
+     */
+    private int connectionPoolSize;
+
+    /**
+     * The time in SECONDS after which idle pooled connections to the exchange are closed.
+     */
+    private int connectionIdleTimeout;
+
+    /**
+     * The transport used to send requests to the exchange. Fetched from the shared transports on first use.
+     */
+    private volatile ExchangeHttpTransport httpTransport;
+
+    /**
+     * Keeps this adapter's requests inside the Exchange's rate limits. Null if no limits are configured.
+     * Shared by all the markets the adapter trades on.
+     */
+    private volatile RateLimiter rateLimiter;
+
+    /**
+     * Runs this adapter's authenticated async calls one at a time, in the order they were made.
+     */
+    private final Executor authenticatedCallExecutor = new BoundedExecutor(ASYNC_CALL_EXECUTOR, 1);
+
+    /**
+     * Shares in-flight public calls between concurrent callers making the same call.
+     */
+    private final SingleFlight publicCalls = new SingleFlight();
+
     /**
      * HTTP status codes for non-fatal network connection failures.
      * Used to decide to throw {@link ExchangeNetworkException}.
@@ -124,18 +264,149 @@ abstract class AbstractExchangeAdapter {
      */
     AbstractExchangeAdapter() {
         connectionTimeout = 30;
+        connectionPoolSize = 10;
+        connectionIdleTimeout = 30;
         nonFatalNetworkErrorCodes = new HashSet<>();
         nonFatalNetworkErrorMessages = new HashSet<>();
     }
 
+    // ------------------------------------------------------------------------------------------------
+    //  Async Trading API
+    // ------------------------------------------------------------------------------------------------
+
+    @Override
+    public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId) {
+        return callAsync(() -> getMarketOrders(marketId), ASYNC_CALL_EXECUTOR);
+    }
+
+    @Override
+    public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId, int depth) {
+        return callAsync(() -> getMarketOrders(marketId, depth), ASYNC_CALL_EXECUTOR);
+    }
+
+    @Override
+    public CompletableFuture<List<OpenOrder>> getYourOpenOrdersAsync(String marketId) {
+        return callAsync(() -> getYourOpenOrders(marketId), authenticatedCallExecutor);
+    }
+
+    @Override
+    public CompletableFuture<String> createOrderAsync(String marketId, OrderType orderType, BigDecimal quantity,
+                                                      BigDecimal price) {
+        return callAsync(() -> createOrder(marketId, orderType, quantity, price), authenticatedCallExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> cancelOrderAsync(String orderId, String marketId) {
+        return callAsync(() -> cancelOrder(orderId, marketId), authenticatedCallExecutor);
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getLatestMarketPriceAsync(String marketId) {
+        return callAsync(() -> getLatestMarketPrice(marketId), ASYNC_CALL_EXECUTOR);
+    }
+
+    @Override
+    public CompletableFuture<BalanceInfo> getBalanceInfoAsync() {
+        return callAsync(this::getBalanceInfo, authenticatedCallExecutor);
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getPercentageOfBuyOrderTakenForExchangeFeeAsync(String marketId) {
+        return callAsync(() -> getPercentageOfBuyOrderTakenForExchangeFee(marketId), authenticatedCallExecutor);
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getPercentageOfSellOrderTakenForExchangeFeeAsync(String marketId) {
+        return callAsync(() -> getPercentageOfSellOrderTakenForExchangeFee(marketId), authenticatedCallExecutor);
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Batch and replace Trading API
+    // ------------------------------------------------------------------------------------------------
+
+    /**
+     * Places the orders concurrently, so the batch takes about as long as the slowest order rather than the sum of
+     * them all. Adapters that sign requests with a nonce still send them one at a time, but without waiting for the
+     * calling thread between orders. Adapters for exchanges with a batch order endpoint override this method.
+     */
+    @Override
+    public List<String> createOrders(List<OrderRequest> orderRequests)
+            throws ExchangeNetworkException, TradingApiException {
+
+        final List<CompletableFuture<String>> orderIds = new ArrayList<>(orderRequests.size());
+        for (final OrderRequest orderRequest : orderRequests) {
+            orderIds.add(callAsync(() -> createOrder(orderRequest.getMarketId(), orderRequest.getType(),
+                    orderRequest.getQuantity(), orderRequest.getPrice()), ASYNC_CALL_EXECUTOR));
+        }
+        return awaitAll(orderIds, "createOrders");
+    }
+
+    /**
+     * Cancels the orders concurrently - see {@link #createOrders(List)}. Adapters for exchanges with a batch cancel
+     * endpoint override this method.
+     */
+    @Override
+    public List<String> cancelOrders(List<String> orderIds, String marketId)
+            throws ExchangeNetworkException, TradingApiException {
+
+        final List<CompletableFuture<Boolean>> cancellations = new ArrayList<>(orderIds.size());
+        for (final String orderId : orderIds) {
+            cancellations.add(callAsync(() -> cancelOrder(orderId, marketId), ASYNC_CALL_EXECUTOR));
+        }
+        final List<Boolean> cancelled = awaitAll(cancellations, "cancelOrders");
+
+        final List<String> cancelledOrderIds = new ArrayList<>(orderIds.size());
+        for (int i = 0; i < orderIds.size(); i++) {
+            if (Boolean.TRUE.equals(cancelled.get(i))) {
+                cancelledOrderIds.add(orderIds.get(i));
+            }
+        }
+        return cancelledOrderIds;
+    }
+
+    /**
+     * Queues the cancel and the new order back to back on the executor that sends this adapter's authenticated calls,
+     * so the cancel always reaches the exchange first and the new order follows it without a round trip to the calling
+     * thread. The new order is only sent if the old one was cancelled, by which time an exchange that reserves funds for
+     * open orders has released them. If the old order was cancelled but the new one could not be placed, that failure
+     * is thrown and neither order is left on the exchange. Adapters for exchanges with a cancel-replace endpoint
+     * override this method.
+     * <p>
+     * Do not call this from a callback of one of this adapter's async calls: it waits on the executor those callbacks
+     * run on.
+     */
+    @Override
+    public String replaceOrder(String orderId, String marketId, OrderType orderType, BigDecimal newQuantity,
+                               BigDecimal newPrice) throws ExchangeNetworkException, TradingApiException {
+
+        final CompletableFuture<Boolean> cancellation =
+                callAsync(() -> cancelOrder(orderId, marketId), authenticatedCallExecutor);
+
+        // The executor runs one call at a time, so the cancel has completed by the time this call runs
+        final CompletableFuture<String> newOrder = callAsync(() ->
+                !cancellation.isCompletedExceptionally() && cancellation.getNow(false)
+                        ? createOrder(marketId, orderType, newQuantity, newPrice)
+                        : null, authenticatedCallExecutor);
+
+        if (!AsyncTradingApi.await(cancellation, "replaceOrder")) {
+            return null;
+        }
+        return AsyncTradingApi.await(newOrder, "replaceOrder");
+    }
+
     /**
      * Makes a request to the Exchange.
+     * <p>
+     * The response payload is streamed from the connection; callers must close the response once they have decoded
+     * it, typically with a try-with-resources block around {@link ExchangeHttpResponse#decodePayload(Gson, Type)}.
+     * The payload is only captured as a String when DEBUG logging is enabled for this class, or when the Exchange
+     * returns an error status.
      *
      * @param url            the URL to invoke.
      * @param postData       optional post data to send. This can be null.
      * @param httpMethod     the HTTP method to use, e.g. GET, POST, DELETE
-     * @param requestHeaders optional request headers to set on the {@link URLConnection} used to invoke the Exchange.
-     * @return the response from the Exchange.
+     * @param requestHeaders optional request headers to send to the Exchange.
+     * @return the streamed response from the Exchange.
      * @throws ExchangeNetworkException if a network error occurred trying to connect to the exchange.
      *                                  This exception allows for recovery from temporary network issues.
      * @throws TradingApiException      if the API call failed for any reason other than a network error. This means something
@@ -144,54 +415,11 @@ abstract class AbstractExchangeAdapter {
     ExchangeHttpResponse sendNetworkRequest(URL url, String httpMethod, String postData, Map<String, String> requestHeaders)
             throws TradingApiException, ExchangeNetworkException {
 
-        HttpURLConnection exchangeConnection = null;
-        final StringBuilder exchangeResponse = new StringBuilder();
-
+        final ExchangeHttpResponse exchangeResponse;
         try {
 
             LOG.debug(() -> "Using following URL for API call: " + url);
-
-            exchangeConnection = (HttpURLConnection) url.openConnection();
-            exchangeConnection.setUseCaches(false);
-            exchangeConnection.setDoOutput(true);
-            exchangeConnection.setRequestMethod(httpMethod); // GET|POST|DELETE
-
-            // Er, perhaps, I need to be a bit more stealth here... this was needed for some exchanges back in the day!
-            exchangeConnection.setRequestProperty("User-Agent",
-                    "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/60.0.3112.78 Safari/537.36");
-
-            if (requestHeaders != null) {
-                for (final Map.Entry<String, String> requestHeader : requestHeaders.entrySet()) {
-                    exchangeConnection.setRequestProperty(requestHeader.getKey(), requestHeader.getValue());
-                    LOG.debug(() -> "Setting following request header: " + requestHeader);
-                }
-            }
-
-            // Add a timeout so we don't get blocked indefinitely; timeout on URLConnection is in millis.
-            final int timeoutInMillis = connectionTimeout * 1000;
-            exchangeConnection.setConnectTimeout(timeoutInMillis);
-            exchangeConnection.setReadTimeout(timeoutInMillis);
-
-            if (httpMethod.equalsIgnoreCase("POST") && postData != null) {
-                LOG.debug(() -> "Doing POST with request body: " + postData);
-                final OutputStreamWriter outputPostStream = new OutputStreamWriter(exchangeConnection.getOutputStream(), "UTF-8");
-                outputPostStream.write(postData);
-                outputPostStream.close();
-            }
-
-            // Grab the response - we just block here as per Connection API
-            final BufferedReader responseInputStream = new BufferedReader(new InputStreamReader(
-                    exchangeConnection.getInputStream(), "UTF-8"));
-
-            // Read the JSON response lines into our response buffer
-            String responseLine;
-            while ((responseLine = responseInputStream.readLine()) != null) {
-                exchangeResponse.append(responseLine);
-            }
-            responseInputStream.close();
-
-            return new ExchangeHttpResponse(exchangeConnection.getResponseCode(), exchangeConnection.getResponseMessage(),
-                    exchangeResponse.toString());
+            exchangeResponse = getHttpTransport().open(url, httpMethod, postData, requestHeaders);
 
         } catch (MalformedURLException e) {
             final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
@@ -203,61 +431,108 @@ abstract class AbstractExchangeAdapter {
             LOG.error(errorMsg, e);
             throw new ExchangeNetworkException(errorMsg, e);
 
-        } catch (FileNotFoundException | UnknownHostException e) {
-            // Huobi started throwing FileNotFoundException as of 8 Nov 2015 :-/
+        } catch (UnknownHostException e) {
             // EC2 started throwing UnknownHostException for BTC-e, GDAX, as of 14 July 2016 :-/
-            final String errorMsg = "Failed to connect to Exchange. It's dead Jim!";
+            final String errorMsg = EXCHANGE_IS_DEAD_ERROR_MSG;
             LOG.error(errorMsg, e);
             throw new ExchangeNetworkException(errorMsg, e);
 
         } catch (IOException e) {
 
             // Check if this is a non-fatal network error
-            try {
-
-                if (e.getMessage() != null && nonFatalNetworkErrorMessages.contains(e.getMessage())) {
-
-                    final String errorMsg = "Failed to connect to Exchange. SSL Connection was refused or reset by the server.";
-                    LOG.error(errorMsg, e);
-                    throw new ExchangeNetworkException(errorMsg, e);
-
-                } else if (exchangeConnection != null && nonFatalNetworkErrorCodes.contains(exchangeConnection.getResponseCode())) {
+            if (e.getMessage() != null && nonFatalNetworkErrorMessages.contains(e.getMessage())) {
+                final String errorMsg = "Failed to connect to Exchange. SSL Connection was refused or reset by the server.";
+                LOG.error(errorMsg, e);
+                throw new ExchangeNetworkException(errorMsg, e);
+            }
 
-                    final String errorMsg = IO_5XX_TIMEOUT_ERROR_MSG;
-                    LOG.error(errorMsg, e);
-                    throw new ExchangeNetworkException(errorMsg, e);
+            final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
+            LOG.error(errorMsg, e);
+            throw new TradingApiException(errorMsg, e);
+        }
 
-                } else {
-                    String errorMsg = UNEXPECTED_IO_ERROR_MSG;
-
-                    // Check for any clue in the response...
-                    if (exchangeConnection != null) {
-                        final InputStream rawErrorStream = exchangeConnection.getErrorStream();
-                        if (rawErrorStream != null) {
-                            final BufferedReader errorInputStream = new BufferedReader(new InputStreamReader(rawErrorStream, "UTF-8"));
-                            final StringBuilder errorResponse = new StringBuilder();
-                            String errorLine;
-                            while ((errorLine = errorInputStream.readLine()) != null) {
-                                errorResponse.append(errorLine);
-                            }
-                            errorInputStream.close();
-                            errorMsg += " ErrorStream Response: " + errorResponse;
-                        }
-                    }
-                    LOG.error(errorMsg, e);
-                    throw new TradingApiException(errorMsg, e);
-                }
-            } catch (IOException e1) {
+        final int statusCode = exchangeResponse.getStatusCode();
+        if (statusCode >= HTTP_ERROR_STATUS_CODE_THRESHOLD) {
+            try {
+                // Capture the error response so it can be logged
+                exchangeResponse.getPayload();
+            } finally {
+                exchangeResponse.close();
+            }
 
-                final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
-                LOG.error(errorMsg, e1);
-                throw new TradingApiException(errorMsg, e1);
+            if (nonFatalNetworkErrorCodes.contains(statusCode)) {
+                final String errorMsg = IO_5XX_TIMEOUT_ERROR_MSG + " " + exchangeResponse;
+                LOG.error(errorMsg);
+                throw new ExchangeNetworkException(errorMsg);
+
+            } else if (statusCode == HTTP_NOT_FOUND_STATUS_CODE || statusCode == HTTP_GONE_STATUS_CODE) {
+                // Huobi started returning 404s as of 8 Nov 2015 :-/
+                // The status is kept as the cause, so an adapter can still tell an expected 404 - see isHttpErrorStatus.
+                final String errorMsg = EXCHANGE_IS_DEAD_ERROR_MSG + " " + exchangeResponse;
+                LOG.error(errorMsg);
+                throw new ExchangeNetworkException(errorMsg, new ExchangeHttpStatusException(errorMsg, statusCode));
+
+            } else {
+                // Check for any clue in the response...
+                final String errorMsg = UNEXPECTED_IO_ERROR_MSG + " HTTP Status: " + statusCode
+                        + " ErrorStream Response: " + exchangeResponse.getPayload();
+                LOG.error(errorMsg);
+                throw new ExchangeHttpStatusException(errorMsg, statusCode);
             }
-        } finally {
-            if (exchangeConnection != null) {
-                exchangeConnection.disconnect();
+        }
+
+        if (LOG.isDebugEnabled()) {
+            try {
+                LOG.debug("Response from Exchange: " + exchangeResponse.getPayload());
+            } catch (ExchangeNetworkException e) {
+                exchangeResponse.close();
+                throw e;
             }
         }
+        return exchangeResponse;
+    }
+
+    /**
+     * Checks if an API call failed because the Exchange answered it with the given HTTP error status.
+     * <p>
+     * A 404 or 410 is thrown as an {@link ExchangeNetworkException}, with the status as its cause; any other error status
+     * is thrown as an {@link ExchangeHttpStatusException}. Both are checked here.
+     *
+     * @param e          the exception thrown by the API call.
+     * @param statusCode the HTTP status code to check for.
+     * @return true if the Exchange returned the given status, false otherwise.
+     */
+    static boolean isHttpErrorStatus(Exception e, int statusCode) {
+        final Throwable statusError = e instanceof ExchangeNetworkException ? e.getCause() : e;
+        return statusError instanceof ExchangeHttpStatusException
+                && ((ExchangeHttpStatusException) statusError).getStatusCode() == statusCode;
+    }
+
+    /**
+     * Makes a public API call, sharing it with any concurrent callers that pass the same key - see
+     * {@link SingleFlight}. Only use this for calls that do not change anything on the exchange.
+     *
+     * @param key  identifies the call, e.g. the API method and market id.
+     * @param call makes the call.
+     * @param <T>  the type of the result.
+     * @return the result of the call. It is shared with the other callers, so must not be changed.
+     * @throws ExchangeNetworkException if a network error occurred trying to connect to the exchange.
+     * @throws TradingApiException      if the API call failed for any reason other than a network error.
+     */
+    <T> T coalescePublicCall(String key, TradingApiCall<T> call) throws ExchangeNetworkException, TradingApiException {
+        return publicCalls.call(key, call);
+    }
+
+    /**
+     * Creates a schedule to hold the adapter's exchange fees in memory - see {@link FeeSchedule}. The fees are
+     * refreshed on the thread that runs this adapter's authenticated async calls, so refreshes are sent in order with
+     * them.
+     *
+     * @param feeLoader loads the fees for all markets from the exchange.
+     * @return the fee schedule.
+     */
+    FeeSchedule createFeeSchedule(FeeSchedule.FeeLoader feeLoader) {
+        return new FeeSchedule(feeLoader, authenticatedCallExecutor);
     }
 
     /**
@@ -283,6 +558,29 @@ abstract class AbstractExchangeAdapter {
         }
         LOG.info(() -> CONNECTION_TIMEOUT_PROPERTY_NAME + ": " + connectionTimeout);
 
+        final Integer readTimeoutFromConfig = networkConfig.getReadTimeout();
+        if (readTimeoutFromConfig != null) {
+            readTimeout = assertPositive(READ_TIMEOUT_PROPERTY_NAME, readTimeoutFromConfig, exchangeConfig);
+        }
+        LOG.info(() -> READ_TIMEOUT_PROPERTY_NAME + ": " + getReadTimeout());
+
+        final Integer connectionPoolSizeFromConfig = networkConfig.getConnectionPoolSize();
+        if (connectionPoolSizeFromConfig != null) {
+            connectionPoolSize = assertPositive(CONNECTION_POOL_SIZE_PROPERTY_NAME, connectionPoolSizeFromConfig,
+                    exchangeConfig);
+        }
+        LOG.info(() -> CONNECTION_POOL_SIZE_PROPERTY_NAME + ": " + connectionPoolSize);
+
+        final Integer connectionIdleTimeoutFromConfig = networkConfig.getConnectionIdleTimeout();
+        if (connectionIdleTimeoutFromConfig != null) {
+            connectionIdleTimeout = assertPositive(CONNECTION_IDLE_TIMEOUT_PROPERTY_NAME,
+                    connectionIdleTimeoutFromConfig, exchangeConfig);
+        }
+        LOG.info(() -> CONNECTION_IDLE_TIMEOUT_PROPERTY_NAME + ": " + connectionIdleTimeout);
+
+        // Settings may have changed, so pick up the matching transport on next request
+        httpTransport = null;
+
         final List<Integer> nonFatalErrorCodesFromConfig = networkConfig.getNonFatalErrorCodes();
         if (nonFatalErrorCodesFromConfig != null) {
             nonFatalNetworkErrorCodes.addAll(nonFatalErrorCodesFromConfig);
@@ -294,6 +592,47 @@ abstract class AbstractExchangeAdapter {
             nonFatalNetworkErrorMessages.addAll(nonFatalErrorMessagesFromConfig);
         }
         LOG.info(() -> NON_FATAL_ERROR_MESSAGES_PROPERTY_NAME + ": " + nonFatalNetworkErrorMessages);
+
+        final List<RateLimitConfig> rateLimitsFromConfig = networkConfig.getRateLimits();
+        RateLimiter rateLimiterFromConfig = null;
+        if (rateLimitsFromConfig != null && !rateLimitsFromConfig.isEmpty()) {
+            rateLimiterFromConfig = new RateLimiter();
+            for (final RateLimitConfig rateLimit : rateLimitsFromConfig) {
+                rateLimiterFromConfig.addLimit(
+                        toEndpointClass(rateLimit.getEndpointClass(), exchangeConfig),
+                        assertPositive(RATE_LIMITS_PROPERTY_NAME + " requests", rateLimit.getRequests(), exchangeConfig),
+                        assertPositive(RATE_LIMITS_PROPERTY_NAME + " period", rateLimit.getPeriod(), exchangeConfig));
+            }
+        }
+        rateLimiter = rateLimiterFromConfig;
+        LOG.info(() -> RATE_LIMITS_PROPERTY_NAME + ": " + rateLimiter);
+    }
+
+    /**
+     * Waits until the configured rate limits allow a request to be sent to the exchange. Returns immediately if no
+     * limits are configured.
+     * <p>
+     * Adapters call this before they build a request, not just before they send it: an authenticated request must
+     * take its nonce after any higher priority request that overtook it in the queue.
+     *
+     * @param priority the priority of the request.
+     * @throws ExchangeNetworkException if the thread is interrupted while waiting. The interrupt status is restored.
+     */
+    void awaitRateLimit(RequestPriority priority) throws ExchangeNetworkException {
+
+        final RateLimiter limiter = rateLimiter;
+        if (limiter == null) {
+            return;
+        }
+
+        try {
+            limiter.acquire(priority);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final String errorMsg = "Interrupted while waiting for Exchange rate limit.";
+            LOG.error(errorMsg, e);
+            throw new ExchangeNetworkException(errorMsg, e);
+        }
     }
 
     /**
@@ -363,6 +702,22 @@ abstract class AbstractExchangeAdapter {
         return assertItemExists(itemName, itemValue);
     }
 
+    /**
+     * Checks if the adapter should stream its order books from the exchange's WebSocket feed.
+     *
+     * @param optionalConfig the optional config for the adapter; can be null.
+     * @return true if the order-book-feed item is set to true, false otherwise.
+     */
+    boolean isOrderBookFeedEnabled(OptionalConfig optionalConfig) {
+
+        if (optionalConfig == null) {
+            return false;
+        }
+        final String itemValue = optionalConfig.getItem(ORDER_BOOK_FEED_PROPERTY_NAME);
+        LOG.info(() -> ORDER_BOOK_FEED_PROPERTY_NAME + ": " + itemValue);
+        return Boolean.parseBoolean(itemValue);
+    }
+
     /**
      * Sorts the request params alphabetically (uses natural ordering) and returns them as a query string.
      *
@@ -386,19 +741,150 @@ abstract class AbstractExchangeAdapter {
         return sortedQueryString.toString();
     }
 
+    /**
+     * Checks the order book depth asked for by a Trading Strategy.
+     *
+     * @param depth the number of price levels to fetch on each side of the order book.
+     * @return the depth.
+     * @throws IllegalArgumentException if the depth is less than 1.
+     */
+    static int assertValidOrderBookDepth(int depth) {
+        if (depth < 1) {
+            final String errorMsg = "Order book depth must be greater than 0: " + depth;
+            LOG.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+        return depth;
+    }
+
+    /**
+     * Returns the first price levels of one side of an order book, so adapters only build Market Orders for the levels
+     * that were asked for.
+     *
+     * @param levels the price levels sent by the exchange, best price first.
+     * @param depth  the number of price levels wanted.
+     * @param <T>    the exchange's price level type.
+     * @return a view of the first levels.
+     */
+    static <T> List<T> firstLevels(List<T> levels, int depth) {
+        return levels.size() > depth ? levels.subList(0, depth) : levels;
+    }
+
+    /**
+     * Returns the first price levels of one side of an order book, so adapters only build Market Orders for the levels
+     * that were asked for.
+     *
+     * @param levels the price levels sent by the exchange, best price first.
+     * @param depth  the number of price levels wanted.
+     * @param <T>    the exchange's price level type.
+     * @return a view of the first levels.
+     */
+    static <T> List<T> firstLevels(T[] levels, int depth) {
+        return firstLevels(Arrays.asList(levels), depth);
+    }
+
+    /**
+     * Returns the GSON instance shared by all adapters of this type, building it on first use.
+     *
+     * @param gsonFactory builds the GSON instance for this type of adapter. Any type adapters it registers must be
+     *                    thread safe.
+     * @return the shared GSON instance.
+     */
+    Gson getSharedGson(Supplier<Gson> gsonFactory) {
+        return SHARED_GSON.computeIfAbsent(getClass(), adapterClass -> gsonFactory.get());
+    }
+
+    /**
+     * Plugs in the transport used to send requests to the exchange, replacing the shared pooled transport. Call this
+     * after the network config has been set.
+     *
+     * @param httpTransport the transport to use.
+     */
+    void setHttpTransport(ExchangeHttpTransport httpTransport) {
+        this.httpTransport = httpTransport;
+    }
+
+    /**
+     * Returns the transport used to send requests to the exchange. Unless one has been plugged in, this is the pooled
+     * transport shared by all adapters in the JVM with the same network settings.
+     *
+     * @return the HTTP transport.
+     */
+    ExchangeHttpTransport getHttpTransport() {
+        ExchangeHttpTransport transport = httpTransport;
+        if (transport == null) {
+            final int transportReadTimeout = getReadTimeout();
+            final List<Integer> settings =
+                    Arrays.asList(connectionTimeout, transportReadTimeout, connectionPoolSize, connectionIdleTimeout);
+            transport = SHARED_HTTP_TRANSPORTS.computeIfAbsent(settings, key -> new PooledHttpTransport(
+                    connectionTimeout, transportReadTimeout, connectionPoolSize, connectionIdleTimeout));
+            httpTransport = transport;
+        }
+        return transport;
+    }
+
     /**
      * Wrapper for holding Exchange HTTP response.
+     * <p>
+     * The payload is either held as a String, or streamed from the open connection to the Exchange. A streamed
+     * response must be closed once it has been read, so the connection can be handed back to the pool; use
+     * {@link #decodePayload(Gson, Type)} to build the response objects straight from the stream.
+     * {@link #getPayload()} reads a streamed payload into a String.
+     * <p>
+     * When DEBUG logging is enabled, or the Exchange returned an error status, the start of a streamed payload is kept
+     * as it is read, so {@link #toString()} can still show the Exchange's response after it has been decoded. Otherwise
+     * nothing is kept, and {@link #toString()} only says the payload was not captured.
+     * <p>
+     * A response is read by the thread that made the request; it is not thread safe.
      */
-    static class ExchangeHttpResponse {
+    static class ExchangeHttpResponse implements Closeable {
+
+        /**
+         * How much of a streamed payload is kept for {@link #toString()}.
+         */
+        private static final int MAX_LOGGED_PAYLOAD_LENGTH = 4096;
+
+        /**
+         * Shown by {@link #toString()} in place of a streamed payload that was not kept.
+         */
+        private static final String PAYLOAD_NOT_CAPTURED = "<streamed payload not captured - enable DEBUG logging>";
 
         private final int statusCode;
         private final String reasonPhrase;
-        private final String payload;
+        private final Reader payloadReader;
+        private final PayloadPrefixReader payloadPrefixReader;
+        private final Closeable connection;
+        private String payload;
+        private boolean closed;
 
         ExchangeHttpResponse(int statusCode, String reasonPhrase, String payload) {
             this.statusCode = statusCode;
             this.reasonPhrase = reasonPhrase;
             this.payload = payload;
+            this.payloadReader = null;
+            this.payloadPrefixReader = null;
+            this.connection = null;
+        }
+
+        /**
+         * Creates a streamed response.
+         *
+         * @param statusCode    the HTTP status code.
+         * @param reasonPhrase  the HTTP reason phrase.
+         * @param payloadReader reads the payload from the open connection.
+         * @param connection    closed, releasing the connection, when the response is closed.
+         */
+        ExchangeHttpResponse(int statusCode, String reasonPhrase, Reader payloadReader, Closeable connection) {
+            this.statusCode = statusCode;
+            this.reasonPhrase = reasonPhrase;
+            if (LOG.isDebugEnabled() || statusCode >= HTTP_ERROR_STATUS_CODE_THRESHOLD) {
+                this.payloadPrefixReader = new PayloadPrefixReader(payloadReader, MAX_LOGGED_PAYLOAD_LENGTH);
+                this.payloadReader = payloadPrefixReader;
+            } else {
+                this.payloadPrefixReader = null;
+                this.payloadReader = payloadReader;
+            }
+            this.connection = connection;
         }
 
         String getReasonPhrase() {
@@ -409,24 +895,235 @@ abstract class AbstractExchangeAdapter {
             return statusCode;
         }
 
-        String getPayload() {
+        /**
+         * Returns the payload, reading it from the stream (and closing the response) if it has not been read yet.
+         *
+         * @return the payload.
+         * @throws ExchangeNetworkException if the payload could not be read from the stream.
+         */
+        String getPayload() throws ExchangeNetworkException {
+            try {
+                return readPayload();
+            } catch (IOException e) {
+                final String errorMsg = "Failed to read response from Exchange.";
+                LOG.error(errorMsg, e);
+                throw new ExchangeNetworkException(errorMsg, e);
+            }
+        }
+
+        /**
+         * Returns the payload, reading it from the stream (and closing the response) if it has not been read yet.
+         *
+         * @return the payload.
+         * @throws IOException if the payload could not be read from the stream.
+         */
+        String readPayload() throws IOException {
+            if (payload == null && payloadReader != null) {
+                try (BufferedReader responseReader = new BufferedReader(payloadReader)) {
+
+                    // Read the JSON response lines into our response buffer
+                    final StringBuilder responseBuffer = new StringBuilder();
+                    String responseLine;
+                    while ((responseLine = responseReader.readLine()) != null) {
+                        responseBuffer.append(responseLine);
+                    }
+                    payload = responseBuffer.toString();
+                } finally {
+                    close();
+                }
+            }
             return payload;
         }
 
+        /**
+         * Decodes the JSON payload into the given type. A streamed payload is decoded as it is read from the
+         * connection, without building an intermediate String; the response is closed afterwards.
+         *
+         * @param gson the GSON instance to decode with.
+         * @param type the type to decode.
+         * @param <T>  the type to decode.
+         * @return the decoded payload.
+         * @throws ExchangeNetworkException if the payload could not be read from the stream.
+         * @throws com.google.gson.JsonParseException if the payload is not valid JSON for the type.
+         */
+        <T> T decodePayload(Gson gson, Type type) throws ExchangeNetworkException {
+            if (payload != null || payloadReader == null) {
+                return gson.fromJson(payload, type);
+            }
+            try {
+                return gson.fromJson(new JsonReader(payloadReader), type);
+            } catch (JsonIOException e) {
+                final String errorMsg = "Failed to read response from Exchange.";
+                LOG.error(errorMsg, e);
+                throw new ExchangeNetworkException(errorMsg, e);
+            } finally {
+                close();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (connection != null && !closed) {
+                closed = true;
+                try {
+                    connection.close();
+                } catch (IOException e) {
+                    LOG.warn("Failed to release connection to Exchange.", e);
+                }
+            }
+        }
+
         @Override
         public String toString() {
             return MoreObjects.toStringHelper(this)
                     .add("statusCode", statusCode)
                     .add("reasonPhrase", reasonPhrase)
-                    .add("payload", payload)
+                    .add("payload", getLoggablePayload())
                     .toString();
         }
+
+        private String getLoggablePayload() {
+            if (payload != null || payloadReader == null) {
+                return payload;
+            }
+            return payloadPrefixReader != null ? payloadPrefixReader.getPrefix() : PAYLOAD_NOT_CAPTURED;
+        }
+    }
+
+    /**
+     * Keeps the first characters read from a streamed payload, so they can be logged once it has been decoded.
+     */
+    private static final class PayloadPrefixReader extends FilterReader {
+
+        private final int maxPrefixLength;
+        private final StringBuilder prefix = new StringBuilder();
+        private boolean truncated;
+
+        PayloadPrefixReader(Reader payloadReader, int maxPrefixLength) {
+            super(payloadReader);
+            this.maxPrefixLength = maxPrefixLength;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int c = super.read();
+            if (c != -1) {
+                if (prefix.length() < maxPrefixLength) {
+                    prefix.append((char) c);
+                } else {
+                    truncated = true;
+                }
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            final int charsRead = super.read(buffer, offset, length);
+            if (charsRead > 0) {
+                keep(buffer, offset, charsRead);
+            }
+            return charsRead;
+        }
+
+        String getPrefix() {
+            return truncated ? prefix + "..." : prefix.toString();
+        }
+
+        private void keep(char[] buffer, int offset, int length) {
+            final int charsToKeep = Math.min(length, maxPrefixLength - prefix.length());
+            if (charsToKeep > 0) {
+                prefix.append(buffer, offset, charsToKeep);
+            }
+            if (charsToKeep < length) {
+                truncated = true;
+            }
+        }
     }
 
     // ------------------------------------------------------------------------------------------------
     //  Util methods
     // ------------------------------------------------------------------------------------------------
 
+    private static <T> CompletableFuture<T> callAsync(TradingApiCall<T> call, Executor executor) {
+
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(call.call());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            LOG.error("Failed to submit async Trading API call", e);
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Waits for all the calls to complete, then returns their results in the same order. If any call failed, the
+     * first failure in list order is thrown instead.
+     */
+    private static <T> List<T> awaitAll(List<CompletableFuture<T>> calls, String callName)
+            throws ExchangeNetworkException, TradingApiException {
+
+        awaitCompletion(CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[calls.size()])), callName);
+
+        final List<T> results = new ArrayList<>(calls.size());
+        for (final CompletableFuture<T> call : calls) {
+            results.add(AsyncTradingApi.await(call, callName));
+        }
+        return results;
+    }
+
+    /**
+     * Waits for the call to complete, without throwing its failure.
+     */
+    private static void awaitCompletion(CompletableFuture<?> call, String callName) throws ExchangeNetworkException {
+        try {
+            call.get();
+        } catch (ExecutionException e) {
+            // the caller decides what to do with the failure
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final String errorMsg = "Interrupted while waiting for " + callName + " to complete";
+            LOG.error(errorMsg, e);
+            throw new ExchangeNetworkException(errorMsg, e);
+        }
+    }
+
+    int getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    int getReadTimeout() {
+        return readTimeout != null ? readTimeout : connectionTimeout;
+    }
+
+    private static int assertPositive(String propertyName, int value, ExchangeConfig exchangeConfig) {
+        if (value < 1) {
+            final String errorMsg = propertyName + " must be greater than 0." + exchangeConfig;
+            LOG.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+        return value;
+    }
+
+    private static EndpointClass toEndpointClass(String endpointClass, ExchangeConfig exchangeConfig) {
+        for (final EndpointClass candidate : EndpointClass.values()) {
+            if (candidate.name().equalsIgnoreCase(endpointClass)) {
+                return candidate;
+            }
+        }
+        final String errorMsg = RATE_LIMITS_PROPERTY_NAME + " endpoint-class must be one of 'all', 'public', or "
+                + "'private'." + exchangeConfig;
+        LOG.error(errorMsg);
+        throw new IllegalArgumentException(errorMsg);
+    }
+
     private static String assertItemExists(String itemName, String itemValue) {
         if (itemValue == null || itemValue.length() == 0) {
             final String errorMsg = itemName + CONFIG_IS_NULL_OR_ZERO_LENGTH + EXCHANGE_CONFIG_FILE + " ?";
@@ -435,4 +1132,9 @@ abstract class AbstractExchangeAdapter {
         }
         return itemValue;
     }
+
+    @FunctionalInterface
+    interface TradingApiCall<T> {
+        T call() throws ExchangeNetworkException, TradingApiException;
+    }
 }
@@ -26,6 +26,8 @@ package com.gazbert.bxbot.exchanges;
 import com.gazbert.bxbot.exchange.api.AuthenticationConfig;
 import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
 import com.gazbert.bxbot.exchange.api.ExchangeConfig;
+import com.gazbert.bxbot.exchanges.RateLimiter.RequestPriority;
+import com.gazbert.bxbot.exchanges.RequestSigner.HmacAlgorithm;
 import com.gazbert.bxbot.trading.api.*;
 import com.google.common.base.MoreObjects;
 import com.google.gson.Gson;
@@ -33,14 +35,10 @@ import com.google.gson.GsonBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import javax.xml.bind.DatatypeConverter;
 import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLConnection;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.text.DecimalFormat;
@@ -71,9 +69,10 @@ import java.util.*;
  * This adapter will use the <em>Taker</em> fees to keep things simple for now.
  * </p>
  * <p>
- * The Exchange Adapter is <em>not</em> thread safe. It expects to be called using a single thread in order to
- * preserve trade execution order. The {@link URLConnection} achieves this by blocking/waiting on the input stream
- * (response) for each API call.
+ * The Exchange Adapter is thread safe, so Trading Strategies running on different threads can share it. Authenticated
+ * calls take their nonce and are sent one at a time, in the order they were made, because the exchange rejects a nonce
+ * that arrives after a later one; public calls run in parallel. Calls made on a single thread keep their trade
+ * execution order: the {@link ExchangeHttpTransport} blocks/waits on the response for each API call.
  * </p>
  * <p>
  * The {@link TradingApi} calls will throw a {@link ExchangeNetworkException} if a network error occurs trying to
@@ -123,9 +122,9 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
     private static final String SECRET_PROPERTY_NAME = "secret";
 
     /**
-     * Nonce used for sending authenticated messages to the exchange.
+     * Nonces used for sending authenticated messages to the exchange.
      */
-    private long nonce = 0;
+    private final NonceSequence nonceSequence = new NonceSequence();
 
     /**
      * Used to indicate if we have initialised the MAC authentication protocol.
@@ -143,16 +142,26 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
     private String secret = "";
 
     /**
-     * Provides the "Message Authentication Code" (MAC) algorithm used for the secure messaging layer.
+     * Signs requests using the "Message Authentication Code" (MAC) algorithm for the secure messaging layer.
      * Used to encrypt the hash of the entire message with the private key to ensure message integrity.
      */
-    private Mac mac;
+    private RequestSigner requestSigner;
 
     /**
      * GSON engine used for parsing JSON in Bitfinex API call responses.
      */
     private Gson gson;
 
+    /**
+     * Streams the order books from the Bitfinex WebSocket feed; null unless order-book-feed is set in the config.
+     */
+    private OrderBookFeed orderBookFeed;
+
+    /**
+     * Holds the exchange fees in memory.
+     */
+    private final FeeSchedule feeSchedule = createFeeSchedule(this::loadExchangeFees);
+
 
     @Override
     public void init(ExchangeConfig config) {
@@ -160,8 +169,10 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
         LOG.info(() -> "About to initialise Bitfinex ExchangeConfig: " + config);
         setAuthenticationConfig(config);
         setNetworkConfig(config);
+        setOptionalConfig(config);
 
-        nonce = System.currentTimeMillis() / 1000; // set the initial nonce used in the secure messaging.
+        // set the initial nonce used in the secure messaging.
+        nonceSequence.advanceTo(System.currentTimeMillis() / 1000);
         initSecureMessageLayer();
         initGson();
     }
@@ -173,34 +184,58 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
 
     @Override
     public MarketOrderBook getMarketOrders(String marketId) throws TradingApiException, ExchangeNetworkException {
+        return getMarketOrders(marketId, FULL_ORDER_BOOK_DEPTH);
+    }
+
+    @Override
+    public MarketOrderBook getMarketOrders(String marketId, int depth) throws TradingApiException,
+            ExchangeNetworkException {
+        return coalescePublicCall("getMarketOrders/" + marketId + "/" + depth,
+                () -> fetchMarketOrders(marketId, depth));
+    }
+
+    private MarketOrderBook fetchMarketOrders(String marketId, int depth) throws TradingApiException,
+            ExchangeNetworkException {
 
         try {
-            final ExchangeHttpResponse response = sendPublicRequestToExchange("book/" + marketId);
-            LOG.debug(() -> "Market Orders response: " + response);
-
-            final BitfinexOrderBook orderBook = gson.fromJson(response.getPayload(), BitfinexOrderBook.class);
-
-            final List<MarketOrder> buyOrders = new ArrayList<>();
-            for (BitfinexMarketOrder bitfinexBuyOrder : orderBook.bids) {
-                final MarketOrder buyOrder = new MarketOrder(
-                        OrderType.BUY,
-                        bitfinexBuyOrder.price,
-                        bitfinexBuyOrder.amount,
-                        bitfinexBuyOrder.price.multiply(bitfinexBuyOrder.amount));
-                buyOrders.add(buyOrder);
+            assertValidOrderBookDepth(depth);
+            if (orderBookFeed != null) {
+                final MarketOrderBook streamedOrderBook = orderBookFeed.getMarketOrders(marketId, depth);
+                if (streamedOrderBook != null) {
+                    return streamedOrderBook;
+                }
             }
+            // Only ask the exchange for the price levels we need
+            final String depthLimit = depth == FULL_ORDER_BOOK_DEPTH
+                    ? "" : "?limit_bids=" + depth + "&limit_asks=" + depth;
+
+            try (ExchangeHttpResponse response = sendPublicRequestToExchange("book/" + marketId + depthLimit)) {
+                LOG.debug(() -> "Market Orders response: " + response);
+
+                final BitfinexOrderBook orderBook = response.decodePayload(gson, BitfinexOrderBook.class);
+
+                final List<MarketOrder> buyOrders = new ArrayList<>();
+                for (BitfinexMarketOrder bitfinexBuyOrder : firstLevels(orderBook.bids, depth)) {
+                    final MarketOrder buyOrder = new MarketOrder(
+                            OrderType.BUY,
+                            bitfinexBuyOrder.price,
+                            bitfinexBuyOrder.amount,
+                            bitfinexBuyOrder.price.multiply(bitfinexBuyOrder.amount));
+                    buyOrders.add(buyOrder);
+                }
 
-            final List<MarketOrder> sellOrders = new ArrayList<>();
-            for (BitfinexMarketOrder bitfinexSellOrder : orderBook.asks) {
-                final MarketOrder sellOrder = new MarketOrder(
-                        OrderType.SELL,
-                        bitfinexSellOrder.price,
-                        bitfinexSellOrder.amount,
-                        bitfinexSellOrder.price.multiply(bitfinexSellOrder.amount));
-                sellOrders.add(sellOrder);
-            }
+                final List<MarketOrder> sellOrders = new ArrayList<>();
+                for (BitfinexMarketOrder bitfinexSellOrder : firstLevels(orderBook.asks, depth)) {
+                    final MarketOrder sellOrder = new MarketOrder(
+                            OrderType.SELL,
+                            bitfinexSellOrder.price,
+                            bitfinexSellOrder.amount,
+                            bitfinexSellOrder.price.multiply(bitfinexSellOrder.amount));
+                    sellOrders.add(sellOrder);
+                }
 
-            return new MarketOrderBook(marketId, sellOrders, buyOrders);
+                return new MarketOrderBook(marketId, sellOrders, buyOrders);
+            }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
             throw e;
@@ -214,46 +249,47 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
     public List<OpenOrder> getYourOpenOrders(String marketId) throws TradingApiException, ExchangeNetworkException {
 
         try {
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("orders", null);
-            LOG.debug(() -> "Open Orders response: " + response);
-
-            final BitfinexOpenOrders bitfinexOpenOrders = gson.fromJson(response.getPayload(), BitfinexOpenOrders.class);
-
-            final List<OpenOrder> ordersToReturn = new ArrayList<>();
-            for (final BitfinexOpenOrder bitfinexOpenOrder : bitfinexOpenOrders) {
-
-                if (!marketId.equalsIgnoreCase(bitfinexOpenOrder.symbol)) {
-                    continue;
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("orders", null)) {
+                LOG.debug(() -> "Open Orders response: " + response);
+
+                final BitfinexOpenOrders bitfinexOpenOrders = response.decodePayload(gson, BitfinexOpenOrders.class);
+
+                final List<OpenOrder> ordersToReturn = new ArrayList<>();
+                for (final BitfinexOpenOrder bitfinexOpenOrder : bitfinexOpenOrders) {
+
+                    if (!marketId.equalsIgnoreCase(bitfinexOpenOrder.symbol)) {
+                        continue;
+                    }
+
+                    OrderType orderType;
+                    switch (bitfinexOpenOrder.side) {
+                        case "buy":
+                            orderType = OrderType.BUY;
+                            break;
+                        case "sell":
+                            orderType = OrderType.SELL;
+                            break;
+                        default:
+                            throw new TradingApiException(
+                                    "Unrecognised order type received in getYourOpenOrders(). Value: " + bitfinexOpenOrder.type);
+                    }
+
+                    final OpenOrder order = new OpenOrder(
+                            Long.toString(bitfinexOpenOrder.id),
+                            // for some reason 'finex adds decimal point to long date value, e.g. "1442073766.0"  - grrrr!
+                            Date.from(Instant.ofEpochMilli(Integer.parseInt(bitfinexOpenOrder.timestamp.split("\\.")[0]))),
+                            marketId,
+                            orderType,
+                            bitfinexOpenOrder.price,
+                            bitfinexOpenOrder.remaining_amount,
+                            bitfinexOpenOrder.original_amount,
+                            bitfinexOpenOrder.price.multiply(bitfinexOpenOrder.original_amount) // total - not provided by finex :-(
+                    );
+
+                    ordersToReturn.add(order);
                 }
-
-                OrderType orderType;
-                switch (bitfinexOpenOrder.side) {
-                    case "buy":
-                        orderType = OrderType.BUY;
-                        break;
-                    case "sell":
-                        orderType = OrderType.SELL;
-                        break;
-                    default:
-                        throw new TradingApiException(
-                                "Unrecognised order type received in getYourOpenOrders(). Value: " + bitfinexOpenOrder.type);
-                }
-
-                final OpenOrder order = new OpenOrder(
-                        Long.toString(bitfinexOpenOrder.id),
-                        // for some reason 'finex adds decimal point to long date value, e.g. "1442073766.0"  - grrrr!
-                        Date.from(Instant.ofEpochMilli(Integer.parseInt(bitfinexOpenOrder.timestamp.split("\\.")[0]))),
-                        marketId,
-                        orderType,
-                        bitfinexOpenOrder.price,
-                        bitfinexOpenOrder.remaining_amount,
-                        bitfinexOpenOrder.original_amount,
-                        bitfinexOpenOrder.price.multiply(bitfinexOpenOrder.original_amount) // total - not provided by finex :-(
-                );
-
-                ordersToReturn.add(order);
+                return ordersToReturn;
             }
-            return ordersToReturn;
 
         } catch (ExchangeNetworkException | TradingApiException e) {
             throw e;
@@ -268,52 +304,20 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
             TradingApiException, ExchangeNetworkException {
 
         try {
-            final Map<String, Object> params = getRequestParamMap();
-
-            params.put("symbol", marketId);
-
-            // note we need to limit amount and price to 8 decimal places else exchange will barf
-            params.put("amount", new DecimalFormat("#.########").format(quantity));
-            params.put("price", new DecimalFormat("#.########").format(price));
-
-            params.put("exchange", "bitfinex");
-
-            if (orderType == OrderType.BUY) {
-                params.put("side", "buy");
-            } else if (orderType == OrderType.SELL) {
-                params.put("side", "sell");
-            } else {
-                final String errorMsg = "Invalid order type: " + orderType
-                        + " - Can only be "
-                        + OrderType.BUY.getStringValue() + " or "
-                        + OrderType.SELL.getStringValue();
-                LOG.error(errorMsg);
-                throw new IllegalArgumentException(errorMsg);
-            }
-
-            // 'type' is either "market" / "limit" / "stop" / "trailing-stop" / "fill-or-kill" / "exchange market" /
-            // "exchange limit" / "exchange stop" / "exchange trailing-stop" / "exchange fill-or-kill".
-            // (type starting by "exchange " are exchange orders, others are margin trading orders)
-
-            // this adapter only supports 'exchange limit orders'
-            params.put("type", "exchange limit");
-
-            // This adapter does not currently support hidden orders.
-            // Exchange API notes: "true if the order should be hidden. Default is false."
-            // If you try and set "is_hidden" to false, the exchange barfs and sends a 401 back. Nice.
-            //params.put("is_hidden", "false");
-
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("order/new", params);
-            LOG.debug(() -> "Create Order response: " + response);
-
-            final BitfinexNewOrderResponse createOrderResponse = gson.fromJson(response.getPayload(), BitfinexNewOrderResponse.class);
-            final long id = createOrderResponse.order_id;
-            if (id == 0) {
-                final String errorMsg = "Failed to place order on exchange. Error response: " + response;
-                LOG.error(errorMsg);
-                throw new TradingApiException(errorMsg);
-            } else {
-                return Long.toString(createOrderResponse.order_id);
+            final Map<String, Object> params = buildNewOrderParams(marketId, orderType, quantity, price);
+
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("order/new", params)) {
+                LOG.debug(() -> "Create Order response: " + response);
+
+                final BitfinexNewOrderResponse createOrderResponse = response.decodePayload(gson, BitfinexNewOrderResponse.class);
+                final long id = createOrderResponse.order_id;
+                if (id == 0) {
+                    final String errorMsg = "Failed to place order on exchange. Error response: " + response;
+                    LOG.error(errorMsg);
+                    throw new TradingApiException(errorMsg);
+                } else {
+                    return Long.toString(createOrderResponse.order_id);
+                }
             }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
@@ -334,15 +338,16 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
             final Map<String, Object> params = getRequestParamMap();
             params.put("order_id", Long.parseLong(orderId));
 
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("order/cancel", params);
-            LOG.debug(() -> "Cancel Order response: " + response);
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("order/cancel", params)) {
+                LOG.debug(() -> "Cancel Order response: " + response);
 
-            // Exchange returns order id and other details if successful, a 400 HTTP Status if the order id was not recognised.
-            gson.fromJson(response.getPayload(), BitfinexCancelOrderResponse.class);
-            return true;
+                // Exchange returns order id and other details if successful, a 400 HTTP Status if the order id was not recognised.
+                response.decodePayload(gson, BitfinexCancelOrderResponse.class);
+                return true;
+            }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
-            if (e.getCause() != null && e.getCause().getMessage().contains("400")) {
+            if (isHttpErrorStatus(e, HTTP_BAD_REQUEST_STATUS_CODE)) {
                 final String errorMsg = "Failed to cancel order on exchange. Did not recognise Order Id: " + orderId;
                 LOG.error(errorMsg, e);
                 return false;
@@ -355,54 +360,87 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
         }
     }
 
+    /*
+     * Replaces the order in a single 'order/cancel/replace' request. The exchange only places the new order if it
+     * cancelled the old one.
+     */
     @Override
-    public BigDecimal getLatestMarketPrice(String marketId) throws TradingApiException, ExchangeNetworkException {
+    public String replaceOrder(String orderId, String marketId, OrderType orderType, BigDecimal newQuantity,
+                               BigDecimal newPrice) throws TradingApiException, ExchangeNetworkException {
 
         try {
-            final ExchangeHttpResponse response = sendPublicRequestToExchange("pubticker/" + marketId);
-            LOG.debug(() -> "Latest Market Price response: " + response);
+            final Map<String, Object> params = buildNewOrderParams(marketId, orderType, newQuantity, newPrice);
+            params.put("order_id", Long.parseLong(orderId));
 
-            final BitfinexTicker ticker = gson.fromJson(response.getPayload(), BitfinexTicker.class);
-            return ticker.last_price;
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("order/cancel/replace", params)) {
+                LOG.debug(() -> "Replace Order response: " + response);
+
+                final BitfinexNewOrderResponse replaceOrderResponse =
+                        response.decodePayload(gson, BitfinexNewOrderResponse.class);
+                if (replaceOrderResponse.id == 0) {
+                    final String errorMsg = "Failed to replace order on exchange. Error response: " + response;
+                    LOG.error(errorMsg);
+                    throw new TradingApiException(errorMsg);
+                } else {
+                    return Long.toString(replaceOrderResponse.id);
+                }
+            }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
-            throw e;
+            // Exchange returns a 400 HTTP Status if the order to replace could not be cancelled.
+            if (isHttpErrorStatus(e, HTTP_BAD_REQUEST_STATUS_CODE)) {
+                final String errorMsg = "Failed to replace order on exchange. Could not cancel Order Id: " + orderId;
+                LOG.error(errorMsg, e);
+                return null;
+            } else {
+                throw e;
+            }
         } catch (Exception e) {
             LOG.error(UNEXPECTED_ERROR_MSG, e);
             throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
         }
     }
 
+    /*
+     * Places the orders in a single 'order/new/multi' request.
+     */
     @Override
-    public BalanceInfo getBalanceInfo() throws TradingApiException, ExchangeNetworkException {
+    public List<String> createOrders(List<OrderRequest> orderRequests)
+            throws TradingApiException, ExchangeNetworkException {
+
+        if (orderRequests.isEmpty()) {
+            return new ArrayList<>();
+        }
 
         try {
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("balances", null);
-            LOG.debug(() -> "Balance Info response: " + response);
+            final List<Map<String, Object>> orders = new ArrayList<>(orderRequests.size());
+            for (final OrderRequest orderRequest : orderRequests) {
+                orders.add(buildNewOrderParams(orderRequest.getMarketId(), orderRequest.getType(),
+                        orderRequest.getQuantity(), orderRequest.getPrice()));
+            }
 
-            final BitfinexBalances allAccountBalances = gson.fromJson(response.getPayload(), BitfinexBalances.class);
-            final HashMap<String, BigDecimal> balancesAvailable = new HashMap<>();
+            final Map<String, Object> params = getRequestParamMap();
+            params.put("orders", orders);
+
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("order/new/multi", params)) {
+                LOG.debug(() -> "Create Orders response: " + response);
+
+                final BitfinexNewOrdersResponse createOrdersResponse =
+                        response.decodePayload(gson, BitfinexNewOrdersResponse.class);
+                if (!"success".equals(createOrdersResponse.status) || createOrdersResponse.order_ids == null
+                        || createOrdersResponse.order_ids.size() != orderRequests.size()) {
+                    final String errorMsg = "Failed to place orders on exchange. Error response: " + response;
+                    LOG.error(errorMsg);
+                    throw new TradingApiException(errorMsg);
+                }
 
-            /*
-             * The adapter only fetches the 'exchange' account balance details - this is the Bitfinex 'exchange' account,
-             * i.e. the limit order trading account balance.
-             */
-            if (allAccountBalances != null) {
-                allAccountBalances
-                        .stream()
-                        .filter(accountBalance -> accountBalance.type.equalsIgnoreCase("exchange"))
-                        .forEach(accountBalance -> {
-                            if (accountBalance.currency.equalsIgnoreCase("usd")) {
-                                balancesAvailable.put("USD", accountBalance.available);
-                            } else if (accountBalance.currency.equalsIgnoreCase("btc")) {
-                                balancesAvailable.put("BTC", accountBalance.available);
-                            }
-                        });
+                final List<String> orderIds = new ArrayList<>(orderRequests.size());
+                for (final BitfinexNewOrderResponse order : createOrdersResponse.order_ids) {
+                    orderIds.add(Long.toString(order.id));
+                }
+                return orderIds;
             }
 
-            // 2nd arg of BalanceInfo constructor for reserved/on-hold balances is not provided by exchange.
-            return new BalanceInfo(balancesAvailable, new HashMap<>());
-
         } catch (ExchangeNetworkException | TradingApiException e) {
             throw e;
         } catch (Exception e) {
@@ -411,23 +449,44 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
         }
     }
 
+    /*
+     * Cancels the orders in a single 'order/cancel/multi' request. The exchange rejects the whole request if it does
+     * not recognise one of the Order Ids, so we then cancel them one at a time to find out which ones are still open.
+     * marketId is not needed for cancelling orders on this exchange.
+     */
     @Override
-    public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId) throws TradingApiException,
-            ExchangeNetworkException {
+    public List<String> cancelOrders(List<String> orderIds, String marketIdNotNeeded)
+            throws TradingApiException, ExchangeNetworkException {
+
+        if (orderIds.isEmpty()) {
+            return new ArrayList<>();
+        }
 
         try {
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("account_infos", null);
-            LOG.debug(() -> "Buy Fee response: " + response);
+            final List<Long> exchangeOrderIds = new ArrayList<>(orderIds.size());
+            for (final String orderId : orderIds) {
+                exchangeOrderIds.add(Long.parseLong(orderId));
+            }
 
-            // Nightmare to adapt! Just take the top-level taker fees.
-            final BitfinexAccountInfos bitfinexAccountInfos = gson.fromJson(response.getPayload(), BitfinexAccountInfos.class);
-            final BigDecimal fee = bitfinexAccountInfos.get(0).taker_fees;
+            final Map<String, Object> params = getRequestParamMap();
+            params.put("order_ids", exchangeOrderIds);
 
-            // adapt the % into BigDecimal format
-            return fee.divide(new BigDecimal("100"), 8, BigDecimal.ROUND_HALF_UP);
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("order/cancel/multi", params)) {
+                LOG.debug(() -> "Cancel Orders response: " + response);
+
+                // Exchange returns {"result":"Orders cancelled"} if successful, a 400 HTTP Status if an order id was not recognised.
+                response.decodePayload(gson, BitfinexCancelOrdersResponse.class);
+                return new ArrayList<>(orderIds);
+            }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
-            throw e;
+            if (isHttpErrorStatus(e, HTTP_BAD_REQUEST_STATUS_CODE)) {
+                LOG.warn("Failed to cancel orders on exchange. Did not recognise all Order Ids: " + orderIds
+                        + " - cancelling them one at a time.", e);
+                return super.cancelOrders(orderIds, marketIdNotNeeded);
+            } else {
+                throw e;
+            }
         } catch (Exception e) {
             LOG.error(UNEXPECTED_ERROR_MSG, e);
             throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
@@ -435,19 +494,58 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
     }
 
     @Override
-    public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId) throws TradingApiException,
-            ExchangeNetworkException {
+    public BigDecimal getLatestMarketPrice(String marketId) throws TradingApiException, ExchangeNetworkException {
+        return coalescePublicCall("getLatestMarketPrice/" + marketId, () -> fetchLatestMarketPrice(marketId));
+    }
+
+    private BigDecimal fetchLatestMarketPrice(String marketId) throws TradingApiException, ExchangeNetworkException {
 
         try {
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("account_infos", null);
-            LOG.debug(() -> "Sell Fee response: " + response);
+            try (ExchangeHttpResponse response = sendPublicRequestToExchange("pubticker/" + marketId)) {
+                LOG.debug(() -> "Latest Market Price response: " + response);
+
+                final BitfinexTicker ticker = response.decodePayload(gson, BitfinexTicker.class);
+                return ticker.last_price;
+            }
 
-            // Nightmare to adapt! Just take the top-level taker fees.
-            final BitfinexAccountInfos bitfinexAccountInfos = gson.fromJson(response.getPayload(), BitfinexAccountInfos.class);
-            final BigDecimal fee = bitfinexAccountInfos.get(0).taker_fees;
+        } catch (ExchangeNetworkException | TradingApiException e) {
+            throw e;
+        } catch (Exception e) {
+            LOG.error(UNEXPECTED_ERROR_MSG, e);
+            throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
+        }
+    }
 
-            // adapt the % into BigDecimal format
-            return fee.divide(new BigDecimal("100"), 8, BigDecimal.ROUND_HALF_UP);
+    @Override
+    public BalanceInfo getBalanceInfo() throws TradingApiException, ExchangeNetworkException {
+
+        try {
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("balances", null)) {
+                LOG.debug(() -> "Balance Info response: " + response);
+
+                final BitfinexBalances allAccountBalances = response.decodePayload(gson, BitfinexBalances.class);
+                final HashMap<String, BigDecimal> balancesAvailable = new HashMap<>();
+
+                /*
+                 * The adapter only fetches the 'exchange' account balance details - this is the Bitfinex 'exchange' account,
+                 * i.e. the limit order trading account balance.
+                 */
+                if (allAccountBalances != null) {
+                    allAccountBalances
+                            .stream()
+                            .filter(accountBalance -> accountBalance.type.equalsIgnoreCase("exchange"))
+                            .forEach(accountBalance -> {
+                                if (accountBalance.currency.equalsIgnoreCase("usd")) {
+                                    balancesAvailable.put("USD", accountBalance.available);
+                                } else if (accountBalance.currency.equalsIgnoreCase("btc")) {
+                                    balancesAvailable.put("BTC", accountBalance.available);
+                                }
+                            });
+                }
+
+                // 2nd arg of BalanceInfo constructor for reserved/on-hold balances is not provided by exchange.
+                return new BalanceInfo(balancesAvailable, new HashMap<>());
+            }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
             throw e;
@@ -457,6 +555,18 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
         }
     }
 
+    @Override
+    public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId) throws TradingApiException,
+            ExchangeNetworkException {
+        return feeSchedule.getFee(marketId);
+    }
+
+    @Override
+    public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId) throws TradingApiException,
+            ExchangeNetworkException {
+        return feeSchedule.getFee(marketId);
+    }
+
     @Override
     public String getImplName() {
         return "Bitfinex API v1";
@@ -766,6 +876,38 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
         }
     }
 
+    /**
+     * GSON class for Bitfinex 'order/new/multi' response.
+     */
+    private static class BitfinexNewOrdersResponse {
+
+        public List<BitfinexNewOrderResponse> order_ids;
+        public String status; // e.g. "success"
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("order_ids", order_ids)
+                    .add("status", status)
+                    .toString();
+        }
+    }
+
+    /**
+     * GSON class for Bitfinex 'order/cancel/multi' response.
+     */
+    private static class BitfinexCancelOrdersResponse {
+
+        public String result; // e.g. "Orders cancelled"
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("result", result)
+                    .toString();
+        }
+    }
+
     /**
      * GSON class for Bitfinex 'order/cancel' response.
      */
@@ -809,6 +951,36 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
         }
     }
 
+    // ------------------------------------------------------------------------------------------------
+    //  Exchange fees
+    // ------------------------------------------------------------------------------------------------
+
+    /*
+     * Loads the fees for the fee schedule. The same fee is used for all markets.
+     */
+    private Map<String, BigDecimal> loadExchangeFees() throws TradingApiException, ExchangeNetworkException {
+
+        try {
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("account_infos", null)) {
+                LOG.debug(() -> "Exchange Fees response: " + response);
+
+                // Nightmare to adapt! Just take the top-level taker fees.
+                final BitfinexAccountInfos bitfinexAccountInfos = response.decodePayload(gson, BitfinexAccountInfos.class);
+                final BigDecimal fee = bitfinexAccountInfos.get(0).taker_fees;
+
+                // adapt the % into BigDecimal format
+                return Collections.singletonMap(FeeSchedule.ANY_MARKET,
+                        fee.divide(new BigDecimal("100"), 8, BigDecimal.ROUND_HALF_UP));
+            }
+
+        } catch (ExchangeNetworkException | TradingApiException e) {
+            throw e;
+        } catch (Exception e) {
+            LOG.error(UNEXPECTED_ERROR_MSG, e);
+            throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
+        }
+    }
+
     // ------------------------------------------------------------------------------------------------
     //  Transport layer methods
     // ------------------------------------------------------------------------------------------------
@@ -823,6 +995,8 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
      */
     private ExchangeHttpResponse sendPublicRequestToExchange(String apiMethod) throws ExchangeNetworkException, TradingApiException {
 
+        awaitRateLimit(RequestPriority.MARKET_DATA);
+
         // Request headers required by Exchange
         final Map<String, String> requestHeaders = new HashMap<>();
         requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
@@ -885,6 +1059,9 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
             throw new IllegalStateException(errorMsg);
         }
 
+        awaitRateLimit(requestPriority(apiMethod));
+
+        final long nonce = nonceSequence.acquire();
         try {
 
             if (params == null) {
@@ -894,7 +1071,6 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
 
             // nonce is required by Bitfinex in every request
             params.put("nonce", Long.toString(nonce));
-            nonce++; // increment ready for next call.
 
             // must include the method in request param too
             params.put("request", "/" + BITFINEX_API_VERSION + "/" + apiMethod);
@@ -903,7 +1079,7 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
             final String paramsInJson = gson.toJson(params);
 
             // Need to base64 encode payload as per API
-            final String base64payload = DatatypeConverter.printBase64Binary(paramsInJson.getBytes("UTF-8"));
+            final String base64payload = RequestSigner.toBase64(paramsInJson);
 
             // Request headers required by Exchange
             final Map<String, String> requestHeaders = new HashMap<>();
@@ -914,14 +1090,11 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
             requestHeaders.put("X-BFX-PAYLOAD", base64payload);
 
             // Add the signature
-            mac.reset(); // force reset
-            mac.update(base64payload.getBytes("UTF-8"));
-
             /*
              * signature = HMAC-SHA384(payload, api-secret) as hexadecimal - MUST be in LOWERCASE else signature fails.
              * See: http://bitcoin.stackexchange.com/questions/25835/bitfinex-api-call-returns-400-bad-request
              */
-            final String signature = toHex(mac.doFinal()).toLowerCase();
+            final String signature = requestSigner.sign().update(base64payload).toHex();
             requestHeaders.put("X-BFX-SIGNATURE", signature);
 
             // payload is JSON for this exchange
@@ -930,28 +1103,75 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
             final URL url = new URL(AUTHENTICATED_API_URL + apiMethod);
             return sendNetworkRequest(url, "POST", paramsInJson, requestHeaders);
 
-        } catch (MalformedURLException | UnsupportedEncodingException e) {
+        } catch (MalformedURLException e) {
 
             final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
             LOG.error(errorMsg, e);
             throw new TradingApiException(errorMsg, e);
+        } finally {
+            nonceSequence.release();
         }
     }
 
     /**
-     * Converts a given byte array to a hex String.
+     * Returns the rate limit priority of an authenticated API call.
      *
-     * @param byteArrayToConvert byte array to convert.
-     * @return the string representation of the given byte array..
+     * @param apiMethod the API method being called.
+     * @return the priority of the call.
      */
-    private String toHex(byte[] byteArrayToConvert) {
+    private Map<String, Object> buildNewOrderParams(String marketId, OrderType orderType, BigDecimal quantity,
+                                                    BigDecimal price) {
 
-        final StringBuilder hexString = new StringBuilder();
+        final Map<String, Object> params = getRequestParamMap();
 
-        for (final byte aByte : byteArrayToConvert) {
-            hexString.append(String.format("%02x", aByte & 0xff));
+        params.put("symbol", marketId);
+
+        // note we need to limit amount and price to 8 decimal places else exchange will barf
+        params.put("amount", new DecimalFormat("#.########").format(quantity));
+        params.put("price", new DecimalFormat("#.########").format(price));
+
+        params.put("exchange", "bitfinex");
+
+        if (orderType == OrderType.BUY) {
+            params.put("side", "buy");
+        } else if (orderType == OrderType.SELL) {
+            params.put("side", "sell");
+        } else {
+            final String errorMsg = "Invalid order type: " + orderType
+                    + " - Can only be "
+                    + OrderType.BUY.getStringValue() + " or "
+                    + OrderType.SELL.getStringValue();
+            LOG.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        // 'type' is either "market" / "limit" / "stop" / "trailing-stop" / "fill-or-kill" / "exchange market" /
+        // "exchange limit" / "exchange stop" / "exchange trailing-stop" / "exchange fill-or-kill".
+        // (type starting by "exchange " are exchange orders, others are margin trading orders)
+
+        // this adapter only supports 'exchange limit orders'
+        params.put("type", "exchange limit");
+
+        // This adapter does not currently support hidden orders.
+        // Exchange API notes: "true if the order should be hidden. Default is false."
+        // If you try and set "is_hidden" to false, the exchange barfs and sends a 401 back. Nice.
+        //params.put("is_hidden", "false");
+
+        return params;
+    }
+
+    private static RequestPriority requestPriority(String apiMethod) {
+        switch (apiMethod) {
+            case "order/cancel":
+            case "order/cancel/multi":
+            case "order/cancel/replace":
+                return RequestPriority.CANCEL_ORDER;
+            case "order/new":
+            case "order/new/multi":
+                return RequestPriority.CREATE_ORDER;
+            default:
+                return RequestPriority.ACCOUNT;
         }
-        return hexString.toString();
     }
 
     /**
@@ -963,9 +1183,7 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
 
         // Setup the MAC
         try {
-            final SecretKeySpec keyspec = new SecretKeySpec(secret.getBytes("UTF-8"), "HmacSHA384");
-            mac = Mac.getInstance("HmacSHA384");
-            mac.init(keyspec);
+            requestSigner = new RequestSigner(HmacAlgorithm.HMAC_SHA384, secret.getBytes("UTF-8"));
             initializedMACAuthentication = true;
         } catch (UnsupportedEncodingException | NoSuchAlgorithmException e) {
             final String errorMsg = "Failed to setup MAC security. HINT: Is HMAC-SHA384 installed?";
@@ -989,6 +1207,15 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
         secret = getAuthenticationConfigItem(authenticationConfig, SECRET_PROPERTY_NAME);
     }
 
+    private void setOptionalConfig(ExchangeConfig exchangeConfig) {
+
+        // optional config is not required for this adapter
+        if (isOrderBookFeedEnabled(exchangeConfig.getOptionalConfig())) {
+            orderBookFeed = new BitfinexOrderBookFeed(BitfinexOrderBookFeed.FEED_URI, getConnectionTimeout(),
+                    getReadTimeout());
+        }
+    }
+
     // ------------------------------------------------------------------------------------------------
     //  Util methods
     // ------------------------------------------------------------------------------------------------
@@ -997,8 +1224,10 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
      * Initialises the GSON layer.
      */
     private void initGson() {
-        final GsonBuilder gsonBuilder = new GsonBuilder();
-        gson = gsonBuilder.create();
+        gson = getSharedGson(() -> {
+            final GsonBuilder gsonBuilder = new GsonBuilder();
+            return gsonBuilder.create();
+        });
     }
 
     /*
@@ -0,0 +1,202 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streams Bitfinex order books from the <a href="https://bitfinex.readme.io/v2/reference#ws-public-order-books">book
+ * channel</a> of the Bitfinex v2 WebSocket API.
+ * <p>
+ * The feed turns on the SEQ_ALL flag, so every message on the connection carries a sequence number. If a number is
+ * skipped, a message has been lost and the feed resyncs. The book messages are price levels of
+ * [price, count, amount]: a positive amount is a bid, a negative one an ask, and a count of 0 removes the level.
+ *
+ * @author gazbert
+ */
+final class BitfinexOrderBookFeed extends OrderBookFeed {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    /**
+     * The Bitfinex v2 WebSocket API URI.
+     */
+    static final URI FEED_URI = URI.create("wss://api.bitfinex.com/ws/2");
+
+    /**
+     * Flag for the conf event that adds a sequence number to every message.
+     */
+    private static final int SEQ_ALL_FLAG = 65536;
+
+    /**
+     * Info code Bitfinex sends before restarting its WebSocket server. Clients are asked to reconnect.
+     */
+    private static final int RECONNECT_INFO_CODE = 20051;
+
+    /**
+     * Number of price levels streamed on each side of the book; Bitfinex supports 25 or 100.
+     */
+    private static final String BOOK_LENGTH = "100";
+
+    private final JsonParser jsonParser = new JsonParser();
+
+    /**
+     * Maps the channel ids Bitfinex assigns on subscription to our market ids. Reset for each connection.
+     */
+    private final Map<Integer, String> marketIdsByChannelId = new ConcurrentHashMap<>();
+
+    /**
+     * Last sequence number seen on the connection; 0 before the first one. Only touched on the reader thread,
+     * apart from the reset in {@link #onConnected()} which happens before anything is subscribed to.
+     */
+    private volatile long lastSequence;
+
+
+    BitfinexOrderBookFeed(URI uri, int connectionTimeout, int readTimeout) {
+        super(uri, connectionTimeout, readTimeout);
+    }
+
+    @Override
+    void onConnected() throws IOException {
+        marketIdsByChannelId.clear();
+        lastSequence = 0;
+        final JsonObject conf = new JsonObject();
+        conf.addProperty("event", "conf");
+        conf.addProperty("flags", SEQ_ALL_FLAG);
+        send(conf.toString());
+    }
+
+    @Override
+    String subscribeMessage(String marketId) {
+        final JsonObject subscribe = new JsonObject();
+        subscribe.addProperty("event", "subscribe");
+        subscribe.addProperty("channel", "book");
+        subscribe.addProperty("symbol", "t" + marketId.toUpperCase(Locale.ROOT));
+        subscribe.addProperty("prec", "P0");
+        subscribe.addProperty("freq", "F0");
+        subscribe.addProperty("len", BOOK_LENGTH);
+        return subscribe.toString();
+    }
+
+    @Override
+    void handleMessage(String message) {
+
+        final JsonElement json = jsonParser.parse(message);
+        if (json.isJsonObject()) {
+            handleEvent(json.getAsJsonObject(), message);
+            return;
+        }
+
+        final JsonArray channelMessage = json.getAsJsonArray();
+        if (!checkSequence(channelMessage)) {
+            return;
+        }
+
+        final String marketId = marketIdsByChannelId.get(channelMessage.get(0).getAsInt());
+        final JsonElement payload = channelMessage.get(1);
+        if (marketId == null || !payload.isJsonArray()) {
+            return; // heartbeat, or a channel we don't know
+        }
+        final LocalOrderBook book = getBook(marketId);
+        if (book == null) {
+            return;
+        }
+
+        final JsonArray levels = payload.getAsJsonArray();
+        if (levels.size() == 0 || levels.get(0).isJsonArray()) {
+            book.clear();
+            for (final JsonElement level : levels) {
+                applyLevel(book, level.getAsJsonArray());
+            }
+            book.markSynced();
+        } else if (book.isSynced()) {
+            applyLevel(book, levels);
+        }
+    }
+
+    private void handleEvent(JsonObject event, String message) {
+        final String eventName = event.get("event").getAsString();
+        switch (eventName) {
+            case "subscribed":
+                final String symbol = event.get("symbol").getAsString();
+                marketIdsByChannelId.put(event.get("chanId").getAsInt(),
+                        symbol.substring(1).toLowerCase(Locale.ROOT));
+                break;
+            case "info":
+                if (event.has("code") && event.get("code").getAsInt() == RECONNECT_INFO_CODE) {
+                    LOG.info(() -> "Bitfinex asked for a reconnect: " + message);
+                    resync();
+                }
+                break;
+            case "error":
+                LOG.error(() -> "Error from Bitfinex order book feed: " + message);
+                break;
+            default:
+                // conf acknowledgements
+                break;
+        }
+    }
+
+    /*
+     * The sequence number is the last element of every channel message.
+     * Returns false if a message has been missed; the feed is resynced.
+     */
+    private boolean checkSequence(JsonArray channelMessage) {
+        final JsonElement last = channelMessage.get(channelMessage.size() - 1);
+        if (channelMessage.size() < 3 || !last.isJsonPrimitive() || !last.getAsJsonPrimitive().isNumber()) {
+            return true;
+        }
+        final long sequence = last.getAsLong();
+        final long expected = lastSequence + 1;
+        if (lastSequence != 0 && sequence != expected) {
+            LOG.warn(() -> "Bitfinex order book feed skipped from sequence " + lastSequence + " to " + sequence);
+            resync();
+            return false;
+        }
+        lastSequence = sequence;
+        return true;
+    }
+
+    private static void applyLevel(LocalOrderBook book, JsonArray level) {
+        final BigDecimal price = level.get(0).getAsBigDecimal();
+        final int count = level.get(1).getAsInt();
+        final BigDecimal amount = level.get(2).getAsBigDecimal();
+        final OrderType side = amount.signum() > 0 ? OrderType.BUY : OrderType.SELL;
+        book.update(side, price, count == 0 ? BigDecimal.ZERO : amount.abs());
+    }
+}
@@ -26,27 +26,29 @@ package com.gazbert.bxbot.exchanges;
 import com.gazbert.bxbot.exchange.api.AuthenticationConfig;
 import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
 import com.gazbert.bxbot.exchange.api.ExchangeConfig;
+import com.gazbert.bxbot.exchanges.RateLimiter.RequestPriority;
+import com.gazbert.bxbot.exchanges.RequestSigner.HmacAlgorithm;
 import com.gazbert.bxbot.trading.api.*;
 import com.google.common.base.MoreObjects;
 import com.google.gson.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLConnection;
 import java.net.URLEncoder;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.text.DecimalFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 /**
@@ -70,9 +72,10 @@ import java.util.*;
  * </pre>
  * </p>
  * <p>
- * This Exchange Adapter is <em>not</em> thread safe. It expects to be called using a single thread in order to
- * preserve trade execution order. The {@link URLConnection} achieves this by blocking/waiting on the input stream
- * (response) for each API call.
+ * The Exchange Adapter is thread safe, so Trading Strategies running on different threads can share it. Authenticated
+ * calls take their nonce and are sent one at a time, in the order they were made, because the exchange rejects a nonce
+ * that arrives after a later one; public calls run in parallel. Calls made on a single thread keep their trade
+ * execution order: the {@link ExchangeHttpTransport} blocks/waits on the response for each API call.
  * </p>
  * <p>
  * The {@link TradingApi} calls will throw a {@link ExchangeNetworkException} if a network error occurs trying to
@@ -122,9 +125,14 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
     private static final String SECRET_PROPERTY_NAME = "secret";
 
     /**
-     * Nonce used for sending authenticated messages to the exchange.
+     * Suffix of the market fee fields in the balance response, e.g. btcusd_fee.
      */
-    private long nonce = 0;
+    private static final String FEE_FIELD_SUFFIX = "_fee";
+
+    /**
+     * Nonces used for sending authenticated messages to the exchange.
+     */
+    private final NonceSequence nonceSequence = new NonceSequence();
 
     /**
      * Used to indicate if we have initialised the MAC authentication protocol.
@@ -147,16 +155,27 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
     private String secret = "";
 
     /**
-     * Provides the "Message Authentication Code" (MAC) algorithm used for the secure messaging layer.
+     * Signs requests using the "Message Authentication Code" (MAC) algorithm for the secure messaging layer.
      * Used to encrypt the hash of the entire message with the private key to ensure message integrity.
      */
-    private Mac mac;
+    private RequestSigner requestSigner;
 
     /**
      * GSON engine used for parsing JSON in Bitstamp API call responses.
      */
     private Gson gson;
 
+    /**
+     * Streams the order books from the Bitstamp WebSocket feed; null unless order-book-feed is set in the config.
+     */
+    private OrderBookFeed orderBookFeed;
+
+    /**
+     * Holds the exchange fees in memory. Bitstamp returns the fees with the balances, so they are also updated by
+     * {@link #getBalanceInfo()}.
+     */
+    private final FeeSchedule feeSchedule = createFeeSchedule(this::loadExchangeFees);
+
 
     @Override
     public void init(ExchangeConfig config) {
@@ -164,8 +183,10 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
         LOG.info(() -> "About to initialise Bitstamp ExchangeConfig: " + config);
         setAuthenticationConfig(config);
         setNetworkConfig(config);
+        setOptionalConfig(config);
 
-        nonce = System.currentTimeMillis() / 1000; // set the initial nonce used in the secure messaging.
+        // set the initial nonce used in the secure messaging.
+        nonceSequence.advanceTo(System.currentTimeMillis() / 1000);
         initSecureMessageLayer();
         initGson();
     }
@@ -177,36 +198,56 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
 
     @Override
     public MarketOrderBook getMarketOrders(String marketId) throws TradingApiException, ExchangeNetworkException {
+        return getMarketOrders(marketId, FULL_ORDER_BOOK_DEPTH);
+    }
+
+    @Override
+    public MarketOrderBook getMarketOrders(String marketId, int depth) throws TradingApiException,
+            ExchangeNetworkException {
+        return coalescePublicCall("getMarketOrders/" + marketId + "/" + depth,
+                () -> fetchMarketOrders(marketId, depth));
+    }
+
+    private MarketOrderBook fetchMarketOrders(String marketId, int depth) throws TradingApiException,
+            ExchangeNetworkException {
 
         try {
-            final ExchangeHttpResponse response = sendPublicRequestToExchange("order_book/" + marketId);
-            LOG.debug(() -> "Market Orders response: " + response);
-
-            final BitstampOrderBook bitstampOrderBook = gson.fromJson(response.getPayload(), BitstampOrderBook.class);
-
-            final List<MarketOrder> buyOrders = new ArrayList<>();
-            final List<List<BigDecimal>> bitstampBuyOrders = bitstampOrderBook.bids;
-            for (final List<BigDecimal> order : bitstampBuyOrders) {
-                final MarketOrder buyOrder = new MarketOrder(
-                        OrderType.BUY,
-                        order.get(0), // price
-                        order.get(1), // quantity
-                        order.get(0).multiply(order.get(1)));
-                buyOrders.add(buyOrder);
+            assertValidOrderBookDepth(depth);
+            if (orderBookFeed != null) {
+                final MarketOrderBook streamedOrderBook = orderBookFeed.getMarketOrders(marketId, depth);
+                if (streamedOrderBook != null) {
+                    return streamedOrderBook;
+                }
             }
+            try (ExchangeHttpResponse response = sendPublicRequestToExchange("order_book/" + marketId)) {
+                LOG.debug(() -> "Market Orders response: " + response);
+
+                final BitstampOrderBook bitstampOrderBook = response.decodePayload(gson, BitstampOrderBook.class);
+
+                final List<MarketOrder> buyOrders = new ArrayList<>();
+                final List<List<BigDecimal>> bitstampBuyOrders = bitstampOrderBook.bids;
+                for (final List<BigDecimal> order : firstLevels(bitstampBuyOrders, depth)) {
+                    final MarketOrder buyOrder = new MarketOrder(
+                            OrderType.BUY,
+                            order.get(0), // price
+                            order.get(1), // quantity
+                            order.get(0).multiply(order.get(1)));
+                    buyOrders.add(buyOrder);
+                }
 
-            final List<MarketOrder> sellOrders = new ArrayList<>();
-            final List<List<BigDecimal>> bitstampSellOrders = bitstampOrderBook.asks;
-            for (final List<BigDecimal> order : bitstampSellOrders) {
-                final MarketOrder sellOrder = new MarketOrder(
-                        OrderType.SELL,
-                        order.get(0), // price
-                        order.get(1), // quantity
-                        order.get(0).multiply(order.get(1)));
-                sellOrders.add(sellOrder);
-            }
+                final List<MarketOrder> sellOrders = new ArrayList<>();
+                final List<List<BigDecimal>> bitstampSellOrders = bitstampOrderBook.asks;
+                for (final List<BigDecimal> order : firstLevels(bitstampSellOrders, depth)) {
+                    final MarketOrder sellOrder = new MarketOrder(
+                            OrderType.SELL,
+                            order.get(0), // price
+                            order.get(1), // quantity
+                            order.get(0).multiply(order.get(1)));
+                    sellOrders.add(sellOrder);
+                }
 
-            return new MarketOrderBook(marketId, sellOrders, buyOrders);
+                return new MarketOrderBook(marketId, sellOrders, buyOrders);
+            }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
             throw e;
@@ -220,38 +261,39 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
     public List<OpenOrder> getYourOpenOrders(String marketId) throws TradingApiException, ExchangeNetworkException {
 
         try {
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("open_orders/" + marketId, null);
-            LOG.debug(() -> "Open Orders response: " + response);
-
-            final BitstampOrderResponse[] myOpenOrders = gson.fromJson(response.getPayload(), BitstampOrderResponse[].class);
-
-            // No need to filter on marketId; exchange does this for us.
-            final List<OpenOrder> ordersToReturn = new ArrayList<>();
-            for (final BitstampOrderResponse openOrder : myOpenOrders) {
-                OrderType orderType;
-                if (openOrder.type == 0) {
-                    orderType = OrderType.BUY;
-                } else if (openOrder.type == 1) {
-                    orderType = OrderType.SELL;
-                } else {
-                    throw new TradingApiException(
-                            "Unrecognised order type received in getYourOpenOrders(). Value: " + openOrder.type);
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("open_orders/" + marketId, null)) {
+                LOG.debug(() -> "Open Orders response: " + response);
+
+                final BitstampOrderResponse[] myOpenOrders = response.decodePayload(gson, BitstampOrderResponse[].class);
+
+                // No need to filter on marketId; exchange does this for us.
+                final List<OpenOrder> ordersToReturn = new ArrayList<>();
+                for (final BitstampOrderResponse openOrder : myOpenOrders) {
+                    OrderType orderType;
+                    if (openOrder.type == 0) {
+                        orderType = OrderType.BUY;
+                    } else if (openOrder.type == 1) {
+                        orderType = OrderType.SELL;
+                    } else {
+                        throw new TradingApiException(
+                                "Unrecognised order type received in getYourOpenOrders(). Value: " + openOrder.type);
+                    }
+
+                    final OpenOrder order = new OpenOrder(
+                            Long.toString(openOrder.id),
+                            openOrder.datetime,
+                            marketId,
+                            orderType,
+                            openOrder.price,
+                            openOrder.amount,
+                            null, // orig_quantity - not provided by stamp :-(
+                            openOrder.price.multiply(openOrder.amount) // total - not provided by stamp :-(
+                    );
+
+                    ordersToReturn.add(order);
                 }
-
-                final OpenOrder order = new OpenOrder(
-                        Long.toString(openOrder.id),
-                        openOrder.datetime,
-                        marketId,
-                        orderType,
-                        openOrder.price,
-                        openOrder.amount,
-                        null, // orig_quantity - not provided by stamp :-(
-                        openOrder.price.multiply(openOrder.amount) // total - not provided by stamp :-(
-                );
-
-                ordersToReturn.add(order);
+                return ordersToReturn;
             }
-            return ordersToReturn;
 
         } catch (ExchangeNetworkException | TradingApiException e) {
             throw e;
@@ -292,7 +334,7 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
 
             LOG.debug(() -> "Create Order response: " + response);
 
-            final BitstampOrderResponse createOrderResponse = gson.fromJson(response.getPayload(), BitstampOrderResponse.class);
+            final BitstampOrderResponse createOrderResponse = response.decodePayload(gson, BitstampOrderResponse.class);
             final long id = createOrderResponse.id;
             if (id == 0) {
                 final String errorMsg = "Failed to place order on exchange. Error response: " + response;
@@ -320,16 +362,17 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
             final Map<String, String> params = getRequestParamMap();
             params.put("id", orderId);
 
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("cancel_order", params);
-            LOG.debug(() -> "Cancel Order response: " + response);
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("cancel_order", params)) {
+                LOG.debug(() -> "Cancel Order response: " + response);
 
-            final BitstampCancelOrderResponse cancelOrderResponse = gson.fromJson(response.getPayload(), BitstampCancelOrderResponse.class);
-            if (!orderId.equals(String.valueOf(cancelOrderResponse.id))) {
-                final String errorMsg = "Failed to cancel order on exchange. Error response: " + response;
-                LOG.error(errorMsg);
-                return false;
-            } else {
-                return true;
+                final BitstampCancelOrderResponse cancelOrderResponse = response.decodePayload(gson, BitstampCancelOrderResponse.class);
+                if (!orderId.equals(String.valueOf(cancelOrderResponse.id))) {
+                    final String errorMsg = "Failed to cancel order on exchange. Error response: " + response;
+                    LOG.error(errorMsg);
+                    return false;
+                } else {
+                    return true;
+                }
             }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
@@ -340,15 +383,40 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
         }
     }
 
+    /*
+     * marketId is not needed for fetching an order on this exchange.
+     */
     @Override
-    public BigDecimal getLatestMarketPrice(String marketId) throws TradingApiException, ExchangeNetworkException {
+    public OrderStatus getOrderStatus(String orderId, String marketIdNotNeeded)
+            throws TradingApiException, ExchangeNetworkException {
 
         try {
-            final ExchangeHttpResponse response = sendPublicRequestToExchange("ticker/" + marketId);
-            LOG.debug(() -> "Latest Market Price response: " + response);
+            final Map<String, String> params = getRequestParamMap();
+            params.put("id", orderId);
+
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("order_status", params)) {
+                LOG.debug(() -> "Order Status response: " + response);
 
-            final BitstampTicker bitstampTicker = gson.fromJson(response.getPayload(), BitstampTicker.class);
-            return bitstampTicker.last;
+                final BitstampOrderStatusResponse orderStatusResponse =
+                        response.decodePayload(gson, BitstampOrderStatusResponse.class);
+                if (orderStatusResponse.status == null) {
+                    final String errorMsg = "Failed to get order status from exchange. Error response: " + response;
+                    LOG.error(errorMsg);
+                    throw new TradingApiException(errorMsg);
+                }
+
+                switch (orderStatusResponse.status) {
+                    case "Open":
+                    case "In Queue":
+                        return OrderStatus.OPEN;
+                    case "Finished":
+                        return OrderStatus.FILLED;
+                    case "Canceled":
+                        return OrderStatus.CANCELLED;
+                    default:
+                        return OrderStatus.CLOSED;
+                }
+            }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
             throw e;
@@ -359,29 +427,19 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
     }
 
     @Override
-    public BalanceInfo getBalanceInfo() throws TradingApiException, ExchangeNetworkException {
-
-        try {
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("balance", null);
-            LOG.debug(() -> "Balance Info response: " + response);
-
-            final BitstampBalance balances = gson.fromJson(response.getPayload(), BitstampBalance.class);
+    public BigDecimal getLatestMarketPrice(String marketId) throws TradingApiException, ExchangeNetworkException {
+        return coalescePublicCall("getLatestMarketPrice/" + marketId, () -> fetchLatestMarketPrice(marketId));
+    }
 
-            final Map<String, BigDecimal> balancesAvailable = new HashMap<>();
-            balancesAvailable.put("BTC", balances.btc_available);
-            balancesAvailable.put("USD", balances.usd_available);
-            balancesAvailable.put("EUR", balances.eur_available);
-            balancesAvailable.put("LTC", balances.ltc_available);
-            balancesAvailable.put("XRP", balances.xrp_available);
+    private BigDecimal fetchLatestMarketPrice(String marketId) throws TradingApiException, ExchangeNetworkException {
 
-            final Map<String, BigDecimal> balancesOnOrder = new HashMap<>();
-            balancesOnOrder.put("BTC", balances.btc_reserved);
-            balancesOnOrder.put("USD", balances.usd_reserved);
-            balancesOnOrder.put("EUR", balances.eur_reserved);
-            balancesOnOrder.put("LTC", balances.ltc_reserved);
-            balancesOnOrder.put("XRP", balances.xrp_reserved);
+        try {
+            try (ExchangeHttpResponse response = sendPublicRequestToExchange("ticker/" + marketId)) {
+                LOG.debug(() -> "Latest Market Price response: " + response);
 
-            return new BalanceInfo(balancesAvailable, balancesOnOrder);
+                final BitstampTicker bitstampTicker = response.decodePayload(gson, BitstampTicker.class);
+                return bitstampTicker.last;
+            }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
             throw e;
@@ -392,31 +450,32 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
     }
 
     @Override
-    public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId) throws TradingApiException,
-            ExchangeNetworkException {
+    public BalanceInfo getBalanceInfo() throws TradingApiException, ExchangeNetworkException {
 
         try {
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("balance", null);
-            LOG.debug(() -> "Buy Fee response: " + response);
-
-            final BitstampBalance balances = gson.fromJson(response.getPayload(), BitstampBalance.class);
-
-            // Ouch!
-            final Class<?> clazz = balances.getClass();
-            final Field[] fields = clazz.getDeclaredFields();
-            for (final Field field: fields) {
-                if (field.getName().startsWith(marketId)) {
-                    final BigDecimal fee = (BigDecimal) field.get(balances);
-                    // adapt the % into BigDecimal format
-                    return fee.divide(new BigDecimal("100"), 8, BigDecimal.ROUND_HALF_UP);
-                }
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("balance", null)) {
+                LOG.debug(() -> "Balance Info response: " + response);
+
+                final BitstampBalance balances = response.decodePayload(gson, BitstampBalance.class);
+                feeSchedule.update(adaptFees(balances));
+
+                final Map<String, BigDecimal> balancesAvailable = new HashMap<>();
+                balancesAvailable.put("BTC", balances.btc_available);
+                balancesAvailable.put("USD", balances.usd_available);
+                balancesAvailable.put("EUR", balances.eur_available);
+                balancesAvailable.put("LTC", balances.ltc_available);
+                balancesAvailable.put("XRP", balances.xrp_available);
+
+                final Map<String, BigDecimal> balancesOnOrder = new HashMap<>();
+                balancesOnOrder.put("BTC", balances.btc_reserved);
+                balancesOnOrder.put("USD", balances.usd_reserved);
+                balancesOnOrder.put("EUR", balances.eur_reserved);
+                balancesOnOrder.put("LTC", balances.ltc_reserved);
+                balancesOnOrder.put("XRP", balances.xrp_reserved);
+
+                return new BalanceInfo(balancesAvailable, balancesOnOrder);
             }
 
-            final String errorMsg = "Unable to map marketId to currency balances returned from the Exchange. "
-                    + "MarketId: " + marketId + " BitstampBalances: " + balances;
-            LOG.error(errorMsg);
-            throw new IllegalArgumentException(errorMsg);
-
         } catch (ExchangeNetworkException | TradingApiException e) {
             throw e;
         } catch (Exception e) {
@@ -426,37 +485,15 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
     }
 
     @Override
-    public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId) throws TradingApiException,
+    public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId) throws TradingApiException,
             ExchangeNetworkException {
+        return feeSchedule.getFee(marketId);
+    }
 
-        try {
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("balance", null);
-            LOG.debug(() -> "Sell Fee response: " + response);
-
-            final BitstampBalance balances = gson.fromJson(response.getPayload(), BitstampBalance.class);
-
-            // Ouch!
-            final Class<?> clazz = balances.getClass();
-            final Field[] fields = clazz.getDeclaredFields();
-            for (final Field field: fields) {
-                if (field.getName().startsWith(marketId)) {
-                    final BigDecimal fee = (BigDecimal) field.get(balances);
-                    // adapt the % into BigDecimal format
-                    return fee.divide(new BigDecimal("100"), 8, BigDecimal.ROUND_HALF_UP);
-                }
-            }
-
-            final String errorMsg = "Unable to map marketId to currency balances returned from the Exchange. "
-                    + "MarketId: " + marketId + " BitstampBalances: " + balances;
-            LOG.error(errorMsg);
-            throw new IllegalArgumentException(errorMsg);
-
-        } catch (ExchangeNetworkException | TradingApiException e) {
-            throw e;
-        } catch (Exception e) {
-            LOG.error(UNEXPECTED_ERROR_MSG, e);
-            throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
-        }
+    @Override
+    public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId) throws TradingApiException,
+            ExchangeNetworkException {
+        return feeSchedule.getFee(marketId);
     }
 
     @Override
@@ -643,6 +680,23 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
         }
     }
 
+    /**
+     * GSON class for Bitstamp order status response.
+     */
+    private static class BitstampOrderStatusResponse {
+
+        public String status; // "Open", "In Queue", "Finished" or "Canceled"
+        public String error;  // only set if the exchange did not recognise the order id
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("status", status)
+                    .add("error", error)
+                    .toString();
+        }
+    }
+
     /**
      * Deserializer needed because stamp Date format is different in open_order response and causes default GSON parsing to barf:
      * <pre>
@@ -655,15 +709,21 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
      * </pre>
      */
     private static class BitstampDateDeserializer implements JsonDeserializer<Date> {
-        private final SimpleDateFormat bitstampDateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+        // DateTimeFormatter is immutable, so the GSON instance using this can be shared by all adapters in the JVM
+        private static final DateTimeFormatter BITSTAMP_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
         public Date deserialize(JsonElement json, Type type, JsonDeserializationContext context)
                 throws JsonParseException {
             Date dateFromBitstamp = null;
             if (json.isJsonPrimitive()) {
                 try {
-                    dateFromBitstamp = bitstampDateFormat.parse(json.getAsString());
-                } catch (ParseException e) {
+                    // Bitstamp dates are in local time. Like DateFormat.parse(), ignore anything after the seconds,
+                    // e.g. fractions of a second.
+                    final LocalDateTime dateTime = LocalDateTime.from(
+                            BITSTAMP_DATE_FORMAT.parse(json.getAsString(), new ParsePosition(0)));
+                    dateFromBitstamp = Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+                } catch (DateTimeException e) {
                     final String errorMsg = "DateDeserializer failed to parse a Bitstamp date!";
                     LOG.error(errorMsg, e);
                     throw new JsonParseException(errorMsg, e);
@@ -673,6 +733,74 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
         }
     }
 
+    // ------------------------------------------------------------------------------------------------
+    //  Exchange fees
+    // ------------------------------------------------------------------------------------------------
+
+    /*
+     * Loads the fees for all markets for the fee schedule. Bitstamp only returns them with the balances.
+     */
+    private Map<String, BigDecimal> loadExchangeFees() throws TradingApiException, ExchangeNetworkException {
+
+        try {
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("balance", null)) {
+                LOG.debug(() -> "Exchange Fees response: " + response);
+
+                final BitstampBalance balances = response.decodePayload(gson, BitstampBalance.class);
+                final Map<String, BigDecimal> fees = adaptFees(balances);
+                if (fees.isEmpty()) {
+                    final String errorMsg = "Unable to find market fees in currency balances returned from the Exchange. "
+                            + "BitstampBalances: " + balances;
+                    LOG.error(errorMsg);
+                    throw new IllegalArgumentException(errorMsg);
+                }
+                return fees;
+            }
+
+        } catch (ExchangeNetworkException | TradingApiException e) {
+            throw e;
+        } catch (Exception e) {
+            LOG.error(UNEXPECTED_ERROR_MSG, e);
+            throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
+        }
+    }
+
+    /*
+     * Maps the <market id>_fee fields of a balance response to the fee for each market id.
+     */
+    private static Map<String, BigDecimal> adaptFees(BitstampBalance balances) throws IllegalAccessException {
+
+        final Map<String, BigDecimal> fees = new HashMap<>();
+
+        // Ouch!
+        for (final Field field : BitstampBalance.class.getDeclaredFields()) {
+            if (field.getName().endsWith(FEE_FIELD_SUFFIX)) {
+                final BigDecimal fee = (BigDecimal) field.get(balances);
+                if (fee != null) {
+                    final String marketId = field.getName().substring(0,
+                            field.getName().length() - FEE_FIELD_SUFFIX.length());
+                    // adapt the % into BigDecimal format
+                    fees.put(marketId, fee.divide(new BigDecimal("100"), 8, BigDecimal.ROUND_HALF_UP));
+                }
+            }
+        }
+        return fees;
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Order book feed
+    // ------------------------------------------------------------------------------------------------
+
+    /*
+     * Seeds the order book feed's book for a market. Called on the feed's thread; public calls don't touch the nonce,
+     * so this is safe alongside the Trading API calls.
+     */
+    private String loadOrderBookSnapshot(String marketId) throws ExchangeNetworkException, TradingApiException {
+        try (ExchangeHttpResponse response = sendPublicRequestToExchange("order_book/" + marketId)) {
+            return response.getPayload();
+        }
+    }
+
     // ------------------------------------------------------------------------------------------------
     //  Transport layer methods
     // ------------------------------------------------------------------------------------------------
@@ -687,6 +815,8 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
      */
     private ExchangeHttpResponse sendPublicRequestToExchange(String apiMethod) throws ExchangeNetworkException, TradingApiException {
 
+        awaitRateLimit(RequestPriority.MARKET_DATA);
+
         // Request headers required by Exchange
         final Map<String, String> requestHeaders = new HashMap<>();
         requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
@@ -722,6 +852,9 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
             throw new IllegalStateException(errorMsg);
         }
 
+        awaitRateLimit(requestPriority(apiMethod));
+
+        final long nonce = nonceSequence.acquire();
         try {
 
             // Setup common params for the API call
@@ -734,11 +867,6 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
 
             // Create MAC message for signature
             // message = nonce + client_id + api_key
-            mac.reset(); // force reset
-            mac.update(String.valueOf(nonce).getBytes("UTF-8"));
-            mac.update(clientId.getBytes("UTF-8"));
-            mac.update(key.getBytes("UTF-8"));
-
             /*
              * Signature is a HMAC-SHA256 encoded message containing: nonce, client ID and API key.
              * The HMAC-SHA256 code must be generated using a secret key that was generated with your API key.
@@ -746,12 +874,9 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
              *
              * signature = hmac.new(API_SECRET, msg=message, digestmod=hashlib.sha256).hexdigest().upper()
              */
-            final String signature = toHex(mac.doFinal()).toUpperCase();
+            final String signature = requestSigner.sign().update(nonce).update(clientId).update(key).toHexUpperCase();
             params.put("signature", signature);
 
-            // increment ready for next call...
-            nonce++;
-
             // Build the URL with query param args in it
             final StringBuilder postData = new StringBuilder("");
             for (final Map.Entry<String, String> param : params.entrySet()) {
@@ -774,22 +899,25 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
             final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
             LOG.error(errorMsg, e);
             throw new TradingApiException(errorMsg, e);
+        } finally {
+            nonceSequence.release();
         }
     }
 
     /**
-     * Converts a given byte array to a hex String.
+     * Returns the rate limit priority of an authenticated API call.
      *
-     * @param byteArrayToConvert byte array to convert.
-     * @return the string representation of the given byte array.
+     * @param apiMethod the API method being called.
+     * @return the priority of the call.
      */
-    private String toHex(byte[] byteArrayToConvert) {
-        final StringBuilder hexString = new StringBuilder();
-
-        for (final byte aByte : byteArrayToConvert) {
-            hexString.append(String.format("%02x", aByte & 0xff));
+    private static RequestPriority requestPriority(String apiMethod) {
+        if (apiMethod.equals("cancel_order")) {
+            return RequestPriority.CANCEL_ORDER;
+        } else if (apiMethod.startsWith("buy/") || apiMethod.startsWith("sell/")) {
+            return RequestPriority.CREATE_ORDER;
+        } else {
+            return RequestPriority.ACCOUNT;
         }
-        return hexString.toString();
     }
 
     /**
@@ -801,9 +929,7 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
 
         // Setup the MAC
         try {
-            final SecretKeySpec keyspec = new SecretKeySpec(secret.getBytes("UTF-8"), "HmacSHA256");
-            mac = Mac.getInstance("HmacSHA256");
-            mac.init(keyspec);
+            requestSigner = new RequestSigner(HmacAlgorithm.HMAC_SHA256, secret.getBytes("UTF-8"));
             initializedMACAuthentication = true;
         } catch (UnsupportedEncodingException | NoSuchAlgorithmException e) {
             final String errorMsg = "Failed to setup MAC security. HINT: Is HMAC-SHA256 installed?";
@@ -828,6 +954,15 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
         secret = getAuthenticationConfigItem(authenticationConfig, SECRET_PROPERTY_NAME);
     }
 
+    private void setOptionalConfig(ExchangeConfig exchangeConfig) {
+
+        // optional config is not required for this adapter
+        if (isOrderBookFeedEnabled(exchangeConfig.getOptionalConfig())) {
+            orderBookFeed = new BitstampOrderBookFeed(BitstampOrderBookFeed.FEED_URI, getConnectionTimeout(),
+                    getReadTimeout(), this::loadOrderBookSnapshot);
+        }
+    }
+
     // ------------------------------------------------------------------------------------------------
     //  Util methods
     // ------------------------------------------------------------------------------------------------
@@ -836,9 +971,11 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
      * Initialises the GSON layer.
      */
     private void initGson() {
-        final GsonBuilder gsonBuilder = new GsonBuilder();
-        gsonBuilder.registerTypeAdapter(Date.class, new BitstampDateDeserializer());
-        gson = gsonBuilder.create();
+        gson = getSharedGson(() -> {
+            final GsonBuilder gsonBuilder = new GsonBuilder();
+            gsonBuilder.registerTypeAdapter(Date.class, new BitstampDateDeserializer());
+            return gsonBuilder.create();
+        });
     }
 
     /*
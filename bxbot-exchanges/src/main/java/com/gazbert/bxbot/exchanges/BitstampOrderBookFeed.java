@@ -0,0 +1,218 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams Bitstamp order books from the <a href="https://www.bitstamp.net/websocket/v2/">diff_order_book
+ * channel</a> of the Bitstamp WebSocket API.
+ * <p>
+ * The channel only sends changes, so the book is seeded from a REST order book snapshot. Changes are buffered from the
+ * moment the subscription is confirmed until the snapshot arrives; from then on, only the ones newer than the snapshot
+ * are applied.
+ * The changes hold the new total amount at a price level rather than a delta, so applying one the snapshot already
+ * includes does no harm. Bitstamp does not send heartbeats, so the feed sends its own.
+ *
+ * @author gazbert
+ */
+final class BitstampOrderBookFeed extends OrderBookFeed {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    /**
+     * The Bitstamp WebSocket API URI.
+     */
+    static final URI FEED_URI = URI.create("wss://ws.bitstamp.net");
+
+    private static final String CHANNEL_PREFIX = "diff_order_book_";
+
+    /**
+     * Fetches the REST order book snapshot used to seed a market's book.
+     */
+    @FunctionalInterface
+    interface SnapshotLoader {
+
+        /**
+         * Fetches the order book snapshot for a market.
+         *
+         * @param marketId the id of the market.
+         * @return the order_book API response payload.
+         * @throws Exception if the snapshot could not be fetched.
+         */
+        String load(String marketId) throws Exception;
+    }
+
+    private final SnapshotLoader snapshotLoader;
+    private final JsonParser jsonParser = new JsonParser();
+
+    /**
+     * Changes received for each market while its snapshot is being fetched. Guarded by this.
+     */
+    private final Map<String, List<JsonObject>> pendingChanges = new HashMap<>();
+
+    /**
+     * Time of the snapshot each market's book was seeded from, in microseconds. Guarded by this.
+     */
+    private final Map<String, Long> snapshotTimes = new HashMap<>();
+
+
+    BitstampOrderBookFeed(URI uri, int connectionTimeout, int readTimeout, SnapshotLoader snapshotLoader) {
+        super(uri, connectionTimeout, readTimeout);
+        this.snapshotLoader = snapshotLoader;
+    }
+
+    @Override
+    synchronized void onConnected() {
+        pendingChanges.clear();
+        snapshotTimes.clear();
+    }
+
+    @Override
+    String subscribeMessage(String marketId) {
+        final JsonObject data = new JsonObject();
+        data.addProperty("channel", CHANNEL_PREFIX + marketId);
+        final JsonObject subscribe = new JsonObject();
+        subscribe.addProperty("event", "bts:subscribe");
+        subscribe.add("data", data);
+        return subscribe.toString();
+    }
+
+    @Override
+    String heartbeatMessage() {
+        final JsonObject heartbeat = new JsonObject();
+        heartbeat.addProperty("event", "bts:heartbeat");
+        return heartbeat.toString();
+    }
+
+    @Override
+    void handleMessage(String message) {
+
+        final JsonObject json = jsonParser.parse(message).getAsJsonObject();
+        final String event = json.get("event").getAsString();
+        switch (event) {
+            case "bts:subscription_succeeded":
+                final String subscribedMarketId = marketId(json);
+                synchronized (this) {
+                    pendingChanges.put(subscribedMarketId, new ArrayList<>());
+                }
+                onFeedThread(() -> loadSnapshot(subscribedMarketId));
+                break;
+            case "data":
+                applyChange(marketId(json), json.getAsJsonObject("data"));
+                break;
+            case "bts:request_reconnect":
+                LOG.info(() -> "Bitstamp asked for a reconnect: " + message);
+                resync();
+                break;
+            case "bts:error":
+                LOG.error(() -> "Error from Bitstamp order book feed: " + message);
+                break;
+            default:
+                // heartbeat acknowledgements
+                break;
+        }
+    }
+
+    private synchronized void applyChange(String marketId, JsonObject change) {
+        final List<JsonObject> pending = pendingChanges.get(marketId);
+        if (pending != null) {
+            pending.add(change);
+            return;
+        }
+        final LocalOrderBook book = getBook(marketId);
+        final Long snapshotTime = snapshotTimes.get(marketId);
+        if (book != null && book.isSynced() && snapshotTime != null && microtimestamp(change) >= snapshotTime) {
+            applyLevels(book, change);
+        }
+    }
+
+    private void loadSnapshot(String marketId) {
+        final LocalOrderBook book = getBook(marketId);
+        if (book == null) {
+            return;
+        }
+        try {
+            final JsonObject snapshot = jsonParser.parse(snapshotLoader.load(marketId)).getAsJsonObject();
+            final long snapshotTime = microtimestamp(snapshot);
+            synchronized (this) {
+                final List<JsonObject> pending = pendingChanges.remove(marketId);
+                if (pending == null) {
+                    return; // the connection was reset while we were fetching it
+                }
+                book.clear();
+                applyLevels(book, snapshot);
+                for (final JsonObject change : pending) {
+                    if (microtimestamp(change) >= snapshotTime) {
+                        applyLevels(book, change);
+                    }
+                }
+                snapshotTimes.put(marketId, snapshotTime);
+                book.markSynced();
+            }
+        } catch (Exception e) {
+            LOG.error("Failed to load Bitstamp order book snapshot for " + marketId, e);
+            resync();
+        }
+    }
+
+    private static void applyLevels(LocalOrderBook book, JsonObject levels) {
+        applyLevels(book, OrderType.BUY, levels.getAsJsonArray("bids"));
+        applyLevels(book, OrderType.SELL, levels.getAsJsonArray("asks"));
+    }
+
+    private static void applyLevels(LocalOrderBook book, OrderType side, JsonArray levels) {
+        for (final JsonElement levelElement : levels) {
+            final JsonArray level = levelElement.getAsJsonArray();
+            book.update(side, level.get(0).getAsBigDecimal(), level.get(1).getAsBigDecimal());
+        }
+    }
+
+    /*
+     * Older order_book responses only carry a timestamp in seconds.
+     */
+    private static long microtimestamp(JsonObject json) {
+        if (json.has("microtimestamp")) {
+            return json.get("microtimestamp").getAsLong();
+        }
+        return json.get("timestamp").getAsLong() * 1000000L;
+    }
+
+    private static String marketId(JsonObject json) {
+        return json.get("channel").getAsString().substring(CHANNEL_PREFIX.length());
+    }
+}
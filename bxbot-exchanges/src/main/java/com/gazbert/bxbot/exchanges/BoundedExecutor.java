@@ -0,0 +1,135 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs tasks on a shared executor, but never more than a fixed number of them at once. Tasks over the limit are
+ * queued here, not in the shared executor, and are handed to it in submission order as this executor's running tasks
+ * complete. With a limit of one, the tasks run one at a time in the order they were submitted.
+ * <p>
+ * Exchange Adapters use it with a limit of one for their authenticated async calls, so orders reach the exchange in
+ * the order the Trading Strategy placed them and request nonces keep increasing. The Trading Engine uses it so each
+ * engine hosted in the JVM keeps its own strategy execution pool size while all the engines share one thread pool.
+ * <p>
+ * If the shared executor rejects a task submitted by {@link #execute(Runnable)}, the exception is thrown to the
+ * caller. If it rejects a queued task being handed over - usually because it has been shut down - the queued tasks
+ * are run on the thread that found the rejection instead, so no task is left waiting in the queue for ever.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author gazbert
+ */
+public final class BoundedExecutor implements Executor {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private final Executor sharedExecutor;
+    private final int maxRunningTasks;
+
+    /*
+     * Guarded by this.
+     */
+    private final Queue<Runnable> queuedTasks = new ArrayDeque<>();
+    private int runningTasks;
+
+
+    /**
+     * Creates the executor.
+     *
+     * @param sharedExecutor  the executor the tasks are run on.
+     * @param maxRunningTasks the most tasks to run at once.
+     * @throws IllegalArgumentException if maxRunningTasks is not greater than zero.
+     */
+    public BoundedExecutor(Executor sharedExecutor, int maxRunningTasks) {
+        if (maxRunningTasks <= 0) {
+            throw new IllegalArgumentException("Max running tasks must be greater than zero: " + maxRunningTasks);
+        }
+        this.sharedExecutor = sharedExecutor;
+        this.maxRunningTasks = maxRunningTasks;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        synchronized (this) {
+            if (runningTasks >= maxRunningTasks) {
+                queuedTasks.add(task);
+                return;
+            }
+            runningTasks++;
+        }
+        try {
+            sharedExecutor.execute(() -> runThenReleasePlace(task));
+        } catch (RuntimeException e) {
+            // tasks may have been queued behind this one while it held the place
+            releasePlace();
+            throw e;
+        }
+    }
+
+    private void runThenReleasePlace(Runnable task) {
+        try {
+            task.run();
+        } finally {
+            releasePlace();
+        }
+    }
+
+    /*
+     * Hands the place to the next queued task, or gives it up if there are none.
+     */
+    private void releasePlace() {
+        while (true) {
+            final Runnable nextTask;
+            synchronized (this) {
+                nextTask = queuedTasks.poll();
+                if (nextTask == null) {
+                    runningTasks--;
+                    return;
+                }
+            }
+            try {
+                sharedExecutor.execute(() -> runThenReleasePlace(nextTask));
+                return;
+            } catch (RuntimeException e) {
+                LOG.warn("Shared executor rejected a queued task - running it on this thread instead", e);
+                runQueuedTaskHere(nextTask);
+            }
+        }
+    }
+
+    private static void runQueuedTaskHere(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            LOG.error("Queued task failed", e);
+        }
+    }
+}
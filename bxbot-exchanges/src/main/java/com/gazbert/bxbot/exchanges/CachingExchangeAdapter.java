@@ -0,0 +1,488 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.gazbert.bxbot.exchange.api.ExchangeConfig;
+import com.gazbert.bxbot.exchange.api.OptionalConfig;
+import com.gazbert.bxbot.exchanges.AbstractExchangeAdapter.TradingApiCall;
+import com.gazbert.bxbot.trading.api.AsyncTradingApi;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderRequest;
+import com.gazbert.bxbot.trading.api.OrderStatus;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Wraps an Exchange Adapter and caches the results of its read calls for a configured time-to-live (TTL).
+ * <p>
+ * The TTLs are set in seconds using these optional config items in exchange.xml:
+ * <ul>
+ * <li>{@value #LATEST_MARKET_PRICE_TTL_PROPERTY_NAME} - for getLatestMarketPrice</li>
+ * <li>{@value #MARKET_ORDERS_TTL_PROPERTY_NAME} - for getMarketOrders</li>
+ * <li>{@value #BALANCE_INFO_TTL_PROPERTY_NAME} - for getBalanceInfo</li>
+ * <li>{@value #EXCHANGE_FEES_TTL_PROPERTY_NAME} - for the exchange fee calls</li>
+ * </ul>
+ * A call with no TTL, or a TTL of 0, is not cached. Open orders and order statuses are never cached. Failed calls are
+ * not cached.
+ * <p>
+ * Placing or cancelling an order on a market clears the cached order book and latest price for that market, and the
+ * cached balance info. A read that was in flight when the order was placed or cancelled is not cached.
+ * <p>
+ * The Trading Engine wraps the configured Exchange Adapter in one of these if any TTL is set, so it works with every
+ * adapter and Trading Strategies do not need to change. It implements {@link AsyncTradingApi}; if the wrapped adapter
+ * does not, the async calls are made on the calling thread.
+ * <p>
+ * This class is thread safe if the wrapped adapter is.
+ *
+ * @author gazbert
+ */
+public final class CachingExchangeAdapter implements ExchangeAdapter, AsyncTradingApi {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    /**
+     * Name of the optional config item for the getLatestMarketPrice TTL in seconds.
+     */
+    public static final String LATEST_MARKET_PRICE_TTL_PROPERTY_NAME = "cache-ttl-latest-market-price";
+
+    /**
+     * Name of the optional config item for the getMarketOrders TTL in seconds.
+     */
+    public static final String MARKET_ORDERS_TTL_PROPERTY_NAME = "cache-ttl-market-orders";
+
+    /**
+     * Name of the optional config item for the getBalanceInfo TTL in seconds.
+     */
+    public static final String BALANCE_INFO_TTL_PROPERTY_NAME = "cache-ttl-balance-info";
+
+    /**
+     * Name of the optional config item for the exchange fee calls TTL in seconds.
+     */
+    public static final String EXCHANGE_FEES_TTL_PROPERTY_NAME = "cache-ttl-exchange-fees";
+
+    private static final String LATEST_MARKET_PRICE_KEY = "getLatestMarketPrice/";
+    private static final String MARKET_ORDERS_KEY = "getMarketOrders/";
+    private static final String BALANCE_INFO_KEY = "getBalanceInfo";
+    private static final String BUY_FEE_KEY = "getPercentageOfBuyOrderTakenForExchangeFee/";
+    private static final String SELL_FEE_KEY = "getPercentageOfSellOrderTakenForExchangeFee/";
+
+    /**
+     * Depth used in the cache key for the full order book.
+     */
+    private static final int FULL_DEPTH = 0;
+
+    private final ExchangeAdapter delegate;
+    private final LongSupplier nanoClock;
+    private final ConcurrentMap<String, CacheEntry> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Counts the orders placed or cancelled, so a read that overlaps one is not cached.
+     */
+    private final AtomicLong orderWriteCount = new AtomicLong();
+
+    private volatile long latestMarketPriceTtlNanos;
+    private volatile long marketOrdersTtlNanos;
+    private volatile long balanceInfoTtlNanos;
+    private volatile long exchangeFeesTtlNanos;
+
+
+    /**
+     * Creates a caching wrapper for an Exchange Adapter.
+     *
+     * @param delegate the Exchange Adapter to wrap.
+     */
+    public CachingExchangeAdapter(ExchangeAdapter delegate) {
+        this(delegate, System::nanoTime);
+    }
+
+    CachingExchangeAdapter(ExchangeAdapter delegate, LongSupplier nanoClock) {
+        this.delegate = delegate;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Checks if any cache TTL is set in the Exchange Adapter config.
+     *
+     * @param config the Exchange Adapter config.
+     * @return true if at least one TTL is greater than 0, false otherwise.
+     * @throws IllegalArgumentException if a TTL is not a whole number of seconds, or is negative.
+     */
+    public static boolean isCachingEnabled(ExchangeConfig config) {
+        final OptionalConfig optionalConfig = config.getOptionalConfig();
+        return getTtlNanos(optionalConfig, LATEST_MARKET_PRICE_TTL_PROPERTY_NAME) > 0
+                || getTtlNanos(optionalConfig, MARKET_ORDERS_TTL_PROPERTY_NAME) > 0
+                || getTtlNanos(optionalConfig, BALANCE_INFO_TTL_PROPERTY_NAME) > 0
+                || getTtlNanos(optionalConfig, EXCHANGE_FEES_TTL_PROPERTY_NAME) > 0;
+    }
+
+    @Override
+    public void init(ExchangeConfig config) {
+
+        final OptionalConfig optionalConfig = config.getOptionalConfig();
+        latestMarketPriceTtlNanos = getTtlNanos(optionalConfig, LATEST_MARKET_PRICE_TTL_PROPERTY_NAME);
+        marketOrdersTtlNanos = getTtlNanos(optionalConfig, MARKET_ORDERS_TTL_PROPERTY_NAME);
+        balanceInfoTtlNanos = getTtlNanos(optionalConfig, BALANCE_INFO_TTL_PROPERTY_NAME);
+        exchangeFeesTtlNanos = getTtlNanos(optionalConfig, EXCHANGE_FEES_TTL_PROPERTY_NAME);
+        cache.clear();
+
+        delegate.init(config);
+        LOG.info(() -> "Caching results of Exchange Adapter: " + delegate.getImplName());
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    // Trading API
+    // ------------------------------------------------------------------------------------------------
+
+    @Override
+    public String getVersion() {
+        return delegate.getVersion();
+    }
+
+    @Override
+    public String getImplName() {
+        return delegate.getImplName();
+    }
+
+    @Override
+    public MarketOrderBook getMarketOrders(String marketId) throws ExchangeNetworkException, TradingApiException {
+        return cached(MARKET_ORDERS_KEY + marketId + "/" + FULL_DEPTH, marketOrdersTtlNanos,
+                () -> delegate.getMarketOrders(marketId));
+    }
+
+    @Override
+    public MarketOrderBook getMarketOrders(String marketId, int depth)
+            throws ExchangeNetworkException, TradingApiException {
+        return cached(MARKET_ORDERS_KEY + marketId + "/" + depth, marketOrdersTtlNanos,
+                () -> delegate.getMarketOrders(marketId, depth));
+    }
+
+    @Override
+    public List<OpenOrder> getYourOpenOrders(String marketId) throws ExchangeNetworkException, TradingApiException {
+        return delegate.getYourOpenOrders(marketId);
+    }
+
+    @Override
+    public OrderStatus getOrderStatus(String orderId, String marketId)
+            throws ExchangeNetworkException, TradingApiException {
+        return delegate.getOrderStatus(orderId, marketId);
+    }
+
+    @Override
+    public String createOrder(String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price)
+            throws ExchangeNetworkException, TradingApiException {
+        try {
+            return delegate.createOrder(marketId, orderType, quantity, price);
+        } finally {
+            invalidate(marketId);
+        }
+    }
+
+    @Override
+    public boolean cancelOrder(String orderId, String marketId) throws ExchangeNetworkException, TradingApiException {
+        try {
+            return delegate.cancelOrder(orderId, marketId);
+        } finally {
+            invalidate(marketId);
+        }
+    }
+
+    @Override
+    public List<String> createOrders(List<OrderRequest> orderRequests)
+            throws ExchangeNetworkException, TradingApiException {
+        try {
+            return delegate.createOrders(orderRequests);
+        } finally {
+            orderRequests.stream().map(OrderRequest::getMarketId).distinct().forEach(this::invalidate);
+        }
+    }
+
+    @Override
+    public List<String> cancelOrders(List<String> orderIds, String marketId)
+            throws ExchangeNetworkException, TradingApiException {
+        try {
+            return delegate.cancelOrders(orderIds, marketId);
+        } finally {
+            invalidate(marketId);
+        }
+    }
+
+    @Override
+    public List<String> cancelAllOrders(String marketId) throws ExchangeNetworkException, TradingApiException {
+        try {
+            return delegate.cancelAllOrders(marketId);
+        } finally {
+            invalidate(marketId);
+        }
+    }
+
+    @Override
+    public String replaceOrder(String orderId, String marketId, OrderType orderType, BigDecimal newQuantity,
+                               BigDecimal newPrice) throws ExchangeNetworkException, TradingApiException {
+        try {
+            return delegate.replaceOrder(orderId, marketId, orderType, newQuantity, newPrice);
+        } finally {
+            invalidate(marketId);
+        }
+    }
+
+    @Override
+    public BigDecimal getLatestMarketPrice(String marketId) throws ExchangeNetworkException, TradingApiException {
+        return cached(LATEST_MARKET_PRICE_KEY + marketId, latestMarketPriceTtlNanos,
+                () -> delegate.getLatestMarketPrice(marketId));
+    }
+
+    @Override
+    public BalanceInfo getBalanceInfo() throws ExchangeNetworkException, TradingApiException {
+        return cached(BALANCE_INFO_KEY, balanceInfoTtlNanos, delegate::getBalanceInfo);
+    }
+
+    @Override
+    public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId)
+            throws TradingApiException, ExchangeNetworkException {
+        return cached(BUY_FEE_KEY + marketId, exchangeFeesTtlNanos,
+                () -> delegate.getPercentageOfBuyOrderTakenForExchangeFee(marketId));
+    }
+
+    @Override
+    public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId)
+            throws TradingApiException, ExchangeNetworkException {
+        return cached(SELL_FEE_KEY + marketId, exchangeFeesTtlNanos,
+                () -> delegate.getPercentageOfSellOrderTakenForExchangeFee(marketId));
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    // Async Trading API
+    // ------------------------------------------------------------------------------------------------
+
+    @Override
+    public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId) {
+        return cachedAsync(MARKET_ORDERS_KEY + marketId + "/" + FULL_DEPTH, marketOrdersTtlNanos,
+                asyncApi -> asyncApi.getMarketOrdersAsync(marketId),
+                () -> delegate.getMarketOrders(marketId));
+    }
+
+    @Override
+    public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId, int depth) {
+        return cachedAsync(MARKET_ORDERS_KEY + marketId + "/" + depth, marketOrdersTtlNanos,
+                asyncApi -> asyncApi.getMarketOrdersAsync(marketId, depth),
+                () -> delegate.getMarketOrders(marketId, depth));
+    }
+
+    @Override
+    public CompletableFuture<List<OpenOrder>> getYourOpenOrdersAsync(String marketId) {
+        return delegateAsync(asyncApi -> asyncApi.getYourOpenOrdersAsync(marketId),
+                () -> delegate.getYourOpenOrders(marketId));
+    }
+
+    @Override
+    public CompletableFuture<String> createOrderAsync(String marketId, OrderType orderType, BigDecimal quantity,
+                                                      BigDecimal price) {
+        return delegateAsync(asyncApi -> asyncApi.createOrderAsync(marketId, orderType, quantity, price),
+                () -> delegate.createOrder(marketId, orderType, quantity, price))
+                .whenComplete((orderId, e) -> invalidate(marketId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> cancelOrderAsync(String orderId, String marketId) {
+        return delegateAsync(asyncApi -> asyncApi.cancelOrderAsync(orderId, marketId),
+                () -> delegate.cancelOrder(orderId, marketId))
+                .whenComplete((cancelled, e) -> invalidate(marketId));
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getLatestMarketPriceAsync(String marketId) {
+        return cachedAsync(LATEST_MARKET_PRICE_KEY + marketId, latestMarketPriceTtlNanos,
+                asyncApi -> asyncApi.getLatestMarketPriceAsync(marketId),
+                () -> delegate.getLatestMarketPrice(marketId));
+    }
+
+    @Override
+    public CompletableFuture<BalanceInfo> getBalanceInfoAsync() {
+        return cachedAsync(BALANCE_INFO_KEY, balanceInfoTtlNanos,
+                AsyncTradingApi::getBalanceInfoAsync,
+                delegate::getBalanceInfo);
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getPercentageOfBuyOrderTakenForExchangeFeeAsync(String marketId) {
+        return cachedAsync(BUY_FEE_KEY + marketId, exchangeFeesTtlNanos,
+                asyncApi -> asyncApi.getPercentageOfBuyOrderTakenForExchangeFeeAsync(marketId),
+                () -> delegate.getPercentageOfBuyOrderTakenForExchangeFee(marketId));
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getPercentageOfSellOrderTakenForExchangeFeeAsync(String marketId) {
+        return cachedAsync(SELL_FEE_KEY + marketId, exchangeFeesTtlNanos,
+                asyncApi -> asyncApi.getPercentageOfSellOrderTakenForExchangeFeeAsync(marketId),
+                () -> delegate.getPercentageOfSellOrderTakenForExchangeFee(marketId));
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    // Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the number of results in the cache, including any that have expired but not yet been replaced.
+     *
+     * @return the number of cached results.
+     */
+    int getCachedResultCount() {
+        return cache.size();
+    }
+
+    private <T> T cached(String key, long ttlNanos, TradingApiCall<T> call)
+            throws ExchangeNetworkException, TradingApiException {
+
+        if (ttlNanos <= 0) {
+            return call.call();
+        }
+        final T cachedResult = getCachedResult(key);
+        if (cachedResult != null) {
+            return cachedResult;
+        }
+        final long calledAt = nanoClock.getAsLong();
+        final long orderWriteCountAtCall = orderWriteCount.get();
+        final T result = call.call();
+        cacheResult(key, result, calledAt + ttlNanos, orderWriteCountAtCall);
+        return result;
+    }
+
+    private <T> CompletableFuture<T> cachedAsync(String key, long ttlNanos,
+                                                 Function<AsyncTradingApi, CompletableFuture<T>> asyncCall,
+                                                 TradingApiCall<T> call) {
+        if (ttlNanos <= 0) {
+            return delegateAsync(asyncCall, call);
+        }
+        final T cachedResult = getCachedResult(key);
+        if (cachedResult != null) {
+            return CompletableFuture.completedFuture(cachedResult);
+        }
+        final long calledAt = nanoClock.getAsLong();
+        final long orderWriteCountAtCall = orderWriteCount.get();
+        return delegateAsync(asyncCall, call).whenComplete((result, e) -> {
+            if (e == null) {
+                cacheResult(key, result, calledAt + ttlNanos, orderWriteCountAtCall);
+            }
+        });
+    }
+
+    private <T> CompletableFuture<T> delegateAsync(Function<AsyncTradingApi, CompletableFuture<T>> asyncCall,
+                                                   TradingApiCall<T> call) {
+        if (delegate instanceof AsyncTradingApi) {
+            return asyncCall.apply((AsyncTradingApi) delegate);
+        }
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            result.complete(call.call());
+        } catch (ExchangeNetworkException | TradingApiException | RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getCachedResult(String key) {
+        final CacheEntry entry = cache.get(key);
+        if (entry != null && entry.expiresAt - nanoClock.getAsLong() > 0) {
+            LOG.debug(() -> "Using cached result for: " + key);
+            return (T) entry.result;
+        }
+        return null;
+    }
+
+    private void cacheResult(String key, Object result, long expiresAt, long orderWriteCountAtCall) {
+        if (result == null) {
+            return;
+        }
+        final CacheEntry entry = new CacheEntry(result, expiresAt);
+        cache.put(key, entry);
+
+        // An order was placed or cancelled while the call was in flight, so the result may already be stale
+        if (orderWriteCount.get() != orderWriteCountAtCall) {
+            cache.remove(key, entry);
+        }
+    }
+
+    private void invalidate(String marketId) {
+        // Count the write before removing, so a call that overlapped it does not cache its result afterwards
+        orderWriteCount.incrementAndGet();
+        cache.remove(LATEST_MARKET_PRICE_KEY + marketId);
+        cache.remove(BALANCE_INFO_KEY);
+        cache.keySet().removeIf(key -> key.startsWith(MARKET_ORDERS_KEY + marketId + "/"));
+        LOG.debug(() -> "Cleared cached results for market: " + marketId);
+    }
+
+    private static long getTtlNanos(OptionalConfig optionalConfig, String itemName) {
+
+        if (optionalConfig == null) {
+            return 0;
+        }
+        final String itemValue = optionalConfig.getItem(itemName);
+        if (itemValue == null) {
+            return 0;
+        }
+        try {
+            final long ttlSeconds = Long.parseLong(itemValue.trim());
+            if (ttlSeconds >= 0) {
+                return TimeUnit.SECONDS.toNanos(ttlSeconds);
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the error below
+        }
+        final String errorMsg = itemName + " must be a whole number of seconds, 0 or more: " + itemValue;
+        LOG.error(errorMsg);
+        throw new IllegalArgumentException(errorMsg);
+    }
+
+    /**
+     * A cached result and the time it expires, from {@link System#nanoTime()}.
+     */
+    private static final class CacheEntry {
+
+        private final Object result;
+        private final long expiresAt;
+
+        CacheEntry(Object result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
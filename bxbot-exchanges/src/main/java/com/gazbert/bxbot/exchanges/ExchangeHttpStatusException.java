@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.trading.api.TradingApiException;
+
+/**
+ * Thrown when the Exchange answers a request with an HTTP error status that is not a network error.
+ * <p>
+ * It carries the status code, so an adapter can tell an expected error response - e.g. a 400 when cancelling an order
+ * the Exchange does not recognise - from a fatal one. It is also the cause of the {@link
+ * com.gazbert.bxbot.trading.api.ExchangeNetworkException} thrown for a 404 or 410, for the same reason.
+ *
+ * @author gazbert
+ */
+final class ExchangeHttpStatusException extends TradingApiException {
+
+    private static final long serialVersionUID = 4906282764212474391L;
+
+    private final int statusCode;
+
+
+    /**
+     * Constructor builds exception with error message and the HTTP status code returned by the Exchange.
+     *
+     * @param msg        the error message.
+     * @param statusCode the HTTP status code.
+     */
+    ExchangeHttpStatusException(String msg, int statusCode) {
+        super(msg);
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * Returns the HTTP status code returned by the Exchange.
+     *
+     * @return the HTTP status code.
+     */
+    int getStatusCode() {
+        return statusCode;
+    }
+}
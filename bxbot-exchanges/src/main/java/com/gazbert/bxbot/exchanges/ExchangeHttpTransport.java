@@ -0,0 +1,81 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.AbstractExchangeAdapter.ExchangeHttpResponse;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * Sends HTTP requests to an Exchange on behalf of an Exchange Adapter.
+ * <p>
+ * Implementations must be thread safe: a single transport can be shared by several adapters, and by several bots
+ * hosted in the same JVM.
+ *
+ * @author gazbert
+ * @since 1.0
+ */
+interface ExchangeHttpTransport {
+
+    /**
+     * Sends a request to the Exchange and returns the response, leaving the connection open for the payload to be
+     * streamed from it.
+     * <p>
+     * Any HTTP status returned by the Exchange is passed back in the response; it is up to the caller to decide what
+     * an error status means. The caller must close the response once it has been read.
+     *
+     * @param url            the URL to invoke.
+     * @param httpMethod     the HTTP method to use, e.g. GET, POST, DELETE
+     * @param postData       optional post data to send. This can be null.
+     * @param requestHeaders optional request headers to send. This can be null.
+     * @return the streamed response from the Exchange.
+     * @throws java.net.SocketTimeoutException if the connect or read timeout is breached.
+     * @throws IOException                     if the request could not be sent.
+     */
+    ExchangeHttpResponse open(URL url, String httpMethod, String postData, Map<String, String> requestHeaders)
+            throws IOException;
+
+    /**
+     * Sends a request to the Exchange and reads the whole response.
+     * <p>
+     * Any HTTP status returned by the Exchange is passed back in the response; it is up to the caller to decide what
+     * an error status means.
+     *
+     * @param url            the URL to invoke.
+     * @param httpMethod     the HTTP method to use, e.g. GET, POST, DELETE
+     * @param postData       optional post data to send. This can be null.
+     * @param requestHeaders optional request headers to send. This can be null.
+     * @return the response from the Exchange.
+     * @throws java.net.SocketTimeoutException if the connect or read timeout is breached.
+     * @throws IOException                     if the request could not be sent or the response could not be read.
+     */
+    default ExchangeHttpResponse send(URL url, String httpMethod, String postData, Map<String, String> requestHeaders)
+            throws IOException {
+        try (ExchangeHttpResponse response = open(url, httpMethod, postData, requestHeaders)) {
+            return new ExchangeHttpResponse(response.getStatusCode(), response.getReasonPhrase(), response.readPayload());
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds an Exchange's trading fees in memory, so fee lookups do not each make an authenticated call to the Exchange.
+ * <p>
+ * The fees for all markets are loaded on the first lookup. After that, lookups are served from memory; once the fees
+ * are older than the refresh interval, the next lookup starts a refresh in the background and carries on using the
+ * fees it has. If a refresh fails, the old fees are kept and the refresh is retried after a short delay.
+ * <p>
+ * Adapters whose balance call also returns the fees can pass them to {@link #update(Map)}, which saves a separate
+ * refresh.
+ * <p>
+ * This class is thread safe. It uses a {@link ReentrantLock} rather than a monitor, so virtual threads waiting for the
+ * first load are not pinned.
+ *
+ * @author gazbert
+ */
+final class FeeSchedule {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    /**
+     * Market id for a fee that applies to all markets without a fee of their own.
+     */
+    static final String ANY_MARKET = "*";
+
+    /**
+     * Fee tiers change at most daily, so refreshing hourly keeps the fees current without costing many requests.
+     */
+    private static final long DEFAULT_REFRESH_INTERVAL_MINUTES = 60;
+
+    private static final long RETRY_INTERVAL_SECONDS = 60;
+
+    /**
+     * Loads the fees for all markets from the Exchange.
+     */
+    interface FeeLoader {
+
+        /**
+         * Loads the fees.
+         *
+         * @return the fee for each market id as a fraction of the order, e.g. 0.0025 for 0.25%. Use
+         * {@link #ANY_MARKET} for a fee that applies to all markets.
+         * @throws ExchangeNetworkException if a network error occurred trying to connect to the exchange.
+         * @throws TradingApiException      if the API call failed for any reason other than a network error.
+         */
+        Map<String, BigDecimal> loadFees() throws ExchangeNetworkException, TradingApiException;
+    }
+
+    private final FeeLoader feeLoader;
+    private final Executor refreshExecutor;
+    private final long refreshIntervalNanos;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile Map<String, BigDecimal> fees;
+    private volatile long nextRefreshAt;
+
+
+    /**
+     * Creates a fee schedule that refreshes the fees every hour.
+     *
+     * @param feeLoader       loads the fees from the Exchange.
+     * @param refreshExecutor runs the background refreshes.
+     */
+    FeeSchedule(FeeLoader feeLoader, Executor refreshExecutor) {
+        this(feeLoader, refreshExecutor, TimeUnit.MINUTES.toNanos(DEFAULT_REFRESH_INTERVAL_MINUTES), System::nanoTime);
+    }
+
+    FeeSchedule(FeeLoader feeLoader, Executor refreshExecutor, long refreshIntervalNanos, LongSupplier nanoClock) {
+        this.feeLoader = feeLoader;
+        this.refreshExecutor = refreshExecutor;
+        this.refreshIntervalNanos = refreshIntervalNanos;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns the fee for a market, loading the fees first if they have not been loaded yet.
+     *
+     * @param marketId the id of the market.
+     * @return the fee as a fraction of the order, e.g. 0.0025 for 0.25%.
+     * @throws ExchangeNetworkException if the fees are not loaded and a network error occurred loading them.
+     * @throws TradingApiException      if the fees are not loaded and loading them failed for any other reason, or
+     *                                  there is no fee for the market.
+     */
+    BigDecimal getFee(String marketId) throws ExchangeNetworkException, TradingApiException {
+
+        Map<String, BigDecimal> currentFees = fees;
+        if (currentFees == null) {
+            currentFees = loadFees();
+        } else if (nextRefreshAt - nanoClock.getAsLong() <= 0) {
+            refreshInBackground();
+        }
+
+        BigDecimal fee = currentFees.get(marketId);
+        if (fee == null) {
+            fee = currentFees.get(ANY_MARKET);
+        }
+        if (fee == null) {
+            final String errorMsg = "Unable to find exchange fee for MarketId: " + marketId + " Fees: " + currentFees;
+            LOG.error(errorMsg);
+            throw new TradingApiException(errorMsg);
+        }
+        return fee;
+    }
+
+    /**
+     * Replaces the fees with ones the adapter has fetched from the Exchange as part of another call.
+     *
+     * @param latestFees the fee for each market id, as returned by {@link FeeLoader#loadFees()}.
+     */
+    void update(Map<String, BigDecimal> latestFees) {
+        if (!latestFees.isEmpty()) {
+            setFees(latestFees);
+        }
+    }
+
+    private Map<String, BigDecimal> loadFees() throws ExchangeNetworkException, TradingApiException {
+        loadLock.lock();
+        try {
+            // Another thread may have loaded them while we waited for the lock
+            final Map<String, BigDecimal> loadedFees = fees;
+            if (loadedFees != null) {
+                return loadedFees;
+            }
+            return setFees(feeLoader.loadFees());
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void refreshInBackground() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    setFees(feeLoader.loadFees());
+                    LOG.debug(() -> "Refreshed exchange fees: " + fees);
+                } catch (Exception e) {
+                    nextRefreshAt = nanoClock.getAsLong() + TimeUnit.SECONDS.toNanos(RETRY_INTERVAL_SECONDS);
+                    LOG.warn("Failed to refresh exchange fees - will keep using the current fees and retry in "
+                            + RETRY_INTERVAL_SECONDS + "s", e);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.set(false);
+            throw e;
+        }
+    }
+
+    private Map<String, BigDecimal> setFees(Map<String, BigDecimal> latestFees) {
+        final Map<String, BigDecimal> immutableFees = Collections.unmodifiableMap(new HashMap<>(latestFees));
+        nextRefreshAt = nanoClock.getAsLong() + refreshIntervalNanos;
+        fees = immutableFees;
+        return immutableFees;
+    }
+}
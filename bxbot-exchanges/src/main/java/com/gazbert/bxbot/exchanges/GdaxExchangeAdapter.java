@@ -27,6 +27,8 @@ import com.gazbert.bxbot.exchange.api.AuthenticationConfig;
 import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
 import com.gazbert.bxbot.exchange.api.ExchangeConfig;
 import com.gazbert.bxbot.exchange.api.OptionalConfig;
+import com.gazbert.bxbot.exchanges.RateLimiter.RequestPriority;
+import com.gazbert.bxbot.exchanges.RequestSigner.HmacAlgorithm;
 import com.gazbert.bxbot.trading.api.*;
 import com.google.common.base.MoreObjects;
 import com.google.gson.Gson;
@@ -34,8 +36,6 @@ import com.google.gson.GsonBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import javax.xml.bind.DatatypeConverter;
 import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
@@ -79,9 +79,9 @@ import java.util.*;
  * {@link java.math.RoundingMode#HALF_EVEN}, E.g. 250.176 would be sent to the exchange as 250.18.
  * </p>
  * <p>
- * The Exchange Adapter is <em>not</em> thread safe. It expects to be called using a single thread in order to
- * preserve trade execution order. The {@link URLConnection} achieves this by blocking/waiting on the input stream
- * (response) for each API call.
+ * The Exchange Adapter is thread safe, so Trading Strategies running on different threads can share it. Calls made on
+ * a single thread keep their trade execution order: the {@link ExchangeHttpTransport} blocks/waits on the response for
+ * each API call.
  * </p>
  * <p>
  * The {@link TradingApi} calls will throw a {@link ExchangeNetworkException} if a network error occurs trying to
@@ -171,16 +171,21 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
     private String secret = "";
 
     /**
-     * Provides the "Message Authentication Code" (MAC) algorithm used for the secure messaging layer.
+     * Signs requests using the "Message Authentication Code" (MAC) algorithm for the secure messaging layer.
      * Used to encrypt the hash of the entire message with the private key to ensure message integrity.
      */
-    private Mac mac;
+    private RequestSigner requestSigner;
 
     /**
      * GSON engine used for parsing JSON in GDAX API call responses.
      */
     private Gson gson;
 
+    /**
+     * Streams the order books from the GDAX WebSocket feed; null unless order-book-feed is set in the config.
+     */
+    private OrderBookFeed orderBookFeed;
+
 
     @Override
     public void init(ExchangeConfig config) {
@@ -236,23 +241,24 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
             // note we need to limit size to 8 decimal places else exchange will barf
             params.put("size", new DecimalFormat("#.########").format(quantity));
 
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("POST", "orders", params);
-            LOG.debug(() -> "Create Order response: " + response);
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("POST", "orders", params)) {
+                LOG.debug(() -> "Create Order response: " + response);
+
+                if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+                    final GdaxOrder createOrderResponse = response.decodePayload(gson, GdaxOrder.class);
+                    if (createOrderResponse != null && (createOrderResponse.id != null && !createOrderResponse.id.isEmpty())) {
+                        return createOrderResponse.id;
+                    } else {
+                        final String errorMsg = "Failed to place order on exchange. Error response: " + response;
+                        LOG.error(errorMsg);
+                        throw new TradingApiException(errorMsg);
+                    }
 
-            if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
-                final GdaxOrder createOrderResponse = gson.fromJson(response.getPayload(), GdaxOrder.class);
-                if (createOrderResponse != null && (createOrderResponse.id != null && !createOrderResponse.id.isEmpty())) {
-                    return createOrderResponse.id;
                 } else {
-                    final String errorMsg = "Failed to place order on exchange. Error response: " + response;
+                    final String errorMsg = "Failed to create order on exchange. Details: " + response;
                     LOG.error(errorMsg);
                     throw new TradingApiException(errorMsg);
                 }
-
-            } else {
-                final String errorMsg = "Failed to create order on exchange. Details: " + response;
-                LOG.error(errorMsg);
-                throw new TradingApiException(errorMsg);
             }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
@@ -271,24 +277,57 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
 
         try {
 
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("DELETE", "orders/" + orderId, null);
-            LOG.debug(() -> "Cancel Order response: " + response);
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("DELETE", "orders/" + orderId, null)) {
+                LOG.debug(() -> "Cancel Order response: " + response);
 
-            if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
-                // response payload is now a JSON array with 1 String entry: the orderId :-)
-                final String[] cancelledOrderId = gson.fromJson(response.getPayload(), String[].class);
-                if (cancelledOrderId[0].equals(orderId)) {
-                    return true;
+                if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+                    // response payload is now a JSON array with 1 String entry: the orderId :-)
+                    final String[] cancelledOrderId = response.decodePayload(gson, String[].class);
+                    if (cancelledOrderId[0].equals(orderId)) {
+                        return true;
+                    } else {
+                        final String errorMsg = "Failed to cancel order on exchange due to Order Id mismatch. " +
+                                "OrderId sent: " + orderId + " ResponseOrderId: " + cancelledOrderId[0] + " Response: " + response;
+                        LOG.error(errorMsg);
+                        return false;
+                    }
                 } else {
-                    final String errorMsg = "Failed to cancel order on exchange due to Order Id mismatch. " +
-                            "OrderId sent: " + orderId + " ResponseOrderId: " + cancelledOrderId[0] + " Response: " + response;
+                    final String errorMsg = "Failed to cancel order on exchange. Details: " + response;
                     LOG.error(errorMsg);
                     return false;
                 }
-            } else {
-                final String errorMsg = "Failed to cancel order on exchange. Details: " + response;
-                LOG.error(errorMsg);
-                return false;
+            }
+
+        } catch (ExchangeNetworkException | TradingApiException e) {
+            throw e;
+        } catch (Exception e) {
+            LOG.error(UNEXPECTED_ERROR_MSG, e);
+            throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
+        }
+    }
+
+    /*
+     * Cancels the orders on the market in a single 'DELETE /orders' request, rather than fetching them first.
+     */
+    @Override
+    public List<String> cancelAllOrders(String marketId) throws TradingApiException, ExchangeNetworkException {
+
+        try {
+
+            // the product_id is part of the request path, so it must be included in the signature too
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("DELETE",
+                    "orders?product_id=" + marketId, null)) {
+                LOG.debug(() -> "Cancel All Orders response: " + response);
+
+                if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+                    // response payload is a JSON array of the cancelled orderIds
+                    final String[] cancelledOrderIds = response.decodePayload(gson, String[].class);
+                    return new ArrayList<>(Arrays.asList(cancelledOrderIds));
+                } else {
+                    final String errorMsg = "Failed to cancel all orders on exchange. Details: " + response;
+                    LOG.error(errorMsg);
+                    throw new TradingApiException(errorMsg);
+                }
             }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
@@ -306,55 +345,106 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
 
             // we use default request no-param call - only open or un-settled orders are returned.
             // As soon as an order is no longer open and settled, it will no longer appear in the default request.
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("GET", "orders", null);
-            LOG.debug(() -> "Open Orders response: " + response);
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("GET", "orders", null)) {
+                LOG.debug(() -> "Open Orders response: " + response);
+
+                if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+
+                    final GdaxOrder[] gdaxOpenOrders = response.decodePayload(gson, GdaxOrder[].class);
 
-            if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+                    final List<OpenOrder> ordersToReturn = new ArrayList<>();
+                    for (final GdaxOrder openOrder : gdaxOpenOrders) {
 
-                final GdaxOrder[] gdaxOpenOrders = gson.fromJson(response.getPayload(), GdaxOrder[].class);
+                        if (!marketId.equalsIgnoreCase(openOrder.product_id)) {
+                            continue;
+                        }
 
-                final List<OpenOrder> ordersToReturn = new ArrayList<>();
-                for (final GdaxOrder openOrder : gdaxOpenOrders) {
+                        OrderType orderType;
+                        switch (openOrder.side) {
+                            case "buy":
+                                orderType = OrderType.BUY;
+                                break;
+                            case "sell":
+                                orderType = OrderType.SELL;
+                                break;
+                            default:
+                                throw new TradingApiException(
+                                        "Unrecognised order type received in getYourOpenOrders(). Value: " + openOrder.side);
+                        }
 
-                    if (!marketId.equalsIgnoreCase(openOrder.product_id)) {
-                        continue;
+                        final OpenOrder order = new OpenOrder(
+                                openOrder.id,
+                                Date.from(Instant.parse(openOrder.created_at)),
+                                marketId,
+                                orderType,
+                                openOrder.price,
+                                openOrder.size.subtract(openOrder.filled_size), // quantity remaining - not provided by GDAX
+                                openOrder.size,                                 // orig quantity
+                                openOrder.price.multiply(openOrder.size)        // total - not provided by GDAX
+                        );
+
+                        ordersToReturn.add(order);
                     }
+                    return ordersToReturn;
+                } else {
+                    final String errorMsg = "Failed to get your open orders from exchange. Details: " + response;
+                    LOG.error(errorMsg);
+                    throw new TradingApiException(errorMsg);
+                }
+            }
+
+        } catch (ExchangeNetworkException | TradingApiException e) {
+            throw e;
+        } catch (Exception e) {
+            LOG.error(UNEXPECTED_ERROR_MSG, e);
+            throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
+        }
+    }
+
+    /*
+     * marketId is not needed for fetching an order on this exchange.
+     * GDAX purges cancelled orders that had no fills, so they are not found: the exchange returns a 404 HTTP Status,
+     * which is reported as CANCELLED.
+     */
+    @Override
+    public OrderStatus getOrderStatus(String orderId, String marketIdNotNeeded)
+            throws TradingApiException, ExchangeNetworkException {
+
+        try {
 
-                    OrderType orderType;
-                    switch (openOrder.side) {
-                        case "buy":
-                            orderType = OrderType.BUY;
-                            break;
-                        case "sell":
-                            orderType = OrderType.SELL;
-                            break;
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("GET", "orders/" + orderId, null)) {
+                LOG.debug(() -> "Order Status response: " + response);
+
+                if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+                    final GdaxOrder order = response.decodePayload(gson, GdaxOrder.class);
+                    switch (order.status) {
+                        case "done":
+                            if ("filled".equals(order.done_reason)) {
+                                return OrderStatus.FILLED;
+                            } else if ("canceled".equals(order.done_reason)) {
+                                return OrderStatus.CANCELLED;
+                            }
+                            return OrderStatus.CLOSED;
+                        case "rejected":
+                            return OrderStatus.CANCELLED;
                         default:
-                            throw new TradingApiException(
-                                    "Unrecognised order type received in getYourOpenOrders(). Value: " + openOrder.side);
+                            // "open", "pending" or "active"
+                            return OrderStatus.OPEN;
                     }
-
-                    final OpenOrder order = new OpenOrder(
-                            openOrder.id,
-                            Date.from(Instant.parse(openOrder.created_at)),
-                            marketId,
-                            orderType,
-                            openOrder.price,
-                            openOrder.size.subtract(openOrder.filled_size), // quantity remaining - not provided by GDAX
-                            openOrder.size,                                 // orig quantity
-                            openOrder.price.multiply(openOrder.size)        // total - not provided by GDAX
-                    );
-
-                    ordersToReturn.add(order);
+                } else {
+                    final String errorMsg = "Failed to get order status from exchange. Details: " + response;
+                    LOG.error(errorMsg);
+                    throw new TradingApiException(errorMsg);
                 }
-                return ordersToReturn;
-            } else {
-                final String errorMsg = "Failed to get your open orders from exchange. Details: " + response;
-                LOG.error(errorMsg);
-                throw new TradingApiException(errorMsg);
             }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
-            throw e;
+            if (isHttpErrorStatus(e, HTTP_NOT_FOUND_STATUS_CODE)) {
+                LOG.info(() -> "Order not found on exchange, so it was cancelled and purged. Order Id: " + orderId);
+                return OrderStatus.CANCELLED;
+            } else {
+                throw e;
+            }
         } catch (Exception e) {
             LOG.error(UNEXPECTED_ERROR_MSG, e);
             throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
@@ -363,45 +453,69 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
 
     @Override
     public MarketOrderBook getMarketOrders(String marketId) throws TradingApiException, ExchangeNetworkException {
+        return getMarketOrders(marketId, FULL_ORDER_BOOK_DEPTH);
+    }
+
+    @Override
+    public MarketOrderBook getMarketOrders(String marketId, int depth) throws TradingApiException,
+            ExchangeNetworkException {
+        return coalescePublicCall("getMarketOrders/" + marketId + "/" + depth,
+                () -> fetchMarketOrders(marketId, depth));
+    }
+
+    private MarketOrderBook fetchMarketOrders(String marketId, int depth) throws TradingApiException,
+            ExchangeNetworkException {
 
         try {
+            assertValidOrderBookDepth(depth);
+            if (orderBookFeed != null) {
+                final MarketOrderBook streamedOrderBook = orderBookFeed.getMarketOrders(marketId, depth);
+                if (streamedOrderBook != null) {
+                    return streamedOrderBook;
+                }
+            }
 
             final Map<String, String> params = getRequestParamMap();
-            params.put("level", "2"); //  "2" = Top 50 bids and asks (aggregated)
+            if (depth == 1) {
+                params.put("level", "1"); //  "1" = Only the best bid and ask
+            } else {
+                params.put("level", "2"); //  "2" = Top 50 bids and asks (aggregated)
+            }
 
-            final ExchangeHttpResponse response = sendPublicRequestToExchange("products/" + marketId + "/book", params);
-            LOG.debug(() -> "Market Orders response: " + response);
+            try (ExchangeHttpResponse response = sendPublicRequestToExchange("products/" + marketId + "/book", params)) {
+                LOG.debug(() -> "Market Orders response: " + response);
 
-            if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+                if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
 
-                final GdaxBookWrapper orderBook = gson.fromJson(response.getPayload(), GdaxBookWrapper.class);
+                    final GdaxBookWrapper orderBook = response.decodePayload(gson, GdaxBookWrapper.class);
 
-                final List<MarketOrder> buyOrders = new ArrayList<>();
-                for (GdaxMarketOrder gdaxBuyOrder : orderBook.bids) {
-                    final MarketOrder buyOrder = new MarketOrder(
-                            OrderType.BUY,
-                            gdaxBuyOrder.get(0),
-                            gdaxBuyOrder.get(1),
-                            gdaxBuyOrder.get(0).multiply(gdaxBuyOrder.get(1)));
-                    buyOrders.add(buyOrder);
-                }
+                    final List<MarketOrder> buyOrders = new ArrayList<>();
+                    for (GdaxMarketOrder gdaxBuyOrder : firstLevels(orderBook.bids, depth)) {
+                        final MarketOrder buyOrder = new MarketOrder(
+                                OrderType.BUY,
+                                gdaxBuyOrder.get(0),
+                                gdaxBuyOrder.get(1),
+                                gdaxBuyOrder.get(0).multiply(gdaxBuyOrder.get(1)));
+                        buyOrders.add(buyOrder);
+                    }
 
-                final List<MarketOrder> sellOrders = new ArrayList<>();
-                for (GdaxMarketOrder gdaxSellOrder : orderBook.asks) {
-                    final MarketOrder sellOrder = new MarketOrder(
-                            OrderType.SELL,
-                            gdaxSellOrder.get(0),
-                            gdaxSellOrder.get(1),
-                            gdaxSellOrder.get(0).multiply(gdaxSellOrder.get(1)));
-                    sellOrders.add(sellOrder);
-                }
+                    final List<MarketOrder> sellOrders = new ArrayList<>();
+                    for (GdaxMarketOrder gdaxSellOrder : firstLevels(orderBook.asks, depth)) {
+                        final MarketOrder sellOrder = new MarketOrder(
+                                OrderType.SELL,
+                                gdaxSellOrder.get(0),
+                                gdaxSellOrder.get(1),
+                                gdaxSellOrder.get(0).multiply(gdaxSellOrder.get(1)));
+                        sellOrders.add(sellOrder);
+                    }
 
-                return new MarketOrderBook(marketId, sellOrders, buyOrders);
+                    return new MarketOrderBook(marketId, sellOrders, buyOrders);
 
-            } else {
-                final String errorMsg = "Failed to get market order book from exchange. Details: " + response;
-                LOG.error(errorMsg);
-                throw new TradingApiException(errorMsg);
+                } else {
+                    final String errorMsg = "Failed to get market order book from exchange. Details: " + response;
+                    LOG.error(errorMsg);
+                    throw new TradingApiException(errorMsg);
+                }
             }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
@@ -416,26 +530,27 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
     public BalanceInfo getBalanceInfo() throws TradingApiException, ExchangeNetworkException {
 
         try {
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("GET", "accounts", null);
-            LOG.debug(() -> "Balance Info response: " + response);
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("GET", "accounts", null)) {
+                LOG.debug(() -> "Balance Info response: " + response);
 
-            if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+                if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
 
-                final GdaxAccount[] gdaxAccounts = gson.fromJson(response.getPayload(), GdaxAccount[].class);
+                    final GdaxAccount[] gdaxAccounts = response.decodePayload(gson, GdaxAccount[].class);
 
-                final HashMap<String, BigDecimal> balancesAvailable = new HashMap<>();
-                final HashMap<String, BigDecimal> balancesOnHold = new HashMap<>();
+                    final HashMap<String, BigDecimal> balancesAvailable = new HashMap<>();
+                    final HashMap<String, BigDecimal> balancesOnHold = new HashMap<>();
 
-                for (final GdaxAccount gdaxAccount : gdaxAccounts) {
-                    balancesAvailable.put(gdaxAccount.currency, gdaxAccount.available);
-                    balancesOnHold.put(gdaxAccount.currency, gdaxAccount.hold);
-                }
-                return new BalanceInfo(balancesAvailable, balancesOnHold);
+                    for (final GdaxAccount gdaxAccount : gdaxAccounts) {
+                        balancesAvailable.put(gdaxAccount.currency, gdaxAccount.available);
+                        balancesOnHold.put(gdaxAccount.currency, gdaxAccount.hold);
+                    }
+                    return new BalanceInfo(balancesAvailable, balancesOnHold);
 
-            } else {
-                final String errorMsg = "Failed to get your wallet balance info from exchange. Details: " + response;
-                LOG.error(errorMsg);
-                throw new TradingApiException(errorMsg);
+                } else {
+                    final String errorMsg = "Failed to get your wallet balance info from exchange. Details: " + response;
+                    LOG.error(errorMsg);
+                    throw new TradingApiException(errorMsg);
+                }
             }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
@@ -448,19 +563,24 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
 
     @Override
     public BigDecimal getLatestMarketPrice(String marketId) throws ExchangeNetworkException, TradingApiException {
+        return coalescePublicCall("getLatestMarketPrice/" + marketId, () -> fetchLatestMarketPrice(marketId));
+    }
+
+    private BigDecimal fetchLatestMarketPrice(String marketId) throws ExchangeNetworkException, TradingApiException {
 
         try {
 
-            final ExchangeHttpResponse response = sendPublicRequestToExchange("products/" + marketId + "/ticker", null);
-            LOG.debug(() -> "Latest Market Price response: " + response);
+            try (ExchangeHttpResponse response = sendPublicRequestToExchange("products/" + marketId + "/ticker", null)) {
+                LOG.debug(() -> "Latest Market Price response: " + response);
 
-            if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
-                final GdaxTicker gdaxTicker = gson.fromJson(response.getPayload(), GdaxTicker.class);
-                return gdaxTicker.price;
-            } else {
-                final String errorMsg = "Failed to get market ticker from exchange. Details: " + response;
-                LOG.error(errorMsg);
-                throw new TradingApiException(errorMsg);
+                if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+                    final GdaxTicker gdaxTicker = response.decodePayload(gson, GdaxTicker.class);
+                    return gdaxTicker.price;
+                } else {
+                    final String errorMsg = "Failed to get market ticker from exchange. Details: " + response;
+                    LOG.error(errorMsg);
+                    throw new TradingApiException(errorMsg);
+                }
             }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
@@ -519,6 +639,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
         public BigDecimal fill_fees;
         public BigDecimal filled_size;
         public String status;          // e.g. "open"
+        public String done_reason;     // e.g. "filled" - only set when status is "done"
         public boolean settled;
 
         @Override
@@ -537,6 +658,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
                     .add("fill_fees", fill_fees)
                     .add("filled_size", filled_size)
                     .add("status", status)
+                    .add("done_reason", done_reason)
                     .add("settled", settled)
                     .toString();
         }
@@ -631,6 +753,8 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
     private ExchangeHttpResponse sendPublicRequestToExchange(String apiMethod, Map<String, String> params)
             throws ExchangeNetworkException, TradingApiException {
 
+        awaitRateLimit(RequestPriority.MARKET_DATA);
+
         if (params == null) {
             params = new HashMap<>(); // no params, so empty query string
         }
@@ -718,6 +842,8 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
             throw new IllegalStateException(errorMsg);
         }
 
+        awaitRateLimit(requestPriority(httpMethod));
+
         try {
 
             if (params == null) {
@@ -779,9 +905,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
                     requestBody;
 
             // Sign the signature string and Base64 encode it
-            mac.reset();
-            mac.update(signatureBuilder.getBytes("UTF-8"));
-            final String signature = DatatypeConverter.printBase64Binary(mac.doFinal());
+            final String signature = requestSigner.sign().update(signatureBuilder).toBase64();
 
             // Request headers required by Exchange
             final Map<String, String> requestHeaders = new HashMap<>();
@@ -794,13 +918,30 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
             final URL url = new URL(invocationUrl);
             return sendNetworkRequest(url, httpMethod, requestBody, requestHeaders);
 
-        } catch (MalformedURLException | UnsupportedEncodingException e) {
+        } catch (MalformedURLException e) {
             final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
             LOG.error(errorMsg, e);
             throw new TradingApiException(errorMsg, e);
         }
     }
 
+    /**
+     * Returns the rate limit priority of an authenticated API call.
+     *
+     * @param httpMethod the HTTP method of the call; orders are the only resource POSTed or DELETEd.
+     * @return the priority of the call.
+     */
+    private static RequestPriority requestPriority(String httpMethod) {
+        switch (httpMethod) {
+            case "DELETE":
+                return RequestPriority.CANCEL_ORDER;
+            case "POST":
+                return RequestPriority.CREATE_ORDER;
+            default:
+                return RequestPriority.ACCOUNT;
+        }
+    }
+
     /**
      * Initialises the secure messaging layer
      * Sets up the MAC to safeguard the data we send to the exchange.
@@ -814,9 +955,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
             // GDAX secret is in Base64 so we must decode it first.
             final byte[] decodedBase64Secret = DatatypeConverter.parseBase64Binary(secret);
 
-            final SecretKeySpec keyspec = new SecretKeySpec(decodedBase64Secret, "HmacSHA256");
-            mac = Mac.getInstance("HmacSHA256");
-            mac.init(keyspec);
+            requestSigner = new RequestSigner(HmacAlgorithm.HMAC_SHA256, decodedBase64Secret);
             initializedMACAuthentication = true;
         } catch (NoSuchAlgorithmException e) {
             final String errorMsg = "Failed to setup MAC security. HINT: Is HMAC-SHA256 installed?";
@@ -852,6 +991,10 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
         final String sellFeeInConfig = getOptionalConfigItem(optionalConfig, SELL_FEE_PROPERTY_NAME);
         sellFeePercentage = new BigDecimal(sellFeeInConfig).divide(new BigDecimal("100"), 8, BigDecimal.ROUND_HALF_UP);
         LOG.info(() -> "Sell fee % in BigDecimal format: " + sellFeePercentage);
+
+        if (isOrderBookFeedEnabled(optionalConfig)) {
+            orderBookFeed = new GdaxOrderBookFeed(GdaxOrderBookFeed.FEED_URI, getConnectionTimeout(), getReadTimeout());
+        }
     }
 
     // ------------------------------------------------------------------------------------------------
@@ -862,8 +1005,10 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
      * Initialises the GSON layer.
      */
     private void initGson() {
-        final GsonBuilder gsonBuilder = new GsonBuilder();
-        gson = gsonBuilder.create();
+        gson = getSharedGson(() -> {
+            final GsonBuilder gsonBuilder = new GsonBuilder();
+            return gsonBuilder.create();
+        });
     }
 
     /*
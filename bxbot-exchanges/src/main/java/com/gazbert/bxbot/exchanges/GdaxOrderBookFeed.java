@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.net.URI;
+
+/**
+ * Streams GDAX order books from the <a href="https://docs.gdax.com/#the-level2-channel">level2 channel</a> of the
+ * GDAX WebSocket feed.
+ * <p>
+ * GDAX sends a snapshot of the whole book when a market is subscribed to, then an l2update for every change. The
+ * level2 messages carry no sequence numbers, so a gap can only come from a dropped connection; the books are
+ * cleared and re-snapshotted on every reconnect. The heartbeat channel is subscribed to as well, to keep a quiet
+ * market's connection from timing out.
+ *
+ * @author gazbert
+ */
+final class GdaxOrderBookFeed extends OrderBookFeed {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    /**
+     * The GDAX WebSocket feed URI.
+     */
+    static final URI FEED_URI = URI.create("wss://ws-feed.gdax.com");
+
+    private final JsonParser jsonParser = new JsonParser();
+
+
+    GdaxOrderBookFeed(URI uri, int connectionTimeout, int readTimeout) {
+        super(uri, connectionTimeout, readTimeout);
+    }
+
+    @Override
+    String subscribeMessage(String marketId) {
+        final JsonObject subscribe = new JsonObject();
+        subscribe.addProperty("type", "subscribe");
+        final JsonArray productIds = new JsonArray();
+        productIds.add(marketId);
+        subscribe.add("product_ids", productIds);
+        final JsonArray channels = new JsonArray();
+        channels.add("level2");
+        channels.add("heartbeat");
+        subscribe.add("channels", channels);
+        return subscribe.toString();
+    }
+
+    @Override
+    void handleMessage(String message) {
+
+        final JsonObject json = jsonParser.parse(message).getAsJsonObject();
+        final String type = json.get("type").getAsString();
+        switch (type) {
+            case "snapshot":
+                applySnapshot(json);
+                break;
+            case "l2update":
+                applyUpdate(json);
+                break;
+            case "error":
+                LOG.error(() -> "Error from GDAX order book feed: " + message);
+                break;
+            default:
+                // subscriptions and heartbeats
+                break;
+        }
+    }
+
+    private void applySnapshot(JsonObject snapshot) {
+        final LocalOrderBook book = getBook(snapshot.get("product_id").getAsString());
+        if (book == null) {
+            return;
+        }
+        book.clear();
+        applyLevels(book, OrderType.BUY, snapshot.getAsJsonArray("bids"));
+        applyLevels(book, OrderType.SELL, snapshot.getAsJsonArray("asks"));
+        book.markSynced();
+    }
+
+    private void applyUpdate(JsonObject update) {
+        final LocalOrderBook book = getBook(update.get("product_id").getAsString());
+        if (book == null || !book.isSynced()) {
+            return;
+        }
+        for (final JsonElement change : update.getAsJsonArray("changes")) {
+            final JsonArray level = change.getAsJsonArray();
+            final OrderType side = "buy".equals(level.get(0).getAsString()) ? OrderType.BUY : OrderType.SELL;
+            book.update(side, level.get(1).getAsBigDecimal(), level.get(2).getAsBigDecimal());
+        }
+    }
+
+    private static void applyLevels(LocalOrderBook book, OrderType side, JsonArray levels) {
+        for (final JsonElement levelElement : levels) {
+            final JsonArray level = levelElement.getAsJsonArray();
+            book.update(side, level.get(0).getAsBigDecimal(), level.get(1).getAsBigDecimal());
+        }
+    }
+}
@@ -27,6 +27,8 @@ import com.gazbert.bxbot.exchange.api.AuthenticationConfig;
 import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
 import com.gazbert.bxbot.exchange.api.ExchangeConfig;
 import com.gazbert.bxbot.exchange.api.OptionalConfig;
+import com.gazbert.bxbot.exchanges.RateLimiter.RequestPriority;
+import com.gazbert.bxbot.exchanges.RequestSigner.HmacAlgorithm;
 import com.gazbert.bxbot.trading.api.*;
 import com.google.common.base.MoreObjects;
 import com.google.gson.Gson;
@@ -34,14 +36,10 @@ import com.google.gson.GsonBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import javax.xml.bind.DatatypeConverter;
 import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLConnection;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.text.DecimalFormat;
@@ -84,9 +82,10 @@ import java.util.*;
  * round accordingly.
  * </p>
  * <p>
- * The Exchange Adapter is <em>not</em> thread safe. It expects to be called using a single thread in order to
- * preserve trade execution order. The {@link URLConnection} achieves this by blocking/waiting on the input stream
- * (response) for each API call.
+ * The Exchange Adapter is thread safe, so Trading Strategies running on different threads can share it. Authenticated
+ * calls take their nonce and are sent one at a time, in the order they were made, because the exchange rejects a nonce
+ * that arrives after a later one; public calls run in parallel. Calls made on a single thread keep their trade
+ * execution order: the {@link ExchangeHttpTransport} blocks/waits on the response for each API call.
  * </p>
  * <p>
  * The {@link TradingApi} calls will throw a {@link ExchangeNetworkException} if a network error occurs trying to
@@ -146,9 +145,9 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
     private static final String SELL_FEE_PROPERTY_NAME = "sell-fee";
 
     /**
-     * Nonce used for sending authenticated messages to the exchange.
+     * Nonces used for sending authenticated messages to the exchange.
      */
-    private long nonce = 0;
+    private final NonceSequence nonceSequence = new NonceSequence();
 
     /**
      * Markets on the exchange. Used for determining order price truncation/rounding policy.
@@ -195,10 +194,10 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
     private String secret = "";
 
     /**
-     * Provides the "Message Authentication Code" (MAC) algorithm used for the secure messaging layer.
+     * Signs requests using the "Message Authentication Code" (MAC) algorithm for the secure messaging layer.
      * Used to encrypt the hash of the entire message with the private key to ensure message integrity.
      */
-    private Mac mac;
+    private RequestSigner requestSigner;
 
     /**
      * GSON engine used for parsing JSON in Gemini API call responses.
@@ -214,7 +213,8 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
         setNetworkConfig(config);
         setOptionalConfig(config);
 
-        nonce = System.currentTimeMillis() / 1000; // set the initial nonce used in the secure messaging.
+        // set the initial nonce used in the secure messaging.
+        nonceSequence.advanceTo(System.currentTimeMillis() / 1000);
         initSecureMessageLayer();
         initGson();
     }
@@ -271,17 +271,18 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
             // This adapter does not currently support options
             //params.put("options", "not supported");
 
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("order/new", params);
-            LOG.debug(() -> "Create Order response: " + response);
-
-            final GeminiOpenOrder createOrderResponse = gson.fromJson(response.getPayload(), GeminiOpenOrder.class);
-            final long id = createOrderResponse.order_id;
-            if (id == 0) {
-                final String errorMsg = "Failed to place order on exchange. Error response: " + response;
-                LOG.error(errorMsg);
-                throw new TradingApiException(errorMsg);
-            } else {
-                return Long.toString(createOrderResponse.order_id);
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("order/new", params)) {
+                LOG.debug(() -> "Create Order response: " + response);
+
+                final GeminiOpenOrder createOrderResponse = response.decodePayload(gson, GeminiOpenOrder.class);
+                final long id = createOrderResponse.order_id;
+                if (id == 0) {
+                    final String errorMsg = "Failed to place order on exchange. Error response: " + response;
+                    LOG.error(errorMsg);
+                    throw new TradingApiException(errorMsg);
+                } else {
+                    return Long.toString(createOrderResponse.order_id);
+                }
             }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
@@ -300,15 +301,16 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
             final Map<String, String> params = getRequestParamMap();
             params.put("order_id", orderId);
 
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("order/cancel", params);
-            LOG.debug(() -> "Cancel Order response: " + response);
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("order/cancel", params)) {
+                LOG.debug(() -> "Cancel Order response: " + response);
 
-            // Exchange returns order id and other details if successful, a 400 HTTP Status if the order id was not recognised.
-            gson.fromJson(response.getPayload(), GeminiOpenOrder.class);
-            return true;
+                // Exchange returns order id and other details if successful, a 400 HTTP Status if the order id was not recognised.
+                response.decodePayload(gson, GeminiOpenOrder.class);
+                return true;
+            }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
-            if (e.getCause() != null && e.getCause().getMessage().contains("400")) {
+            if (isHttpErrorStatus(e, HTTP_BAD_REQUEST_STATUS_CODE)) {
                 final String errorMsg = "Failed to cancel order on exchange. Did not recognise Order Id: " + orderId;
                 LOG.error(errorMsg, e);
                 return false;
@@ -326,45 +328,46 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
 
         try {
 
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("orders", null);
-            LOG.debug(() -> "Open Orders response: " + response);
-
-            final GeminiOpenOrders geminiOpenOrders = gson.fromJson(response.getPayload(), GeminiOpenOrders.class);
-
-            final List<OpenOrder> ordersToReturn = new ArrayList<>();
-            for (final GeminiOpenOrder geminiOpenOrder : geminiOpenOrders) {
-
-                if (!marketId.equalsIgnoreCase(geminiOpenOrder.symbol)) {
-                    continue;
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("orders", null)) {
+                LOG.debug(() -> "Open Orders response: " + response);
+
+                final GeminiOpenOrders geminiOpenOrders = response.decodePayload(gson, GeminiOpenOrders.class);
+
+                final List<OpenOrder> ordersToReturn = new ArrayList<>();
+                for (final GeminiOpenOrder geminiOpenOrder : geminiOpenOrders) {
+
+                    if (!marketId.equalsIgnoreCase(geminiOpenOrder.symbol)) {
+                        continue;
+                    }
+
+                    OrderType orderType;
+                    switch (geminiOpenOrder.side) {
+                        case "buy":
+                            orderType = OrderType.BUY;
+                            break;
+                        case "sell":
+                            orderType = OrderType.SELL;
+                            break;
+                        default:
+                            throw new TradingApiException(
+                                    "Unrecognised order type received in getYourOpenOrders(). Value: " + geminiOpenOrder.type);
+                    }
+
+                    final OpenOrder order = new OpenOrder(
+                            Long.toString(geminiOpenOrder.order_id),
+                            Date.from(Instant.ofEpochMilli(geminiOpenOrder.timestampms)),
+                            marketId,
+                            orderType,
+                            geminiOpenOrder.price,
+                            geminiOpenOrder.remaining_amount,
+                            geminiOpenOrder.original_amount,
+                            geminiOpenOrder.price.multiply(geminiOpenOrder.original_amount) // total - not provided by Gemini :-(
+                    );
+
+                    ordersToReturn.add(order);
                 }
-
-                OrderType orderType;
-                switch (geminiOpenOrder.side) {
-                    case "buy":
-                        orderType = OrderType.BUY;
-                        break;
-                    case "sell":
-                        orderType = OrderType.SELL;
-                        break;
-                    default:
-                        throw new TradingApiException(
-                                "Unrecognised order type received in getYourOpenOrders(). Value: " + geminiOpenOrder.type);
-                }
-
-                final OpenOrder order = new OpenOrder(
-                        Long.toString(geminiOpenOrder.order_id),
-                        Date.from(Instant.ofEpochMilli(geminiOpenOrder.timestampms)),
-                        marketId,
-                        orderType,
-                        geminiOpenOrder.price,
-                        geminiOpenOrder.remaining_amount,
-                        geminiOpenOrder.original_amount,
-                        geminiOpenOrder.price.multiply(geminiOpenOrder.original_amount) // total - not provided by Gemini :-(
-                );
-
-                ordersToReturn.add(order);
+                return ordersToReturn;
             }
-            return ordersToReturn;
 
         } catch (ExchangeNetworkException | TradingApiException e) {
             throw e;
@@ -376,35 +379,53 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
 
     @Override
     public MarketOrderBook getMarketOrders(String marketId) throws TradingApiException, ExchangeNetworkException {
+        return getMarketOrders(marketId, FULL_ORDER_BOOK_DEPTH);
+    }
+
+    @Override
+    public MarketOrderBook getMarketOrders(String marketId, int depth) throws TradingApiException,
+            ExchangeNetworkException {
+        return coalescePublicCall("getMarketOrders/" + marketId + "/" + depth,
+                () -> fetchMarketOrders(marketId, depth));
+    }
+
+    private MarketOrderBook fetchMarketOrders(String marketId, int depth) throws TradingApiException,
+            ExchangeNetworkException {
 
         try {
+            assertValidOrderBookDepth(depth);
 
-            final ExchangeHttpResponse response = sendPublicRequestToExchange("book/" + marketId);
-            LOG.debug(() -> "Market Orders response: " + response);
+            // Only ask the exchange for the price levels we need
+            final String depthLimit = depth == FULL_ORDER_BOOK_DEPTH
+                    ? "" : "?limit_bids=" + depth + "&limit_asks=" + depth;
 
-            final GeminiOrderBook orderBook = gson.fromJson(response.getPayload(), GeminiOrderBook.class);
+            try (ExchangeHttpResponse response = sendPublicRequestToExchange("book/" + marketId + depthLimit)) {
+                LOG.debug(() -> "Market Orders response: " + response);
 
-            final List<MarketOrder> buyOrders = new ArrayList<>();
-            for (GeminiMarketOrder geminiBuyOrder : orderBook.bids) {
-                final MarketOrder buyOrder = new MarketOrder(
-                        OrderType.BUY,
-                        geminiBuyOrder.price,
-                        geminiBuyOrder.amount,
-                        geminiBuyOrder.price.multiply(geminiBuyOrder.amount));
-                buyOrders.add(buyOrder);
-            }
+                final GeminiOrderBook orderBook = response.decodePayload(gson, GeminiOrderBook.class);
 
-            final List<MarketOrder> sellOrders = new ArrayList<>();
-            for (GeminiMarketOrder geminiSellOrder : orderBook.asks) {
-                final MarketOrder sellOrder = new MarketOrder(
-                        OrderType.SELL,
-                        geminiSellOrder.price,
-                        geminiSellOrder.amount,
-                        geminiSellOrder.price.multiply(geminiSellOrder.amount));
-                sellOrders.add(sellOrder);
-            }
+                final List<MarketOrder> buyOrders = new ArrayList<>();
+                for (GeminiMarketOrder geminiBuyOrder : firstLevels(orderBook.bids, depth)) {
+                    final MarketOrder buyOrder = new MarketOrder(
+                            OrderType.BUY,
+                            geminiBuyOrder.price,
+                            geminiBuyOrder.amount,
+                            geminiBuyOrder.price.multiply(geminiBuyOrder.amount));
+                    buyOrders.add(buyOrder);
+                }
 
-            return new MarketOrderBook(marketId, sellOrders, buyOrders);
+                final List<MarketOrder> sellOrders = new ArrayList<>();
+                for (GeminiMarketOrder geminiSellOrder : firstLevels(orderBook.asks, depth)) {
+                    final MarketOrder sellOrder = new MarketOrder(
+                            OrderType.SELL,
+                            geminiSellOrder.price,
+                            geminiSellOrder.amount,
+                            geminiSellOrder.price.multiply(geminiSellOrder.amount));
+                    sellOrders.add(sellOrder);
+                }
+
+                return new MarketOrderBook(marketId, sellOrders, buyOrders);
+            }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
             throw e;
@@ -416,14 +437,19 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
 
     @Override
     public BigDecimal getLatestMarketPrice(String marketId) throws TradingApiException, ExchangeNetworkException {
+        return coalescePublicCall("getLatestMarketPrice/" + marketId, () -> fetchLatestMarketPrice(marketId));
+    }
+
+    private BigDecimal fetchLatestMarketPrice(String marketId) throws TradingApiException, ExchangeNetworkException {
 
         try {
 
-            final ExchangeHttpResponse response = sendPublicRequestToExchange("pubticker/" + marketId);
-            LOG.debug(() -> "Latest Market Price response: " + response);
+            try (ExchangeHttpResponse response = sendPublicRequestToExchange("pubticker/" + marketId)) {
+                LOG.debug(() -> "Latest Market Price response: " + response);
 
-            final GeminiTicker ticker = gson.fromJson(response.getPayload(), GeminiTicker.class);
-            return ticker.last;
+                final GeminiTicker ticker = response.decodePayload(gson, GeminiTicker.class);
+                return ticker.last;
+            }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
             throw e;
@@ -438,20 +464,21 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
 
         try {
 
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("balances", null);
-            LOG.debug(() -> "Balance Info response: " + response);
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("balances", null)) {
+                LOG.debug(() -> "Balance Info response: " + response);
 
-            final GeminiBalances allAccountBalances = gson.fromJson(response.getPayload(), GeminiBalances.class);
-            final HashMap<String, BigDecimal> balancesAvailable = new HashMap<>();
+                final GeminiBalances allAccountBalances = response.decodePayload(gson, GeminiBalances.class);
+                final HashMap<String, BigDecimal> balancesAvailable = new HashMap<>();
 
-            // This adapter only supports 'exchange' account type.
-            allAccountBalances
-                    .stream()
-                    .filter(accountBalance -> accountBalance.type.equalsIgnoreCase("exchange"))
-                    .forEach(accountBalance -> balancesAvailable.put(accountBalance.currency, accountBalance.available));
+                // This adapter only supports 'exchange' account type.
+                allAccountBalances
+                        .stream()
+                        .filter(accountBalance -> accountBalance.type.equalsIgnoreCase("exchange"))
+                        .forEach(accountBalance -> balancesAvailable.put(accountBalance.currency, accountBalance.available));
 
-            // 2nd arg of BalanceInfo constructor for reserved/on-hold balances is not provided by exchange.
-            return new BalanceInfo(balancesAvailable, new HashMap<>());
+                // 2nd arg of BalanceInfo constructor for reserved/on-hold balances is not provided by exchange.
+                return new BalanceInfo(balancesAvailable, new HashMap<>());
+            }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
             throw e;
@@ -666,6 +693,8 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
      */
     private ExchangeHttpResponse sendPublicRequestToExchange(String apiMethod) throws ExchangeNetworkException, TradingApiException {
 
+        awaitRateLimit(RequestPriority.MARKET_DATA);
+
         // Request headers required by Exchange
         final Map<String, String> requestHeaders = new HashMap<>();
         requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
@@ -745,6 +774,9 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
             throw new IllegalStateException(errorMsg);
         }
 
+        awaitRateLimit(requestPriority(apiMethod));
+
+        final long nonce = nonceSequence.acquire();
         try {
 
             if (params == null) {
@@ -757,18 +789,15 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
 
             // nonce is required by Gemini in every request
             params.put("nonce", Long.toString(nonce));
-            nonce++;
 
             // JSON-ify the param dictionary
             final String paramsInJson = gson.toJson(params);
 
             // Need to base64 encode payload as per API
-            final String base64payload = DatatypeConverter.printBase64Binary(paramsInJson.getBytes("UTF-8"));
+            final String base64payload = RequestSigner.toBase64(paramsInJson);
 
             // Create the signature
-            mac.reset(); // force reset
-            mac.update(base64payload.getBytes("UTF-8"));
-            final String signature = toHex(mac.doFinal()).toLowerCase();
+            final String signature = requestSigner.sign().update(base64payload).toHex();
 
             // Request headers required by Exchange
             final Map<String, String> requestHeaders = new HashMap<>();
@@ -782,28 +811,31 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
             final URL url = new URL(AUTHENTICATED_API_URL + apiMethod);
             return sendNetworkRequest(url, "POST", paramsInJson, requestHeaders);
 
-        } catch (MalformedURLException | UnsupportedEncodingException e) {
+        } catch (MalformedURLException e) {
 
             final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
             LOG.error(errorMsg, e);
             throw new TradingApiException(errorMsg, e);
+        } finally {
+            nonceSequence.release();
         }
     }
 
     /**
-     * Converts a given byte array to a hex String.
+     * Returns the rate limit priority of an authenticated API call.
      *
-     * @param byteArrayToConvert byte array to convert.
-     * @return the string representation of the given byte array.
-     */
-    private String toHex(byte[] byteArrayToConvert) {
-
-        final StringBuilder hexString = new StringBuilder();
-
-        for (final byte aByte : byteArrayToConvert) {
-            hexString.append(String.format("%02x", aByte & 0xff));
+     * @param apiMethod the API method being called.
+     * @return the priority of the call.
+     */
+    private static RequestPriority requestPriority(String apiMethod) {
+        switch (apiMethod) {
+            case "order/cancel":
+                return RequestPriority.CANCEL_ORDER;
+            case "order/new":
+                return RequestPriority.CREATE_ORDER;
+            default:
+                return RequestPriority.ACCOUNT;
         }
-        return hexString.toString();
     }
 
     /**
@@ -814,9 +846,7 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
     private void initSecureMessageLayer() {
 
         try {
-            final SecretKeySpec keyspec = new SecretKeySpec(secret.getBytes("UTF-8"), "HmacSHA384");
-            mac = Mac.getInstance("HmacSHA384");
-            mac.init(keyspec);
+            requestSigner = new RequestSigner(HmacAlgorithm.HMAC_SHA384, secret.getBytes("UTF-8"));
             initializedMACAuthentication = true;
         } catch (UnsupportedEncodingException | NoSuchAlgorithmException e) {
             final String errorMsg = "Failed to setup MAC security. HINT: Is HMAC-SHA384 installed?";
@@ -861,8 +891,10 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
      * Initialises the GSON layer.
      */
     private void initGson() {
-        final GsonBuilder gsonBuilder = new GsonBuilder();
-        gson = gsonBuilder.create();
+        gson = getSharedGson(() -> {
+            final GsonBuilder gsonBuilder = new GsonBuilder();
+            return gsonBuilder.create();
+        });
     }
 
     /*
@@ -27,6 +27,7 @@ import com.gazbert.bxbot.exchange.api.AuthenticationConfig;
 import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
 import com.gazbert.bxbot.exchange.api.ExchangeConfig;
 import com.gazbert.bxbot.exchange.api.OptionalConfig;
+import com.gazbert.bxbot.exchanges.RateLimiter.RequestPriority;
 import com.gazbert.bxbot.trading.api.*;
 import com.google.common.base.MoreObjects;
 import com.google.gson.*;
@@ -38,10 +39,7 @@ import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLConnection;
 import java.net.URLEncoder;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.text.DecimalFormat;
 import java.util.*;
 
@@ -101,9 +99,9 @@ import java.util.*;
  * the order amount, but to 4 decimal places.
  * </p>
  * <p>
- * The Exchange Adapter is <em>not</em> thread safe. It expects to be called using a single thread in order to
- * preserve trade execution order. The {@link URLConnection} achieves this by blocking/waiting on the input stream
- * (response) for each API call.
+ * The Exchange Adapter is thread safe, so Trading Strategies running on different threads can share it. Calls made on
+ * a single thread keep their trade execution order: the {@link ExchangeHttpTransport} blocks/waits on the response for
+ * each API call.
  * </p>
  * <p>
  * The {@link TradingApi} calls will throw a {@link ExchangeNetworkException} if a network error occurs trying to
@@ -198,12 +196,6 @@ public final class HuobiExchangeAdapter extends AbstractExchangeAdapter implemen
      */
     private String secret = "";
 
-    /**
-     * The Message Digest generator used by the secure messaging layer.
-     * Used to create the hash of the entire message with the private key to ensure message integrity.
-     */
-    private MessageDigest messageDigest;
-
     /**
      * GSON engine used for parsing JSON in Huobi API call responses.
      */
@@ -290,16 +282,17 @@ public final class HuobiExchangeAdapter extends AbstractExchangeAdapter implemen
                 throw new IllegalArgumentException(errorMsg);
             }
 
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange(apiCall, marketIdForAuthenticatedRequest, params);
-            LOG.debug(() -> "Create Order response: " + response);
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange(apiCall, marketIdForAuthenticatedRequest, params)) {
+                LOG.debug(() -> "Create Order response: " + response);
 
-            final HuobiOrderResponse createOrderResponse = gson.fromJson(response.getPayload(), HuobiOrderResponse.class);
-            if (createOrderResponse.result != null && createOrderResponse.result.equalsIgnoreCase("success")) {
-                return Long.toString(createOrderResponse.id);
-            } else {
-                final String errorMsg = "Failed to place order on exchange. Error response: " + response;
-                LOG.error(errorMsg);
-                throw new TradingApiException(errorMsg);
+                final HuobiOrderResponse createOrderResponse = response.decodePayload(gson, HuobiOrderResponse.class);
+                if (createOrderResponse.result != null && createOrderResponse.result.equalsIgnoreCase("success")) {
+                    return Long.toString(createOrderResponse.id);
+                } else {
+                    final String errorMsg = "Failed to place order on exchange. Error response: " + response;
+                    LOG.error(errorMsg);
+                    throw new TradingApiException(errorMsg);
+                }
             }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
@@ -320,17 +313,18 @@ public final class HuobiExchangeAdapter extends AbstractExchangeAdapter implemen
             params.put("coin_type", "1"); // "1" = BTC
             params.put("id", orderId);
 
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("cancel_order",
-                    marketIdForAuthenticatedRequest, params);
-            LOG.debug(() -> "Cancel Order response: " + response);
-
-            final HuobiCancelOrderResponse cancelOrderResponse = gson.fromJson(response.getPayload(), HuobiCancelOrderResponse.class);
-            if (cancelOrderResponse.result != null && cancelOrderResponse.result.equalsIgnoreCase("success")) {
-                return true;
-            } else {
-                final String errorMsg = "Failed to cancel order on exchange. Error response: " + response;
-                LOG.error(errorMsg);
-                return false;
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("cancel_order",
+                    marketIdForAuthenticatedRequest, params)) {
+                LOG.debug(() -> "Cancel Order response: " + response);
+
+                final HuobiCancelOrderResponse cancelOrderResponse = response.decodePayload(gson, HuobiCancelOrderResponse.class);
+                if (cancelOrderResponse.result != null && cancelOrderResponse.result.equalsIgnoreCase("success")) {
+                    return true;
+                } else {
+                    final String errorMsg = "Failed to cancel order on exchange. Error response: " + response;
+                    LOG.error(errorMsg);
+                    return false;
+                }
             }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
@@ -350,56 +344,57 @@ public final class HuobiExchangeAdapter extends AbstractExchangeAdapter implemen
             final Map<String, String> params = getRequestParamMap();
             params.put("coin_type", "1"); // "1" = BTC
 
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("get_orders",
-                    marketIdForAuthenticatedRequest, params);
-            LOG.debug(() -> "Open Orders response: " + response);
-
-            final HuobiOpenOrderResponseWrapper huobiOpenOrdersWrapper
-                    = gson.fromJson(response.getPayload(), HuobiOpenOrderResponseWrapper.class);
-
-            if (huobiOpenOrdersWrapper.code == 0) {
-
-                // adapt
-                final List<OpenOrder> ordersToReturn = new ArrayList<>();
-                for (final HuobiOpenOrder openOrder : huobiOpenOrdersWrapper.openOrders) {
-                    OrderType orderType;
-                    switch (openOrder.type) {
-                        case 1:
-                            orderType = OrderType.BUY;
-                            break;
-                        case 2:
-                            orderType = OrderType.SELL;
-                            break;
-                        default:
-                            throw new TradingApiException(
-                                    "Unrecognised order type received in getYourOpenOrders(). Value: " + openOrder.type);
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("get_orders",
+                    marketIdForAuthenticatedRequest, params)) {
+                LOG.debug(() -> "Open Orders response: " + response);
+
+                final HuobiOpenOrderResponseWrapper huobiOpenOrdersWrapper
+                        = response.decodePayload(gson, HuobiOpenOrderResponseWrapper.class);
+
+                if (huobiOpenOrdersWrapper.code == 0) {
+
+                    // adapt
+                    final List<OpenOrder> ordersToReturn = new ArrayList<>();
+                    for (final HuobiOpenOrder openOrder : huobiOpenOrdersWrapper.openOrders) {
+                        OrderType orderType;
+                        switch (openOrder.type) {
+                            case 1:
+                                orderType = OrderType.BUY;
+                                break;
+                            case 2:
+                                orderType = OrderType.SELL;
+                                break;
+                            default:
+                                throw new TradingApiException(
+                                        "Unrecognised order type received in getYourOpenOrders(). Value: " + openOrder.type);
+                        }
+
+                        final OpenOrder order = new OpenOrder(
+                                Long.toString(openOrder.id),
+                                new Date(openOrder.order_time),
+                                marketId,
+                                orderType,
+                                openOrder.order_price,
+                                openOrder.order_amount.subtract(openOrder.processed_amount), // remaining
+                                openOrder.order_amount,
+                                openOrder.order_price.multiply(openOrder.order_amount) // total is not provided by Huobi
+                        );
+
+                        ordersToReturn.add(order);
                     }
-
-                    final OpenOrder order = new OpenOrder(
-                            Long.toString(openOrder.id),
-                            new Date(openOrder.order_time),
-                            marketId,
-                            orderType,
-                            openOrder.order_price,
-                            openOrder.order_amount.subtract(openOrder.processed_amount), // remaining
-                            openOrder.order_amount,
-                            openOrder.order_price.multiply(openOrder.order_amount) // total is not provided by Huobi
-                    );
-
-                    ordersToReturn.add(order);
+                    return ordersToReturn;
+
+                } else if (huobiOpenOrdersWrapper.code == 1) {
+                    final String errorMsg = "Failed to get Open Order Info from exchange  - server busy. Error response: "
+                            + response;
+                    LOG.error(errorMsg);
+                    throw new ExchangeNetworkException(errorMsg);
+
+                } else {
+                    final String errorMsg = "Failed to get Open Order Info from exchange. Error response: " + response;
+                    LOG.error(errorMsg);
+                    throw new TradingApiException(errorMsg);
                 }
-                return ordersToReturn;
-
-            } else if (huobiOpenOrdersWrapper.code == 1) {
-                final String errorMsg = "Failed to get Open Order Info from exchange  - server busy. Error response: "
-                        + response;
-                LOG.error(errorMsg);
-                throw new ExchangeNetworkException(errorMsg);
-
-            } else {
-                final String errorMsg = "Failed to get Open Order Info from exchange. Error response: " + response;
-                LOG.error(errorMsg);
-                throw new TradingApiException(errorMsg);
             }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
@@ -412,8 +407,21 @@ public final class HuobiExchangeAdapter extends AbstractExchangeAdapter implemen
 
     @Override
     public MarketOrderBook getMarketOrders(String marketId) throws TradingApiException, ExchangeNetworkException {
+        return getMarketOrders(marketId, FULL_ORDER_BOOK_DEPTH);
+    }
+
+    @Override
+    public MarketOrderBook getMarketOrders(String marketId, int depth) throws TradingApiException,
+            ExchangeNetworkException {
+        return coalescePublicCall("getMarketOrders/" + marketId + "/" + depth,
+                () -> fetchMarketOrders(marketId, depth));
+    }
+
+    private MarketOrderBook fetchMarketOrders(String marketId, int depth) throws TradingApiException,
+            ExchangeNetworkException {
 
         try {
+            assertValidOrderBookDepth(depth);
 
             // Yuck!
             final String apiCall;
@@ -428,34 +436,35 @@ public final class HuobiExchangeAdapter extends AbstractExchangeAdapter implemen
                 throw new IllegalArgumentException(errorMsg);
             }
 
-            final ExchangeHttpResponse response = sendPublicRequestToExchange(apiCall);
-            LOG.debug(() -> "Market Orders response: " + response);
+            try (ExchangeHttpResponse response = sendPublicRequestToExchange(apiCall)) {
+                LOG.debug(() -> "Market Orders response: " + response);
 
-            final HuobiOrderBookWrapper orderBook = gson.fromJson(response.getPayload(), HuobiOrderBookWrapper.class);
+                final HuobiOrderBookWrapper orderBook = response.decodePayload(gson, HuobiOrderBookWrapper.class);
 
-            // adapt BUYs
-            final List<MarketOrder> buyOrders = new ArrayList<>();
-            for (HuobiMarketOrder okCoinBuyOrder : orderBook.buys) {
-                final MarketOrder buyOrder = new MarketOrder(
-                        OrderType.BUY,
-                        okCoinBuyOrder.price,
-                        okCoinBuyOrder.amount,
-                        okCoinBuyOrder.price.multiply(okCoinBuyOrder.amount));
-                buyOrders.add(buyOrder);
-            }
+                // adapt BUYs
+                final List<MarketOrder> buyOrders = new ArrayList<>();
+                for (HuobiMarketOrder okCoinBuyOrder : firstLevels(orderBook.buys, depth)) {
+                    final MarketOrder buyOrder = new MarketOrder(
+                            OrderType.BUY,
+                            okCoinBuyOrder.price,
+                            okCoinBuyOrder.amount,
+                            okCoinBuyOrder.price.multiply(okCoinBuyOrder.amount));
+                    buyOrders.add(buyOrder);
+                }
 
-            // adapt SELLs
-            final List<MarketOrder> sellOrders = new ArrayList<>();
-            for (HuobiMarketOrder okCoinSellOrder : orderBook.sells) {
-                final MarketOrder sellOrder = new MarketOrder(
-                        OrderType.SELL,
-                        okCoinSellOrder.price,
-                        okCoinSellOrder.amount,
-                        okCoinSellOrder.price.multiply(okCoinSellOrder.amount));
-                sellOrders.add(sellOrder);
-            }
+                // adapt SELLs
+                final List<MarketOrder> sellOrders = new ArrayList<>();
+                for (HuobiMarketOrder okCoinSellOrder : firstLevels(orderBook.sells, depth)) {
+                    final MarketOrder sellOrder = new MarketOrder(
+                            OrderType.SELL,
+                            okCoinSellOrder.price,
+                            okCoinSellOrder.amount,
+                            okCoinSellOrder.price.multiply(okCoinSellOrder.amount));
+                    sellOrders.add(sellOrder);
+                }
 
-            return new MarketOrderBook(marketId, sellOrders, buyOrders);
+                return new MarketOrderBook(marketId, sellOrders, buyOrders);
+            }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
             throw e;
@@ -470,35 +479,36 @@ public final class HuobiExchangeAdapter extends AbstractExchangeAdapter implemen
 
         try {
 
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("get_account_info", accountInfoMarket, null);
-            LOG.debug(() -> "Balance Info response: " + response);
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("get_account_info", accountInfoMarket, null)) {
+                LOG.debug(() -> "Balance Info response: " + response);
 
-            final HuobiAccountInfo huobiAccountInfo = gson.fromJson(response.getPayload(), HuobiAccountInfo.class);
-            if (huobiAccountInfo.code == 0) {
+                final HuobiAccountInfo huobiAccountInfo = response.decodePayload(gson, HuobiAccountInfo.class);
+                if (huobiAccountInfo.code == 0) {
 
-                // adapt
-                final Map<String, BigDecimal> balancesAvailable = new HashMap<>();
-                balancesAvailable.put("BTC", huobiAccountInfo.available_btc_display);
-                balancesAvailable.put("CNY", huobiAccountInfo.available_cny_display);
-                balancesAvailable.put("USD", huobiAccountInfo.available_usd_display);
+                    // adapt
+                    final Map<String, BigDecimal> balancesAvailable = new HashMap<>();
+                    balancesAvailable.put("BTC", huobiAccountInfo.available_btc_display);
+                    balancesAvailable.put("CNY", huobiAccountInfo.available_cny_display);
+                    balancesAvailable.put("USD", huobiAccountInfo.available_usd_display);
 
-                final Map<String, BigDecimal> balancesOnOrder = new HashMap<>();
-                balancesOnOrder.put("BTC", huobiAccountInfo.frozen_btc_display);
-                balancesOnOrder.put("CNY", huobiAccountInfo.frozen_cny_display);
-                balancesOnOrder.put("USD", huobiAccountInfo.frozen_usd_display);
+                    final Map<String, BigDecimal> balancesOnOrder = new HashMap<>();
+                    balancesOnOrder.put("BTC", huobiAccountInfo.frozen_btc_display);
+                    balancesOnOrder.put("CNY", huobiAccountInfo.frozen_cny_display);
+                    balancesOnOrder.put("USD", huobiAccountInfo.frozen_usd_display);
 
-                return new BalanceInfo(balancesAvailable, balancesOnOrder);
+                    return new BalanceInfo(balancesAvailable, balancesOnOrder);
 
-            } else if (huobiAccountInfo.code == 1) {
-                final String errorMsg = "Failed to get Balance Info from exchange  - server busy. Error response: "
-                        + response;
-                LOG.error(errorMsg);
-                throw new ExchangeNetworkException(errorMsg);
+                } else if (huobiAccountInfo.code == 1) {
+                    final String errorMsg = "Failed to get Balance Info from exchange  - server busy. Error response: "
+                            + response;
+                    LOG.error(errorMsg);
+                    throw new ExchangeNetworkException(errorMsg);
 
-            } else {
-                final String errorMsg = "Failed to get Balance Info from exchange. Error response: " + response;
-                LOG.error(errorMsg);
-                throw new TradingApiException(errorMsg);
+                } else {
+                    final String errorMsg = "Failed to get Balance Info from exchange. Error response: " + response;
+                    LOG.error(errorMsg);
+                    throw new TradingApiException(errorMsg);
+                }
             }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
@@ -511,6 +521,10 @@ public final class HuobiExchangeAdapter extends AbstractExchangeAdapter implemen
 
     @Override
     public BigDecimal getLatestMarketPrice(String marketId) throws ExchangeNetworkException, TradingApiException {
+        return coalescePublicCall("getLatestMarketPrice/" + marketId, () -> fetchLatestMarketPrice(marketId));
+    }
+
+    private BigDecimal fetchLatestMarketPrice(String marketId) throws ExchangeNetworkException, TradingApiException {
 
         try {
 
@@ -527,11 +541,12 @@ public final class HuobiExchangeAdapter extends AbstractExchangeAdapter implemen
                 throw new IllegalArgumentException(errorMsg);
             }
 
-            final ExchangeHttpResponse response = sendPublicRequestToExchange(apiCall);
-            LOG.debug(() -> "Latest Market Price response: " + response);
+            try (ExchangeHttpResponse response = sendPublicRequestToExchange(apiCall)) {
+                LOG.debug(() -> "Latest Market Price response: " + response);
 
-            final HuobiTickerWrapper tickerWrapper = gson.fromJson(response.getPayload(), HuobiTickerWrapper.class);
-            return tickerWrapper.ticker.last;
+                final HuobiTickerWrapper tickerWrapper = response.decodePayload(gson, HuobiTickerWrapper.class);
+                return tickerWrapper.ticker.last;
+            }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
             throw e;
@@ -931,6 +946,8 @@ public final class HuobiExchangeAdapter extends AbstractExchangeAdapter implemen
     private AbstractExchangeAdapter.ExchangeHttpResponse sendPublicRequestToExchange(String apiMethod)
             throws ExchangeNetworkException, TradingApiException {
 
+        awaitRateLimit(RequestPriority.MARKET_DATA);
+
         // Request headers required by Exchange
         final Map<String, String> requestHeaders = new HashMap<>();
         requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
@@ -990,6 +1007,8 @@ public final class HuobiExchangeAdapter extends AbstractExchangeAdapter implemen
             throw new IllegalStateException(errorMsg);
         }
 
+        awaitRateLimit(requestPriority(apiMethod));
+
         try {
 
             if (params == null) {
@@ -1052,45 +1071,44 @@ public final class HuobiExchangeAdapter extends AbstractExchangeAdapter implemen
         }
     }
 
+    /**
+     * Returns the rate limit priority of an authenticated API call.
+     *
+     * @param apiMethod the API method being called.
+     * @return the priority of the call.
+     */
+    private static RequestPriority requestPriority(String apiMethod) {
+        switch (apiMethod) {
+            case "cancel_order":
+                return RequestPriority.CANCEL_ORDER;
+            case "buy":
+            case "sell":
+                return RequestPriority.CREATE_ORDER;
+            default:
+                return RequestPriority.ACCOUNT;
+        }
+    }
+
     /**
      * Creates an MD5 hash for a given string and returns the hash as an lowercase string.
      *
      * @param stringToHash the string to create the MD5 hash for.
      * @return the MD5 hash as an lowercase string.
      */
-    private String createMd5HashAndReturnAsLowerCaseString(String stringToHash) throws UnsupportedEncodingException {
-
-        final char[] HEX_DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+    private String createMd5HashAndReturnAsLowerCaseString(String stringToHash) {
 
         if (stringToHash == null || stringToHash.isEmpty()) {
             return "";
         }
-
-        messageDigest.update(stringToHash.getBytes("UTF-8"));
-        final byte[] md5HashInBytes = messageDigest.digest();
-
-        final StringBuilder md5HashAsLowerCaseString = new StringBuilder();
-        for (final byte md5HashByte : md5HashInBytes) {
-            md5HashAsLowerCaseString.append(HEX_DIGITS[(md5HashByte & 0xf0) >> 4]).append("").append(HEX_DIGITS[md5HashByte & 0xf]);
-        }
-        return md5HashAsLowerCaseString.toString();
+        return RequestSigner.md5ToHex(stringToHash);
     }
 
     /**
-     * Initialises the secure messaging layer
-     * Sets up the Message Digest to safeguard the data we send to the exchange.
-     * We fail hard n fast if any of this stuff blows.
+     * Initialises the secure messaging layer.
+     * The Message Digest used to safeguard the data we send to the exchange is held per thread by the RequestSigner.
      */
     private void initSecureMessageLayer() {
-
-        try {
-            messageDigest = MessageDigest.getInstance("MD5");
-            initializedSecureMessagingLayer = true;
-        } catch (NoSuchAlgorithmException e) {
-            final String errorMsg = "Failed to setup MessageDigest for secure message layer. Details: " + e.getMessage();
-            LOG.error(errorMsg, e);
-            throw new IllegalStateException(errorMsg, e);
-        }
+        initializedSecureMessagingLayer = true;
     }
 
     // ------------------------------------------------------------------------------------------------
@@ -1127,9 +1145,11 @@ public final class HuobiExchangeAdapter extends AbstractExchangeAdapter implemen
      * Initialises the GSON layer.
      */
     private void initGson() {
-        final GsonBuilder gsonBuilder = new GsonBuilder();
-        gsonBuilder.registerTypeAdapter(HuobiOpenOrderResponseWrapper.class, new GetHuobiOpenOrdersDeserializer());
-        gson = gsonBuilder.create();
+        gson = getSharedGson(() -> {
+            final GsonBuilder gsonBuilder = new GsonBuilder();
+            gsonBuilder.registerTypeAdapter(HuobiOpenOrderResponseWrapper.class, new GetHuobiOpenOrdersDeserializer());
+            return gsonBuilder.create();
+        });
     }
 
     /**
@@ -27,6 +27,8 @@ import com.gazbert.bxbot.exchange.api.AuthenticationConfig;
 import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
 import com.gazbert.bxbot.exchange.api.ExchangeConfig;
 import com.gazbert.bxbot.exchange.api.OptionalConfig;
+import com.gazbert.bxbot.exchanges.RateLimiter.RequestPriority;
+import com.gazbert.bxbot.exchanges.RequestSigner.HmacAlgorithm;
 import com.gazbert.bxbot.trading.api.*;
 import com.google.common.base.MoreObjects;
 import com.google.gson.Gson;
@@ -34,17 +36,12 @@ import com.google.gson.GsonBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import javax.xml.bind.DatatypeConverter;
 import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLConnection;
 import java.security.InvalidKeyException;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.text.DecimalFormat;
 import java.time.Instant;
@@ -92,9 +89,10 @@ import java.util.*;
  * in the exchange.xml config file, the bot will stay alive and wait until the next trade cycle.
  * </p>
  * <p>
- * The Exchange Adapter is <em>not</em> thread safe. It expects to be called using a single thread in order to
- * preserve trade execution order. The {@link URLConnection} achieves this by blocking/waiting on the input stream
- * (response) for each API call.
+ * The Exchange Adapter is thread safe, so Trading Strategies running on different threads can share it. Authenticated
+ * calls take their nonce and are sent one at a time, in the order they were made, because the exchange rejects a nonce
+ * that arrives after a later one; public calls run in parallel. Calls made on a single thread keep their trade
+ * execution order: the {@link ExchangeHttpTransport} blocks/waits on the response for each API call.
  * </p>
  * <p>
  * The {@link TradingApi} calls will throw a {@link ExchangeNetworkException} if a network error occurs trying to
@@ -175,14 +173,15 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
     private static final String EXCHANGE_UNDERGOING_MAINTENANCE_RESPONSE = "The itBit API is currently undergoing maintenance";
 
     /**
-     * Nonce used for sending authenticated messages to the exchange.
+     * Nonces used for sending authenticated messages to the exchange.
      */
-    private long nonce = 0;
+    private final NonceSequence nonceSequence = new NonceSequence();
 
     /**
-     * The UUID of the wallet in use on the exchange.
+     * The UUID of the wallet in use on the exchange. Fetched by the first balance call; volatile as any thread can
+     * make that call.
      */
-    private String walletId;
+    private volatile String walletId;
 
     /**
      * Exchange buy fees in % in {@link BigDecimal} format.
@@ -220,10 +219,10 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
     private String secret = "";
 
     /**
-     * Provides the "Message Authentication Code" (MAC) algorithm used for the secure messaging layer.
+     * Signs requests using the "Message Authentication Code" (MAC) algorithm for the secure messaging layer.
      * Used to encrypt the hash of the entire message with the private key to ensure message integrity.
      */
-    private Mac mac;
+    private RequestSigner requestSigner;
 
     /**
      * GSON engine used for parsing JSON in itBit API call responses.
@@ -239,7 +238,8 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
         setNetworkConfig(config);
         setOptionalConfig(config);
 
-        nonce = System.currentTimeMillis() / 1000; // set the initial nonce used in the secure messaging.
+        // set the initial nonce used in the secure messaging.
+        nonceSequence.advanceTo(System.currentTimeMillis() / 1000);
         initSecureMessageLayer();
         initGson();
     }
@@ -326,6 +326,10 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
             final String unexpectedErrorMsg = UNEXPECTED_ERROR_MSG + (response == null ? "NULL RESPONSE" : response);
             LOG.error(unexpectedErrorMsg, e);
             throw new TradingApiException(unexpectedErrorMsg, e);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
         }
     }
 
@@ -372,6 +376,10 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
             final String unexpectedErrorMsg = UNEXPECTED_ERROR_MSG + (response == null ? "NULL RESPONSE" : response);
             LOG.error(unexpectedErrorMsg, e);
             throw new TradingApiException(unexpectedErrorMsg, e);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
         }
     }
 
@@ -452,15 +460,32 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
             final String unexpectedErrorMsg = UNEXPECTED_ERROR_MSG + (response == null ? "NULL RESPONSE" : response);
             LOG.error(unexpectedErrorMsg, e);
             throw new TradingApiException(unexpectedErrorMsg, e);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
         }
     }
 
     @Override
     public MarketOrderBook getMarketOrders(String marketId) throws TradingApiException, ExchangeNetworkException {
+        return getMarketOrders(marketId, FULL_ORDER_BOOK_DEPTH);
+    }
+
+    @Override
+    public MarketOrderBook getMarketOrders(String marketId, int depth) throws TradingApiException,
+            ExchangeNetworkException {
+        return coalescePublicCall("getMarketOrders/" + marketId + "/" + depth,
+                () -> fetchMarketOrders(marketId, depth));
+    }
+
+    private MarketOrderBook fetchMarketOrders(String marketId, int depth) throws TradingApiException,
+            ExchangeNetworkException {
 
         ExchangeHttpResponse response = null;
 
         try {
+            assertValidOrderBookDepth(depth);
             response = sendPublicRequestToExchange("markets/" + marketId + "/order_book");
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Market Orders response: " + response);
@@ -471,7 +496,7 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
                 final ItBitOrderBookWrapper orderBook = gson.fromJson(response.getPayload(), ItBitOrderBookWrapper.class);
 
                 final List<MarketOrder> buyOrders = new ArrayList<>();
-                for (ItBitMarketOrder itBitBuyOrder : orderBook.bids) {
+                for (ItBitMarketOrder itBitBuyOrder : firstLevels(orderBook.bids, depth)) {
                     final MarketOrder buyOrder = new MarketOrder(
                             OrderType.BUY,
                             itBitBuyOrder.get(0),
@@ -481,7 +506,7 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
                 }
 
                 final List<MarketOrder> sellOrders = new ArrayList<>();
-                for (ItBitMarketOrder itBitSellOrder : orderBook.asks) {
+                for (ItBitMarketOrder itBitSellOrder : firstLevels(orderBook.asks, depth)) {
                     final MarketOrder sellOrder = new MarketOrder(
                             OrderType.SELL,
                             itBitSellOrder.get(0),
@@ -509,11 +534,19 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
             final String unexpectedErrorMsg = UNEXPECTED_ERROR_MSG + (response == null ? "NULL RESPONSE" : response);
             LOG.error(unexpectedErrorMsg, e);
             throw new TradingApiException(unexpectedErrorMsg, e);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
         }
     }
 
     @Override
     public BigDecimal getLatestMarketPrice(String marketId) throws TradingApiException, ExchangeNetworkException {
+        return coalescePublicCall("getLatestMarketPrice/" + marketId, () -> fetchLatestMarketPrice(marketId));
+    }
+
+    private BigDecimal fetchLatestMarketPrice(String marketId) throws TradingApiException, ExchangeNetworkException {
 
         ExchangeHttpResponse response = null;
 
@@ -546,6 +579,10 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
             final String unexpectedErrorMsg = UNEXPECTED_ERROR_MSG + (response == null ? "NULL RESPONSE" : response);
             LOG.error(unexpectedErrorMsg, e);
             throw new TradingApiException(unexpectedErrorMsg, e);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
         }
     }
 
@@ -609,6 +646,10 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
             final String unexpectedErrorMsg = UNEXPECTED_ERROR_MSG + (response == null ? "NULL RESPONSE" : response);
             LOG.error(unexpectedErrorMsg, e);
             throw new TradingApiException(unexpectedErrorMsg, e);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
         }
     }
 
@@ -843,6 +884,8 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
      */
     private ExchangeHttpResponse sendPublicRequestToExchange(String apiMethod) throws ExchangeNetworkException, TradingApiException {
 
+        awaitRateLimit(RequestPriority.MARKET_DATA);
+
         // Request headers required by Exchange
         final Map<String, String> requestHeaders = new HashMap<>();
         requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
@@ -885,14 +928,14 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
             throw new IllegalStateException(errorMsg);
         }
 
+        awaitRateLimit(requestPriority(httpMethod));
+
+        final long nonce = nonceSequence.acquire();
         try {
 
             // Generate new UNIX time in secs
             final String unixTime = Long.toString(System.currentTimeMillis());
 
-            // increment nonce for use in this call
-            nonce++;
-
             if (params == null) {
                 // create empty map for non-param API calls
                 params = new HashMap<>();
@@ -982,17 +1025,12 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
             final String noncePrependedToJson = Long.toString(nonce) + signatureParamsInJson;
 
             // Construct the SHA-256 hash of the noncePrependedToJson. Call this the message hash.
-            final MessageDigest md = MessageDigest.getInstance("SHA-256");
-            md.update(noncePrependedToJson.getBytes("UTF-8"));
-            final byte[] messageHash = md.digest();
-
             // Prepend the UTF-8 encoded request URL to the message hash.
             // Generate the SHA-512 HMAC of the prependRequestUrlToMsgHash using your API secret as the key.
-            mac.reset(); // force reset
-            mac.update(invocationUrl.getBytes("UTF-8"));
-            mac.update(messageHash);
-
-            final String signature = DatatypeConverter.printBase64Binary(mac.doFinal());
+            final String signature = requestSigner.sign()
+                    .update(invocationUrl)
+                    .updateWithSha256Of(noncePrependedToJson)
+                    .toBase64();
 
             // Request headers required by Exchange
             final Map<String, String> requestHeaders = new HashMap<>();
@@ -1009,15 +1047,29 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
             final URL url = new URL(invocationUrl);
             return sendNetworkRequest(url, httpMethod, requestBody, requestHeaders);
 
-        } catch (MalformedURLException | UnsupportedEncodingException e) {
+        } catch (MalformedURLException e) {
             final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
             LOG.error(errorMsg, e);
             throw new TradingApiException(errorMsg, e);
+        } finally {
+            nonceSequence.release();
+        }
+    }
 
-        } catch (NoSuchAlgorithmException e) {
-            final String errorMsg = "Failed to create SHA-256 digest when building message signature.";
-            LOG.error(errorMsg, e);
-            throw new TradingApiException(errorMsg, e);
+    /**
+     * Returns the rate limit priority of an authenticated API call.
+     *
+     * @param httpMethod the HTTP method of the call; orders are the only resource POSTed or DELETEd.
+     * @return the priority of the call.
+     */
+    private static RequestPriority requestPriority(String httpMethod) {
+        switch (httpMethod) {
+            case "DELETE":
+                return RequestPriority.CANCEL_ORDER;
+            case "POST":
+                return RequestPriority.CREATE_ORDER;
+            default:
+                return RequestPriority.ACCOUNT;
         }
     }
 
@@ -1029,9 +1081,7 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
     private void initSecureMessageLayer() {
 
         try {
-            final SecretKeySpec keyspec = new SecretKeySpec(secret.getBytes("UTF-8"), "HmacSHA512");
-            mac = Mac.getInstance("HmacSHA512");
-            mac.init(keyspec);
+            requestSigner = new RequestSigner(HmacAlgorithm.HMAC_SHA512, secret.getBytes("UTF-8"));
             initializedMACAuthentication = true;
         } catch (UnsupportedEncodingException | NoSuchAlgorithmException e) {
             final String errorMsg = "Failed to setup MAC security. HINT: Is HMAC-SHA512 installed?";
@@ -1086,14 +1136,16 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
      * Initialises the GSON layer.
      */
     private void initGson() {
-
-        // We need to disable HTML escaping for this adapter else GSON will change = to unicode for query strings, e.g.
-        // https://api.itbit.com/v1/wallets?userId=56DA621F --> https://api.itbit.com/v1/wallets?userId\u003d56DA621F
-        final GsonBuilder gsonBuilder = new GsonBuilder().disableHtmlEscaping();
-        gson = gsonBuilder.create();
+        gson = getSharedGson(() -> {
+            // We need to disable HTML escaping for this adapter else GSON will change = to unicode for query strings, e.g.
+            // https://api.itbit.com/v1/wallets?userId=56DA621F --> https://api.itbit.com/v1/wallets?userId\u003d56DA621F
+            final GsonBuilder gsonBuilder = new GsonBuilder().disableHtmlEscaping();
+            return gsonBuilder.create();
+        });
     }
 
-    private static boolean isExchangeUndergoingMaintenance(ExchangeHttpResponse response) {
+    private static boolean isExchangeUndergoingMaintenance(ExchangeHttpResponse response)
+            throws ExchangeNetworkException {
         if (response != null) {
             final String payload = response.getPayload();
             if (payload != null && payload.contains(EXCHANGE_UNDERGOING_MAINTENANCE_RESPONSE)) {
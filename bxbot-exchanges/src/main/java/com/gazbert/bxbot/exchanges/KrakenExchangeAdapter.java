@@ -27,6 +27,8 @@ import com.gazbert.bxbot.exchange.api.AuthenticationConfig;
 import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
 import com.gazbert.bxbot.exchange.api.ExchangeConfig;
 import com.gazbert.bxbot.exchange.api.OptionalConfig;
+import com.gazbert.bxbot.exchanges.RateLimiter.RequestPriority;
+import com.gazbert.bxbot.exchanges.RequestSigner.HmacAlgorithm;
 import com.gazbert.bxbot.trading.api.*;
 import com.google.common.base.MoreObjects;
 import com.google.gson.*;
@@ -34,14 +36,11 @@ import com.google.gson.reflect.TypeToken;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.net.*;
 import java.security.InvalidKeyException;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.text.DecimalFormat;
 import java.util.*;
@@ -88,9 +87,10 @@ import java.util.*;
  * in the exchange.xml config file, the bot will stay alive and wait until the next trade cycle.
  * </p>
  * <p>
- * The Exchange Adapter is <em>not</em> thread safe. It expects to be called using a single thread in order to
- * preserve trade execution order. The {@link URLConnection} achieves this by blocking/waiting on the input stream
- * (response) for each API call.
+ * The Exchange Adapter is thread safe, so Trading Strategies running on different threads can share it. Authenticated
+ * calls take their nonce and are sent one at a time, in the order they were made, because the exchange rejects a nonce
+ * that arrives after a later one; public calls run in parallel. Calls made on a single thread keep their trade
+ * execution order: the {@link ExchangeHttpTransport} blocks/waits on the response for each API call.
  * </p>
  * <p>
  * The {@link TradingApi} calls will throw a {@link ExchangeNetworkException} if a network error occurs trying to
@@ -179,6 +179,11 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
      */
     private static final String FAILED_TO_CANCEL_ORDER = "Failed to Cancel Order on exchange. Details: ";
 
+    /**
+     * Error message for when API call to Query Orders fails.
+     */
+    private static final String FAILED_TO_QUERY_ORDER = "Failed to Query Order on exchange. Details: ";
+
     /**
      * Name of PUBLIC key prop in config file.
      */
@@ -210,9 +215,9 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
     private static final String EXCHANGE_UNDERGOING_MAINTENANCE_RESPONSE = "EService:Unavailable";
 
     /**
-     * Nonce used for sending authenticated messages to the exchange.
+     * Nonces used for sending authenticated messages to the exchange.
      */
-    private long nonce = 0;
+    private final NonceSequence nonceSequence = new NonceSequence();
 
     /**
      * Exchange buy fees in % in {@link BigDecimal} format.
@@ -245,10 +250,10 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
     private String secret = "";
 
     /**
-     * Provides the "Message Authentication Code" (MAC) algorithm used for the secure messaging layer.
+     * Signs requests using the "Message Authentication Code" (MAC) algorithm for the secure messaging layer.
      * Used to encrypt the hash of the entire message with the private key to ensure message integrity.
      */
-    private Mac mac;
+    private RequestSigner requestSigner;
 
     /**
      * GSON engine used for parsing JSON in Kraken API call responses.
@@ -264,7 +269,8 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
         setNetworkConfig(config);
         setOptionalConfig(config);
 
-        nonce = System.currentTimeMillis() / 1000; // set the initial nonce used in the secure messaging.
+        // set the initial nonce used in the secure messaging.
+        nonceSequence.advanceTo(System.currentTimeMillis() / 1000);
         initSecureMessageLayer();
         initGson();
     }
@@ -276,13 +282,29 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
 
     @Override
     public MarketOrderBook getMarketOrders(String marketId) throws TradingApiException, ExchangeNetworkException {
+        return getMarketOrders(marketId, FULL_ORDER_BOOK_DEPTH);
+    }
+
+    @Override
+    public MarketOrderBook getMarketOrders(String marketId, int depth) throws TradingApiException,
+            ExchangeNetworkException {
+        return coalescePublicCall("getMarketOrders/" + marketId + "/" + depth,
+                () -> fetchMarketOrders(marketId, depth));
+    }
+
+    private MarketOrderBook fetchMarketOrders(String marketId, int depth) throws TradingApiException,
+            ExchangeNetworkException {
 
         ExchangeHttpResponse response = null;
 
         try {
+            assertValidOrderBookDepth(depth);
 
             final Map<String, String> params = getRequestParamMap();
             params.put("pair", marketId);
+            if (depth != FULL_ORDER_BOOK_DEPTH) {
+                params.put("count", Integer.toString(depth)); // only ask the exchange for the levels we need
+            }
 
             response = sendPublicRequestToExchange("Depth", params);
 
@@ -294,7 +316,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
 
                 final Type resultType = new TypeToken<KrakenResponse<KrakenMarketOrderBookResult>>() {
                 }.getType();
-                final KrakenResponse krakenResponse = gson.fromJson(response.getPayload(), resultType);
+                final KrakenResponse krakenResponse = response.decodePayload(gson, resultType);
 
                 final List<String> errors = krakenResponse.error;
                 if (errors == null || errors.isEmpty()) {
@@ -305,7 +327,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
                     final KrakenOrderBook krakenOrderBook = krakenOrderBookResult.values().stream().findFirst().get();
 
                     final List<MarketOrder> buyOrders = new ArrayList<>();
-                    for (KrakenMarketOrder krakenBuyOrder : krakenOrderBook.bids) {
+                    for (KrakenMarketOrder krakenBuyOrder : firstLevels(krakenOrderBook.bids, depth)) {
                         final MarketOrder buyOrder = new MarketOrder(
                                 OrderType.BUY,
                                 krakenBuyOrder.get(0),
@@ -315,7 +337,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
                     }
 
                     final List<MarketOrder> sellOrders = new ArrayList<>();
-                    for (KrakenMarketOrder krakenSellOrder : krakenOrderBook.asks) {
+                    for (KrakenMarketOrder krakenSellOrder : firstLevels(krakenOrderBook.asks, depth)) {
                         final MarketOrder sellOrder = new MarketOrder(
                                 OrderType.SELL,
                                 krakenSellOrder.get(0),
@@ -328,7 +350,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
 
                 } else {
 
-                    if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
+                    if (isExchangeUndergoingMaintenance(errors) && keepAliveDuringMaintenance) {
                         LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
                         throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
                     }
@@ -349,6 +371,10 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
         } catch (Exception e) {
             LOG.error(UNEXPECTED_ERROR_MSG, e);
             throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
         }
     }
 
@@ -369,7 +395,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
 
                 final Type resultType = new TypeToken<KrakenResponse<KrakenOpenOrderResult>>() {
                 }.getType();
-                final KrakenResponse krakenResponse = gson.fromJson(response.getPayload(), resultType);
+                final KrakenResponse krakenResponse = response.decodePayload(gson, resultType);
 
                 final List<String> errors = krakenResponse.error;
                 if (errors == null || errors.isEmpty()) {
@@ -424,7 +450,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
 
                 } else {
 
-                    if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
+                    if (isExchangeUndergoingMaintenance(errors) && keepAliveDuringMaintenance) {
                         LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
                         throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
                     }
@@ -445,6 +471,10 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
         } catch (Exception e) {
             LOG.error(UNEXPECTED_ERROR_MSG, e);
             throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
         }
     }
 
@@ -486,7 +516,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
 
                 final Type resultType = new TypeToken<KrakenResponse<KrakenAddOrderResult>>() {
                 }.getType();
-                final KrakenResponse krakenResponse = gson.fromJson(response.getPayload(), resultType);
+                final KrakenResponse krakenResponse = response.decodePayload(gson, resultType);
 
                 final List<String> errors = krakenResponse.error;
                 if (errors == null || errors.isEmpty()) {
@@ -499,7 +529,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
 
                 } else {
 
-                    if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
+                    if (isExchangeUndergoingMaintenance(errors) && keepAliveDuringMaintenance) {
                         LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
                         throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
                     }
@@ -520,6 +550,10 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
         } catch (Exception e) {
             LOG.error(UNEXPECTED_ERROR_MSG, e);
             throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
         }
     }
 
@@ -542,7 +576,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
 
                 final Type resultType = new TypeToken<KrakenResponse<KrakenCancelOrderResult>>() {
                 }.getType();
-                final KrakenResponse krakenResponse = gson.fromJson(response.getPayload(), resultType);
+                final KrakenResponse krakenResponse = response.decodePayload(gson, resultType);
 
                 final List<String> errors = krakenResponse.error;
                 if (errors == null || errors.isEmpty()) {
@@ -565,7 +599,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
 
                 } else {
 
-                    if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
+                    if (isExchangeUndergoingMaintenance(errors) && keepAliveDuringMaintenance) {
                         LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
                         throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
                     }
@@ -586,11 +620,99 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
         } catch (Exception e) {
             LOG.error(UNEXPECTED_ERROR_MSG, e);
             throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
+    /*
+     * marketId is not needed for fetching an order on this exchange.
+     */
+    @Override
+    public OrderStatus getOrderStatus(String orderId, String marketIdNotNeeded)
+            throws TradingApiException, ExchangeNetworkException {
+
+        ExchangeHttpResponse response = null;
+
+        try {
+            final Map<String, String> params = getRequestParamMap();
+            params.put("txid", orderId);
+
+            response = sendAuthenticatedRequestToExchange("QueryOrders", params);
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Query Orders response: " + response);
+            }
+
+            if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+
+                final Type resultType = new TypeToken<KrakenResponse<KrakenQueryOrdersResult>>() {
+                }.getType();
+                final KrakenResponse krakenResponse = response.decodePayload(gson, resultType);
+
+                final List<String> errors = krakenResponse.error;
+                if (errors == null || errors.isEmpty()) {
+
+                    final KrakenQueryOrdersResult krakenQueryOrdersResult = (KrakenQueryOrdersResult) krakenResponse.result;
+                    final KrakenOpenOrder krakenOrder = krakenQueryOrdersResult != null
+                            ? krakenQueryOrdersResult.get(orderId) : null;
+                    if (krakenOrder == null) {
+                        final String errorMsg = FAILED_TO_QUERY_ORDER + response;
+                        LOG.error(errorMsg);
+                        throw new TradingApiException(errorMsg);
+                    }
+
+                    switch (krakenOrder.status) {
+                        case "pending":
+                        case "open":
+                            return OrderStatus.OPEN;
+                        case "closed":
+                            return OrderStatus.FILLED;
+                        case "canceled":
+                        case "expired":
+                            return OrderStatus.CANCELLED;
+                        default:
+                            return OrderStatus.CLOSED;
+                    }
+
+                } else {
+
+                    if (isExchangeUndergoingMaintenance(errors) && keepAliveDuringMaintenance) {
+                        LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
+                        throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
+                    }
+
+                    final String errorMsg = FAILED_TO_QUERY_ORDER + response;
+                    LOG.error(errorMsg);
+                    throw new TradingApiException(errorMsg);
+                }
+
+            } else {
+                final String errorMsg = FAILED_TO_QUERY_ORDER + response;
+                LOG.error(errorMsg);
+                throw new TradingApiException(errorMsg);
+            }
+
+        } catch (ExchangeNetworkException | TradingApiException e) {
+            throw e;
+        } catch (Exception e) {
+            LOG.error(UNEXPECTED_ERROR_MSG, e);
+            throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
         }
     }
 
     @Override
     public BigDecimal getLatestMarketPrice(String marketId) throws TradingApiException, ExchangeNetworkException {
+        return coalescePublicCall("getLatestMarketPrice/" + marketId, () -> fetchLatestMarketPrice(marketId));
+    }
+
+    private BigDecimal fetchLatestMarketPrice(String marketId) throws TradingApiException, ExchangeNetworkException {
 
         ExchangeHttpResponse response = null;
 
@@ -609,7 +731,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
 
                 final Type resultType = new TypeToken<KrakenResponse<KrakenTickerResult>>() {
                 }.getType();
-                final KrakenResponse krakenResponse = gson.fromJson(response.getPayload(), resultType);
+                final KrakenResponse krakenResponse = response.decodePayload(gson, resultType);
 
                 final List<String> errors = krakenResponse.error;
                 if (errors == null || errors.isEmpty()) {
@@ -625,7 +747,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
 
                 } else {
 
-                    if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
+                    if (isExchangeUndergoingMaintenance(errors) && keepAliveDuringMaintenance) {
                         LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
                         throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
                     }
@@ -646,6 +768,10 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
         } catch (Exception e) {
             LOG.error(UNEXPECTED_ERROR_MSG, e);
             throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
         }
     }
 
@@ -666,7 +792,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
 
                 final Type resultType = new TypeToken<KrakenResponse<KrakenBalanceResult>>() {
                 }.getType();
-                final KrakenResponse krakenResponse = gson.fromJson(response.getPayload(), resultType);
+                final KrakenResponse krakenResponse = response.decodePayload(gson, resultType);
 
                 if (krakenResponse != null) {
                     final List<String> errors = krakenResponse.error;
@@ -686,7 +812,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
 
                     } else {
 
-                        if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
+                        if (isExchangeUndergoingMaintenance(errors) && keepAliveDuringMaintenance) {
                             LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
                             throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
                         }
@@ -712,6 +838,10 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
         } catch (Exception e) {
             LOG.error(UNEXPECTED_ERROR_MSG, e);
             throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
         }
     }
 
@@ -807,6 +937,12 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
         }
     }
 
+    /**
+     * GSON class that wraps a Query Orders API call result - your orders, keyed by order id.
+     */
+    private static class KrakenQueryOrdersResult extends HashMap<String, KrakenOpenOrder> {
+    }
+
     /**
      * GSON class the represents a Kraken Open Order.
      */
@@ -1005,6 +1141,8 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
     private ExchangeHttpResponse sendPublicRequestToExchange(String apiMethod, Map<String, String> params)
             throws ExchangeNetworkException, TradingApiException {
 
+        awaitRateLimit(RequestPriority.MARKET_DATA);
+
         if (params == null) {
             params = new HashMap<>(); // no params, so empty query string
         }
@@ -1072,6 +1210,11 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
             throw new IllegalStateException(errorMsg);
         }
 
+        awaitRateLimit(requestPriority(apiMethod));
+
+        // The nonce is required by Kraken in every request.
+        // It MUST be incremented each time and the nonce param MUST match the value used in signature.
+        final long nonce = nonceSequence.acquire();
         try {
 
             if (params == null) {
@@ -1079,9 +1222,6 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
                 params = new HashMap<>();
             }
 
-            // The nonce is required by Kraken in every request.
-            // It MUST be incremented each time and the nonce param MUST match the value used in signature.
-            nonce++;
             params.put("nonce", Long.toString(nonce));
 
             // Current adapter does not support optional 2FA
@@ -1100,21 +1240,14 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
 
             // And now the tricky part... ;-o
 
-            final byte[] pathInBytes = ("/" + KRAKEN_API_VERSION + KRAKEN_PRIVATE_PATH + apiMethod).getBytes("UTF-8");
+            final String path = "/" + KRAKEN_API_VERSION + KRAKEN_PRIVATE_PATH + apiMethod;
             final String noncePrependedToPostData = Long.toString(nonce) + postData;
 
-            // Create sha256 hash of nonce and post data:
-            final MessageDigest md = MessageDigest.getInstance("SHA-256");
-            md.update(noncePrependedToPostData.getBytes("UTF-8"));
-            final byte[] messageHash = md.digest();
-
-            // Create hmac_sha512 digest of path and previous sha256 hash
-            mac.reset(); // force reset
-            mac.update(pathInBytes);
-            mac.update(messageHash);
-
-            // Signature in Base64
-            final String signature = Base64.getEncoder().encodeToString(mac.doFinal());
+            // Create hmac_sha512 digest of path and sha256 hash of nonce and post data - signature in Base64
+            final String signature = requestSigner.sign()
+                    .update(path)
+                    .updateWithSha256Of(noncePrependedToPostData)
+                    .toBase64();
 
             // Request headers required by Exchange
             final Map<String, String> requestHeaders = new HashMap<>();
@@ -1125,11 +1258,31 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
             final URL url = new URL(AUTHENTICATED_API_URL + apiMethod);
             return sendNetworkRequest(url, "POST", postData.toString(), requestHeaders);
 
-        } catch (MalformedURLException | NoSuchAlgorithmException | UnsupportedEncodingException e) {
+        } catch (MalformedURLException | UnsupportedEncodingException e) {
 
             final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
             LOG.error(errorMsg, e);
             throw new TradingApiException(errorMsg, e);
+
+        } finally {
+            nonceSequence.release();
+        }
+    }
+
+    /**
+     * Returns the rate limit priority of an authenticated API call.
+     *
+     * @param apiMethod the API method being called.
+     * @return the priority of the call.
+     */
+    private static RequestPriority requestPriority(String apiMethod) {
+        switch (apiMethod) {
+            case "CancelOrder":
+                return RequestPriority.CANCEL_ORDER;
+            case "AddOrder":
+                return RequestPriority.CREATE_ORDER;
+            default:
+                return RequestPriority.ACCOUNT;
         }
     }
 
@@ -1144,9 +1297,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
             // Kraken secret key is in Base64, so we need to decode it first
             final byte[] base64DecodedSecret = Base64.getDecoder().decode(secret);
 
-            final SecretKeySpec keyspec = new SecretKeySpec(base64DecodedSecret, "HmacSHA512");
-            mac = Mac.getInstance("HmacSHA512");
-            mac.init(keyspec);
+            requestSigner = new RequestSigner(HmacAlgorithm.HMAC_SHA512, base64DecodedSecret);
             initializedMACAuthentication = true;
         } catch (NoSuchAlgorithmException e) {
             final String errorMsg = "Failed to setup MAC security. HINT: Is HmacSHA512 installed?";
@@ -1199,19 +1350,15 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
      * Initialises the GSON layer.
      */
     private void initGson() {
-        final GsonBuilder gsonBuilder = new GsonBuilder();
-        gsonBuilder.registerTypeAdapter(KrakenTickerResult.class, new KrakenTickerResultDeserializer());
-        gson = gsonBuilder.create();
+        gson = getSharedGson(() -> {
+            final GsonBuilder gsonBuilder = new GsonBuilder();
+            gsonBuilder.registerTypeAdapter(KrakenTickerResult.class, new KrakenTickerResultDeserializer());
+            return gsonBuilder.create();
+        });
     }
 
-    private static boolean isExchangeUndergoingMaintenance(ExchangeHttpResponse response) {
-        if (response != null) {
-            final String payload = response.getPayload();
-            if (payload != null && payload.contains(EXCHANGE_UNDERGOING_MAINTENANCE_RESPONSE)) {
-                return true;
-            }
-        }
-        return false;
+    private static boolean isExchangeUndergoingMaintenance(List<String> errors) {
+        return errors != null && errors.stream().anyMatch(error -> error.contains(EXCHANGE_UNDERGOING_MAINTENANCE_RESPONSE));
     }
 
     /*
@@ -0,0 +1,123 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.trading.api.L2OrderBook;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.google.common.base.MoreObjects;
+
+import java.math.BigDecimal;
+
+/**
+ * An L2 order book for a market, kept up to date from an Exchange's WebSocket feed.
+ * <p>
+ * The book holds the total quantity at each price level. It starts out unsynced; the feed fills it from the Exchange's
+ * snapshot, marks it synced, then applies the incremental updates. If the feed loses its place in the update
+ * stream, it clears the book and it is unsynced again until the next snapshot.
+ * <p>
+ * The levels are held in an {@link L2OrderBook} of fixed-point primitive arrays. Only the top levels asked for are
+ * copied, outside the lock, into a {@link MarketOrderBook}.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author gazbert
+ */
+final class LocalOrderBook {
+
+    /**
+     * Decimal places the book holds prices and quantities to. The feeds' exchanges use 8 at most.
+     */
+    private static final int SCALE = 8;
+
+    private final L2OrderBook levels;
+
+    private boolean synced;
+
+
+    LocalOrderBook(String marketId) {
+        levels = new L2OrderBook(marketId, SCALE, SCALE);
+    }
+
+    String getMarketId() {
+        return levels.getMarketId();
+    }
+
+    /**
+     * Sets the quantity at a price level.
+     *
+     * @param side     BUY for a bid level, SELL for an ask level.
+     * @param price    the price of the level.
+     * @param quantity the total quantity at the level; zero removes the level.
+     * @throws IllegalArgumentException if the price or quantity has more than 8 decimal places.
+     */
+    synchronized void update(OrderType side, BigDecimal price, BigDecimal quantity) {
+        levels.update(side, price, quantity);
+    }
+
+    /**
+     * Marks the book as synced with the Exchange. Call this once the snapshot has been applied.
+     */
+    synchronized void markSynced() {
+        synced = true;
+    }
+
+    synchronized boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * Empties the book and marks it unsynced.
+     */
+    synchronized void clear() {
+        levels.clear();
+        synced = false;
+    }
+
+    /**
+     * Returns a copy of the top of the book.
+     *
+     * @param depth the max number of levels to return on each side.
+     * @return the order book, or null if the book is not synced with the Exchange.
+     */
+    MarketOrderBook toMarketOrderBook(int depth) {
+        final L2OrderBook.Snapshot snapshot;
+        synchronized (this) {
+            if (!synced) {
+                return null;
+            }
+            snapshot = levels.snapshot(depth);
+        }
+        return snapshot.toMarketOrderBook();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("synced", synced)
+                .add("levels", levels)
+                .toString();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out the nonces an Exchange Adapter signs its authenticated requests with.
+ * <p>
+ * Nonces only ever go up, even if the sequence is advanced to a lower value when the adapter is re-initialised.
+ * Unique nonces are not enough when several threads share an adapter though: the exchanges reject a nonce that is not
+ * greater than the last one they saw, so a request must reach the exchange before any request that takes a later
+ * nonce. Callers take a nonce with {@link #acquire()} and call {@link #release()} once the exchange has answered the
+ * request; the next caller gets its nonce after that, in the order the callers arrived. Only the round trip up to the
+ * response is serialized: callers read the response payload after releasing the sequence.
+ * <p>
+ * This class is thread safe. It uses a {@link ReentrantLock} rather than a monitor, so virtual threads waiting for a
+ * nonce are not pinned.
+ *
+ * @author gazbert
+ */
+final class NonceSequence {
+
+    private final ReentrantLock requestOrderLock = new ReentrantLock(true);
+    private final AtomicLong nextNonce = new AtomicLong();
+
+
+    /**
+     * Moves the sequence forward so the next nonce is at least the given value. Does nothing if the sequence is
+     * already past it.
+     *
+     * @param nonce the lowest nonce to hand out next, e.g. the current time in seconds.
+     */
+    void advanceTo(long nonce) {
+        nextNonce.accumulateAndGet(nonce, Math::max);
+    }
+
+    /**
+     * Waits for the requests that took earlier nonces to be answered, then takes the next nonce. The caller must call
+     * {@link #release()} once the exchange has answered its request, typically in a finally block.
+     *
+     * @return the nonce to sign the request with.
+     */
+    long acquire() {
+        requestOrderLock.lock();
+        return nextNonce.getAndIncrement();
+    }
+
+    /**
+     * Lets the next caller take a nonce. Call this once the exchange has answered the request, or if the request
+     * could not be sent.
+     *
+     * @throws IllegalMonitorStateException if the calling thread has not acquired a nonce.
+     */
+    void release() {
+        requestOrderLock.unlock();
+    }
+}
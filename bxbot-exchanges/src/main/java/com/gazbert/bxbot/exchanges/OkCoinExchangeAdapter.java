@@ -27,6 +27,7 @@ import com.gazbert.bxbot.exchange.api.AuthenticationConfig;
 import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
 import com.gazbert.bxbot.exchange.api.ExchangeConfig;
 import com.gazbert.bxbot.exchange.api.OptionalConfig;
+import com.gazbert.bxbot.exchanges.RateLimiter.RequestPriority;
 import com.gazbert.bxbot.trading.api.*;
 import com.google.common.base.MoreObjects;
 import com.google.gson.Gson;
@@ -38,10 +39,7 @@ import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLConnection;
 import java.net.URLEncoder;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.text.DecimalFormat;
 import java.util.*;
 
@@ -70,9 +68,9 @@ import java.util.*;
  * config accordingly.
  * </p>
  * <p>
- * The Exchange Adapter is <em>not</em> thread safe. It expects to be called using a single thread in order to
- * preserve trade execution order. The {@link URLConnection} achieves this by blocking/waiting on the input stream
- * (response) for each API call.
+ * The Exchange Adapter is thread safe, so Trading Strategies running on different threads can share it. Calls made on
+ * a single thread keep their trade execution order: the {@link ExchangeHttpTransport} blocks/waits on the response for
+ * each API call.
  * </p>
  * <p>
  * The {@link TradingApi} calls will throw a {@link ExchangeNetworkException} if a network error occurs trying to
@@ -111,6 +109,11 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter impleme
      */
     private static final String UNEXPECTED_IO_ERROR_MSG = "Failed to connect to Exchange due to unexpected IO error.";
 
+    /**
+     * The most order book levels the exchange will return when asked for a limited depth.
+     */
+    private static final int MAX_ORDER_BOOK_DEPTH = 200;
+
     /**
      * Name of PUBLIC key prop in config file.
      */
@@ -156,12 +159,6 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter impleme
      */
     private String secret = "";
 
-    /**
-     * The Message Digest generator used by the secure messaging layer.
-     * Used to create the hash of the entire message with the private key to ensure message integrity.
-     */
-    private MessageDigest messageDigest;
-
     /**
      * GSON engine used for parsing JSON in OKCoin API call responses.
      */
@@ -212,16 +209,17 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter impleme
             // note we need to limit amount to 8 decimal places else exchange will barf
             params.put("amount", new DecimalFormat("#.########").format(quantity));
 
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("trade.do", params);
-            LOG.debug(() -> "Create Order response: " + response);
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("trade.do", params)) {
+                LOG.debug(() -> "Create Order response: " + response);
 
-            final OKCoinTradeResponse createOrderResponse = gson.fromJson(response.getPayload(), OKCoinTradeResponse.class);
-            if (createOrderResponse.result) {
-                return Long.toString(createOrderResponse.order_id);
-            } else {
-                final String errorMsg = "Failed to place order on exchange. Error response: " + response;
-                LOG.error(errorMsg);
-                throw new TradingApiException(errorMsg);
+                final OKCoinTradeResponse createOrderResponse = response.decodePayload(gson, OKCoinTradeResponse.class);
+                if (createOrderResponse.result) {
+                    return Long.toString(createOrderResponse.order_id);
+                } else {
+                    final String errorMsg = "Failed to place order on exchange. Error response: " + response;
+                    LOG.error(errorMsg);
+                    throw new TradingApiException(errorMsg);
+                }
             }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
@@ -240,16 +238,17 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter impleme
             params.put("order_id", orderId);
             params.put("symbol", marketId);
 
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("cancel_order.do", params);
-            LOG.debug(() -> "Cancel Order response: " + response);
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("cancel_order.do", params)) {
+                LOG.debug(() -> "Cancel Order response: " + response);
 
-            final OKCoinCancelOrderResponse cancelOrderResponse = gson.fromJson(response.getPayload(), OKCoinCancelOrderResponse.class);
-            if (cancelOrderResponse.result) {
-                return true;
-            } else {
-                final String errorMsg = "Failed to cancel order on exchange. Error response: " + response;
-                LOG.error(errorMsg);
-                return false;
+                final OKCoinCancelOrderResponse cancelOrderResponse = response.decodePayload(gson, OKCoinCancelOrderResponse.class);
+                if (cancelOrderResponse.result) {
+                    return true;
+                } else {
+                    final String errorMsg = "Failed to cancel order on exchange. Error response: " + response;
+                    LOG.error(errorMsg);
+                    return false;
+                }
             }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
@@ -269,46 +268,47 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter impleme
             params.put("symbol", marketId);
             params.put("order_id", "-1"); // -1 means bring back all the orders
 
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("order_info.do", params);
-            LOG.debug(() -> "Open Orders response: " + response);
-
-            final OKCoinOrderInfoWrapper orderInfoWrapper = gson.fromJson(response.getPayload(), OKCoinOrderInfoWrapper.class);
-            if (orderInfoWrapper.result) {
-
-                final List<OpenOrder> ordersToReturn = new ArrayList<>();
-                for (final OKCoinOpenOrder openOrder : orderInfoWrapper.orders) {
-                    OrderType orderType;
-                    switch (openOrder.type) {
-                        case "buy":
-                            orderType = OrderType.BUY;
-                            break;
-                        case "sell":
-                            orderType = OrderType.SELL;
-                            break;
-                        default:
-                            throw new TradingApiException(
-                                    "Unrecognised order type received in getYourOpenOrders(). Value: " + openOrder.type);
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("order_info.do", params)) {
+                LOG.debug(() -> "Open Orders response: " + response);
+
+                final OKCoinOrderInfoWrapper orderInfoWrapper = response.decodePayload(gson, OKCoinOrderInfoWrapper.class);
+                if (orderInfoWrapper.result) {
+
+                    final List<OpenOrder> ordersToReturn = new ArrayList<>();
+                    for (final OKCoinOpenOrder openOrder : orderInfoWrapper.orders) {
+                        OrderType orderType;
+                        switch (openOrder.type) {
+                            case "buy":
+                                orderType = OrderType.BUY;
+                                break;
+                            case "sell":
+                                orderType = OrderType.SELL;
+                                break;
+                            default:
+                                throw new TradingApiException(
+                                        "Unrecognised order type received in getYourOpenOrders(). Value: " + openOrder.type);
+                        }
+
+                        final OpenOrder order = new OpenOrder(
+                                Long.toString(openOrder.order_id),
+                                new Date(openOrder.create_date),
+                                marketId,
+                                orderType,
+                                openOrder.price,
+                                openOrder.amount,
+                                null, // orig_quantity - not provided by OKCoin :-(
+                                openOrder.price.multiply(openOrder.amount) // total - not provided by OKCoin :-(
+                        );
+
+                        ordersToReturn.add(order);
                     }
+                    return ordersToReturn;
 
-                    final OpenOrder order = new OpenOrder(
-                            Long.toString(openOrder.order_id),
-                            new Date(openOrder.create_date),
-                            marketId,
-                            orderType,
-                            openOrder.price,
-                            openOrder.amount,
-                            null, // orig_quantity - not provided by OKCoin :-(
-                            openOrder.price.multiply(openOrder.amount) // total - not provided by OKCoin :-(
-                    );
-
-                    ordersToReturn.add(order);
+                } else {
+                    final String errorMsg = "Failed to get Open Order Info from exchange. Error response: " + response;
+                    LOG.error(errorMsg);
+                    throw new TradingApiException(errorMsg);
                 }
-                return ordersToReturn;
-
-            } else {
-                final String errorMsg = "Failed to get Open Order Info from exchange. Error response: " + response;
-                LOG.error(errorMsg);
-                throw new TradingApiException(errorMsg);
             }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
@@ -321,50 +321,67 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter impleme
 
     @Override
     public MarketOrderBook getMarketOrders(String marketId) throws TradingApiException, ExchangeNetworkException {
+        return getMarketOrders(marketId, FULL_ORDER_BOOK_DEPTH);
+    }
+
+    @Override
+    public MarketOrderBook getMarketOrders(String marketId, int depth) throws TradingApiException,
+            ExchangeNetworkException {
+        return coalescePublicCall("getMarketOrders/" + marketId + "/" + depth,
+                () -> fetchMarketOrders(marketId, depth));
+    }
+
+    private MarketOrderBook fetchMarketOrders(String marketId, int depth) throws TradingApiException,
+            ExchangeNetworkException {
 
         try {
+            assertValidOrderBookDepth(depth);
 
             final Map<String, String> params = getRequestParamMap();
             params.put("symbol", marketId);
+            if (depth <= MAX_ORDER_BOOK_DEPTH) {
+                params.put("size", Integer.toString(depth)); // only ask the exchange for the levels we need
+            }
 
-            final ExchangeHttpResponse response = sendPublicRequestToExchange("depth.do", params);
-            LOG.debug(() -> "Market Orders response: " + response);
+            try (ExchangeHttpResponse response = sendPublicRequestToExchange("depth.do", params)) {
+                LOG.debug(() -> "Market Orders response: " + response);
 
-            final OKCoinDepthWrapper orderBook = gson.fromJson(response.getPayload(), OKCoinDepthWrapper.class);
+                final OKCoinDepthWrapper orderBook = response.decodePayload(gson, OKCoinDepthWrapper.class);
 
-            final List<MarketOrder> buyOrders = new ArrayList<>();
-            for (OKCoinMarketOrder okCoinBuyOrder : orderBook.bids) {
-                final MarketOrder buyOrder = new MarketOrder(
-                        OrderType.BUY,
-                        okCoinBuyOrder.get(0),
-                        okCoinBuyOrder.get(1),
-                        okCoinBuyOrder.get(0).multiply(okCoinBuyOrder.get(1)));
-                buyOrders.add(buyOrder);
-            }
-
-            final List<MarketOrder> sellOrders = new ArrayList<>();
-            for (OKCoinMarketOrder okCoinSellOrder : orderBook.asks) {
-                final MarketOrder sellOrder = new MarketOrder(
-                        OrderType.SELL,
-                        okCoinSellOrder.get(0),
-                        okCoinSellOrder.get(1),
-                        okCoinSellOrder.get(0).multiply(okCoinSellOrder.get(1)));
-                sellOrders.add(sellOrder);
-            }
+                final List<MarketOrder> buyOrders = new ArrayList<>();
+                for (OKCoinMarketOrder okCoinBuyOrder : firstLevels(orderBook.bids, depth)) {
+                    final MarketOrder buyOrder = new MarketOrder(
+                            OrderType.BUY,
+                            okCoinBuyOrder.get(0),
+                            okCoinBuyOrder.get(1),
+                            okCoinBuyOrder.get(0).multiply(okCoinBuyOrder.get(1)));
+                    buyOrders.add(buyOrder);
+                }
 
-            // For some reason, OKCoin sorts ask orders in descending order instead of ascending.
-            // We need to re-order price ascending - lowest ASK price will be first in list.
-            sellOrders.sort((thisOrder, thatOrder) -> {
-                if (thisOrder.getPrice().compareTo(thatOrder.getPrice()) < 0) {
-                    return -1;
-                } else if (thisOrder.getPrice().compareTo(thatOrder.getPrice()) > 0) {
-                    return 1;
-                } else {
-                    return 0; // same price
+                final List<MarketOrder> sellOrders = new ArrayList<>();
+                for (OKCoinMarketOrder okCoinSellOrder : firstLevels(orderBook.asks, depth)) {
+                    final MarketOrder sellOrder = new MarketOrder(
+                            OrderType.SELL,
+                            okCoinSellOrder.get(0),
+                            okCoinSellOrder.get(1),
+                            okCoinSellOrder.get(0).multiply(okCoinSellOrder.get(1)));
+                    sellOrders.add(sellOrder);
                 }
-            });
 
-            return new MarketOrderBook(marketId, sellOrders, buyOrders);
+                // For some reason, OKCoin sorts ask orders in descending order instead of ascending.
+                // We need to re-order price ascending - lowest ASK price will be first in list.
+                sellOrders.sort((thisOrder, thatOrder) -> {
+                    if (thisOrder.getPrice().compareTo(thatOrder.getPrice()) < 0) {
+                        return -1;
+                    } else if (thisOrder.getPrice().compareTo(thatOrder.getPrice()) > 0) {
+                        return 1;
+                    } else {
+                        return 0; // same price
+                    }
+                });
+
+                return new MarketOrderBook(marketId, sellOrders, buyOrders);
+            }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
             throw e;
@@ -376,16 +393,21 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter impleme
 
     @Override
     public BigDecimal getLatestMarketPrice(String marketId) throws ExchangeNetworkException, TradingApiException {
+        return coalescePublicCall("getLatestMarketPrice/" + marketId, () -> fetchLatestMarketPrice(marketId));
+    }
+
+    private BigDecimal fetchLatestMarketPrice(String marketId) throws ExchangeNetworkException, TradingApiException {
 
         try {
             final Map<String, String> params = getRequestParamMap();
             params.put("symbol", marketId);
 
-            final ExchangeHttpResponse response = sendPublicRequestToExchange("ticker.do", params);
-            LOG.debug(() -> "Latest Market Price response: " + response);
+            try (ExchangeHttpResponse response = sendPublicRequestToExchange("ticker.do", params)) {
+                LOG.debug(() -> "Latest Market Price response: " + response);
 
-            final OKCoinTickerWrapper tickerWrapper = gson.fromJson(response.getPayload(), OKCoinTickerWrapper.class);
-            return tickerWrapper.ticker.last;
+                final OKCoinTickerWrapper tickerWrapper = response.decodePayload(gson, OKCoinTickerWrapper.class);
+                return tickerWrapper.ticker.last;
+            }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
             throw e;
@@ -399,28 +421,29 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter impleme
     public BalanceInfo getBalanceInfo() throws TradingApiException, ExchangeNetworkException {
 
         try {
-            final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("userinfo.do", null);
-            LOG.debug(() -> "Balance Info response: " + response);
+            try (ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("userinfo.do", null)) {
+                LOG.debug(() -> "Balance Info response: " + response);
 
-            final OKCoinUserInfoWrapper userInfoWrapper = gson.fromJson(response.getPayload(), OKCoinUserInfoWrapper.class);
-            if (userInfoWrapper.result) {
+                final OKCoinUserInfoWrapper userInfoWrapper = response.decodePayload(gson, OKCoinUserInfoWrapper.class);
+                if (userInfoWrapper.result) {
 
-                final Map<String, BigDecimal> balancesAvailable = new HashMap<>();
-                for (final Map.Entry<String, BigDecimal> balance : userInfoWrapper.info.funds.free.entrySet()) {
-                    balancesAvailable.put(balance.getKey().toUpperCase(), balance.getValue());
-                }
+                    final Map<String, BigDecimal> balancesAvailable = new HashMap<>();
+                    for (final Map.Entry<String, BigDecimal> balance : userInfoWrapper.info.funds.free.entrySet()) {
+                        balancesAvailable.put(balance.getKey().toUpperCase(), balance.getValue());
+                    }
 
-                final Map<String, BigDecimal> balancesOnOrder = new HashMap<>();
-                for (final Map.Entry<String, BigDecimal> balance : userInfoWrapper.info.funds.freezed.entrySet()) {
-                    balancesOnOrder.put(balance.getKey().toUpperCase(), balance.getValue());
-                }
+                    final Map<String, BigDecimal> balancesOnOrder = new HashMap<>();
+                    for (final Map.Entry<String, BigDecimal> balance : userInfoWrapper.info.funds.freezed.entrySet()) {
+                        balancesOnOrder.put(balance.getKey().toUpperCase(), balance.getValue());
+                    }
 
-                return new BalanceInfo(balancesAvailable, balancesOnOrder);
+                    return new BalanceInfo(balancesAvailable, balancesOnOrder);
 
-            } else {
-                final String errorMsg = "Failed to get Balance Info from exchange. Error response: " + response;
-                LOG.error(errorMsg);
-                throw new TradingApiException(errorMsg);
+                } else {
+                    final String errorMsg = "Failed to get Balance Info from exchange. Error response: " + response;
+                    LOG.error(errorMsg);
+                    throw new TradingApiException(errorMsg);
+                }
             }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
@@ -712,6 +735,8 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter impleme
     private ExchangeHttpResponse sendPublicRequestToExchange(String apiMethod, Map<String, String> params) throws
             ExchangeNetworkException, TradingApiException {
 
+        awaitRateLimit(RequestPriority.MARKET_DATA);
+
         if (params == null) {
             params = new HashMap<>(); // no params, so empty query string
         }
@@ -794,6 +819,8 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter impleme
             throw new IllegalStateException(errorMsg);
         }
 
+        awaitRateLimit(requestPriority(apiMethod));
+
         try {
 
             if (params == null) {
@@ -841,45 +868,43 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter impleme
         }
     }
 
+    /**
+     * Returns the rate limit priority of an authenticated API call.
+     *
+     * @param apiMethod the API method being called.
+     * @return the priority of the call.
+     */
+    private static RequestPriority requestPriority(String apiMethod) {
+        switch (apiMethod) {
+            case "cancel_order.do":
+                return RequestPriority.CANCEL_ORDER;
+            case "trade.do":
+                return RequestPriority.CREATE_ORDER;
+            default:
+                return RequestPriority.ACCOUNT;
+        }
+    }
+
     /**
      * Creates an MD5 hash for a given string and returns the hash as an uppercase string.
      *
      * @param stringToHash the string to create the MD5 hash for.
      * @return the MD5 hash as an uppercase string.
      */
-    private String createMd5HashAndReturnAsUpperCaseString(String stringToHash) throws UnsupportedEncodingException {
-
-        final char HEX_DIGITS[] = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
+    private String createMd5HashAndReturnAsUpperCaseString(String stringToHash) {
 
         if (stringToHash == null || stringToHash.isEmpty()) {
             return "";
         }
-
-        messageDigest.update(stringToHash.getBytes("UTF-8"));
-        final byte[] md5HashInBytes = messageDigest.digest();
-
-        final StringBuilder md5HashAsUpperCaseString = new StringBuilder();
-        for (final byte md5HashByte : md5HashInBytes) {
-            md5HashAsUpperCaseString.append(HEX_DIGITS[(md5HashByte & 0xf0) >> 4]).append("").append(HEX_DIGITS[md5HashByte & 0xf]);
-        }
-        return md5HashAsUpperCaseString.toString();
+        return RequestSigner.md5ToHexUpperCase(stringToHash);
     }
 
     /**
-     * Initialises the secure messaging layer
-     * Sets up the Message Digest to safeguard the data we send to the exchange.
-     * We fail hard n fast if any of this stuff blows.
+     * Initialises the secure messaging layer.
+     * The Message Digest used to safeguard the data we send to the exchange is held per thread by the RequestSigner.
      */
     private void initSecureMessageLayer() {
-
-        try {
-            messageDigest = MessageDigest.getInstance("MD5");
-            initializedSecureMessagingLayer = true;
-        } catch (NoSuchAlgorithmException e) {
-            final String errorMsg = "Failed to setup MessageDigest for secure message layer. Details: " + e.getMessage();
-            LOG.error(errorMsg, e);
-            throw new IllegalStateException(errorMsg, e);
-        }
+        initializedSecureMessagingLayer = true;
     }
 
     // ------------------------------------------------------------------------------------------------
@@ -914,8 +939,10 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter impleme
      * Initialises the GSON layer.
      */
     private void initGson() {
-        final GsonBuilder gsonBuilder = new GsonBuilder();
-        gson = gsonBuilder.create();
+        gson = getSharedGson(() -> {
+            final GsonBuilder gsonBuilder = new GsonBuilder();
+            return gsonBuilder.create();
+        });
     }
 
     /*
@@ -0,0 +1,370 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class for the Exchange WebSocket market data feeds. It keeps an L2 {@link LocalOrderBook} for each market the
+ * bot asks for, so {@code getMarketOrders()} can be served from memory instead of a REST call.
+ * <p>
+ * A market is subscribed to the first time its order book is asked for. Until the feed has synced the book with the
+ * Exchange, {@link #getMarketOrders(String, int)} returns null and the adapter falls back to its REST call.
+ * <p>
+ * If the connection drops, all the books are cleared and the feed reconnects with a backoff, resubscribing to every
+ * market. Subclasses call {@link #resync()} when they spot a gap in the update stream; this also reconnects, because
+ * it is the only way to get a fresh snapshot that every Exchange supports.
+ * <p>
+ * Connecting, subscribing and reconnecting all happen on the feed's own thread. Messages are handled on the
+ * WebSocket reader thread, in the order the Exchange sent them.
+ *
+ * @author gazbert
+ */
+abstract class OrderBookFeed implements Closeable {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private static final long INITIAL_RECONNECT_DELAY_MILLIS = 1000;
+    private static final long MAX_RECONNECT_DELAY_MILLIS = 30000;
+
+    private final URI uri;
+    private final int connectionTimeout;
+    private final int readTimeout;
+
+    private final ConcurrentMap<String, LocalOrderBook> books = new ConcurrentHashMap<>();
+
+    /**
+     * Connects, subscribes and reconnects. Only ever touched from this thread, so the connection state below needs
+     * no locking.
+     */
+    private final ScheduledExecutorService feedThread;
+
+    private volatile Connection connection;
+    private volatile boolean closed;
+    private long reconnectDelayMillis = INITIAL_RECONNECT_DELAY_MILLIS;
+    private boolean reconnectScheduled;
+    private ScheduledFuture<?> heartbeat;
+
+
+    /**
+     * Creates the feed. Nothing is connected until the first order book is asked for.
+     *
+     * @param uri               the WebSocket URI of the feed.
+     * @param connectionTimeout timeout in SECONDS for connecting to the Exchange.
+     * @param readTimeout       time in SECONDS after which a silent connection is dropped and reconnected.
+     */
+    OrderBookFeed(URI uri, int connectionTimeout, int readTimeout) {
+        this.uri = uri;
+        this.connectionTimeout = connectionTimeout;
+        this.readTimeout = readTimeout;
+        feedThread = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("bxbot-order-book-feed-" + uri.getHost() + "-%d")
+                        .setDaemon(true).build());
+    }
+
+    /**
+     * Returns the top of the streamed order book for a market, subscribing to the market if this is the first time it
+     * has been asked for.
+     *
+     * @param marketId the id of the market.
+     * @param depth    the max number of levels to return on each side.
+     * @return the order book, or null if the feed has not synced the market's book yet.
+     */
+    MarketOrderBook getMarketOrders(String marketId, int depth) {
+        LocalOrderBook book = books.get(marketId);
+        if (book == null) {
+            final LocalOrderBook newBook = new LocalOrderBook(marketId);
+            book = books.putIfAbsent(marketId, newBook);
+            if (book == null) {
+                book = newBook;
+                onFeedThread(() -> subscribe(newBook));
+            }
+        }
+        return book.toMarketOrderBook(depth);
+    }
+
+    /**
+     * Stops the feed and closes the connection.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        feedThread.shutdownNow();
+        final Connection current = connection;
+        if (current != null) {
+            current.client.close();
+        }
+        clearBooks();
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Exchange specific hooks
+    // ------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds the message that subscribes to a market's order book.
+     *
+     * @param marketId the id of the market.
+     * @return the subscribe message.
+     */
+    abstract String subscribeMessage(String marketId);
+
+    /**
+     * Handles a message from the Exchange. Called on the WebSocket reader thread.
+     *
+     * @param message the message.
+     * @throws Exception if the message could not be handled; the feed then resyncs.
+     */
+    abstract void handleMessage(String message) throws Exception;
+
+    /**
+     * Called on the feed thread when a new connection is open, before the markets are subscribed to.
+     * Subclasses reset any per-connection state here and send any setup messages the Exchange needs.
+     *
+     * @throws IOException if a setup message could not be sent.
+     */
+    void onConnected() throws IOException {
+        // nothing to set up by default
+    }
+
+    /**
+     * The message to send periodically to stop a quiet connection from timing out.
+     *
+     * @return the heartbeat message, or null if the Exchange sends its own heartbeats.
+     */
+    String heartbeatMessage() {
+        return null;
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Methods for subclasses
+    // ------------------------------------------------------------------------------------------------
+
+    /**
+     * Fetches the book for a market the feed has subscribed to.
+     *
+     * @param marketId the id of the market.
+     * @return the book, or null if the market is not subscribed to.
+     */
+    LocalOrderBook getBook(String marketId) {
+        return books.get(marketId);
+    }
+
+    /**
+     * Sends a message to the Exchange on the current connection.
+     *
+     * @param message the message.
+     * @throws IOException if there is no connection or the message could not be sent.
+     */
+    void send(String message) throws IOException {
+        final Connection current = connection;
+        if (current == null) {
+            throw new IOException("Order book feed is not connected: " + uri);
+        }
+        current.client.send(message);
+    }
+
+    /**
+     * Runs a task on the feed thread.
+     *
+     * @param task the task.
+     */
+    void onFeedThread(Runnable task) {
+        if (closed) {
+            return;
+        }
+        feedThread.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOG.error("Unexpected error in order book feed " + uri, e);
+            }
+        });
+    }
+
+    /**
+     * Drops all the books and reconnects to get fresh snapshots. Called when the feed has lost its place in the
+     * update stream.
+     */
+    void resync() {
+        LOG.warn(() -> "Order book feed " + uri + " is out of sync - reconnecting");
+        final Connection current = connection;
+        if (current != null) {
+            current.stale = true;
+        }
+        clearBooks();
+        if (current != null) {
+            // The reader thread calls back to connectionLost() once the socket is closed; that reconnects.
+            current.client.close();
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Connection management - all on the feed thread
+    // ------------------------------------------------------------------------------------------------
+
+    private void subscribe(LocalOrderBook book) {
+        if (connection == null) {
+            connect(); // subscribes to every book, including this one
+            return;
+        }
+        try {
+            send(subscribeMessage(book.getMarketId()));
+        } catch (IOException e) {
+            LOG.warn(() -> "Failed to subscribe to " + book.getMarketId() + " on " + uri + ": " + e);
+            // the reader thread will see the broken connection and reconnect
+        }
+    }
+
+    private void connect() {
+        if (closed || connection != null) {
+            return;
+        }
+        final Connection newConnection = new Connection();
+        newConnection.client = new WebSocketClient(uri, connectionTimeout, readTimeout, newConnection);
+        try {
+            connection = newConnection;
+            newConnection.client.connect();
+            onConnected();
+            for (final LocalOrderBook book : books.values()) {
+                newConnection.client.send(subscribeMessage(book.getMarketId()));
+            }
+            reconnectDelayMillis = INITIAL_RECONNECT_DELAY_MILLIS;
+            startHeartbeat();
+
+        } catch (IOException e) {
+            LOG.warn(() -> "Failed to connect to order book feed " + uri + ": " + e);
+            newConnection.client.close();
+            if (connection == newConnection) {
+                connection = null;
+                scheduleReconnect();
+            }
+        }
+    }
+
+    private void connectionLost(Connection lostConnection, int statusCode, String reason) {
+        if (connection != lostConnection) {
+            return; // an old connection we have already replaced
+        }
+        LOG.warn(() -> "Order book feed " + uri + " closed: " + statusCode + " " + reason);
+        connection = null;
+        stopHeartbeat();
+        clearBooks();
+        scheduleReconnect();
+    }
+
+    private void scheduleReconnect() {
+        if (closed || reconnectScheduled || books.isEmpty()) {
+            return;
+        }
+        reconnectScheduled = true;
+        final long delay = reconnectDelayMillis;
+        reconnectDelayMillis = Math.min(reconnectDelayMillis * 2, MAX_RECONNECT_DELAY_MILLIS);
+        LOG.info(() -> "Reconnecting to order book feed " + uri + " in " + delay + "ms");
+        feedThread.schedule(() -> {
+            reconnectScheduled = false;
+            connect();
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void startHeartbeat() {
+        final String heartbeatMessage = heartbeatMessage();
+        if (heartbeatMessage == null) {
+            return;
+        }
+        final long period = Math.max(1, readTimeout / 2);
+        heartbeat = feedThread.scheduleAtFixedRate(() -> {
+            try {
+                send(heartbeatMessage);
+            } catch (IOException e) {
+                LOG.debug(() -> "Failed to send heartbeat to " + uri + ": " + e);
+            }
+        }, period, period, TimeUnit.SECONDS);
+    }
+
+    private void stopHeartbeat() {
+        if (heartbeat != null) {
+            heartbeat.cancel(false);
+            heartbeat = null;
+        }
+    }
+
+    private void clearBooks() {
+        for (final LocalOrderBook book : books.values()) {
+            book.clear();
+        }
+    }
+
+    /**
+     * Listens to one WebSocket connection, so callbacks from a connection that has been replaced can be ignored.
+     */
+    private final class Connection implements WebSocketClient.Listener {
+
+        private WebSocketClient client;
+        private volatile boolean stale;
+
+        @Override
+        public void onMessage(String message) {
+            if (stale || connection != this) {
+                return;
+            }
+            try {
+                handleMessage(message);
+            } catch (Exception e) {
+                LOG.error("Failed to handle message from order book feed " + uri + ": " + message, e);
+                resync();
+            }
+        }
+
+        @Override
+        public void onClose(int statusCode, String reason) {
+            onFeedThread(() -> connectionLost(this, statusCode, reason));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("uri", uri)
+                .add("connectionTimeout", connectionTimeout)
+                .add("readTimeout", readTimeout)
+                .add("books", books.values())
+                .toString();
+    }
+}
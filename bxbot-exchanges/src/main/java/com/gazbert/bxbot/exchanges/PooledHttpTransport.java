@@ -0,0 +1,199 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.AbstractExchangeAdapter.ExchangeHttpResponse;
+import com.google.common.base.MoreObjects;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.HttpHostConnectException;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.MalformedURLException;
+import java.net.SocketTimeoutException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP transport that keeps a pool of keep-alive connections open to the Exchange, so each API call does not pay for
+ * a new TCP and TLS handshake.
+ * <p>
+ * Pooled connections that have been idle for longer than the idle timeout are closed by a background thread, so the
+ * adapter does not try to reuse a connection the Exchange has already dropped.
+ *
+ * @author gazbert
+ * @since 1.0
+ */
+final class PooledHttpTransport implements ExchangeHttpTransport {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    /**
+     * Er, perhaps, I need to be a bit more stealth here... this was needed for some exchanges back in the day!
+     */
+    private static final String USER_AGENT =
+            "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/60.0.3112.78 Safari/537.36";
+
+    /**
+     * Content type sent with POST data if the adapter does not set one. This is what HttpURLConnection sends by default.
+     */
+    private static final String DEFAULT_POST_CONTENT_TYPE = "application/x-www-form-urlencoded";
+
+    private final int connectionTimeout;
+    private final int readTimeout;
+    private final int connectionPoolSize;
+    private final int connectionIdleTimeout;
+
+    private final CloseableHttpClient httpClient;
+
+
+    /**
+     * Creates the transport and its connection pool.
+     *
+     * @param connectionTimeout     timeout in SECONDS for connecting to the Exchange, and for leasing a connection from
+     *                              the pool.
+     * @param readTimeout           timeout in SECONDS for waiting on the Exchange to respond.
+     * @param connectionPoolSize    maximum number of connections to hold open to the Exchange.
+     * @param connectionIdleTimeout time in SECONDS after which idle pooled connections are closed.
+     */
+    PooledHttpTransport(int connectionTimeout, int readTimeout, int connectionPoolSize, int connectionIdleTimeout) {
+
+        this.connectionTimeout = connectionTimeout;
+        this.readTimeout = readTimeout;
+        this.connectionPoolSize = connectionPoolSize;
+        this.connectionIdleTimeout = connectionIdleTimeout;
+
+        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(connectionPoolSize);
+        connectionManager.setDefaultMaxPerRoute(connectionPoolSize);
+
+        final RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectionTimeout * 1000)
+                .setConnectionRequestTimeout(connectionTimeout * 1000)
+                .setSocketTimeout(readTimeout * 1000)
+                .build();
+
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setUserAgent(USER_AGENT)
+                .disableCookieManagement()
+                .evictExpiredConnections()
+                .evictIdleConnections(connectionIdleTimeout, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Override
+    public ExchangeHttpResponse open(URL url, String httpMethod, String postData, Map<String, String> requestHeaders)
+            throws IOException {
+
+        final RequestBuilder requestBuilder;
+        try {
+            requestBuilder = RequestBuilder.create(httpMethod.toUpperCase()).setUri(url.toURI()); // GET|POST|DELETE
+        } catch (URISyntaxException e) {
+            final MalformedURLException malformedUrlException = new MalformedURLException(e.getMessage());
+            malformedUrlException.initCause(e);
+            throw malformedUrlException;
+        }
+
+        if (requestHeaders != null) {
+            for (final Map.Entry<String, String> requestHeader : requestHeaders.entrySet()) {
+                requestBuilder.setHeader(requestHeader.getKey(), requestHeader.getValue());
+                LOG.debug(() -> "Setting following request header: " + requestHeader);
+            }
+        }
+
+        if (httpMethod.equalsIgnoreCase("POST") && postData != null) {
+            LOG.debug(() -> "Doing POST with request body: " + postData);
+            final StringEntity postEntity = new StringEntity(postData, StandardCharsets.UTF_8);
+            postEntity.setContentType(DEFAULT_POST_CONTENT_TYPE); // only sent if no Content-Type header has been set
+            requestBuilder.setEntity(postEntity);
+        }
+
+        final HttpUriRequest request = requestBuilder.build();
+        try {
+            final CloseableHttpResponse response = httpClient.execute(request);
+            final HttpEntity entity = response.getEntity();
+            final Reader payloadReader;
+            try {
+                payloadReader = entity != null
+                        ? new InputStreamReader(entity.getContent(), StandardCharsets.UTF_8)
+                        : new StringReader("");
+            } catch (IOException e) {
+                response.close();
+                throw e;
+            }
+
+            return new ExchangeHttpResponse(response.getStatusLine().getStatusCode(),
+                    response.getStatusLine().getReasonPhrase(), payloadReader, () -> {
+                        try {
+                            // Read to the end of the body so the connection can be handed back to the pool
+                            EntityUtils.consume(entity);
+                        } finally {
+                            response.close();
+                        }
+                    });
+
+        } catch (ConnectTimeoutException e) {
+            // Keep to the java.net exception the adapters have always handled for timeouts
+            final SocketTimeoutException socketTimeoutException = new SocketTimeoutException(e.getMessage());
+            socketTimeoutException.initCause(e);
+            throw socketTimeoutException;
+
+        } catch (HttpHostConnectException e) {
+            // Unwrap so the exception message matches the non-fatal-error-messages in exchange.xml, e.g. Connection refused
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("connectionTimeout", connectionTimeout)
+                .add("readTimeout", readTimeout)
+                .add("connectionPoolSize", connectionPoolSize)
+                .add("connectionIdleTimeout", connectionIdleTimeout)
+                .toString();
+    }
+}
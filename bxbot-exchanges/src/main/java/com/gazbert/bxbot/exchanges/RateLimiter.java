@@ -0,0 +1,315 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * A client-side rate limiter for an Exchange's API, so the adapter stays inside the Exchange's request limits instead
+ * of finding them by getting locked out.
+ * <p>
+ * Each limit is a token bucket: it holds up to {@code requests} tokens and refills at {@code requests} tokens per
+ * {@code period}, so it allows short bursts while keeping the sustained rate at the limit. A request takes a token from
+ * the bucket for its {@link EndpointClass} and from the bucket for all requests, if either is configured.
+ * <p>
+ * Requests that have to wait are queued by {@link RequestPriority}: a cancel goes ahead of a new order, which goes
+ * ahead of account and market data calls. Requests of the same priority are served in the order they arrived.
+ * A request is only held back for a bucket that a higher priority request is also waiting on, so a queue of private
+ * calls does not hold up public calls with their own limit.
+ * <p>
+ * This class is thread safe. It waits using a {@link ReentrantLock} rather than a monitor, so virtual threads are not
+ * pinned while they wait.
+ *
+ * @author gazbert
+ */
+final class RateLimiter {
+
+    /**
+     * The classes of Exchange API endpoint that can be given their own limit.
+     */
+    enum EndpointClass {
+
+        /**
+         * Public market data calls.
+         */
+        PUBLIC,
+
+        /**
+         * Authenticated account and trading calls.
+         */
+        PRIVATE,
+
+        /**
+         * All calls. A limit for this class applies on top of any PUBLIC or PRIVATE limit.
+         */
+        ALL
+    }
+
+    /**
+     * The priority of a request, highest first.
+     */
+    enum RequestPriority {
+
+        CANCEL_ORDER(EndpointClass.PRIVATE),
+        CREATE_ORDER(EndpointClass.PRIVATE),
+        ACCOUNT(EndpointClass.PRIVATE),
+        MARKET_DATA(EndpointClass.PUBLIC);
+
+        private final EndpointClass endpointClass;
+
+        RequestPriority(EndpointClass endpointClass) {
+            this.endpointClass = endpointClass;
+        }
+
+        EndpointClass getEndpointClass() {
+            return endpointClass;
+        }
+    }
+
+    private final LongSupplier nanoClock;
+    private final Map<EndpointClass, TokenBucket> buckets = new EnumMap<>(EndpointClass.class);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition queueChanged = lock.newCondition();
+
+    /*
+     * Guarded by lock.
+     */
+    private final List<Waiter> waiters = new ArrayList<>();
+    private long arrivals;
+
+
+    RateLimiter() {
+        this(System::nanoTime);
+    }
+
+    RateLimiter(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Adds a limit. Call this before the limiter is used.
+     *
+     * @param endpointClass the class of endpoint the limit applies to.
+     * @param requests      the number of requests allowed per period; also the largest burst allowed.
+     * @param period        the period in SECONDS.
+     * @throws IllegalArgumentException if requests or period is less than 1.
+     */
+    void addLimit(EndpointClass endpointClass, int requests, int period) {
+        if (requests < 1 || period < 1) {
+            throw new IllegalArgumentException("Rate limit requests and period must be greater than 0. requests: "
+                    + requests + " period: " + period);
+        }
+        buckets.put(endpointClass, new TokenBucket(requests, TimeUnit.SECONDS.toNanos(period), nanoClock.getAsLong()));
+    }
+
+    boolean hasLimits() {
+        return !buckets.isEmpty();
+    }
+
+    /**
+     * Waits until the request is allowed by the limits.
+     *
+     * @param priority the priority of the request.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    void acquire(RequestPriority priority) throws InterruptedException {
+
+        final List<TokenBucket> requestBuckets = bucketsFor(priority);
+        if (requestBuckets.isEmpty()) {
+            return;
+        }
+
+        lock.lockInterruptibly();
+        try {
+            final Waiter waiter = new Waiter(priority, arrivals++, requestBuckets);
+            waiters.add(waiter);
+            try {
+                while (true) {
+                    final long waitNanos = grantTokens();
+                    if (waiter.granted) {
+                        return;
+                    }
+                    queueChanged.awaitNanos(waitNanos);
+                }
+            } finally {
+                if (!waiter.granted) {
+                    waiters.remove(waiter);
+                    queueChanged.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of requests waiting for their turn.
+     *
+     * @return the queue length.
+     */
+    int getQueueLength() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<TokenBucket> bucketsFor(RequestPriority priority) {
+        final List<TokenBucket> requestBuckets = new ArrayList<>(2);
+        final TokenBucket endpointBucket = buckets.get(priority.getEndpointClass());
+        if (endpointBucket != null) {
+            requestBuckets.add(endpointBucket);
+        }
+        final TokenBucket allBucket = buckets.get(EndpointClass.ALL);
+        if (allBucket != null) {
+            requestBuckets.add(allBucket);
+        }
+        return requestBuckets;
+    }
+
+    /*
+     * Hands out tokens to the waiters in priority order. A waiter is skipped if a higher priority waiter is still
+     * waiting on one of its buckets. Returns how long to wait before there could be more tokens to hand out.
+     * Called with the lock held.
+     */
+    private long grantTokens() {
+
+        final long now = nanoClock.getAsLong();
+        final List<TokenBucket> claimed = new ArrayList<>(buckets.size());
+        long waitNanos = Long.MAX_VALUE;
+        boolean anyGranted = false;
+
+        final List<Waiter> inPriorityOrder = new ArrayList<>(waiters);
+        inPriorityOrder.sort(null);
+        for (final Waiter waiter : inPriorityOrder) {
+
+            boolean blocked = false;
+            long waiterNanos = 0;
+            for (final TokenBucket bucket : waiter.buckets) {
+                if (claimed.contains(bucket)) {
+                    blocked = true;
+                }
+                waiterNanos = Math.max(waiterNanos, bucket.nanosUntilToken(now));
+            }
+
+            if (!blocked && waiterNanos == 0) {
+                for (final TokenBucket bucket : waiter.buckets) {
+                    bucket.take();
+                }
+                waiter.granted = true;
+                waiters.remove(waiter);
+                anyGranted = true;
+            } else {
+                claimed.addAll(waiter.buckets);
+                if (!blocked) {
+                    waitNanos = Math.min(waitNanos, waiterNanos);
+                }
+            }
+        }
+
+        if (anyGranted) {
+            queueChanged.signalAll();
+        }
+        return waitNanos;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("buckets", buckets)
+                .toString();
+    }
+
+    /*
+     * A request waiting for tokens. Ordered by priority, then by arrival.
+     */
+    private static final class Waiter implements Comparable<Waiter> {
+
+        private final RequestPriority priority;
+        private final long arrival;
+        private final List<TokenBucket> buckets;
+        private boolean granted;
+
+        private Waiter(RequestPriority priority, long arrival, List<TokenBucket> buckets) {
+            this.priority = priority;
+            this.arrival = arrival;
+            this.buckets = buckets;
+        }
+
+        @Override
+        public int compareTo(Waiter other) {
+            final int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(arrival, other.arrival);
+        }
+    }
+
+    /*
+     * Guarded by the limiter's lock.
+     */
+    private static final class TokenBucket {
+
+        private final int capacity;
+        private final double nanosPerToken;
+        private double tokens;
+        private long lastRefill;
+
+        private TokenBucket(int capacity, long periodNanos, long now) {
+            this.capacity = capacity;
+            nanosPerToken = (double) periodNanos / capacity;
+            tokens = capacity;
+            lastRefill = now;
+        }
+
+        private long nanosUntilToken(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) / nanosPerToken);
+            lastRefill = now;
+            return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) * nanosPerToken);
+        }
+
+        private void take() {
+            tokens -= 1;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("capacity", capacity)
+                    .add("nanosPerToken", nanosPerToken)
+                    .toString();
+        }
+    }
+}
@@ -0,0 +1,465 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.DigestException;
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Signs authenticated requests to an Exchange, and provides the hashing and encoding the Exchanges' signature schemes
+ * need.
+ * <p>
+ * Creating and initialising a {@link Mac} or {@link MessageDigest} is costly, so each thread gets its own instance,
+ * cloned from one created up front, and reuses it for every request it signs. Messages are UTF-8 encoded, and results
+ * hex or Base64 encoded, using buffers that are also held per thread, so signing a request creates no garbage other
+ * than the signature String.
+ * <p>
+ * HMAC usage:
+ * <pre>
+ *     final RequestSigner requestSigner = new RequestSigner(RequestSigner.HmacAlgorithm.HMAC_SHA256, secret);
+ *     ...
+ *     final String signature = requestSigner.sign().update(nonce).update(clientId).update(key).toHexUpperCase();
+ * </pre>
+ * <p>
+ * This class is thread safe. The {@link Signature} returned by {@link #sign()} belongs to the calling thread, and must
+ * be finished before that thread calls {@link #sign()} again.
+ *
+ * @author gazbert
+ */
+final class RequestSigner {
+
+    /**
+     * The HMAC algorithms used by the Exchanges.
+     */
+    enum HmacAlgorithm {
+
+        HMAC_SHA256("HmacSHA256"),
+        HMAC_SHA384("HmacSHA384"),
+        HMAC_SHA512("HmacSHA512");
+
+        private final String jcaName;
+
+        HmacAlgorithm(String jcaName) {
+            this.jcaName = jcaName;
+        }
+
+        /**
+         * Returns the JCA standard name of the algorithm.
+         *
+         * @return the algorithm name, e.g. HmacSHA256.
+         */
+        String getJcaName() {
+            return jcaName;
+        }
+    }
+
+    private static final char[] LOWER_CASE_HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final char[] UPPER_CASE_HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final char[] BASE64_DIGITS =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    /**
+     * Buffers bigger than this are not kept for reuse, so one big request does not pin the memory for good.
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+    private static final ThreadLocal<MessageDigest> SHA256 = threadLocalDigest("SHA-256");
+    private static final ThreadLocal<MessageDigest> MD5 = threadLocalDigest("MD5");
+
+    private final Mac prototypeMac;
+    private final Key secretKey;
+    private final ThreadLocal<Signature> signatures = ThreadLocal.withInitial(() -> new Signature(newMac()));
+
+
+    /**
+     * Creates a request signer for an Exchange's API secret.
+     *
+     * @param algorithm the HMAC algorithm the Exchange uses.
+     * @param secret    the API secret.
+     * @throws NoSuchAlgorithmException if the JVM does not support the algorithm.
+     * @throws InvalidKeyException      if the secret is not a valid key for the algorithm.
+     */
+    RequestSigner(HmacAlgorithm algorithm, byte[] secret) throws NoSuchAlgorithmException, InvalidKeyException {
+        secretKey = new SecretKeySpec(secret, algorithm.getJcaName());
+        prototypeMac = Mac.getInstance(algorithm.getJcaName());
+        prototypeMac.init(secretKey);
+    }
+
+    /**
+     * Starts a new HMAC signature on the calling thread.
+     *
+     * @return the calling thread's signature, reset and ready for the message.
+     */
+    Signature sign() {
+        final Signature signature = signatures.get();
+        signature.mac.reset();
+        return signature;
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Hashing and encoding
+    // ------------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the MD5 hash of a message as lowercase hex.
+     *
+     * @param message the message; it is UTF-8 encoded before hashing.
+     * @return the hash as 32 lowercase hex characters.
+     */
+    static String md5ToHex(CharSequence message) {
+        return digestToHex(MD5.get(), message, LOWER_CASE_HEX_DIGITS);
+    }
+
+    /**
+     * Returns the MD5 hash of a message as uppercase hex.
+     *
+     * @param message the message; it is UTF-8 encoded before hashing.
+     * @return the hash as 32 uppercase hex characters.
+     */
+    static String md5ToHexUpperCase(CharSequence message) {
+        return digestToHex(MD5.get(), message, UPPER_CASE_HEX_DIGITS);
+    }
+
+    /**
+     * Returns the Base64 encoding of a message.
+     *
+     * @param message the message; it is UTF-8 encoded before Base64 encoding.
+     * @return the message in Base64, with padding.
+     */
+    static String toBase64(CharSequence message) {
+        final Buffers buffers = BUFFERS.get();
+        final int length = buffers.encodeUtf8(message);
+        return buffers.toBase64(buffers.encoded, length);
+    }
+
+    /**
+     * Returns bytes as lowercase hex.
+     *
+     * @param bytes the bytes.
+     * @return the bytes as lowercase hex.
+     */
+    static String toHex(byte[] bytes) {
+        return BUFFERS.get().toHex(bytes, bytes.length, LOWER_CASE_HEX_DIGITS);
+    }
+
+    private static String digestToHex(MessageDigest messageDigest, CharSequence message, char[] hexDigits) {
+        final Buffers buffers = BUFFERS.get();
+        final int length = buffers.encodeUtf8(message);
+        messageDigest.update(buffers.encoded, 0, length);
+        final int digestLength = buffers.digest(messageDigest);
+        return buffers.toHex(buffers.digest, digestLength, hexDigits);
+    }
+
+    private Mac newMac() {
+        try {
+            return (Mac) prototypeMac.clone();
+        } catch (CloneNotSupportedException e) {
+            // The provider can't clone its Macs - create and initialise a new one instead
+            try {
+                final Mac mac = Mac.getInstance(prototypeMac.getAlgorithm());
+                mac.init(secretKey);
+                return mac;
+            } catch (NoSuchAlgorithmException | InvalidKeyException e1) {
+                // We've already created one with the same algorithm and key, so this shouldn't happen
+                throw new IllegalStateException("Failed to create MAC for " + prototypeMac.getAlgorithm(), e1);
+            }
+        }
+    }
+
+    private static ThreadLocal<MessageDigest> threadLocalDigest(String algorithm) {
+        final MessageDigest prototypeDigest;
+        try {
+            prototypeDigest = MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform must support MD5 and SHA-256
+            throw new IllegalStateException("Failed to create MessageDigest for " + algorithm, e);
+        }
+        return ThreadLocal.withInitial(() -> {
+            try {
+                return (MessageDigest) prototypeDigest.clone();
+            } catch (CloneNotSupportedException e) {
+                try {
+                    return MessageDigest.getInstance(algorithm);
+                } catch (NoSuchAlgorithmException e1) {
+                    throw new IllegalStateException("Failed to create MessageDigest for " + algorithm, e1);
+                }
+            }
+        });
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Signature
+    // ------------------------------------------------------------------------------------------------
+
+    /**
+     * An HMAC signature being built on the calling thread. Add the parts of the message in order, then finish the
+     * signature with one of the {@code to} methods.
+     */
+    static final class Signature {
+
+        private final Mac mac;
+        private final byte[] result;
+
+        private Signature(Mac mac) {
+            this.mac = mac;
+            this.result = new byte[mac.getMacLength()];
+        }
+
+        /**
+         * Adds text to the message.
+         *
+         * @param text the text; it is UTF-8 encoded.
+         * @return this signature.
+         */
+        Signature update(CharSequence text) {
+            final Buffers buffers = BUFFERS.get();
+            final int length = buffers.encodeUtf8(text);
+            mac.update(buffers.encoded, 0, length);
+            return this;
+        }
+
+        /**
+         * Adds a number to the message, as its decimal digits.
+         *
+         * @param number the number.
+         * @return this signature.
+         */
+        Signature update(long number) {
+            final Buffers buffers = BUFFERS.get();
+            final int length = buffers.encodeDecimal(number);
+            mac.update(buffers.encoded, 0, length);
+            return this;
+        }
+
+        /**
+         * Adds bytes to the message.
+         *
+         * @param bytes the bytes.
+         * @return this signature.
+         */
+        Signature update(byte[] bytes) {
+            mac.update(bytes);
+            return this;
+        }
+
+        /**
+         * Adds the SHA-256 hash of some text to the message.
+         *
+         * @param text the text; it is UTF-8 encoded before hashing.
+         * @return this signature.
+         */
+        Signature updateWithSha256Of(CharSequence text) {
+            final Buffers buffers = BUFFERS.get();
+            final MessageDigest sha256 = SHA256.get();
+            final int length = buffers.encodeUtf8(text);
+            sha256.update(buffers.encoded, 0, length);
+            mac.update(buffers.digest, 0, buffers.digest(sha256));
+            return this;
+        }
+
+        /**
+         * Finishes the signature.
+         *
+         * @return the signature as lowercase hex.
+         */
+        String toHex() {
+            return BUFFERS.get().toHex(finish(), result.length, LOWER_CASE_HEX_DIGITS);
+        }
+
+        /**
+         * Finishes the signature.
+         *
+         * @return the signature as uppercase hex.
+         */
+        String toHexUpperCase() {
+            return BUFFERS.get().toHex(finish(), result.length, UPPER_CASE_HEX_DIGITS);
+        }
+
+        /**
+         * Finishes the signature.
+         *
+         * @return the signature in Base64, with padding.
+         */
+        String toBase64() {
+            return BUFFERS.get().toBase64(finish(), result.length);
+        }
+
+        private byte[] finish() {
+            try {
+                mac.doFinal(result, 0);
+                return result;
+            } catch (ShortBufferException e) {
+                // The result buffer is sized for the MAC, so this shouldn't happen
+                throw new IllegalStateException("Failed to finish signature", e);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Per-thread buffers
+    // ------------------------------------------------------------------------------------------------
+
+    /**
+     * The calling thread's encoding buffers.
+     */
+    private static final class Buffers {
+
+        private byte[] bytes = new byte[1024];
+
+        /**
+         * The buffer holding the last encoded bytes. It is {@link #bytes} unless they did not fit.
+         */
+        private byte[] encoded = bytes;
+        private char[] chars = new char[1024];
+        private final byte[] digest = new byte[64];
+
+        /**
+         * UTF-8 encodes text into {@link #encoded}, like {@link String#getBytes(java.nio.charset.Charset)}: unpaired
+         * surrogates are replaced with '?'.
+         */
+        int encodeUtf8(CharSequence text) {
+            final int textLength = text.length();
+            final byte[] out = bytes(textLength * 3);
+            int length = 0;
+            for (int i = 0; i < textLength; i++) {
+                final char c = text.charAt(i);
+                if (c < 0x80) {
+                    out[length++] = (byte) c;
+                } else if (c < 0x800) {
+                    out[length++] = (byte) (0xc0 | (c >> 6));
+                    out[length++] = (byte) (0x80 | (c & 0x3f));
+                } else if (Character.isSurrogate(c)) {
+                    if (Character.isHighSurrogate(c) && i + 1 < textLength
+                            && Character.isLowSurrogate(text.charAt(i + 1))) {
+                        final int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                        out[length++] = (byte) (0xf0 | (codePoint >> 18));
+                        out[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                        out[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                        out[length++] = (byte) (0x80 | (codePoint & 0x3f));
+                    } else {
+                        out[length++] = '?';
+                    }
+                } else {
+                    out[length++] = (byte) (0xe0 | (c >> 12));
+                    out[length++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                    out[length++] = (byte) (0x80 | (c & 0x3f));
+                }
+            }
+            encoded = out;
+            return length;
+        }
+
+        /**
+         * Writes the decimal digits of a number into {@link #encoded}.
+         */
+        int encodeDecimal(long number) {
+            final byte[] out = bytes(20);
+            if (number == Long.MIN_VALUE) {
+                return encodeUtf8(Long.toString(number));
+            }
+            long remaining = Math.abs(number);
+            int start = out.length;
+            do {
+                out[--start] = (byte) ('0' + remaining % 10);
+                remaining /= 10;
+            } while (remaining > 0);
+            if (number < 0) {
+                out[--start] = '-';
+            }
+            final int length = out.length - start;
+            System.arraycopy(out, start, out, 0, length);
+            encoded = out;
+            return length;
+        }
+
+        int digest(MessageDigest messageDigest) {
+            try {
+                return messageDigest.digest(digest, 0, digest.length);
+            } catch (DigestException e) {
+                // The digest buffer is sized for SHA-512, the longest digest we use
+                throw new IllegalStateException("Failed to finish " + messageDigest.getAlgorithm() + " digest", e);
+            }
+        }
+
+        String toHex(byte[] in, int length, char[] hexDigits) {
+            final char[] out = chars(length * 2);
+            for (int i = 0; i < length; i++) {
+                out[i * 2] = hexDigits[(in[i] >> 4) & 0xf];
+                out[i * 2 + 1] = hexDigits[in[i] & 0xf];
+            }
+            return new String(out, 0, length * 2);
+        }
+
+        String toBase64(byte[] in, int length) {
+            final char[] out = chars((length + 2) / 3 * 4);
+            int outLength = 0;
+            int i = 0;
+            for (; i + 2 < length; i += 3) {
+                final int bits = (in[i] & 0xff) << 16 | (in[i + 1] & 0xff) << 8 | (in[i + 2] & 0xff);
+                out[outLength++] = BASE64_DIGITS[bits >>> 18];
+                out[outLength++] = BASE64_DIGITS[(bits >>> 12) & 0x3f];
+                out[outLength++] = BASE64_DIGITS[(bits >>> 6) & 0x3f];
+                out[outLength++] = BASE64_DIGITS[bits & 0x3f];
+            }
+            if (i < length) {
+                final int bits = (in[i] & 0xff) << 16 | (i + 1 < length ? (in[i + 1] & 0xff) << 8 : 0);
+                out[outLength++] = BASE64_DIGITS[bits >>> 18];
+                out[outLength++] = BASE64_DIGITS[(bits >>> 12) & 0x3f];
+                out[outLength++] = i + 1 < length ? BASE64_DIGITS[(bits >>> 6) & 0x3f] : '=';
+                out[outLength++] = '=';
+            }
+            return new String(out, 0, outLength);
+        }
+
+        private byte[] bytes(int size) {
+            if (size <= bytes.length) {
+                return bytes;
+            }
+            final byte[] buffer = new byte[size];
+            if (size <= MAX_RETAINED_BUFFER_SIZE) {
+                bytes = buffer;
+            }
+            return buffer;
+        }
+
+        private char[] chars(int size) {
+            if (size <= chars.length) {
+                return chars;
+            }
+            final char[] buffer = new char[size];
+            if (size <= MAX_RETAINED_BUFFER_SIZE) {
+                chars = buffer;
+            }
+            return buffer;
+        }
+    }
+}
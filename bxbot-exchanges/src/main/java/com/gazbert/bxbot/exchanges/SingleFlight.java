@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.AbstractExchangeAdapter.TradingApiCall;
+import com.gazbert.bxbot.trading.api.AsyncTradingApi;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shares one in-flight call between concurrent callers making the same call.
+ * <p>
+ * The first caller for a key makes the call. Callers that arrive while it is in flight wait for it, and get the same
+ * result or exception, instead of each making their own call. A caller that arrives after the call has completed makes
+ * a new call: results are never cached.
+ * <p>
+ * Exchange Adapters use it for their public market data calls, so strategies sharing a market do not each send the
+ * same request to the exchange.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author gazbert
+ */
+final class SingleFlight {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlightCalls = new ConcurrentHashMap<>();
+
+
+    /**
+     * Makes the call, or waits for the same call already in flight.
+     *
+     * @param key  identifies the call. It must cover everything the result depends on.
+     * @param call makes the call.
+     * @param <T>  the type of the result.
+     * @return the result of the call. It is shared with the other callers, so must not be changed.
+     * @throws ExchangeNetworkException if the call throws it, or the thread is interrupted while waiting for
+     *                                  another caller's call. The interrupt status is restored.
+     * @throws TradingApiException      if the call throws it.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T call(String key, TradingApiCall<T> call) throws ExchangeNetworkException, TradingApiException {
+
+        final CompletableFuture<Object> inFlightCall = new CompletableFuture<>();
+        final CompletableFuture<Object> existingCall = inFlightCalls.putIfAbsent(key, inFlightCall);
+        if (existingCall != null) {
+            LOG.debug(() -> "Joining in-flight call: " + key);
+            return (T) AsyncTradingApi.await(existingCall, "in-flight call: " + key);
+        }
+
+        final T result;
+        try {
+            result = call.call();
+        } catch (Throwable e) {
+            inFlightCalls.remove(key, inFlightCall);
+            inFlightCall.completeExceptionally(e);
+            throw e;
+        }
+        inFlightCalls.remove(key, inFlightCall);
+        inFlightCall.complete(result);
+        return result;
+    }
+
+    /**
+     * Returns the number of calls in flight.
+     *
+     * @return the number of calls in flight.
+     */
+    int getInFlightCallCount() {
+        return inFlightCalls.size();
+    }
+}
@@ -25,6 +25,7 @@ package com.gazbert.bxbot.exchanges;
 
 import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
 import com.gazbert.bxbot.exchange.api.ExchangeConfig;
+import com.gazbert.bxbot.exchanges.RateLimiter.RequestPriority;
 import com.gazbert.bxbot.trading.api.*;
 import com.google.common.base.MoreObjects;
 import com.google.gson.*;
@@ -35,8 +36,11 @@ import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 /**
@@ -89,36 +93,50 @@ public final class TestExchangeAdapter extends AbstractExchangeAdapter implement
 
     @Override
     public MarketOrderBook getMarketOrders(String marketId) throws TradingApiException, ExchangeNetworkException {
+        return getMarketOrders(marketId, FULL_ORDER_BOOK_DEPTH);
+    }
+
+    @Override
+    public MarketOrderBook getMarketOrders(String marketId, int depth) throws TradingApiException,
+            ExchangeNetworkException {
+        return coalescePublicCall("getMarketOrders/" + marketId + "/" + depth,
+                () -> fetchMarketOrders(marketId, depth));
+    }
+
+    private MarketOrderBook fetchMarketOrders(String marketId, int depth) throws TradingApiException,
+            ExchangeNetworkException {
 
         try {
-            final ExchangeHttpResponse response = sendPublicRequestToExchange("order_book/" + marketId);
-            LOG.debug(() -> "Market Orders response: " + response);
-
-            final BitstampOrderBook bitstampOrderBook = gson.fromJson(response.getPayload(), BitstampOrderBook.class);
-
-            final List<MarketOrder> buyOrders = new ArrayList<>();
-            final List<List<BigDecimal>> bitstampBuyOrders = bitstampOrderBook.bids;
-            for (final List<BigDecimal> order : bitstampBuyOrders) {
-                final MarketOrder buyOrder = new MarketOrder(
-                        OrderType.BUY,
-                        order.get(0), // price
-                        order.get(1), // quantity
-                        order.get(0).multiply(order.get(1)));
-                buyOrders.add(buyOrder);
-            }
+            assertValidOrderBookDepth(depth);
+            try (ExchangeHttpResponse response = sendPublicRequestToExchange("order_book/" + marketId)) {
+                LOG.debug(() -> "Market Orders response: " + response);
+
+                final BitstampOrderBook bitstampOrderBook = response.decodePayload(gson, BitstampOrderBook.class);
+
+                final List<MarketOrder> buyOrders = new ArrayList<>();
+                final List<List<BigDecimal>> bitstampBuyOrders = bitstampOrderBook.bids;
+                for (final List<BigDecimal> order : firstLevels(bitstampBuyOrders, depth)) {
+                    final MarketOrder buyOrder = new MarketOrder(
+                            OrderType.BUY,
+                            order.get(0), // price
+                            order.get(1), // quantity
+                            order.get(0).multiply(order.get(1)));
+                    buyOrders.add(buyOrder);
+                }
 
-            final List<MarketOrder> sellOrders = new ArrayList<>();
-            final List<List<BigDecimal>> bitstampSellOrders = bitstampOrderBook.asks;
-            for (final List<BigDecimal> order : bitstampSellOrders) {
-                final MarketOrder sellOrder = new MarketOrder(
-                        OrderType.SELL,
-                        order.get(0), // price
-                        order.get(1), // quantity
-                        order.get(0).multiply(order.get(1)));
-                sellOrders.add(sellOrder);
-            }
+                final List<MarketOrder> sellOrders = new ArrayList<>();
+                final List<List<BigDecimal>> bitstampSellOrders = bitstampOrderBook.asks;
+                for (final List<BigDecimal> order : firstLevels(bitstampSellOrders, depth)) {
+                    final MarketOrder sellOrder = new MarketOrder(
+                            OrderType.SELL,
+                            order.get(0), // price
+                            order.get(1), // quantity
+                            order.get(0).multiply(order.get(1)));
+                    sellOrders.add(sellOrder);
+                }
 
-            return new MarketOrderBook(marketId, sellOrders, buyOrders);
+                return new MarketOrderBook(marketId, sellOrders, buyOrders);
+            }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
             throw e;
@@ -149,13 +167,18 @@ public final class TestExchangeAdapter extends AbstractExchangeAdapter implement
 
     @Override
     public BigDecimal getLatestMarketPrice(String marketId) throws TradingApiException, ExchangeNetworkException {
+        return coalescePublicCall("getLatestMarketPrice/" + marketId, () -> fetchLatestMarketPrice(marketId));
+    }
+
+    private BigDecimal fetchLatestMarketPrice(String marketId) throws TradingApiException, ExchangeNetworkException {
 
         try {
-            final ExchangeHttpResponse response = sendPublicRequestToExchange("ticker/" + marketId);
-            LOG.debug(() -> "Latest Market Price response: " + response);
+            try (ExchangeHttpResponse response = sendPublicRequestToExchange("ticker/" + marketId)) {
+                LOG.debug(() -> "Latest Market Price response: " + response);
 
-            final BitstampTicker bitstampTicker = gson.fromJson(response.getPayload(), BitstampTicker.class);
-            return bitstampTicker.last;
+                final BitstampTicker bitstampTicker = response.decodePayload(gson, BitstampTicker.class);
+                return bitstampTicker.last;
+            }
 
         } catch (ExchangeNetworkException | TradingApiException e) {
             throw e;
@@ -281,15 +304,21 @@ public final class TestExchangeAdapter extends AbstractExchangeAdapter implement
      * </pre>
      */
     private static class BitstampDateDeserializer implements JsonDeserializer<Date> {
-        private final SimpleDateFormat bitstampDateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+        // DateTimeFormatter is immutable, so the GSON instance using this can be shared by all adapters in the JVM
+        private static final DateTimeFormatter BITSTAMP_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
         public Date deserialize(JsonElement json, Type type, JsonDeserializationContext context)
                 throws JsonParseException {
             Date dateFromBitstamp = null;
             if (json.isJsonPrimitive()) {
                 try {
-                    dateFromBitstamp = bitstampDateFormat.parse(json.getAsString());
-                } catch (ParseException e) {
+                    // Bitstamp dates are in local time. Like DateFormat.parse(), ignore anything after the seconds,
+                    // e.g. fractions of a second.
+                    final LocalDateTime dateTime = LocalDateTime.from(
+                            BITSTAMP_DATE_FORMAT.parse(json.getAsString(), new ParsePosition(0)));
+                    dateFromBitstamp = Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+                } catch (DateTimeException e) {
                     final String errorMsg = "DateDeserializer failed to parse a Bitstamp date!";
                     LOG.error(errorMsg, e);
                     throw new JsonParseException(errorMsg, e);
@@ -313,6 +342,8 @@ public final class TestExchangeAdapter extends AbstractExchangeAdapter implement
      */
     private ExchangeHttpResponse sendPublicRequestToExchange(String apiMethod) throws ExchangeNetworkException, TradingApiException {
 
+        awaitRateLimit(RequestPriority.MARKET_DATA);
+
         // Request headers required by Exchange
         final Map<String, String> requestHeaders = new HashMap<>();
         requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
@@ -338,8 +369,10 @@ public final class TestExchangeAdapter extends AbstractExchangeAdapter implement
      * Initialises the GSON layer.
      */
     private void initGson() {
-        final GsonBuilder gsonBuilder = new GsonBuilder();
-        gsonBuilder.registerTypeAdapter(Date.class, new BitstampDateDeserializer());
-        gson = gsonBuilder.create();
+        gson = getSharedGson(() -> {
+            final GsonBuilder gsonBuilder = new GsonBuilder();
+            gsonBuilder.registerTypeAdapter(Date.class, new BitstampDateDeserializer());
+            return gsonBuilder.create();
+        });
     }
 }
\ No newline at end of file
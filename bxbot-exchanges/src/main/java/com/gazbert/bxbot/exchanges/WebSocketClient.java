@@ -0,0 +1,478 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.google.common.base.MoreObjects;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A minimal WebSocket (RFC 6455) client for the Exchange market data feeds.
+ * <p>
+ * It only supports what the feeds need: text messages, fragmented messages, and answering pings. Binary messages
+ * are ignored. Messages are read on a daemon thread and passed to the {@link Listener} in the order they arrive.
+ * <p>
+ * The connection is closed if nothing is received from the Exchange for the read timeout, so a silently dropped
+ * connection is noticed. The feeds all send heartbeats well inside the timeout.
+ * <p>
+ * This class is thread safe. Frames are written under a {@link ReentrantLock} rather than a monitor, so virtual threads
+ * are not pinned during the socket write. The reader thread never waits for that lock: if a slow send is in progress
+ * when a ping arrives, the pong is skipped - the server is only owed a pong for the latest ping, and the frame being
+ * sent already shows the connection is alive.
+ *
+ * @author gazbert
+ */
+final class WebSocketClient implements Closeable {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    /**
+     * Appended to the handshake key to build the accept value the server must send back - see RFC 6455 section 1.3.
+     */
+    private static final String HANDSHAKE_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    private static final int OPCODE_CONTINUATION = 0x0;
+    private static final int OPCODE_TEXT = 0x1;
+    private static final int OPCODE_BINARY = 0x2;
+    private static final int OPCODE_CLOSE = 0x8;
+    private static final int OPCODE_PING = 0x9;
+    private static final int OPCODE_PONG = 0xA;
+
+    /**
+     * Status code reported to the listener when the connection drops without a close frame.
+     */
+    static final int CLOSED_ABNORMALLY = 1006;
+
+    private static final int CLOSED_NORMALLY = 1000;
+
+    /**
+     * Order book snapshots can be large, but not this large.
+     */
+    private static final int MAX_MESSAGE_SIZE = 16 * 1024 * 1024;
+
+    private static final Random MASKING_KEY_RANDOM = new SecureRandom();
+
+    /**
+     * Receives the messages and lifecycle events for a connection.
+     */
+    interface Listener {
+
+        /**
+         * Called with each text message received from the Exchange.
+         *
+         * @param message the message.
+         */
+        void onMessage(String message);
+
+        /**
+         * Called once when the connection has closed, for whatever reason.
+         *
+         * @param statusCode the close status code sent by the Exchange, or {@link WebSocketClient#CLOSED_ABNORMALLY}.
+         * @param reason     the close reason.
+         */
+        void onClose(int statusCode, String reason);
+    }
+
+    private final URI uri;
+    private final int connectionTimeout;
+    private final int readTimeout;
+    private final Listener listener;
+
+    private volatile Socket socket;
+    private volatile OutputStream out;
+    private volatile boolean closed;
+
+    private final ReentrantLock sendLock = new ReentrantLock();
+
+
+    /**
+     * Creates the client. Call {@link #connect()} to open the connection.
+     *
+     * @param uri               the ws:// or wss:// URI of the feed.
+     * @param connectionTimeout timeout in SECONDS for connecting to the Exchange.
+     * @param readTimeout       time in SECONDS after which the connection is closed if nothing has been received.
+     * @param listener          receives the messages.
+     */
+    WebSocketClient(URI uri, int connectionTimeout, int readTimeout, Listener listener) {
+        this.uri = uri;
+        this.connectionTimeout = connectionTimeout;
+        this.readTimeout = readTimeout;
+        this.listener = listener;
+    }
+
+    /**
+     * Opens the connection and starts reading messages.
+     *
+     * @throws IOException if the connection or the WebSocket handshake failed.
+     */
+    void connect() throws IOException {
+
+        final boolean secure = "wss".equalsIgnoreCase(uri.getScheme());
+        final int port = uri.getPort() != -1 ? uri.getPort() : secure ? 443 : 80;
+
+        Socket connection = new Socket();
+        try {
+            connection.connect(new InetSocketAddress(uri.getHost(), port), connectionTimeout * 1000);
+            if (secure) {
+                final SSLSocket sslSocket = (SSLSocket) ((SSLSocketFactory) SSLSocketFactory.getDefault())
+                        .createSocket(connection, uri.getHost(), port, true);
+                final SSLParameters sslParameters = sslSocket.getSSLParameters();
+                sslParameters.setEndpointIdentificationAlgorithm("HTTPS");
+                sslSocket.setSSLParameters(sslParameters);
+                connection = sslSocket;
+            }
+            connection.setTcpNoDelay(true);
+            connection.setSoTimeout(readTimeout * 1000);
+
+            final InputStream in = new BufferedInputStream(connection.getInputStream());
+            out = connection.getOutputStream();
+            socket = connection;
+            handshake(in);
+
+            final Thread reader = new Thread(() -> readMessages(in), "bxbot-websocket-" + uri.getHost());
+            reader.setDaemon(true);
+            reader.start();
+
+        } catch (IOException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Sends a text message to the Exchange.
+     *
+     * @param message the message.
+     * @throws IOException if the message could not be sent.
+     */
+    void send(String message) throws IOException {
+        LOG.debug(() -> "Sending to " + uri + ": " + message);
+        sendFrame(OPCODE_TEXT, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Closes the connection. The listener is told once the reader thread has stopped.
+     * <p>
+     * The close frame is only sent if no other frame is being sent; closing the socket aborts a send that is stuck.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (!trySendFrame(OPCODE_CLOSE, new byte[]{(byte) (CLOSED_NORMALLY >> 8), (byte) CLOSED_NORMALLY})) {
+                LOG.debug(() -> "Closing " + uri + " without a close frame - a send is in progress");
+            }
+        } catch (IOException e) {
+            LOG.debug(() -> "Failed to send close frame to " + uri, e);
+        }
+        closeSocket();
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    private void handshake(InputStream in) throws IOException {
+
+        final byte[] keyBytes = new byte[16];
+        MASKING_KEY_RANDOM.nextBytes(keyBytes);
+        final String key = Base64.getEncoder().encodeToString(keyBytes);
+
+        final String path = (uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath())
+                + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
+        final String request = "GET " + path + " HTTP/1.1\r\n"
+                + "Host: " + uri.getHost() + (uri.getPort() != -1 ? ":" + uri.getPort() : "") + "\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Key: " + key + "\r\n"
+                + "Sec-WebSocket-Version: 13\r\n"
+                + "\r\n";
+        out.write(request.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+
+        final String statusLine = readHeaderLine(in);
+        if (!statusLine.startsWith("HTTP/1.1 101")) {
+            throw new ProtocolException("WebSocket handshake with " + uri + " failed: " + statusLine);
+        }
+
+        String accept = null;
+        String headerLine;
+        while (!(headerLine = readHeaderLine(in)).isEmpty()) {
+            final int separator = headerLine.indexOf(':');
+            if (separator > 0 && "sec-websocket-accept".equals(
+                    headerLine.substring(0, separator).trim().toLowerCase(Locale.ROOT))) {
+                accept = headerLine.substring(separator + 1).trim();
+            }
+        }
+        if (!expectedAccept(key).equals(accept)) {
+            throw new ProtocolException("WebSocket handshake with " + uri + " failed: bad Sec-WebSocket-Accept");
+        }
+        LOG.info(() -> "Connected to WebSocket feed: " + uri);
+    }
+
+    private void readMessages(InputStream in) {
+
+        int closeStatusCode = CLOSED_ABNORMALLY;
+        String closeReason = "";
+        try {
+            final ByteArrayOutputStream message = new ByteArrayOutputStream();
+            boolean textMessage = false;
+
+            while (!closed) {
+                final int header = readByte(in);
+                final boolean finalFragment = (header & 0x80) != 0;
+                final int opcode = header & 0x0F;
+                final byte[] payload = readPayload(in);
+
+                switch (opcode) {
+                    case OPCODE_TEXT:
+                    case OPCODE_BINARY:
+                        message.reset();
+                        textMessage = opcode == OPCODE_TEXT;
+                        // fall through
+                    case OPCODE_CONTINUATION:
+                        if (message.size() + payload.length > MAX_MESSAGE_SIZE) {
+                            throw new ProtocolException("Message from " + uri + " is too big");
+                        }
+                        message.write(payload);
+                        if (finalFragment && textMessage) {
+                            listener.onMessage(new String(message.toByteArray(), StandardCharsets.UTF_8));
+                        }
+                        break;
+                    case OPCODE_PING:
+                        if (!trySendFrame(OPCODE_PONG, payload)) {
+                            LOG.debug(() -> "Skipped pong to " + uri + " - a send is in progress");
+                        }
+                        break;
+                    case OPCODE_PONG:
+                        break;
+                    case OPCODE_CLOSE:
+                        if (payload.length >= 2) {
+                            closeStatusCode = ((payload[0] & 0xFF) << 8) | (payload[1] & 0xFF);
+                            closeReason = new String(payload, 2, payload.length - 2, StandardCharsets.UTF_8);
+                        }
+                        close();
+                        break;
+                    default:
+                        throw new ProtocolException("Unknown WebSocket opcode from " + uri + ": " + opcode);
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                closeReason = e.toString();
+                LOG.warn(() -> "WebSocket feed " + uri + " dropped: " + e);
+            }
+        } catch (RuntimeException e) {
+            closeReason = e.toString();
+            LOG.error("Unexpected error reading WebSocket feed " + uri, e);
+        } finally {
+            closed = true;
+            closeSocket();
+            listener.onClose(closeStatusCode, closeReason);
+        }
+    }
+
+    private byte[] readPayload(InputStream in) throws IOException {
+
+        final int lengthByte = readByte(in);
+        final boolean masked = (lengthByte & 0x80) != 0;
+        long length = lengthByte & 0x7F;
+        if (length == 126) {
+            length = (readByte(in) << 8) | readByte(in);
+        } else if (length == 127) {
+            length = 0;
+            for (int i = 0; i < 8; i++) {
+                length = (length << 8) | readByte(in);
+            }
+        }
+        if (length > MAX_MESSAGE_SIZE) {
+            throw new ProtocolException("Frame from " + uri + " is too big: " + length);
+        }
+
+        final byte[] mask = new byte[4];
+        if (masked) {
+            readFully(in, mask);
+        }
+        final byte[] payload = new byte[(int) length];
+        readFully(in, payload);
+        if (masked) {
+            for (int i = 0; i < payload.length; i++) {
+                payload[i] ^= mask[i % 4];
+            }
+        }
+        return payload;
+    }
+
+    private void sendFrame(int opcode, byte[] payload) throws IOException {
+        final byte[] frame = buildFrame(opcode, payload);
+        sendLock.lock();
+        try {
+            writeFrame(frame);
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    /*
+     * Used by the reader thread, which must keep reading while a slow send holds the lock.
+     */
+    private boolean trySendFrame(int opcode, byte[] payload) throws IOException {
+        final byte[] frame = buildFrame(opcode, payload);
+        if (!sendLock.tryLock()) {
+            return false;
+        }
+        try {
+            writeFrame(frame);
+            return true;
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    private void writeFrame(byte[] frame) throws IOException {
+        final OutputStream output = out;
+        if (output == null) {
+            throw new IOException("WebSocket is not connected: " + uri);
+        }
+        output.write(frame);
+        output.flush();
+    }
+
+    /*
+     * Client frames must be masked - see RFC 6455 section 5.3.
+     */
+    private static byte[] buildFrame(int opcode, byte[] payload) {
+
+        final ByteArrayOutputStream frame = new ByteArrayOutputStream(payload.length + 14);
+        frame.write(0x80 | opcode);
+        if (payload.length < 126) {
+            frame.write(0x80 | payload.length);
+        } else if (payload.length <= 0xFFFF) {
+            frame.write(0x80 | 126);
+            frame.write(payload.length >> 8);
+            frame.write(payload.length);
+        } else {
+            frame.write(0x80 | 127);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                frame.write((int) ((long) payload.length >> shift));
+            }
+        }
+
+        final byte[] mask = new byte[4];
+        MASKING_KEY_RANDOM.nextBytes(mask);
+        frame.write(mask, 0, mask.length);
+        for (int i = 0; i < payload.length; i++) {
+            frame.write(payload[i] ^ mask[i % 4]);
+        }
+        return frame.toByteArray();
+    }
+
+    private void closeSocket() {
+        final Socket connection = socket;
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (IOException e) {
+                LOG.debug(() -> "Failed to close WebSocket connection to " + uri, e);
+            }
+        }
+    }
+
+    private static String expectedAccept(String key) {
+        try {
+            final MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            return Base64.getEncoder().encodeToString(
+                    sha1.digest((key + HANDSHAKE_GUID).getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+
+    private static String readHeaderLine(InputStream in) throws IOException {
+        final StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = readByte(in)) != '\n') {
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        final int b = in.read();
+        if (b == -1) {
+            throw new EOFException("WebSocket connection closed by the Exchange");
+        }
+        return b;
+    }
+
+    private static void readFully(InputStream in, byte[] buffer) throws IOException {
+        int read = 0;
+        while (read < buffer.length) {
+            final int count = in.read(buffer, read, buffer.length - read);
+            if (count == -1) {
+                throw new EOFException("WebSocket connection closed by the Exchange");
+            }
+            read += count;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("uri", uri)
+                .add("connectionTimeout", connectionTimeout)
+                .add("readTimeout", readTimeout)
+                .add("closed", closed)
+                .toString();
+    }
+}
@@ -27,6 +27,7 @@ import com.gazbert.bxbot.exchange.api.AuthenticationConfig;
 import com.gazbert.bxbot.exchange.api.ExchangeConfig;
 import com.gazbert.bxbot.exchange.api.NetworkConfig;
 import com.gazbert.bxbot.trading.api.*;
+import org.easymock.Capture;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -41,6 +42,7 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.text.DecimalFormat;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -77,6 +79,9 @@ public class TestBitfinexExchangeAdapter {
     private static final String ORDER_NEW_BUY_JSON_RESPONSE = "./src/test/exchange-data/bitfinex/order_new_buy.json";
     private static final String ORDER_NEW_SELL_JSON_RESPONSE = "./src/test/exchange-data/bitfinex/order_new_sell.json";
     private static final String ORDER_CANCEL_JSON_RESPONSE = "./src/test/exchange-data/bitfinex/order_cancel.json";
+    private static final String ORDER_NEW_MULTI_JSON_RESPONSE = "./src/test/exchange-data/bitfinex/order_new_multi.json";
+    private static final String ORDER_CANCEL_MULTI_JSON_RESPONSE = "./src/test/exchange-data/bitfinex/order_cancel_multi.json";
+    private static final String ORDER_CANCEL_REPLACE_JSON_RESPONSE = "./src/test/exchange-data/bitfinex/order_cancel_replace.json";
 
     // Exchange API calls
     private static final String BOOK = "book";
@@ -86,6 +91,9 @@ public class TestBitfinexExchangeAdapter {
     private static final String ACCOUNT_INFOS = "account_infos";
     private static final String ORDER_NEW = "order/new";
     private static final String ORDER_CANCEL = "order/cancel";
+    private static final String ORDER_NEW_MULTI = "order/new/multi";
+    private static final String ORDER_CANCEL_MULTI = "order/cancel/multi";
+    private static final String ORDER_CANCEL_REPLACE = "order/cancel/replace";
 
     // Canned test data
     private static final String MARKET_ID = "btcusd";
@@ -94,6 +102,7 @@ public class TestBitfinexExchangeAdapter {
     private static final BigDecimal SELL_ORDER_PRICE = new BigDecimal("300.176");
     private static final BigDecimal SELL_ORDER_QUANTITY = new BigDecimal("0.03");
     private static final String ORDER_ID_TO_CANCEL = "426152651";
+    private static final String OTHER_ORDER_ID_TO_CANCEL = "426152652";
 
     // Mocked out methods
     private static final String MOCKED_GET_REQUEST_PARAM_MAP_METHOD = "getRequestParamMap";
@@ -124,13 +133,17 @@ public class TestBitfinexExchangeAdapter {
 
         networkConfig = PowerMock.createMock(NetworkConfig.class);
         expect(networkConfig.getConnectionTimeout()).andReturn(30);
+        expect(networkConfig.getReadTimeout()).andReturn(null);
+        expect(networkConfig.getConnectionPoolSize()).andReturn(null);
+        expect(networkConfig.getConnectionIdleTimeout()).andReturn(null);
         expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
         expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+        expect(networkConfig.getRateLimits()).andReturn(Collections.emptyList());
 
         exchangeConfig = PowerMock.createMock(ExchangeConfig.class);
         expect(exchangeConfig.getAuthenticationConfig()).andReturn(authenticationConfig);
         expect(exchangeConfig.getNetworkConfig()).andReturn(networkConfig);
-        // optional config not needed for this adapter
+        expect(exchangeConfig.getOptionalConfig()).andReturn(null);
     }
 
     // ------------------------------------------------------------------------------------------------
@@ -245,6 +258,61 @@ public class TestBitfinexExchangeAdapter {
         PowerMock.verifyAll();
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCreateOrdersIsSuccessful() throws Exception {
+
+        // Load the canned response from the exchange
+        final byte[] encoded = Files.readAllBytes(Paths.get(ORDER_NEW_MULTI_JSON_RESPONSE));
+        final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+                new AbstractExchangeAdapter.ExchangeHttpResponse(200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+        // Capture the params so we can assert the orders passed to the transport layer are what we expect.
+        final Capture<Map<String, Object>> requestParams = newCapture();
+
+        // Partial mock so we do not send stuff down the wire
+        final BitfinexExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
+                BitfinexExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+                eq(ORDER_NEW_MULTI), capture(requestParams)).andReturn(exchangeResponse);
+
+        PowerMock.replayAll();
+        exchangeAdapter.init(exchangeConfig);
+
+        final List<String> orderIds = exchangeAdapter.createOrders(Arrays.asList(
+                new OrderRequest(MARKET_ID, OrderType.BUY, BUY_ORDER_QUANTITY, BUY_ORDER_PRICE),
+                new OrderRequest(MARKET_ID, OrderType.SELL, SELL_ORDER_QUANTITY, SELL_ORDER_PRICE)));
+        assertEquals(Arrays.asList("448364249", "448364250"), orderIds);
+
+        final List<Map<String, Object>> orders = (List<Map<String, Object>>) requestParams.getValue().get("orders");
+        assertEquals(2, orders.size());
+        assertEquals("buy", orders.get(0).get("side"));
+        assertEquals(new DecimalFormat("#.########").format(BUY_ORDER_PRICE), orders.get(0).get("price"));
+        assertEquals("sell", orders.get(1).get("side"));
+        assertEquals(new DecimalFormat("#.########").format(SELL_ORDER_PRICE), orders.get(1).get("price"));
+        assertEquals("exchange limit", orders.get(1).get("type"));
+
+        PowerMock.verifyAll();
+    }
+
+    @Test(expected = ExchangeNetworkException.class)
+    public void testCreateOrdersHandlesExchangeNetworkException() throws Exception {
+
+        // Partial mock so we do not send stuff down the wire
+        final BitfinexExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
+                BitfinexExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+                eq(ORDER_NEW_MULTI), anyObject(Map.class)).
+                andThrow(new ExchangeNetworkException("It's not the years, honey. It's the mileage."));
+
+        PowerMock.replayAll();
+        exchangeAdapter.init(exchangeConfig);
+
+        exchangeAdapter.createOrders(Collections.singletonList(
+                new OrderRequest(MARKET_ID, OrderType.BUY, BUY_ORDER_QUANTITY, BUY_ORDER_PRICE)));
+        PowerMock.verifyAll();
+    }
+
     // ------------------------------------------------------------------------------------------------
     //  Cancel Order tests
     // ------------------------------------------------------------------------------------------------
@@ -280,6 +348,39 @@ public class TestBitfinexExchangeAdapter {
         PowerMock.verifyAll();
     }
 
+    @Test
+    public void testCancelOrderReturnsFalseIfOrderIdIsNotRecognised() throws Exception {
+
+        PowerMock.replayAll();
+        final BitfinexExchangeAdapter exchangeAdapter = new BitfinexExchangeAdapter();
+        exchangeAdapter.init(exchangeConfig);
+
+        // Exchange returns a 400 if the order id was not recognised
+        exchangeAdapter.setHttpTransport((url, httpMethod, postData, requestHeaders) ->
+                new AbstractExchangeAdapter.ExchangeHttpResponse(400, "Bad Request",
+                        "{\"message\":\"Order could not be cancelled.\"}"));
+
+        // marketId arg not needed for cancelling orders on this exchange.
+        assertFalse(exchangeAdapter.cancelOrder(ORDER_ID_TO_CANCEL, null));
+
+        PowerMock.verifyAll();
+    }
+
+    @Test(expected = TradingApiException.class)
+    public void testCancelOrderThrowsTradingApiExceptionForOtherErrorStatuses() throws Exception {
+
+        PowerMock.replayAll();
+        final BitfinexExchangeAdapter exchangeAdapter = new BitfinexExchangeAdapter();
+        exchangeAdapter.init(exchangeConfig);
+
+        exchangeAdapter.setHttpTransport((url, httpMethod, postData, requestHeaders) ->
+                new AbstractExchangeAdapter.ExchangeHttpResponse(401, "Unauthorized",
+                        "{\"message\":\"Invalid API key.\"}"));
+
+        exchangeAdapter.cancelOrder(ORDER_ID_TO_CANCEL, null);
+        PowerMock.verifyAll();
+    }
+
     @Test(expected = ExchangeNetworkException.class)
     public void testCancelOrderHandlesExchangeNetworkException() throws Exception {
 
@@ -320,6 +421,142 @@ public class TestBitfinexExchangeAdapter {
         PowerMock.verifyAll();
     }
 
+    @Test
+    public void testCancelOrdersIsSuccessful() throws Exception {
+
+        // Load the canned response from the exchange
+        final byte[] encoded = Files.readAllBytes(Paths.get(ORDER_CANCEL_MULTI_JSON_RESPONSE));
+        final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+                new AbstractExchangeAdapter.ExchangeHttpResponse(200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+        // Mock out param map so we can assert the contents passed to the transport layer are what we expect.
+        final Map<String, Object> requestParamMap = PowerMock.createMock(Map.class);
+        expect(requestParamMap.put("order_ids", Arrays.asList(Long.parseLong(ORDER_ID_TO_CANCEL),
+                Long.parseLong(OTHER_ORDER_ID_TO_CANCEL)))).andStubReturn(null);
+
+        // Partial mock so we do not send stuff down the wire
+        final BitfinexExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
+                BitfinexExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+                MOCKED_GET_REQUEST_PARAM_MAP_METHOD);
+
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_GET_REQUEST_PARAM_MAP_METHOD).andReturn(requestParamMap);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+                eq(ORDER_CANCEL_MULTI), eq(requestParamMap)).andReturn(exchangeResponse);
+
+        PowerMock.replayAll();
+        exchangeAdapter.init(exchangeConfig);
+
+        // marketId arg not needed for cancelling orders on this exchange.
+        final List<String> cancelledOrderIds = exchangeAdapter.cancelOrders(
+                Arrays.asList(ORDER_ID_TO_CANCEL, OTHER_ORDER_ID_TO_CANCEL), null);
+        assertEquals(Arrays.asList(ORDER_ID_TO_CANCEL, OTHER_ORDER_ID_TO_CANCEL), cancelledOrderIds);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testCancelOrdersCancelsOneAtATimeIfAnOrderIdIsNotRecognised() throws Exception {
+
+        // Load the canned response from the exchange
+        final byte[] encoded = Files.readAllBytes(Paths.get(ORDER_CANCEL_JSON_RESPONSE));
+        final String cancelOrderResponse = new String(encoded, StandardCharsets.UTF_8);
+
+        PowerMock.replayAll();
+        final BitfinexExchangeAdapter exchangeAdapter = new BitfinexExchangeAdapter();
+        exchangeAdapter.init(exchangeConfig);
+
+        // Exchange returns a 400 for the batch, and for the order it does not recognise
+        exchangeAdapter.setHttpTransport((url, httpMethod, postData, requestHeaders) ->
+                url.toString().endsWith(ORDER_CANCEL_MULTI) || postData.contains(OTHER_ORDER_ID_TO_CANCEL)
+                        ? new AbstractExchangeAdapter.ExchangeHttpResponse(400, "Bad Request",
+                        "{\"message\":\"Order could not be cancelled.\"}")
+                        : new AbstractExchangeAdapter.ExchangeHttpResponse(200, "OK", cancelOrderResponse));
+
+        // marketId arg not needed for cancelling orders on this exchange.
+        final List<String> cancelledOrderIds = exchangeAdapter.cancelOrders(
+                Arrays.asList(ORDER_ID_TO_CANCEL, OTHER_ORDER_ID_TO_CANCEL), null);
+        assertEquals(Collections.singletonList(ORDER_ID_TO_CANCEL), cancelledOrderIds);
+
+        PowerMock.verifyAll();
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Replace Order tests
+    // ------------------------------------------------------------------------------------------------
+
+    @Test
+    public void testReplaceOrderIsSuccessful() throws Exception {
+
+        // Load the canned response from the exchange
+        final byte[] encoded = Files.readAllBytes(Paths.get(ORDER_CANCEL_REPLACE_JSON_RESPONSE));
+        final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+                new AbstractExchangeAdapter.ExchangeHttpResponse(200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+        // Mock out param map so we can assert the contents passed to the transport layer are what we expect.
+        final Map<String, Object> requestParamMap = PowerMock.createMock(Map.class);
+        expect(requestParamMap.put("order_id", Long.parseLong(ORDER_ID_TO_CANCEL))).andStubReturn(null);
+        expect(requestParamMap.put("symbol", MARKET_ID)).andStubReturn(null);
+        expect(requestParamMap.put("amount", new DecimalFormat("#.########").format(BUY_ORDER_QUANTITY))).andStubReturn(null);
+        expect(requestParamMap.put("price", new DecimalFormat("#.########").format(BUY_ORDER_PRICE))).andStubReturn(null);
+        expect(requestParamMap.put("exchange", "bitfinex")).andStubReturn(null);
+        expect(requestParamMap.put("side", "buy")).andStubReturn(null);
+        expect(requestParamMap.put("type", "exchange limit")).andStubReturn(null);
+
+        // Partial mock so we do not send stuff down the wire
+        final BitfinexExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
+                BitfinexExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+                MOCKED_GET_REQUEST_PARAM_MAP_METHOD);
+
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_GET_REQUEST_PARAM_MAP_METHOD).andReturn(requestParamMap);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+                eq(ORDER_CANCEL_REPLACE), eq(requestParamMap)).andReturn(exchangeResponse);
+
+        PowerMock.replayAll();
+        exchangeAdapter.init(exchangeConfig);
+
+        final String orderId = exchangeAdapter.replaceOrder(ORDER_ID_TO_CANCEL, MARKET_ID, OrderType.BUY,
+                BUY_ORDER_QUANTITY, BUY_ORDER_PRICE);
+        assertTrue(orderId.equals("448411153"));
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testReplaceOrderReturnsNullIfOrderCouldNotBeCancelled() throws Exception {
+
+        PowerMock.replayAll();
+        final BitfinexExchangeAdapter exchangeAdapter = new BitfinexExchangeAdapter();
+        exchangeAdapter.init(exchangeConfig);
+
+        // Exchange returns a 400 if the order to replace could not be cancelled
+        exchangeAdapter.setHttpTransport((url, httpMethod, postData, requestHeaders) ->
+                new AbstractExchangeAdapter.ExchangeHttpResponse(400, "Bad Request",
+                        "{\"message\":\"Order could not be cancelled.\"}"));
+
+        assertNull(exchangeAdapter.replaceOrder(ORDER_ID_TO_CANCEL, MARKET_ID, OrderType.BUY, BUY_ORDER_QUANTITY,
+                BUY_ORDER_PRICE));
+
+        PowerMock.verifyAll();
+    }
+
+    @Test(expected = ExchangeNetworkException.class)
+    public void testReplaceOrderHandlesExchangeNetworkException() throws Exception {
+
+        // Partial mock so we do not send stuff down the wire
+        final BitfinexExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
+                BitfinexExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+                eq(ORDER_CANCEL_REPLACE), anyObject(Map.class)).
+                andThrow(new ExchangeNetworkException("Where we're going, we don't need order books."));
+
+        PowerMock.replayAll();
+        exchangeAdapter.init(exchangeConfig);
+
+        exchangeAdapter.replaceOrder(ORDER_ID_TO_CANCEL, MARKET_ID, OrderType.BUY, BUY_ORDER_QUANTITY,
+                BUY_ORDER_PRICE);
+        PowerMock.verifyAll();
+    }
+
     // ------------------------------------------------------------------------------------------------
     //  Get Market Orders tests
     // ------------------------------------------------------------------------------------------------
@@ -679,6 +916,33 @@ public class TestBitfinexExchangeAdapter {
         PowerMock.verifyAll();
     }
 
+    @Test
+    public void testGettingExchangeFeesFetchesAccountInfosOnce() throws Exception {
+
+        // Load the canned response from the exchange
+        final byte[] encoded = Files.readAllBytes(Paths.get(ACCOUNT_INFOS_JSON_RESPONSE));
+        final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+                new AbstractExchangeAdapter.ExchangeHttpResponse(200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+        // Partial mock so we do not send stuff down the wire
+        final BitfinexExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
+                BitfinexExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD, eq(ACCOUNT_INFOS),
+                eq(null)).andReturn(exchangeResponse).once();
+
+        PowerMock.replayAll();
+        exchangeAdapter.init(exchangeConfig);
+
+        for (int i = 0; i < 3; i++) {
+            final BigDecimal buyPercentageFee = exchangeAdapter.getPercentageOfBuyOrderTakenForExchangeFee(MARKET_ID);
+            final BigDecimal sellPercentageFee = exchangeAdapter.getPercentageOfSellOrderTakenForExchangeFee(MARKET_ID);
+            assertTrue(buyPercentageFee.compareTo(new BigDecimal("0.0020")) == 0);
+            assertTrue(sellPercentageFee.compareTo(new BigDecimal("0.0020")) == 0);
+        }
+
+        PowerMock.verifyAll();
+    }
+
     // ------------------------------------------------------------------------------------------------
     //  Get Exchange Fees for Sell orders tests
     // ------------------------------------------------------------------------------------------------
@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import org.junit.After;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the Bitfinex order book feed against a local WebSocket server replaying recorded book frames.
+ *
+ * @author gazbert
+ */
+public class TestBitfinexOrderBookFeed {
+
+    private static final String BOOK_FRAMES = "./src/test/exchange-data/bitfinex/websocket_book.txt";
+    private static final String BOOK_WITH_GAP_FRAMES = "./src/test/exchange-data/bitfinex/websocket_book_gap.txt";
+    private static final String MARKET_ID = "btcusd";
+
+    private WebSocketStubServer server;
+    private BitfinexOrderBookFeed feed;
+
+
+    @After
+    public void tearDownAfterEachTest() throws Exception {
+        feed.close();
+        server.close();
+    }
+
+    @Test
+    public void testOrderBookIsBuiltFromSnapshotAndUpdates() throws Exception {
+
+        server = new WebSocketStubServer("\"subscribe\"",
+                Collections.singletonList(WebSocketStubServer.recordedFrames(BOOK_FRAMES)));
+        feed = new BitfinexOrderBookFeed(server.getUri(), 2, 5);
+        feed.getMarketOrders(MARKET_ID, 10);
+
+        final MarketOrderBook orderBook = WebSocketStubServer.await(() -> {
+            final MarketOrderBook book = feed.getMarketOrders(MARKET_ID, 10);
+            return book != null && book.getSellOrders().size() == 2 ? book : null;
+        });
+
+        assertEquals(3, orderBook.getBuyOrders().size());
+        assertEquals(0, orderBook.getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("4150.5")));
+        assertEquals(0, orderBook.getBuyOrders().get(1).getPrice().compareTo(new BigDecimal("4150.1")));
+        assertEquals(0, orderBook.getBuyOrders().get(2).getPrice().compareTo(new BigDecimal("4149.9")));
+        assertEquals(0, orderBook.getSellOrders().get(0).getPrice().compareTo(new BigDecimal("4151.2")));
+        assertEquals(0, orderBook.getSellOrders().get(0).getQuantity().compareTo(new BigDecimal("2.1")));
+
+        assertTrue(server.getMessagesReceived().get(0).contains("\"flags\":65536"));
+        assertTrue(server.getMessagesReceived().get(1).contains("\"symbol\":\"tBTCUSD\""));
+    }
+
+    @Test
+    public void testFeedResyncsWhenSequenceNumberIsSkipped() throws Exception {
+
+        server = new WebSocketStubServer("\"subscribe\"", Arrays.asList(
+                WebSocketStubServer.recordedFrames(BOOK_WITH_GAP_FRAMES),
+                WebSocketStubServer.recordedFrames(BOOK_FRAMES)));
+        feed = new BitfinexOrderBookFeed(server.getUri(), 2, 5);
+        feed.getMarketOrders(MARKET_ID, 10);
+
+        final MarketOrderBook orderBook = WebSocketStubServer.await(() -> {
+            final MarketOrderBook book = feed.getMarketOrders(MARKET_ID, 10);
+            return book != null && book.getSellOrders().size() == 2 ? book : null;
+        });
+
+        assertEquals(2, server.getConnectionCount());
+        assertEquals(0, orderBook.getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("4150.5")));
+    }
+}
@@ -43,6 +43,7 @@ import java.nio.file.Paths;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -78,6 +79,7 @@ public class TestBitstampExchangeAdapter {
     private static final String BUY_JSON_RESPONSE = "./src/test/exchange-data/bitstamp/buy.json";
     private static final String SELL_JSON_RESPONSE = "./src/test/exchange-data/bitstamp/sell.json";
     private static final String CANCEL_ORDER_JSON_RESPONSE = "./src/test/exchange-data/bitstamp/cancel_order.json";
+    private static final String ORDER_STATUS_JSON_RESPONSE = "./src/test/exchange-data/bitstamp/order_status.json";
 
     // Exchange API calls
     private static final String ORDER_BOOK = "order_book/";
@@ -87,6 +89,7 @@ public class TestBitstampExchangeAdapter {
     private static final String BUY = "buy/";
     private static final String SELL = "sell/";
     private static final String CANCEL_ORDER = "cancel_order";
+    private static final String ORDER_STATUS = "order_status";
 
     // Canned test data
     private static final String MARKET_ID = "btcusd";
@@ -132,13 +135,17 @@ public class TestBitstampExchangeAdapter {
 
         networkConfig = PowerMock.createMock(NetworkConfig.class);
         expect(networkConfig.getConnectionTimeout()).andReturn(30);
+        expect(networkConfig.getReadTimeout()).andReturn(null);
+        expect(networkConfig.getConnectionPoolSize()).andReturn(null);
+        expect(networkConfig.getConnectionIdleTimeout()).andReturn(null);
         expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
         expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+        expect(networkConfig.getRateLimits()).andReturn(Collections.emptyList());
 
         exchangeConfig = PowerMock.createMock(ExchangeConfig.class);
         expect(exchangeConfig.getAuthenticationConfig()).andReturn(authenticationConfig);
         expect(exchangeConfig.getNetworkConfig()).andReturn(networkConfig);
-        // optional config not needed for this adapter
+        expect(exchangeConfig.getOptionalConfig()).andReturn(null);
     }
 
     // ------------------------------------------------------------------------------------------------
@@ -369,6 +376,35 @@ public class TestBitstampExchangeAdapter {
         PowerMock.verifyAll();
     }
 
+    @Test
+    public void testGettingMarketOrdersToDepthSuccessfully() throws Exception {
+
+        // Load the canned response from the exchange
+        final byte[] encoded = Files.readAllBytes(Paths.get(ORDER_BOOK_JSON_RESPONSE));
+        final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+                new AbstractExchangeAdapter.ExchangeHttpResponse(200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+        // Partial mock so we do not send stuff down the wire
+        final BitstampExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
+                BitstampExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
+                eq(ORDER_BOOK + MARKET_ID)).
+                andReturn(exchangeResponse);
+
+        PowerMock.replayAll();
+        exchangeAdapter.init(exchangeConfig);
+
+        final MarketOrderBook marketOrderBook = exchangeAdapter.getMarketOrders(MARKET_ID, 5);
+
+        // stamp has no depth param, so the adapter stops after the first 5 levels
+        assertTrue(marketOrderBook.getBuyOrders().size() == 5);
+        assertTrue(marketOrderBook.getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("230.34")) == 0);
+        assertTrue(marketOrderBook.getSellOrders().size() == 5);
+        assertTrue(marketOrderBook.getSellOrders().get(0).getPrice().compareTo(new BigDecimal("230.90")) == 0);
+
+        PowerMock.verifyAll();
+    }
+
     @Test(expected = ExchangeNetworkException.class)
     public void testGettingMarketOrdersHandlesExchangeNetworkException() throws Exception {
 
@@ -404,6 +440,57 @@ public class TestBitstampExchangeAdapter {
         PowerMock.verifyAll();
     }
 
+    // ------------------------------------------------------------------------------------------------
+    //  Get Order Status tests
+    // ------------------------------------------------------------------------------------------------
+
+    @Test
+    public void testGettingOrderStatusSuccessfully() throws Exception {
+
+        // Load the canned response from the exchange
+        final byte[] encoded = Files.readAllBytes(Paths.get(ORDER_STATUS_JSON_RESPONSE));
+        final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+                new AbstractExchangeAdapter.ExchangeHttpResponse(200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+        // Mock out param map so we can assert the contents passed to the transport layer are what we expect.
+        final Map<String, String> requestParamMap = PowerMock.createMock(Map.class);
+        expect(requestParamMap.put("id", ORDER_ID_TO_CANCEL)).andStubReturn(null);
+
+        // Partial mock so we do not send stuff down the wire
+        final BitstampExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
+                BitstampExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+                MOCKED_GET_REQUEST_PARAM_MAP_METHOD);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_GET_REQUEST_PARAM_MAP_METHOD).andReturn(requestParamMap);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+                eq(ORDER_STATUS), eq(requestParamMap)).andReturn(exchangeResponse);
+
+        PowerMock.replayAll();
+        exchangeAdapter.init(exchangeConfig);
+
+        // marketId arg not needed for order status lookups on this exchange.
+        final OrderStatus orderStatus = exchangeAdapter.getOrderStatus(ORDER_ID_TO_CANCEL, null);
+        assertTrue(orderStatus == OrderStatus.FILLED);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test(expected = ExchangeNetworkException.class)
+    public void testGettingOrderStatusHandlesExchangeNetworkException() throws Exception {
+
+        // Partial mock so we do not send stuff down the wire
+        final BitstampExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
+                BitstampExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+                eq(ORDER_STATUS), anyObject(Map.class)).
+                andThrow(new ExchangeNetworkException("It's a trap!"));
+
+        PowerMock.replayAll();
+        exchangeAdapter.init(exchangeConfig);
+
+        exchangeAdapter.getOrderStatus(ORDER_ID_TO_CANCEL, null);
+        PowerMock.verifyAll();
+    }
+
     // ------------------------------------------------------------------------------------------------
     //  Get Your Open Orders tests
     // ------------------------------------------------------------------------------------------------
@@ -510,8 +597,8 @@ public class TestBitstampExchangeAdapter {
     public void testGettingLatestMarketPriceHandlesExchangeNetworkException() throws Exception {
 
         // Partial mock so we do not send stuff down the wire
-        final BitstampExchangeAdapter exchangeAdapter = PowerMock.createPartialMock(BitstampExchangeAdapter.class,
-                MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
+        final BitstampExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
+                BitstampExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
         PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
                 eq(TICKER + MARKET_ID)).
                 andThrow(new ExchangeNetworkException("Jumping in 5... 4... 3... 2... 1... Jump!"));
@@ -670,6 +757,32 @@ public class TestBitstampExchangeAdapter {
         PowerMock.verifyAll();
     }
 
+    @Test
+    public void testGettingExchangeFeesReusesFeesFromBalanceInfo() throws Exception {
+
+        // Load the canned response from the exchange
+        final byte[] encoded = Files.readAllBytes(Paths.get(BALANCE_JSON_RESPONSE));
+        final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+                new AbstractExchangeAdapter.ExchangeHttpResponse(200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+        // Partial mock so we do not send stuff down the wire - only the balance call should reach the exchange
+        final BitstampExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
+                BitstampExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD, eq(BALANCE),
+                eq(null)).andReturn(exchangeResponse).once();
+
+        PowerMock.replayAll();
+        exchangeAdapter.init(exchangeConfig);
+
+        exchangeAdapter.getBalanceInfo();
+        final BigDecimal buyPercentageFee = exchangeAdapter.getPercentageOfBuyOrderTakenForExchangeFee(MARKET_ID);
+        final BigDecimal sellPercentageFee = exchangeAdapter.getPercentageOfSellOrderTakenForExchangeFee(MARKET_ID);
+        assertTrue(buyPercentageFee.compareTo(new BigDecimal("0.0025")) == 0);
+        assertTrue(sellPercentageFee.compareTo(new BigDecimal("0.0025")) == 0);
+
+        PowerMock.verifyAll();
+    }
+
     // ------------------------------------------------------------------------------------------------
     //  Get Exchange Fees for Sell orders tests
     // ------------------------------------------------------------------------------------------------
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the Bitstamp order book feed against a local WebSocket server replaying recorded diff_order_book frames.
+ *
+ * @author gazbert
+ */
+public class TestBitstampOrderBookFeed {
+
+    private static final String DIFF_ORDER_BOOK_FRAMES =
+            "./src/test/exchange-data/bitstamp/websocket_diff_order_book.txt";
+    private static final String ORDER_BOOK_JSON_RESPONSE = "./src/test/exchange-data/bitstamp/order_book.json";
+    private static final String MARKET_ID = "btcusd";
+
+    private WebSocketStubServer server;
+    private BitstampOrderBookFeed feed;
+    private List<String> snapshotsLoaded;
+
+
+    @Before
+    public void setupForEachTest() throws Exception {
+        snapshotsLoaded = new CopyOnWriteArrayList<>();
+        server = new WebSocketStubServer("bts:subscribe",
+                Collections.singletonList(WebSocketStubServer.recordedFrames(DIFF_ORDER_BOOK_FRAMES)));
+        feed = new BitstampOrderBookFeed(server.getUri(), 2, 5, marketId -> {
+            snapshotsLoaded.add(marketId);
+            return new String(Files.readAllBytes(Paths.get(ORDER_BOOK_JSON_RESPONSE)), StandardCharsets.UTF_8);
+        });
+    }
+
+    @After
+    public void tearDownAfterEachTest() throws Exception {
+        feed.close();
+        server.close();
+    }
+
+    @Test
+    public void testOrderBookIsSeededFromSnapshotAndChangesNewerThanItApplied() throws Exception {
+
+        feed.getMarketOrders(MARKET_ID, 3);
+
+        final MarketOrderBook orderBook = WebSocketStubServer.await(() -> {
+            final MarketOrderBook book = feed.getMarketOrders(MARKET_ID, 3);
+            return book != null && book.getSellOrders().get(0).getPrice().compareTo(new BigDecimal("230.91")) == 0
+                    ? book : null;
+        });
+        assertEquals(Collections.singletonList(MARKET_ID), snapshotsLoaded);
+
+        // change made after the snapshot applied; change made before it ignored
+        assertEquals(0, orderBook.getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("230.50")));
+        assertEquals(0, orderBook.getBuyOrders().get(1).getPrice().compareTo(new BigDecimal("230.34")));
+        assertEquals(0, orderBook.getBuyOrders().get(1).getQuantity().compareTo(new BigDecimal("7.2286")));
+        assertEquals(0, orderBook.getBuyOrders().get(2).getPrice().compareTo(new BigDecimal("230.04")));
+        assertEquals(0, orderBook.getSellOrders().get(0).getPrice().compareTo(new BigDecimal("230.91")));
+
+        assertTrue(server.getMessagesReceived().get(0).contains("\"channel\":\"diff_order_book_btcusd\""));
+    }
+}
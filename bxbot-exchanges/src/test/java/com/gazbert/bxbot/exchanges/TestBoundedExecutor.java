@@ -0,0 +1,239 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the Bounded Executor caps the number of tasks it runs at once on the shared pool, and with a limit of one
+ * runs them in submission order.
+ *
+ * @author gazbert
+ */
+public class TestBoundedExecutor {
+
+    private ExecutorService sharedPool;
+
+
+    @Before
+    public void setup() throws Exception {
+        sharedPool = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        sharedPool.shutdownNow();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxRunningTasksMustBePositive() throws Exception {
+        new BoundedExecutor(sharedPool, 0);
+    }
+
+    @Test
+    public void testNoMoreThanMaxRunningTasksRunAtOnce() throws Exception {
+
+        final BoundedExecutor executor = new BoundedExecutor(sharedPool, 2);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch completed = new CountDownLatch(10);
+
+        for (int i = 0; i < 10; i++) {
+            executor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                completed.countDown();
+            });
+        }
+
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    public void testExecutorsSharingAPoolAreBoundedIndependently() throws Exception {
+
+        final BoundedExecutor executor1 = new BoundedExecutor(sharedPool, 1);
+        final BoundedExecutor executor2 = new BoundedExecutor(sharedPool, 1);
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final CountDownLatch executor2TaskRan = new CountDownLatch(1);
+        final AtomicInteger executor1TasksRun = new AtomicInteger();
+
+        executor1.execute(() -> {
+            executor1TasksRun.incrementAndGet();
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        executor1.execute(executor1TasksRun::incrementAndGet);
+        executor2.execute(executor2TaskRan::countDown);
+
+        // executor1 is at its limit, but that does not hold up executor2
+        assertTrue(executor2TaskRan.await(5, TimeUnit.SECONDS));
+        assertEquals(1, executor1TasksRun.get());
+
+        blocker.countDown();
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (executor1TasksRun.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, executor1TasksRun.get());
+    }
+
+    @Test
+    public void testRejectedTaskDoesNotUseUpAPlace() throws Exception {
+
+        final ExecutorService stoppedPool = Executors.newSingleThreadExecutor();
+        stoppedPool.shutdown();
+        final BoundedExecutor executor = new BoundedExecutor(stoppedPool, 1);
+
+        // if the first rejected task still held its place, the second would be queued rather than rejected
+        int rejections = 0;
+        for (int i = 0; i < 2; i++) {
+            try {
+                executor.execute(() -> {
+                });
+            } catch (RejectedExecutionException e) {
+                rejections++;
+            }
+        }
+        assertEquals(2, rejections);
+    }
+
+    @Test
+    public void testTasksRunOneAtATimeInSubmissionOrder() throws Exception {
+
+        final BoundedExecutor executor = new BoundedExecutor(sharedPool, 1);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final List<Integer> runOrder = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch completed = new CountDownLatch(20);
+
+        for (int i = 0; i < 20; i++) {
+            final int taskNumber = i;
+            executor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                runOrder.add(taskNumber);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                completed.countDown();
+            });
+        }
+
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, maxRunning.get());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(Integer.valueOf(i), runOrder.get(i));
+        }
+    }
+
+    @Test
+    public void testFailedTaskDoesNotStopTheQueue() throws Exception {
+
+        final BoundedExecutor executor = new BoundedExecutor(sharedPool, 1);
+        final CountDownLatch nextTaskRan = new CountDownLatch(1);
+
+        executor.execute(() -> {
+            throw new IllegalStateException("Task failed");
+        });
+        executor.execute(nextTaskRan::countDown);
+
+        assertTrue(nextTaskRan.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testQueuedTasksStillRunWhenThePoolRejectsThem() throws Exception {
+
+        // accepts the first task, then rejects everything, as a pool does once it is shut down
+        final AtomicInteger tasksAccepted = new AtomicInteger();
+        final Executor closingPool = task -> {
+            if (tasksAccepted.incrementAndGet() > 1) {
+                throw new RejectedExecutionException("Pool shut down");
+            }
+            sharedPool.execute(task);
+        };
+        final BoundedExecutor executor = new BoundedExecutor(closingPool, 1);
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final List<Integer> runOrder = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch completed = new CountDownLatch(4);
+
+        executor.execute(() -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            completed.countDown();
+        });
+        for (int i = 0; i < 3; i++) {
+            final int taskNumber = i;
+            executor.execute(() -> {
+                runOrder.add(taskNumber);
+                completed.countDown();
+            });
+        }
+        blocker.countDown();
+
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(0, 1, 2), runOrder);
+
+        // the place was given up once the queue had drained, so the next task goes to the pool rather than the queue
+        boolean rejected = false;
+        try {
+            executor.execute(() -> {
+            });
+        } catch (RejectedExecutionException e) {
+            rejected = true;
+        }
+        assertTrue(rejected);
+    }
+}
@@ -0,0 +1,409 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.gazbert.bxbot.exchange.api.ExchangeConfig;
+import com.gazbert.bxbot.exchange.api.impl.ExchangeConfigImpl;
+import com.gazbert.bxbot.exchange.api.impl.OptionalConfigImpl;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderRequest;
+import com.gazbert.bxbot.trading.api.OrderType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the Caching Exchange Adapter caches read calls and clears them when orders are placed or cancelled.
+ *
+ * @author gazbert
+ */
+public class TestCachingExchangeAdapter {
+
+    private static final String MARKET_ID = "btcusd";
+    private static final String OTHER_MARKET_ID = "ltcusd";
+    private static final BigDecimal PRICE = new BigDecimal("1000.00");
+    private static final BigDecimal QUANTITY = new BigDecimal("0.5");
+
+    private AtomicLong nanoClock;
+    private CountingExchangeAdapter delegate;
+    private Map<String, String> optionalConfigItems;
+
+
+    @Before
+    public void setup() throws Exception {
+        nanoClock = new AtomicLong();
+        delegate = new CountingExchangeAdapter();
+        optionalConfigItems = new HashMap<>();
+    }
+
+    @Test
+    public void testResultIsCachedUntilTtlExpires() throws Exception {
+
+        optionalConfigItems.put(CachingExchangeAdapter.LATEST_MARKET_PRICE_TTL_PROPERTY_NAME, "5");
+        final CachingExchangeAdapter cachingAdapter = createCachingAdapter();
+        assertEquals(1, delegate.initCount.get());
+
+        cachingAdapter.getLatestMarketPrice(MARKET_ID);
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(4));
+        cachingAdapter.getLatestMarketPrice(MARKET_ID);
+        assertEquals(1, delegate.latestMarketPriceCount.get());
+
+        cachingAdapter.getLatestMarketPrice(OTHER_MARKET_ID);
+        assertEquals(2, delegate.latestMarketPriceCount.get());
+
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        cachingAdapter.getLatestMarketPrice(MARKET_ID);
+        assertEquals(3, delegate.latestMarketPriceCount.get());
+    }
+
+    @Test
+    public void testCallsWithoutTtlAreNotCached() throws Exception {
+
+        optionalConfigItems.put(CachingExchangeAdapter.BALANCE_INFO_TTL_PROPERTY_NAME, "60");
+        optionalConfigItems.put(CachingExchangeAdapter.MARKET_ORDERS_TTL_PROPERTY_NAME, "0");
+        final CachingExchangeAdapter cachingAdapter = createCachingAdapter();
+
+        cachingAdapter.getMarketOrders(MARKET_ID);
+        cachingAdapter.getMarketOrders(MARKET_ID);
+        cachingAdapter.getPercentageOfBuyOrderTakenForExchangeFee(MARKET_ID);
+        cachingAdapter.getPercentageOfBuyOrderTakenForExchangeFee(MARKET_ID);
+        cachingAdapter.getYourOpenOrders(MARKET_ID);
+        cachingAdapter.getYourOpenOrders(MARKET_ID);
+
+        assertEquals(2, delegate.marketOrdersCount.get());
+        assertEquals(2, delegate.buyFeeCount.get());
+        assertEquals(2, delegate.openOrdersCount.get());
+        assertEquals(0, cachingAdapter.getCachedResultCount());
+    }
+
+    @Test
+    public void testOrderBookDepthsAreCachedSeparately() throws Exception {
+
+        optionalConfigItems.put(CachingExchangeAdapter.MARKET_ORDERS_TTL_PROPERTY_NAME, "10");
+        final CachingExchangeAdapter cachingAdapter = createCachingAdapter();
+
+        cachingAdapter.getMarketOrders(MARKET_ID);
+        cachingAdapter.getMarketOrders(MARKET_ID, 5);
+        cachingAdapter.getMarketOrders(MARKET_ID, 5);
+        cachingAdapter.getMarketOrders(MARKET_ID);
+
+        assertEquals(2, delegate.marketOrdersCount.get());
+        assertEquals(2, cachingAdapter.getCachedResultCount());
+    }
+
+    @Test
+    public void testPlacingOrCancellingOrderClearsCachedResultsForItsMarket() throws Exception {
+
+        setAllTtls("60");
+        final CachingExchangeAdapter cachingAdapter = createCachingAdapter();
+        readAll(cachingAdapter, MARKET_ID);
+        readAll(cachingAdapter, OTHER_MARKET_ID);
+        assertEquals(1, delegate.balanceInfoCount.get());
+
+        cachingAdapter.createOrder(MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+        readAll(cachingAdapter, MARKET_ID);
+        readAll(cachingAdapter, OTHER_MARKET_ID);
+
+        assertEquals(3, delegate.latestMarketPriceCount.get());
+        assertEquals(3, delegate.marketOrdersCount.get());
+        assertEquals(2, delegate.balanceInfoCount.get());
+        assertEquals(2, delegate.buyFeeCount.get());
+        assertEquals(2, delegate.sellFeeCount.get());
+
+        cachingAdapter.cancelOrder("order-1", OTHER_MARKET_ID);
+        readAll(cachingAdapter, MARKET_ID);
+        readAll(cachingAdapter, OTHER_MARKET_ID);
+
+        assertEquals(4, delegate.latestMarketPriceCount.get());
+        assertEquals(4, delegate.marketOrdersCount.get());
+        assertEquals(3, delegate.balanceInfoCount.get());
+        assertEquals(2, delegate.buyFeeCount.get());
+        assertEquals(2, delegate.sellFeeCount.get());
+    }
+
+    @Test
+    public void testBatchOrderCallsClearCachedResultsForTheirMarkets() throws Exception {
+
+        setAllTtls("60");
+        final CachingExchangeAdapter cachingAdapter = createCachingAdapter();
+        readAll(cachingAdapter, MARKET_ID);
+        readAll(cachingAdapter, OTHER_MARKET_ID);
+
+        cachingAdapter.createOrders(Arrays.asList(
+                new OrderRequest(MARKET_ID, OrderType.BUY, QUANTITY, PRICE),
+                new OrderRequest(OTHER_MARKET_ID, OrderType.SELL, QUANTITY, PRICE)));
+        readAll(cachingAdapter, MARKET_ID);
+        readAll(cachingAdapter, OTHER_MARKET_ID);
+
+        assertEquals(4, delegate.latestMarketPriceCount.get());
+        assertEquals(4, delegate.marketOrdersCount.get());
+        assertEquals(2, delegate.balanceInfoCount.get());
+
+        cachingAdapter.cancelAllOrders(MARKET_ID);
+        readAll(cachingAdapter, MARKET_ID);
+        readAll(cachingAdapter, OTHER_MARKET_ID);
+
+        assertEquals(5, delegate.latestMarketPriceCount.get());
+        assertEquals(5, delegate.marketOrdersCount.get());
+        assertEquals(3, delegate.balanceInfoCount.get());
+    }
+
+    @Test
+    public void testReplacingOrderClearsCachedResultsForItsMarket() throws Exception {
+
+        setAllTtls("60");
+        final CachingExchangeAdapter cachingAdapter = createCachingAdapter();
+        readAll(cachingAdapter, MARKET_ID);
+        readAll(cachingAdapter, OTHER_MARKET_ID);
+
+        cachingAdapter.replaceOrder("order-1", MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+        readAll(cachingAdapter, MARKET_ID);
+        readAll(cachingAdapter, OTHER_MARKET_ID);
+
+        assertEquals(3, delegate.latestMarketPriceCount.get());
+        assertEquals(3, delegate.marketOrdersCount.get());
+        assertEquals(2, delegate.balanceInfoCount.get());
+    }
+
+    @Test
+    public void testReadOverlappingOrderIsNotCached() throws Exception {
+
+        setAllTtls("60");
+        final CachingExchangeAdapter cachingAdapter = createCachingAdapter();
+        delegate.onGetLatestMarketPrice = () -> cachingAdapter.createOrder(MARKET_ID, OrderType.SELL, QUANTITY, PRICE);
+
+        cachingAdapter.getLatestMarketPrice(MARKET_ID);
+        delegate.onGetLatestMarketPrice = null;
+        cachingAdapter.getLatestMarketPrice(MARKET_ID);
+
+        assertEquals(2, delegate.latestMarketPriceCount.get());
+        assertEquals(1, cachingAdapter.getCachedResultCount());
+    }
+
+    @Test
+    public void testFailedCallsAreNotCached() throws Exception {
+
+        setAllTtls("60");
+        final CachingExchangeAdapter cachingAdapter = createCachingAdapter();
+        delegate.onGetLatestMarketPrice = () -> {
+            throw new ExchangeNetworkException("Connection reset");
+        };
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                cachingAdapter.getLatestMarketPrice(MARKET_ID);
+                fail("Expected ExchangeNetworkException");
+            } catch (ExchangeNetworkException e) {
+                assertEquals("Connection reset", e.getMessage());
+            }
+        }
+        assertEquals(2, delegate.latestMarketPriceCount.get());
+        assertEquals(0, cachingAdapter.getCachedResultCount());
+    }
+
+    @Test
+    public void testAsyncCallsShareCacheWhenDelegateIsNotAsync() throws Exception {
+
+        setAllTtls("60");
+        final CachingExchangeAdapter cachingAdapter = createCachingAdapter();
+
+        assertEquals(PRICE, cachingAdapter.getLatestMarketPriceAsync(MARKET_ID).get());
+        assertEquals(PRICE, cachingAdapter.getLatestMarketPrice(MARKET_ID));
+        assertEquals(1, delegate.latestMarketPriceCount.get());
+
+        assertEquals("order-1", cachingAdapter.createOrderAsync(MARKET_ID, OrderType.BUY, QUANTITY, PRICE).get());
+        assertEquals(PRICE, cachingAdapter.getLatestMarketPriceAsync(MARKET_ID).get());
+        assertEquals(2, delegate.latestMarketPriceCount.get());
+
+        delegate.onGetLatestMarketPrice = () -> {
+            throw new ExchangeNetworkException("Connection reset");
+        };
+        assertTrue(cachingAdapter.getLatestMarketPriceAsync(OTHER_MARKET_ID).isCompletedExceptionally());
+    }
+
+    @Test
+    public void testCachingIsOnlyEnabledWhenTtlIsSet() throws Exception {
+
+        assertFalse(CachingExchangeAdapter.isCachingEnabled(new ExchangeConfigImpl()));
+        assertFalse(CachingExchangeAdapter.isCachingEnabled(createExchangeConfig()));
+
+        optionalConfigItems.put(CachingExchangeAdapter.EXCHANGE_FEES_TTL_PROPERTY_NAME, "0");
+        assertFalse(CachingExchangeAdapter.isCachingEnabled(createExchangeConfig()));
+
+        optionalConfigItems.put(CachingExchangeAdapter.EXCHANGE_FEES_TTL_PROPERTY_NAME, "3600");
+        assertTrue(CachingExchangeAdapter.isCachingEnabled(createExchangeConfig()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitFailsForNegativeTtl() throws Exception {
+        optionalConfigItems.put(CachingExchangeAdapter.BALANCE_INFO_TTL_PROPERTY_NAME, "-1");
+        createCachingAdapter();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitFailsForNonNumericTtl() throws Exception {
+        optionalConfigItems.put(CachingExchangeAdapter.BALANCE_INFO_TTL_PROPERTY_NAME, "1.5");
+        createCachingAdapter();
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    // Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    private CachingExchangeAdapter createCachingAdapter() {
+        final CachingExchangeAdapter cachingAdapter = new CachingExchangeAdapter(delegate, nanoClock::get);
+        cachingAdapter.init(createExchangeConfig());
+        return cachingAdapter;
+    }
+
+    private ExchangeConfig createExchangeConfig() {
+        final OptionalConfigImpl optionalConfig = new OptionalConfigImpl();
+        optionalConfig.setItems(optionalConfigItems);
+        final ExchangeConfigImpl exchangeConfig = new ExchangeConfigImpl();
+        exchangeConfig.setOptionalConfig(optionalConfig);
+        return exchangeConfig;
+    }
+
+    private void setAllTtls(String ttlSeconds) {
+        optionalConfigItems.put(CachingExchangeAdapter.LATEST_MARKET_PRICE_TTL_PROPERTY_NAME, ttlSeconds);
+        optionalConfigItems.put(CachingExchangeAdapter.MARKET_ORDERS_TTL_PROPERTY_NAME, ttlSeconds);
+        optionalConfigItems.put(CachingExchangeAdapter.BALANCE_INFO_TTL_PROPERTY_NAME, ttlSeconds);
+        optionalConfigItems.put(CachingExchangeAdapter.EXCHANGE_FEES_TTL_PROPERTY_NAME, ttlSeconds);
+    }
+
+    private static void readAll(CachingExchangeAdapter cachingAdapter, String marketId) throws Exception {
+        cachingAdapter.getLatestMarketPrice(marketId);
+        cachingAdapter.getMarketOrders(marketId);
+        cachingAdapter.getBalanceInfo();
+        cachingAdapter.getPercentageOfBuyOrderTakenForExchangeFee(marketId);
+        cachingAdapter.getPercentageOfSellOrderTakenForExchangeFee(marketId);
+    }
+
+    /**
+     * Hook called by the stub adapter during a call.
+     */
+    private interface CallHook {
+        void run() throws Exception;
+    }
+
+    /**
+     * Stub adapter that counts the calls made to it.
+     */
+    private static final class CountingExchangeAdapter implements ExchangeAdapter {
+
+        private final AtomicInteger initCount = new AtomicInteger();
+        private final AtomicInteger marketOrdersCount = new AtomicInteger();
+        private final AtomicInteger openOrdersCount = new AtomicInteger();
+        private final AtomicInteger latestMarketPriceCount = new AtomicInteger();
+        private final AtomicInteger balanceInfoCount = new AtomicInteger();
+        private final AtomicInteger buyFeeCount = new AtomicInteger();
+        private final AtomicInteger sellFeeCount = new AtomicInteger();
+        private volatile CallHook onGetLatestMarketPrice;
+
+        @Override
+        public void init(ExchangeConfig config) {
+            initCount.incrementAndGet();
+        }
+
+        @Override
+        public String getImplName() {
+            return "Counting Test Adapter";
+        }
+
+        @Override
+        public MarketOrderBook getMarketOrders(String marketId) {
+            marketOrdersCount.incrementAndGet();
+            return new MarketOrderBook(marketId, Collections.emptyList(), Collections.emptyList());
+        }
+
+        @Override
+        public List<OpenOrder> getYourOpenOrders(String marketId) {
+            openOrdersCount.incrementAndGet();
+            return Collections.emptyList();
+        }
+
+        @Override
+        public String createOrder(String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price) {
+            return "order-1";
+        }
+
+        @Override
+        public boolean cancelOrder(String orderId, String marketId) {
+            return true;
+        }
+
+        @Override
+        public BigDecimal getLatestMarketPrice(String marketId) throws ExchangeNetworkException {
+            latestMarketPriceCount.incrementAndGet();
+            final CallHook hook = onGetLatestMarketPrice;
+            if (hook != null) {
+                try {
+                    hook.run();
+                } catch (ExchangeNetworkException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return PRICE;
+        }
+
+        @Override
+        public BalanceInfo getBalanceInfo() {
+            balanceInfoCount.incrementAndGet();
+            return new BalanceInfo(Collections.emptyMap(), Collections.emptyMap());
+        }
+
+        @Override
+        public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId) {
+            buyFeeCount.incrementAndGet();
+            return new BigDecimal("0.0025");
+        }
+
+        @Override
+        public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId) {
+            sellFeeCount.incrementAndGet();
+            return new BigDecimal("0.0025");
+        }
+    }
+}
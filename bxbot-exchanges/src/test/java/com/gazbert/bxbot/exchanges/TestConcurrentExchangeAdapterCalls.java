@@ -0,0 +1,648 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchange.api.ExchangeConfig;
+import com.gazbert.bxbot.exchange.api.impl.AuthenticationConfigImpl;
+import com.gazbert.bxbot.exchange.api.impl.ExchangeConfigImpl;
+import com.gazbert.bxbot.exchange.api.impl.NetworkConfigImpl;
+import com.gazbert.bxbot.exchange.api.impl.OptionalConfigImpl;
+import com.gazbert.bxbot.exchanges.AbstractExchangeAdapter.ExchangeHttpResponse;
+import com.gazbert.bxbot.trading.api.OrderRequest;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Stress tests the Exchange Adapters being called by many threads at once, against canned exchange responses.
+ * <p>
+ * Each adapter must return the same results as it does when called on a single thread, sign every request correctly,
+ * and send its authenticated requests in nonce order.
+ * <p>
+ * The batch order calls must send their requests concurrently, not one after the other. The replace order call must
+ * only send the new order once the exchange has answered the cancel.
+ *
+ * @author gazbert
+ */
+public class TestConcurrentExchangeAdapterCalls {
+
+    private static final int CALLER_THREADS = 8;
+    private static final int CALLS_PER_THREAD = 50;
+
+    private static final String EXCHANGE_DATA = "./src/test/exchange-data/";
+
+    private static final String KEY = "key123";
+    private static final String SECRET = "notGonnaTellYa";
+    private static final String BASE64_SECRET = Base64.getEncoder().encodeToString(SECRET.getBytes(StandardCharsets.UTF_8));
+    private static final String CLIENT_ID = "clientId123";
+
+    private static final Pattern NONCE_PARAM = Pattern.compile("nonce=(\\d+)");
+    private static final Pattern NONCE_IN_JSON = Pattern.compile("\"nonce\":\"(\\d+)\"");
+    private static final Pattern SIGNATURE_PARAM = Pattern.compile("signature=([0-9A-F]+)");
+
+    private ExecutorService callers;
+
+
+    @Before
+    public void setup() throws Exception {
+        callers = Executors.newFixedThreadPool(CALLER_THREADS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        callers.shutdownNow();
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Nonce based adapters
+    // ------------------------------------------------------------------------------------------------
+
+    @Test
+    public void testBitfinexAdapterCanBeCalledConcurrently() throws Exception {
+
+        final CannedExchange exchange = new CannedExchange(cannedResponses(
+                "v1/book/", "bitfinex/book.json",
+                "v1/pubticker/", "bitfinex/pubticker.json",
+                "v1/orders", "bitfinex/orders.json",
+                "v1/balances", "bitfinex/balances.json",
+                "v1/account_infos", "bitfinex/account_infos.json"));
+
+        final BitfinexExchangeAdapter adapter = new BitfinexExchangeAdapter();
+        adapter.init(exchangeConfig(authenticationItems("key", KEY, "secret", SECRET), null));
+        adapter.setHttpTransport(exchange);
+
+        callConcurrently(adapter, "btcusd");
+
+        final List<CannedRequest> signedRequests = exchange.getRequestsWithHeader("X-BFX-SIGNATURE");
+        assertNoncesIncrease(signedRequests, request -> nonceInJson(request.headers.get("X-BFX-PAYLOAD")));
+        for (final CannedRequest request : signedRequests) {
+            assertEquals(hex(hmac("HmacSHA384", SECRET.getBytes(StandardCharsets.UTF_8),
+                    request.headers.get("X-BFX-PAYLOAD"))), request.headers.get("X-BFX-SIGNATURE"));
+        }
+    }
+
+    @Test
+    public void testBitstampAdapterCanBeCalledConcurrently() throws Exception {
+
+        final CannedExchange exchange = new CannedExchange(cannedResponses(
+                "v2/order_book/", "bitstamp/order_book.json",
+                "v2/ticker/", "bitstamp/ticker.json",
+                "v2/open_orders/", "bitstamp/open_orders.json",
+                "v2/balance/", "bitstamp/balance.json"));
+
+        final BitstampExchangeAdapter adapter = new BitstampExchangeAdapter();
+        adapter.init(exchangeConfig(authenticationItems("client-id", CLIENT_ID, "key", KEY, "secret", SECRET), null));
+        adapter.setHttpTransport(exchange);
+
+        callConcurrently(adapter, "btcusd");
+
+        final List<CannedRequest> signedRequests = exchange.getRequestsWithPostData("signature=");
+        assertNoncesIncrease(signedRequests, request -> find(NONCE_PARAM, request.postData));
+        for (final CannedRequest request : signedRequests) {
+            final String message = find(NONCE_PARAM, request.postData) + CLIENT_ID + KEY;
+            assertEquals(hex(hmac("HmacSHA256", SECRET.getBytes(StandardCharsets.UTF_8), message)).toUpperCase(),
+                    find(SIGNATURE_PARAM, request.postData));
+        }
+    }
+
+    @Test
+    public void testGeminiAdapterCanBeCalledConcurrently() throws Exception {
+
+        final CannedExchange exchange = new CannedExchange(cannedResponses(
+                "v1/book/", "gemini/book.json",
+                "v1/pubticker/", "gemini/pubticker.json",
+                "v1/orders", "gemini/orders.json",
+                "v1/balances", "gemini/balances.json"));
+
+        final GeminiExchangeAdapter adapter = new GeminiExchangeAdapter();
+        adapter.init(exchangeConfig(authenticationItems("key", KEY, "secret", SECRET), feeItems()));
+        adapter.setHttpTransport(exchange);
+
+        callConcurrently(adapter, "btcusd");
+
+        final List<CannedRequest> signedRequests = exchange.getRequestsWithHeader("X-GEMINI-SIGNATURE");
+        assertNoncesIncrease(signedRequests, request -> nonceInJson(request.headers.get("X-GEMINI-PAYLOAD")));
+        for (final CannedRequest request : signedRequests) {
+            assertEquals(hex(hmac("HmacSHA384", SECRET.getBytes(StandardCharsets.UTF_8),
+                    request.headers.get("X-GEMINI-PAYLOAD"))), request.headers.get("X-GEMINI-SIGNATURE"));
+        }
+    }
+
+    @Test
+    public void testItBitAdapterCanBeCalledConcurrently() throws Exception {
+
+        final CannedExchange exchange = new CannedExchange(cannedResponses(
+                "/order_book", "itbit/order_book.json",
+                "/ticker", "itbit/ticker.json",
+                "/orders", "itbit/orders.json",
+                "v1/wallets", "itbit/wallets.json"));
+
+        final Map<String, String> optionalItems = feeItems();
+        optionalItems.put("keep-alive-during-maintenance", "false");
+
+        final ItBitExchangeAdapter adapter = new ItBitExchangeAdapter();
+        adapter.init(exchangeConfig(authenticationItems("userId", "userId123", "key", KEY, "secret", SECRET),
+                optionalItems));
+        adapter.setHttpTransport(exchange);
+
+        callConcurrently(adapter, "XBTUSD");
+
+        assertNoncesIncrease(exchange.getRequestsWithHeader("X-Auth-Nonce"),
+                request -> request.headers.get("X-Auth-Nonce"));
+    }
+
+    @Test
+    public void testKrakenAdapterCanBeCalledConcurrently() throws Exception {
+
+        final CannedExchange exchange = new CannedExchange(cannedResponses(
+                "public/Depth", "kraken/Depth.json",
+                "public/Ticker", "kraken/Ticker.json",
+                "private/OpenOrders", "kraken/OpenOrders.json",
+                "private/Balance", "kraken/Balance.json"));
+
+        final Map<String, String> optionalItems = feeItems();
+        optionalItems.put("keep-alive-during-maintenance", "false");
+
+        final KrakenExchangeAdapter adapter = new KrakenExchangeAdapter();
+        adapter.init(exchangeConfig(authenticationItems("key", KEY, "secret", BASE64_SECRET), optionalItems));
+        adapter.setHttpTransport(exchange);
+
+        callConcurrently(adapter, "XBTUSD");
+
+        final List<CannedRequest> signedRequests = exchange.getRequestsWithHeader("API-Sign");
+        assertNoncesIncrease(signedRequests, request -> find(NONCE_PARAM, request.postData));
+        for (final CannedRequest request : signedRequests) {
+            final byte[] sha256OfNonceAndPostData = MessageDigest.getInstance("SHA-256").digest(
+                    (find(NONCE_PARAM, request.postData) + request.postData).getBytes(StandardCharsets.UTF_8));
+            final byte[] path = request.url.getPath().getBytes(StandardCharsets.UTF_8);
+            assertEquals(Base64.getEncoder().encodeToString(
+                    hmac("HmacSHA512", Base64.getDecoder().decode(BASE64_SECRET), path, sha256OfNonceAndPostData)),
+                    request.headers.get("API-Sign"));
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Other adapters
+    // ------------------------------------------------------------------------------------------------
+
+    @Test
+    public void testGdaxAdapterCanBeCalledConcurrently() throws Exception {
+
+        final CannedExchange exchange = new CannedExchange(cannedResponses(
+                "/book", "gdax/book.json",
+                "/ticker", "gdax/ticker.json",
+                ".com/orders", "gdax/orders.json",
+                ".com/accounts", "gdax/accounts.json"));
+
+        final GdaxExchangeAdapter adapter = new GdaxExchangeAdapter();
+        adapter.init(exchangeConfig(
+                authenticationItems("passphrase", "lePassPhrase", "key", KEY, "secret", BASE64_SECRET), feeItems()));
+        adapter.setHttpTransport(exchange);
+
+        callConcurrently(adapter, "BTC-GBP");
+
+        final List<CannedRequest> signedRequests = exchange.getRequestsWithHeader("CB-ACCESS-SIGN");
+        assertTrue(!signedRequests.isEmpty());
+        for (final CannedRequest request : signedRequests) {
+            final String message = request.headers.get("CB-ACCESS-TIMESTAMP") + request.httpMethod
+                    + request.url.getPath() + request.postData;
+            assertEquals(Base64.getEncoder().encodeToString(
+                    hmac("HmacSHA256", Base64.getDecoder().decode(BASE64_SECRET), message)),
+                    request.headers.get("CB-ACCESS-SIGN"));
+        }
+    }
+
+    @Test
+    public void testHuobiAdapterCanBeCalledConcurrently() throws Exception {
+
+        final CannedExchange exchange = new CannedExchange(cannedResponses(
+                "detail_btc", "huobi/detail_btc.json",
+                "ticker_btc", "huobi/ticker_btc.json",
+                "method=get_orders", "huobi/get_orders.json",
+                "method=get_account_info", "huobi/get_account_info.json"));
+
+        final Map<String, String> optionalItems = feeItems();
+        optionalItems.put("account-info-market", "usd");
+
+        final HuobiExchangeAdapter adapter = new HuobiExchangeAdapter();
+        adapter.init(exchangeConfig(authenticationItems("key", KEY, "secret", SECRET), optionalItems));
+        adapter.setHttpTransport(exchange);
+
+        callConcurrently(adapter, "BTC-USD");
+    }
+
+    @Test
+    public void testOkCoinAdapterCanBeCalledConcurrently() throws Exception {
+
+        final CannedExchange exchange = new CannedExchange(cannedResponses(
+                "depth.do", "okcoin/depth.json",
+                "ticker.do", "okcoin/ticker.json",
+                "order_info.do", "okcoin/order_info.json",
+                "userinfo.do", "okcoin/userinfo.json"));
+
+        final OkCoinExchangeAdapter adapter = new OkCoinExchangeAdapter();
+        adapter.init(exchangeConfig(authenticationItems("key", KEY, "secret", SECRET), feeItems()));
+        adapter.setHttpTransport(exchange);
+
+        callConcurrently(adapter, "btc_usd");
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Batch calls
+    // ------------------------------------------------------------------------------------------------
+
+    @Test
+    public void testBatchOrdersAreSentConcurrently() throws Exception {
+
+        final int batchSize = 4;
+        final CountDownLatch allOrdersSent = new CountDownLatch(batchSize);
+        final String newOrder = cannedResponses("orders", "gdax/new_buy_order.json").get("orders");
+
+        final GdaxExchangeAdapter adapter = new GdaxExchangeAdapter();
+        adapter.init(exchangeConfig(
+                authenticationItems("passphrase", "lePassPhrase", "key", KEY, "secret", BASE64_SECRET), feeItems()));
+        adapter.setHttpTransport((url, httpMethod, postData, requestHeaders) -> {
+            // Only answer once every order in the batch is in flight
+            allOrdersSent.countDown();
+            try {
+                if (!allOrdersSent.await(10, TimeUnit.SECONDS)) {
+                    return new ExchangeHttpResponse(504, "Gateway Timeout", "Orders were sent one at a time");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            return new ExchangeHttpResponse(200, "OK", newOrder);
+        });
+
+        final List<OrderRequest> orderRequests = new ArrayList<>();
+        for (int i = 1; i <= batchSize; i++) {
+            orderRequests.add(new OrderRequest("BTC-GBP", OrderType.BUY, new BigDecimal(i), new BigDecimal("280.18")));
+        }
+
+        assertEquals(Collections.nCopies(batchSize, "193d2ad9-e671-4d66-9211-7f75f6380231"),
+                adapter.createOrders(orderRequests));
+    }
+
+    @Test
+    public void testBatchOrderFailureIsThrownOnceEveryOrderHasBeenSent() throws Exception {
+
+        final String newOrder = cannedResponses("orders", "gdax/new_buy_order.json").get("orders");
+        final List<String> sentOrders = Collections.synchronizedList(new ArrayList<>());
+
+        final GdaxExchangeAdapter adapter = new GdaxExchangeAdapter();
+        adapter.init(exchangeConfig(
+                authenticationItems("passphrase", "lePassPhrase", "key", KEY, "secret", BASE64_SECRET), feeItems()));
+        adapter.setHttpTransport((url, httpMethod, postData, requestHeaders) -> {
+            sentOrders.add(postData);
+            return postData.contains("\"size\":\"2\"")
+                    ? new ExchangeHttpResponse(400, "Bad Request", "{\"message\":\"Insufficient funds\"}")
+                    : new ExchangeHttpResponse(200, "OK", newOrder);
+        });
+
+        final List<OrderRequest> orderRequests = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            orderRequests.add(new OrderRequest("BTC-GBP", OrderType.BUY, new BigDecimal(i), new BigDecimal("280.18")));
+        }
+
+        try {
+            adapter.createOrders(orderRequests);
+            fail("Expected the failed order to be thrown");
+        } catch (TradingApiException e) {
+            assertEquals(3, sentOrders.size());
+        }
+    }
+
+    @Test
+    public void testReplaceOrderSendsTheNewOrderOnceTheCancelHasBeenAnswered() throws Exception {
+
+        final String newOrder = cannedResponses("orders", "gdax/new_buy_order.json").get("orders");
+        final List<String> sentRequests = Collections.synchronizedList(new ArrayList<>());
+
+        final GdaxExchangeAdapter adapter = new GdaxExchangeAdapter();
+        adapter.init(exchangeConfig(
+                authenticationItems("passphrase", "lePassPhrase", "key", KEY, "secret", BASE64_SECRET), feeItems()));
+        adapter.setHttpTransport((url, httpMethod, postData, requestHeaders) -> {
+            sentRequests.add(httpMethod);
+            if ("DELETE".equals(httpMethod)) {
+                // Give the new order a chance to overtake the cancel
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+                sentRequests.add("DELETE answered");
+                return new ExchangeHttpResponse(200, "OK", "[\"old-order-id\"]");
+            }
+            return new ExchangeHttpResponse(200, "OK", newOrder);
+        });
+
+        assertEquals("193d2ad9-e671-4d66-9211-7f75f6380231", adapter.replaceOrder("old-order-id", "BTC-GBP",
+                OrderType.BUY, new BigDecimal("0.01"), new BigDecimal("280.18")));
+        assertEquals(Arrays.asList("DELETE", "DELETE answered", "POST"), sentRequests);
+    }
+
+    @Test
+    public void testReplaceOrderDoesNotPlaceTheNewOrderIfTheOldOneWasNotCancelled() throws Exception {
+
+        final List<String> sentRequests = Collections.synchronizedList(new ArrayList<>());
+
+        final GdaxExchangeAdapter adapter = new GdaxExchangeAdapter();
+        adapter.init(exchangeConfig(
+                authenticationItems("passphrase", "lePassPhrase", "key", KEY, "secret", BASE64_SECRET), feeItems()));
+        adapter.setHttpTransport((url, httpMethod, postData, requestHeaders) -> {
+            sentRequests.add(httpMethod);
+            // the old order has already been filled, so the exchange did not cancel it
+            return new ExchangeHttpResponse(200, "OK", "[\"some-other-order-id\"]");
+        });
+
+        assertNull(adapter.replaceOrder("old-order-id", "BTC-GBP", OrderType.BUY, new BigDecimal("0.01"),
+                new BigDecimal("280.18")));
+        assertEquals(Collections.singletonList("DELETE"), sentRequests);
+    }
+
+    @Test
+    public void testReplaceOrderThrowsTheNewOrderFailureOnceTheOldOneHasBeenCancelled() throws Exception {
+
+        final List<String> sentRequests = Collections.synchronizedList(new ArrayList<>());
+
+        final GdaxExchangeAdapter adapter = new GdaxExchangeAdapter();
+        adapter.init(exchangeConfig(
+                authenticationItems("passphrase", "lePassPhrase", "key", KEY, "secret", BASE64_SECRET), feeItems()));
+        adapter.setHttpTransport((url, httpMethod, postData, requestHeaders) -> {
+            sentRequests.add(httpMethod);
+            return "DELETE".equals(httpMethod)
+                    ? new ExchangeHttpResponse(200, "OK", "[\"old-order-id\"]")
+                    : new ExchangeHttpResponse(400, "Bad Request", "{\"message\":\"Insufficient funds\"}");
+        });
+
+        try {
+            adapter.replaceOrder("old-order-id", "BTC-GBP", OrderType.BUY, new BigDecimal("0.01"),
+                    new BigDecimal("280.18"));
+            fail("Expected the failed new order to be thrown");
+        } catch (TradingApiException e) {
+            assertEquals(Arrays.asList("DELETE", "POST"), sentRequests);
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    /*
+     * Makes the same calls from many threads at once, and checks each result matches the result of the call made on
+     * a single thread.
+     */
+    private void callConcurrently(AbstractExchangeAdapter adapter, String marketId) throws Exception {
+
+        final List<AbstractExchangeAdapter.TradingApiCall<Object>> calls = new ArrayList<>();
+        calls.add(() -> adapter.getMarketOrders(marketId));
+        calls.add(() -> adapter.getLatestMarketPrice(marketId));
+        calls.add(() -> adapter.getYourOpenOrders(marketId));
+        calls.add(() -> adapter.getBalanceInfo());
+        calls.add(() -> adapter.getPercentageOfBuyOrderTakenForExchangeFee(marketId));
+
+        final List<String> expectedResults = new ArrayList<>();
+        for (final AbstractExchangeAdapter.TradingApiCall<Object> call : calls) {
+            expectedResults.add(String.valueOf(call.call()));
+        }
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> callerResults = new ArrayList<>();
+        for (int i = 0; i < CALLER_THREADS; i++) {
+            final int firstCall = i;
+            callerResults.add(callers.submit(() -> {
+                start.await();
+                for (int callNumber = firstCall; callNumber < firstCall + CALLS_PER_THREAD; callNumber++) {
+                    final int callIndex = callNumber % calls.size();
+                    assertEquals(expectedResults.get(callIndex), String.valueOf(calls.get(callIndex).call()));
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (final Future<?> callerResult : callerResults) {
+            callerResult.get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void assertNoncesIncrease(List<CannedRequest> signedRequests, NonceReader nonceReader) {
+
+        assertTrue(signedRequests.size() > CALLER_THREADS);
+        long previousNonce = -1;
+        for (final CannedRequest request : signedRequests) {
+            final long nonce = Long.parseLong(nonceReader.readNonce(request));
+            if (nonce <= previousNonce) {
+                fail("Nonce " + nonce + " reached the exchange after nonce " + previousNonce);
+            }
+            previousNonce = nonce;
+        }
+    }
+
+    private static String nonceInJson(String base64Payload) {
+        return find(NONCE_IN_JSON, new String(Base64.getDecoder().decode(base64Payload), StandardCharsets.UTF_8));
+    }
+
+    private static String find(Pattern pattern, String text) {
+        final Matcher matcher = pattern.matcher(text);
+        assertTrue("No " + pattern + " in " + text, matcher.find());
+        return matcher.group(1);
+    }
+
+    private static byte[] hmac(String algorithm, byte[] secret, String message) throws Exception {
+        return hmac(algorithm, secret, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] hmac(String algorithm, byte[] secret, byte[]... messageParts) throws Exception {
+        final Mac mac = Mac.getInstance(algorithm);
+        mac.init(new SecretKeySpec(secret, algorithm));
+        for (final byte[] messagePart : messageParts) {
+            mac.update(messagePart);
+        }
+        return mac.doFinal();
+    }
+
+    private static String hex(byte[] bytes) {
+        final StringBuilder hex = new StringBuilder();
+        for (final byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static Map<String, String> cannedResponses(String... urlPartsAndFiles) throws IOException {
+        final Map<String, String> responses = new LinkedHashMap<>();
+        for (int i = 0; i < urlPartsAndFiles.length; i += 2) {
+            responses.put(urlPartsAndFiles[i],
+                    new String(Files.readAllBytes(Paths.get(EXCHANGE_DATA + urlPartsAndFiles[i + 1])),
+                            StandardCharsets.UTF_8));
+        }
+        return responses;
+    }
+
+    private static Map<String, String> authenticationItems(String... namesAndValues) {
+        final Map<String, String> items = new HashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            items.put(namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return items;
+    }
+
+    private static Map<String, String> feeItems() {
+        final Map<String, String> items = new HashMap<>();
+        items.put("buy-fee", "0.25");
+        items.put("sell-fee", "0.25");
+        return items;
+    }
+
+    private static ExchangeConfig exchangeConfig(Map<String, String> authenticationItems,
+                                                 Map<String, String> optionalItems) {
+
+        final AuthenticationConfigImpl authenticationConfig = new AuthenticationConfigImpl();
+        authenticationConfig.setItems(authenticationItems);
+
+        final NetworkConfigImpl networkConfig = new NetworkConfigImpl();
+        networkConfig.setConnectionTimeout(30);
+        networkConfig.setNonFatalErrorCodes(Collections.emptyList());
+        networkConfig.setNonFatalErrorMessages(Collections.emptyList());
+
+        final ExchangeConfigImpl exchangeConfig = new ExchangeConfigImpl();
+        exchangeConfig.setAuthenticationConfig(authenticationConfig);
+        exchangeConfig.setNetworkConfig(networkConfig);
+        if (optionalItems != null) {
+            final OptionalConfigImpl optionalConfig = new OptionalConfigImpl();
+            optionalConfig.setItems(optionalItems);
+            exchangeConfig.setOptionalConfig(optionalConfig);
+        }
+        return exchangeConfig;
+    }
+
+    private interface NonceReader {
+        String readNonce(CannedRequest request);
+    }
+
+    private static class CannedRequest {
+
+        private final URL url;
+        private final String httpMethod;
+        private final String postData;
+        private final Map<String, String> headers;
+
+        CannedRequest(URL url, String httpMethod, String postData, Map<String, String> headers) {
+            this.url = url;
+            this.httpMethod = httpMethod;
+            this.postData = postData == null ? "" : postData;
+            this.headers = headers == null ? Collections.emptyMap() : new HashMap<>(headers);
+        }
+    }
+
+    /*
+     * Answers each request with the canned response for the first URL part (or post data part) it contains, and
+     * records the requests in the order they arrived.
+     */
+    private static class CannedExchange implements ExchangeHttpTransport {
+
+        private final Map<String, String> responses;
+        private final List<CannedRequest> requests = new ArrayList<>();
+
+        CannedExchange(Map<String, String> responses) {
+            this.responses = responses;
+        }
+
+        @Override
+        public ExchangeHttpResponse open(URL url, String httpMethod, String postData,
+                                         Map<String, String> requestHeaders) throws IOException {
+
+            final CannedRequest request = new CannedRequest(url, httpMethod, postData, requestHeaders);
+            synchronized (this) {
+                requests.add(request);
+            }
+
+            // Give the other callers a chance to overtake this request
+            Thread.yield();
+
+            for (final Map.Entry<String, String> response : responses.entrySet()) {
+                if (url.toString().contains(response.getKey()) || request.postData.contains(response.getKey())) {
+                    return new ExchangeHttpResponse(200, "OK", response.getValue());
+                }
+            }
+            return new ExchangeHttpResponse(404, "Not Found", "No canned response for " + url);
+        }
+
+        synchronized List<CannedRequest> getRequestsWithHeader(String headerName) {
+            final List<CannedRequest> matchingRequests = new ArrayList<>();
+            for (final CannedRequest request : requests) {
+                if (request.headers.containsKey(headerName)) {
+                    matchingRequests.add(request);
+                }
+            }
+            return matchingRequests;
+        }
+
+        synchronized List<CannedRequest> getRequestsWithPostData(String postDataPart) {
+            final List<CannedRequest> matchingRequests = new ArrayList<>();
+            for (final CannedRequest request : requests) {
+                if (request.postData.contains(postDataPart)) {
+                    matchingRequests.add(request);
+                }
+            }
+            return matchingRequests;
+        }
+    }
+}
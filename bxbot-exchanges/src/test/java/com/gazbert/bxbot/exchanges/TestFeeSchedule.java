@@ -0,0 +1,198 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the Fee Schedule serves fees from memory and refreshes them in the background.
+ *
+ * @author gazbert
+ */
+public class TestFeeSchedule {
+
+    private static final String MARKET_ID = "btcusd";
+    private static final long REFRESH_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(60);
+
+    private static final BigDecimal OLD_FEE = new BigDecimal("0.0025");
+    private static final BigDecimal NEW_FEE = new BigDecimal("0.0020");
+
+    private AtomicLong nanoClock;
+    private AtomicInteger loadCount;
+    private Queue<Runnable> backgroundRefreshes;
+    private volatile Map<String, BigDecimal> exchangeFees;
+    private volatile boolean exchangeDown;
+
+
+    @Before
+    public void setup() throws Exception {
+        nanoClock = new AtomicLong();
+        loadCount = new AtomicInteger();
+        backgroundRefreshes = new ArrayDeque<>();
+        exchangeFees = Collections.singletonMap(MARKET_ID, OLD_FEE);
+        exchangeDown = false;
+    }
+
+    @Test
+    public void testFeesAreLoadedOnFirstLookupThenServedFromMemory() throws Exception {
+
+        final FeeSchedule feeSchedule = createFeeSchedule();
+        assertEquals(0, loadCount.get());
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(OLD_FEE, feeSchedule.getFee(MARKET_ID));
+        }
+        assertEquals(1, loadCount.get());
+        assertTrue(backgroundRefreshes.isEmpty());
+    }
+
+    @Test
+    public void testStaleFeesAreRefreshedInBackground() throws Exception {
+
+        final FeeSchedule feeSchedule = createFeeSchedule();
+        feeSchedule.getFee(MARKET_ID);
+        exchangeFees = Collections.singletonMap(MARKET_ID, NEW_FEE);
+
+        nanoClock.addAndGet(REFRESH_INTERVAL_NANOS);
+        assertEquals(OLD_FEE, feeSchedule.getFee(MARKET_ID));
+        assertEquals(OLD_FEE, feeSchedule.getFee(MARKET_ID));
+        assertEquals("Only 1 refresh should be started at a time", 1, backgroundRefreshes.size());
+
+        backgroundRefreshes.remove().run();
+        assertEquals(NEW_FEE, feeSchedule.getFee(MARKET_ID));
+        assertEquals(2, loadCount.get());
+        assertTrue(backgroundRefreshes.isEmpty());
+    }
+
+    @Test
+    public void testFailedRefreshKeepsCurrentFeesAndIsRetriedLater() throws Exception {
+
+        final FeeSchedule feeSchedule = createFeeSchedule();
+        feeSchedule.getFee(MARKET_ID);
+
+        exchangeDown = true;
+        nanoClock.addAndGet(REFRESH_INTERVAL_NANOS);
+        feeSchedule.getFee(MARKET_ID);
+        backgroundRefreshes.remove().run();
+
+        assertEquals(OLD_FEE, feeSchedule.getFee(MARKET_ID));
+        assertTrue("Refresh should not be retried straight away", backgroundRefreshes.isEmpty());
+
+        exchangeDown = false;
+        exchangeFees = Collections.singletonMap(MARKET_ID, NEW_FEE);
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        feeSchedule.getFee(MARKET_ID);
+        backgroundRefreshes.remove().run();
+
+        assertEquals(NEW_FEE, feeSchedule.getFee(MARKET_ID));
+        assertEquals(3, loadCount.get());
+    }
+
+    @Test
+    public void testUpdatedFeesAreUsedWithoutLoading() throws Exception {
+
+        final FeeSchedule feeSchedule = createFeeSchedule();
+        feeSchedule.update(Collections.singletonMap(MARKET_ID, NEW_FEE));
+        assertEquals(NEW_FEE, feeSchedule.getFee(MARKET_ID));
+
+        // An update also resets the refresh interval
+        nanoClock.addAndGet(REFRESH_INTERVAL_NANOS - 1);
+        feeSchedule.update(Collections.singletonMap(MARKET_ID, OLD_FEE));
+        nanoClock.addAndGet(1);
+        assertEquals(OLD_FEE, feeSchedule.getFee(MARKET_ID));
+
+        feeSchedule.update(Collections.emptyMap());
+        assertEquals(OLD_FEE, feeSchedule.getFee(MARKET_ID));
+
+        assertEquals(0, loadCount.get());
+        assertTrue(backgroundRefreshes.isEmpty());
+    }
+
+    @Test
+    public void testFeeForAnyMarketIsUsedWhenMarketHasNoFeeOfItsOwn() throws Exception {
+
+        final Map<String, BigDecimal> fees = new HashMap<>();
+        fees.put(MARKET_ID, OLD_FEE);
+        fees.put(FeeSchedule.ANY_MARKET, NEW_FEE);
+        exchangeFees = fees;
+
+        final FeeSchedule feeSchedule = createFeeSchedule();
+        assertEquals(OLD_FEE, feeSchedule.getFee(MARKET_ID));
+        assertEquals(NEW_FEE, feeSchedule.getFee("ltcusd"));
+    }
+
+    @Test(expected = TradingApiException.class)
+    public void testUnknownMarketThrowsTradingApiException() throws Exception {
+        createFeeSchedule().getFee("ltcusd");
+    }
+
+    @Test
+    public void testFailedFirstLoadIsNotCached() throws Exception {
+
+        final FeeSchedule feeSchedule = createFeeSchedule();
+        exchangeDown = true;
+        try {
+            feeSchedule.getFee(MARKET_ID);
+            fail("Expected ExchangeNetworkException");
+        } catch (ExchangeNetworkException e) {
+            assertEquals(1, loadCount.get());
+        }
+
+        exchangeDown = false;
+        assertEquals(OLD_FEE, feeSchedule.getFee(MARKET_ID));
+        assertEquals(2, loadCount.get());
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    // Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    private FeeSchedule createFeeSchedule() {
+        return new FeeSchedule(() -> {
+            loadCount.incrementAndGet();
+            if (exchangeDown) {
+                throw new ExchangeNetworkException("Connection refused");
+            }
+            return exchangeFees;
+        }, backgroundRefreshes::add, REFRESH_INTERVAL_NANOS, nanoClock::get);
+    }
+}
@@ -40,6 +40,7 @@ import java.nio.file.Paths;
 import java.text.DecimalFormat;
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -78,6 +79,9 @@ public class TestGdaxExchangeAdapter {
     private static final String NEW_BUY_ORDER_JSON_RESPONSE = "./src/test/exchange-data/gdax/new_buy_order.json";
     private static final String NEW_SELL_ORDER_JSON_RESPONSE = "./src/test/exchange-data/gdax/new_sell_order.json";
     private static final String CANCEL_ORDER_JSON_RESPONSE = "./src/test/exchange-data/gdax/cancel.json";
+    private static final String CANCEL_ALL_ORDERS_JSON_RESPONSE = "./src/test/exchange-data/gdax/cancel_all.json";
+    private static final String ORDER_JSON_RESPONSE = "./src/test/exchange-data/gdax/order.json";
+    private static final String ORDER_NOT_FOUND_JSON_RESPONSE = "./src/test/exchange-data/gdax/order_not_found.json";
 
     // Canned test data
     private static final String MARKET_ID = "BTC-GBP";
@@ -95,6 +99,8 @@ public class TestGdaxExchangeAdapter {
     private static final String TICKER = "products/" + MARKET_ID + "/ticker";
     private static final String NEW_ORDER = "orders";
     private static final String CANCEL_ORDER = "orders/" + ORDER_ID_TO_CANCEL;
+    private static final String CANCEL_ALL_ORDERS = "orders?product_id=" + MARKET_ID;
+    private static final String ORDER_STATUS = "orders/" + ORDER_ID_TO_CANCEL;
 
     // Mocked out methods
     private static final String MOCKED_GET_REQUEST_PARAM_MAP_METHOD = "getRequestParamMap";
@@ -128,12 +134,17 @@ public class TestGdaxExchangeAdapter {
 
         networkConfig = PowerMock.createMock(NetworkConfig.class);
         expect(networkConfig.getConnectionTimeout()).andReturn(30);
+        expect(networkConfig.getReadTimeout()).andReturn(null);
+        expect(networkConfig.getConnectionPoolSize()).andReturn(null);
+        expect(networkConfig.getConnectionIdleTimeout()).andReturn(null);
         expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
         expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+        expect(networkConfig.getRateLimits()).andReturn(Collections.emptyList());
 
         optionalConfig = PowerMock.createMock(OptionalConfig.class);
         expect(optionalConfig.getItem("buy-fee")).andReturn("0.25");
         expect(optionalConfig.getItem("sell-fee")).andReturn("0.25");
+        expect(optionalConfig.getItem("order-book-feed")).andReturn(null);
 
         exchangeConfig = PowerMock.createMock(ExchangeConfig.class);
         expect(exchangeConfig.getAuthenticationConfig()).andReturn(authenticationConfig);
@@ -314,6 +325,116 @@ public class TestGdaxExchangeAdapter {
         PowerMock.verifyAll();
     }
 
+    @Test
+    public void testCancelAllOrdersIsSuccessful() throws Exception {
+
+        // Load the canned response from the exchange
+        final byte[] encoded = Files.readAllBytes(Paths.get(CANCEL_ALL_ORDERS_JSON_RESPONSE));
+        final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+                new AbstractExchangeAdapter.ExchangeHttpResponse(200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+        // Partial mock so we do not send stuff down the wire
+        final GdaxExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
+                GdaxExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD, eq("DELETE"),
+                eq(CANCEL_ALL_ORDERS), eq(null)).andReturn(exchangeResponse);
+
+        PowerMock.replayAll();
+        exchangeAdapter.init(exchangeConfig);
+
+        final List<String> cancelledOrderIds = exchangeAdapter.cancelAllOrders(MARKET_ID);
+        assertTrue(cancelledOrderIds.size() == 2);
+        assertTrue(cancelledOrderIds.get(0).equals("144c6f8e-713f-4682-8435-5280fbe8b2b4"));
+        assertTrue(cancelledOrderIds.get(1).equals("debe4907-95dc-442f-af3b-cec12f42ebda"));
+        PowerMock.verifyAll();
+    }
+
+    @Test(expected = ExchangeNetworkException.class)
+    public void testCancelAllOrdersHandlesExchangeNetworkException() throws Exception {
+
+        // Partial mock so we do not send stuff down the wire
+        final GdaxExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
+                GdaxExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD, eq("DELETE"),
+                eq(CANCEL_ALL_ORDERS), eq(null)).andThrow(
+                new ExchangeNetworkException("Roads? Where we're going, we don't need roads."));
+
+        PowerMock.replayAll();
+        exchangeAdapter.init(exchangeConfig);
+
+        exchangeAdapter.cancelAllOrders(MARKET_ID);
+        PowerMock.verifyAll();
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Get Order Status tests
+    // ------------------------------------------------------------------------------------------------
+
+    @Test
+    public void testGettingOrderStatusSuccessfully() throws Exception {
+
+        // Load the canned response from the exchange
+        final byte[] encoded = Files.readAllBytes(Paths.get(ORDER_JSON_RESPONSE));
+        final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+                new AbstractExchangeAdapter.ExchangeHttpResponse(200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+        // Partial mock so we do not send stuff down the wire
+        final GdaxExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
+                GdaxExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD, eq("GET"),
+                eq(ORDER_STATUS), eq(null)).andReturn(exchangeResponse);
+
+        PowerMock.replayAll();
+        exchangeAdapter.init(exchangeConfig);
+
+        // marketId arg not needed for order status lookups on this exchange.
+        final OrderStatus orderStatus = exchangeAdapter.getOrderStatus(ORDER_ID_TO_CANCEL, null);
+        assertTrue(orderStatus == OrderStatus.FILLED);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testGettingOrderStatusReturnsCancelledIfOrderIsNotFound() throws Exception {
+
+        // Load the canned response from the exchange
+        final byte[] encoded = Files.readAllBytes(Paths.get(ORDER_NOT_FOUND_JSON_RESPONSE));
+
+        PowerMock.replayAll();
+        final GdaxExchangeAdapter exchangeAdapter = new GdaxExchangeAdapter();
+        exchangeAdapter.init(exchangeConfig);
+
+        // Exchange returns a 404 once it has purged a cancelled order that had no fills
+        exchangeAdapter.setHttpTransport((url, httpMethod, postData, requestHeaders) ->
+                new AbstractExchangeAdapter.ExchangeHttpResponse(404, "Not Found",
+                        new String(encoded, StandardCharsets.UTF_8)));
+
+        // marketId arg not needed for order status lookups on this exchange.
+        final OrderStatus orderStatus = exchangeAdapter.getOrderStatus(ORDER_ID_TO_CANCEL, null);
+        assertTrue(orderStatus == OrderStatus.CANCELLED);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test(expected = ExchangeNetworkException.class)
+    public void testGettingOrderStatusHandlesExchangeNetworkException() throws Exception {
+
+        // Partial mock so we do not send stuff down the wire
+        final GdaxExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
+                GdaxExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD, eq("GET"),
+                eq(ORDER_STATUS), eq(null)).andThrow(
+                new ExchangeNetworkException("I find your lack of faith disturbing."));
+
+        PowerMock.replayAll();
+        exchangeAdapter.init(exchangeConfig);
+
+        exchangeAdapter.getOrderStatus(ORDER_ID_TO_CANCEL, null);
+        PowerMock.verifyAll();
+    }
+
     // ------------------------------------------------------------------------------------------------
     //  Get Your Open Orders tests
     // ------------------------------------------------------------------------------------------------
@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the GDAX order book feed against a local WebSocket server replaying recorded level2 frames.
+ *
+ * @author gazbert
+ */
+public class TestGdaxOrderBookFeed {
+
+    private static final String LEVEL2_FRAMES = "./src/test/exchange-data/gdax/websocket_level2.txt";
+    private static final String MARKET_ID = "BTC-GBP";
+
+    private WebSocketStubServer server;
+    private GdaxOrderBookFeed feed;
+
+
+    @Before
+    public void setupForEachTest() throws Exception {
+        server = new WebSocketStubServer("\"subscribe\"",
+                Collections.singletonList(WebSocketStubServer.recordedFrames(LEVEL2_FRAMES)));
+        feed = new GdaxOrderBookFeed(server.getUri(), 2, 5);
+    }
+
+    @After
+    public void tearDownAfterEachTest() throws Exception {
+        feed.close();
+        server.close();
+    }
+
+    @Test
+    public void testOrderBookIsBuiltFromSnapshotAndUpdates() throws Exception {
+
+        assertNull(feed.getMarketOrders(MARKET_ID, 10)); // subscribes
+
+        final MarketOrderBook orderBook = WebSocketStubServer.await(() -> {
+            final MarketOrderBook book = feed.getMarketOrders(MARKET_ID, 10);
+            return book != null && book.getSellOrders().size() == 2 ? book : null;
+        });
+
+        assertEquals(MARKET_ID, orderBook.getMarketId());
+        assertEquals(4, orderBook.getBuyOrders().size());
+        assertEquals(0, orderBook.getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("3100.50")));
+        assertEquals(0, orderBook.getBuyOrders().get(0).getQuantity().compareTo(new BigDecimal("0.4")));
+        assertEquals(0, orderBook.getBuyOrders().get(1).getPrice().compareTo(new BigDecimal("3100.01")));
+        assertEquals(0, orderBook.getBuyOrders().get(2).getQuantity().compareTo(new BigDecimal("1.25")));
+        assertEquals(0, orderBook.getSellOrders().get(0).getPrice().compareTo(new BigDecimal("3101.50")));
+
+        assertEquals(1, feed.getMarketOrders(MARKET_ID, 1).getBuyOrders().size());
+
+        final String subscribe = server.getMessagesReceived().get(0);
+        assertTrue(subscribe.contains("\"product_ids\":[\"BTC-GBP\"]"));
+        assertTrue(subscribe.contains("\"level2\""));
+    }
+
+    @Test
+    public void testFeedReconnectsAndResubscribesWhenConnectionDrops() throws Exception {
+
+        feed.getMarketOrders(MARKET_ID, 10);
+        WebSocketStubServer.await(() -> feed.getMarketOrders(MARKET_ID, 10));
+
+        server.dropConnections();
+        WebSocketStubServer.await(() -> feed.getMarketOrders(MARKET_ID, 10) == null ? true : null);
+
+        final MarketOrderBook orderBook = WebSocketStubServer.await(() -> feed.getMarketOrders(MARKET_ID, 10));
+        assertEquals(2, server.getConnectionCount());
+        assertEquals(2, server.getMessagesReceived().size());
+        assertEquals(0, orderBook.getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("3100.50")));
+    }
+}
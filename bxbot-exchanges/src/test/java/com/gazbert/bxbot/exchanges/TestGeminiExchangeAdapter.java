@@ -42,6 +42,7 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.text.DecimalFormat;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -123,8 +124,12 @@ public class TestGeminiExchangeAdapter {
 
         networkConfig = PowerMock.createMock(NetworkConfig.class);
         expect(networkConfig.getConnectionTimeout()).andReturn(30);
+        expect(networkConfig.getReadTimeout()).andReturn(null);
+        expect(networkConfig.getConnectionPoolSize()).andReturn(null);
+        expect(networkConfig.getConnectionIdleTimeout()).andReturn(null);
         expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
         expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+        expect(networkConfig.getRateLimits()).andReturn(Collections.emptyList());
 
         optionalConfig = PowerMock.createMock(OptionalConfig.class);
         expect(optionalConfig.getItem("buy-fee")).andReturn("0.25");
@@ -364,6 +369,39 @@ public class TestGeminiExchangeAdapter {
         PowerMock.verifyAll();
     }
 
+    @Test
+    public void testCancelOrderReturnsFalseIfOrderIdIsNotRecognised() throws Exception {
+
+        PowerMock.replayAll();
+        final GeminiExchangeAdapter exchangeAdapter = new GeminiExchangeAdapter();
+        exchangeAdapter.init(exchangeConfig);
+
+        // Exchange returns a 400 if the order id was not recognised
+        exchangeAdapter.setHttpTransport((url, httpMethod, postData, requestHeaders) ->
+                new AbstractExchangeAdapter.ExchangeHttpResponse(400, "Bad Request",
+                        "{\"message\":\"Order could not be cancelled.\"}"));
+
+        // marketId arg not needed for cancelling orders on this exchange.
+        assertFalse(exchangeAdapter.cancelOrder(ORDER_ID_TO_CANCEL, null));
+
+        PowerMock.verifyAll();
+    }
+
+    @Test(expected = TradingApiException.class)
+    public void testCancelOrderThrowsTradingApiExceptionForOtherErrorStatuses() throws Exception {
+
+        PowerMock.replayAll();
+        final GeminiExchangeAdapter exchangeAdapter = new GeminiExchangeAdapter();
+        exchangeAdapter.init(exchangeConfig);
+
+        exchangeAdapter.setHttpTransport((url, httpMethod, postData, requestHeaders) ->
+                new AbstractExchangeAdapter.ExchangeHttpResponse(401, "Unauthorized",
+                        "{\"message\":\"Invalid API key.\"}"));
+
+        exchangeAdapter.cancelOrder(ORDER_ID_TO_CANCEL, null);
+        PowerMock.verifyAll();
+    }
+
     @Test(expected = ExchangeNetworkException.class)
     public void testCancelOrderHandlesExchangeNetworkException() throws Exception {
 
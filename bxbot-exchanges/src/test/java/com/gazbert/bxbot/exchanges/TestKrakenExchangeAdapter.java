@@ -39,6 +39,7 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.text.DecimalFormat;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -80,6 +81,8 @@ public class TestKrakenExchangeAdapter {
     private static final String ADD_ORDER_ERROR_JSON_RESPONSE = "./src/test/exchange-data/kraken/AddOrder-error.json";
     private static final String CANCEL_ORDER_JSON_RESPONSE = "./src/test/exchange-data/kraken/CancelOrder.json";
     private static final String CANCEL_ORDER_ERROR_JSON_RESPONSE = "./src/test/exchange-data/kraken/CancelOrder-error.json";
+    private static final String QUERY_ORDERS_JSON_RESPONSE = "./src/test/exchange-data/kraken/QueryOrders.json";
+    private static final String QUERY_ORDERS_ERROR_JSON_RESPONSE = "./src/test/exchange-data/kraken/QueryOrders-error.json";
 
     // Exchange API calls
     private static final String DEPTH = "Depth";
@@ -88,6 +91,7 @@ public class TestKrakenExchangeAdapter {
     private static final String OPEN_ORDERS = "OpenOrders";
     private static final String ADD_ORDER = "AddOrder";
     private static final String CANCEL_ORDER = "CancelOrder";
+    private static final String QUERY_ORDERS = "QueryOrders";
 
     // Canned test data
     // Market id must be the same as the Asset Pair id. See: https://www.kraken.com/help/api#get-tradable-pairs
@@ -128,8 +132,12 @@ public class TestKrakenExchangeAdapter {
 
         networkConfig = PowerMock.createMock(NetworkConfig.class);
         expect(networkConfig.getConnectionTimeout()).andReturn(30);
+        expect(networkConfig.getReadTimeout()).andReturn(null);
+        expect(networkConfig.getConnectionPoolSize()).andReturn(null);
+        expect(networkConfig.getConnectionIdleTimeout()).andReturn(null);
         expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
         expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+        expect(networkConfig.getRateLimits()).andReturn(Collections.emptyList());
 
         optionalConfig = PowerMock.createMock(OptionalConfig.class);
         expect(optionalConfig.getItem("buy-fee")).andReturn("0.1");
@@ -264,10 +272,127 @@ public class TestKrakenExchangeAdapter {
         PowerMock.verifyAll();
     }
 
+    // ------------------------------------------------------------------------------------------------
+    //  Get Order Status tests
+    // ------------------------------------------------------------------------------------------------
+
+    @Test
+    public void testGettingOrderStatusSuccessfully() throws Exception {
+
+        // Load the canned response from the exchange
+        final byte[] encoded = Files.readAllBytes(Paths.get(QUERY_ORDERS_JSON_RESPONSE));
+        final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+                new AbstractExchangeAdapter.ExchangeHttpResponse(200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+        // Mock out param map so we can assert the contents passed to the transport layer are what we expect.
+        final Map<String, String> requestParamMap = PowerMock.createMock(Map.class);
+        expect(requestParamMap.put("txid", ORDER_ID_TO_CANCEL)).andStubReturn(null);
+
+        // Partial mock so we do not send stuff down the wire
+        final KrakenExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
+                KrakenExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+                MOCKED_GET_REQUEST_PARAM_MAP_METHOD);
+
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_GET_REQUEST_PARAM_MAP_METHOD).andReturn(requestParamMap);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD, eq(QUERY_ORDERS),
+                eq(requestParamMap)).andReturn(exchangeResponse);
+
+        PowerMock.replayAll();
+        exchangeAdapter.init(exchangeConfig);
+
+        // marketId arg not needed for order status lookups on this exchange.
+        final OrderStatus orderStatus = exchangeAdapter.getOrderStatus(ORDER_ID_TO_CANCEL, null);
+        assertTrue(orderStatus == OrderStatus.FILLED);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test(expected = TradingApiException.class)
+    public void testGettingOrderStatusHandlesErrorResponse() throws Exception {
+
+        // Load the canned response from the exchange
+        final byte[] encoded = Files.readAllBytes(Paths.get(QUERY_ORDERS_ERROR_JSON_RESPONSE));
+        final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+                new AbstractExchangeAdapter.ExchangeHttpResponse(200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+        // Mock out param map so we can assert the contents passed to the transport layer are what we expect.
+        final Map<String, String> requestParamMap = PowerMock.createMock(Map.class);
+        expect(requestParamMap.put("txid", ORDER_ID_TO_CANCEL)).andStubReturn(null);
+
+        // Partial mock so we do not send stuff down the wire
+        final KrakenExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
+                KrakenExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+                MOCKED_GET_REQUEST_PARAM_MAP_METHOD);
+
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_GET_REQUEST_PARAM_MAP_METHOD).andReturn(requestParamMap);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD, eq(QUERY_ORDERS),
+                eq(requestParamMap)).andReturn(exchangeResponse);
+
+        PowerMock.replayAll();
+        exchangeAdapter.init(exchangeConfig);
+
+        exchangeAdapter.getOrderStatus(ORDER_ID_TO_CANCEL, null);
+        PowerMock.verifyAll();
+    }
+
+    @Test(expected = ExchangeNetworkException.class)
+    public void testGettingOrderStatusHandlesExchangeNetworkException() throws Exception {
+
+        // Partial mock so we do not send stuff down the wire
+        final KrakenExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
+                KrakenExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD, eq(QUERY_ORDERS),
+                anyObject(Map.class)).
+                andThrow(new ExchangeNetworkException("Never tell me the odds!"));
+
+        PowerMock.replayAll();
+        exchangeAdapter.init(exchangeConfig);
+
+        exchangeAdapter.getOrderStatus(ORDER_ID_TO_CANCEL, null);
+        PowerMock.verifyAll();
+    }
+
     // ------------------------------------------------------------------------------------------------
     //  Get Your Open Orders tests
     // ------------------------------------------------------------------------------------------------
 
+    @Test
+    public void testGettingMarketOrdersToDepthSuccessfully() throws Exception {
+
+        // Load the canned response from the exchange
+        final byte[] encoded = Files.readAllBytes(Paths.get(DEPTH_JSON_RESPONSE));
+        final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+                new AbstractExchangeAdapter.ExchangeHttpResponse(200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+        // Mock out param map so we can assert the depth is passed to the exchange
+        final Map<String, String> requestParamMap = PowerMock.createMock(Map.class);
+        expect(requestParamMap.put("pair", MARKET_ID)).andStubReturn(null);
+        expect(requestParamMap.put("count", "10")).andReturn(null);
+
+        // Partial mock so we do not send stuff down the wire
+        final KrakenExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
+                KrakenExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
+                MOCKED_GET_REQUEST_PARAM_MAP_METHOD);
+
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_GET_REQUEST_PARAM_MAP_METHOD).andReturn(requestParamMap);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, eq(DEPTH),
+                eq(requestParamMap)).andReturn(exchangeResponse);
+
+        PowerMock.replayAll();
+        exchangeAdapter.init(exchangeConfig);
+
+        final MarketOrderBook marketOrderBook = exchangeAdapter.getMarketOrders(MARKET_ID, 10);
+
+        // canned response has 100 levels; the adapter only builds the levels asked for
+        assertTrue(marketOrderBook.getBuyOrders().size() == 10);
+        assertTrue(marketOrderBook.getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("662.55000")) == 0);
+        assertTrue(marketOrderBook.getSellOrders().size() == 10);
+        assertTrue(marketOrderBook.getSellOrders().get(0).getPrice().compareTo(new BigDecimal("664.53600")) == 0);
+
+        PowerMock.verifyAll();
+    }
+
     @Test
     public void testGettingYourOpenOrdersSuccessfully() throws Exception {
 
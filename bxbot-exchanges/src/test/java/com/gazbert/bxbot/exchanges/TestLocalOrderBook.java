@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.trading.api.MarketOrder;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OrderType;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests the local L2 order book kept up to date by the WebSocket feeds.
+ *
+ * @author gazbert
+ */
+public class TestLocalOrderBook {
+
+    private static final String MARKET_ID = "btcusd";
+
+
+    @Test
+    public void testOrderBookIsNotServedUntilSynced() {
+
+        final LocalOrderBook book = new LocalOrderBook(MARKET_ID);
+        book.update(OrderType.BUY, new BigDecimal("100"), new BigDecimal("1"));
+        assertNull(book.toMarketOrderBook(10));
+
+        book.markSynced();
+        assertEquals(1, book.toMarketOrderBook(10).getBuyOrders().size());
+
+        book.clear();
+        assertNull(book.toMarketOrderBook(10));
+        book.markSynced();
+        assertEquals(0, book.toMarketOrderBook(10).getBuyOrders().size());
+    }
+
+    @Test
+    public void testLevelsAreSortedBestPriceFirstAndTruncatedToDepth() {
+
+        final LocalOrderBook book = new LocalOrderBook(MARKET_ID);
+        book.update(OrderType.BUY, new BigDecimal("99"), new BigDecimal("1"));
+        book.update(OrderType.BUY, new BigDecimal("101"), new BigDecimal("2"));
+        book.update(OrderType.BUY, new BigDecimal("100"), new BigDecimal("3"));
+        book.update(OrderType.SELL, new BigDecimal("104"), new BigDecimal("4"));
+        book.update(OrderType.SELL, new BigDecimal("102"), new BigDecimal("5"));
+        book.update(OrderType.SELL, new BigDecimal("103"), new BigDecimal("6"));
+        book.markSynced();
+
+        final MarketOrderBook orderBook = book.toMarketOrderBook(2);
+        assertEquals(MARKET_ID, orderBook.getMarketId());
+
+        assertEquals(2, orderBook.getBuyOrders().size());
+        assertEquals(0, orderBook.getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("101")));
+        assertEquals(0, orderBook.getBuyOrders().get(1).getPrice().compareTo(new BigDecimal("100")));
+
+        assertEquals(2, orderBook.getSellOrders().size());
+        final MarketOrder bestAsk = orderBook.getSellOrders().get(0);
+        assertEquals(OrderType.SELL, bestAsk.getType());
+        assertEquals(0, bestAsk.getPrice().compareTo(new BigDecimal("102")));
+        assertEquals(0, bestAsk.getQuantity().compareTo(new BigDecimal("5")));
+        assertEquals(0, bestAsk.getTotal().compareTo(new BigDecimal("510")));
+        assertEquals(0, orderBook.getSellOrders().get(1).getPrice().compareTo(new BigDecimal("103")));
+    }
+
+    @Test
+    public void testUpdatesReplaceAndRemoveLevels() {
+
+        final LocalOrderBook book = new LocalOrderBook(MARKET_ID);
+        book.update(OrderType.BUY, new BigDecimal("100"), new BigDecimal("1"));
+        book.update(OrderType.BUY, new BigDecimal("99"), new BigDecimal("1"));
+        book.markSynced();
+
+        book.update(OrderType.BUY, new BigDecimal("100"), new BigDecimal("7"));
+        book.update(OrderType.BUY, new BigDecimal("99"), BigDecimal.ZERO);
+
+        final MarketOrderBook orderBook = book.toMarketOrderBook(10);
+        assertEquals(1, orderBook.getBuyOrders().size());
+        assertEquals(0, orderBook.getBuyOrders().get(0).getQuantity().compareTo(new BigDecimal("7")));
+    }
+}
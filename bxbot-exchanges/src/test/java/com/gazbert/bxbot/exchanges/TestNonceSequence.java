@@ -0,0 +1,130 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the Nonce Sequence hands out increasing nonces and keeps requests in nonce order.
+ *
+ * @author gazbert
+ */
+public class TestNonceSequence {
+
+    private ExecutorService callers;
+
+
+    @Before
+    public void setup() throws Exception {
+        callers = Executors.newFixedThreadPool(8);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void testNoncesStartAtTheAdvancedValueAndNeverGoBack() throws Exception {
+
+        final NonceSequence nonceSequence = new NonceSequence();
+        nonceSequence.advanceTo(1000);
+
+        assertEquals(1000, nonceSequence.acquire());
+        nonceSequence.release();
+        assertEquals(1001, nonceSequence.acquire());
+        nonceSequence.release();
+
+        // e.g. the adapter is re-initialised in the same second, or the clock is wound back
+        nonceSequence.advanceTo(1000);
+        assertEquals(1002, nonceSequence.acquire());
+        nonceSequence.release();
+
+        nonceSequence.advanceTo(2000);
+        assertEquals(2000, nonceSequence.acquire());
+        nonceSequence.release();
+    }
+
+    @Test
+    public void testConcurrentCallersSendTheirRequestsInNonceOrder() throws Exception {
+
+        final NonceSequence nonceSequence = new NonceSequence();
+        nonceSequence.advanceTo(1);
+
+        final AtomicInteger sending = new AtomicInteger();
+        final AtomicInteger maxSending = new AtomicInteger();
+        final List<Long> sentNonces = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch start = new CountDownLatch(1);
+
+        final List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> {
+                start.await();
+                for (int request = 0; request < 100; request++) {
+                    final long nonce = nonceSequence.acquire();
+                    try {
+                        maxSending.accumulateAndGet(sending.incrementAndGet(), Math::max);
+                        Thread.yield();
+                        sentNonces.add(nonce);
+                        sending.decrementAndGet();
+                    } finally {
+                        nonceSequence.release();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (final Future<?> result : results) {
+            result.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, maxSending.get());
+        assertEquals(800, sentNonces.size());
+        for (int i = 0; i < sentNonces.size(); i++) {
+            assertEquals(Long.valueOf(i + 1), sentNonces.get(i));
+        }
+    }
+
+    @Test(expected = IllegalMonitorStateException.class)
+    public void testReleasingWithoutAcquiringANonceIsRejected() throws Exception {
+        new NonceSequence().release();
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.AbstractExchangeAdapter.ExchangeHttpResponse;
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the pooled HTTP transport against a local HTTP server.
+ *
+ * @author gazbert
+ */
+public class TestPooledHttpTransport {
+
+    private static final int CONNECTION_TIMEOUT = 2;
+    private static final int READ_TIMEOUT = 1;
+    private static final int CONNECTION_POOL_SIZE = 2;
+    private static final int CONNECTION_IDLE_TIMEOUT = 30;
+
+    private HttpServer server;
+    private String baseUrl;
+    private Set<Integer> clientPortsSeen;
+
+
+    @Before
+    public void setupForEachTest() throws Exception {
+
+        clientPortsSeen = ConcurrentHashMap.newKeySet();
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/ticker", exchange -> respond(exchange, 200, "{\"last\":\"1234.5\"}"));
+        server.createContext("/order", exchange -> respond(exchange,
+                200, exchange.getRequestHeaders().getFirst("Content-Type") + "|" + readBody(exchange)));
+        server.createContext("/broken", exchange -> respond(exchange, 503, "{\"error\":\"try again\"}"));
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep((READ_TIMEOUT + 1) * 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "{}");
+        });
+        server.start();
+
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDownAfterEachTest() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testGetReturnsStatusAndPayload() throws Exception {
+
+        final ExchangeHttpTransport transport = new PooledHttpTransport(
+                CONNECTION_TIMEOUT, READ_TIMEOUT, CONNECTION_POOL_SIZE, CONNECTION_IDLE_TIMEOUT);
+
+        final ExchangeHttpResponse response = transport.send(new URL(baseUrl + "/ticker"), "GET", null, null);
+        assertEquals(200, response.getStatusCode());
+        assertEquals("OK", response.getReasonPhrase());
+        assertEquals("{\"last\":\"1234.5\"}", response.getPayload());
+    }
+
+    @Test
+    public void testSequentialRequestsReuseKeepAliveConnection() throws Exception {
+
+        final ExchangeHttpTransport transport = new PooledHttpTransport(
+                CONNECTION_TIMEOUT, READ_TIMEOUT, CONNECTION_POOL_SIZE, CONNECTION_IDLE_TIMEOUT);
+
+        for (int i = 0; i < 5; i++) {
+            transport.send(new URL(baseUrl + "/ticker"), "GET", null, null);
+        }
+        assertEquals(1, clientPortsSeen.size());
+    }
+
+    @Test
+    public void testOpenDecodesPayloadStraightFromStream() throws Exception {
+
+        final ExchangeHttpTransport transport = new PooledHttpTransport(
+                CONNECTION_TIMEOUT, READ_TIMEOUT, CONNECTION_POOL_SIZE, CONNECTION_IDLE_TIMEOUT);
+
+        try (ExchangeHttpResponse response = transport.open(new URL(baseUrl + "/ticker"), "GET", null, null)) {
+            assertEquals(200, response.getStatusCode());
+            final Ticker ticker = response.decodePayload(new Gson(), Ticker.class);
+            assertEquals(new BigDecimal("1234.5"), ticker.last);
+        }
+    }
+
+    @Test
+    public void testDecodedStreamedResponseStillShowsPayloadForLogging() throws Exception {
+
+        final ExchangeHttpTransport transport = new PooledHttpTransport(
+                CONNECTION_TIMEOUT, READ_TIMEOUT, CONNECTION_POOL_SIZE, CONNECTION_IDLE_TIMEOUT);
+
+        final ExchangeHttpResponse response = transport.open(new URL(baseUrl + "/ticker"), "GET", null, null);
+        response.decodePayload(new Gson(), Ticker.class);
+        assertTrue(response.toString().contains("payload={\"last\":\"1234.5\"}"));
+    }
+
+    @Test
+    public void testStreamedPayloadIsOnlyCapturedForErrorsWhenDebugIsDisabled() throws Exception {
+
+        final ExchangeHttpTransport transport = new PooledHttpTransport(
+                CONNECTION_TIMEOUT, READ_TIMEOUT, CONNECTION_POOL_SIZE, CONNECTION_IDLE_TIMEOUT);
+
+        Configurator.setLevel(AbstractExchangeAdapter.class.getName(), Level.INFO);
+        try {
+            final ExchangeHttpResponse response = transport.open(new URL(baseUrl + "/ticker"), "GET", null, null);
+            response.decodePayload(new Gson(), Ticker.class);
+            assertTrue(response.toString().contains("payload=<streamed payload not captured"));
+
+            final ExchangeHttpResponse errorResponse = transport.open(new URL(baseUrl + "/broken"), "GET", null, null);
+            errorResponse.decodePayload(new Gson(), Map.class);
+            assertTrue(errorResponse.toString().contains("payload={\"error\":\"try again\"}"));
+        } finally {
+            Configurator.setLevel(AbstractExchangeAdapter.class.getName(), Level.DEBUG);
+        }
+    }
+
+    @Test
+    public void testStreamedResponsesReuseKeepAliveConnectionOnceClosed() throws Exception {
+
+        final ExchangeHttpTransport transport = new PooledHttpTransport(
+                CONNECTION_TIMEOUT, READ_TIMEOUT, CONNECTION_POOL_SIZE, CONNECTION_IDLE_TIMEOUT);
+
+        for (int i = 0; i < 5; i++) {
+            try (ExchangeHttpResponse response = transport.open(new URL(baseUrl + "/ticker"), "GET", null, null)) {
+                if (i % 2 == 0) {
+                    response.decodePayload(new Gson(), Ticker.class);
+                }
+                // else closed without reading - the rest of the body is drained so the connection can be reused
+            }
+        }
+        assertEquals(1, clientPortsSeen.size());
+    }
+
+    @Test
+    public void testPostSendsBodyWithDefaultContentType() throws Exception {
+
+        final ExchangeHttpTransport transport = new PooledHttpTransport(
+                CONNECTION_TIMEOUT, READ_TIMEOUT, CONNECTION_POOL_SIZE, CONNECTION_IDLE_TIMEOUT);
+
+        final ExchangeHttpResponse response = transport.send(new URL(baseUrl + "/order"), "POST", "amount=1&price=2", null);
+        assertEquals("application/x-www-form-urlencoded|amount=1&price=2", response.getPayload());
+    }
+
+    @Test
+    public void testPostSendsBodyWithContentTypeFromRequestHeaders() throws Exception {
+
+        final ExchangeHttpTransport transport = new PooledHttpTransport(
+                CONNECTION_TIMEOUT, READ_TIMEOUT, CONNECTION_POOL_SIZE, CONNECTION_IDLE_TIMEOUT);
+
+        final Map<String, String> requestHeaders = new HashMap<>();
+        requestHeaders.put("Content-Type", "application/json");
+
+        final ExchangeHttpResponse response = transport.send(
+                new URL(baseUrl + "/order"), "POST", "{\"amount\":1}", requestHeaders);
+        assertEquals("application/json|{\"amount\":1}", response.getPayload());
+    }
+
+    @Test
+    public void testErrorStatusIsReturnedNotThrown() throws Exception {
+
+        final ExchangeHttpTransport transport = new PooledHttpTransport(
+                CONNECTION_TIMEOUT, READ_TIMEOUT, CONNECTION_POOL_SIZE, CONNECTION_IDLE_TIMEOUT);
+
+        final ExchangeHttpResponse response = transport.send(new URL(baseUrl + "/broken"), "GET", null, null);
+        assertEquals(503, response.getStatusCode());
+        assertEquals("{\"error\":\"try again\"}", response.getPayload());
+    }
+
+    @Test(expected = SocketTimeoutException.class)
+    public void testReadTimeoutThrowsSocketTimeoutException() throws Exception {
+
+        final ExchangeHttpTransport transport = new PooledHttpTransport(
+                CONNECTION_TIMEOUT, READ_TIMEOUT, CONNECTION_POOL_SIZE, CONNECTION_IDLE_TIMEOUT);
+        transport.send(new URL(baseUrl + "/slow"), "GET", null, null);
+    }
+
+    @Test
+    public void testConnectionRefusedThrowsConnectException() throws Exception {
+
+        final int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+
+        final ExchangeHttpTransport transport = new PooledHttpTransport(
+                CONNECTION_TIMEOUT, READ_TIMEOUT, CONNECTION_POOL_SIZE, CONNECTION_IDLE_TIMEOUT);
+        try {
+            transport.send(new URL("http://localhost:" + closedPort + "/ticker"), "GET", null, null);
+            fail("Expected ConnectException");
+        } catch (ConnectException e) {
+            // the java.net exception, not HttpClient's wrapper, so non-fatal-error-messages still match
+            assertEquals(ConnectException.class, e.getClass());
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Private utils
+    // ------------------------------------------------------------------------------------------------
+
+    private void respond(HttpExchange exchange, int statusCode, String payload) throws IOException {
+        clientPortsSeen.add(exchange.getRemoteAddress().getPort());
+        final byte[] body = payload.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(statusCode, body.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+    }
+
+    private static class Ticker {
+        BigDecimal last;
+    }
+
+    private static String readBody(HttpExchange exchange) {
+        try (Scanner scanner = new Scanner(exchange.getRequestBody(), "UTF-8").useDelimiter("\\A")) {
+            return scanner.hasNext() ? scanner.next() : "";
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.RateLimiter.EndpointClass;
+import com.gazbert.bxbot.exchanges.RateLimiter.RequestPriority;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the client-side rate limiter behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestRateLimiter {
+
+    private static final long WAIT_TIMEOUT_MILLIS = 5000;
+
+
+    @Test
+    public void testRequestsAreNotLimitedWhenNoLimitApplies() throws Exception {
+
+        final RateLimiter rateLimiter = new RateLimiter();
+        assertFalse(rateLimiter.hasLimits());
+
+        rateLimiter.addLimit(EndpointClass.PRIVATE, 1, 60);
+        assertTrue(rateLimiter.hasLimits());
+
+        for (int i = 0; i < 100; i++) {
+            rateLimiter.acquire(RequestPriority.MARKET_DATA);
+        }
+        assertEquals(0, rateLimiter.getQueueLength());
+    }
+
+    @Test
+    public void testBurstUpToLimitIsAllowedThenTokensRefillOverPeriod() throws Exception {
+
+        final AtomicLong nanoClock = new AtomicLong();
+        final RateLimiter rateLimiter = new RateLimiter(nanoClock::get);
+        rateLimiter.addLimit(EndpointClass.ALL, 3, 3);
+
+        final Thread caller = new Thread(() -> {
+            try {
+                for (int i = 0; i < 4; i++) {
+                    rateLimiter.acquire(RequestPriority.ACCOUNT);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        caller.start();
+
+        // 3 requests make it through in a burst, the 4th waits for a token
+        awaitQueueLength(rateLimiter, 1);
+        caller.join(200);
+        assertTrue(caller.isAlive());
+
+        // Not a whole token yet...
+        nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        caller.join(200);
+        assertTrue(caller.isAlive());
+
+        // ...and now there is. Waiter re-checks the clock on its next timed wake up.
+        nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        caller.join(WAIT_TIMEOUT_MILLIS);
+        assertFalse(caller.isAlive());
+        assertEquals(0, rateLimiter.getQueueLength());
+    }
+
+    @Test
+    public void testWaitingRequestsAreServedInPriorityOrder() throws Exception {
+
+        final AtomicLong nanoClock = new AtomicLong();
+        final RateLimiter rateLimiter = new RateLimiter(nanoClock::get);
+        rateLimiter.addLimit(EndpointClass.ALL, 10, 1);
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.acquire(RequestPriority.ACCOUNT);
+        }
+
+        final List<RequestPriority> served = Collections.synchronizedList(new ArrayList<>());
+        final List<Thread> callers = new ArrayList<>();
+        final List<RequestPriority> arrivalOrder = Arrays.asList(RequestPriority.MARKET_DATA,
+                RequestPriority.ACCOUNT, RequestPriority.CREATE_ORDER, RequestPriority.CANCEL_ORDER);
+        for (final RequestPriority priority : arrivalOrder) {
+            final Thread caller = new Thread(() -> {
+                try {
+                    rateLimiter.acquire(priority);
+                    served.add(priority);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            caller.start();
+            callers.add(caller);
+            awaitQueueLength(rateLimiter, callers.size());
+        }
+
+        // Release one token at a time
+        for (int i = callers.size() - 1; i >= 0; i--) {
+            nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+            awaitQueueLength(rateLimiter, i);
+            while (served.size() != callers.size() - i) {
+                Thread.sleep(10);
+            }
+        }
+
+        for (final Thread caller : callers) {
+            caller.join(WAIT_TIMEOUT_MILLIS);
+        }
+        assertEquals(Arrays.asList(RequestPriority.CANCEL_ORDER, RequestPriority.CREATE_ORDER,
+                RequestPriority.ACCOUNT, RequestPriority.MARKET_DATA), served);
+    }
+
+    @Test
+    public void testWaitingPrivateRequestsDoNotHoldUpPublicRequests() throws Exception {
+
+        final RateLimiter rateLimiter = new RateLimiter();
+        rateLimiter.addLimit(EndpointClass.PRIVATE, 1, 60);
+        rateLimiter.addLimit(EndpointClass.PUBLIC, 100, 1);
+        rateLimiter.acquire(RequestPriority.CANCEL_ORDER);
+
+        final Thread caller = new Thread(() -> {
+            try {
+                rateLimiter.acquire(RequestPriority.CANCEL_ORDER);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        caller.start();
+        awaitQueueLength(rateLimiter, 1);
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.acquire(RequestPriority.MARKET_DATA);
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1, rateLimiter.getQueueLength());
+
+        caller.interrupt();
+        caller.join(WAIT_TIMEOUT_MILLIS);
+        assertEquals(0, rateLimiter.getQueueLength());
+    }
+
+    @Test
+    public void testInterruptedRequestLeavesTheQueue() throws Exception {
+
+        final RateLimiter rateLimiter = new RateLimiter();
+        rateLimiter.addLimit(EndpointClass.ALL, 1, 60);
+        rateLimiter.acquire(RequestPriority.CREATE_ORDER);
+
+        final boolean[] interrupted = new boolean[1];
+        final Thread caller = new Thread(() -> {
+            try {
+                rateLimiter.acquire(RequestPriority.CREATE_ORDER);
+            } catch (InterruptedException e) {
+                interrupted[0] = true;
+            }
+        });
+        caller.start();
+        awaitQueueLength(rateLimiter, 1);
+
+        caller.interrupt();
+        caller.join(WAIT_TIMEOUT_MILLIS);
+        assertTrue(interrupted[0]);
+        assertEquals(0, rateLimiter.getQueueLength());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLimitMustAllowAtLeastOneRequest() {
+        new RateLimiter().addLimit(EndpointClass.PUBLIC, 0, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLimitPeriodMustBeAtLeastOneSecond() {
+        new RateLimiter().addLimit(EndpointClass.PUBLIC, 10, 0);
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------------------------------
+
+    private static void awaitQueueLength(RateLimiter rateLimiter, int queueLength) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MILLIS;
+        while (rateLimiter.getQueueLength() != queueLength) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Timed out waiting for queue length " + queueLength);
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.RequestSigner.HmacAlgorithm;
+import org.junit.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the Request Signer gives the same results as the JDK's Mac, MessageDigest and Base64 classes.
+ *
+ * @author gazbert
+ */
+public class TestRequestSigner {
+
+    private static final byte[] SECRET = "kenobi-secret-key".getBytes(StandardCharsets.UTF_8);
+
+    private static final String[] MESSAGES = {
+            "",
+            "1",
+            "nonce=1494346874000&key=my-key",
+            "{\"request\":\"/v1/order/new\",\"nonce\":\"1494346874000\",\"symbol\":\"btcusd\"}",
+            "Ünïcödé prices in €, £ and ¥",
+            "Rocket 🚀 to the moon",
+            "Unpaired \ud800 surrogate and \udc00 another"
+    };
+
+
+    @Test
+    public void testHmacSignaturesMatchJdkMac() throws Exception {
+
+        for (final HmacAlgorithm algorithm : HmacAlgorithm.values()) {
+            final RequestSigner requestSigner = new RequestSigner(algorithm, SECRET);
+            for (final String message : MESSAGES) {
+                final byte[] expected = jdkHmac(algorithm, message.getBytes(StandardCharsets.UTF_8));
+
+                assertEquals(jdkHex(expected), requestSigner.sign().update(message).toHex());
+                assertEquals(jdkHex(expected).toUpperCase(), requestSigner.sign().update(message).toHexUpperCase());
+                assertEquals(Base64.getEncoder().encodeToString(expected),
+                        requestSigner.sign().update(message).toBase64());
+            }
+        }
+    }
+
+    @Test
+    public void testMessagePartsAreSignedInOrder() throws Exception {
+
+        final RequestSigner requestSigner = new RequestSigner(HmacAlgorithm.HMAC_SHA256, SECRET);
+        final byte[] path = "/0/private/Balance".getBytes(StandardCharsets.UTF_8);
+
+        for (final long nonce : new long[]{0, 7, -42, 1494346874000L, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            final String message = nonce + "client-id" + "key";
+            final byte[] expected = jdkHmac(HmacAlgorithm.HMAC_SHA256, message.getBytes(StandardCharsets.UTF_8));
+            assertEquals(jdkHex(expected),
+                    requestSigner.sign().update(nonce).update("client-id").update("key").toHex());
+        }
+
+        final byte[] messageHash = MessageDigest.getInstance("SHA-256")
+                .digest("1494346874000nonce=1494346874000".getBytes(StandardCharsets.UTF_8));
+        final byte[] pathAndHash = new byte[path.length + messageHash.length];
+        System.arraycopy(path, 0, pathAndHash, 0, path.length);
+        System.arraycopy(messageHash, 0, pathAndHash, path.length, messageHash.length);
+
+        assertEquals(Base64.getEncoder().encodeToString(jdkHmac(HmacAlgorithm.HMAC_SHA256, pathAndHash)),
+                requestSigner.sign().update(path).updateWithSha256Of("1494346874000nonce=1494346874000").toBase64());
+    }
+
+    @Test
+    public void testUnfinishedSignatureIsDiscardedBySign() throws Exception {
+
+        final RequestSigner requestSigner = new RequestSigner(HmacAlgorithm.HMAC_SHA384, SECRET);
+        requestSigner.sign().update("abandoned after an exception");
+
+        final byte[] expected = jdkHmac(HmacAlgorithm.HMAC_SHA384, "message".getBytes(StandardCharsets.UTF_8));
+        assertEquals(jdkHex(expected), requestSigner.sign().update("message").toHex());
+    }
+
+    @Test
+    public void testMd5HashesMatchJdkMessageDigest() throws Exception {
+
+        for (final String message : MESSAGES) {
+            final String expected = jdkHex(MessageDigest.getInstance("MD5")
+                    .digest(message.getBytes(StandardCharsets.UTF_8)));
+
+            assertEquals(expected, RequestSigner.md5ToHex(message));
+            assertEquals(expected.toUpperCase(), RequestSigner.md5ToHexUpperCase(message));
+        }
+    }
+
+    @Test
+    public void testBase64AndHexEncodingMatchJdk() throws Exception {
+
+        for (final String message : MESSAGES) {
+            assertEquals(Base64.getEncoder().encodeToString(message.getBytes(StandardCharsets.UTF_8)),
+                    RequestSigner.toBase64(message));
+        }
+
+        final Random random = new Random(42);
+        final StringBuilder message = new StringBuilder();
+        for (int length = 0; length < 100; length++) {
+            final byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+            assertEquals(jdkHex(bytes), RequestSigner.toHex(bytes));
+
+            assertEquals(Base64.getEncoder().encodeToString(message.toString().getBytes(StandardCharsets.UTF_8)),
+                    RequestSigner.toBase64(message));
+            message.append((char) (' ' + random.nextInt(95)));
+        }
+    }
+
+    @Test
+    public void testMessagesBiggerThanBuffersAreSigned() throws Exception {
+
+        final RequestSigner requestSigner = new RequestSigner(HmacAlgorithm.HMAC_SHA512, SECRET);
+        final StringBuilder bigMessage = new StringBuilder();
+        while (bigMessage.length() < 100 * 1024) {
+            bigMessage.append("Large order book payload with € signs ");
+        }
+        final byte[] bigMessageBytes = bigMessage.toString().getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(Base64.getEncoder().encodeToString(jdkHmac(HmacAlgorithm.HMAC_SHA512, bigMessageBytes)),
+                requestSigner.sign().update(bigMessage).toBase64());
+        assertEquals(Base64.getEncoder().encodeToString(bigMessageBytes), RequestSigner.toBase64(bigMessage));
+
+        // and small messages still work after it
+        assertEquals(jdkHex(jdkHmac(HmacAlgorithm.HMAC_SHA512, "small".getBytes(StandardCharsets.UTF_8))),
+                requestSigner.sign().update("small").toHex());
+    }
+
+    @Test
+    public void testConcurrentSigningFromManyThreads() throws Exception {
+
+        final RequestSigner requestSigner = new RequestSigner(HmacAlgorithm.HMAC_SHA256, SECRET);
+        final ExecutorService signingThreads = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> results = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                final int threadId = thread;
+                results.add(signingThreads.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        final String message = "thread-" + threadId + "-request-" + i;
+                        final byte[] expected = jdkHmac(HmacAlgorithm.HMAC_SHA256,
+                                message.getBytes(StandardCharsets.UTF_8));
+                        assertEquals(jdkHex(expected), requestSigner.sign().update(message).toHex());
+                        assertEquals(jdkHex(MessageDigest.getInstance("MD5")
+                                        .digest(message.getBytes(StandardCharsets.UTF_8))),
+                                RequestSigner.md5ToHex(message));
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            signingThreads.shutdownNow();
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    // Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    private static byte[] jdkHmac(HmacAlgorithm algorithm, byte[] message) throws Exception {
+        final Mac mac = Mac.getInstance(algorithm.getJcaName());
+        mac.init(new SecretKeySpec(SECRET, algorithm.getJcaName()));
+        return mac.doFinal(message);
+    }
+
+    private static String jdkHex(byte[] bytes) {
+        final StringBuilder hex = new StringBuilder();
+        for (final byte aByte : bytes) {
+            hex.append(String.format("%02x", aByte & 0xff));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.util.concurrent.Uninterruptibles.awaitUninterruptibly;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests Single Flight shares in-flight calls between concurrent callers.
+ *
+ * @author gazbert
+ */
+public class TestSingleFlight {
+
+    private static final String TICKER_KEY = "getLatestMarketPrice/btcusd";
+    private static final int CALLERS = 8;
+
+    private ExecutorService callerPool;
+
+
+    @Before
+    public void setup() throws Exception {
+        callerPool = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        callerPool.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentIdenticalCallsShareOneCallAndItsResult() throws Exception {
+
+        final SingleFlight singleFlight = new SingleFlight();
+        final AtomicInteger callCount = new AtomicInteger();
+        final CountDownLatch callStarted = new CountDownLatch(1);
+        final CountDownLatch releaseCall = new CountDownLatch(1);
+
+        final List<Future<BigDecimal>> results = new ArrayList<>();
+        results.add(callerPool.submit(() -> singleFlight.call(TICKER_KEY, () -> {
+            callCount.incrementAndGet();
+            callStarted.countDown();
+            awaitUninterruptibly(releaseCall);
+            return new BigDecimal("4321.12");
+        })));
+        assertTrue(callStarted.await(5, TimeUnit.SECONDS));
+
+        for (int i = 1; i < CALLERS; i++) {
+            results.add(callerPool.submit(() -> singleFlight.call(TICKER_KEY, () -> {
+                callCount.incrementAndGet();
+                return BigDecimal.ONE;
+            })));
+        }
+        Thread.sleep(100); // give the joiners time to arrive
+        releaseCall.countDown();
+
+        final BigDecimal firstResult = results.get(0).get(5, TimeUnit.SECONDS);
+        for (final Future<BigDecimal> result : results) {
+            assertSame(firstResult, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, callCount.get());
+        assertEquals(0, singleFlight.getInFlightCallCount());
+    }
+
+    @Test
+    public void testCallsWithDifferentKeysAreNotShared() throws Exception {
+
+        final SingleFlight singleFlight = new SingleFlight();
+        final CountDownLatch bothCallsStarted = new CountDownLatch(2);
+
+        final Future<String> btcResult = callerPool.submit(() -> singleFlight.call("ticker/btcusd", () -> {
+            bothCallsStarted.countDown();
+            awaitUninterruptibly(bothCallsStarted);
+            return "btcusd";
+        }));
+        final Future<String> ethResult = callerPool.submit(() -> singleFlight.call("ticker/ethusd", () -> {
+            bothCallsStarted.countDown();
+            awaitUninterruptibly(bothCallsStarted);
+            return "ethusd";
+        }));
+
+        assertEquals("btcusd", btcResult.get(5, TimeUnit.SECONDS));
+        assertEquals("ethusd", ethResult.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCompletedCallIsNotCached() throws Exception {
+
+        final SingleFlight singleFlight = new SingleFlight();
+        final AtomicInteger callCount = new AtomicInteger();
+
+        assertEquals(1, (int) singleFlight.call(TICKER_KEY, callCount::incrementAndGet));
+        assertEquals(2, (int) singleFlight.call(TICKER_KEY, callCount::incrementAndGet));
+        assertEquals(0, singleFlight.getInFlightCallCount());
+    }
+
+    @Test
+    public void testExceptionIsSharedWithJoinedCallers() throws Exception {
+
+        final SingleFlight singleFlight = new SingleFlight();
+        final CountDownLatch callStarted = new CountDownLatch(1);
+        final CountDownLatch releaseCall = new CountDownLatch(1);
+        final ExchangeNetworkException networkError = new ExchangeNetworkException("Connection reset");
+
+        final Future<Object> firstResult = callerPool.submit(() -> singleFlight.call(TICKER_KEY, () -> {
+            callStarted.countDown();
+            awaitUninterruptibly(releaseCall);
+            throw networkError;
+        }));
+        assertTrue(callStarted.await(5, TimeUnit.SECONDS));
+
+        final Future<Object> joinedResult = callerPool.submit(() -> singleFlight.call(TICKER_KEY, () -> {
+            fail("Call should have been shared");
+            return null;
+        }));
+        Thread.sleep(100); // give the joiner time to arrive
+        releaseCall.countDown();
+
+        assertSame(networkError, causeOf(firstResult));
+        assertSame(networkError, causeOf(joinedResult));
+        assertEquals(0, singleFlight.getInFlightCallCount());
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------------------------------
+
+    private static Throwable causeOf(Future<?> result) throws Exception {
+        try {
+            result.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+        throw new AssertionError("Expected call to fail");
+    }
+}
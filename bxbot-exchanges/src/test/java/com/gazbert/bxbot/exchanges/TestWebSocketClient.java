@@ -0,0 +1,196 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the WebSocket client against a local server that stops reading, so the client's sends back up.
+ *
+ * @author gazbert
+ */
+public class TestWebSocketClient {
+
+    private static final String HANDSHAKE_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    /**
+     * Bigger than the socket buffers, so the send blocks until the server reads.
+     */
+    private static final int STUCK_MESSAGE_SIZE = 12 * 1024 * 1024;
+
+    private ServerSocket serverSocket;
+    private Socket serverConnection;
+    private WebSocketClient client;
+    private BlockingQueue<String> messagesReceived;
+
+
+    @Before
+    public void setupForEachTest() throws Exception {
+        // the stuck message is too big to log
+        Configurator.setLevel(WebSocketClient.class.getName(), Level.INFO);
+        serverSocket = new ServerSocket();
+        serverSocket.setReceiveBufferSize(4096);
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        messagesReceived = new LinkedBlockingQueue<>();
+        client = new WebSocketClient(URI.create("ws://localhost:" + serverSocket.getLocalPort() + "/"), 2, 30,
+                new WebSocketClient.Listener() {
+                    @Override
+                    public void onMessage(String message) {
+                        messagesReceived.add(message);
+                    }
+
+                    @Override
+                    public void onClose(int statusCode, String reason) {
+                    }
+                });
+    }
+
+    @After
+    public void tearDownAfterEachTest() throws Exception {
+        client.close();
+        if (serverConnection != null) {
+            serverConnection.close();
+        }
+        serverSocket.close();
+        Configurator.setLevel(WebSocketClient.class.getName(), Level.DEBUG);
+    }
+
+    @Test
+    public void testMessagesAreStillReadWhenAPingArrivesDuringASlowSend() throws Exception {
+
+        final Thread acceptor = new Thread(this::acceptAndHandshake, "websocket-test-server");
+        acceptor.start();
+        client.connect();
+        acceptor.join(5000);
+
+        final CountDownLatch sendStarted = new CountDownLatch(1);
+        final Thread sender = new Thread(() -> {
+            sendStarted.countDown();
+            try {
+                client.send(new String(new char[STUCK_MESSAGE_SIZE]).replace('\0', 'x'));
+            } catch (IOException e) {
+                // the socket is closed at the end of the test
+            }
+        }, "websocket-test-sender");
+        sender.setDaemon(true);
+        sender.start();
+        assertTrue(sendStarted.await(5, TimeUnit.SECONDS));
+        awaitBlockedInSocketWrite(sender);
+
+        final OutputStream out = serverConnection.getOutputStream();
+        writeFrame(out, 0x89, "ping");
+        writeFrame(out, 0x81, "after-ping");
+
+        assertEquals("after-ping", messagesReceived.poll(5, TimeUnit.SECONDS));
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Private utils
+    // ------------------------------------------------------------------------------------------------
+
+    private static void awaitBlockedInSocketWrite(Thread thread) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < deadline) {
+            for (final StackTraceElement frame : thread.getStackTrace()) {
+                if (frame.getMethodName().equals("socketWrite0")) {
+                    return;
+                }
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Timed out waiting for the send to block");
+    }
+
+    private void acceptAndHandshake() {
+        try {
+            serverConnection = serverSocket.accept();
+            final InputStream in = new BufferedInputStream(serverConnection.getInputStream());
+            String key = null;
+            String headerLine;
+            while (!(headerLine = readLine(in)).isEmpty()) {
+                if (headerLine.toLowerCase().startsWith("sec-websocket-key:")) {
+                    key = headerLine.substring("sec-websocket-key:".length()).trim();
+                }
+            }
+            final String accept = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-1")
+                    .digest((key + HANDSHAKE_GUID).getBytes(StandardCharsets.US_ASCII)));
+            final OutputStream out = serverConnection.getOutputStream();
+            out.write(("HTTP/1.1 101 Switching Protocols\r\n"
+                    + "Upgrade: websocket\r\n"
+                    + "Connection: Upgrade\r\n"
+                    + "Sec-WebSocket-Accept: " + accept + "\r\n"
+                    + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeFrame(OutputStream out, int header, String text) throws IOException {
+        final byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+        out.write(header);
+        out.write(payload.length);
+        out.write(payload);
+        out.flush();
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        final StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1) {
+                throw new IOException("Connection closed during handshake");
+            }
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * A local WebSocket server for testing the order book feeds. It replays frames recorded from an Exchange feed once
+ * the client has sent a subscribe message.
+ * <p>
+ * Each connection can replay a different recording: connection n replays the nth recording, and the last recording
+ * is replayed for any connections after that.
+ *
+ * @author gazbert
+ */
+final class WebSocketStubServer implements Closeable {
+
+    private static final String HANDSHAKE_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    private final ServerSocket serverSocket;
+    private final String subscribeTrigger;
+    private final List<List<String>> recordings;
+
+    private final List<String> messagesReceived = new CopyOnWriteArrayList<>();
+    private final List<Socket> connections = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+
+    /**
+     * Starts the server.
+     *
+     * @param subscribeTrigger text in a client message that starts the replay.
+     * @param recordings       the frames to replay for each connection.
+     * @throws IOException if the server could not be started.
+     */
+    WebSocketStubServer(String subscribeTrigger, List<List<String>> recordings) throws IOException {
+        this.subscribeTrigger = subscribeTrigger;
+        this.recordings = recordings;
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        final Thread acceptor = new Thread(this::acceptConnections, "websocket-stub-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Loads the frames recorded from an Exchange feed; one frame per line.
+     *
+     * @param file the recording file.
+     * @return the frames.
+     * @throws IOException if the file could not be read.
+     */
+    static List<String> recordedFrames(String file) throws IOException {
+        return Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8).stream()
+                .filter(line -> !line.trim().isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    URI getUri() {
+        return URI.create("ws://localhost:" + serverSocket.getLocalPort() + "/");
+    }
+
+    int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    List<String> getMessagesReceived() {
+        return messagesReceived;
+    }
+
+    /**
+     * Drops all the open connections without a close frame.
+     */
+    void dropConnections() throws IOException {
+        for (final Socket connection : connections) {
+            connection.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        dropConnections();
+    }
+
+    private void acceptConnections() {
+        try {
+            while (!serverSocket.isClosed()) {
+                final Socket connection = serverSocket.accept();
+                connections.add(connection);
+                final int connectionNumber = connectionCount.getAndIncrement();
+                final Thread handler = new Thread(() -> handle(connection, connectionNumber),
+                        "websocket-stub-connection-" + connectionNumber);
+                handler.setDaemon(true);
+                handler.start();
+            }
+        } catch (IOException e) {
+            // server closed
+        }
+    }
+
+    private void handle(Socket connection, int connectionNumber) {
+        try {
+            final InputStream in = new BufferedInputStream(connection.getInputStream());
+            final OutputStream out = connection.getOutputStream();
+
+            String key = null;
+            String headerLine;
+            while (!(headerLine = readLine(in)).isEmpty()) {
+                if (headerLine.toLowerCase().startsWith("sec-websocket-key:")) {
+                    key = headerLine.substring("sec-websocket-key:".length()).trim();
+                }
+            }
+            final String accept = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-1")
+                    .digest((key + HANDSHAKE_GUID).getBytes(StandardCharsets.US_ASCII)));
+            out.write(("HTTP/1.1 101 Switching Protocols\r\n"
+                    + "Upgrade: websocket\r\n"
+                    + "Connection: Upgrade\r\n"
+                    + "Sec-WebSocket-Accept: " + accept + "\r\n"
+                    + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            boolean replayed = false;
+            while (true) {
+                final int header = in.read();
+                if (header == -1) {
+                    break;
+                }
+                final int opcode = header & 0x0F;
+                final int lengthByte = in.read();
+                int length = lengthByte & 0x7F;
+                if (length == 126) {
+                    length = (in.read() << 8) | in.read();
+                }
+                final byte[] mask = new byte[4];
+                readFully(in, mask);
+                final byte[] payload = new byte[length];
+                readFully(in, payload);
+                for (int i = 0; i < payload.length; i++) {
+                    payload[i] ^= mask[i % 4];
+                }
+                if (opcode == 0x8) {
+                    break;
+                }
+
+                final String message = new String(payload, StandardCharsets.UTF_8);
+                messagesReceived.add(message);
+                if (!replayed && message.contains(subscribeTrigger)) {
+                    replayed = true;
+                    for (final String frame : recordings.get(Math.min(connectionNumber, recordings.size() - 1))) {
+                        writeTextFrame(out, frame);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            // connection dropped
+        } finally {
+            try {
+                connection.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    private static void writeTextFrame(OutputStream out, String text) throws IOException {
+        final byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+        final ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        frame.write(0x81);
+        if (payload.length < 126) {
+            frame.write(payload.length);
+        } else {
+            frame.write(126);
+            frame.write(payload.length >> 8);
+            frame.write(payload.length);
+        }
+        frame.write(payload);
+        out.write(frame.toByteArray());
+        out.flush();
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        final StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1) {
+                throw new IOException("Connection closed during handshake");
+            }
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+
+    private static void readFully(InputStream in, byte[] buffer) throws IOException {
+        int read = 0;
+        while (read < buffer.length) {
+            final int count = in.read(buffer, read, buffer.length - read);
+            if (count == -1) {
+                throw new IOException("Connection closed");
+            }
+            read += count;
+        }
+    }
+
+    /**
+     * Polls until the condition returns a value.
+     *
+     * @param condition returns null until it is met.
+     * @param <T>       the type of the value.
+     * @return the value.
+     * @throws AssertionError if the condition is not met within 10 seconds.
+     */
+    static <T> T await(Supplier<T> condition) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < deadline) {
+            final T value = condition.get();
+            if (value != null) {
+                return value;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Timed out waiting for the order book feed");
+    }
+}
@@ -24,8 +24,13 @@ package com.gazbert.bxbot.repository;
 
 import com.gazbert.bxbot.domain.exchange.ExchangeConfig;
 
+import java.util.List;
+
 /**
  * The Exchange configuration repository.
+ * <p>
+ * The main Exchange is the one fetched and saved by {@link #get()} and {@link #save(ExchangeConfig)}. Any additional
+ * Exchanges are only returned by {@link #findAll()}.
  *
  * @author gazbert
  */
@@ -34,4 +39,11 @@ public interface ExchangeConfigRepository {
     ExchangeConfig get();
 
     ExchangeConfig save(ExchangeConfig config);
+
+    /**
+     * Returns the main Exchange followed by any additional Exchanges.
+     *
+     * @return all the configured Exchanges.
+     */
+    List<ExchangeConfig> findAll();
 }
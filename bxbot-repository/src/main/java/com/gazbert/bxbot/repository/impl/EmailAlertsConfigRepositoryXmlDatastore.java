@@ -34,8 +34,10 @@ import org.apache.logging.log4j.Logger;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
-import static com.gazbert.bxbot.datastore.FileLocations.EMAIL_ALERTS_CONFIG_XML_FILENAME;
+import static com.gazbert.bxbot.datastore.FileLocations.DEFAULT_CONFIG_DIR;
+import static com.gazbert.bxbot.datastore.FileLocations.EMAIL_ALERTS_CONFIG_XML;
 import static com.gazbert.bxbot.datastore.FileLocations.EMAIL_ALERTS_CONFIG_XSD_FILENAME;
+import static com.gazbert.bxbot.datastore.FileLocations.getConfigXmlFilename;
 
 
 /**
@@ -49,13 +51,32 @@ public class EmailAlertsConfigRepositoryXmlDatastore implements EmailAlertsConfi
 
     private static final Logger LOG = LogManager.getLogger();
 
+    private final String configXmlFilename;
+
+
+    /**
+     * Creates the repository for the config in the default config directory.
+     */
+    public EmailAlertsConfigRepositoryXmlDatastore() {
+        this(DEFAULT_CONFIG_DIR);
+    }
+
+    /**
+     * Creates the repository for the config in the given config directory.
+     *
+     * @param configDir the bot's config directory.
+     */
+    public EmailAlertsConfigRepositoryXmlDatastore(String configDir) {
+        configXmlFilename = getConfigXmlFilename(configDir, EMAIL_ALERTS_CONFIG_XML);
+    }
+
     @Override
     public EmailAlertsConfig get() {
 
         LOG.info(() -> "Fetching EmailAlertsConfig...");
 
         final EmailAlertsType internalEmailAlertsConfig = ConfigurationManager.loadConfig(EmailAlertsType.class,
-                EMAIL_ALERTS_CONFIG_XML_FILENAME, EMAIL_ALERTS_CONFIG_XSD_FILENAME);
+                configXmlFilename, EMAIL_ALERTS_CONFIG_XSD_FILENAME);
         return adaptInternalToExternalConfig(internalEmailAlertsConfig);
     }
 
@@ -65,10 +86,10 @@ public class EmailAlertsConfigRepositoryXmlDatastore implements EmailAlertsConfi
         LOG.info(() -> "About to save EmailAlertsConfig: " + config);
 
         final EmailAlertsType internalEmailAlertsConfig = adaptExternalToInternalConfig(config);
-        ConfigurationManager.saveConfig(EmailAlertsType.class, internalEmailAlertsConfig, EMAIL_ALERTS_CONFIG_XML_FILENAME);
+        ConfigurationManager.saveConfig(EmailAlertsType.class, internalEmailAlertsConfig, configXmlFilename);
 
         final EmailAlertsType savedEmailAlertsConfig = ConfigurationManager.loadConfig(EmailAlertsType.class,
-                EMAIL_ALERTS_CONFIG_XML_FILENAME, EMAIL_ALERTS_CONFIG_XSD_FILENAME);
+                configXmlFilename, EMAIL_ALERTS_CONFIG_XSD_FILENAME);
         return adaptInternalToExternalConfig(savedEmailAlertsConfig);
     }
 
@@ -32,8 +32,10 @@ import org.apache.logging.log4j.Logger;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
-import static com.gazbert.bxbot.datastore.FileLocations.ENGINE_CONFIG_XML_FILENAME;
+import static com.gazbert.bxbot.datastore.FileLocations.DEFAULT_CONFIG_DIR;
+import static com.gazbert.bxbot.datastore.FileLocations.ENGINE_CONFIG_XML;
 import static com.gazbert.bxbot.datastore.FileLocations.ENGINE_CONFIG_XSD_FILENAME;
+import static com.gazbert.bxbot.datastore.FileLocations.getConfigXmlFilename;
 
 /**
  * An XML datastore implementation of the Engine config repository.
@@ -46,13 +48,32 @@ public class EngineConfigRepositoryXmlDatastore implements EngineConfigRepositor
 
     private static final Logger LOG = LogManager.getLogger();
 
+    private final String configXmlFilename;
+
+
+    /**
+     * Creates the repository for the config in the default config directory.
+     */
+    public EngineConfigRepositoryXmlDatastore() {
+        this(DEFAULT_CONFIG_DIR);
+    }
+
+    /**
+     * Creates the repository for the config in the given config directory.
+     *
+     * @param configDir the bot's config directory.
+     */
+    public EngineConfigRepositoryXmlDatastore(String configDir) {
+        configXmlFilename = getConfigXmlFilename(configDir, ENGINE_CONFIG_XML);
+    }
+
     @Override
     public EngineConfig get() {
 
         LOG.info(() -> "Fetching EngineConfig...");
 
         final EngineType internalEngineConfig = ConfigurationManager.loadConfig(EngineType.class,
-                ENGINE_CONFIG_XML_FILENAME, ENGINE_CONFIG_XSD_FILENAME);
+                configXmlFilename, ENGINE_CONFIG_XSD_FILENAME);
         return adaptInternalToExternalConfig(internalEngineConfig);
     }
 
@@ -62,10 +83,10 @@ public class EngineConfigRepositoryXmlDatastore implements EngineConfigRepositor
         LOG.info(() -> "About to save EngineConfig: " + config);
 
         final EngineType internalEngineConfig = adaptExternalToInternalConfig(config);
-        ConfigurationManager.saveConfig(EngineType.class, internalEngineConfig, ENGINE_CONFIG_XML_FILENAME);
+        ConfigurationManager.saveConfig(EngineType.class, internalEngineConfig, configXmlFilename);
 
         final EngineType savedEngineConfig = ConfigurationManager.loadConfig(EngineType.class,
-                ENGINE_CONFIG_XML_FILENAME, ENGINE_CONFIG_XSD_FILENAME);
+                configXmlFilename, ENGINE_CONFIG_XSD_FILENAME);
         return adaptInternalToExternalConfig(savedEngineConfig);
     }
 
@@ -81,6 +102,13 @@ public class EngineConfigRepositoryXmlDatastore implements EngineConfigRepositor
         externalEngineConfig.setEmergencyStopCurrency(internalEngineConfig.getEmergencyStopCurrency());
         externalEngineConfig.setEmergencyStopBalance(internalEngineConfig.getEmergencyStopBalance());
         externalEngineConfig.setTradeCycleInterval(internalEngineConfig.getTradeCycleInterval());
+        externalEngineConfig.setTradeCycleIntervalUnit(internalEngineConfig.getTradeCycleIntervalUnit());
+        externalEngineConfig.setTradeCycleOverrunPolicy(internalEngineConfig.getTradeCycleOverrunPolicy());
+        externalEngineConfig.setStrategyExecutionMode(internalEngineConfig.getStrategyExecutionMode());
+        externalEngineConfig.setStrategyExecutionPoolSize(internalEngineConfig.getStrategyExecutionPoolSize());
+        externalEngineConfig.setStrategyExecutionTimeout(internalEngineConfig.getStrategyExecutionTimeout());
+        externalEngineConfig.setEmergencyStopCheckInterval(internalEngineConfig.getEmergencyStopCheckInterval());
+        externalEngineConfig.setStrategyInvocationMode(internalEngineConfig.getStrategyInvocationMode());
         return externalEngineConfig;
     }
 
@@ -92,6 +120,13 @@ public class EngineConfigRepositoryXmlDatastore implements EngineConfigRepositor
         internalEngineConfig.setEmergencyStopCurrency(externalEngineConfig.getEmergencyStopCurrency());
         internalEngineConfig.setEmergencyStopBalance(externalEngineConfig.getEmergencyStopBalance());
         internalEngineConfig.setTradeCycleInterval(externalEngineConfig.getTradeCycleInterval());
+        internalEngineConfig.setTradeCycleIntervalUnit(externalEngineConfig.getTradeCycleIntervalUnit());
+        internalEngineConfig.setTradeCycleOverrunPolicy(externalEngineConfig.getTradeCycleOverrunPolicy());
+        internalEngineConfig.setStrategyExecutionMode(externalEngineConfig.getStrategyExecutionMode());
+        internalEngineConfig.setStrategyExecutionPoolSize(externalEngineConfig.getStrategyExecutionPoolSize());
+        internalEngineConfig.setStrategyExecutionTimeout(externalEngineConfig.getStrategyExecutionTimeout());
+        internalEngineConfig.setEmergencyStopCheckInterval(externalEngineConfig.getEmergencyStopCheckInterval());
+        internalEngineConfig.setStrategyInvocationMode(externalEngineConfig.getStrategyInvocationMode());
         return internalEngineConfig;
     }
 }
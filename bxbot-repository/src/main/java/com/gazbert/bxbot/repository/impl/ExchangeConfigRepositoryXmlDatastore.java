@@ -29,14 +29,20 @@ import com.gazbert.bxbot.domain.exchange.AuthenticationConfig;
 import com.gazbert.bxbot.domain.exchange.ExchangeConfig;
 import com.gazbert.bxbot.domain.exchange.NetworkConfig;
 import com.gazbert.bxbot.domain.exchange.OptionalConfig;
+import com.gazbert.bxbot.domain.exchange.RateLimitConfig;
 import com.gazbert.bxbot.repository.ExchangeConfigRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
-import static com.gazbert.bxbot.datastore.FileLocations.EXCHANGE_CONFIG_XML_FILENAME;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.gazbert.bxbot.datastore.FileLocations.DEFAULT_CONFIG_DIR;
+import static com.gazbert.bxbot.datastore.FileLocations.EXCHANGE_CONFIG_XML;
 import static com.gazbert.bxbot.datastore.FileLocations.EXCHANGE_CONFIG_XSD_FILENAME;
+import static com.gazbert.bxbot.datastore.FileLocations.getConfigXmlFilename;
 
 /**
  * An XML datastore implementation of the Exchange config repository.
@@ -49,13 +55,32 @@ public class ExchangeConfigRepositoryXmlDatastore implements ExchangeConfigRepos
 
     private static final Logger LOG = LogManager.getLogger();
 
+    private final String configXmlFilename;
+
+
+    /**
+     * Creates the repository for the config in the default config directory.
+     */
+    public ExchangeConfigRepositoryXmlDatastore() {
+        this(DEFAULT_CONFIG_DIR);
+    }
+
+    /**
+     * Creates the repository for the config in the given config directory.
+     *
+     * @param configDir the bot's config directory.
+     */
+    public ExchangeConfigRepositoryXmlDatastore(String configDir) {
+        configXmlFilename = getConfigXmlFilename(configDir, EXCHANGE_CONFIG_XML);
+    }
+
     @Override
     public ExchangeConfig get() {
 
         LOG.info(() -> "Fetching ExchangeConfig...");
 
         final ExchangeType internalEngineConfig = ConfigurationManager.loadConfig(ExchangeType.class,
-                EXCHANGE_CONFIG_XML_FILENAME, EXCHANGE_CONFIG_XSD_FILENAME);
+                configXmlFilename, EXCHANGE_CONFIG_XSD_FILENAME);
         return adaptInternalToExternalConfig(internalEngineConfig);
     }
 
@@ -65,14 +90,40 @@ public class ExchangeConfigRepositoryXmlDatastore implements ExchangeConfigRepos
         LOG.info(() -> "About to save ExchangeConfig: " + config);
 
         final ExchangeType internalExchangeConfig = adaptExternalToInternalConfig(config);
-        ConfigurationManager.saveConfig(ExchangeType.class, internalExchangeConfig, EXCHANGE_CONFIG_XML_FILENAME);
+        ConfigurationManager.saveConfig(ExchangeType.class, internalExchangeConfig, configXmlFilename);
 
         final ExchangeType internalEngineConfig = ConfigurationManager.loadConfig(ExchangeType.class,
-                EXCHANGE_CONFIG_XML_FILENAME, EXCHANGE_CONFIG_XSD_FILENAME);
+                configXmlFilename, EXCHANGE_CONFIG_XSD_FILENAME);
 
         return adaptInternalToExternalConfig(internalEngineConfig);
     }
 
+    @Override
+    public List<ExchangeConfig> findAll() {
+
+        LOG.info(() -> "Fetching all ExchangeConfig...");
+
+        final ExchangeType internalExchangeConfig = ConfigurationManager.loadConfig(ExchangeType.class,
+                configXmlFilename, EXCHANGE_CONFIG_XSD_FILENAME);
+
+        final List<ExchangeConfig> exchangeConfigs = new ArrayList<>();
+        exchangeConfigs.add(adaptInternalToExternalConfig(internalExchangeConfig));
+
+        final AdditionalExchangesType additionalExchanges = internalExchangeConfig.getAdditionalExchanges();
+        if (additionalExchanges != null) { // it's optional
+            for (final ExchangeType additionalExchange : additionalExchanges.getExchanges()) {
+                if (additionalExchange.getAdditionalExchanges() != null) {
+                    final String errorMsg = "Additional Exchanges cannot be nested - found them inside Exchange: "
+                            + additionalExchange.getName();
+                    LOG.error(errorMsg);
+                    throw new IllegalArgumentException(errorMsg);
+                }
+                exchangeConfigs.add(adaptInternalToExternalConfig(additionalExchange));
+            }
+        }
+        return exchangeConfigs;
+    }
+
     // ------------------------------------------------------------------------------------------------
     // Adapter methods
     // ------------------------------------------------------------------------------------------------
@@ -80,13 +131,35 @@ public class ExchangeConfigRepositoryXmlDatastore implements ExchangeConfigRepos
     private static ExchangeConfig adaptInternalToExternalConfig(ExchangeType internalExchangeConfig) {
 
         final AuthenticationConfig authenticationConfig = new AuthenticationConfig();
-        internalExchangeConfig.getAuthenticationConfig().getConfigItems()
-                .forEach(item -> authenticationConfig.getItems().put(item.getName(), item.getValue()));
+        final AuthenticationConfigType internalAuthenticationConfig = internalExchangeConfig.getAuthenticationConfig();
+        if (internalAuthenticationConfig != null) { // it's optional
+            internalAuthenticationConfig.getConfigItems()
+                    .forEach(item -> authenticationConfig.getItems().put(item.getName(), item.getValue()));
+        }
 
         final NetworkConfig networkConfig = new NetworkConfig();
-        networkConfig.setConnectionTimeout(internalExchangeConfig.getNetworkConfig().getConnectionTimeout());
-        networkConfig.setNonFatalErrorCodes(internalExchangeConfig.getNetworkConfig().getNonFatalErrorCodes().getCodes());
-        networkConfig.setNonFatalErrorMessages(internalExchangeConfig.getNetworkConfig().getNonFatalErrorMessages().getMessages());
+        final NetworkConfigType internalNetworkConfig = internalExchangeConfig.getNetworkConfig();
+        if (internalNetworkConfig != null) { // it's optional
+            networkConfig.setConnectionTimeout(internalNetworkConfig.getConnectionTimeout());
+            networkConfig.setReadTimeout(internalNetworkConfig.getReadTimeout());
+            networkConfig.setConnectionPoolSize(internalNetworkConfig.getConnectionPoolSize());
+            networkConfig.setConnectionIdleTimeout(internalNetworkConfig.getConnectionIdleTimeout());
+            if (internalNetworkConfig.getNonFatalErrorCodes() != null) {
+                networkConfig.setNonFatalErrorCodes(internalNetworkConfig.getNonFatalErrorCodes().getCodes());
+            }
+            if (internalNetworkConfig.getNonFatalErrorMessages() != null) {
+                networkConfig.setNonFatalErrorMessages(internalNetworkConfig.getNonFatalErrorMessages().getMessages());
+            }
+            if (internalNetworkConfig.getRateLimits() != null) {
+                internalNetworkConfig.getRateLimits().getRateLimits().forEach(internalRateLimit -> {
+                    final RateLimitConfig rateLimit = new RateLimitConfig();
+                    rateLimit.setEndpointClass(internalRateLimit.getEndpointClass());
+                    rateLimit.setRequests(internalRateLimit.getRequests());
+                    rateLimit.setPeriod(internalRateLimit.getPeriod());
+                    networkConfig.getRateLimits().add(rateLimit);
+                });
+            }
+        }
 
         final OptionalConfig optionalConfig = new OptionalConfig();
         final OptionalConfigType internalOptionalConfig = internalExchangeConfig.getOptionalConfig();
@@ -96,6 +169,7 @@ public class ExchangeConfigRepositoryXmlDatastore implements ExchangeConfigRepos
         }
 
         final ExchangeConfig exchangeConfig = new ExchangeConfig();
+        exchangeConfig.setId(internalExchangeConfig.getId());
         exchangeConfig.setAuthenticationConfig(authenticationConfig);
         exchangeConfig.setExchangeName(internalExchangeConfig.getName());
         exchangeConfig.setExchangeAdapter(internalExchangeConfig.getAdapter());
@@ -104,7 +178,7 @@ public class ExchangeConfigRepositoryXmlDatastore implements ExchangeConfigRepos
         return exchangeConfig;
     }
 
-    private static ExchangeType adaptExternalToInternalConfig(ExchangeConfig externalExchangeConfig) {
+    private ExchangeType adaptExternalToInternalConfig(ExchangeConfig externalExchangeConfig) {
 
         final NonFatalErrorCodesType nonFatalErrorCodes = new NonFatalErrorCodesType();
         nonFatalErrorCodes.getCodes().addAll(externalExchangeConfig.getNetworkConfig().getNonFatalErrorCodes());
@@ -112,8 +186,22 @@ public class ExchangeConfigRepositoryXmlDatastore implements ExchangeConfigRepos
         nonFatalErrorMessages.getMessages().addAll(externalExchangeConfig.getNetworkConfig().getNonFatalErrorMessages());
         final NetworkConfigType networkConfig = new NetworkConfigType();
         networkConfig.setConnectionTimeout(externalExchangeConfig.getNetworkConfig().getConnectionTimeout());
+        networkConfig.setReadTimeout(externalExchangeConfig.getNetworkConfig().getReadTimeout());
+        networkConfig.setConnectionPoolSize(externalExchangeConfig.getNetworkConfig().getConnectionPoolSize());
+        networkConfig.setConnectionIdleTimeout(externalExchangeConfig.getNetworkConfig().getConnectionIdleTimeout());
         networkConfig.setNonFatalErrorCodes(nonFatalErrorCodes);
         networkConfig.setNonFatalErrorMessages(nonFatalErrorMessages);
+        if (!externalExchangeConfig.getNetworkConfig().getRateLimits().isEmpty()) { // must have 1+ if present
+            final RateLimitsType rateLimits = new RateLimitsType();
+            externalExchangeConfig.getNetworkConfig().getRateLimits().forEach(externalRateLimit -> {
+                final RateLimitType rateLimit = new RateLimitType();
+                rateLimit.setEndpointClass(externalRateLimit.getEndpointClass());
+                rateLimit.setRequests(externalRateLimit.getRequests());
+                rateLimit.setPeriod(externalRateLimit.getPeriod());
+                rateLimits.getRateLimits().add(rateLimit);
+            });
+            networkConfig.setRateLimits(rateLimits);
+        }
 
         final OptionalConfigType optionalConfig = new OptionalConfigType();
         externalExchangeConfig.getOptionalConfig().getItems().forEach((key, value) -> {
@@ -124,6 +212,7 @@ public class ExchangeConfigRepositoryXmlDatastore implements ExchangeConfigRepos
         });
 
         final ExchangeType exchangeConfig = new ExchangeType();
+        exchangeConfig.setId(externalExchangeConfig.getId());
         exchangeConfig.setName(externalExchangeConfig.getExchangeName());
         exchangeConfig.setAdapter(externalExchangeConfig.getExchangeAdapter());
         exchangeConfig.setNetworkConfig(networkConfig);
@@ -132,9 +221,12 @@ public class ExchangeConfigRepositoryXmlDatastore implements ExchangeConfigRepos
         // TODO - Currently, we don't accept AuthenticationConfig - security risk?
         // We load the existing auth config and merge it in with the updated stuff...
         final ExchangeType existingExchangeConfig = ConfigurationManager.loadConfig(ExchangeType.class,
-                EXCHANGE_CONFIG_XML_FILENAME, EXCHANGE_CONFIG_XSD_FILENAME);
+                configXmlFilename, EXCHANGE_CONFIG_XSD_FILENAME);
         exchangeConfig.setAuthenticationConfig(existingExchangeConfig.getAuthenticationConfig());
 
+        // Additional Exchanges are not updated through here - keep the existing ones.
+        exchangeConfig.setAdditionalExchanges(existingExchangeConfig.getAdditionalExchanges());
+
         return exchangeConfig;
     }
 }
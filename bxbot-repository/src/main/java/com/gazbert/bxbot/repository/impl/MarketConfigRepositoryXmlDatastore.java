@@ -39,8 +39,10 @@ import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
-import static com.gazbert.bxbot.datastore.FileLocations.MARKETS_CONFIG_XML_FILENAME;
+import static com.gazbert.bxbot.datastore.FileLocations.DEFAULT_CONFIG_DIR;
+import static com.gazbert.bxbot.datastore.FileLocations.MARKETS_CONFIG_XML;
 import static com.gazbert.bxbot.datastore.FileLocations.MARKETS_CONFIG_XSD_FILENAME;
+import static com.gazbert.bxbot.datastore.FileLocations.getConfigXmlFilename;
 
 /**
  * An XML datastore implementation of the Market config repository.
@@ -53,6 +55,25 @@ public class MarketConfigRepositoryXmlDatastore implements MarketConfigRepositor
 
     private static final Logger LOG = LogManager.getLogger();
 
+    private final String configXmlFilename;
+
+
+    /**
+     * Creates the repository for the config in the default config directory.
+     */
+    public MarketConfigRepositoryXmlDatastore() {
+        this(DEFAULT_CONFIG_DIR);
+    }
+
+    /**
+     * Creates the repository for the config in the given config directory.
+     *
+     * @param configDir the bot's config directory.
+     */
+    public MarketConfigRepositoryXmlDatastore(String configDir) {
+        configXmlFilename = getConfigXmlFilename(configDir, MARKETS_CONFIG_XML);
+    }
+
     @Override
 
     public List<MarketConfig> findAll() {
@@ -60,7 +81,7 @@ public class MarketConfigRepositoryXmlDatastore implements MarketConfigRepositor
         LOG.info(() -> "Fetching all Market configs...");
 
         final MarketsType internalMarketsConfig = ConfigurationManager.loadConfig(MarketsType.class,
-                MARKETS_CONFIG_XML_FILENAME, MARKETS_CONFIG_XSD_FILENAME);
+                configXmlFilename, MARKETS_CONFIG_XSD_FILENAME);
         return adaptAllInternalToAllExternalConfig(internalMarketsConfig);
     }
 
@@ -70,7 +91,7 @@ public class MarketConfigRepositoryXmlDatastore implements MarketConfigRepositor
         LOG.info(() -> "Fetching Market config for id: " + id);
 
         final MarketsType internalMarketsConfig = ConfigurationManager.loadConfig(MarketsType.class,
-                MARKETS_CONFIG_XML_FILENAME, MARKETS_CONFIG_XSD_FILENAME);
+                configXmlFilename, MARKETS_CONFIG_XSD_FILENAME);
 
         return adaptInternalToExternalConfig(
                 internalMarketsConfig.getMarkets()
@@ -84,7 +105,7 @@ public class MarketConfigRepositoryXmlDatastore implements MarketConfigRepositor
     public MarketConfig save(MarketConfig config) {
 
         final MarketsType internalMarketsConfig = ConfigurationManager.loadConfig(MarketsType.class,
-                MARKETS_CONFIG_XML_FILENAME, MARKETS_CONFIG_XSD_FILENAME);
+                configXmlFilename, MARKETS_CONFIG_XSD_FILENAME);
 
         final List<MarketType> marketTypes = internalMarketsConfig.getMarkets()
                 .stream()
@@ -103,10 +124,10 @@ public class MarketConfigRepositoryXmlDatastore implements MarketConfigRepositor
 
                 internalMarketsConfig.getMarkets().add(adaptExternalToInternalConfig(newMarketConfig));
                 ConfigurationManager.saveConfig(MarketsType.class, internalMarketsConfig,
-                        MARKETS_CONFIG_XML_FILENAME);
+                        configXmlFilename);
 
                 final MarketsType updatedInternalMarketsConfig = ConfigurationManager.loadConfig(
-                        MarketsType.class, MARKETS_CONFIG_XML_FILENAME, MARKETS_CONFIG_XSD_FILENAME);
+                        MarketsType.class, configXmlFilename, MARKETS_CONFIG_XSD_FILENAME);
 
                 return adaptInternalToExternalConfig(
                         updatedInternalMarketsConfig.getMarkets()
@@ -129,10 +150,10 @@ public class MarketConfigRepositoryXmlDatastore implements MarketConfigRepositor
                 internalMarketsConfig.getMarkets().remove(marketTypes.get(0)); // will only be 1 unique strat
                 internalMarketsConfig.getMarkets().add(adaptExternalToInternalConfig(config));
                 ConfigurationManager.saveConfig(MarketsType.class, internalMarketsConfig,
-                        MARKETS_CONFIG_XML_FILENAME);
+                        configXmlFilename);
 
                 final MarketsType updatedInternalMarketsConfig = ConfigurationManager.loadConfig(
-                        MarketsType.class, MARKETS_CONFIG_XML_FILENAME, MARKETS_CONFIG_XSD_FILENAME);
+                        MarketsType.class, configXmlFilename, MARKETS_CONFIG_XSD_FILENAME);
 
                 return adaptInternalToExternalConfig(
                         updatedInternalMarketsConfig.getMarkets()
@@ -154,7 +175,7 @@ public class MarketConfigRepositoryXmlDatastore implements MarketConfigRepositor
         LOG.info(() -> "Deleting Market config for id: " + id);
 
         final MarketsType internalMarketsConfig = ConfigurationManager.loadConfig(MarketsType.class,
-                MARKETS_CONFIG_XML_FILENAME, MARKETS_CONFIG_XSD_FILENAME);
+                configXmlFilename, MARKETS_CONFIG_XSD_FILENAME);
 
         final List<MarketType> marketTypes = internalMarketsConfig.getMarkets()
                 .stream()
@@ -167,7 +188,7 @@ public class MarketConfigRepositoryXmlDatastore implements MarketConfigRepositor
             final MarketType marketToRemove = marketTypes.get(0); // will only be 1 unique strat
             internalMarketsConfig.getMarkets().remove(marketToRemove);
             ConfigurationManager.saveConfig(MarketsType.class, internalMarketsConfig,
-                    MARKETS_CONFIG_XML_FILENAME);
+                    configXmlFilename);
 
             return adaptInternalToExternalConfig(Collections.singletonList(marketToRemove));
         } else {
@@ -195,6 +216,10 @@ public class MarketConfigRepositoryXmlDatastore implements MarketConfigRepositor
             marketConfig.setBaseCurrency(item.getBaseCurrency());
             marketConfig.setCounterCurrency(item.getCounterCurrency());
             marketConfig.setTradingStrategyId(item.getTradingStrategyId());
+            marketConfig.setTradeCycleInterval(item.getTradeCycleInterval());
+            marketConfig.setTradeCycleIntervalUnit(item.getTradeCycleIntervalUnit());
+            marketConfig.setExchangeId(item.getExchangeId());
+            marketConfig.setOrderBookDepth(item.getOrderBookDepth());
 
             marketConfigItems.add(marketConfig);
         });
@@ -216,6 +241,10 @@ public class MarketConfigRepositoryXmlDatastore implements MarketConfigRepositor
             marketConfig.setBaseCurrency(internalMarketConfig.getBaseCurrency());
             marketConfig.setCounterCurrency(internalMarketConfig.getCounterCurrency());
             marketConfig.setTradingStrategyId(internalMarketConfig.getTradingStrategyId());
+            marketConfig.setTradeCycleInterval(internalMarketConfig.getTradeCycleInterval());
+            marketConfig.setTradeCycleIntervalUnit(internalMarketConfig.getTradeCycleIntervalUnit());
+            marketConfig.setExchangeId(internalMarketConfig.getExchangeId());
+            marketConfig.setOrderBookDepth(internalMarketConfig.getOrderBookDepth());
 
             return marketConfig;
         }
@@ -231,6 +260,10 @@ public class MarketConfigRepositoryXmlDatastore implements MarketConfigRepositor
         marketType.setBaseCurrency(externalMarketConfig.getBaseCurrency());
         marketType.setCounterCurrency(externalMarketConfig.getCounterCurrency());
         marketType.setTradingStrategyId(externalMarketConfig.getTradingStrategyId());
+        marketType.setTradeCycleInterval(externalMarketConfig.getTradeCycleInterval());
+        marketType.setTradeCycleIntervalUnit(externalMarketConfig.getTradeCycleIntervalUnit());
+        marketType.setExchangeId(externalMarketConfig.getExchangeId());
+        marketType.setOrderBookDepth(externalMarketConfig.getOrderBookDepth());
         return marketType;
     }
 
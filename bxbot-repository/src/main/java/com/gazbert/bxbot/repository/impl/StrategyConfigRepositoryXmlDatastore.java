@@ -41,8 +41,10 @@ import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
-import static com.gazbert.bxbot.datastore.FileLocations.STRATEGIES_CONFIG_XML_FILENAME;
+import static com.gazbert.bxbot.datastore.FileLocations.DEFAULT_CONFIG_DIR;
+import static com.gazbert.bxbot.datastore.FileLocations.STRATEGIES_CONFIG_XML;
 import static com.gazbert.bxbot.datastore.FileLocations.STRATEGIES_CONFIG_XSD_FILENAME;
+import static com.gazbert.bxbot.datastore.FileLocations.getConfigXmlFilename;
 
 /**
  * An XML datastore implementation of the Strategy config repository.
@@ -55,13 +57,32 @@ public class StrategyConfigRepositoryXmlDatastore implements StrategyConfigRepos
 
     private static final Logger LOG = LogManager.getLogger();
 
+    private final String configXmlFilename;
+
+
+    /**
+     * Creates the repository for the config in the default config directory.
+     */
+    public StrategyConfigRepositoryXmlDatastore() {
+        this(DEFAULT_CONFIG_DIR);
+    }
+
+    /**
+     * Creates the repository for the config in the given config directory.
+     *
+     * @param configDir the bot's config directory.
+     */
+    public StrategyConfigRepositoryXmlDatastore(String configDir) {
+        configXmlFilename = getConfigXmlFilename(configDir, STRATEGIES_CONFIG_XML);
+    }
+
     @Override
     public List<StrategyConfig> findAll() {
 
         LOG.info(() -> "Fetching all Strategy configs...");
 
         final TradingStrategiesType internalStrategiesConfig = ConfigurationManager.loadConfig(TradingStrategiesType.class,
-                STRATEGIES_CONFIG_XML_FILENAME, STRATEGIES_CONFIG_XSD_FILENAME);
+                configXmlFilename, STRATEGIES_CONFIG_XSD_FILENAME);
         return adaptAllInternalToAllExternalConfig(internalStrategiesConfig);
     }
 
@@ -71,7 +92,7 @@ public class StrategyConfigRepositoryXmlDatastore implements StrategyConfigRepos
         LOG.info(() -> "Fetching config for Strategy id: " + id);
 
         final TradingStrategiesType internalStrategiesConfig = ConfigurationManager.loadConfig(TradingStrategiesType.class,
-                STRATEGIES_CONFIG_XML_FILENAME, STRATEGIES_CONFIG_XSD_FILENAME);
+                configXmlFilename, STRATEGIES_CONFIG_XSD_FILENAME);
 
         return adaptInternalToExternalConfig(
                 internalStrategiesConfig.getStrategies()
@@ -85,7 +106,7 @@ public class StrategyConfigRepositoryXmlDatastore implements StrategyConfigRepos
     public StrategyConfig save(StrategyConfig config) {
 
         final TradingStrategiesType internalStrategiesConfig = ConfigurationManager.loadConfig(TradingStrategiesType.class,
-                STRATEGIES_CONFIG_XML_FILENAME, STRATEGIES_CONFIG_XSD_FILENAME);
+                configXmlFilename, STRATEGIES_CONFIG_XSD_FILENAME);
 
         final List<StrategyType> strategyTypes = internalStrategiesConfig.getStrategies()
                 .stream()
@@ -104,10 +125,10 @@ public class StrategyConfigRepositoryXmlDatastore implements StrategyConfigRepos
 
                 internalStrategiesConfig.getStrategies().add(adaptExternalToInternalConfig(newStrategyConfig));
                 ConfigurationManager.saveConfig(TradingStrategiesType.class, internalStrategiesConfig,
-                        STRATEGIES_CONFIG_XML_FILENAME);
+                        configXmlFilename);
 
                 final TradingStrategiesType updatedInternalStrategiesConfig = ConfigurationManager.loadConfig(
-                        TradingStrategiesType.class, STRATEGIES_CONFIG_XML_FILENAME, STRATEGIES_CONFIG_XSD_FILENAME);
+                        TradingStrategiesType.class, configXmlFilename, STRATEGIES_CONFIG_XSD_FILENAME);
 
                 return adaptInternalToExternalConfig(
                         updatedInternalStrategiesConfig.getStrategies()
@@ -129,10 +150,10 @@ public class StrategyConfigRepositoryXmlDatastore implements StrategyConfigRepos
 
                 internalStrategiesConfig.getStrategies().remove(strategyTypes.get(0)); // will only be 1 unique strat
                 internalStrategiesConfig.getStrategies().add(adaptExternalToInternalConfig(config));
-                ConfigurationManager.saveConfig(TradingStrategiesType.class, internalStrategiesConfig, STRATEGIES_CONFIG_XML_FILENAME);
+                ConfigurationManager.saveConfig(TradingStrategiesType.class, internalStrategiesConfig, configXmlFilename);
 
                 final TradingStrategiesType updatedInternalStrategiesConfig = ConfigurationManager.loadConfig(
-                        TradingStrategiesType.class, STRATEGIES_CONFIG_XML_FILENAME, STRATEGIES_CONFIG_XSD_FILENAME);
+                        TradingStrategiesType.class, configXmlFilename, STRATEGIES_CONFIG_XSD_FILENAME);
 
                 return adaptInternalToExternalConfig(
                         updatedInternalStrategiesConfig.getStrategies()
@@ -154,7 +175,7 @@ public class StrategyConfigRepositoryXmlDatastore implements StrategyConfigRepos
         LOG.info(() -> "Deleting Strategy config for id: " + id);
 
         final TradingStrategiesType internalStrategiesConfig = ConfigurationManager.loadConfig(TradingStrategiesType.class,
-                STRATEGIES_CONFIG_XML_FILENAME, STRATEGIES_CONFIG_XSD_FILENAME);
+                configXmlFilename, STRATEGIES_CONFIG_XSD_FILENAME);
 
         final List<StrategyType> strategyTypes = internalStrategiesConfig.getStrategies()
                 .stream()
@@ -167,7 +188,7 @@ public class StrategyConfigRepositoryXmlDatastore implements StrategyConfigRepos
             final StrategyType strategyToRemove = strategyTypes.get(0); // will only be 1 unique strat
             internalStrategiesConfig.getStrategies().remove(strategyToRemove);
             ConfigurationManager.saveConfig(TradingStrategiesType.class, internalStrategiesConfig,
-                    STRATEGIES_CONFIG_XML_FILENAME);
+                    configXmlFilename);
 
             return adaptInternalToExternalConfig(Collections.singletonList(strategyToRemove));
         } else {
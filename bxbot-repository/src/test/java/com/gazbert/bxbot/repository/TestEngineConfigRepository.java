@@ -55,6 +55,14 @@ public class TestEngineConfigRepository {
     private static final String ENGINE_EMERGENCY_STOP_CURRENCY = "BTC";
     private static final BigDecimal ENGINE_EMERGENCY_STOP_BALANCE = new BigDecimal("0.5");
     private static final int ENGINE_TRADE_CYCLE_INTERVAL = 60;
+    private static final String ENGINE_TRADE_CYCLE_INTERVAL_UNIT = "MILLISECONDS";
+    private static final String ENGINE_TRADE_CYCLE_OVERRUN_POLICY = "SKIP";
+    private static final String ENGINE_STRATEGY_EXECUTION_MODE = "PARALLEL";
+    private static final Integer ENGINE_STRATEGY_EXECUTION_POOL_SIZE = 4;
+    private static final Integer ENGINE_STRATEGY_EXECUTION_TIMEOUT = 30;
+    private static final Integer ENGINE_EMERGENCY_STOP_CHECK_INTERVAL = 5;
+    private static final String ENGINE_STRATEGY_INVOCATION_MODE = "EVENT_DRIVEN";
+    private static final String BOT_CONFIG_DIR = "bots/avro-707";
 
 
     @Before
@@ -80,6 +88,31 @@ public class TestEngineConfigRepository {
         assertThat(engineConfig.getEmergencyStopCurrency()).isEqualTo(ENGINE_EMERGENCY_STOP_CURRENCY);
         assertThat(engineConfig.getEmergencyStopBalance()).isEqualTo(ENGINE_EMERGENCY_STOP_BALANCE);
         assertThat(engineConfig.getTradeCycleInterval()).isEqualTo(ENGINE_TRADE_CYCLE_INTERVAL);
+        assertThat(engineConfig.getTradeCycleIntervalUnit()).isEqualTo(ENGINE_TRADE_CYCLE_INTERVAL_UNIT);
+        assertThat(engineConfig.getTradeCycleOverrunPolicy()).isEqualTo(ENGINE_TRADE_CYCLE_OVERRUN_POLICY);
+        assertThat(engineConfig.getStrategyExecutionMode()).isEqualTo(ENGINE_STRATEGY_EXECUTION_MODE);
+        assertThat(engineConfig.getStrategyExecutionPoolSize()).isEqualTo(ENGINE_STRATEGY_EXECUTION_POOL_SIZE);
+        assertThat(engineConfig.getStrategyExecutionTimeout()).isEqualTo(ENGINE_STRATEGY_EXECUTION_TIMEOUT);
+        assertThat(engineConfig.getEmergencyStopCheckInterval()).isEqualTo(ENGINE_EMERGENCY_STOP_CHECK_INTERVAL);
+        assertThat(engineConfig.getStrategyInvocationMode()).isEqualTo(ENGINE_STRATEGY_INVOCATION_MODE);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void whenGetCalledForBotConfigDirThenExpectEngineConfigToBeLoadedFromThatDir() throws Exception {
+
+        expect(ConfigurationManager.loadConfig(
+                eq(EngineType.class),
+                eq(BOT_CONFIG_DIR + "/engine.xml"),
+                eq(ENGINE_CONFIG_XSD_FILENAME))).
+                andReturn(someInternalEngineConfig());
+
+        PowerMock.replayAll();
+
+        final EngineConfigRepository engineConfigRepository = new EngineConfigRepositoryXmlDatastore(BOT_CONFIG_DIR);
+        final EngineConfig engineConfig = engineConfigRepository.get();
+        assertThat(engineConfig.getBotId()).isEqualTo(BOT_ID);
 
         PowerMock.verifyAll();
     }
@@ -105,6 +138,13 @@ public class TestEngineConfigRepository {
         assertThat(savedConfig.getEmergencyStopCurrency()).isEqualTo(ENGINE_EMERGENCY_STOP_CURRENCY);
         assertThat(savedConfig.getEmergencyStopBalance()).isEqualTo(ENGINE_EMERGENCY_STOP_BALANCE);
         assertThat(savedConfig.getTradeCycleInterval()).isEqualTo(ENGINE_TRADE_CYCLE_INTERVAL);
+        assertThat(savedConfig.getTradeCycleIntervalUnit()).isEqualTo(ENGINE_TRADE_CYCLE_INTERVAL_UNIT);
+        assertThat(savedConfig.getTradeCycleOverrunPolicy()).isEqualTo(ENGINE_TRADE_CYCLE_OVERRUN_POLICY);
+        assertThat(savedConfig.getStrategyExecutionMode()).isEqualTo(ENGINE_STRATEGY_EXECUTION_MODE);
+        assertThat(savedConfig.getStrategyExecutionPoolSize()).isEqualTo(ENGINE_STRATEGY_EXECUTION_POOL_SIZE);
+        assertThat(savedConfig.getStrategyExecutionTimeout()).isEqualTo(ENGINE_STRATEGY_EXECUTION_TIMEOUT);
+        assertThat(savedConfig.getEmergencyStopCheckInterval()).isEqualTo(ENGINE_EMERGENCY_STOP_CHECK_INTERVAL);
+        assertThat(savedConfig.getStrategyInvocationMode()).isEqualTo(ENGINE_STRATEGY_INVOCATION_MODE);
 
         PowerMock.verifyAll();
     }
@@ -120,6 +160,13 @@ public class TestEngineConfigRepository {
         internalConfig.setEmergencyStopBalance(ENGINE_EMERGENCY_STOP_BALANCE);
         internalConfig.setEmergencyStopCurrency(ENGINE_EMERGENCY_STOP_CURRENCY);
         internalConfig.setTradeCycleInterval(ENGINE_TRADE_CYCLE_INTERVAL);
+        internalConfig.setTradeCycleIntervalUnit(ENGINE_TRADE_CYCLE_INTERVAL_UNIT);
+        internalConfig.setTradeCycleOverrunPolicy(ENGINE_TRADE_CYCLE_OVERRUN_POLICY);
+        internalConfig.setStrategyExecutionMode(ENGINE_STRATEGY_EXECUTION_MODE);
+        internalConfig.setStrategyExecutionPoolSize(ENGINE_STRATEGY_EXECUTION_POOL_SIZE);
+        internalConfig.setStrategyExecutionTimeout(ENGINE_STRATEGY_EXECUTION_TIMEOUT);
+        internalConfig.setEmergencyStopCheckInterval(ENGINE_EMERGENCY_STOP_CHECK_INTERVAL);
+        internalConfig.setStrategyInvocationMode(ENGINE_STRATEGY_INVOCATION_MODE);
         return internalConfig;
     }
 
@@ -130,6 +177,13 @@ public class TestEngineConfigRepository {
         externalConfig.setEmergencyStopBalance(ENGINE_EMERGENCY_STOP_BALANCE);
         externalConfig.setEmergencyStopCurrency(ENGINE_EMERGENCY_STOP_CURRENCY);
         externalConfig.setTradeCycleInterval(ENGINE_TRADE_CYCLE_INTERVAL);
+        externalConfig.setTradeCycleIntervalUnit(ENGINE_TRADE_CYCLE_INTERVAL_UNIT);
+        externalConfig.setTradeCycleOverrunPolicy(ENGINE_TRADE_CYCLE_OVERRUN_POLICY);
+        externalConfig.setStrategyExecutionMode(ENGINE_STRATEGY_EXECUTION_MODE);
+        externalConfig.setStrategyExecutionPoolSize(ENGINE_STRATEGY_EXECUTION_POOL_SIZE);
+        externalConfig.setStrategyExecutionTimeout(ENGINE_STRATEGY_EXECUTION_TIMEOUT);
+        externalConfig.setEmergencyStopCheckInterval(ENGINE_EMERGENCY_STOP_CHECK_INTERVAL);
+        externalConfig.setStrategyInvocationMode(ENGINE_STRATEGY_INVOCATION_MODE);
         return externalConfig;
     }
 }
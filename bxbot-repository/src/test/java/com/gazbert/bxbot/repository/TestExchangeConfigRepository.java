@@ -29,6 +29,7 @@ import com.gazbert.bxbot.domain.exchange.AuthenticationConfig;
 import com.gazbert.bxbot.domain.exchange.ExchangeConfig;
 import com.gazbert.bxbot.domain.exchange.NetworkConfig;
 import com.gazbert.bxbot.domain.exchange.OptionalConfig;
+import com.gazbert.bxbot.domain.exchange.RateLimitConfig;
 import com.gazbert.bxbot.repository.impl.ExchangeConfigRepositoryXmlDatastore;
 import org.junit.Before;
 import org.junit.Test;
@@ -57,6 +58,10 @@ public class TestExchangeConfigRepository {
     private static final String EXCHANGE_NAME = "Bitstamp";
     private static final String EXCHANGE_ADAPTER = "com.gazbert.bxbot.exchanges.TestExchangeAdapter";
 
+    private static final String ADDITIONAL_EXCHANGE_ID = "kraken";
+    private static final String ADDITIONAL_EXCHANGE_NAME = "Kraken";
+    private static final String ADDITIONAL_EXCHANGE_ADAPTER = "com.gazbert.bxbot.exchanges.KrakenExchangeAdapter";
+
     private static final String API_KEY_CONFIG_ITEM_KEY = "api-key";
     private static final String API_KEY_CONFIG_ITEM_VALUE = "apiKey--123";
 
@@ -64,9 +69,15 @@ public class TestExchangeConfigRepository {
     private static final String SECRET_CONFIG_ITEM_VALUE = "secret-key";
 
     private static final Integer CONNECTION_TIMEOUT = 30;
+    private static final Integer READ_TIMEOUT = 60;
+    private static final Integer CONNECTION_POOL_SIZE = 10;
+    private static final Integer CONNECTION_IDLE_TIMEOUT = 30;
     private static final List<Integer> NON_FATAL_ERROR_CODES = Arrays.asList(502, 503, 504);
     private static final List<String> NON_FATAL_ERROR_MESSAGES = Arrays.asList(
             "Connection refused", "Connection reset", "Remote host closed connection during handshake");
+    private static final String RATE_LIMIT_ENDPOINT_CLASS = "all";
+    private static final Integer RATE_LIMIT_REQUESTS = 600;
+    private static final Integer RATE_LIMIT_PERIOD = 600;
 
     private static final String BUY_FEE_CONFIG_ITEM_KEY = "buy-fee";
     private static final String BUY_FEE_CONFIG_ITEM_VALUE = "0.20";
@@ -100,6 +111,9 @@ public class TestExchangeConfigRepository {
         assertThat(exchangeConfig.getAuthenticationConfig().getItems().get(SECRET_CONFIG_ITEM_KEY)).isEqualTo(SECRET_CONFIG_ITEM_VALUE);
 
         assertThat(exchangeConfig.getNetworkConfig().getConnectionTimeout()).isEqualTo(CONNECTION_TIMEOUT);
+        assertThat(exchangeConfig.getNetworkConfig().getReadTimeout()).isEqualTo(READ_TIMEOUT);
+        assertThat(exchangeConfig.getNetworkConfig().getConnectionPoolSize()).isEqualTo(CONNECTION_POOL_SIZE);
+        assertThat(exchangeConfig.getNetworkConfig().getConnectionIdleTimeout()).isEqualTo(CONNECTION_IDLE_TIMEOUT);
         assertThat(exchangeConfig.getNetworkConfig().getNonFatalErrorCodes()).isEqualTo(NON_FATAL_ERROR_CODES);
         assertThat(exchangeConfig.getNetworkConfig().getNonFatalErrorMessages()).isEqualTo(NON_FATAL_ERROR_MESSAGES);
         assertThat(exchangeConfig.getOptionalConfig().getItems().get(BUY_FEE_CONFIG_ITEM_KEY)).isEqualTo(BUY_FEE_CONFIG_ITEM_VALUE);
@@ -137,14 +151,59 @@ public class TestExchangeConfigRepository {
         assertThat(savedExchangeConfig.getAuthenticationConfig().getItems().get(SECRET_CONFIG_ITEM_KEY)).isEqualTo(SECRET_CONFIG_ITEM_VALUE);
 
         assertThat(savedExchangeConfig.getNetworkConfig().getConnectionTimeout()).isEqualTo(CONNECTION_TIMEOUT);
+        assertThat(savedExchangeConfig.getNetworkConfig().getReadTimeout()).isEqualTo(READ_TIMEOUT);
+        assertThat(savedExchangeConfig.getNetworkConfig().getConnectionPoolSize()).isEqualTo(CONNECTION_POOL_SIZE);
+        assertThat(savedExchangeConfig.getNetworkConfig().getConnectionIdleTimeout()).isEqualTo(CONNECTION_IDLE_TIMEOUT);
         assertThat(savedExchangeConfig.getNetworkConfig().getNonFatalErrorCodes()).isEqualTo(NON_FATAL_ERROR_CODES);
         assertThat(savedExchangeConfig.getNetworkConfig().getNonFatalErrorMessages()).isEqualTo(NON_FATAL_ERROR_MESSAGES);
+        assertThat(savedExchangeConfig.getNetworkConfig().getRateLimits().size()).isEqualTo(1);
+        assertThat(savedExchangeConfig.getNetworkConfig().getRateLimits().get(0).getEndpointClass()).isEqualTo(RATE_LIMIT_ENDPOINT_CLASS);
+        assertThat(savedExchangeConfig.getNetworkConfig().getRateLimits().get(0).getRequests()).isEqualTo(RATE_LIMIT_REQUESTS);
+        assertThat(savedExchangeConfig.getNetworkConfig().getRateLimits().get(0).getPeriod()).isEqualTo(RATE_LIMIT_PERIOD);
         assertThat(savedExchangeConfig.getOptionalConfig().getItems().get(BUY_FEE_CONFIG_ITEM_KEY)).isEqualTo(BUY_FEE_CONFIG_ITEM_VALUE);
         assertThat(savedExchangeConfig.getOptionalConfig().getItems().get(SELL_FEE_CONFIG_ITEM_KEY)).isEqualTo(SELL_FEE_CONFIG_ITEM_VALUE);
 
         PowerMock.verifyAll();
     }
 
+    @Test
+    public void whenFindAllCalledThenReturnMainExchangeFollowedByAdditionalExchanges() throws Exception {
+
+        final ExchangeType additionalExchange = new ExchangeType();
+        additionalExchange.setId(ADDITIONAL_EXCHANGE_ID);
+        additionalExchange.setName(ADDITIONAL_EXCHANGE_NAME);
+        additionalExchange.setAdapter(ADDITIONAL_EXCHANGE_ADAPTER);
+        final AdditionalExchangesType additionalExchanges = new AdditionalExchangesType();
+        additionalExchanges.getExchanges().add(additionalExchange);
+
+        final ExchangeType internalExchangeConfig = someInternalExchangeConfig();
+        internalExchangeConfig.setAdditionalExchanges(additionalExchanges);
+
+        expect(ConfigurationManager.loadConfig(
+                eq(ExchangeType.class),
+                eq(EXCHANGE_CONFIG_XML_FILENAME),
+                eq(EXCHANGE_CONFIG_XSD_FILENAME))).
+                andReturn(internalExchangeConfig);
+
+        PowerMock.replayAll();
+
+        final ExchangeConfigRepository exchangeConfigRepository = new ExchangeConfigRepositoryXmlDatastore();
+        final List<ExchangeConfig> exchangeConfigs = exchangeConfigRepository.findAll();
+
+        assertThat(exchangeConfigs.size()).isEqualTo(2);
+
+        assertThat(exchangeConfigs.get(0).getId()).isNull();
+        assertThat(exchangeConfigs.get(0).getExchangeName()).isEqualTo(EXCHANGE_NAME);
+        assertThat(exchangeConfigs.get(0).getExchangeAdapter()).isEqualTo(EXCHANGE_ADAPTER);
+
+        assertThat(exchangeConfigs.get(1).getId()).isEqualTo(ADDITIONAL_EXCHANGE_ID);
+        assertThat(exchangeConfigs.get(1).getExchangeName()).isEqualTo(ADDITIONAL_EXCHANGE_NAME);
+        assertThat(exchangeConfigs.get(1).getExchangeAdapter()).isEqualTo(ADDITIONAL_EXCHANGE_ADAPTER);
+        assertThat(exchangeConfigs.get(1).getAuthenticationConfig().getItems()).isEmpty();
+
+        PowerMock.verifyAll();
+    }
+
     // ------------------------------------------------------------------------------------------------
     // Private utils
     // ------------------------------------------------------------------------------------------------
@@ -167,8 +226,18 @@ public class TestExchangeConfigRepository {
         nonFatalErrorMessages.getMessages().addAll(NON_FATAL_ERROR_MESSAGES);
         final NetworkConfigType networkConfig = new NetworkConfigType();
         networkConfig.setConnectionTimeout(CONNECTION_TIMEOUT);
+        networkConfig.setReadTimeout(READ_TIMEOUT);
+        networkConfig.setConnectionPoolSize(CONNECTION_POOL_SIZE);
+        networkConfig.setConnectionIdleTimeout(CONNECTION_IDLE_TIMEOUT);
         networkConfig.setNonFatalErrorCodes(nonFatalErrorCodes);
         networkConfig.setNonFatalErrorMessages(nonFatalErrorMessages);
+        final RateLimitType rateLimit = new RateLimitType();
+        rateLimit.setEndpointClass(RATE_LIMIT_ENDPOINT_CLASS);
+        rateLimit.setRequests(RATE_LIMIT_REQUESTS);
+        rateLimit.setPeriod(RATE_LIMIT_PERIOD);
+        final RateLimitsType rateLimits = new RateLimitsType();
+        rateLimits.getRateLimits().add(rateLimit);
+        networkConfig.setRateLimits(rateLimits);
 
         final ConfigItemType buyFee = new ConfigItemType();
         buyFee.setName(BUY_FEE_CONFIG_ITEM_KEY);
@@ -199,8 +268,16 @@ public class TestExchangeConfigRepository {
 
         final NetworkConfig networkConfig = new NetworkConfig();
         networkConfig.setConnectionTimeout(CONNECTION_TIMEOUT);
+        networkConfig.setReadTimeout(READ_TIMEOUT);
+        networkConfig.setConnectionPoolSize(CONNECTION_POOL_SIZE);
+        networkConfig.setConnectionIdleTimeout(CONNECTION_IDLE_TIMEOUT);
         networkConfig.setNonFatalErrorCodes(NON_FATAL_ERROR_CODES);
         networkConfig.setNonFatalErrorMessages(NON_FATAL_ERROR_MESSAGES);
+        final RateLimitConfig rateLimit = new RateLimitConfig();
+        rateLimit.setEndpointClass(RATE_LIMIT_ENDPOINT_CLASS);
+        rateLimit.setRequests(RATE_LIMIT_REQUESTS);
+        rateLimit.setPeriod(RATE_LIMIT_PERIOD);
+        networkConfig.getRateLimits().add(rateLimit);
 
         final OptionalConfig optionalConfig = new OptionalConfig();
         optionalConfig.getItems().put(BUY_FEE_CONFIG_ITEM_KEY, BUY_FEE_CONFIG_ITEM_VALUE);
@@ -63,6 +63,10 @@ public class TestMarketConfigRepository {
     private static final String MARKET_1_COUNTER_CURRENCY = "USD";
     private static final boolean MARKET_1_IS_ENABLED = true;
     private static final String MARKET_1_TRADING_STRATEGY_ID = "macd_trend_follower";
+    private static final Integer MARKET_1_TRADE_CYCLE_INTERVAL = 500;
+    private static final String MARKET_1_TRADE_CYCLE_INTERVAL_UNIT = "MILLISECONDS";
+    private static final String MARKET_1_EXCHANGE_ID = "kraken";
+    private static final Integer MARKET_1_ORDER_BOOK_DEPTH = 20;
 
     private static final String MARKET_2_ID = "gdax_gbp/btc";
     private static final String MARKET_2_NAME = "BTC/GBP";
@@ -105,6 +109,10 @@ public class TestMarketConfigRepository {
         assertThat(marketConfigItems.get(0).getBaseCurrency()).isEqualTo(MARKET_1_BASE_CURRENCY);
         assertThat(marketConfigItems.get(0).getCounterCurrency()).isEqualTo(MARKET_1_COUNTER_CURRENCY);
         assertThat(marketConfigItems.get(0).getTradingStrategyId()).isEqualTo(MARKET_1_TRADING_STRATEGY_ID);
+        assertThat(marketConfigItems.get(0).getTradeCycleInterval()).isEqualTo(MARKET_1_TRADE_CYCLE_INTERVAL);
+        assertThat(marketConfigItems.get(0).getTradeCycleIntervalUnit()).isEqualTo(MARKET_1_TRADE_CYCLE_INTERVAL_UNIT);
+        assertThat(marketConfigItems.get(0).getExchangeId()).isEqualTo(MARKET_1_EXCHANGE_ID);
+        assertThat(marketConfigItems.get(0).getOrderBookDepth()).isEqualTo(MARKET_1_ORDER_BOOK_DEPTH);
 
         assertThat(marketConfigItems.get(1).getId()).isEqualTo(MARKET_2_ID);
         assertThat(marketConfigItems.get(1).getName()).isEqualTo(MARKET_2_NAME);
@@ -112,6 +120,10 @@ public class TestMarketConfigRepository {
         assertThat(marketConfigItems.get(1).getBaseCurrency()).isEqualTo(MARKET_2_BASE_CURRENCY);
         assertThat(marketConfigItems.get(1).getCounterCurrency()).isEqualTo(MARKET_2_COUNTER_CURRENCY);
         assertThat(marketConfigItems.get(1).getTradingStrategyId()).isEqualTo(MARKET_2_TRADING_STRATEGY_ID);
+        assertThat(marketConfigItems.get(1).getTradeCycleInterval()).isNull();
+        assertThat(marketConfigItems.get(1).getTradeCycleIntervalUnit()).isNull();
+        assertThat(marketConfigItems.get(1).getExchangeId()).isNull();
+        assertThat(marketConfigItems.get(1).getOrderBookDepth()).isNull();
 
         PowerMock.verifyAll();
     }
@@ -136,6 +148,10 @@ public class TestMarketConfigRepository {
         assertThat(marketConfig.getBaseCurrency()).isEqualTo(MARKET_1_BASE_CURRENCY);
         assertThat(marketConfig.getCounterCurrency()).isEqualTo(MARKET_1_COUNTER_CURRENCY);
         assertThat(marketConfig.getTradingStrategyId()).isEqualTo(MARKET_1_TRADING_STRATEGY_ID);
+        assertThat(marketConfig.getTradeCycleInterval()).isEqualTo(MARKET_1_TRADE_CYCLE_INTERVAL);
+        assertThat(marketConfig.getTradeCycleIntervalUnit()).isEqualTo(MARKET_1_TRADE_CYCLE_INTERVAL_UNIT);
+        assertThat(marketConfig.getExchangeId()).isEqualTo(MARKET_1_EXCHANGE_ID);
+        assertThat(marketConfig.getOrderBookDepth()).isEqualTo(MARKET_1_ORDER_BOOK_DEPTH);
 
         PowerMock.verifyAll();
     }
@@ -231,7 +247,7 @@ public class TestMarketConfigRepository {
                 eq(MARKETS_CONFIG_XSD_FILENAME))).
                 andReturn(allTheInternalMarketsConfigPlusNewOne());
 
-        final MarketConfigRepository marketConfigRepository = PowerMock.createPartialMock(
+        final MarketConfigRepository marketConfigRepository = PowerMock.createPartialMockAndInvokeDefaultConstructor(
                 MarketConfigRepositoryXmlDatastore.class, MOCKED_GENERATE_UUID_METHOD);
         PowerMock.expectPrivate(marketConfigRepository, MOCKED_GENERATE_UUID_METHOD).andReturn(GENERATED_MARKET_ID);
 
@@ -309,6 +325,10 @@ public class TestMarketConfigRepository {
         marketType1.setBaseCurrency(MARKET_1_BASE_CURRENCY);
         marketType1.setCounterCurrency(MARKET_1_COUNTER_CURRENCY);
         marketType1.setTradingStrategyId(MARKET_1_TRADING_STRATEGY_ID);
+        marketType1.setTradeCycleInterval(MARKET_1_TRADE_CYCLE_INTERVAL);
+        marketType1.setTradeCycleIntervalUnit(MARKET_1_TRADE_CYCLE_INTERVAL_UNIT);
+        marketType1.setExchangeId(MARKET_1_EXCHANGE_ID);
+        marketType1.setOrderBookDepth(MARKET_1_ORDER_BOOK_DEPTH);
 
         final MarketType marketType2 = new MarketType();
         marketType2.setId(MARKET_2_ID);
@@ -242,7 +242,7 @@ public class TestStrategyConfigRepository {
                 eq(STRATEGIES_CONFIG_XSD_FILENAME))).
                 andReturn(allTheInternalStrategiesConfigPlusNewOne());
 
-        final StrategyConfigRepository strategyConfigRepository = PowerMock.createPartialMock(
+        final StrategyConfigRepository strategyConfigRepository = PowerMock.createPartialMockAndInvokeDefaultConstructor(
                 StrategyConfigRepositoryXmlDatastore.class, MOCKED_GENERATE_UUID_METHOD);
         PowerMock.expectPrivate(strategyConfigRepository, MOCKED_GENERATE_UUID_METHOD).andReturn(GENERATED_STRAT_ID);
 
@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.rest.api.runtime;
+
+import com.gazbert.bxbot.core.metrics.LatencyHistogram;
+import com.gazbert.bxbot.core.metrics.MarketMetrics;
+import com.gazbert.bxbot.core.metrics.TradeCycleMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the Trading Engine's trade cycle timings on the Spring Boot Actuator <code>/metrics</code> endpoint.
+ * <p>
+ * Each timer is published as a count, and a mean, max, p50, p95, and p99 in milliseconds, e.g.
+ * <pre>
+ * bxbot.engine.emergency-stop-check.p99
+ * bxbot.engine.sleep.mean
+ * bxbot.exchange.gdax.trade-cycle.p99
+ * bxbot.market.btc_usd.strategy-execution.max
+ * bxbot.market.btc_usd.start-delay.p95
+ * bxbot.market.btc_usd.overruns
+ * </pre>
+ *
+ * @author gazbert
+ * @since 1.0
+ */
+@Component
+public class TradeCycleMetricsPublisher implements PublicMetrics {
+
+    private static final String ENGINE_METRIC_PREFIX = "bxbot.engine.";
+    private static final String EXCHANGE_METRIC_PREFIX = "bxbot.exchange.";
+    private static final String MARKET_METRIC_PREFIX = "bxbot.market.";
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final TradeCycleMetrics tradeCycleMetrics;
+
+    @Autowired
+    public TradeCycleMetricsPublisher(TradeCycleMetrics tradeCycleMetrics) {
+        this.tradeCycleMetrics = tradeCycleMetrics;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+
+        final List<Metric<?>> metrics = new ArrayList<>();
+        addLatencyMetrics(metrics, ENGINE_METRIC_PREFIX + "emergency-stop-check",
+                tradeCycleMetrics.getEmergencyStopCheckTimes());
+        addLatencyMetrics(metrics, ENGINE_METRIC_PREFIX + "sleep", tradeCycleMetrics.getSleepTimes());
+
+        for (final Map.Entry<String, LatencyHistogram> entry
+                : tradeCycleMetrics.getAllExchangeTradeCycleTimes().entrySet()) {
+            addLatencyMetrics(metrics, EXCHANGE_METRIC_PREFIX + entry.getKey() + ".trade-cycle", entry.getValue());
+        }
+
+        for (final Map.Entry<String, MarketMetrics> entry : tradeCycleMetrics.getAllMarketMetrics().entrySet()) {
+            final String marketPrefix = MARKET_METRIC_PREFIX + entry.getKey() + ".";
+            final MarketMetrics marketMetrics = entry.getValue();
+            addLatencyMetrics(metrics, marketPrefix + "strategy-execution", marketMetrics.getStrategyExecutionTimes());
+            addLatencyMetrics(metrics, marketPrefix + "start-delay", marketMetrics.getStartDelays());
+            metrics.add(new Metric<>(marketPrefix + "overruns", marketMetrics.getOverrunCount()));
+        }
+        return metrics;
+    }
+
+    private static void addLatencyMetrics(List<Metric<?>> metrics, String name, LatencyHistogram histogram) {
+        final LatencyHistogram.Snapshot snapshot = histogram.getSnapshot();
+        metrics.add(new Metric<>(name + ".count", snapshot.getCount()));
+        metrics.add(new Metric<>(name + ".mean", snapshot.getMean() / NANOS_PER_MILLI));
+        metrics.add(new Metric<>(name + ".max", snapshot.getMax() / NANOS_PER_MILLI));
+        metrics.add(new Metric<>(name + ".p50", snapshot.getPercentile(50) / NANOS_PER_MILLI));
+        metrics.add(new Metric<>(name + ".p95", snapshot.getPercentile(95) / NANOS_PER_MILLI));
+        metrics.add(new Metric<>(name + ".p99", snapshot.getPercentile(99) / NANOS_PER_MILLI));
+    }
+}
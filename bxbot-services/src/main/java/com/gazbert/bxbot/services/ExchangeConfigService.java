@@ -24,6 +24,8 @@ package com.gazbert.bxbot.services;
 
 import com.gazbert.bxbot.domain.exchange.ExchangeConfig;
 
+import java.util.List;
+
 /**
  * The Exchange configuration service.
  *
@@ -34,4 +36,6 @@ public interface ExchangeConfigService {
     ExchangeConfig getExchangeConfig();
 
     ExchangeConfig updateExchangeConfig(ExchangeConfig config);
+
+    List<ExchangeConfig> getAllExchangeConfig();
 }
@@ -34,6 +34,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
+import java.util.List;
+
 /**
  * Implementation of the Exchange config service.
  *
@@ -63,4 +65,9 @@ public class ExchangeConfigServiceImpl implements ExchangeConfigService {
         LOG.info(() -> "About to update Exchange config: " + config);
         return exchangeConfigRepository.save(config);
     }
+
+    @Override
+    public List<ExchangeConfig> getAllExchangeConfig() {
+        return exchangeConfigRepository.findAll();
+    }
 }
@@ -314,18 +314,11 @@ public class ExampleScalpingStrategy implements TradingStrategy {
 
         try {
 
-            // Fetch our current open orders and see if the buy order is still outstanding/open on the exchange
-            final List<OpenOrder> myOrders = tradingApi.getYourOpenOrders(market.getId());
-            boolean lastOrderFound = false;
-            for (final OpenOrder myOrder : myOrders) {
-                if (myOrder.getId().equals(lastOrder.id)) {
-                    lastOrderFound = true;
-                    break;
-                }
-            }
+            // Fetch the status of the buy order to see if it is still outstanding/open on the exchange
+            final OrderStatus lastOrderStatus = tradingApi.getOrderStatus(lastOrder.id, market.getId());
 
-            // If the order is not there, it must have all filled.
-            if (!lastOrderFound) {
+            // If the order is no longer open, it must have all filled - this strategy never cancels its orders.
+            if (lastOrderStatus != OrderStatus.OPEN) {
 
                 LOG.info(() -> market.getName() +
                         " ^^^ Yay!!! Last BUY Order Id [" + lastOrder.id + "] filled at [" + lastOrder.price + "]");
@@ -418,18 +411,11 @@ public class ExampleScalpingStrategy implements TradingStrategy {
 
         try {
 
-            // Fetch our current open orders and see if the sell order is still outstanding/unfilled on the exchange
-            final List<OpenOrder> myOrders = tradingApi.getYourOpenOrders(market.getId());
-            boolean lastOrderFound = false;
-            for (final OpenOrder myOrder : myOrders) {
-                if (myOrder.getId().equals(lastOrder.id)) {
-                    lastOrderFound = true;
-                    break;
-                }
-            }
+            // Fetch the status of the sell order to see if it is still outstanding/unfilled on the exchange
+            final OrderStatus lastOrderStatus = tradingApi.getOrderStatus(lastOrder.id, market.getId());
 
-            // if the order is not there, it must have all filled.
-            if (!lastOrderFound) {
+            // if the order is no longer open, it must have all filled - this strategy never cancels its orders.
+            if (lastOrderStatus != OrderStatus.OPEN) {
 
                 LOG.info(() -> market.getName() +
                         " ^^^ Yay!!! Last SELL Order Id [" + lastOrder.id + "] filled at [" + lastOrder.price + "]");
@@ -52,7 +52,7 @@ import static org.easymock.EasyMock.expect;
  * @author gazbert
  */
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({Market.class, MarketOrderBook.class, MarketOrder.class, OpenOrder.class})
+@PrepareForTest({Market.class, MarketOrderBook.class, MarketOrder.class})
 public class TestExampleScalpingStrategy {
 
     // canned data
@@ -173,7 +173,7 @@ public class TestExampleScalpingStrategy {
 
         // expect to check if the buy order has filled
         expect(market.getId()).andReturn(MARKET_ID);
-        expect(tradingApi.getYourOpenOrders(MARKET_ID)).andReturn(new ArrayList<>()); // empty list; order has filled
+        expect(tradingApi.getOrderStatus("45345346", MARKET_ID)).andReturn(OrderStatus.FILLED);
 
         // expect to send new sell order to exchange
         final BigDecimal requiredProfitInPercent = new BigDecimal("0.02");
@@ -224,13 +224,7 @@ public class TestExampleScalpingStrategy {
 
         // expect to check if the buy order has filled
         expect(market.getId()).andReturn(MARKET_ID);
-        final OpenOrder unfilledOrder = PowerMock.createMock(OpenOrder.class);
-        final List<OpenOrder> openOrders = new ArrayList<>();
-        openOrders.add(unfilledOrder); // still have open order
-        expect(tradingApi.getYourOpenOrders(MARKET_ID)).andReturn(openOrders);
-
-        // expect strategy to find existing open order and hold current position
-        expect(openOrders.get(0).getId()).andReturn("45345346");
+        expect(tradingApi.getOrderStatus("45345346", MARKET_ID)).andReturn(OrderStatus.OPEN); // still have open order
 
         PowerMock.replayAll();
 
@@ -274,7 +268,7 @@ public class TestExampleScalpingStrategy {
 
         // expect to check if the sell order has filled
         expect(market.getId()).andReturn(MARKET_ID);
-        expect(tradingApi.getYourOpenOrders(MARKET_ID)).andReturn(new ArrayList<>()); // empty list; order has filled
+        expect(tradingApi.getOrderStatus("45345346", MARKET_ID)).andReturn(OrderStatus.FILLED);
 
         // expect to get amount of base currency to buy for given counter currency amount
         expect(market.getId()).andReturn(MARKET_ID);
@@ -331,13 +325,7 @@ public class TestExampleScalpingStrategy {
 
         // expect to check if the sell order has filled
         expect(market.getId()).andReturn(MARKET_ID);
-        final OpenOrder unfilledOrder = PowerMock.createMock(OpenOrder.class);
-        final List<OpenOrder> openOrders = new ArrayList<>();
-        openOrders.add(unfilledOrder); // still have open order
-        expect(tradingApi.getYourOpenOrders(MARKET_ID)).andReturn(openOrders);
-
-        // expect strategy to find existing open order and hold current position
-        expect(openOrders.get(0).getId()).andReturn("45345346");
+        expect(tradingApi.getOrderStatus("45345346", MARKET_ID)).andReturn(OrderStatus.OPEN); // still have open order
 
         PowerMock.replayAll();
 
@@ -425,7 +413,7 @@ public class TestExampleScalpingStrategy {
 
         // expect to check if the sell order has filled
         expect(market.getId()).andReturn(MARKET_ID);
-        expect(tradingApi.getYourOpenOrders(MARKET_ID)).andReturn(new ArrayList<>()); // empty list; order has filled
+        expect(tradingApi.getOrderStatus("45345346", MARKET_ID)).andReturn(OrderStatus.FILLED);
 
         // expect to get amount of base currency to buy for given counter currency amount
         expect(market.getId()).andReturn(MARKET_ID);
@@ -483,7 +471,7 @@ public class TestExampleScalpingStrategy {
 
         // expect to check if the buy order has filled
         expect(market.getId()).andReturn(MARKET_ID);
-        expect(tradingApi.getYourOpenOrders(MARKET_ID)).andReturn(new ArrayList<>()); // empty list; order has filled
+        expect(tradingApi.getOrderStatus("45345346", MARKET_ID)).andReturn(OrderStatus.FILLED);
 
         // expect to send new sell order to exchange and receive timeout exception
         final BigDecimal requiredProfitInPercent = new BigDecimal("0.02");
@@ -578,7 +566,7 @@ public class TestExampleScalpingStrategy {
 
         // expect to check if the sell order has filled
         expect(market.getId()).andReturn(MARKET_ID);
-        expect(tradingApi.getYourOpenOrders(MARKET_ID)).andReturn(new ArrayList<>()); // empty list; order has filled
+        expect(tradingApi.getOrderStatus("45345346", MARKET_ID)).andReturn(OrderStatus.FILLED);
 
         // expect to get amount of base currency to buy for given counter currency amount
         expect(market.getId()).andReturn(MARKET_ID);
@@ -636,7 +624,7 @@ public class TestExampleScalpingStrategy {
 
         // expect to check if the buy order has filled
         expect(market.getId()).andReturn(MARKET_ID);
-        expect(tradingApi.getYourOpenOrders(MARKET_ID)).andReturn(new ArrayList<>()); // empty list; order has filled
+        expect(tradingApi.getOrderStatus("45345346", MARKET_ID)).andReturn(OrderStatus.FILLED);
 
         // expect to send new sell order to exchange and receive timeout exception
         final BigDecimal requiredProfitInPercent = new BigDecimal("0.02");
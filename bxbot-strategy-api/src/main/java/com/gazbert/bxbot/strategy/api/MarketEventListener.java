@@ -0,0 +1,77 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.strategy.api;
+
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+
+/**
+ * <p>
+ * Optional callback interface for Trading Strategies that want to be told when their market has changed, instead of
+ * being polled every trade cycle.
+ * </p>
+ * <p>
+ * Implement this interface alongside {@link TradingStrategy}. If the Trading Engine is configured to use the
+ * EVENT_DRIVEN strategy invocation mode, it checks the market at the start of each trade cycle and calls these
+ * methods only when something has changed - {@link TradingStrategy#execute()} is not called. In the default POLL mode,
+ * these methods are never called and the strategy is executed every trade cycle as usual.
+ * </p>
+ * <p>
+ * Strategies that do not implement this interface are always executed every trade cycle, whatever the mode.
+ * </p>
+ * <p>
+ * Fills are detected by comparing your open orders on the exchange between trade cycles. Orders you cancel through
+ * the Trading API are not reported as filled. In a trade cycle with fills, they are reported before the order book
+ * update.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.0
+ */
+public interface MarketEventListener {
+
+    /**
+     * Called by the Trading Engine when the order book for the strategy's market has changed since it was last seen.
+     * It is also called for the first order book fetched after the engine starts.
+     *
+     * @param orderBook the latest order book.
+     * @throws StrategyException if something goes bad. Trading Strategy implementations should throw this exception
+     *                           if they want the Trading Engine to shutdown the bot immediately.
+     */
+    void onOrderBookUpdate(MarketOrderBook orderBook) throws StrategyException;
+
+    /**
+     * Called by the Trading Engine when one of your orders on the strategy's market has been filled.
+     * <p>
+     * If the order was fully filled, it is no longer open on the exchange: the last known state of the order is
+     * passed in. If it was partly filled, the current state of the order is passed in - compare
+     * {@link OpenOrder#getQuantity()} with {@link OpenOrder#getOriginalQuantity()} to see how much is left.
+     * </p>
+     *
+     * @param order the filled order.
+     * @throws StrategyException if something goes bad. Trading Strategy implementations should throw this exception
+     *                           if they want the Trading Engine to shutdown the bot immediately.
+     */
+    void onOrderFilled(OpenOrder order) throws StrategyException;
+}
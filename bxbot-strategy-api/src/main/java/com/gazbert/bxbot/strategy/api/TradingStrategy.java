@@ -33,6 +33,9 @@ import com.gazbert.bxbot.trading.api.TradingApi;
  * <p>
  * The Trading Engine will send only 1 thread through your strategy code at a time - you do not have to code for concurrency.
  * </p>
+ * <p>
+ * Strategies that only need to act when their market changes can also implement {@link MarketEventListener}.
+ * </p>
  *
  * @author gazbert
  * @since 1.0
@@ -0,0 +1,183 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.trading.api;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * <p>
+ * Non-blocking variant of BX-bot's Trading API.
+ * </p>
+ * <p>
+ * Each call returns straight away with a {@link CompletableFuture}, so a Trading Strategy can issue independent calls
+ * concurrently and compose the results, e.g. fetch the order book, open orders and latest price for a market at the
+ * same time instead of making 3 sequential round-trips to the exchange.
+ * </p>
+ * <p>
+ * If a call fails, the future completes exceptionally with the {@link ExchangeNetworkException} or
+ * {@link TradingApiException} the blocking {@link TradingApi} call would have thrown.
+ * {@link CompletableFuture#join()} wraps these in a {@link java.util.concurrent.CompletionException};
+ * {@link CompletableFuture#get()} wraps them in an {@link java.util.concurrent.ExecutionException}.
+ * {@link #await(CompletableFuture, String)} waits for a call and throws them unwrapped.
+ * </p>
+ * <p>
+ * Calls that place, cancel or read your orders, or read your balance, are sent to the exchange in the order they
+ * were made - only market data calls run in parallel with them. Trading Strategies should check if the
+ * {@link TradingApi} they are given is an instance of this interface before using it.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.0
+ */
+public interface AsyncTradingApi extends TradingApi {
+
+    /**
+     * Fetches latest <em>market</em> orders for a given market.
+     *
+     * @param marketId the id of the market.
+     * @return a future that completes with the market order book.
+     * @see TradingApi#getMarketOrders(String)
+     */
+    CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId);
+
+    /**
+     * Fetches the top <em>market</em> orders for a given market, up to the given number of price levels.
+     *
+     * @param marketId the id of the market.
+     * @param depth    the maximum number of BUY orders, and of SELL orders, to return. Must be greater than 0.
+     * @return a future that completes with the market order book.
+     * @see TradingApi#getMarketOrders(String, int)
+     */
+    CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId, int depth);
+
+    /**
+     * Fetches <em>your</em> current open orders, i.e. the orders placed by the bot.
+     *
+     * @param marketId the id of the market.
+     * @return a future that completes with your current open orders.
+     * @see TradingApi#getYourOpenOrders(String)
+     */
+    CompletableFuture<List<OpenOrder>> getYourOpenOrdersAsync(String marketId);
+
+    /**
+     * Places an order on the exchange.
+     *
+     * @param marketId  the id of the market.
+     * @param orderType Value must be {@link OrderType#BUY} or {@link OrderType#SELL}.
+     * @param quantity  amount of units you are buying/selling in this order.
+     * @param price     the price per unit you are buying/selling at.
+     * @return a future that completes with the id of the order.
+     * @see TradingApi#createOrder(String, OrderType, BigDecimal, BigDecimal)
+     */
+    CompletableFuture<String> createOrderAsync(String marketId, OrderType orderType, BigDecimal quantity,
+                                               BigDecimal price);
+
+    /**
+     * Cancels your existing order on the exchange.
+     *
+     * @param orderId  your order Id.
+     * @param marketId the id of the market the order was placed on, e.g. btc_usd
+     * @return a future that completes with true if order cancelled ok, false otherwise.
+     * @see TradingApi#cancelOrder(String, String)
+     */
+    CompletableFuture<Boolean> cancelOrderAsync(String orderId, String marketId);
+
+    /**
+     * Fetches the latest price for a given market.
+     *
+     * @param marketId the id of the market.
+     * @return a future that completes with the latest market price.
+     * @see TradingApi#getLatestMarketPrice(String)
+     */
+    CompletableFuture<BigDecimal> getLatestMarketPriceAsync(String marketId);
+
+    /**
+     * Fetches the balance of your wallets on the exchange.
+     *
+     * @return a future that completes with your wallet balance info.
+     * @see TradingApi#getBalanceInfo()
+     */
+    CompletableFuture<BalanceInfo> getBalanceInfoAsync();
+
+    /**
+     * Returns the exchange BUY order fee for a given market id.
+     *
+     * @param marketId the id of the market.
+     * @return a future that completes with the % of the BUY order that the exchange uses to calculate its fee.
+     * @see TradingApi#getPercentageOfBuyOrderTakenForExchangeFee(String)
+     */
+    CompletableFuture<BigDecimal> getPercentageOfBuyOrderTakenForExchangeFeeAsync(String marketId);
+
+    /**
+     * Returns the exchange SELL order fee for a given market id.
+     *
+     * @param marketId the id of the market.
+     * @return a future that completes with the % of the SELL order that the exchange uses to calculate its fee.
+     * @see TradingApi#getPercentageOfSellOrderTakenForExchangeFee(String)
+     */
+    CompletableFuture<BigDecimal> getPercentageOfSellOrderTakenForExchangeFeeAsync(String marketId);
+
+    /**
+     * Waits for an async call to complete and returns its result, or throws the exception it failed with - as the
+     * blocking {@link TradingApi} call would have done.
+     *
+     * @param call     the future returned by the async call.
+     * @param callName names the call in error messages.
+     * @param <T>      the type of the result.
+     * @return the result of the call.
+     * @throws ExchangeNetworkException if the call failed with it, or the thread is interrupted while waiting. The
+     *                                  interrupt status is restored.
+     * @throws TradingApiException      if the call failed with it, or with any other checked exception.
+     */
+    static <T> T await(CompletableFuture<T> call, String callName)
+            throws ExchangeNetworkException, TradingApiException {
+        try {
+            return call.get();
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExchangeNetworkException("Interrupted while waiting for " + callName + " to complete", e);
+
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof ExchangeNetworkException) {
+                throw (ExchangeNetworkException) cause;
+            } else if (cause instanceof TradingApiException) {
+                throw (TradingApiException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new TradingApiException("Unexpected error in " + callName, cause);
+        }
+    }
+}
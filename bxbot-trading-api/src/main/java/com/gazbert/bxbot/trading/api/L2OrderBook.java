@@ -0,0 +1,548 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.trading.api;
+
+import com.google.common.base.MoreObjects;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * An L2 order book - the total quantity at each price level - that is updated in place from an exchange's diffs.
+ * </p>
+ * <p>
+ * Prices and quantities are held as fixed-point longs in sorted primitive arrays, so applying an update or reading
+ * the top of the book does not create any objects. A price of 123.45 in a book with a price scale of 8 is held as
+ * 12345000000. Use {@link #toPrice(long)} and {@link #toQuantity(long)} to turn the longs back into BigDecimals.
+ * </p>
+ * <p>
+ * Each side is kept with its best price at the end of its arrays. A level is found with a binary search, and adding or
+ * removing one only moves the levels that are better than it. Most updates are near the top of the book, so they are
+ * cheap.
+ * </p>
+ * <p>
+ * Strategies should read the book via a {@link Snapshot}: an immutable copy of the top levels that can be shared
+ * between threads.
+ * </p>
+ * <p>
+ * This class is <em>not</em> thread safe.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.0
+ */
+public final class L2OrderBook {
+
+    /**
+     * Returned by the best price methods when a side of the book is empty.
+     */
+    public static final long NO_PRICE = 0;
+
+    private static final int INITIAL_LEVELS = 64;
+
+    private final String marketId;
+    private final int priceScale;
+    private final int quantityScale;
+
+    private final Side bids = new Side(true);
+    private final Side asks = new Side(false);
+
+
+    /**
+     * Creates an empty order book.
+     *
+     * @param marketId      the market id.
+     * @param priceScale    the number of decimal places prices are held to.
+     * @param quantityScale the number of decimal places quantities are held to.
+     */
+    public L2OrderBook(String marketId, int priceScale, int quantityScale) {
+        if (priceScale < 0 || quantityScale < 0) {
+            throw new IllegalArgumentException("Scales must not be negative. priceScale: " + priceScale
+                    + " quantityScale: " + quantityScale);
+        }
+        this.marketId = marketId;
+        this.priceScale = priceScale;
+        this.quantityScale = quantityScale;
+    }
+
+    /**
+     * Returns the market id.
+     *
+     * @return the market id.
+     */
+    public String getMarketId() {
+        return marketId;
+    }
+
+    /**
+     * Returns the number of decimal places prices are held to.
+     *
+     * @return the price scale.
+     */
+    public int getPriceScale() {
+        return priceScale;
+    }
+
+    /**
+     * Returns the number of decimal places quantities are held to.
+     *
+     * @return the quantity scale.
+     */
+    public int getQuantityScale() {
+        return quantityScale;
+    }
+
+    /**
+     * Sets the quantity at a price level.
+     *
+     * @param side     BUY for a bid level, SELL for an ask level.
+     * @param price    the price of the level.
+     * @param quantity the total quantity at the level; zero removes the level.
+     * @throws IllegalArgumentException if the price is not positive, the quantity is negative, or either has more
+     *                                  decimal places than the book holds.
+     */
+    public void update(OrderType side, BigDecimal price, BigDecimal quantity) {
+        update(side, toFixedPoint(price, priceScale, "price"), toFixedPoint(quantity, quantityScale, "quantity"));
+    }
+
+    /**
+     * Sets the quantity at a price level.
+     *
+     * @param side     BUY for a bid level, SELL for an ask level.
+     * @param price    the fixed-point price of the level.
+     * @param quantity the fixed-point total quantity at the level; zero removes the level.
+     * @throws IllegalArgumentException if the price is not positive or the quantity is negative.
+     */
+    public void update(OrderType side, long price, long quantity) {
+        if (price <= 0) {
+            throw new IllegalArgumentException("Price must be greater than 0: " + price);
+        }
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity must not be negative: " + quantity);
+        }
+        (side == OrderType.BUY ? bids : asks).update(price, quantity);
+    }
+
+    /**
+     * Removes all the levels from the book.
+     */
+    public void clear() {
+        bids.size = 0;
+        asks.size = 0;
+    }
+
+    /**
+     * Returns the number of bid levels.
+     *
+     * @return the number of bid levels.
+     */
+    public int getBidLevels() {
+        return bids.size;
+    }
+
+    /**
+     * Returns the number of ask levels.
+     *
+     * @return the number of ask levels.
+     */
+    public int getAskLevels() {
+        return asks.size;
+    }
+
+    /**
+     * Returns the fixed-point price of a bid level.
+     *
+     * @param level the level; 0 is the best (highest) bid.
+     * @return the fixed-point price.
+     * @throws IndexOutOfBoundsException if there is no such level.
+     */
+    public long getBidPrice(int level) {
+        return bids.price(level);
+    }
+
+    /**
+     * Returns the fixed-point quantity at a bid level.
+     *
+     * @param level the level; 0 is the best (highest) bid.
+     * @return the fixed-point quantity.
+     * @throws IndexOutOfBoundsException if there is no such level.
+     */
+    public long getBidQuantity(int level) {
+        return bids.quantity(level);
+    }
+
+    /**
+     * Returns the fixed-point price of an ask level.
+     *
+     * @param level the level; 0 is the best (lowest) ask.
+     * @return the fixed-point price.
+     * @throws IndexOutOfBoundsException if there is no such level.
+     */
+    public long getAskPrice(int level) {
+        return asks.price(level);
+    }
+
+    /**
+     * Returns the fixed-point quantity at an ask level.
+     *
+     * @param level the level; 0 is the best (lowest) ask.
+     * @return the fixed-point quantity.
+     * @throws IndexOutOfBoundsException if there is no such level.
+     */
+    public long getAskQuantity(int level) {
+        return asks.quantity(level);
+    }
+
+    /**
+     * Returns the fixed-point best (highest) bid price.
+     *
+     * @return the best bid price, or {@link #NO_PRICE} if there are no bids.
+     */
+    public long getBestBidPrice() {
+        return bids.size == 0 ? NO_PRICE : bids.price(0);
+    }
+
+    /**
+     * Returns the fixed-point best (lowest) ask price.
+     *
+     * @return the best ask price, or {@link #NO_PRICE} if there are no asks.
+     */
+    public long getBestAskPrice() {
+        return asks.size == 0 ? NO_PRICE : asks.price(0);
+    }
+
+    /**
+     * Converts a fixed-point price from this book to a BigDecimal.
+     *
+     * @param price the fixed-point price.
+     * @return the price.
+     */
+    public BigDecimal toPrice(long price) {
+        return BigDecimal.valueOf(price, priceScale);
+    }
+
+    /**
+     * Converts a fixed-point quantity from this book to a BigDecimal.
+     *
+     * @param quantity the fixed-point quantity.
+     * @return the quantity.
+     */
+    public BigDecimal toQuantity(long quantity) {
+        return BigDecimal.valueOf(quantity, quantityScale);
+    }
+
+    /**
+     * Takes an immutable copy of the whole book.
+     *
+     * @return the snapshot.
+     */
+    public Snapshot snapshot() {
+        return snapshot(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Takes an immutable copy of the top of the book. Only the levels asked for are copied.
+     *
+     * @param depth the max number of levels to copy on each side.
+     * @return the snapshot.
+     * @throws IllegalArgumentException if depth is less than 1.
+     */
+    public Snapshot snapshot(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Order book depth must be at least 1: " + depth);
+        }
+        return new Snapshot(this, depth);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("marketId", marketId)
+                .add("priceScale", priceScale)
+                .add("quantityScale", quantityScale)
+                .add("bidLevels", bids.size)
+                .add("askLevels", asks.size)
+                .add("bestBidPrice", getBestBidPrice())
+                .add("bestAskPrice", getBestAskPrice())
+                .toString();
+    }
+
+    private static long toFixedPoint(BigDecimal value, int scale, String name) {
+        try {
+            return value.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(
+                    "The " + name + " " + value.toPlainString() + " does not fit in a fixed-point long with "
+                            + scale + " decimal places", e);
+        }
+    }
+
+    /**
+     * <p>
+     * An immutable copy of the top of an {@link L2OrderBook}. It is safe to share between threads.
+     * </p>
+     * <p>
+     * Prices and quantities are fixed-point longs, with the same scales as the book the snapshot was taken from.
+     * </p>
+     *
+     * @author gazbert
+     * @since 1.0
+     */
+    public static final class Snapshot {
+
+        private final String marketId;
+        private final int priceScale;
+        private final int quantityScale;
+
+        // best level first
+        private final long[] bidPrices;
+        private final long[] bidQuantities;
+        private final long[] askPrices;
+        private final long[] askQuantities;
+
+
+        private Snapshot(L2OrderBook book, int depth) {
+            marketId = book.marketId;
+            priceScale = book.priceScale;
+            quantityScale = book.quantityScale;
+
+            final int bidLevels = Math.min(depth, book.bids.size);
+            bidPrices = new long[bidLevels];
+            bidQuantities = new long[bidLevels];
+            for (int level = 0; level < bidLevels; level++) {
+                bidPrices[level] = book.bids.price(level);
+                bidQuantities[level] = book.bids.quantity(level);
+            }
+
+            final int askLevels = Math.min(depth, book.asks.size);
+            askPrices = new long[askLevels];
+            askQuantities = new long[askLevels];
+            for (int level = 0; level < askLevels; level++) {
+                askPrices[level] = book.asks.price(level);
+                askQuantities[level] = book.asks.quantity(level);
+            }
+        }
+
+        /**
+         * Returns the market id.
+         *
+         * @return the market id.
+         */
+        public String getMarketId() {
+            return marketId;
+        }
+
+        /**
+         * Returns the number of bid levels in the snapshot.
+         *
+         * @return the number of bid levels.
+         */
+        public int getBidLevels() {
+            return bidPrices.length;
+        }
+
+        /**
+         * Returns the number of ask levels in the snapshot.
+         *
+         * @return the number of ask levels.
+         */
+        public int getAskLevels() {
+            return askPrices.length;
+        }
+
+        /**
+         * Returns the fixed-point price of a bid level.
+         *
+         * @param level the level; 0 is the best (highest) bid.
+         * @return the fixed-point price.
+         */
+        public long getBidPrice(int level) {
+            return bidPrices[level];
+        }
+
+        /**
+         * Returns the fixed-point quantity at a bid level.
+         *
+         * @param level the level; 0 is the best (highest) bid.
+         * @return the fixed-point quantity.
+         */
+        public long getBidQuantity(int level) {
+            return bidQuantities[level];
+        }
+
+        /**
+         * Returns the fixed-point price of an ask level.
+         *
+         * @param level the level; 0 is the best (lowest) ask.
+         * @return the fixed-point price.
+         */
+        public long getAskPrice(int level) {
+            return askPrices[level];
+        }
+
+        /**
+         * Returns the fixed-point quantity at an ask level.
+         *
+         * @param level the level; 0 is the best (lowest) ask.
+         * @return the fixed-point quantity.
+         */
+        public long getAskQuantity(int level) {
+            return askQuantities[level];
+        }
+
+        /**
+         * Returns the fixed-point best (highest) bid price.
+         *
+         * @return the best bid price, or {@link L2OrderBook#NO_PRICE} if there are no bids.
+         */
+        public long getBestBidPrice() {
+            return bidPrices.length == 0 ? NO_PRICE : bidPrices[0];
+        }
+
+        /**
+         * Returns the fixed-point best (lowest) ask price.
+         *
+         * @return the best ask price, or {@link L2OrderBook#NO_PRICE} if there are no asks.
+         */
+        public long getBestAskPrice() {
+            return askPrices.length == 0 ? NO_PRICE : askPrices[0];
+        }
+
+        /**
+         * Converts a fixed-point price from this snapshot to a BigDecimal.
+         *
+         * @param price the fixed-point price.
+         * @return the price.
+         */
+        public BigDecimal toPrice(long price) {
+            return BigDecimal.valueOf(price, priceScale);
+        }
+
+        /**
+         * Converts a fixed-point quantity from this snapshot to a BigDecimal.
+         *
+         * @param quantity the fixed-point quantity.
+         * @return the quantity.
+         */
+        public BigDecimal toQuantity(long quantity) {
+            return BigDecimal.valueOf(quantity, quantityScale);
+        }
+
+        /**
+         * Converts the snapshot to a {@link MarketOrderBook}, for code that works with the Trading API's order book.
+         *
+         * @return the market order book.
+         */
+        public MarketOrderBook toMarketOrderBook() {
+            return new MarketOrderBook(marketId,
+                    toMarketOrders(OrderType.SELL, askPrices, askQuantities),
+                    toMarketOrders(OrderType.BUY, bidPrices, bidQuantities));
+        }
+
+        private List<MarketOrder> toMarketOrders(OrderType side, long[] prices, long[] quantities) {
+            final List<MarketOrder> orders = new ArrayList<>(prices.length);
+            for (int level = 0; level < prices.length; level++) {
+                final BigDecimal price = toPrice(prices[level]);
+                final BigDecimal quantity = toQuantity(quantities[level]);
+                orders.add(new MarketOrder(side, price, quantity, price.multiply(quantity)));
+            }
+            return orders;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("marketId", marketId)
+                    .add("priceScale", priceScale)
+                    .add("quantityScale", quantityScale)
+                    .add("bidPrices", Arrays.toString(bidPrices))
+                    .add("bidQuantities", Arrays.toString(bidQuantities))
+                    .add("askPrices", Arrays.toString(askPrices))
+                    .add("askQuantities", Arrays.toString(askQuantities))
+                    .toString();
+        }
+    }
+
+    /*
+     * One side of the book. The levels are sorted by key ascending, with the best level last. The key is the price for
+     * bids and the negated price for asks, so the same binary search works for both sides.
+     */
+    private static final class Side {
+
+        private final boolean bids;
+        private long[] keys = new long[INITIAL_LEVELS];
+        private long[] quantities = new long[INITIAL_LEVELS];
+        private int size;
+
+        private Side(boolean bids) {
+            this.bids = bids;
+        }
+
+        private void update(long price, long quantity) {
+            final long key = bids ? price : -price;
+            final int index = Arrays.binarySearch(keys, 0, size, key);
+            if (index >= 0) {
+                if (quantity == 0) {
+                    System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+                    System.arraycopy(quantities, index + 1, quantities, index, size - index - 1);
+                    size--;
+                } else {
+                    quantities[index] = quantity;
+                }
+            } else if (quantity != 0) {
+                final int insertAt = -index - 1;
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, size * 2);
+                    quantities = Arrays.copyOf(quantities, size * 2);
+                }
+                System.arraycopy(keys, insertAt, keys, insertAt + 1, size - insertAt);
+                System.arraycopy(quantities, insertAt, quantities, insertAt + 1, size - insertAt);
+                keys[insertAt] = key;
+                quantities[insertAt] = quantity;
+                size++;
+            }
+        }
+
+        private long price(int level) {
+            final long key = keys[index(level)];
+            return bids ? key : -key;
+        }
+
+        private long quantity(int level) {
+            return quantities[index(level)];
+        }
+
+        private int index(int level) {
+            if (level < 0 || level >= size) {
+                throw new IndexOutOfBoundsException("Level: " + level + " Levels: " + size);
+            }
+            return size - 1 - level;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.trading.api;
+
+import com.google.common.base.MoreObjects;
+
+import java.math.BigDecimal;
+
+/**
+ * <p>
+ * Represents a limit order to be placed on the exchange as part of a batch - see
+ * {@link TradingApi#createOrders(java.util.List)}.
+ * </p>
+ * <p>
+ * The type of order (buy/sell) is determined by the {@link OrderType}.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.0
+ */
+public final class OrderRequest {
+
+    /**
+     * The id of the market to place the order on.
+     */
+    private final String marketId;
+
+    /**
+     * The type of order.
+     * Value will be {@link OrderType#BUY} or {@link OrderType#SELL}.
+     */
+    private final OrderType type;
+
+    /**
+     * The amount of units to buy/sell.
+     */
+    private final BigDecimal quantity;
+
+    /**
+     * The price per unit to buy/sell at.
+     */
+    private final BigDecimal price;
+
+    /**
+     * Constructor builds an Order Request.
+     *
+     * @param marketId the id of the market to place the order on.
+     * @param type     Type of order. Value must be {@link OrderType#BUY} or {@link OrderType#SELL}.
+     * @param quantity amount of units you are buying/selling in this order.
+     * @param price    the price per unit you are buying/selling at.
+     */
+    public OrderRequest(String marketId, OrderType type, BigDecimal quantity, BigDecimal price) {
+        this.marketId = marketId;
+        this.type = type;
+        this.quantity = quantity;
+        this.price = price;
+    }
+
+    /**
+     * Returns the id of the market to place the order on.
+     *
+     * @return the market id.
+     */
+    public String getMarketId() {
+        return marketId;
+    }
+
+    /**
+     * Returns the type of order. Value will be {@link OrderType#BUY} or {@link OrderType#SELL}.
+     *
+     * @return the type of order.
+     */
+    public OrderType getType() {
+        return type;
+    }
+
+    /**
+     * Returns the amount of units to buy/sell.
+     *
+     * @return the quantity of the order.
+     */
+    public BigDecimal getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Returns the price per unit to buy/sell at.
+     *
+     * @return the price of the order.
+     */
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("marketId", marketId)
+                .add("type", type)
+                .add("quantity", quantity)
+                .add("price", price)
+                .toString();
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.trading.api;
+
+/**
+ * Defines the states an order on the exchange can be in - see {@link TradingApi#getOrderStatus(String, String)}.
+ *
+ * @author gazbert
+ * @since 1.0
+ */
+public enum OrderStatus {
+
+    /**
+     * The order is on the exchange's order book waiting to be filled. It may have been part filled.
+     */
+    OPEN,
+
+    /**
+     * The order has been completely filled.
+     */
+    FILLED,
+
+    /**
+     * The order was cancelled or expired before it was completely filled. It may have been part filled.
+     */
+    CANCELLED,
+
+    /**
+     * The order is no longer open, but the exchange did not say whether it was filled or cancelled.
+     */
+    CLOSED
+}
\ No newline at end of file
@@ -24,7 +24,9 @@
 package com.gazbert.bxbot.trading.api;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * <p>
@@ -79,6 +81,38 @@ public interface TradingApi {
      */
     MarketOrderBook getMarketOrders(String marketId) throws ExchangeNetworkException, TradingApiException;
 
+    /**
+     * Fetches the top <em>market</em> orders for a given market, up to the given number of price levels on each side
+     * of the order book.
+     * <p>
+     * Most Trading Strategies only look at the first few levels of the order book. Exchange Adapters should override
+     * this method to pass the depth to the exchange where its API supports it, or stop reading the order book once
+     * they have enough levels. The default implementation fetches the full order book and truncates it.
+     *
+     * @param marketId the id of the market.
+     * @param depth    the maximum number of BUY orders, and of SELL orders, to return. Must be greater than 0.
+     * @return the market order book.
+     * @throws ExchangeNetworkException if a network error occurred trying to connect to the exchange. This is
+     *                                  implementation specific for each Exchange Adapter - see the documentation for the
+     *                                  adapter you are using. You could retry the API call, or exit from your Trading Strategy
+     *                                  and let the Trading Engine execute your Trading Strategy at the next trade cycle.
+     * @throws TradingApiException      if the API call failed for any reason other than a network error. This means something
+     *                                  bad as happened; you would probably want to wrap this exception in a
+     *                                  StrategyException and let the Trading Engine shutdown the bot immediately
+     *                                  to prevent unexpected losses.
+     */
+    default MarketOrderBook getMarketOrders(String marketId, int depth)
+            throws ExchangeNetworkException, TradingApiException {
+
+        if (depth < 1) {
+            throw new IllegalArgumentException("Order book depth must be greater than 0: " + depth);
+        }
+        final MarketOrderBook orderBook = getMarketOrders(marketId);
+        return new MarketOrderBook(orderBook.getMarketId(),
+                orderBook.getSellOrders().stream().limit(depth).collect(Collectors.toList()),
+                orderBook.getBuyOrders().stream().limit(depth).collect(Collectors.toList()));
+    }
+
     /**
      * Fetches <em>your</em> current open orders, i.e. the orders placed by the bot.
      *
@@ -95,6 +129,32 @@ public interface TradingApi {
      */
     List<OpenOrder> getYourOpenOrders(String marketId) throws ExchangeNetworkException, TradingApiException;
 
+    /**
+     * Fetches the status of one of <em>your</em> orders, i.e. an order placed by the bot.
+     * <p>
+     * Exchange Adapters should override this method to use the exchange's single order endpoint. It is cheaper than
+     * fetching all your open orders, and can tell you whether an order that is no longer open was filled or cancelled.
+     * The default implementation looks for the order in {@link #getYourOpenOrders(String)}: it returns
+     * {@link OrderStatus#OPEN} if it finds the order, and {@link OrderStatus#CLOSED} if it does not.
+     *
+     * @param orderId  your order Id.
+     * @param marketId the id of the market the order was placed on, e.g. btc_usd
+     * @return the status of the order.
+     * @throws ExchangeNetworkException if a network error occurred trying to connect to the exchange. This is
+     *                                  implementation specific for each Exchange Adapter - see the documentation for the
+     *                                  adapter you are using. You could retry the API call, or exit from your Trading Strategy
+     *                                  and let the Trading Engine execute your Trading Strategy at the next trade cycle.
+     * @throws TradingApiException      if the API call failed for any reason other than a network error. This means something
+     *                                  bad as happened; you would probably want to wrap this exception in a
+     *                                  StrategyException and let the Trading Engine shutdown the bot immediately
+     *                                  to prevent unexpected losses.
+     */
+    default OrderStatus getOrderStatus(String orderId, String marketId)
+            throws ExchangeNetworkException, TradingApiException {
+        final boolean open = getYourOpenOrders(marketId).stream().anyMatch(order -> order.getId().equals(orderId));
+        return open ? OrderStatus.OPEN : OrderStatus.CLOSED;
+    }
+
     /**
      * Places an order on the exchange.
      *
@@ -132,6 +192,128 @@ public interface TradingApi {
      */
     boolean cancelOrder(String orderId, String marketId) throws ExchangeNetworkException, TradingApiException;
 
+    /**
+     * Places a batch of orders on the exchange.
+     * <p>
+     * Exchange Adapters should override this method to use the exchange's batch order endpoint where it has one, or
+     * send the orders concurrently. The default implementation places the orders one at a time, in list order.
+     * <p>
+     * If an order fails, the default implementation throws straight away and the rest of the batch is not sent.
+     * Adapters that send the orders concurrently throw once the rest of the batch has been sent. Either way, the
+     * orders that were placed stay on the exchange; use {@link #getYourOpenOrders(String)} to find them.
+     *
+     * @param orderRequests the orders to place.
+     * @return the ids of the orders, in the same order as the requests.
+     * @throws ExchangeNetworkException if a network error occurred trying to connect to the exchange. This is
+     *                                  implementation specific for each Exchange Adapter - see the documentation for the
+     *                                  adapter you are using. You could retry the API call, or exit from your Trading Strategy
+     *                                  and let the Trading Engine execute your Trading Strategy at the next trade cycle.
+     * @throws TradingApiException      if the API call failed for any reason other than a network error. This means something
+     *                                  bad as happened; you would probably want to wrap this exception in a
+     *                                  StrategyException and let the Trading Engine shutdown the bot immediately
+     *                                  to prevent unexpected losses.
+     */
+    default List<String> createOrders(List<OrderRequest> orderRequests)
+            throws ExchangeNetworkException, TradingApiException {
+
+        final List<String> orderIds = new ArrayList<>(orderRequests.size());
+        for (final OrderRequest orderRequest : orderRequests) {
+            orderIds.add(createOrder(orderRequest.getMarketId(), orderRequest.getType(), orderRequest.getQuantity(),
+                    orderRequest.getPrice()));
+        }
+        return orderIds;
+    }
+
+    /**
+     * Cancels a batch of your existing orders on the exchange.
+     * <p>
+     * Exchange Adapters should override this method to use the exchange's batch cancel endpoint where it has one, or
+     * send the cancellations concurrently. The default implementation cancels the orders one at a time, in list order.
+     *
+     * @param orderIds your order Ids.
+     * @param marketId the id of the market the orders were placed on, e.g. btc_usd
+     * @return the ids of the orders that were cancelled ok.
+     * @throws ExchangeNetworkException if a network error occurred trying to connect to the exchange. This is
+     *                                  implementation specific for each Exchange Adapter - see the documentation for the
+     *                                  adapter you are using. You could retry the API call, or exit from your Trading Strategy
+     *                                  and let the Trading Engine execute your Trading Strategy at the next trade cycle.
+     * @throws TradingApiException      if the API call failed for any reason other than a network error. This means something
+     *                                  bad as happened; you would probably want to wrap this exception in a
+     *                                  StrategyException and let the Trading Engine shutdown the bot immediately
+     *                                  to prevent unexpected losses.
+     */
+    default List<String> cancelOrders(List<String> orderIds, String marketId)
+            throws ExchangeNetworkException, TradingApiException {
+
+        final List<String> cancelledOrderIds = new ArrayList<>(orderIds.size());
+        for (final String orderId : orderIds) {
+            if (cancelOrder(orderId, marketId)) {
+                cancelledOrderIds.add(orderId);
+            }
+        }
+        return cancelledOrderIds;
+    }
+
+    /**
+     * Cancels all <em>your</em> open orders on a market, i.e. the orders placed by the bot.
+     * <p>
+     * Exchange Adapters should override this method to use the exchange's cancel-all endpoint where it can be limited
+     * to a market. The default implementation fetches your open orders and passes them to
+     * {@link #cancelOrders(List, String)}.
+     *
+     * @param marketId the id of the market, e.g. btc_usd
+     * @return the ids of the orders that were cancelled ok.
+     * @throws ExchangeNetworkException if a network error occurred trying to connect to the exchange. This is
+     *                                  implementation specific for each Exchange Adapter - see the documentation for the
+     *                                  adapter you are using. You could retry the API call, or exit from your Trading Strategy
+     *                                  and let the Trading Engine execute your Trading Strategy at the next trade cycle.
+     * @throws TradingApiException      if the API call failed for any reason other than a network error. This means something
+     *                                  bad as happened; you would probably want to wrap this exception in a
+     *                                  StrategyException and let the Trading Engine shutdown the bot immediately
+     *                                  to prevent unexpected losses.
+     */
+    default List<String> cancelAllOrders(String marketId) throws ExchangeNetworkException, TradingApiException {
+        final List<String> orderIds = getYourOpenOrders(marketId).stream()
+                .map(OpenOrder::getId)
+                .collect(Collectors.toList());
+        return orderIds.isEmpty() ? orderIds : cancelOrders(orderIds, marketId);
+    }
+
+    /**
+     * Replaces one of your open orders with a new order at a different quantity and/or price, i.e. it cancels the
+     * order and places the new one.
+     * <p>
+     * The new order is only left on the exchange if the old one was cancelled. If the old order could not be
+     * cancelled, e.g. because it has already been filled, no new order is left in its place and null is returned. If
+     * the old order was cancelled but the new one could not be placed, the exception is thrown and the old order stays
+     * cancelled.
+     * <p>
+     * Exchange Adapters should override this method to use the exchange's cancel-replace endpoint where it has one.
+     * The default implementation cancels the order and, if that succeeds, places the new one.
+     *
+     * @param orderId     the id of the order to replace.
+     * @param marketId    the id of the market the order was placed on, e.g. btc_usd
+     * @param orderType   the type of the order, {@link OrderType#BUY} or {@link OrderType#SELL}. It cannot be changed.
+     * @param newQuantity amount of units you are buying/selling in the new order.
+     * @param newPrice    the price per unit you are buying/selling at in the new order.
+     * @return the id of the new order, or null if the old order could not be cancelled.
+     * @throws ExchangeNetworkException if a network error occurred trying to connect to the exchange. This is
+     *                                  implementation specific for each Exchange Adapter - see the documentation for the
+     *                                  adapter you are using. You could retry the API call, or exit from your Trading Strategy
+     *                                  and let the Trading Engine execute your Trading Strategy at the next trade cycle.
+     * @throws TradingApiException      if the API call failed for any reason other than a network error. This means something
+     *                                  bad as happened; you would probably want to wrap this exception in a
+     *                                  StrategyException and let the Trading Engine shutdown the bot immediately
+     *                                  to prevent unexpected losses.
+     */
+    default String replaceOrder(String orderId, String marketId, OrderType orderType, BigDecimal newQuantity,
+                                BigDecimal newPrice) throws ExchangeNetworkException, TradingApiException {
+        if (!cancelOrder(orderId, marketId)) {
+            return null;
+        }
+        return createOrder(marketId, orderType, newQuantity, newPrice);
+    }
+
     /**
      * Fetches the latest price for a given market.
      * This is usually in BTC for altcoin markets and USD for BTC/USD markets - see the Exchange Adapter documentation.
@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.trading.api;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests AsyncTradingApi.await behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestAsyncTradingApiAwait {
+
+    private static final String CALL_NAME = "getMarketOrders";
+
+    @Test
+    public void testResultIsReturned() throws Exception {
+        assertEquals("42", AsyncTradingApi.await(CompletableFuture.completedFuture("42"), CALL_NAME));
+    }
+
+    @Test
+    public void testFailureIsThrownUnwrapped() throws Exception {
+        final ExchangeNetworkException failure = new ExchangeNetworkException("Exchange timed out");
+        final CompletableFuture<String> call = new CompletableFuture<>();
+        call.completeExceptionally(failure);
+
+        try {
+            AsyncTradingApi.await(call, CALL_NAME);
+            fail();
+        } catch (ExchangeNetworkException e) {
+            assertSame(failure, e);
+        }
+    }
+
+    @Test
+    public void testFailureOfADependentStageIsThrownUnwrapped() throws Exception {
+        final TradingApiException failure = new TradingApiException("Order rejected");
+        final CompletableFuture<String> call = new CompletableFuture<>();
+        call.completeExceptionally(new CompletionException(failure));
+
+        try {
+            AsyncTradingApi.await(call, CALL_NAME);
+            fail();
+        } catch (TradingApiException e) {
+            assertSame(failure, e);
+        }
+    }
+
+    @Test
+    public void testInterruptIsThrownAsExchangeNetworkExceptionAndRestored() throws Exception {
+        Thread.currentThread().interrupt();
+        try {
+            AsyncTradingApi.await(new CompletableFuture<String>(), CALL_NAME);
+            fail();
+        } catch (ExchangeNetworkException e) {
+            assertTrue(Thread.interrupted());
+        }
+    }
+}
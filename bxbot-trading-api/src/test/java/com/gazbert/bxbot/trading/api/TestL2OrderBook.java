@@ -0,0 +1,187 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.trading.api;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the primitive-backed L2 Order Book behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestL2OrderBook {
+
+    private static final String MARKET_ID = "BTC_USD";
+    private static final int PRICE_SCALE = 2;
+    private static final int QUANTITY_SCALE = 8;
+
+    private L2OrderBook orderBook;
+
+
+    @Before
+    public void setupOrderBookBeforeEachTest() {
+        orderBook = new L2OrderBook(MARKET_ID, PRICE_SCALE, QUANTITY_SCALE);
+        orderBook.update(OrderType.BUY, new BigDecimal("100.00"), new BigDecimal("1.5"));
+        orderBook.update(OrderType.BUY, new BigDecimal("101.50"), new BigDecimal("0.25"));
+        orderBook.update(OrderType.BUY, new BigDecimal("99"), new BigDecimal("3"));
+        orderBook.update(OrderType.SELL, new BigDecimal("103.00"), new BigDecimal("2"));
+        orderBook.update(OrderType.SELL, new BigDecimal("102.25"), new BigDecimal("0.5"));
+        orderBook.update(OrderType.SELL, new BigDecimal("104"), new BigDecimal("7.12345678"));
+    }
+
+    @Test
+    public void testLevelsAreHeldBestPriceFirstAsFixedPoint() {
+
+        assertEquals(MARKET_ID, orderBook.getMarketId());
+
+        assertEquals(3, orderBook.getBidLevels());
+        assertEquals(10150, orderBook.getBestBidPrice());
+        assertEquals(10150, orderBook.getBidPrice(0));
+        assertEquals(25000000, orderBook.getBidQuantity(0));
+        assertEquals(10000, orderBook.getBidPrice(1));
+        assertEquals(9900, orderBook.getBidPrice(2));
+
+        assertEquals(3, orderBook.getAskLevels());
+        assertEquals(10225, orderBook.getBestAskPrice());
+        assertEquals(10225, orderBook.getAskPrice(0));
+        assertEquals(10300, orderBook.getAskPrice(1));
+        assertEquals(10400, orderBook.getAskPrice(2));
+        assertEquals(712345678, orderBook.getAskQuantity(2));
+
+        assertEquals(0, new BigDecimal("101.5").compareTo(orderBook.toPrice(orderBook.getBestBidPrice())));
+        assertEquals(0, new BigDecimal("7.12345678").compareTo(orderBook.toQuantity(orderBook.getAskQuantity(2))));
+    }
+
+    @Test
+    public void testUpdatesReplaceAndRemoveLevels() {
+
+        orderBook.update(OrderType.BUY, 10000, 900000000);
+        orderBook.update(OrderType.BUY, 10150, 0);
+        orderBook.update(OrderType.SELL, 10400, 0);
+        orderBook.update(OrderType.SELL, 10500, 0); // level not in book
+
+        assertEquals(2, orderBook.getBidLevels());
+        assertEquals(10000, orderBook.getBestBidPrice());
+        assertEquals(900000000, orderBook.getBidQuantity(0));
+
+        assertEquals(2, orderBook.getAskLevels());
+        assertEquals(10300, orderBook.getAskPrice(1));
+
+        orderBook.clear();
+        assertEquals(0, orderBook.getBidLevels());
+        assertEquals(0, orderBook.getAskLevels());
+        assertEquals(L2OrderBook.NO_PRICE, orderBook.getBestBidPrice());
+        assertEquals(L2OrderBook.NO_PRICE, orderBook.getBestAskPrice());
+    }
+
+    @Test
+    public void testSnapshotIsAnImmutableCopyOfTheTopOfTheBook() {
+
+        final L2OrderBook.Snapshot snapshot = orderBook.snapshot(2);
+        orderBook.update(OrderType.BUY, 10150, 0);
+        orderBook.update(OrderType.SELL, 10200, 100000000);
+
+        assertEquals(MARKET_ID, snapshot.getMarketId());
+        assertEquals(2, snapshot.getBidLevels());
+        assertEquals(10150, snapshot.getBestBidPrice());
+        assertEquals(10000, snapshot.getBidPrice(1));
+        assertEquals(150000000, snapshot.getBidQuantity(1));
+        assertEquals(2, snapshot.getAskLevels());
+        assertEquals(10225, snapshot.getBestAskPrice());
+        assertEquals(200000000, snapshot.getAskQuantity(1));
+
+        final MarketOrderBook marketOrderBook = snapshot.toMarketOrderBook();
+        assertEquals(MARKET_ID, marketOrderBook.getMarketId());
+        assertEquals(2, marketOrderBook.getBuyOrders().size());
+        final MarketOrder bestBid = marketOrderBook.getBuyOrders().get(0);
+        assertEquals(OrderType.BUY, bestBid.getType());
+        assertEquals(0, new BigDecimal("101.50").compareTo(bestBid.getPrice()));
+        assertEquals(0, new BigDecimal("0.25").compareTo(bestBid.getQuantity()));
+        assertEquals(0, new BigDecimal("25.375").compareTo(bestBid.getTotal()));
+        assertEquals(OrderType.SELL, marketOrderBook.getSellOrders().get(1).getType());
+        assertEquals(0, new BigDecimal("103").compareTo(marketOrderBook.getSellOrders().get(1).getPrice()));
+
+        assertEquals(4, orderBook.snapshot().getAskLevels());
+    }
+
+    @Test
+    public void testBookMatchesSortedMapAfterManyRandomUpdates() {
+
+        final L2OrderBook book = new L2OrderBook(MARKET_ID, 0, 0);
+        final TreeMap<Long, Long> expectedBids = new TreeMap<>();
+        final Random random = new Random(42);
+
+        for (int i = 0; i < 20000; i++) {
+            final long price = 1 + random.nextInt(500);
+            final long quantity = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(1000);
+            book.update(OrderType.BUY, price, quantity);
+            if (quantity == 0) {
+                expectedBids.remove(price);
+            } else {
+                expectedBids.put(price, quantity);
+            }
+        }
+
+        assertEquals(expectedBids.size(), book.getBidLevels());
+        int level = 0;
+        for (final Long price : expectedBids.descendingKeySet()) {
+            assertEquals(price.longValue(), book.getBidPrice(level));
+            assertEquals(expectedBids.get(price).longValue(), book.getBidQuantity(level));
+            level++;
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPriceWithMoreDecimalPlacesThanTheBookHoldsIsRejected() {
+        orderBook.update(OrderType.BUY, new BigDecimal("100.001"), BigDecimal.ONE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositivePriceIsRejected() {
+        orderBook.update(OrderType.SELL, 0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeQuantityIsRejected() {
+        orderBook.update(OrderType.SELL, 10000, -1);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testReadingLevelBeyondTheBookIsRejected() {
+        orderBook.getAskPrice(3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSnapshotDepthMustBePositive() {
+        orderBook.snapshot(0);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.trading.api;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests an Order Request behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestOrderRequest {
+
+    private static final String MARKET_ID = "btc_usd";
+    private static final BigDecimal PRICE = new BigDecimal("671.91");
+    private static final BigDecimal QUANTITY = new BigDecimal("0.01345453");
+
+
+    @Test
+    public void testOrderRequestIsInitialisedAsExpected() {
+
+        final OrderRequest orderRequest = new OrderRequest(MARKET_ID, OrderType.SELL, QUANTITY, PRICE);
+
+        assertEquals(MARKET_ID, orderRequest.getMarketId());
+        assertEquals(OrderType.SELL, orderRequest.getType());
+        assertEquals(QUANTITY, orderRequest.getQuantity());
+        assertEquals(PRICE, orderRequest.getPrice());
+    }
+}
@@ -33,16 +33,21 @@ import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import java.io.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * The generic configuration manager loads config from a given XML config file.
+ * <p>
+ * Config file reads and writes are serialised using a {@link ReentrantLock} rather than a synchronized block: a virtual
+ * thread blocked on file I/O while holding a monitor would be pinned to its carrier thread.
  *
  * @author gazbert
  */
 public final class ConfigurationManager {
 
     private static final Logger LOG = LogManager.getLogger();
-    private final static Object MUTEX = new Object();
+    private static final Lock LOCK = new ReentrantLock();
 
     private ConfigurationManager() {
     }
@@ -67,7 +72,8 @@ public final class ConfigurationManager {
                 unmarshaller.setSchema(schema);
             }
 
-            synchronized (MUTEX) {
+            LOCK.lock();
+            try {
                 final FileInputStream fileInputStream = new FileInputStream(xmlConfigFile);
                 final JAXBElement<?> requestedConfigRootXmlElement = (JAXBElement<?>) unmarshaller.unmarshal(fileInputStream);
                 final T requestedConfig = (T) requestedConfigRootXmlElement.getValue();
@@ -75,6 +81,8 @@ public final class ConfigurationManager {
 
                 LOG.info(() -> "Loaded and set configuration for [" + configClass + "] successfully!");
                 return requestedConfig;
+            } finally {
+                LOCK.unlock();
             }
 
         } catch (JAXBException | SAXException e) {
@@ -100,10 +108,13 @@ public final class ConfigurationManager {
             final Marshaller marshaller = context.createMarshaller();
             marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
 
-            synchronized (MUTEX) {
+            LOCK.lock();
+            try {
                 final FileOutputStream fileOutputStream = new FileOutputStream(xmlConfigFile);
                 marshaller.marshal(config, fileOutputStream);
                 fileOutputStream.close();
+            } finally {
+                LOCK.unlock();
             }
 
         } catch (JAXBException e) {
@@ -9,13 +9,28 @@ package com.gazbert.bxbot.datastore;
 public final class FileLocations {
 
     /*
-     * Location of the XML config files relative to project/installation root.
+     * Default config directory relative to project/installation root. Bots hosted in the same process each have their
+     * own config directory holding the XML config files below.
      */
-    public static final String EMAIL_ALERTS_CONFIG_XML_FILENAME = "config/email-alerts.xml";
-    public static final String ENGINE_CONFIG_XML_FILENAME = "config/engine.xml";
-    public static final String EXCHANGE_CONFIG_XML_FILENAME = "config/exchange.xml";
-    public static final String MARKETS_CONFIG_XML_FILENAME = "config/markets.xml";
-    public static final String STRATEGIES_CONFIG_XML_FILENAME = "config/strategies.xml";
+    public static final String DEFAULT_CONFIG_DIR = "config";
+
+    /*
+     * Names of the XML config files within a config directory.
+     */
+    public static final String EMAIL_ALERTS_CONFIG_XML = "email-alerts.xml";
+    public static final String ENGINE_CONFIG_XML = "engine.xml";
+    public static final String EXCHANGE_CONFIG_XML = "exchange.xml";
+    public static final String MARKETS_CONFIG_XML = "markets.xml";
+    public static final String STRATEGIES_CONFIG_XML = "strategies.xml";
+
+    /*
+     * Location of the XML config files in the default config directory.
+     */
+    public static final String EMAIL_ALERTS_CONFIG_XML_FILENAME = DEFAULT_CONFIG_DIR + "/" + EMAIL_ALERTS_CONFIG_XML;
+    public static final String ENGINE_CONFIG_XML_FILENAME = DEFAULT_CONFIG_DIR + "/" + ENGINE_CONFIG_XML;
+    public static final String EXCHANGE_CONFIG_XML_FILENAME = DEFAULT_CONFIG_DIR + "/" + EXCHANGE_CONFIG_XML;
+    public static final String MARKETS_CONFIG_XML_FILENAME = DEFAULT_CONFIG_DIR + "/" + MARKETS_CONFIG_XML;
+    public static final String STRATEGIES_CONFIG_XML_FILENAME = DEFAULT_CONFIG_DIR + "/" + STRATEGIES_CONFIG_XML;
 
     /*
      * XSD schema files for validating the XML config - their location in the main/resources folder.
@@ -28,4 +43,15 @@ public final class FileLocations {
 
     private FileLocations() {
     }
+
+    /**
+     * Returns the location of an XML config file in the given config directory.
+     *
+     * @param configDir     the config directory, relative to project/installation root, or absolute.
+     * @param configXmlFile the name of the XML config file, e.g. {@link #ENGINE_CONFIG_XML}.
+     * @return the location of the XML config file.
+     */
+    public static String getConfigXmlFilename(String configDir, String configXmlFile) {
+        return configDir + "/" + configXmlFile;
+    }
 }
@@ -57,6 +57,61 @@ import java.math.BigDecimal;
  *             &lt;/restriction&gt;
  *           &lt;/simpleType&gt;
  *         &lt;/element&gt;
+ *         &lt;element name="trade-cycle-interval-unit" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}string"&gt;
+ *               &lt;enumeration value="SECONDS"/&gt;
+ *               &lt;enumeration value="MILLISECONDS"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="trade-cycle-overrun-policy" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}string"&gt;
+ *               &lt;enumeration value="SKIP"/&gt;
+ *               &lt;enumeration value="COALESCE"/&gt;
+ *               &lt;enumeration value="CATCH_UP"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="strategy-execution-mode" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}string"&gt;
+ *               &lt;enumeration value="SEQUENTIAL"/&gt;
+ *               &lt;enumeration value="PARALLEL"/&gt;
+ *               &lt;enumeration value="VIRTUAL"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="strategy-execution-pool-size" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}int"&gt;
+ *               &lt;minInclusive value="1"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="strategy-execution-timeout" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}int"&gt;
+ *               &lt;minInclusive value="1"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="emergency-stop-check-interval" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}int"&gt;
+ *               &lt;minInclusive value="1"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="strategy-invocation-mode" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}string"&gt;
+ *               &lt;enumeration value="POLL"/&gt;
+ *               &lt;enumeration value="EVENT_DRIVEN"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
  *       &lt;/sequence&gt;
  *     &lt;/restriction&gt;
  *   &lt;/complexContent&gt;
@@ -71,7 +126,14 @@ import java.math.BigDecimal;
     "botName",
     "emergencyStopCurrency",
     "emergencyStopBalance",
-    "tradeCycleInterval"
+    "tradeCycleInterval",
+    "tradeCycleIntervalUnit",
+    "tradeCycleOverrunPolicy",
+    "strategyExecutionMode",
+    "strategyExecutionPoolSize",
+    "strategyExecutionTimeout",
+    "emergencyStopCheckInterval",
+    "strategyInvocationMode"
 })
 @XmlRootElement(name="engine")
 public class EngineType {
@@ -86,6 +148,20 @@ public class EngineType {
     protected BigDecimal emergencyStopBalance;
     @XmlElement(name = "trade-cycle-interval")
     protected int tradeCycleInterval;
+    @XmlElement(name = "trade-cycle-interval-unit")
+    protected String tradeCycleIntervalUnit;
+    @XmlElement(name = "trade-cycle-overrun-policy")
+    protected String tradeCycleOverrunPolicy;
+    @XmlElement(name = "strategy-execution-mode")
+    protected String strategyExecutionMode;
+    @XmlElement(name = "strategy-execution-pool-size")
+    protected Integer strategyExecutionPoolSize;
+    @XmlElement(name = "strategy-execution-timeout")
+    protected Integer strategyExecutionTimeout;
+    @XmlElement(name = "emergency-stop-check-interval")
+    protected Integer emergencyStopCheckInterval;
+    @XmlElement(name = "strategy-invocation-mode")
+    protected String strategyInvocationMode;
 
     /**
      * Gets the value of the botId property.
@@ -199,4 +275,172 @@ public class EngineType {
         this.tradeCycleInterval = value;
     }
 
+    /**
+     * Gets the value of the tradeCycleIntervalUnit property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link String }
+     *     
+     */
+    public String getTradeCycleIntervalUnit() {
+        return tradeCycleIntervalUnit;
+    }
+
+    /**
+     * Sets the value of the tradeCycleIntervalUnit property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link String }
+     *     
+     */
+    public void setTradeCycleIntervalUnit(String value) {
+        this.tradeCycleIntervalUnit = value;
+    }
+
+    /**
+     * Gets the value of the tradeCycleOverrunPolicy property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link String }
+     *     
+     */
+    public String getTradeCycleOverrunPolicy() {
+        return tradeCycleOverrunPolicy;
+    }
+
+    /**
+     * Sets the value of the tradeCycleOverrunPolicy property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link String }
+     *     
+     */
+    public void setTradeCycleOverrunPolicy(String value) {
+        this.tradeCycleOverrunPolicy = value;
+    }
+
+    /**
+     * Gets the value of the strategyExecutionMode property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link String }
+     *     
+     */
+    public String getStrategyExecutionMode() {
+        return strategyExecutionMode;
+    }
+
+    /**
+     * Sets the value of the strategyExecutionMode property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link String }
+     *     
+     */
+    public void setStrategyExecutionMode(String value) {
+        this.strategyExecutionMode = value;
+    }
+
+    /**
+     * Gets the value of the strategyExecutionPoolSize property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getStrategyExecutionPoolSize() {
+        return strategyExecutionPoolSize;
+    }
+
+    /**
+     * Sets the value of the strategyExecutionPoolSize property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setStrategyExecutionPoolSize(Integer value) {
+        this.strategyExecutionPoolSize = value;
+    }
+
+    /**
+     * Gets the value of the strategyExecutionTimeout property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getStrategyExecutionTimeout() {
+        return strategyExecutionTimeout;
+    }
+
+    /**
+     * Sets the value of the strategyExecutionTimeout property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setStrategyExecutionTimeout(Integer value) {
+        this.strategyExecutionTimeout = value;
+    }
+
+    /**
+     * Gets the value of the emergencyStopCheckInterval property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getEmergencyStopCheckInterval() {
+        return emergencyStopCheckInterval;
+    }
+
+    /**
+     * Sets the value of the emergencyStopCheckInterval property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setEmergencyStopCheckInterval(Integer value) {
+        this.emergencyStopCheckInterval = value;
+    }
+
+    /**
+     * Gets the value of the strategyInvocationMode property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link String }
+     *     
+     */
+    public String getStrategyInvocationMode() {
+        return strategyInvocationMode;
+    }
+
+    /**
+     * Sets the value of the strategyInvocationMode property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link String }
+     *     
+     */
+    public void setStrategyInvocationMode(String value) {
+        this.strategyInvocationMode = value;
+    }
+
 }
@@ -21,6 +21,14 @@ import javax.xml.bind.annotation.*;
  *   &lt;complexContent&gt;
  *     &lt;restriction base="{http://www.w3.org/2001/XMLSchema}anyType"&gt;
  *       &lt;sequence&gt;
+ *         &lt;element name="id" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}string"&gt;
+ *               &lt;pattern value="[a-zA-Z0-9_\-]*"/&gt;
+ *               &lt;minLength value="1"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
  *         &lt;element name="name"&gt;
  *           &lt;simpleType&gt;
  *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}string"&gt;
@@ -38,6 +46,7 @@ import javax.xml.bind.annotation.*;
  *         &lt;element name="authentication-config" type="{}authentication-configType" minOccurs="0"/&gt;
  *         &lt;element name="network-config" type="{}network-configType" minOccurs="0"/&gt;
  *         &lt;element name="optional-config" type="{}optional-configType" minOccurs="0"/&gt;
+ *         &lt;element name="additional-exchanges" type="{}additional-exchangesType" minOccurs="0"/&gt;
  *       &lt;/sequence&gt;
  *     &lt;/restriction&gt;
  *   &lt;/complexContent&gt;
@@ -48,15 +57,18 @@ import javax.xml.bind.annotation.*;
  */
 @XmlAccessorType(XmlAccessType.FIELD)
 @XmlType(name = "exchangeType", propOrder = {
+    "id",
     "name",
     "adapter",
     "authenticationConfig",
     "networkConfig",
-    "optionalConfig"
+    "optionalConfig",
+    "additionalExchanges"
 })
 @XmlRootElement(name="exchange")
 public class ExchangeType {
 
+    protected String id;
     @XmlElement(required = true)
     protected String name;
     @XmlElement(required = true)
@@ -67,6 +79,32 @@ public class ExchangeType {
     protected NetworkConfigType networkConfig;
     @XmlElement(name = "optional-config")
     protected OptionalConfigType optionalConfig;
+    @XmlElement(name = "additional-exchanges")
+    protected AdditionalExchangesType additionalExchanges;
+
+    /**
+     * Gets the value of the id property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link String }
+     *     
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Sets the value of the id property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link String }
+     *     
+     */
+    public void setId(String value) {
+        this.id = value;
+    }
 
     /**
      * Gets the value of the name property.
@@ -188,4 +226,28 @@ public class ExchangeType {
         this.optionalConfig = value;
     }
 
+    /**
+     * Gets the value of the additionalExchanges property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link AdditionalExchangesType }
+     *     
+     */
+    public AdditionalExchangesType getAdditionalExchanges() {
+        return additionalExchanges;
+    }
+
+    /**
+     * Sets the value of the additionalExchanges property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link AdditionalExchangesType }
+     *     
+     */
+    public void setAdditionalExchanges(AdditionalExchangesType value) {
+        this.additionalExchanges = value;
+    }
+
 }
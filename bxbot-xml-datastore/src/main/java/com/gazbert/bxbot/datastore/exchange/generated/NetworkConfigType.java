@@ -30,6 +30,28 @@ import javax.xml.bind.annotation.XmlType;
  *             &lt;/restriction&gt;
  *           &lt;/simpleType&gt;
  *         &lt;/element&gt;
+ *         &lt;element name="read-timeout" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}int"&gt;
+ *               &lt;minInclusive value="1"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="connection-pool-size" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}int"&gt;
+ *               &lt;minInclusive value="1"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="connection-idle-timeout" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}int"&gt;
+ *               &lt;minInclusive value="1"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="rate-limits" type="{}rate-limitsType" minOccurs="0"/&gt;
  *         &lt;element name="non-fatal-error-codes" type="{}non-fatal-error-codesType" minOccurs="0"/&gt;
  *         &lt;element name="non-fatal-error-messages" type="{}non-fatal-error-messagesType" minOccurs="0"/&gt;
  *       &lt;/sequence&gt;
@@ -43,6 +65,10 @@ import javax.xml.bind.annotation.XmlType;
 @XmlAccessorType(XmlAccessType.FIELD)
 @XmlType(name = "network-configType", propOrder = {
     "connectionTimeout",
+    "readTimeout",
+    "connectionPoolSize",
+    "connectionIdleTimeout",
+    "rateLimits",
     "nonFatalErrorCodes",
     "nonFatalErrorMessages"
 })
@@ -50,6 +76,14 @@ public class NetworkConfigType {
 
     @XmlElement(name = "connection-timeout")
     protected Integer connectionTimeout;
+    @XmlElement(name = "read-timeout")
+    protected Integer readTimeout;
+    @XmlElement(name = "connection-pool-size")
+    protected Integer connectionPoolSize;
+    @XmlElement(name = "connection-idle-timeout")
+    protected Integer connectionIdleTimeout;
+    @XmlElement(name = "rate-limits")
+    protected RateLimitsType rateLimits;
     @XmlElement(name = "non-fatal-error-codes")
     protected NonFatalErrorCodesType nonFatalErrorCodes;
     @XmlElement(name = "non-fatal-error-messages")
@@ -79,6 +113,102 @@ public class NetworkConfigType {
         this.connectionTimeout = value;
     }
 
+    /**
+     * Gets the value of the readTimeout property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * Sets the value of the readTimeout property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setReadTimeout(Integer value) {
+        this.readTimeout = value;
+    }
+
+    /**
+     * Gets the value of the connectionPoolSize property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getConnectionPoolSize() {
+        return connectionPoolSize;
+    }
+
+    /**
+     * Sets the value of the connectionPoolSize property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setConnectionPoolSize(Integer value) {
+        this.connectionPoolSize = value;
+    }
+
+    /**
+     * Gets the value of the connectionIdleTimeout property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getConnectionIdleTimeout() {
+        return connectionIdleTimeout;
+    }
+
+    /**
+     * Sets the value of the connectionIdleTimeout property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setConnectionIdleTimeout(Integer value) {
+        this.connectionIdleTimeout = value;
+    }
+
+    /**
+     * Gets the value of the rateLimits property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link RateLimitsType }
+     *     
+     */
+    public RateLimitsType getRateLimits() {
+        return rateLimits;
+    }
+
+    /**
+     * Sets the value of the rateLimits property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link RateLimitsType }
+     *     
+     */
+    public void setRateLimits(RateLimitsType value) {
+        this.rateLimits = value;
+    }
+
     /**
      * Gets the value of the nonFatalErrorCodes property.
      * 
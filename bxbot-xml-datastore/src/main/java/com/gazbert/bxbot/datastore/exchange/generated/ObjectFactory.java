@@ -72,6 +72,22 @@ public class ObjectFactory {
         return new OptionalConfigType();
     }
 
+    /**
+     * Create an instance of {@link AdditionalExchangesType }
+     * 
+     */
+    public AdditionalExchangesType createAdditionalExchangesType() {
+        return new AdditionalExchangesType();
+    }
+
+    /**
+     * Create an instance of {@link RateLimitsType }
+     * 
+     */
+    public RateLimitsType createRateLimitsType() {
+        return new RateLimitsType();
+    }
+
     /**
      * Create an instance of {@link NonFatalErrorMessagesType }
      * 
@@ -96,6 +112,14 @@ public class ObjectFactory {
         return new ConfigItemType();
     }
 
+    /**
+     * Create an instance of {@link RateLimitType }
+     * 
+     */
+    public RateLimitType createRateLimitType() {
+        return new RateLimitType();
+    }
+
     /**
      * Create an instance of {@link JAXBElement }{@code <}{@link ExchangeType }{@code >}}
      * 
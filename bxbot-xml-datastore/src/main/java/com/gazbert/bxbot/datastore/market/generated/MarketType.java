@@ -61,6 +61,36 @@ import javax.xml.bind.annotation.XmlType;
  *             &lt;/restriction&gt;
  *           &lt;/simpleType&gt;
  *         &lt;/element&gt;
+ *         &lt;element name="trade-cycle-interval" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}int"&gt;
+ *               &lt;minInclusive value="1"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="trade-cycle-interval-unit" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}string"&gt;
+ *               &lt;enumeration value="SECONDS"/&gt;
+ *               &lt;enumeration value="MILLISECONDS"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="exchange-id" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}string"&gt;
+ *               &lt;pattern value="[a-zA-Z0-9_\-]*"/&gt;
+ *               &lt;minLength value="1"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="order-book-depth" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}int"&gt;
+ *               &lt;minInclusive value="1"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
  *       &lt;/sequence&gt;
  *     &lt;/restriction&gt;
  *   &lt;/complexContent&gt;
@@ -76,7 +106,11 @@ import javax.xml.bind.annotation.XmlType;
     "baseCurrency",
     "counterCurrency",
     "enabled",
-    "tradingStrategyId"
+    "tradingStrategyId",
+    "tradeCycleInterval",
+    "tradeCycleIntervalUnit",
+    "exchangeId",
+    "orderBookDepth"
 })
 public class MarketType {
 
@@ -91,6 +125,14 @@ public class MarketType {
     protected boolean enabled;
     @XmlElement(name = "trading-strategy-id", required = true)
     protected String tradingStrategyId;
+    @XmlElement(name = "trade-cycle-interval")
+    protected Integer tradeCycleInterval;
+    @XmlElement(name = "trade-cycle-interval-unit")
+    protected String tradeCycleIntervalUnit;
+    @XmlElement(name = "exchange-id")
+    protected String exchangeId;
+    @XmlElement(name = "order-book-depth")
+    protected Integer orderBookDepth;
 
     /**
      * Gets the value of the id property.
@@ -228,4 +270,100 @@ public class MarketType {
         this.tradingStrategyId = value;
     }
 
+    /**
+     * Gets the value of the tradeCycleInterval property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getTradeCycleInterval() {
+        return tradeCycleInterval;
+    }
+
+    /**
+     * Sets the value of the tradeCycleInterval property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setTradeCycleInterval(Integer value) {
+        this.tradeCycleInterval = value;
+    }
+
+    /**
+     * Gets the value of the tradeCycleIntervalUnit property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link String }
+     *     
+     */
+    public String getTradeCycleIntervalUnit() {
+        return tradeCycleIntervalUnit;
+    }
+
+    /**
+     * Sets the value of the tradeCycleIntervalUnit property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link String }
+     *     
+     */
+    public void setTradeCycleIntervalUnit(String value) {
+        this.tradeCycleIntervalUnit = value;
+    }
+
+    /**
+     * Gets the value of the exchangeId property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link String }
+     *     
+     */
+    public String getExchangeId() {
+        return exchangeId;
+    }
+
+    /**
+     * Sets the value of the exchangeId property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link String }
+     *     
+     */
+    public void setExchangeId(String value) {
+        this.exchangeId = value;
+    }
+
+    /**
+     * Gets the value of the orderBookDepth property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getOrderBookDepth() {
+        return orderBookDepth;
+    }
+
+    /**
+     * Sets the value of the orderBookDepth property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setOrderBookDepth(Integer value) {
+        this.orderBookDepth = value;
+    }
+
 }
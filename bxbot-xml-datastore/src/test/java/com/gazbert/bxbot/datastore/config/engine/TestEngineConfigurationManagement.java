@@ -55,6 +55,13 @@ public class TestEngineConfigurationManagement {
     private static final String EMERGENCY_STOP_CURRENCY = "BTC";
     private static final BigDecimal EMERGENCY_STOP_BALANCE = new BigDecimal("0.5");
     private static final int TRADE_CYCLE_INTERVAL = 60;
+    private static final String TRADE_CYCLE_INTERVAL_UNIT = "MILLISECONDS";
+    private static final String TRADE_CYCLE_OVERRUN_POLICY = "SKIP";
+    private static final String STRATEGY_EXECUTION_MODE = "PARALLEL";
+    private static final Integer STRATEGY_EXECUTION_POOL_SIZE = 4;
+    private static final Integer STRATEGY_EXECUTION_TIMEOUT = 30;
+    private static final Integer EMERGENCY_STOP_CHECK_INTERVAL = 5;
+    private static final String STRATEGY_INVOCATION_MODE = "EVENT_DRIVEN";
 
 
     @Test
@@ -68,6 +75,13 @@ public class TestEngineConfigurationManagement {
         assertEquals(EMERGENCY_STOP_CURRENCY, engine.getEmergencyStopCurrency());
         assertTrue(EMERGENCY_STOP_BALANCE.compareTo(engine.getEmergencyStopBalance()) == 0);
         assertTrue(TRADE_CYCLE_INTERVAL == engine.getTradeCycleInterval());
+        assertEquals(TRADE_CYCLE_INTERVAL_UNIT, engine.getTradeCycleIntervalUnit());
+        assertEquals(TRADE_CYCLE_OVERRUN_POLICY, engine.getTradeCycleOverrunPolicy());
+        assertEquals(STRATEGY_EXECUTION_MODE, engine.getStrategyExecutionMode());
+        assertEquals(STRATEGY_EXECUTION_POOL_SIZE, engine.getStrategyExecutionPoolSize());
+        assertEquals(STRATEGY_EXECUTION_TIMEOUT, engine.getStrategyExecutionTimeout());
+        assertEquals(EMERGENCY_STOP_CHECK_INTERVAL, engine.getEmergencyStopCheckInterval());
+        assertEquals(STRATEGY_INVOCATION_MODE, engine.getStrategyInvocationMode());
     }
 
     @Test(expected = IllegalStateException.class)
@@ -89,6 +103,13 @@ public class TestEngineConfigurationManagement {
         engineConfig.setEmergencyStopCurrency(EMERGENCY_STOP_CURRENCY);
         engineConfig.setEmergencyStopBalance(EMERGENCY_STOP_BALANCE);
         engineConfig.setTradeCycleInterval(TRADE_CYCLE_INTERVAL);
+        engineConfig.setTradeCycleIntervalUnit(TRADE_CYCLE_INTERVAL_UNIT);
+        engineConfig.setTradeCycleOverrunPolicy(TRADE_CYCLE_OVERRUN_POLICY);
+        engineConfig.setStrategyExecutionMode(STRATEGY_EXECUTION_MODE);
+        engineConfig.setStrategyExecutionPoolSize(STRATEGY_EXECUTION_POOL_SIZE);
+        engineConfig.setStrategyExecutionTimeout(STRATEGY_EXECUTION_TIMEOUT);
+        engineConfig.setEmergencyStopCheckInterval(EMERGENCY_STOP_CHECK_INTERVAL);
+        engineConfig.setStrategyInvocationMode(STRATEGY_INVOCATION_MODE);
 
         ConfigurationManager.saveConfig(EngineType.class, engineConfig, XML_CONFIG_TO_SAVE_FILENAME);
 
@@ -101,6 +122,13 @@ public class TestEngineConfigurationManagement {
         assertEquals(EMERGENCY_STOP_CURRENCY, engineReloaded.getEmergencyStopCurrency());
         assertTrue(EMERGENCY_STOP_BALANCE.compareTo(engineReloaded.getEmergencyStopBalance()) == 0);
         assertTrue(TRADE_CYCLE_INTERVAL == engineReloaded.getTradeCycleInterval());
+        assertEquals(TRADE_CYCLE_INTERVAL_UNIT, engineReloaded.getTradeCycleIntervalUnit());
+        assertEquals(TRADE_CYCLE_OVERRUN_POLICY, engineReloaded.getTradeCycleOverrunPolicy());
+        assertEquals(STRATEGY_EXECUTION_MODE, engineReloaded.getStrategyExecutionMode());
+        assertEquals(STRATEGY_EXECUTION_POOL_SIZE, engineReloaded.getStrategyExecutionPoolSize());
+        assertEquals(STRATEGY_EXECUTION_TIMEOUT, engineReloaded.getStrategyExecutionTimeout());
+        assertEquals(EMERGENCY_STOP_CHECK_INTERVAL, engineReloaded.getEmergencyStopCheckInterval());
+        assertEquals(STRATEGY_INVOCATION_MODE, engineReloaded.getStrategyInvocationMode());
 
         // cleanup
         Files.delete(FileSystems.getDefault().getPath(XML_CONFIG_TO_SAVE_FILENAME));
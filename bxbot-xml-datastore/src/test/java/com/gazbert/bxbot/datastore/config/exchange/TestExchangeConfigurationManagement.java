@@ -62,18 +62,31 @@ public class TestExchangeConfigurationManagement {
     private static final String SECRET_CONFIG_ITEM_VALUE = "your-secret-key";
 
     private static final Integer CONNECTION_TIMEOUT = 30;
+    private static final Integer READ_TIMEOUT = 60;
+    private static final Integer CONNECTION_POOL_SIZE = 10;
+    private static final Integer CONNECTION_IDLE_TIMEOUT = 30;
     private static final List<Integer> NON_FATAL_ERROR_CODES = Arrays.asList(502, 503, 504, 520, 522, 525);
     private static final List<String> NON_FATAL_ERROR_MESSAGES = Arrays.asList(
             "Connection refused",
             "Connection reset",
             "Remote host closed connection during handshake",
             "Unexpected end of file from server");
+    private static final String ALL_RATE_LIMIT_ENDPOINT_CLASS = "all";
+    private static final int ALL_RATE_LIMIT_REQUESTS = 600;
+    private static final int ALL_RATE_LIMIT_PERIOD = 600;
+    private static final String PRIVATE_RATE_LIMIT_ENDPOINT_CLASS = "private";
+    private static final int PRIVATE_RATE_LIMIT_REQUESTS = 15;
+    private static final int PRIVATE_RATE_LIMIT_PERIOD = 45;
 
     private static final String BUY_FEE_CONFIG_ITEM_KEY = "buy-fee";
     private static final String BUY_FEE_CONFIG_ITEM_VALUE = "0.5";
     private static final String SELL_FEE_CONFIG_ITEM_KEY = "sell-fee";
     private static final String SELL_FEE_CONFIG_ITEM_VALUE = "0.5";
 
+    private static final String ADDITIONAL_EXCHANGE_ID = "kraken";
+    private static final String ADDITIONAL_EXCHANGE_NAME = "Kraken";
+    private static final String ADDITIONAL_EXCHANGE_ADAPTER = "com.gazbert.bxbot.exchanges.KrakenExchangeAdapter";
+
 
     @Test
     public void testLoadingValidXmlConfigFileIsSuccessful() {
@@ -92,13 +105,33 @@ public class TestExchangeConfigurationManagement {
         assertThat(exchangeType.getAuthenticationConfig().getConfigItems().get(2).getValue()).isEqualTo(SECRET_CONFIG_ITEM_VALUE);
 
         assertThat(exchangeType.getNetworkConfig().getConnectionTimeout()).isEqualTo(CONNECTION_TIMEOUT);
+        assertThat(exchangeType.getNetworkConfig().getReadTimeout()).isEqualTo(READ_TIMEOUT);
+        assertThat(exchangeType.getNetworkConfig().getConnectionPoolSize()).isEqualTo(CONNECTION_POOL_SIZE);
+        assertThat(exchangeType.getNetworkConfig().getConnectionIdleTimeout()).isEqualTo(CONNECTION_IDLE_TIMEOUT);
         assertTrue(exchangeType.getNetworkConfig().getNonFatalErrorCodes().getCodes().containsAll(NON_FATAL_ERROR_CODES));
         assertTrue(exchangeType.getNetworkConfig().getNonFatalErrorMessages().getMessages().containsAll(NON_FATAL_ERROR_MESSAGES));
 
+        final List<RateLimitType> rateLimits = exchangeType.getNetworkConfig().getRateLimits().getRateLimits();
+        assertThat(rateLimits.size()).isEqualTo(2);
+        assertThat(rateLimits.get(0).getEndpointClass()).isEqualTo(ALL_RATE_LIMIT_ENDPOINT_CLASS);
+        assertThat(rateLimits.get(0).getRequests()).isEqualTo(ALL_RATE_LIMIT_REQUESTS);
+        assertThat(rateLimits.get(0).getPeriod()).isEqualTo(ALL_RATE_LIMIT_PERIOD);
+        assertThat(rateLimits.get(1).getEndpointClass()).isEqualTo(PRIVATE_RATE_LIMIT_ENDPOINT_CLASS);
+        assertThat(rateLimits.get(1).getRequests()).isEqualTo(PRIVATE_RATE_LIMIT_REQUESTS);
+        assertThat(rateLimits.get(1).getPeriod()).isEqualTo(PRIVATE_RATE_LIMIT_PERIOD);
+
         assertThat(exchangeType.getOptionalConfig().getConfigItems().get(0).getName()).isEqualTo(BUY_FEE_CONFIG_ITEM_KEY);
         assertThat(exchangeType.getOptionalConfig().getConfigItems().get(0).getValue()).isEqualTo(BUY_FEE_CONFIG_ITEM_VALUE);
         assertThat(exchangeType.getOptionalConfig().getConfigItems().get(1).getName()).isEqualTo(SELL_FEE_CONFIG_ITEM_KEY);
         assertThat(exchangeType.getOptionalConfig().getConfigItems().get(1).getValue()).isEqualTo(SELL_FEE_CONFIG_ITEM_VALUE);
+
+        assertThat(exchangeType.getId()).isNull();
+        assertThat(exchangeType.getAdditionalExchanges().getExchanges().size()).isEqualTo(1);
+        final ExchangeType additionalExchange = exchangeType.getAdditionalExchanges().getExchanges().get(0);
+        assertThat(additionalExchange.getId()).isEqualTo(ADDITIONAL_EXCHANGE_ID);
+        assertThat(additionalExchange.getName()).isEqualTo(ADDITIONAL_EXCHANGE_NAME);
+        assertThat(additionalExchange.getAdapter()).isEqualTo(ADDITIONAL_EXCHANGE_ADAPTER);
+        assertThat(additionalExchange.getAuthenticationConfig()).isNull();
     }
 
     @Test(expected = IllegalStateException.class)
@@ -135,8 +168,23 @@ public class TestExchangeConfigurationManagement {
         nonFatalErrorMessages.getMessages().addAll(NON_FATAL_ERROR_MESSAGES);
         final NetworkConfigType networkConfig = new NetworkConfigType();
         networkConfig.setConnectionTimeout(CONNECTION_TIMEOUT);
+        networkConfig.setReadTimeout(READ_TIMEOUT);
+        networkConfig.setConnectionPoolSize(CONNECTION_POOL_SIZE);
+        networkConfig.setConnectionIdleTimeout(CONNECTION_IDLE_TIMEOUT);
         networkConfig.setNonFatalErrorCodes(nonFatalErrorCodes);
         networkConfig.setNonFatalErrorMessages(nonFatalErrorMessages);
+        final RateLimitType allRateLimit = new RateLimitType();
+        allRateLimit.setEndpointClass(ALL_RATE_LIMIT_ENDPOINT_CLASS);
+        allRateLimit.setRequests(ALL_RATE_LIMIT_REQUESTS);
+        allRateLimit.setPeriod(ALL_RATE_LIMIT_PERIOD);
+        final RateLimitType privateRateLimit = new RateLimitType();
+        privateRateLimit.setEndpointClass(PRIVATE_RATE_LIMIT_ENDPOINT_CLASS);
+        privateRateLimit.setRequests(PRIVATE_RATE_LIMIT_REQUESTS);
+        privateRateLimit.setPeriod(PRIVATE_RATE_LIMIT_PERIOD);
+        final RateLimitsType rateLimits = new RateLimitsType();
+        rateLimits.getRateLimits().add(allRateLimit);
+        rateLimits.getRateLimits().add(privateRateLimit);
+        networkConfig.setRateLimits(rateLimits);
 
         final ConfigItemType buyFee = new ConfigItemType();
         buyFee.setName(BUY_FEE_CONFIG_ITEM_KEY);
@@ -155,6 +203,14 @@ public class TestExchangeConfigurationManagement {
         exchangeConfig.setNetworkConfig(networkConfig);
         exchangeConfig.setOptionalConfig(optionalConfig);
 
+        final ExchangeType additionalExchange = new ExchangeType();
+        additionalExchange.setId(ADDITIONAL_EXCHANGE_ID);
+        additionalExchange.setName(ADDITIONAL_EXCHANGE_NAME);
+        additionalExchange.setAdapter(ADDITIONAL_EXCHANGE_ADAPTER);
+        final AdditionalExchangesType additionalExchanges = new AdditionalExchangesType();
+        additionalExchanges.getExchanges().add(additionalExchange);
+        exchangeConfig.setAdditionalExchanges(additionalExchanges);
+
         // Save it!
         ConfigurationManager.saveConfig(ExchangeType.class, exchangeConfig, XML_CONFIG_TO_SAVE_FILENAME);
 
@@ -171,14 +227,31 @@ public class TestExchangeConfigurationManagement {
         assertThat(exchangeReloaded.getAuthenticationConfig().getConfigItems().get(1).getValue()).isEqualTo(SECRET_CONFIG_ITEM_VALUE);
 
         assertThat(exchangeReloaded.getNetworkConfig().getConnectionTimeout()).isEqualTo(CONNECTION_TIMEOUT);
+        assertThat(exchangeReloaded.getNetworkConfig().getReadTimeout()).isEqualTo(READ_TIMEOUT);
+        assertThat(exchangeReloaded.getNetworkConfig().getConnectionPoolSize()).isEqualTo(CONNECTION_POOL_SIZE);
+        assertThat(exchangeReloaded.getNetworkConfig().getConnectionIdleTimeout()).isEqualTo(CONNECTION_IDLE_TIMEOUT);
         assertTrue(exchangeReloaded.getNetworkConfig().getNonFatalErrorCodes().getCodes().containsAll(NON_FATAL_ERROR_CODES));
         assertTrue(exchangeReloaded.getNetworkConfig().getNonFatalErrorMessages().getMessages().containsAll(NON_FATAL_ERROR_MESSAGES));
 
+        final List<RateLimitType> rateLimitsReloaded = exchangeReloaded.getNetworkConfig().getRateLimits().getRateLimits();
+        assertThat(rateLimitsReloaded.size()).isEqualTo(2);
+        assertThat(rateLimitsReloaded.get(0).getEndpointClass()).isEqualTo(ALL_RATE_LIMIT_ENDPOINT_CLASS);
+        assertThat(rateLimitsReloaded.get(0).getRequests()).isEqualTo(ALL_RATE_LIMIT_REQUESTS);
+        assertThat(rateLimitsReloaded.get(0).getPeriod()).isEqualTo(ALL_RATE_LIMIT_PERIOD);
+        assertThat(rateLimitsReloaded.get(1).getEndpointClass()).isEqualTo(PRIVATE_RATE_LIMIT_ENDPOINT_CLASS);
+        assertThat(rateLimitsReloaded.get(1).getRequests()).isEqualTo(PRIVATE_RATE_LIMIT_REQUESTS);
+        assertThat(rateLimitsReloaded.get(1).getPeriod()).isEqualTo(PRIVATE_RATE_LIMIT_PERIOD);
+
         assertThat(exchangeReloaded.getOptionalConfig().getConfigItems().get(0).getName()).isEqualTo(BUY_FEE_CONFIG_ITEM_KEY);
         assertThat(exchangeReloaded.getOptionalConfig().getConfigItems().get(0).getValue()).isEqualTo(BUY_FEE_CONFIG_ITEM_VALUE);
         assertThat(exchangeReloaded.getOptionalConfig().getConfigItems().get(1).getName()).isEqualTo(SELL_FEE_CONFIG_ITEM_KEY);
         assertThat(exchangeReloaded.getOptionalConfig().getConfigItems().get(1).getValue()).isEqualTo(SELL_FEE_CONFIG_ITEM_VALUE);
 
+        final ExchangeType additionalExchangeReloaded = exchangeReloaded.getAdditionalExchanges().getExchanges().get(0);
+        assertThat(additionalExchangeReloaded.getId()).isEqualTo(ADDITIONAL_EXCHANGE_ID);
+        assertThat(additionalExchangeReloaded.getName()).isEqualTo(ADDITIONAL_EXCHANGE_NAME);
+        assertThat(additionalExchangeReloaded.getAdapter()).isEqualTo(ADDITIONAL_EXCHANGE_ADAPTER);
+
         // cleanup
         Files.delete(FileSystems.getDefault().getPath(XML_CONFIG_TO_SAVE_FILENAME));
     }
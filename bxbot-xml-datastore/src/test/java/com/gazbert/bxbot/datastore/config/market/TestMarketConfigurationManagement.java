@@ -56,6 +56,10 @@ public class TestMarketConfigurationManagement {
     private static final String MARKET_1_COUNTER_CURRENCY = "USD";
     private static final boolean MARKET_1_IS_ENABLED = true;
     private static final String MARKET_1_TRADING_STRATEGY_ID = "macd_trend_follower";
+    private static final Integer MARKET_1_TRADE_CYCLE_INTERVAL = 500;
+    private static final String MARKET_1_TRADE_CYCLE_INTERVAL_UNIT = "MILLISECONDS";
+    private static final String MARKET_1_EXCHANGE_ID = "kraken";
+    private static final Integer MARKET_1_ORDER_BOOK_DEPTH = 20;
 
     private static final String MARKET_2_ID = "gdax_gbp/btc";
     private static final String MARKET_2_NAME = "BTC/GBP";
@@ -79,6 +83,10 @@ public class TestMarketConfigurationManagement {
         assertEquals("USD", marketsType.getMarkets().get(0).getCounterCurrency());
         assertTrue(marketsType.getMarkets().get(0).isEnabled());
         assertEquals("scalping-strategy", marketsType.getMarkets().get(0).getTradingStrategyId());
+        assertEquals(Integer.valueOf(500), marketsType.getMarkets().get(0).getTradeCycleInterval());
+        assertEquals("MILLISECONDS", marketsType.getMarkets().get(0).getTradeCycleIntervalUnit());
+        assertEquals("kraken", marketsType.getMarkets().get(0).getExchangeId());
+        assertEquals(Integer.valueOf(20), marketsType.getMarkets().get(0).getOrderBookDepth());
 
         assertEquals("ltc_usd", marketsType.getMarkets().get(1).getId());
         assertEquals("LTC/BTC", marketsType.getMarkets().get(1).getName());
@@ -86,6 +94,10 @@ public class TestMarketConfigurationManagement {
         assertEquals("BTC", marketsType.getMarkets().get(1).getCounterCurrency());
         assertFalse(marketsType.getMarkets().get(1).isEnabled());
         assertEquals("scalping-strategy", marketsType.getMarkets().get(1).getTradingStrategyId());
+        assertNull(marketsType.getMarkets().get(1).getTradeCycleInterval());
+        assertNull(marketsType.getMarkets().get(1).getTradeCycleIntervalUnit());
+        assertNull(marketsType.getMarkets().get(1).getExchangeId());
+        assertNull(marketsType.getMarkets().get(1).getOrderBookDepth());
     }
 
     @Test(expected = IllegalStateException.class)
@@ -112,6 +124,10 @@ public class TestMarketConfigurationManagement {
         market1.setBaseCurrency(MARKET_1_BASE_CURRENCY);
         market1.setCounterCurrency(MARKET_1_COUNTER_CURRENCY);
         market1.setTradingStrategyId(MARKET_1_TRADING_STRATEGY_ID);
+        market1.setTradeCycleInterval(MARKET_1_TRADE_CYCLE_INTERVAL);
+        market1.setTradeCycleIntervalUnit(MARKET_1_TRADE_CYCLE_INTERVAL_UNIT);
+        market1.setExchangeId(MARKET_1_EXCHANGE_ID);
+        market1.setOrderBookDepth(MARKET_1_ORDER_BOOK_DEPTH);
 
         final MarketType market2 = new MarketType();
         market2.setEnabled(MARKET_2_IS_ENABLED);
@@ -137,6 +153,10 @@ public class TestMarketConfigurationManagement {
         assertThat(marketsReloaded.getMarkets().get(0).getBaseCurrency()).isEqualTo(MARKET_1_BASE_CURRENCY);
         assertThat(marketsReloaded.getMarkets().get(0).getCounterCurrency()).isEqualTo(MARKET_1_COUNTER_CURRENCY);
         assertThat(marketsReloaded.getMarkets().get(0).getTradingStrategyId()).isEqualTo(MARKET_1_TRADING_STRATEGY_ID);
+        assertThat(marketsReloaded.getMarkets().get(0).getTradeCycleInterval()).isEqualTo(MARKET_1_TRADE_CYCLE_INTERVAL);
+        assertThat(marketsReloaded.getMarkets().get(0).getTradeCycleIntervalUnit()).isEqualTo(MARKET_1_TRADE_CYCLE_INTERVAL_UNIT);
+        assertThat(marketsReloaded.getMarkets().get(0).getExchangeId()).isEqualTo(MARKET_1_EXCHANGE_ID);
+        assertThat(marketsReloaded.getMarkets().get(0).getOrderBookDepth()).isEqualTo(MARKET_1_ORDER_BOOK_DEPTH);
 
         assertThat(marketsReloaded.getMarkets().get(1).isEnabled()).isEqualTo(MARKET_2_IS_ENABLED);
         assertThat(marketsReloaded.getMarkets().get(1).getId()).isEqualTo(MARKET_2_ID);
@@ -144,6 +164,7 @@ public class TestMarketConfigurationManagement {
         assertThat(marketsReloaded.getMarkets().get(1).getBaseCurrency()).isEqualTo(MARKET_2_BASE_CURRENCY);
         assertThat(marketsReloaded.getMarkets().get(1).getCounterCurrency()).isEqualTo(MARKET_2_COUNTER_CURRENCY);
         assertThat(marketsReloaded.getMarkets().get(1).getTradingStrategyId()).isEqualTo(MARKET_2_TRADING_STRATEGY_ID);
+        assertThat(marketsReloaded.getMarkets().get(1).getTradeCycleInterval()).isNull();
 
         // cleanup
         Files.delete(FileSystems.getDefault().getPath(XML_CONFIG_TO_SAVE_FILENAME));